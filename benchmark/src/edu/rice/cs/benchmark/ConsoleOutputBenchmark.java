@@ -0,0 +1,120 @@
+/* BEGIN_COPYRIGHT_BLOCK
+ *
+ * Copyright (c) 2001-2019, JavaPLT group at Rice University (drjava@rice.edu)
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    * Redistributions of source code must retain the above copyright
+ *      notice, this list of conditions and the following disclaimer.
+ *    * Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in the
+ *      documentation and/or other materials provided with the distribution.
+ *    * Neither the names of DrJava, the JavaPLT group, Rice University, nor the
+ *      names of its contributors may be used to endorse or promote products
+ *      derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This software is Open Source Initiative approved Open Source Software.
+ * Open Source Initative Approved is a trademark of the Open Source Initiative.
+ * 
+ * This file is part of DrJava.  Download the current version of this project
+ * from http://www.drjava.org/ or http://sourceforge.net/projects/drjava/
+ * 
+ * END_COPYRIGHT_BLOCK*/
+
+package edu.rice.cs.benchmark;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.rice.cs.util.BufferedOutputStreamRedirector;
+import edu.rice.cs.util.OutputStreamRedirector;
+
+/** Benchmarks the redirection of System.out in the interpreter JVM: a burst of println calls through a PrintStream,
+  * as installed by InterpreterJVM, where each print to the main JVM costs a simulated remote call.  Compares the
+  * unbuffered OutputStreamRedirector with BufferedOutputStreamRedirector.
+  * @version $Id$
+  */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConsoleOutputBenchmark {
+  
+  /** Number of println calls per invocation. */
+  @Param({"10000"})
+  public int lines;
+  
+  /** Simulated cost of one remote print, in microseconds. */
+  @Param({"50"})
+  public int remoteMicros;
+  
+  private PrintStream _unbuffered;
+  private PrintStream _buffered;
+  private BufferedOutputStreamRedirector _bufferedRedirector;
+  private long _printed;
+  
+  @Setup
+  public void setUp() {
+    _unbuffered = new PrintStream(new OutputStreamRedirector() {
+      public void print(String s) { _remotePrint(s); }
+    });
+    _bufferedRedirector = new BufferedOutputStreamRedirector() {
+      public void print(String s) { _remotePrint(s); }
+    };
+    _buffered = new PrintStream(_bufferedRedirector);
+  }
+  
+  /** Spins for remoteMicros, standing in for a call to the main JVM. */
+  private void _remotePrint(String s) {
+    long end = System.nanoTime() + remoteMicros * 1000L;
+    while (System.nanoTime() < end) { }
+    _printed += s.length();
+  }
+  
+  private long _println(PrintStream out) {
+    for (int i = 0; i < lines; i++) { out.println("line " + i); }
+    out.flush();
+    return _printed;
+  }
+  
+  /** One remote call per write, as with OutputStreamRedirector. */
+  @Benchmark
+  public long unbuffered() { return _println(_unbuffered); }
+  
+  /** Chunked remote calls, as with BufferedOutputStreamRedirector; flushed at the end, as before an interaction
+    * result is returned. */
+  @Benchmark
+  public long buffered() {
+    long result = _println(_buffered);
+    _bufferedRedirector.flush();
+    return result;
+  }
+}
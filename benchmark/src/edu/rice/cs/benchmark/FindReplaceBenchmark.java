@@ -0,0 +1,131 @@
+/* BEGIN_COPYRIGHT_BLOCK
+ *
+ * Copyright (c) 2001-2019, JavaPLT group at Rice University (drjava@rice.edu)
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    * Redistributions of source code must retain the above copyright
+ *      notice, this list of conditions and the following disclaimer.
+ *    * Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in the
+ *      documentation and/or other materials provided with the distribution.
+ *    * Neither the names of DrJava, the JavaPLT group, Rice University, nor the
+ *      names of its contributors may be used to endorse or promote products
+ *      derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This software is Open Source Initiative approved Open Source Software.
+ * Open Source Initative Approved is a trademark of the Open Source Initiative.
+ * 
+ * This file is part of DrJava.  Download the current version of this project
+ * from http://www.drjava.org/ or http://sourceforge.net/projects/drjava/
+ * 
+ * END_COPYRIGHT_BLOCK*/
+
+package edu.rice.cs.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.rice.cs.drjava.model.AbstractGlobalModel;
+import edu.rice.cs.drjava.model.FindReplaceMachine;
+import edu.rice.cs.drjava.model.FindResult;
+import edu.rice.cs.drjava.model.OpenDefinitionsDocument;
+import edu.rice.cs.plt.io.IOUtil;
+import edu.rice.cs.plt.lambda.Runnable1;
+
+/** Benchmarks finding all occurrences of a word with the FindReplaceMachine, in one or several open documents.
+  * Like the global model it uses, it needs a display.
+  * @version $Id$
+  */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FindReplaceBenchmark {
+  
+  @Param({Fixtures.LARGE_SOURCE})
+  public String source;
+  
+  @Param({"_model", "public"})
+  public String word;
+  
+  @Param({"1", "8"})
+  public int documents;
+  
+  @Param({"false", "true"})
+  public boolean ignoreCommentsAndStrings;
+  
+  private File _tempDir;
+  private AbstractGlobalModel _model;
+  private OpenDefinitionsDocument _first;
+  private FindReplaceMachine _frm;
+  private int _count;
+  
+  @Setup
+  public void setUp() throws IOException {
+    String text = Fixtures.text(source);
+    _tempDir = IOUtil.createAndMarkTempDirectory("drjava-benchmark", "");
+    _model = new AbstractGlobalModel();
+    for (int i = 0; i < documents; i++) {
+      OpenDefinitionsDocument doc = _model.newFile(_tempDir, text);
+      if (_first == null) _first = doc;
+    }
+    _frm = new FindReplaceMachine(_model, _model.getDocumentIterator(), null);
+    _frm.setFindWord(word);
+    _frm.setMatchCase(true);
+    _frm.setIgnoreCommentsAndStrings(ignoreCommentsAndStrings);
+    _frm.setSearchAllDocuments(documents > 1);
+  }
+  
+  @TearDown
+  public void tearDown() {
+    Fixtures.inEventThread(new Runnable() {
+      public void run() {
+        _frm.cleanUp();
+        _model.closeAllFiles();
+      }
+    });
+    IOUtil.deleteRecursively(_tempDir);
+  }
+  
+  @Benchmark
+  public int findAll() {
+    Fixtures.inEventThread(new Runnable() {
+      public void run() {
+        _frm.setDocument(_first);
+        _frm.setFirstDoc(_first);
+        _count = _frm.processAll(new Runnable1<FindResult>() { public void run(FindResult fr) { } });
+      }
+    });
+    return _count;
+  }
+}
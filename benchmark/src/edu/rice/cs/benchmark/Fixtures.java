@@ -0,0 +1,114 @@
+/* BEGIN_COPYRIGHT_BLOCK
+ *
+ * Copyright (c) 2001-2019, JavaPLT group at Rice University (drjava@rice.edu)
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    * Redistributions of source code must retain the above copyright
+ *      notice, this list of conditions and the following disclaimer.
+ *    * Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in the
+ *      documentation and/or other materials provided with the distribution.
+ *    * Neither the names of DrJava, the JavaPLT group, Rice University, nor the
+ *      names of its contributors may be used to endorse or promote products
+ *      derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This software is Open Source Initiative approved Open Source Software.
+ * Open Source Initative Approved is a trademark of the Open Source Initiative.
+ * 
+ * This file is part of DrJava.  Download the current version of this project
+ * from http://www.drjava.org/ or http://sourceforge.net/projects/drjava/
+ * 
+ * END_COPYRIGHT_BLOCK*/
+
+package edu.rice.cs.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.rice.cs.plt.io.IOUtil;
+import edu.rice.cs.util.swing.Utilities;
+
+/** Loads the fixtures shared by the benchmarks.  Fixture paths are relative to the benchmark module, where the
+  * benchmarks are run from, and may be overridden with JMH parameters (-p name=value).
+  * @version $Id$
+  */
+public final class Fixtures {
+  
+  /** A large, realistic source file: the DrJava main window. */
+  public static final String LARGE_SOURCE = "../drjava/src/edu/rice/cs/drjava/ui/MainFrame.java";
+  
+  /** A script of typical interactions, one per line. */
+  public static final String INTERACTIONS = "fixtures/interactions.txt";
+  
+  /** A language-level project: the advanced-level files used by the javalanglevels tests. */
+  public static final String LANGUAGE_LEVEL_PROJECT = "../javalanglevels/testFiles/forAdvancedLevelTest";
+  
+  private Fixtures() { }
+  
+  /** @return the contents of the given fixture file, with line separators normalized to newlines */
+  public static String text(String path) throws IOException {
+    return IOUtil.toString(_file(path)).replace("\r\n", "\n");
+  }
+  
+  /** @return the non-blank lines of the given fixture file that are not comments starting with "//" */
+  public static List<String> lines(String path) throws IOException {
+    List<String> result = new ArrayList<String>();
+    for (String line : text(path).split("\n")) {
+      String trimmed = line.trim();
+      if (trimmed.length() > 0 && ! trimmed.startsWith("//")) result.add(line);
+    }
+    return result;
+  }
+  
+  /** @return the text with the leading white space of every line removed, as if it had never been indented */
+  public static String unindented(String text) {
+    StringBuilder result = new StringBuilder(text.length());
+    for (String line : text.split("\n", -1)) {
+      if (result.length() > 0) result.append('\n');
+      result.append(line.trim());
+    }
+    return result.toString();
+  }
+  
+  /** Copies the files with the given extension directly in the given fixture directory into a directory of the same
+    * name in a new temporary directory, so that package declarations still match.
+    * @return the copies
+    */
+  public static File[] copyDirectory(String path, String extension) throws IOException {
+    File source = _file(path);
+    File dir = new File(IOUtil.createAndMarkTempDirectory("drjava-benchmark", ""), source.getName());
+    if (! IOUtil.attemptMkdirs(dir)) throw new IOException("Could not create " + dir);
+    List<File> result = new ArrayList<File>();
+    for (File f : IOUtil.attemptListFilesAsIterable(source, IOUtil.extensionFilePredicate(extension))) {
+      File copy = new File(dir, f.getName());
+      IOUtil.copyFile(f, copy);
+      result.add(copy);
+    }
+    return result.toArray(new File[result.size()]);
+  }
+  
+  /** Runs the task in the event thread, as the editor does, and waits for it to finish. */
+  public static void inEventThread(Runnable task) { Utilities.invokeAndWait(task); }
+  
+  private static File _file(String path) throws IOException {
+    File f = new File(path);
+    if (! f.exists()) throw new IOException("Fixture " + f.getAbsolutePath() + " does not exist");
+    return f;
+  }
+}
@@ -0,0 +1,119 @@
+/* BEGIN_COPYRIGHT_BLOCK
+ *
+ * Copyright (c) 2001-2019, JavaPLT group at Rice University (drjava@rice.edu)
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    * Redistributions of source code must retain the above copyright
+ *      notice, this list of conditions and the following disclaimer.
+ *    * Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in the
+ *      documentation and/or other materials provided with the distribution.
+ *    * Neither the names of DrJava, the JavaPLT group, Rice University, nor the
+ *      names of its contributors may be used to endorse or promote products
+ *      derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This software is Open Source Initiative approved Open Source Software.
+ * Open Source Initative Approved is a trademark of the Open Source Initiative.
+ * 
+ * This file is part of DrJava.  Download the current version of this project
+ * from http://www.drjava.org/ or http://sourceforge.net/projects/drjava/
+ * 
+ * END_COPYRIGHT_BLOCK*/
+
+package edu.rice.cs.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.text.BadLocationException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import edu.rice.cs.drjava.model.GlobalEventNotifier;
+import edu.rice.cs.drjava.model.definitions.DefinitionsDocument;
+import edu.rice.cs.util.UnexpectedException;
+
+/** Benchmarks the highlighting queries made while painting the editor: the highlight status of every line of a file,
+  * as when scrolling through it, both unchanged and after an edit at its start.
+  * @version $Id$
+  */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HighlightStatusBenchmark {
+  
+  @Param({Fixtures.LARGE_SOURCE})
+  public String source;
+  
+  private DefinitionsDocument _doc;
+  private int[] _lineStarts;
+  
+  @Setup
+  public void setUp() throws IOException {
+    final String text = Fixtures.text(source);
+    _doc = new DefinitionsDocument(new GlobalEventNotifier());
+    Fixtures.inEventThread(new Runnable() {
+      public void run() {
+        try { _doc.insertString(0, text, null); }
+        catch (BadLocationException e) { throw new UnexpectedException(e); }
+      }
+    });
+    String[] lines = text.split("\n", -1);
+    _lineStarts = new int[lines.length + 1];
+    for (int i = 0; i < lines.length; i++) { _lineStarts[i + 1] = _lineStarts[i] + lines[i].length() + 1; }
+  }
+  
+  @Benchmark
+  public void scrollUnchanged(final Blackhole bh) {
+    Fixtures.inEventThread(new Runnable() { public void run() { _paintAllLines(bh); } });
+  }
+  
+  /** Opens and closes a comment at the start of the file before painting, so no earlier results can be reused. */
+  @Benchmark
+  public void scrollAfterEdit(final Blackhole bh) {
+    Fixtures.inEventThread(new Runnable() {
+      public void run() {
+        try {
+          _doc.insertString(0, "/*", null);
+          _doc.remove(0, 2);
+        }
+        catch (BadLocationException e) { throw new UnexpectedException(e); }
+        _paintAllLines(bh);
+      }
+    });
+  }
+  
+  private void _paintAllLines(Blackhole bh) {
+    for (int i = 0; i < _lineStarts.length - 1; i++) {
+      bh.consume(_doc.getHighlightStatus(_lineStarts[i], _lineStarts[i + 1] - 1));
+    }
+  }
+}
@@ -0,0 +1,117 @@
+/* BEGIN_COPYRIGHT_BLOCK
+ *
+ * Copyright (c) 2001-2019, JavaPLT group at Rice University (drjava@rice.edu)
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    * Redistributions of source code must retain the above copyright
+ *      notice, this list of conditions and the following disclaimer.
+ *    * Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in the
+ *      documentation and/or other materials provided with the distribution.
+ *    * Neither the names of DrJava, the JavaPLT group, Rice University, nor the
+ *      names of its contributors may be used to endorse or promote products
+ *      derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This software is Open Source Initiative approved Open Source Software.
+ * Open Source Initative Approved is a trademark of the Open Source Initiative.
+ * 
+ * This file is part of DrJava.  Download the current version of this project
+ * from http://www.drjava.org/ or http://sourceforge.net/projects/drjava/
+ * 
+ * END_COPYRIGHT_BLOCK*/
+
+package edu.rice.cs.benchmark;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.rice.cs.drjava.model.repl.InteractionsPaneOptions;
+import edu.rice.cs.dynamicjava.interpreter.Interpreter;
+import edu.rice.cs.dynamicjava.interpreter.InterpreterException;
+import edu.rice.cs.plt.tuple.Option;
+
+/** Benchmarks the interpreter behind the Interactions Pane, with the options the Interactions Pane uses: a script of
+  * typical interactions in a new interpreter, and single interactions in an interpreter that has run the script.
+  * @version $Id$
+  */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InterpreterBenchmark {
+  
+  @Param({Fixtures.INTERACTIONS})
+  public String script;
+  
+  private List<String> _interactions;
+  private Interpreter _interpreter;
+  
+  @Setup
+  public void setUp() throws IOException, InterpreterException {
+    _interactions = Fixtures.lines(script);
+    _interpreter = new Interpreter(new InteractionsPaneOptions());
+    for (String s : _interactions) { _interpreter.interpret(s); }
+  }
+  
+  /** Runs the script in a new interpreter, as after resetting the Interactions Pane. */
+  @Benchmark
+  public Option<Object> runScript() throws InterpreterException {
+    Interpreter interpreter = new Interpreter(new InteractionsPaneOptions());
+    Option<Object> result = null;
+    for (String s : _interactions) { result = interpreter.interpret(s); }
+    return result;
+  }
+  
+  /** An expression that is mostly parsing and type checking. */
+  @Benchmark
+  public Option<Object> checkExpression() throws InterpreterException {
+    return _interpreter.interpret("list.get(0) + counts.get(\"fox\") * p.dist() + greeting.indexOf('W') + sq.area()");
+  }
+  
+  /** A loop that is mostly evaluation. */
+  @Benchmark
+  public Option<Object> evaluateLoop() throws InterpreterException {
+    return _interpreter.interpret("int t = 0; for (int i = 0; i < 2000; i++) { t += i % 7; } t");
+  }
+  
+  /** A loop whose body declares block variables, so each iteration allocates a frame for them. */
+  @Benchmark
+  public Option<Object> evaluateBlockLoop() throws InterpreterException {
+    return _interpreter.interpret("int s = 0; for (int i = 0; i < 2000; i++) { int m = i % 7; int t = m * 2; s += t; } s");
+  }
+  
+  /** A recursive method declared in the Interactions Pane. */
+  @Benchmark
+  public Option<Object> callMethod() throws InterpreterException {
+    return _interpreter.interpret("fib(15)");
+  }
+}
@@ -0,0 +1,155 @@
+/* BEGIN_COPYRIGHT_BLOCK
+ *
+ * Copyright (c) 2001-2019, JavaPLT group at Rice University (drjava@rice.edu)
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    * Redistributions of source code must retain the above copyright
+ *      notice, this list of conditions and the following disclaimer.
+ *    * Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in the
+ *      documentation and/or other materials provided with the distribution.
+ *    * Neither the names of DrJava, the JavaPLT group, Rice University, nor the
+ *      names of its contributors may be used to endorse or promote products
+ *      derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This software is Open Source Initiative approved Open Source Software.
+ * Open Source Initative Approved is a trademark of the Open Source Initiative.
+ * 
+ * This file is part of DrJava.  Download the current version of this project
+ * from http://www.drjava.org/ or http://sourceforge.net/projects/drjava/
+ * 
+ * END_COPYRIGHT_BLOCK*/
+
+package edu.rice.cs.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import koala.dynamicjava.interpreter.NodeProperties;
+import koala.dynamicjava.interpreter.TypeUtil;
+import koala.dynamicjava.tree.Expression;
+
+import edu.rice.cs.dynamicjava.Options;
+import edu.rice.cs.dynamicjava.symbol.Access;
+import edu.rice.cs.dynamicjava.symbol.ExtendedTypeSystem;
+import edu.rice.cs.dynamicjava.symbol.JLSTypeSystem;
+import edu.rice.cs.dynamicjava.symbol.SymbolUtil;
+import edu.rice.cs.dynamicjava.symbol.TopLevelAccessModule;
+import edu.rice.cs.dynamicjava.symbol.TypeSystem;
+import edu.rice.cs.dynamicjava.symbol.TypeSystem.MethodInvocation;
+import edu.rice.cs.dynamicjava.symbol.type.Type;
+import edu.rice.cs.plt.iter.IterUtil;
+import edu.rice.cs.plt.tuple.Option;
+
+/** Benchmarks method resolution in the type systems: overloaded, static, variable-arity, and generic methods whose
+  * type arguments must be inferred.
+  * @version $Id$
+  */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MethodResolutionBenchmark {
+  
+  @Param({"jls", "ext"})
+  public String typeSystem;
+  
+  private TypeSystem _ts;
+  private Access.Module _module;
+  private Type _stringBuilder;
+  private Type _math;
+  private Type _arrays;
+  private Type _collections;
+  private Expression _builder;
+  private Expression _int;
+  private Expression _long;
+  private Expression _string;
+  private Expression _char;
+  private Expression _integerList;
+  
+  @Setup
+  public void setUp() throws Exception {
+    Options opt = Options.DEFAULT;
+    _ts = typeSystem.equals("jls") ? new JLSTypeSystem(opt) : new ExtendedTypeSystem(opt);
+    _module = new TopLevelAccessModule("");
+    _stringBuilder = _classType(StringBuilder.class);
+    _math = _classType(Math.class);
+    _arrays = _classType(Arrays.class);
+    _collections = _classType(Collections.class);
+    _builder = _expression(_stringBuilder);
+    _int = _expression(TypeSystem.INT);
+    _long = _expression(TypeSystem.LONG);
+    _string = _expression(TypeSystem.STRING);
+    _char = _expression(TypeSystem.CHAR);
+    List<Type> integer = new ArrayList<Type>();
+    integer.add(TypeSystem.INTEGER_CLASS);
+    _integerList = _expression(_ts.makeClassType(SymbolUtil.wrapClass(List.class), integer));
+  }
+  
+  private Type _classType(Class<?> c) { return _ts.makeClassType(SymbolUtil.wrapClass(c)); }
+  
+  private static Expression _expression(Type t) {
+    Expression result = TypeUtil.makeEmptyExpression();
+    NodeProperties.setType(result, t);
+    return result;
+  }
+  
+  /** StringBuilder.append(char), chosen among more than a dozen overloads. */
+  @Benchmark
+  public MethodInvocation overloaded() throws Exception {
+    return _ts.lookupMethod(_builder, "append", IterUtil.<Type>empty(), IterUtil.make(_char), Option.<Type>none(),
+                            _module);
+  }
+  
+  /** Math.max(long, int), which requires widening the second argument. */
+  @Benchmark
+  public MethodInvocation staticWidening() throws Exception {
+    return _ts.lookupStaticMethod(_math, "max", IterUtil.<Type>empty(), IterUtil.make(_long, _int),
+                                  Option.<Type>none(), _module);
+  }
+  
+  /** Arrays.asList(String, String, String), a variable-arity generic method. */
+  @Benchmark
+  public MethodInvocation variableArity() throws Exception {
+    return _ts.lookupStaticMethod(_arrays, "asList", IterUtil.<Type>empty(), IterUtil.make(_string, _string, _string),
+                                  Option.<Type>none(), _module);
+  }
+  
+  /** Collections.max(List&lt;Integer&gt;), whose type argument has a recursive bound. */
+  @Benchmark
+  public MethodInvocation inferred() throws Exception {
+    return _ts.lookupStaticMethod(_collections, "max", IterUtil.<Type>empty(), IterUtil.make(_integerList),
+                                  Option.<Type>none(), _module);
+  }
+}
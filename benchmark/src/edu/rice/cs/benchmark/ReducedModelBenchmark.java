@@ -0,0 +1,117 @@
+/* BEGIN_COPYRIGHT_BLOCK
+ *
+ * Copyright (c) 2001-2019, JavaPLT group at Rice University (drjava@rice.edu)
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    * Redistributions of source code must retain the above copyright
+ *      notice, this list of conditions and the following disclaimer.
+ *    * Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in the
+ *      documentation and/or other materials provided with the distribution.
+ *    * Neither the names of DrJava, the JavaPLT group, Rice University, nor the
+ *      names of its contributors may be used to endorse or promote products
+ *      derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This software is Open Source Initiative approved Open Source Software.
+ * Open Source Initative Approved is a trademark of the Open Source Initiative.
+ * 
+ * This file is part of DrJava.  Download the current version of this project
+ * from http://www.drjava.org/ or http://sourceforge.net/projects/drjava/
+ * 
+ * END_COPYRIGHT_BLOCK*/
+
+package edu.rice.cs.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import edu.rice.cs.drjava.model.definitions.reducedmodel.ReducedModelControl;
+import edu.rice.cs.drjava.model.definitions.reducedmodel.ReducedModelState;
+
+/** Benchmarks the reduced model that tracks braces, comments, and strings in the editor.
+  * @version $Id$
+  */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReducedModelBenchmark {
+  
+  @Param({Fixtures.LARGE_SOURCE})
+  public String source;
+  
+  private String _text;
+  private int[] _lineLengths;
+  private ReducedModelControl _model;
+  
+  @Setup
+  public void setUp() throws IOException {
+    _text = Fixtures.text(source);
+    String[] lines = _text.split("\n", -1);
+    _lineLengths = new int[lines.length];
+    for (int i = 0; i < lines.length; i++) { _lineLengths[i] = lines[i].length(); }
+    _model = typeFile();
+  }
+  
+  /** Builds the model of the file one character at a time, as when the file is typed or opened. */
+  @Benchmark
+  public ReducedModelControl typeFile() {
+    ReducedModelControl model = new ReducedModelControl();
+    for (int i = 0; i < _text.length(); i++) { model.insertChar(_text.charAt(i)); }
+    return model;
+  }
+  
+  /** Visits the start of every line, querying the state and enclosing brace there, as the indenter does. */
+  @Benchmark
+  public void scanLines(Blackhole bh) {
+    _model.move(-_model.absOffset());
+    for (int i = 0; i < _lineLengths.length; i++) {
+      bh.consume(_model.getStateAtCurrent());
+      bh.consume(_model._getLineEnclosingBrace());
+      if (i < _lineLengths.length - 1) _model.move(_lineLengths[i] + 1);
+    }
+  }
+  
+  /** Opens and removes a block comment in the middle of the file, which changes the state of everything after it. */
+  @Benchmark
+  public ReducedModelState toggleComment() {
+    _model.move(_text.length() / 2 - _model.absOffset());
+    _model.insertChar('/');
+    _model.insertChar('*');
+    _model.resetLocation();
+    // the walker moves relative to the cursor, which is just past the inserted "/*"
+    ReducedModelState result = _model.moveWalkerGetState(3 * _text.length() / 4 - _model.absOffset());
+    _model.resetLocation();
+    _model.delete(-2);
+    return result;
+  }
+}
@@ -1394,6 +1394,10 @@ public interface OptionConstants {
   public static final NonNegativeIntegerOption HISTORY_MAX_SIZE =
     new NonNegativeIntegerOption("history.max.size", Integer.valueOf(500));
   
+  /** Number of characters to keep in the Interactions Pane; 0 keeps all output */
+  public static final NonNegativeIntegerOption INTERACTIONS_MAX_LENGTH =
+    new NonNegativeIntegerOption("interactions.max.length", Integer.valueOf(0));
+  
   /** Number of files to list in the recent file list */
   public static final NonNegativeIntegerOption RECENT_FILES_MAX_SIZE =
     new NonNegativeIntegerOption("recent.files.max.size", Integer.valueOf(5));
@@ -1421,6 +1425,10 @@ public interface OptionConstants {
   /** Whether to force test classes in projects to end in "Test". */
   public static final BooleanOption FORCE_TEST_SUFFIX = new BooleanOption("force.test.suffix", Boolean.FALSE);
   
+  /** Number of separate JVMs in which to run unit tests in parallel; 0 or 1 runs them in the Interactions JVM. */
+  public static final NonNegativeIntegerOption JUNIT_PARALLEL_WORKERS =
+    new NonNegativeIntegerOption("junit.parallel.workers", Integer.valueOf(0));
+  
   /** Whether remote control using sockets is enabled. */
   public static final BooleanOption REMOTE_CONTROL_ENABLED = new BooleanOption("remote.control.enabled", Boolean.TRUE);
   
@@ -1455,6 +1463,10 @@ public interface OptionConstants {
   public static final BooleanOption SHOW_PATH_WARNINGS = 
     new BooleanOption("show.path.warnings", Boolean.FALSE);
   
+  /** Whether to recompile only changed files and the files that depend on them */
+  public static final BooleanOption INCREMENTAL_COMPILATION = 
+    new BooleanOption("incremental.compilation", Boolean.FALSE);
+  
   /** Default compiler to use
     * Stores the name of the compiler to use, set by changing the selection in
     * the ForcedChoiceOption created by COMPILER_PREFERENCE_CONTROL.evaluate()
@@ -1602,6 +1614,9 @@ public interface OptionConstants {
   /** The command-line arguments to be passed to the Slave JVM. */
   public static final StringOption SLAVE_JVM_ARGS = new StringOption("slave.jvm.args", "");
   
+  /** Whether to keep a spare, fully started Slave JVM that replaces the Slave JVM when the Interactions Pane is reset. */
+  public static final BooleanOption SLAVE_JVM_STANDBY = new BooleanOption("slave.jvm.standby", Boolean.FALSE);
+  
   /* Possible maximum heap sizes. */
   public static final ArrayList<String> heapSizeChoices = HeapSizeChoices.evaluate();
   static class HeapSizeChoices {
@@ -47,18 +47,20 @@ import edu.rice.cs.util.text.SwingDocument;
 
 import java.awt.EventQueue;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Set;
-import java.util.HashMap;
 import java.util.HashSet;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.SortedMap;
+import java.util.Map;
 import java.util.StringTokenizer;
-import java.util.TreeMap;
+import java.util.WeakHashMap;
 import javax.swing.ProgressMonitor;
 import javax.swing.text.AbstractDocument;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import javax.swing.text.AttributeSet;
 import javax.swing.text.BadLocationException;
+import javax.swing.text.Element;
 import javax.swing.text.Position;
 
 import static edu.rice.cs.drjava.model.definitions.reducedmodel.ReducedModelStates.*;
@@ -91,8 +93,8 @@ public abstract class AbstractDJDocument extends SwingDocument implements DJDocu
   protected static final HashSet<String> _primTypes = _makePrimTypes();
   /** The default indent setting. */
   protected volatile int _indent = 2;
-  /** Initial number of elements in _queryCache (see below). */
-  private static final int INIT_CACHE_SIZE = 0x10000;  // 16**4 = 16384 
+  /** Maximum number of entries in _queryCache (see below). */
+  private static final int QUERY_CACHE_SIZE = 0x4000;  // 16**3 * 4 = 16384 
   /** Constant specifying how large pos must be before incremental analysis is applied in posInBlockComment */
   public static final int POS_THRESHOLD = 10000; 
 //  /** Constant specifying how large pos must be before incremental analysis is applied in posInParenPhrase */
@@ -112,15 +114,22 @@ public abstract class AbstractDJDocument extends SwingDocument implements DJDocu
     * purposes. */
   protected volatile int _currentLocation = 0;
   
-  /* The fields _queryCache, _offsetToQueries, and _cacheModified function as an extension of the reduced model. 
-   * When enabled in blockIndent, this data structure caches calls to the reduced model to speed up indent performance.
-   * Must be cleared every time the document is changed.  Use by calling _checkCache, _storeInCache, and _clearCache.
-   * When _queryCache = null, the cache is disabled.
+  /* The field _queryCache functions as an extension of the reduced model.  This bounded data structure caches calls to
+   * the reduced model to speed up indenting, brace matching, and other queries made while typing.  It is selectively
+   * cleared (from the offset of the change onward) every time the document is changed, including by undo and redo.  
+   * It is cleared both before and after the reduced model changes, so that an answer computed by another thread while
+   * the change is in progress is rejected by the stamp check in _storeInCache.
+   * Use by calling _cacheStamp, _checkCache, _storeInCache, and _clearCache.
    */
-  private volatile HashMap<Query, Object> _queryCache;
+  private final QueryCache _queryCache = new QueryCache(QUERY_CACHE_SIZE);
   
-  /** Records the set of queries (as a list) for each offset. */
-  private volatile SortedMap<Integer, List<Query>> _offsetToQueries;
+  /** Caches the highlight status of each line that has been rendered, keyed by the line (paragraph) element.  Entries
+    * are removed by HighlightInvalidator when a line is edited; an entry whose starting reduced-model state has changed
+    * since it was computed is recomputed when it is next requested.  Elements that are removed from the document are
+    * garbage collected along with their entries.  Synchronized, since document listeners run in the thread that
+    * modifies the document. */
+  private final Map<Element, LineHighlights> _highlightCache = 
+    Collections.synchronizedMap(new WeakHashMap<Element, LineHighlights>());
   
   /** The instance of the indent decision tree used by Definitions documents. */
   private volatile Indenter _indenter;
@@ -146,9 +155,8 @@ public abstract class AbstractDJDocument extends SwingDocument implements DJDocu
     */
   protected AbstractDJDocument(Indenter indenter) { 
     _indenter = indenter;
-    _queryCache = null;
-    _offsetToQueries = null;
     _initNewIndenter();
+    addDocumentListener(new HighlightInvalidator());
 //     System.err.println("AbstractDJDocument constructor with indent level " + indenter.getIndentLevel() 
 //    + " invoked on " + this);
   }
@@ -220,6 +228,7 @@ public abstract class AbstractDJDocument extends SwingDocument implements DJDocu
   public void setKeywords(Set<String> keywords) {
     _keywords.clear();
     _keywords.addAll(keywords);
+    _highlightCache.clear();
   }
   
   /** Create a set of Java/GJ primitive types for special coloring.
@@ -236,12 +245,41 @@ public abstract class AbstractDJDocument extends SwingDocument implements DJDocu
   
   /** Return all highlight status info for text between start and end. This should collapse adjoining blocks with the
     * same status into one.  ONLY runs in the event thread.  Perturbs _currentLocation to improve performance.
+    * Requests confined to a single line (the common case in ColoringView) are answered from _highlightCache, so
+    * repainting an unchanged line only checks the reduced model state at the start of the line.
     */
   public ArrayList<HighlightStatus> getHighlightStatus(int start, int end) {
     
     assert EventQueue.isDispatchThread();
     
     if (start == end) return new ArrayList<HighlightStatus>(0);
+    
+    final Element root = getDefaultRootElement();
+    final Element line = root.getElement(root.getElementIndex(start));
+    final int lineStart = line.getStartOffset();
+    final int lineEnd = Math.min(line.getEndOffset(), getLength());
+    if (end > lineEnd) return _getHighlightStatus(start, end);  // spans several lines
+    
+    LineHighlights highlights = _highlightCache.get(line);
+    if (highlights != null) {
+      // an edit before the line may have changed the state in which it starts, e.g. by opening a block comment
+      setCurrentLocation(lineStart);
+      if (highlights._length != lineEnd - lineStart || _reduced.getStateAtCurrent() != highlights._startState) {
+        highlights = null;
+      }
+    }
+    if (highlights == null) {
+      ArrayList<HighlightStatus> v = _getHighlightStatus(lineStart, lineEnd);  // leaves cursor at lineStart
+      highlights = new LineHighlights(_reduced.getStateAtCurrent(), lineStart, lineEnd - lineStart, v);
+      _highlightCache.put(line, highlights);
+    }
+    return highlights.getHighlightStatus(lineStart, start, end);
+  }
+  
+  /** Computes the highlight status info for text between start and end from the reduced model.  Leaves the reduced
+    * model cursor at start.  ONLY runs in the event thread.
+    */
+  private ArrayList<HighlightStatus> _getHighlightStatus(int start, int end) {
     ArrayList<HighlightStatus> v;
     
     setCurrentLocation(start);
@@ -456,7 +494,7 @@ public abstract class AbstractDJDocument extends SwingDocument implements DJDocu
   /** Add a character to the underlying reduced model. ASSUMEs _reduced lock is already held!
     * @param curChar the character to be added. */
   private void _addCharToReducedModel(char curChar) {
-//    _clearCache(_currentLocation);  // redundant; already done in insertUpdate
+//    _clearCache(_currentLocation);  // redundant; already done in the insert command
     _reduced.insertChar(curChar);
   }
   
@@ -564,6 +602,7 @@ public abstract class AbstractDJDocument extends SwingDocument implements DJDocu
     // assert EventQueue.isDispatchThread();
     // Check cache
     final Query key = new Query.PrevEnclosingBrace(pos, opening, closing);
+    final long stamp = _cacheStamp();
     final Integer cached = (Integer) _checkCache(key);
     if (cached != null) return cached.intValue();
     
@@ -609,7 +648,7 @@ public abstract class AbstractDJDocument extends SwingDocument implements DJDocu
     setCurrentLocation(origPos);    // Restore the state of the reduced model;
     
     if (i == -1) reducedPos = -1; // No matching char was found
-    _storeInCache(key, reducedPos, pos - 1);
+    _storeInCache(key, reducedPos, pos - 1, stamp);
     
     // Return position of matching char or ERROR_INDEX (-1) 
     return reducedPos;  
@@ -641,6 +680,7 @@ public abstract class AbstractDJDocument extends SwingDocument implements DJDocu
     
     // Check cache
     final Query key = new Query.NextEnclosingBrace(pos, opening, closing);
+    final long stamp = _cacheStamp();
     final Integer cached = (Integer) _checkCache(key);
     
     if (cached != null) return cached.intValue();
@@ -684,9 +724,12 @@ public abstract class AbstractDJDocument extends SwingDocument implements DJDocu
     
     setCurrentLocation(origPos);    // Restore the state of the reduced model;
     
-    if (i == text.length()) reducedPos = -1; // No matching char was found
-    _storeInCache(key, reducedPos, reducedPos);
-    // Return position of matching char or ERROR_INDEX (-1)     
+    if (i == text.length()) {  // No matching char was found
+      _storeInCache(key, -1, Integer.MAX_VALUE, stamp);  // Any change to the document invalidates this result!
+      return -1;
+    }
+    _storeInCache(key, reducedPos, reducedPos, stamp);  // Cached answer depends only on text[pos:reducedPos]
+    // Return position of matching char
     return reducedPos;  
   }
   
@@ -717,6 +760,7 @@ public abstract class AbstractDJDocument extends SwingDocument implements DJDocu
     
     // Check cache
     final Query key = new Query.PrevDelimiter(pos, delims, skipBracePhrases);
+    final long stamp = _cacheStamp();
     final Integer cached = (Integer) _checkCache(key);
     if (cached != null) {
 //      System.err.println(cached.intValue() + " found in cache");
@@ -782,7 +826,7 @@ public abstract class AbstractDJDocument extends SwingDocument implements DJDocu
       else reducedPos = findPrevDelimiter(i, delims, skipBracePhrases); 
     }
     
-    _storeInCache(key, reducedPos, pos - 1);
+    _storeInCache(key, reducedPos, pos - 1, stamp);
 //      Utilities.show("findPrevDelimiter returning " + reducedPos);
     
     // Return position of matching char or ERROR_INDEX (-1) 
@@ -856,6 +900,7 @@ public abstract class AbstractDJDocument extends SwingDocument implements DJDocu
     
     // Check cache
     final Query key = new Query.PrevCharPos(pos, whitespace);
+    final long stamp = _cacheStamp();
     final Integer cached = (Integer) _checkCache(key);
     if (cached != null)  return cached.intValue();
     
@@ -906,7 +951,7 @@ public abstract class AbstractDJDocument extends SwingDocument implements DJDocu
     
     int result = reducedPos;
     if (i < 0) result = -1;
-    _storeInCache(key, result, pos - 1);
+    _storeInCache(key, result, pos - 1, stamp);
     return result;
   }
   
@@ -917,12 +962,12 @@ public abstract class AbstractDJDocument extends SwingDocument implements DJDocu
    * @param key Name of the method and arguments
    * @return the object in the cache associated with key; null if not in the cache.
    */
-  protected Object _checkCache(final Query key) {
-    if (_queryCache == null) return null;
-    return _queryCache.get(key); 
-  }
+  protected Object _checkCache(final Query key) { return _queryCache.get(key); }
   
-  /** Stores the given result in the helper method cache. 
+  /** @return the stamp of the query cache, to be obtained before computing an answer that is passed to _storeInCache */
+  protected long _cacheStamp() { return _queryCache.stamp(); }
+  
+  /** Stores the given result in the helper method cache, unless the document has changed since stamp was obtained.
    * Query classes define equality structurally.
    *
    * @param query  A canonical description of the query
@@ -930,46 +975,23 @@ public abstract class AbstractDJDocument extends SwingDocument implements DJDocu
    * @param offset  The offset bounding the right edge of the text on which 
    *                the query depends; if (0:offset) in the document is 
    *                unchanged, the query should return the same answer.
+   * @param stamp  The value of _cacheStamp() before the answer was computed
    */
-  protected void _storeInCache(final Query query, final Object answer, final int offset) {
-    if (_queryCache == null) return;
-    _queryCache.put(query, answer);
-    _addToOffsetsToQueries(query, offset);
+  protected void _storeInCache(final Query query, final Object answer, final int offset, final long stamp) {
+    _queryCache.put(query, answer, offset, stamp);
   }
   
   /** Clears the memozing cache of queries with offset {@literal >=} than 
    * specified value.  Should be called every time the document is modified. 
    * @param offset the offset beyond which to clear
    */
-  protected void _clearCache(int offset) {
-    if (_queryCache == null) return;
-    
-    if (offset <= 0) {
-      _queryCache.clear();
-      _offsetToQueries.clear();
-      return;
-    }
-    // The Integer[] copy of the key set is required to avoid ConcurrentModifiationExceptions.  Ugh!
-    Integer[] deadOffsets = _offsetToQueries.tailMap(offset).keySet().toArray(new Integer[0]);
-    for (int i: deadOffsets) {
-      for (Query query: _offsetToQueries.get(i)) _queryCache.remove(query);  // remove query entry from cache
-      _offsetToQueries.remove(i);   // remove query bucket for i from offsetToQueries table
-    }
-  }
+  protected void _clearCache(int offset) { _queryCache.clearFrom(offset); }
   
-  /** Add {@literal <query,offset>} pair to _offsetToQueries map. 
-   * Assumes lock on _queryCache is already held.
-   * @param query the query
-   * @param offset the offset
-   */
-  private void _addToOffsetsToQueries(final Query query, final int offset) {
-    List<Query> selectedQueries = _offsetToQueries.get(offset);
-    if (selectedQueries == null) {
-      selectedQueries = new LinkedList<Query>();
-      _offsetToQueries.put(offset, selectedQueries);
-    }
-    selectedQueries.add(query);
-  }
+  /** @return the number of query cache lookups that found a cached answer */
+  public long getQueryCacheHits() { return _queryCache.getHits(); }
+  
+  /** @return the number of query cache lookups that found no cached answer */
+  public long getQueryCacheMisses() { return _queryCache.getMisses(); }
   
   /** Default indentation - uses OTHER flag and no progress indicator.  Assume write lock is already held.
     * @param selStart the offset of the initial character of the region to indent
@@ -1038,10 +1060,6 @@ public abstract class AbstractDJDocument extends SwingDocument implements DJDocu
   private void _indentBlock(final int start, final int end, Indenter.IndentReason reason, ProgressMonitor pm)
     throws OperationCanceledException, BadLocationException {
     
-    // Set up the query cache;
-    _queryCache = new HashMap<Query, Object>(INIT_CACHE_SIZE);
-    _offsetToQueries = new TreeMap<Integer, List<Query>>();
-    
     // Keep marker at the end. This Position will be the correct endpoint no matter how we change 
     // the doc doing the indentLine calls.
     final Position endPos = this.createUnwrappedPosition(end);
@@ -1068,10 +1086,6 @@ public abstract class AbstractDJDocument extends SwingDocument implements DJDocu
       // location yet. That happens at the top of the loop, after we check if we're past the end. 
       walker += _reduced.getDistToNextNewline() + 1;
     }
-    
-    // disable the query cache
-    _queryCache = null;
-    _offsetToQueries = null;
   }
   
   /** Indents a line using the Indenter.  Public ONLY for testing purposes. 
@@ -1139,6 +1153,7 @@ public abstract class AbstractDJDocument extends SwingDocument implements DJDocu
     
     try {
       // Check cache
+      final long stamp = _cacheStamp();
       int lineStart = _getLineStartPos(pos);  // returns 0 for initial line
       
       final Query key = new Query.IndentOfCurrStmt(lineStart, delims, whitespace);
@@ -1169,7 +1184,7 @@ public abstract class AbstractDJDocument extends SwingDocument implements DJDocu
       // Get the position of the first non-ws character on this line (or end of line if no such char
       int firstNonWS = _getLineFirstCharPos(newLineStart);
       int wSPrefix = firstNonWS - newLineStart;
-      _storeInCache(key, wSPrefix, Math.max(pos - 1, firstNonWS));  // relying on autoboxing
+      _storeInCache(key, wSPrefix, Math.max(pos - 1, firstNonWS), stamp);  // relying on autoboxing
       return wSPrefix;
     }
     catch(BadLocationException e) { throw new UnexpectedException(e); }
@@ -1206,6 +1221,7 @@ public abstract class AbstractDJDocument extends SwingDocument implements DJDocu
     
     // Check cache
     final Query key = new Query.CharOnLine(pos, findChar);
+    final long stamp = _cacheStamp();
     final Integer cached = (Integer) _checkCache(key);
     if (cached != null) return cached.intValue();
     
@@ -1236,7 +1252,7 @@ public abstract class AbstractDJDocument extends SwingDocument implements DJDocu
       setCurrentLocation(oldPos);  // restore old position
       
       if (i == -1) matchIndex = -1;
-      _storeInCache(key, matchIndex, Math.max(pos - 1, matchIndex));
+      _storeInCache(key, matchIndex, Math.max(pos - 1, matchIndex), stamp);
     }
     catch (BadLocationException e) { throw new UnexpectedException(e); }
     
@@ -1255,6 +1271,7 @@ public abstract class AbstractDJDocument extends SwingDocument implements DJDocu
     if (pos < 0 || pos > getLength()) return -1;
     // Check cache
     final Query key = new Query.LineStartPos(pos);
+    final long stamp = _cacheStamp();
     final Integer cached = (Integer) _checkCache(key);
     if (cached != null) return cached.intValue();
     
@@ -1265,7 +1282,7 @@ public abstract class AbstractDJDocument extends SwingDocument implements DJDocu
     
     int newPos = 0;
     if (dist >= 0)  newPos = pos - dist;
-    _storeInCache(key, newPos, pos - 1);
+    _storeInCache(key, newPos, pos - 1, stamp);
     return newPos;  // may equal 0
   }
   
@@ -1281,6 +1298,7 @@ public abstract class AbstractDJDocument extends SwingDocument implements DJDocu
     
     // Check cache
     final Query key = new Query.LineEndPos(pos);
+    final long stamp = _cacheStamp();
     final Integer cached = (Integer) _checkCache(key);
     if (cached != null) return cached.intValue();
     
@@ -1293,7 +1311,7 @@ public abstract class AbstractDJDocument extends SwingDocument implements DJDocu
     
     newPos = pos + dist;
     assert newPos == getLength() || _getText(newPos, 1).charAt(0) == newline;
-    _storeInCache(key, newPos, newPos);
+    _storeInCache(key, newPos, newPos, stamp);
     return newPos;
   }
   
@@ -1310,6 +1328,7 @@ public abstract class AbstractDJDocument extends SwingDocument implements DJDocu
     
     // Check cache
     final Query key = new Query.LineFirstCharPos(pos);
+    final long stamp = _cacheStamp();
     final Integer cached = (Integer) _checkCache(key);
     if (cached != null)  return cached.intValue();
     
@@ -1327,7 +1346,7 @@ public abstract class AbstractDJDocument extends SwingDocument implements DJDocu
         break;
       }
     }
-    _storeInCache(key, nonWSPos, Math.max(pos - 1, nonWSPos));
+    _storeInCache(key, nonWSPos, Math.max(pos - 1, nonWSPos), stamp);
     return nonWSPos;  // may equal lineEndPos
   }
   
@@ -1369,6 +1388,7 @@ public abstract class AbstractDJDocument extends SwingDocument implements DJDocu
     
     // Check cache
     final Query key = new Query.FirstNonWSCharPos(pos, whitespace, acceptComments);
+    final long stamp = _cacheStamp();
     final Integer cached = (Integer) _checkCache(key);
     if (cached != null)  return cached.intValue();
     
@@ -1410,14 +1430,14 @@ public abstract class AbstractDJDocument extends SwingDocument implements DJDocu
         }
         
         // Return position of matching char
-        _storeInCache(key, reducedPos, reducedPos);  // Cached answer depends only on text(0:reducedPos]
+        _storeInCache(key, reducedPos, reducedPos, stamp);  // Cached answer depends only on text(0:reducedPos]
 //          _setCurrentLocation(origPos);
         return reducedPos;
       }
       
       // No matching char found on this line
       if (endPos + 1 >= docLen) { // No matching char found in doc
-        _storeInCache(key, -1, Integer.MAX_VALUE);  // Any change to the document invalidates this result!
+        _storeInCache(key, -1, Integer.MAX_VALUE, stamp);  // Any change to the document invalidates this result!
 //          _setCurrentLocation(origPos);
         return -1;
       }
@@ -1481,6 +1501,7 @@ public abstract class AbstractDJDocument extends SwingDocument implements DJDocu
     
     // Check cache
     final Query key = new Query.PosInParenPhrase(pos);
+    final long stamp = _cacheStamp();
     Boolean cached = (Boolean) _checkCache(key);
     if (cached != null) return cached.booleanValue();
     
@@ -1491,7 +1512,7 @@ public abstract class AbstractDJDocument extends SwingDocument implements DJDocu
     setCurrentLocation(pos);
     _inParenPhrase = _inParenPhrase();
     setCurrentLocation(oldPos);
-    _storeInCache(key, _inParenPhrase, pos - 1);
+    _storeInCache(key, _inParenPhrase, pos - 1, stamp);
     
     return _inParenPhrase;
   }
@@ -1510,13 +1531,14 @@ public abstract class AbstractDJDocument extends SwingDocument implements DJDocu
     if (lineStart < 0) return BraceInfo.NULL;
     final int keyPos = lineStart;
     final Query key = new Query.LineEnclosingBrace(keyPos);
+    final long stamp = _cacheStamp();
     final BraceInfo cached = (BraceInfo) _checkCache(key);
     if (cached != null) return cached;
     
 //    BraceInfo b = _reduced.getLineEnclosingBrace(lineStart);  // optimized version to be developed
     BraceInfo b = _reduced._getLineEnclosingBrace();
     
-    _storeInCache(key, b, keyPos - 1);
+    _storeInCache(key, b, keyPos - 1, stamp);
     return b;
   }
   
@@ -1528,10 +1550,11 @@ public abstract class AbstractDJDocument extends SwingDocument implements DJDocu
     int pos = _currentLocation;
     // Check cache
     final Query key = new Query.EnclosingBrace(pos);
+    final long stamp = _cacheStamp();
     final BraceInfo cached = (BraceInfo) _checkCache(key);
     if (cached != null) return cached;
     BraceInfo b = _reduced._getEnclosingBrace();
-    _storeInCache(key, b, pos - 1);
+    _storeInCache(key, b, pos - 1, stamp);
     return b;
   }
   
@@ -1619,6 +1642,7 @@ public abstract class AbstractDJDocument extends SwingDocument implements DJDocu
   protected boolean notInBlock(final int pos) {
     // Check cache
     final Query key = new Query.PosNotInBlock(pos);
+    final long stamp = _cacheStamp();
     final Boolean cached = (Boolean) _checkCache(key);
     if (cached != null) return cached.booleanValue();
     
@@ -1627,7 +1651,7 @@ public abstract class AbstractDJDocument extends SwingDocument implements DJDocu
     final BraceInfo info = _reduced._getEnclosingBrace();
     final boolean notInParenPhrase = info.braceType().equals(BraceInfo.NONE);
     setCurrentLocation(oldPos);
-    _storeInCache(key, notInParenPhrase, pos - 1);
+    _storeInCache(key, notInParenPhrase, pos - 1, stamp);
     return notInParenPhrase;
   }
   
@@ -1788,8 +1812,6 @@ public abstract class AbstractDJDocument extends SwingDocument implements DJDocu
       final int length = chng.getLength();
       final String str = getText(offset, length);
       
-      if (length > 0) _clearCache(offset);    // Selectively clear the query cache
-      
       Runnable doCommand = 
         (length == 1) ? new CharInsertCommand(offset, str.charAt(0)) : new InsertCommand(offset, str);
       RemoveCommand undoCommand = new UninsertCommand(offset, length, str);
@@ -1825,8 +1847,6 @@ public abstract class AbstractDJDocument extends SwingDocument implements DJDocu
       final String removedText = getText(offset, length);
       super.removeUpdate(chng);
       
-      if (length > 0) _clearCache(offset);  // Selectively clear the query cache
-      
       Runnable doCommand = new RemoveCommand(offset, length, removedText);
       Runnable undoCommand = new UnremoveCommand(offset, removedText);
       
@@ -1916,9 +1936,10 @@ public abstract class AbstractDJDocument extends SwingDocument implements DJDocu
       _text = text;
     }
     
-    /** Inserts chars in reduced model and moves location to end of insert; cache has already been cleared. */
+    /** Inserts chars in reduced model and moves location to end of insert; selectively clears the query cache. */
     public void run() {
       
+      if (_text.length() > 0) _clearCache(_offset);
       _reduced.move(_offset - _currentLocation);  
       int len = _text.length();
       // Record any change to line numbering
@@ -1928,6 +1949,7 @@ public abstract class AbstractDJDocument extends SwingDocument implements DJDocu
       for (int i = 0; i < len; i++) { _addCharToReducedModel(_text.charAt(i)); }
       
       _currentLocation = _offset + len;  // update _currentLocation to match effects on the reduced model
+      if (len > 0) _clearCache(_offset);
       _styleChanged();  // update the color highlighting of the remainder of the document
       
 //      if (getClass() ==  InsertCommand.class) 
@@ -1956,13 +1978,15 @@ public abstract class AbstractDJDocument extends SwingDocument implements DJDocu
       _ch = ch;
     }
     
-    /** Inserts chars in reduced model and moves location to end of insert; cache has already been cleared. */
+    /** Inserts chars in reduced model and moves location to end of insert; selectively clears the query cache. */
     public void run() {
       
+      _clearCache(_offset);
       _reduced.move(_offset - _currentLocation);  
       if (_ch == newline) _numLinesChanged(_offset);  // record change to line numbering
       _addCharToReducedModel(_ch);
       _currentLocation = _offset + 1;  // update _currentLocation to match effects on the reduced model
+      _clearCache(_offset);
       _styleChanged();
     }
   }
@@ -1978,11 +2002,13 @@ public abstract class AbstractDJDocument extends SwingDocument implements DJDocu
       _removedText = removedText;
     }
     
-    /** Removes chars from reduced model; cache has already been selectively cleared. */
+    /** Removes chars from reduced model; selectively clears the query cache. */
     public void run() {
+      if (_length > 0) _clearCache(_offset);
       setCurrentLocation(_offset);
       if (_removedText.indexOf(newline) >= 0) _numLinesChanged(_offset);  // record change to line numbering
       _reduced.delete(_length);    
+      if (_length > 0) _clearCache(_offset);
       _styleChanged(); 
     }
   }
@@ -1992,4 +2018,57 @@ public abstract class AbstractDJDocument extends SwingDocument implements DJDocu
     public UninsertCommand(final int offset, final int length, String text) { super(offset, length, text); }
     public void run() { super.run(); }
   }
+  
+  /** The cached highlight status of a single line.  Offsets are relative to the start of the line so that entries 
+    * remain valid when text before the line changes. */
+  private static class LineHighlights {
+    /** The reduced model state at the start of the line when the entry was computed. */
+    private final ReducedModelState _startState;
+    private final int _length;
+    private final int[] _offsets;
+    private final int[] _lengths;
+    private final int[] _states;
+    
+    public LineHighlights(ReducedModelState startState, int lineStart, int length, List<HighlightStatus> v) {
+      _startState = startState;
+      _length = length;
+      int n = v.size();
+      _offsets = new int[n];
+      _lengths = new int[n];
+      _states = new int[n];
+      for (int i = 0; i < n; i++) {
+        HighlightStatus stat = v.get(i);
+        _offsets[i] = stat.getLocation() - lineStart;
+        _lengths[i] = stat.getLength();
+        _states[i] = stat.getState();
+      }
+    }
+    
+    /** @return the blocks of this line that overlap [start, end), clipped to that range */
+    public ArrayList<HighlightStatus> getHighlightStatus(int lineStart, int start, int end) {
+      ArrayList<HighlightStatus> result = new ArrayList<HighlightStatus>();
+      for (int i = 0; i < _offsets.length; i++) {
+        int blockStart = Math.max(lineStart + _offsets[i], start);
+        int blockEnd = Math.min(lineStart + _offsets[i] + _lengths[i], end);
+        if (blockStart < blockEnd) result.add(new HighlightStatus(blockStart, blockEnd - blockStart, _states[i]));
+      }
+      return result;
+    }
+  }
+  
+  /** Removes the entries of the edited lines from _highlightCache after each change to the document.  The text of the
+    * other lines is unchanged, so their entries remain valid unless the state in which they start has changed, which 
+    * getHighlightStatus checks when an entry is used.  The cost of an edit is thus independent of the document size. */
+  private class HighlightInvalidator implements DocumentListener {
+    public void insertUpdate(DocumentEvent e) { _invalidate(e.getOffset(), e.getOffset() + e.getLength()); }
+    public void removeUpdate(DocumentEvent e) { _invalidate(e.getOffset(), e.getOffset()); }
+    public void changedUpdate(DocumentEvent e) { /* attribute changes do not affect highlighting */ }
+    
+    private void _invalidate(int start, int end) {
+      if (_highlightCache.isEmpty()) return;
+      final Element root = getDefaultRootElement();
+      final int lastEdited = root.getElementIndex(end);
+      for (int i = root.getElementIndex(start); i <= lastEdited; i++) _highlightCache.remove(root.getElement(i));
+    }
+  }
 }
@@ -82,6 +82,7 @@ import edu.rice.cs.drjava.config.OptionEvent;
 import edu.rice.cs.drjava.config.OptionListener;
 import edu.rice.cs.drjava.model.cache.DCacheAdapter;
 import edu.rice.cs.drjava.model.cache.DDReconstructor;
+import edu.rice.cs.drjava.model.cache.DocumentImage;
 import edu.rice.cs.drjava.model.cache.DocumentCache ;
 import edu.rice.cs.drjava.model.compiler.CompilerModel;
 import edu.rice.cs.drjava.model.debug.Breakpoint;
@@ -145,6 +146,7 @@ import edu.rice.cs.util.swing.IAsyncProgress;
 import edu.rice.cs.util.swing.DocumentIterator;
 import edu.rice.cs.util.swing.Utilities;
 import edu.rice.cs.util.text.AbstractDocumentInterface;
+import edu.rice.cs.util.text.ConsoleAppendBuffer;
 import edu.rice.cs.util.text.ConsoleDocument;
 import edu.rice.cs.util.text.EditDocumentInterface;
 
@@ -161,6 +163,9 @@ public class AbstractGlobalModel implements SingleDisplayModel, OptionConstants,
   /** A document cache that manages how many unmodified documents are open at once. */
   protected final DocumentCache _cache;  
   
+  /** The trigram index of the open documents used by Find All and Replace All. */
+  protected final DocumentSearchIndex _searchIndex = new DocumentSearchIndex();
+  
   static final String DOCUMENT_OUT_OF_SYNC_MSG =
     "Current document is out of sync with the Interactions Pane and should be recompiled!\n";
   
@@ -193,6 +198,9 @@ public class AbstractGlobalModel implements SingleDisplayModel, OptionConstants,
   /** The document adapter used in the console document. */
   protected final InteractionsDJDocument _consoleDocAdapter;
   
+  /** Coalesces text printed to the console document so that a burst of output is inserted once per event queue tick. */
+  protected final ConsoleAppendBuffer _consoleAppendBuffer;
+  
   /** A PageFormat object for printing to paper. */
   protected volatile PageFormat _pageFormat = new PageFormat();
   
@@ -280,6 +288,9 @@ public class AbstractGlobalModel implements SingleDisplayModel, OptionConstants,
     
     _consoleDocAdapter = new InteractionsDJDocument(_notifier);
     _consoleDoc = new ConsoleDocument(_consoleDocAdapter);
+    _consoleAppendBuffer = new ConsoleAppendBuffer() {
+      protected void _insert(String text, String style) { _consoleDoc.insertBeforeLastPrompt(text, style); }
+    };
     
     _bookmarkManager = new ConcreteRegionManager<MovingDocumentRegion>();
     _findResultsManagers = new LinkedList<RegionManager<MovingDocumentRegion>>();
@@ -1292,6 +1303,8 @@ public class AbstractGlobalModel implements SingleDisplayModel, OptionConstants,
    */
   public DocumentCache getDocumentCache() { return _cache; }
   
+  public DocumentSearchIndex getDocumentSearchIndex() { return _searchIndex; }
+  
   //---------------------- Specified by ILoadDocuments ----------------------//
   
   /** Open a file and add it to the pool of definitions documents. The provided file selector chooses a file, and on a 
@@ -2123,6 +2136,7 @@ public class AbstractGlobalModel implements SingleDisplayModel, OptionConstants,
     if (doc.isAuxiliaryFile()) { removeAuxiliaryFile(doc); }
     
     _documentNavigator.removeDocument(doc);
+    _searchIndex.remove(doc);
     _notifier.fileClosed(doc); 
     doc.close();
     return true;
@@ -2509,27 +2523,14 @@ public class AbstractGlobalModel implements SingleDisplayModel, OptionConstants,
     });
   }
   
-  /** Appends a string to the given document using a particular attribute set (identified by a String key). Also waits
-    * for a small amount of time (InteractionsModel.WRITE_DELAY) to prevent any one writer from flooding the model with
-    * print calls to the point where the user interface could become unresponsive.  Only runs in event thread.
-    * @param doc Document to append to
-    * @param s String to append to the end of the document
-    * @param style the style to print with
-    */
-  protected void _docAppend(final ConsoleDocument doc, final String s, final String style) {
-    Utilities.invokeLater(new Runnable() {
-      public void run() { doc.insertBeforeLastPrompt(s, style); }
-    });
-  }
-  
   /** Prints System.out to the DrJava console.  This method can safely be run outside the event thread. */
-  public void systemOutPrint(final String s) { _docAppend(_consoleDoc, s, EditDocumentInterface.SYSTEM_OUT_STYLE); }
+  public void systemOutPrint(final String s) { _consoleAppendBuffer.append(s, EditDocumentInterface.SYSTEM_OUT_STYLE); }
   
   /** Prints System.err to the DrJava console.  This method can safely be run outside the event thread. */
-  public void systemErrPrint(final String s) { _docAppend(_consoleDoc, s, EditDocumentInterface.SYSTEM_ERR_STYLE); }
+  public void systemErrPrint(final String s) { _consoleAppendBuffer.append(s, EditDocumentInterface.SYSTEM_ERR_STYLE); }
   
   /** Prints to the DrJava console as an echo of System.in.  This method can safely be run outside the event thread. */
-  public void systemInEcho(final String s) { _docAppend(_consoleDoc, s, EditDocumentInterface.SYSTEM_IN_STYLE); }
+  public void systemInEcho(final String s) { _consoleAppendBuffer.append(s, EditDocumentInterface.SYSTEM_IN_STYLE); }
   
   /** throws UnsupportedOperationException */
   public void printDebugMessage(String s) {
@@ -2722,8 +2723,8 @@ public class AbstractGlobalModel implements SingleDisplayModel, OptionConstants,
     
 //     private boolean _modifiedSinceSave;
     
-    /** Cached String image of document as last read from or written to disk; initially null */
-    private volatile String _image;
+    /** Compressed image of document as last read from disk or virtualized by the cache; initially null */
+    private volatile DocumentImage _image;
     private volatile File _file;
     private volatile long _timestamp;
     
@@ -3077,22 +3078,30 @@ public class AbstractGlobalModel implements SingleDisplayModel, OptionConstants,
         private volatile WeakHashMap< DefinitionsDocument.WrappedPosition, Integer> _positions =
           new WeakHashMap<DefinitionsDocument.WrappedPosition, Integer>();
         
-        // Returns the text for this document as a String; assert never returns null;
-        public String getText() {
-          String image = _image;
+        // Returns the image of this document; never returns null
+        private DocumentImage image() {
+          DocumentImage image = _image;
           if (image != null) return image;
           
-          // Document has not yet been read from disk; read it and set _image before returning text.
-          // Synchronization on this was eliminated because it does not prevent the returned string from becoming 
+          // Document has not yet been read from disk; read it and set _image before returning it.
+          // Synchronization on this was eliminated because it does not prevent the returned image from becoming 
           // inconsistent with _doc/_file in the presence of huge scheduling delays.  Of course, all getText operations 
           // can return stale data in the presence of such delays. 
-          try { image = FileOps.readFileAsSwingText(_file); }
-          catch(IOException e) {  image = ""; }  
-//          System.err.println("Returning image '" + image + " for file " + _file);
+          String text;
+          try { text = FileOps.readFileAsSwingText(_file); }
+          catch(IOException e) {  text = ""; }  
+          image = new DocumentImage(text);
           _image = image;
-          return _image;
+          return image;
         }
         
+        // Returns the text for this document as a String; assert never returns null;
+        public String getText() { return image().getText(); }
+        
+        public int getLength() { return image().getLength(); }
+        
+        public int getNumberOfLines() { return image().getNumberOfLines(); }
+        
         public DefinitionsDocument make() throws IOException, BadLocationException, FileMovedException {
           
 //          System.err.println("DDReconstructor.make() called on " + ConcreteOpenDefDoc.this);
@@ -3106,7 +3115,7 @@ public class AbstractGlobalModel implements SingleDisplayModel, OptionConstants,
           _editorKit.read(new StringReader(image), newDefDoc, 0);
           //  Set document property to write out document using newLine conventions of the host platform.
           newDefDoc.putProperty(DefaultEditorKit.EndOfLineStringProperty, StringOps.EOL);
-          _log.log("Reading from image for " + _file + " containing " + _image.length() + " chars");    
+          _log.log("Reading from image for " + _file + " containing " + image.length() + " chars");    
           
           _loc = Math.min(_loc, image.length()); // make sure not past end
           _loc = Math.max(_loc, 0); // make sure not less than 0
@@ -3143,7 +3152,7 @@ public class AbstractGlobalModel implements SingleDisplayModel, OptionConstants,
           // Save document image.  Note: this could be optimized to eliminate redundant updates to _image
           String text = doc.getText();
           if (text.length() > 0) {
-            _image = text;  
+            _image = new DocumentImage(text);  
 //            _log.log("Saving image containing " + _image.length() + " chars for " + _file);
           }
           _loc = doc.getCurrentLocation();
@@ -3983,7 +3992,7 @@ public class AbstractGlobalModel implements SingleDisplayModel, OptionConstants,
     public ReducedModelControl getReduced() { return getDocument().getReduced(); }
     
     /** @return the number of lines in this document. */
-    public int getNumberOfLines() { return getLineOfOffset(getLength()); }
+    public int getNumberOfLines() { return _cacheAdapter.getNumberOfLines(); }
     
     /** Determines if pos in document is inside a comment or a string. */
     public boolean isShadowed(int pos) { return getDocument().isShadowed(pos); }
@@ -4167,6 +4176,7 @@ public class AbstractGlobalModel implements SingleDisplayModel, OptionConstants,
     }
     catch(IOException e) { _documentNavigator.addDocument(doc); }
     synchronized(_documentsRepos) { _documentsRepos.put(doc.getRawFile(), doc); }
+    _searchIndex.add(doc);
   }
   
   /** Add a document to the classpath for the slave JVM. Does nothing here 
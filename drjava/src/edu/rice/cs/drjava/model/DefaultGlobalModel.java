@@ -73,8 +73,10 @@ import edu.rice.cs.drjava.model.junit.DefaultJUnitModel;
 import edu.rice.cs.drjava.model.junit.JUnitModel;
 
 import edu.rice.cs.plt.collect.CollectUtil;
+import edu.rice.cs.plt.concurrent.ConcurrentUtil;
 import edu.rice.cs.plt.iter.IterUtil;
 import edu.rice.cs.plt.io.IOUtil;
+import edu.rice.cs.plt.lambda.Thunk;
 import edu.rice.cs.plt.reflect.JavaVersion;
 import edu.rice.cs.plt.reflect.ReflectUtil;
 import edu.rice.cs.plt.tuple.Pair;
@@ -159,7 +161,7 @@ public class DefaultGlobalModel extends AbstractGlobalModel {
   // ---- Compiler Fields ----
   
   /** CompilerModel manages all compiler functionality. */
-  private final CompilerModel _compilerModel;
+  private final DefaultCompilerModel _compilerModel;
   
   /** Whether or not to reset the interactions JVM after compiling.  Should only be false in test cases. */
   private volatile boolean _resetAfterCompile = true;
@@ -185,28 +187,33 @@ public class DefaultGlobalModel extends AbstractGlobalModel {
   /* CONSTRUCTORS */
   /** Constructs a new GlobalModel. Creates a new MainJVM and starts its Interpreter JVM. */
   public DefaultGlobalModel() {
-    Iterable<? extends JDKToolsLibrary> tools = findLibraries();
-    List<CompilerInterface> compilers = new LinkedList<CompilerInterface>();
+    /* The configured and built-in libraries are found immediately; the search for JDKs, which may have to probe many
+     * jar files, runs in the background.  The compiler model starts out with the compilers of the immediate libraries
+     * and replaces them with all compilers when the search finishes. */
+    final Map<LibraryKey, JDKToolsLibrary> immediate = findImmediateLibraries();
+    final Thunk<Iterable<JDKToolsLibrary>> tools = ConcurrentUtil.computeInThread(new Thunk<Iterable<JDKToolsLibrary>>() {
+      public Iterable<JDKToolsLibrary> value() { return findLibraries(immediate); }
+    });
+    Thunk<List<CompilerInterface>> compilers = new Thunk<List<CompilerInterface>>() {
+      public List<CompilerInterface> value() { return _compilers(tools.value()); }
+    };
     
     /* Note: the only debugger used in DrJava is JPDADebugger in the DrJava code base which relies
      * on machinery provided by the tools.jar library included in every Java JDK (up through JDK 8).  A copy of the
-     * tools.jar library from Java 8 Open JDK is included in the drjava.jar file.
+     * tools.jar library from Java 8 Open JDK is included in the drjava.jar file.  The debugger and javadoc are
+     * therefore taken from the immediate libraries if possible; only otherwise is the search awaited.
      */
     _debugger = null;
     _javadocModel = null;
-    for (JDKToolsLibrary t : tools) {
-//      Utilities.show("Found tools.jar library: " + t);
-      if (t.compiler().isAvailable() && t.version().supports(JavaVersion.JAVA_7)) compilers.add(t.compiler());
-      if (_debugger == null && t.debugger().isAvailable()) { _debugger = t.debugger(); }
-      if (_javadocModel == null && t.javadoc().isAvailable()) { _javadocModel = t.javadoc(); }
-    }
+    _chooseTools(IterUtil.reverse(immediate.values()));
+    if (_debugger == null || _javadocModel == null) { _chooseTools(tools.value()); }
     if (_debugger == null) { _debugger = NoDebuggerAvailable.ONLY; }
     if (_javadocModel == null) { _javadocModel = new NoJavadocAvailable(this); }
     
     File workDir = Utilities.TEST_MODE ? new File(System.getProperty("user.home")) : getWorkingDirectory();
     _jvm = new MainJVM(workDir);
 //    AbstractMasterJVM._log.log(this + " has created a new MainJVM");
-    _compilerModel = new DefaultCompilerModel(this, compilers);     
+    _compilerModel = new DefaultCompilerModel(this, _compilers(IterUtil.reverse(immediate.values())), compilers);
     _junitModel = new DefaultJUnitModel(_jvm, _compilerModel, this);
     _interactionsDocument = new InteractionsDJDocument(_notifier);
     
@@ -322,10 +329,29 @@ public class DefaultGlobalModel extends AbstractGlobalModel {
     return new LibraryKey(priority, coarsenVersion(lib.version()), lib.jdkDescriptor());
   }
   
-  /** Fills the results Map with available tools.jar files located within found JDK distributions. */
-  private Iterable<JDKToolsLibrary> findLibraries() {
-    // Order to return: config setting, runtime (if different version), from search (if different versions)
-    
+  /** @return the available compilers of the given libraries that support Java 7 or later, in the same order */
+  private static List<CompilerInterface> _compilers(Iterable<? extends JDKToolsLibrary> tools) {
+    List<CompilerInterface> result = new LinkedList<CompilerInterface>();
+    for (JDKToolsLibrary t : tools) {
+      if (t.compiler().isAvailable() && t.version().supports(JavaVersion.JAVA_7)) result.add(t.compiler());
+    }
+    return result;
+  }
+  
+  /** Sets _debugger and _javadocModel, unless already set, to the first available ones in the given libraries. */
+  private void _chooseTools(Iterable<? extends JDKToolsLibrary> tools) {
+    for (JDKToolsLibrary t : tools) {
+//      Utilities.show("Found tools.jar library: " + t);
+      if (_debugger == null && t.debugger().isAvailable()) { _debugger = t.debugger(); }
+      if (_javadocModel == null && t.javadoc().isAvailable()) { _javadocModel = t.javadoc(); }
+    }
+  }
+  
+  /** Finds the libraries that do not require a search: the one set in the configuration, if valid, and the
+    * embedded one.
+    * @return the libraries, sorted by key from lowest to highest
+    */
+  private Map<LibraryKey, JDKToolsLibrary> findImmediateLibraries() {
     // map is sorted by version, lowest-to-highest
     Map<LibraryKey, JDKToolsLibrary> results = new TreeMap<LibraryKey, JDKToolsLibrary>();
     
@@ -339,7 +365,21 @@ public class DefaultGlobalModel extends AbstractGlobalModel {
       }
       else { JDKToolsLibrary.msg("From config: invalid " + fromConfig); }
     }
-     
+    
+    // Add embedded tools.jar (unjarred) to libraries 
+    JDKToolsLibrary defaultLibrary = JarJDKToolsLibrary.makeFromFile(FileOps.getDrJavaFile(), this, JDKDescriptor.JDK_DEFAULT);
+    results.put(getLibraryKey(LibraryKey.PRIORITY_BUILTIN, defaultLibrary), defaultLibrary);
+    JDKToolsLibrary.msg("Adding default library: " + defaultLibrary);
+    return results;
+  }
+  
+  /** Adds the available tools.jar files located within found JDK distributions to the immediate libraries.
+    * @param immediate the libraries found by findImmediateLibraries(); not modified
+    */
+  private Iterable<JDKToolsLibrary> findLibraries(Map<LibraryKey, JDKToolsLibrary> immediate) {
+    // Order to return: config setting, runtime (if different version), from search (if different versions)
+    Map<LibraryKey, JDKToolsLibrary> results = new TreeMap<LibraryKey, JDKToolsLibrary>(immediate);
+    
     Iterable<JarJDKToolsLibrary> fromSearch = JarJDKToolsLibrary.search(this);
     for (JDKToolsLibrary t : fromSearch) {
       JavaVersion.FullVersion tVersion = t.version();
@@ -368,11 +408,6 @@ public class DefaultGlobalModel extends AbstractGlobalModel {
 //      return IterUtil.singleton(defaultLibrary);
 //    }
     
-    // Add embedded tools.jar (unjarred) to libraries 
-    JDKToolsLibrary defaultLibrary = JarJDKToolsLibrary.makeFromFile(FileOps.getDrJavaFile(), this, JDKDescriptor.JDK_DEFAULT);
-    results.put(getLibraryKey(LibraryKey.PRIORITY_BUILTIN, defaultLibrary), defaultLibrary);
-    JDKToolsLibrary.msg("Adding default library: " + defaultLibrary);
-    
     Iterable<JDKToolsLibrary> libraries = IterUtil.reverse(results.values());
     JDKToolsLibrary.msg("findLibraries() returning libraries: " + libraries);
     return libraries;
@@ -428,6 +463,9 @@ public class DefaultGlobalModel extends AbstractGlobalModel {
     catch (InterruptedException e) { throw new UnexpectedException(e); }
   }
   
+  /** Ensures that the search for compilers has finished. Never called in practice outside of GlobalModelTestCase.setUp(). */
+  public void ensureCompilersFound() { _compilerModel.ensureCompilersFound(); }
+  
   /** Disposes of external resources. Kills the slave JVM. */
   public void disposeExternalResources() { _jvm.stopInterpreterJVM(); }
   
@@ -789,6 +827,7 @@ public class DefaultGlobalModel extends AbstractGlobalModel {
     _debugger.addListener(new DebugListener() {
       public void watchSet(final DebugWatchData w) { setProjectChanged(true); }
       public void watchRemoved(final DebugWatchData w) { setProjectChanged(true); }    
+      public void watchesUpdated() { }
       
       public void regionAdded(final Breakpoint bp) { }
       public void regionChanged(final Breakpoint bp) { }
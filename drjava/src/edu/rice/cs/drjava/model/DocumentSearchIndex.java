@@ -0,0 +1,274 @@
+/*BEGIN_COPYRIGHT_BLOCK
+ *
+ * Copyright (c) 2001-2010, JavaPLT group at Rice University (drjava@rice.edu)
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    * Redistributions of source code must retain the above copyright
+ *      notice, this list of conditions and the following disclaimer.
+ *    * Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in the
+ *      documentation and/or other materials provided with the distribution.
+ *    * Neither the names of DrJava, the JavaPLT group, Rice University, nor the
+ *      names of its contributors may be used to endorse or promote products
+ *      derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This software is Open Source Initiative approved Open Source Software.
+ * Open Source Initative Approved is a trademark of the Open Source Initiative.
+ * 
+ * This file is part of DrJava.  Download the current version of this project
+ * from http://www.drjava.org/ or http://sourceforge.net/projects/drjava/
+ * 
+ * END_COPYRIGHT_BLOCK*/
+
+package edu.rice.cs.drjava.model;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import javax.swing.event.DocumentEvent;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+
+import edu.rice.cs.drjava.model.definitions.DocumentUIListener;
+import edu.rice.cs.util.Log;
+
+/** An index of the trigrams (sequences of three characters) in each open document, used to skip documents that cannot 
+  * contain a search string without reading, let alone reconstructing, them.  The trigrams of a document are hashed 
+  * into a bit set, so the index may report false candidates but never misses one.  Characters are folded to lower case
+  * as in {@code String.regionMatches(true, ...)}, so the same index serves case-sensitive and case-insensitive 
+  * searches.
+  * 
+  * The bit set of a document is built from its text by a background thread when the document is added to the index.
+  * Afterwards, a document listener adds the trigrams of inserted text and of the text around removals.  Since the 
+  * trigrams of removed text are never cleared, the bit set of a heavily edited document is rebuilt in the background.
+  * Until the bit set of a document has been built, the document is a candidate for every search.
+  * @version $Id$
+  */
+public class DocumentSearchIndex {
+  
+  private static final Log _log = new Log("FindReplace.txt", false);
+  
+  /** The log (base 2) of the number of bits in the bit set of a document. */
+  private static final int LOG_BITS = 16;
+  private static final int MASK = (1 << LOG_BITS) - 1;
+  
+  /** The minimum number of removed characters that causes a rebuild. */
+  private static final int MIN_REBUILD_REMOVALS = 4096;
+  
+  /** The entries of the documents in the index; only accessed while holding its lock.  An entry refers to its document,
+    * so the map is not weak: documents stay indexed until they are removed, as the global model does when it closes 
+    * a document.
+    */
+  private final Map<OpenDefinitionsDocument, Entry> _entries = new HashMap<OpenDefinitionsDocument, Entry>();
+  
+  /** Runs the builds of the bit sets. */
+  private final Executor _executor;
+  
+  /** Creates an index that builds bit sets in a background thread. */
+  public DocumentSearchIndex() {
+    this(Executors.newSingleThreadExecutor(new ThreadFactory() {
+      public Thread newThread(Runnable r) {
+        Thread t = new Thread(r, "Document Search Index");
+        t.setDaemon(true);
+        t.setPriority(Thread.MIN_PRIORITY);
+        return t;
+      }
+    }));
+  }
+  
+  /** Creates an index that builds bit sets using the given executor.
+    * @param executor the executor running the builds
+    */
+  public DocumentSearchIndex(Executor executor) { _executor = executor; }
+  
+  /** Adds a document to the index and schedules building its bit set.  Does nothing if the document is already 
+    * indexed.
+    * @param doc the document to add
+    */
+  public void add(OpenDefinitionsDocument doc) {
+    Entry e;
+    synchronized(_entries) {
+      if (_entries.containsKey(doc)) return;
+      e = new Entry(doc);
+      _entries.put(doc, e);
+    }
+    doc.addDocumentListener(e);
+    e.scheduleBuild();
+  }
+  
+  /** Removes a document from the index.  Must be called when the document is closed; until then, the index keeps it
+    * reachable.
+    * @param doc the document to remove
+    */
+  public void remove(OpenDefinitionsDocument doc) {
+    Entry e;
+    synchronized(_entries) { e = _entries.remove(doc); }
+    if (e != null) {
+      e.close();
+      doc.removeDocumentListener(e);
+    }
+  }
+  
+  /** Determines if a document may contain the given string, ignoring case.
+    * @param doc the document
+    * @param s the string
+    * @return false if doc definitely does not contain s; true if it may
+    */
+  public boolean mayContain(OpenDefinitionsDocument doc, String s) {
+    if (s.length() < 3) return true;
+    Entry e;
+    synchronized(_entries) { e = _entries.get(doc); }
+    return (e == null) || e.mayContain(s);
+  }
+  
+  /** @return the character c folded to lower case as in {@code String.regionMatches(true, ...)} */
+  private static char _fold(char c) { return Character.toLowerCase(Character.toUpperCase(c)); }
+  
+  /** @return the bit index of the trigram c0 c1 c2, whose characters are already folded */
+  private static int _hash(char c0, char c1, char c2) {
+    int h = (c0 * 0x9E3779B1) ^ (c1 * 0x85EBCA6B) ^ (c2 * 0xC2B2AE35);
+    return (h ^ (h >>> LOG_BITS)) & MASK;
+  }
+  
+  /** Sets the bits of all trigrams in s.
+    * @param bits the bit set
+    * @param s the text
+    */
+  private static void _addTrigrams(long[] bits, String s) {
+    int n = s.length();
+    if (n < 3) return;
+    char c0 = _fold(s.charAt(0));
+    char c1 = _fold(s.charAt(1));
+    for (int i = 2; i < n; i++) {
+      char c2 = _fold(s.charAt(i));
+      int h = _hash(c0, c1, c2);
+      bits[h >>> 6] |= 1L << h;
+      c0 = c1;
+      c1 = c2;
+    }
+  }
+  
+  /** The index entry of a document.  It is a DocumentUIListener so that it stays attached to the document when the
+    * document is reconstructed by the DocumentCache.
+    */
+  private class Entry implements DocumentUIListener {
+    private final OpenDefinitionsDocument _doc;
+    
+    /** The bit set of the trigrams of the document, or null if it has not been built yet. */
+    private long[] _bits = null;
+    
+    /** The bit set being built, or null if no build is in progress. */
+    private long[] _building = null;
+    
+    /** The number of characters removed since the last build. */
+    private int _removed = 0;
+    
+    /** The length of the document at the last build. */
+    private int _builtLength = 0;
+    
+    /** Whether a build has been scheduled but has not started yet. */
+    private boolean _buildPending = false;
+    
+    private boolean _closed = false;
+    
+    Entry(OpenDefinitionsDocument doc) { _doc = doc; }
+    
+    /** Schedules building the bit set in the background, unless a build is already pending. */
+    void scheduleBuild() {
+      synchronized(this) {
+        if (_buildPending) return;
+        _buildPending = true;
+      }
+      _executor.execute(new Runnable() { public void run() { _build(); } });
+    }
+    
+    /** Builds the bit set from the text of the document.  Edits made while the text is read and processed are 
+      * recorded in _building and merged into the new bit set.  Reading the text of a document that is not resident 
+      * does not reconstruct it.
+      */
+    private void _build() {
+      synchronized(this) {
+        _buildPending = false;
+        if (_closed) return;
+        _building = new long[1 << (LOG_BITS - 6)];
+      }
+      String text = _doc.getText();
+      long[] bits = new long[1 << (LOG_BITS - 6)];
+      _addTrigrams(bits, text);
+      synchronized(this) {
+        for (int i = 0; i < bits.length; i++) bits[i] |= _building[i];
+        _bits = bits;
+        _building = null;
+        _removed = 0;
+        _builtLength = text.length();
+      }
+      _log.log("Built search index for " + _doc + " (" + text.length() + " chars)");
+    }
+    
+    synchronized void close() { _closed = true; }
+    
+    synchronized boolean mayContain(String s) {
+      if (_bits == null) return true;
+      int n = s.length();
+      char c0 = _fold(s.charAt(0));
+      char c1 = _fold(s.charAt(1));
+      for (int i = 2; i < n; i++) {
+        char c2 = _fold(s.charAt(i));
+        int h = _hash(c0, c1, c2);
+        if ((_bits[h >>> 6] & (1L << h)) == 0) return false;
+        c0 = c1;
+        c1 = c2;
+      }
+      return true;
+    }
+    
+    /** Adds the trigrams of the text between start and end, extended by two characters on each side to cover the 
+      * trigrams spanning the boundaries.
+      */
+    private void _update(Document d, int start, int end) {
+      start = Math.max(0, start - 2);
+      end = Math.min(d.getLength(), end + 2);
+      String text;
+      try { text = d.getText(start, end - start); }
+      catch (BadLocationException e) { return; }
+      synchronized(this) {
+        if (_bits != null) _addTrigrams(_bits, text);
+        if (_building != null) _addTrigrams(_building, text);
+      }
+    }
+    
+    public void insertUpdate(DocumentEvent e) {
+      _update(e.getDocument(), e.getOffset(), e.getOffset() + e.getLength());
+    }
+    
+    public void removeUpdate(DocumentEvent e) {
+      _update(e.getDocument(), e.getOffset(), e.getOffset());
+      boolean rebuild;
+      synchronized(this) {
+        _removed += e.getLength();
+        rebuild = (_bits != null) && (_building == null) && ! _buildPending && 
+          _removed > Math.max(MIN_REBUILD_REMOVALS, _builtLength);
+      }
+      if (rebuild) scheduleBuild();
+    }
+    
+    public void changedUpdate(DocumentEvent e) { }
+  }
+}
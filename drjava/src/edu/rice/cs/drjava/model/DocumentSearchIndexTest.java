@@ -0,0 +1,149 @@
+/*BEGIN_COPYRIGHT_BLOCK
+ *
+ * Copyright (c) 2001-2010, JavaPLT group at Rice University (drjava@rice.edu)
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    * Redistributions of source code must retain the above copyright
+ *      notice, this list of conditions and the following disclaimer.
+ *    * Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in the
+ *      documentation and/or other materials provided with the distribution.
+ *    * Neither the names of DrJava, the JavaPLT group, Rice University, nor the
+ *      names of its contributors may be used to endorse or promote products
+ *      derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This software is Open Source Initiative approved Open Source Software.
+ * Open Source Initative Approved is a trademark of the Open Source Initiative.
+ * 
+ * This file is part of DrJava.  Download the current version of this project
+ * from http://www.drjava.org/ or http://sourceforge.net/projects/drjava/
+ * 
+ * END_COPYRIGHT_BLOCK*/
+
+package edu.rice.cs.drjava.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import javax.swing.text.BadLocationException;
+
+import edu.rice.cs.drjava.DrJavaTestCase;
+import edu.rice.cs.plt.concurrent.CompletionMonitor;
+import edu.rice.cs.plt.lambda.Runnable1;
+
+/** Tests the trigram index of open documents and the background Find All search that uses it.
+  * @version $Id$
+  */
+public final class DocumentSearchIndexTest extends DrJavaTestCase {
+  
+  /** Runs builds immediately, in the calling thread. */
+  private static final Executor DIRECT = new Executor() { public void execute(Runnable r) { r.run(); } };
+  
+  /** A document that counts how often its whole text is read. */
+  private static class TextDoc extends DummyOpenDefDoc {
+    private final String _name;
+    private volatile int _reads = 0;
+    public TextDoc(String name, String text) { _name = name; append(text); }
+    public String getText() { _reads++; return _defDoc.getText(); }
+    public String getFileName() { return _name; }
+    public String toString() { return _name; }
+  }
+  
+  public void testMayContain() throws BadLocationException {
+    DocumentSearchIndex index = new DocumentSearchIndex(DIRECT);
+    TextDoc doc = new TextDoc("A.java", "class Alpha { int beta; }");
+    
+    // documents that are not indexed may contain anything
+    assertTrue(index.mayContain(doc, "gamma"));
+    
+    index.add(doc);
+    assertEquals(1, doc._reads);
+    assertTrue(index.mayContain(doc, "alpha"));
+    assertTrue(index.mayContain(doc, "ALPHA"));
+    assertTrue(index.mayContain(doc, "int beta"));
+    assertFalse(index.mayContain(doc, "gamma"));
+    assertTrue("short strings are not indexed", index.mayContain(doc, "zq"));
+    
+    // insertions and the text joined by removals are added incrementally
+    doc.insertString(doc.getLength(), " // Gamma", null);
+    assertTrue(index.mayContain(doc, "gamma"));
+    assertFalse(index.mayContain(doc, "tabe"));
+    doc.remove(20, 1);  // "int beta" becomes "int bea"
+    assertTrue(index.mayContain(doc, "t bea"));
+    assertEquals(1, doc._reads);
+    
+    index.remove(doc);
+    assertTrue(index.mayContain(doc, "delta"));
+    doc.insertString(0, "x", null);  // the listener has been removed
+    assertEquals(1, doc._reads);
+  }
+  
+  public void testRebuild() throws BadLocationException {
+    DocumentSearchIndex index = new DocumentSearchIndex(DIRECT);
+    StringBuilder text = new StringBuilder();
+    for (int i = 0; i < 1000; i++) text.append("word").append(i).append(' ');
+    TextDoc doc = new TextDoc("B.java", text.toString());
+    index.add(doc);
+    assertTrue(index.mayContain(doc, "word999"));
+    
+    // removing more than the document had causes a rebuild, which forgets the removed trigrams
+    doc.remove(0, doc.getLength());
+    doc.insertString(0, "fresh text", null);
+    doc.remove(0, doc.getLength());
+    assertEquals(2, doc._reads);
+    doc.insertString(0, "fresh text", null);
+    assertFalse(index.mayContain(doc, "word999"));
+    assertTrue(index.mayContain(doc, "fresh"));
+  }
+  
+  public void testFindOffsets() {
+    assertEquals(Arrays.asList(0, 8), FindAllTask.findOffsets("foo bar Foo", "foo", false, false));
+    assertEquals(Arrays.asList(0), FindAllTask.findOffsets("foo bar Foo", "foo", true, false));
+    assertEquals(Arrays.asList(0, 2), FindAllTask.findOffsets("aaaaa", "aa", true, false));
+    assertEquals(Arrays.asList(5), FindAllTask.findOffsets("xfoo foo foo_", "foo", true, true));
+    assertEquals(Arrays.<Integer>asList(), FindAllTask.findOffsets("fo", "foo", true, false));
+  }
+  
+  public void testFindAllTask() throws InterruptedException {
+    DocumentSearchIndex index = new DocumentSearchIndex(DIRECT);
+    TextDoc a = new TextDoc("A.java", "int needle = 1;\nNeedle n;");
+    TextDoc b = new TextDoc("B.java", "nothing to see here");
+    TextDoc c = new TextDoc("CTest.java", "needle");
+    TextDoc d = new TextDoc("D.java", "haystack needle");
+    for (TextDoc doc : Arrays.asList(a, b, c, d)) index.add(doc);
+    
+    final List<String> found = new ArrayList<String>();
+    final CompletionMonitor monitor = new CompletionMonitor();
+    Runnable1<FindResult> foundAction = new Runnable1<FindResult>() {
+      public void run(FindResult fr) { found.add(fr.getDocument() + ":" + fr.getFoundOffset()); }
+    };
+    Runnable1<FindAllTask> doneAction = new Runnable1<FindAllTask>() {
+      public void run(FindAllTask task) {
+        found.add("count " + task.getCount());
+        monitor.signal();
+      }
+    };
+    List<OpenDefinitionsDocument> docs = Arrays.<OpenDefinitionsDocument>asList(d, a, b, c);
+    new FindAllTask(docs, "needle", false, false, false, true, index, foundAction, doneAction).start();
+    monitor.ensureSignaled();
+    assertEquals(Arrays.asList("D.java:15", "A.java:10", "A.java:22", "count 3"), found);
+    assertEquals("B.java is ruled out by the index", 1, b._reads);
+    assertEquals("CTest.java is a test case", 1, c._reads);
+  }
+}
@@ -126,6 +126,10 @@ public class DummyGlobalModel implements GlobalModel {
     throw new UnsupportedOperationException("Tried to call getBookmarkManager on a Dummy");
   }
   
+  public DocumentSearchIndex getDocumentSearchIndex() {
+    throw new UnsupportedOperationException("Tried to call getDocumentSearchIndex on a Dummy");
+  }
+  
   public IDocumentNavigator<OpenDefinitionsDocument> getDocumentNavigator() {
     throw new UnsupportedOperationException("Tried to call getDocumentNavigator on a Dummy");
   }
@@ -84,6 +84,9 @@ public class DummyGlobalModelListener extends DummyInteractionsListener implemen
 
   /** Called after the active compiler has been changed. */
   public void activeCompilerChanged() { }
+  
+  /** Called after the list of available compilers has been changed. */
+  public void availableCompilersChanged() { }
 
   /** Called when a file's main method is about to be run. */
   public void prepareForRun(OpenDefinitionsDocument doc) { }
@@ -0,0 +1,191 @@
+/*BEGIN_COPYRIGHT_BLOCK
+ *
+ * Copyright (c) 2001-2010, JavaPLT group at Rice University (drjava@rice.edu)
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    * Redistributions of source code must retain the above copyright
+ *      notice, this list of conditions and the following disclaimer.
+ *    * Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in the
+ *      documentation and/or other materials provided with the distribution.
+ *    * Neither the names of DrJava, the JavaPLT group, Rice University, nor the
+ *      names of its contributors may be used to endorse or promote products
+ *      derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This software is Open Source Initiative approved Open Source Software.
+ * Open Source Initative Approved is a trademark of the Open Source Initiative.
+ * 
+ * This file is part of DrJava.  Download the current version of this project
+ * from http://www.drjava.org/ or http://sourceforge.net/projects/drjava/
+ * 
+ * END_COPYRIGHT_BLOCK*/
+
+package edu.rice.cs.drjava.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.swing.text.BadLocationException;
+
+import edu.rice.cs.drjava.config.OptionConstants;
+import edu.rice.cs.plt.lambda.Runnable1;
+import edu.rice.cs.util.Log;
+import edu.rice.cs.util.swing.Utilities;
+
+/** Finds all occurrences of a string in a list of documents in a background thread.  Documents that the 
+  * DocumentSearchIndex rules out are skipped, and the others are searched in their text, which does not reconstruct
+  * documents that are not resident in the DocumentCache.  Only the occurrences found are checked against the
+  * documents themselves in the event thread, where they are reported one document at a time.  The task can be
+  * cancelled at any time; it then stops after the current document.
+  * @version $Id$
+  */
+public class FindAllTask {
+  
+  private static final Log _log = new Log("FindReplace.txt", false);
+  
+  private final List<OpenDefinitionsDocument> _docs;
+  private final String _findWord;
+  private final boolean _matchCase;
+  private final boolean _wholeWord;
+  private final boolean _noComments;
+  private final boolean _noTestCases;
+  private final DocumentSearchIndex _index;
+  private final Runnable1<FindResult> _found;
+  private final Runnable1<FindAllTask> _done;
+  
+  private volatile boolean _cancelled = false;
+  
+  /** The number of occurrences reported so far; only accessed in the event thread. */
+  private int _count = 0;
+  
+  /** @param docs the documents to search, in order
+    * @param findWord the string to find
+    * @param matchCase whether the case of the string must match
+    * @param wholeWord whether only occurrences of the string as a whole word are found
+    * @param noComments whether occurrences in comments and strings are ignored
+    * @param noTestCases whether documents that are test cases are skipped
+    * @param index the index used to skip documents
+    * @param found run in the event thread with each occurrence found; the found offset is the end of the occurrence
+    * @param done run in the event thread with this task when it ends or is cancelled
+    */
+  public FindAllTask(List<OpenDefinitionsDocument> docs, String findWord, boolean matchCase, boolean wholeWord, 
+                     boolean noComments, boolean noTestCases, DocumentSearchIndex index, 
+                     Runnable1<FindResult> found, Runnable1<FindAllTask> done) {
+    _docs = new ArrayList<OpenDefinitionsDocument>(docs);
+    _findWord = findWord;
+    _matchCase = matchCase;
+    _wholeWord = wholeWord;
+    _noComments = noComments;
+    _noTestCases = noTestCases;
+    _index = index;
+    _found = found;
+    _done = done;
+  }
+  
+  /** Starts the search in a new thread. */
+  public void start() {
+    Thread t = new Thread("Find All") { public void run() { _run(); } };
+    t.setDaemon(true);
+    t.start();
+  }
+  
+  /** Stops the search after the current document. */
+  public void cancel() { _cancelled = true; }
+  
+  /** @return true if the search has been cancelled */
+  public boolean isCancelled() { return _cancelled; }
+  
+  /** @return the number of occurrences reported so far.  Only runs in the event thread. */
+  public int getCount() { return _count; }
+  
+  private void _run() {
+    try {
+      for (final OpenDefinitionsDocument doc : _docs) {
+        if (_cancelled) break;
+        if (_noTestCases && _isTestCase(doc)) continue;
+        if (! _index.mayContain(doc, _findWord)) continue;
+        
+        final List<Integer> offsets = findOffsets(doc.getText(), _findWord, _matchCase, _wholeWord);
+        if (offsets.isEmpty()) continue;
+        Utilities.invokeAndWait(new Runnable() { public void run() { _report(doc, offsets); } });
+      }
+    }
+    finally {
+      Utilities.invokeLater(new Runnable() { public void run() { _done.run(FindAllTask.this); } });
+      _log.log("Find All of '" + _findWord + "' ended; cancelled = " + _cancelled);
+    }
+  }
+  
+  /** Reports the occurrences found in the text of doc that are still there.  Only runs in the event thread. */
+  private void _report(OpenDefinitionsDocument doc, List<Integer> offsets) {
+    if (_cancelled) return;
+    int len = _findWord.length();
+    for (int offset : offsets) {
+      try {
+        // the document may have been edited since its text was searched
+        if (offset + len > doc.getLength() || 
+            ! doc.getText(offset, len).regionMatches(! _matchCase, 0, _findWord, 0, len)) continue;
+      }
+      catch (BadLocationException e) { continue; }
+      if (_noComments && doc.isShadowed(offset)) continue;
+      _found.run(new FindResult(doc, offset + len, false, false));
+      _count++;
+    }
+  }
+  
+  /** @return true if doc is a test case, judging by its file name, as in FindReplaceMachine */
+  private static boolean _isTestCase(OpenDefinitionsDocument doc) {
+    for (String ext : OptionConstants.LANGUAGE_LEVEL_EXTENSIONS) {
+      if (doc.getFileName().endsWith("Test" + ext)) return true;
+    }
+    return false;
+  }
+  
+  /** Finds the non-overlapping occurrences of a word in a text, from left to right.
+    * @param text the text to search
+    * @param word the non-empty word to find
+    * @param matchCase whether the case must match
+    * @param wholeWord whether occurrences must not be preceded or followed by a letter, digit, or underscore
+    * @return the start offsets of the occurrences
+    */
+  public static List<Integer> findOffsets(String text, String word, boolean matchCase, boolean wholeWord) {
+    List<Integer> result = new ArrayList<Integer>();
+    int len = word.length();
+    int last = text.length() - len;
+    char first = word.charAt(0);
+    char foldedFirst = Character.toLowerCase(Character.toUpperCase(first));
+    int i = 0;
+    while (i <= last) {
+      char c = text.charAt(i);
+      boolean candidate = (c == first) || (! matchCase && Character.toLowerCase(Character.toUpperCase(c)) == foldedFirst);
+      if (candidate && text.regionMatches(! matchCase, i, word, 0, len) && 
+          (! wholeWord || (_isDelimiter(text, i - 1) && _isDelimiter(text, i + len)))) {
+        result.add(i);
+        i += len;
+      }
+      else i++;
+    }
+    return result;
+  }
+  
+  /** @return true if the character at index i of text is a delimiter of whole words or if i is out of bounds */
+  private static boolean _isDelimiter(String text, int i) {
+    if (i < 0 || i >= text.length()) return true;
+    char ch = text.charAt(i);
+    return ! Character.isLetterOrDigit(ch) && ch != '_';
+  }
+}
@@ -372,10 +372,11 @@ public class FindReplaceMachine {
       int count = 0;                 // the number of replacements done so far
       _searchSelectionOnly = false;  // force _searchSelectionOnly to be false
       final int n = _docIterator.getDocumentCount();
+      final DocumentSearchIndex index = _model.getDocumentSearchIndex();
       for (int i = 0; i < n; i++) {
-        // process all in the rest of the documents
+        // process all in the rest of the documents, skipping (without reconstructing) those that cannot match
 
-        count += _processAllInCurrentDoc(findAction);
+        if (index.mayContain(_doc, _findWord)) count += _processAllInCurrentDoc(findAction);
         _doc = _docIterator.getNextDocument(_doc, _frame);
         
         if (_doc == null) break;
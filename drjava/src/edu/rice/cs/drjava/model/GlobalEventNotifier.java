@@ -443,6 +443,13 @@ public class GlobalEventNotifier extends EventNotifier<GlobalModelListener>
     finally { _lock.endRead(); }
   }
   
+  /** Called after the list of available compilers has been changed. */
+  public void availableCompilersChanged() {
+    _lock.startRead();
+    try { for (GlobalModelListener l : _listeners) { l.availableCompilersChanged(); } }
+    finally { _lock.endRead(); }
+  }
+  
   //---------------------------------- JUnit ---------------------------------//
   
   /** Called when trying to test a non-TestCase class.
@@ -118,6 +118,9 @@ public interface GlobalModel extends ILoadDocuments {
   /** @return new manager for find result regions. */
   public RegionManager<MovingDocumentRegion> createFindResultsManager();
   
+  /** @return the index used to skip documents that cannot contain a search string. */
+  public DocumentSearchIndex getDocumentSearchIndex();
+  
   /** Dispose a manager for find result regions. 
    * @param rm the manager to be dispose of
    */
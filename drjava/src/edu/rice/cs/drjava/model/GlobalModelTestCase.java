@@ -101,6 +101,8 @@ public abstract class GlobalModelTestCase extends MultiThreadedTestCase {
     debug.logStart();
     _log.log("Setting up " + this);
     _model = new TestGlobalModel();
+    // the search for compilers may change the active compiler; let it finish before listeners are registered
+    _model.ensureCompilersFound();
     Utilities.invokeAndWait(new Runnable() {
       public void run() {
         // ensure that the JVM is ready to run; the GlobalModelJUnitTest test cases sometimes received a
@@ -963,6 +965,7 @@ public abstract class GlobalModelTestCase extends MultiThreadedTestCase {
     }
     public void compileAborted(Exception e) { listenerFail("compileAborted fired unexpectedly"); }
     public void activeCompilerChanged() { listenerFail("activeCompilerChanged fired unexpectedly"); }
+    public void availableCompilersChanged() { }  // the search for compilers may finish at any time
 
     public void prepareForRun(OpenDefinitionsDocument doc) { listenerFail("prepareForRun fired unexpectedly"); }
     
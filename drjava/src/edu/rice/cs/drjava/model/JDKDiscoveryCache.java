@@ -0,0 +1,209 @@
+/* BEGIN_COPYRIGHT_BLOCK
+ *
+ * Copyright (c) 2001-2019, JavaPLT group at Rice University (drjava@rice.edu)
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    * Redistributions of source code must retain the above copyright
+ *      notice, this list of conditions and the following disclaimer.
+ *    * Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in the
+ *      documentation and/or other materials provided with the distribution.
+ *    * Neither the names of DrJava, the JavaPLT group, Rice University, nor the
+ *      names of its contributors may be used to endorse or promote products
+ *      derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This software is Open Source Initiative approved Open Source Software.
+ * Open Source Initative Approved is a trademark of the Open Source Initiative.
+ * 
+ * This file is part of DrJava.  Download the current version of this project
+ * from http://www.drjava.org/ or http://sourceforge.net/projects/drjava/
+ * 
+ * END_COPYRIGHT_BLOCK*/
+
+package edu.rice.cs.drjava.model;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import edu.rice.cs.drjava.DrJava;
+import edu.rice.cs.drjava.Version;
+import edu.rice.cs.plt.reflect.JavaVersion;
+import edu.rice.cs.plt.reflect.JavaVersion.FullVersion;
+import edu.rice.cs.util.Log;
+
+/** Remembers the results of probing candidate JDK jar files, so that the jar files of JDK installations that have not
+  * changed are not opened again when DrJava starts.  A result is recorded for a jar file and a JDKDescriptor, and it is
+  * only used while the size and modification time of the jar file are the same as when it was probed.  All results
+  * are discarded when DrJava or the Java version it runs on changes, because versions that cannot be determined from
+  * the jar file default to the running version.  This class is thread-safe.
+  * @version $Id$
+  */
+public class JDKDiscoveryCache {
+  
+  private static final Log _log = new Log("JDKDiscoveryCache.txt", false);
+  
+  /** The result of probing a jar file with a JDKDescriptor. */
+  public static final class Probe implements Serializable {
+    private final boolean _containsCompiler;
+    private final FullVersion _version;
+    
+    /** @param containsCompiler whether the descriptor found its compiler in the jar file
+      * @param version the guessed version, or null if the jar file does not contain the compiler
+      */
+    public Probe(boolean containsCompiler, FullVersion version) {
+      _containsCompiler = containsCompiler;
+      _version = version;
+    }
+    
+    /** @return whether the descriptor found its compiler in the jar file */
+    public boolean containsCompiler() { return _containsCompiler; }
+    
+    /** @return the guessed version, or null if the jar file does not contain the compiler */
+    public FullVersion version() { return _version; }
+  }
+  
+  /** The file the cache is stored in, or null if it is not stored. */
+  private final File _file;
+  
+  /** The stamp of the running DrJava and Java versions that the results are valid for. */
+  private final String _stamp;
+  
+  /** The results read from the file, by key. */
+  private final Map<String, Probe> _stored;
+  
+  /** The results looked up or added since this cache was created, by key; only these are saved. */
+  private final ConcurrentHashMap<String, Probe> _used = new ConcurrentHashMap<String, Probe>();
+  
+  private volatile boolean _changed = false;
+  
+  /** Creates a cache that contains the results stored in the given file, if they are valid for the running versions
+    * of DrJava and Java.
+    * @param file the file the cache is stored in, or null for a cache that is not stored
+    */
+  public JDKDiscoveryCache(File file) {
+    this(file, Version.getVersionString() + " on " + JavaVersion.CURRENT_FULL);
+  }
+  
+  /** @param file the file the cache is stored in, or null for a cache that is not stored
+    * @param stamp the stamp stored results must have to be used
+    */
+  JDKDiscoveryCache(File file, String stamp) {
+    _file = file;
+    _stamp = stamp;
+    _stored = _load();
+  }
+  
+  /** @return the file the cache of the running DrJava is stored in, next to its configuration file */
+  public static File defaultFile() {
+    File config = DrJava.getPropertiesFile();
+    return new File(config.getParentFile(), config.getName() + ".jdks");
+  }
+  
+  /** @return the key of the result for the jar file and descriptor, or null if the jar file does not exist */
+  private static String _key(File jar, JDKDescriptor desc) {
+    long length = jar.length();
+    long modified = jar.lastModified();
+    if (modified == 0L) return null;
+    return jar.getPath() + '\t' + length + '\t' + modified + '\t' + desc.getClass().getName() + '\t' + desc.getName();
+  }
+  
+  /** @param jar the jar file
+    * @param desc the descriptor
+    * @return the result recorded for the jar file and descriptor, or null if there is none or the jar file changed
+    */
+  public Probe get(File jar, JDKDescriptor desc) {
+    String key = _key(jar, desc);
+    if (key == null) return null;
+    Probe p = _used.get(key);
+    if (p == null) {
+      p = _stored.get(key);
+      if (p != null) _used.put(key, p);
+    }
+    return p;
+  }
+  
+  /** Records the result of probing a jar file with a descriptor.
+    * @param jar the jar file
+    * @param desc the descriptor
+    * @param p the result
+    */
+  public void put(File jar, JDKDescriptor desc, Probe p) {
+    String key = _key(jar, desc);
+    if (key == null) return;
+    _used.put(key, p);
+    _changed = true;
+  }
+  
+  /** Probes the jar file with the descriptor unless a result is recorded for them, and records the result.
+    * @param jar the jar file
+    * @param desc the descriptor
+    * @return the result
+    */
+  public Probe probe(File jar, JDKDescriptor desc) {
+    Probe p = get(jar, desc);
+    if (p == null) {
+      boolean containsCompiler = desc.containsCompiler(jar);
+      p = new Probe(containsCompiler, containsCompiler ? desc.guessVersion(jar) : null);
+      put(jar, desc, p);
+    }
+    return p;
+  }
+  
+  /** Stores the results that were used or added since this cache was created, if any of them were added or any
+    * stored results were not used.  Failures are logged and otherwise ignored.
+    */
+  public void save() {
+    if (_file == null || (! _changed && _used.size() == _stored.size())) return;
+    try {
+      ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(_file)));
+      try {
+        out.writeObject(_stamp);
+        out.writeObject(new HashMap<String, Probe>(_used));
+      }
+      finally { out.close(); }
+    }
+    catch (IOException e) { _log.log("Could not save " + _file, e); }
+  }
+  
+  /** @return the results stored in the file, or an empty map if there are none or they are not valid */
+  @SuppressWarnings("unchecked")
+  private Map<String, Probe> _load() {
+    Map<String, Probe> result = new HashMap<String, Probe>();
+    if (_file == null || ! _file.isFile()) return result;
+    try {
+      ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(new FileInputStream(_file)));
+      try {
+        if (_stamp.equals(in.readObject())) result = (Map<String, Probe>) in.readObject();
+      }
+      finally { in.close(); }
+    }
+    catch (IOException e) { _log.log("Could not load " + _file, e); }
+    catch (ClassNotFoundException e) { _log.log("Could not load " + _file, e); }
+    catch (ClassCastException e) { _log.log("Could not load " + _file, e); }
+    return result;
+  }
+}
@@ -0,0 +1,117 @@
+/* BEGIN_COPYRIGHT_BLOCK
+ *
+ * Copyright (c) 2001-2019, JavaPLT group at Rice University (drjava@rice.edu)
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    * Redistributions of source code must retain the above copyright
+ *      notice, this list of conditions and the following disclaimer.
+ *    * Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in the
+ *      documentation and/or other materials provided with the distribution.
+ *    * Neither the names of DrJava, the JavaPLT group, Rice University, nor the
+ *      names of its contributors may be used to endorse or promote products
+ *      derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This software is Open Source Initiative approved Open Source Software.
+ * Open Source Initative Approved is a trademark of the Open Source Initiative.
+ * 
+ * This file is part of DrJava.  Download the current version of this project
+ * from http://www.drjava.org/ or http://sourceforge.net/projects/drjava/
+ * 
+ * END_COPYRIGHT_BLOCK*/
+
+package edu.rice.cs.drjava.model;
+
+import java.io.File;
+import java.io.IOException;
+
+import edu.rice.cs.drjava.DrJavaTestCase;
+import edu.rice.cs.plt.io.IOUtil;
+import edu.rice.cs.plt.reflect.JavaVersion;
+
+/** Tests the cache of the results of probing JDK jar files.
+  * @version $Id$
+  */
+public final class JDKDiscoveryCacheTest extends DrJavaTestCase {
+  
+  private File _tempDir;
+  private File _jar;
+  private File _cacheFile;
+  
+  public void setUp() throws Exception {
+    super.setUp();
+    String user = System.getProperty("user.name");
+    _tempDir = IOUtil.createAndMarkTempDirectory("DrJava-test-" + user, "");
+    _jar = new File(_tempDir, "tools.jar");
+    IOUtil.writeStringToFile(_jar, "not really a jar file");
+    _cacheFile = new File(_tempDir, "drjava.jdks");
+  }
+  
+  public void tearDown() throws Exception {
+    IOUtil.deleteRecursively(_tempDir);
+    _tempDir = null;
+    super.tearDown();
+  }
+  
+  public void testSaveAndLoad() {
+    JDKDescriptor desc = JDKDescriptor.JDK_DEFAULT;
+    JDKDiscoveryCache cache = new JDKDiscoveryCache(_cacheFile, "stamp");
+    assertNull(cache.get(_jar, desc));
+    JDKDiscoveryCache.Probe p = cache.probe(_jar, desc);
+    assertTrue(p.containsCompiler());
+    assertNotNull(p.version());
+    assertSame(p, cache.get(_jar, desc));
+    assertNull(cache.get(new File(_tempDir, "missing.jar"), desc));
+    cache.save();
+    assertTrue(_cacheFile.isFile());
+    
+    JDKDiscoveryCache loaded = new JDKDiscoveryCache(_cacheFile, "stamp");
+    JDKDiscoveryCache.Probe q = loaded.get(_jar, desc);
+    assertNotNull(q);
+    assertTrue(q.containsCompiler());
+    assertEquals(p.version(), q.version());
+    
+    // results stored by another version of DrJava or Java are not used
+    assertNull(new JDKDiscoveryCache(_cacheFile, "other stamp").get(_jar, desc));
+  }
+  
+  public void testChangedJar() throws IOException {
+    JDKDescriptor desc = JDKDescriptor.JDK_DEFAULT;
+    JDKDiscoveryCache cache = new JDKDiscoveryCache(_cacheFile, "stamp");
+    cache.put(_jar, desc, new JDKDiscoveryCache.Probe(false, null));
+    cache.save();
+    
+    assertNotNull(new JDKDiscoveryCache(_cacheFile, "stamp").get(_jar, desc));
+    assertTrue(_jar.setLastModified(_jar.lastModified() + 2000));
+    assertNull(new JDKDiscoveryCache(_cacheFile, "stamp").get(_jar, desc));
+    
+    cache.put(_jar, desc, new JDKDiscoveryCache.Probe(true, JavaVersion.CURRENT_FULL));
+    cache.save();
+    IOUtil.writeStringToFile(_jar, "a different length", true);
+    assertTrue(_jar.setLastModified(_jar.lastModified() - 2000));
+    assertNull(new JDKDiscoveryCache(_cacheFile, "stamp").get(_jar, desc));
+  }
+  
+  public void testCorruptFile() throws IOException {
+    IOUtil.writeStringToFile(_cacheFile, "garbage");
+    JDKDiscoveryCache cache = new JDKDiscoveryCache(_cacheFile, "stamp");
+    assertNull(cache.get(_jar, JDKDescriptor.JDK_DEFAULT));
+    cache.probe(_jar, JDKDescriptor.JDK_DEFAULT);
+    cache.save();
+    assertNotNull(new JDKDiscoveryCache(_cacheFile, "stamp").get(_jar, JDKDescriptor.JDK_DEFAULT));
+  }
+}
@@ -45,12 +45,16 @@ import java.util.List;
 import java.util.ArrayList;
 import java.util.Map;
 import java.util.TreeMap;
-import java.util.HashSet;
 import java.util.Collections;
 import java.util.jar.JarFile;
 import java.util.jar.JarEntry;
 import java.util.jar.Manifest;
 import java.util.Enumeration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 import java.io.IOException;
 import java.io.FileNotFoundException;
 
@@ -82,9 +86,10 @@ public class JarJDKToolsLibrary extends JDKToolsLibrary {
   /** Packages to shadow when loading a new tools.jar.  If we don't shadow these classes, we won't
     * be able to load distinct versions for each tools.jar library.  These should be verified whenever
     * a new Java version is released.  (We can't just shadow *everything* because some classes, at 
-    * least in OS X's classes.jar, can only be loaded by the JVM.)
+    * least in OS X's classes.jar, can only be loaded by the JVM.)  The set is shared by the class loaders of all
+    * libraries, and a search may add to it while other libraries are loading classes.
     */
-  private static final Set<String> TOOLS_PACKAGES = new HashSet<String>();
+  private static final Set<String> TOOLS_PACKAGES = new CopyOnWriteArraySet<String>();
   static {
     Collections.addAll(TOOLS_PACKAGES, new String[] {
       // From 1.4 tools.jar:
@@ -157,12 +162,24 @@ public class JarJDKToolsLibrary extends JDKToolsLibrary {
   public static JarJDKToolsLibrary makeFromFile(File f, GlobalModel model, JDKDescriptor desc,
                                                 List<File> additionalBootClassPath) {
     assert desc != null;
-    
+    return makeFromFile(f, model, desc, additionalBootClassPath, desc.guessVersion(f));
+  }
+  
+  /** Create a JarJDKToolsLibrary from a specific {@code "tools.jar"} or {@code "classes.jar"} file whose version has
+    * already been guessed by the descriptor.
+    * @param f the .jar file from which to create the JDK tools library
+    * @param model the global model
+    * @param desc a JDKDescriptor
+    * @param additionalBootClassPath the boot classpath
+    * @param version the version guessed by desc for f
+    * @return the newly-created JarJDKToolsLibrary
+    */
+  private static JarJDKToolsLibrary makeFromFile(File f, GlobalModel model, JDKDescriptor desc,
+                                                 List<File> additionalBootClassPath, FullVersion version) {
     CompilerInterface compiler = NoCompilerAvailable.ONLY;
     Debugger debugger = NoDebuggerAvailable.ONLY;
     JavadocModel javadoc = new NoJavadocAvailable(model);
     
-    FullVersion version = desc.guessVersion(f);
     JDKToolsLibrary.msg("makeFromFile: " + f + " --> " + version + ", vendor: " + version.vendor());
     JDKToolsLibrary.msg("    desc = " + desc);
     
@@ -525,17 +542,35 @@ public class JarJDKToolsLibrary extends JDKToolsLibrary {
                                             LinkedHashMap<File,Set<JDKDescriptor>> jars,
                                             Map<FullVersion, Iterable<JarJDKToolsLibrary>> results,
                                             Map<FullVersion, Iterable<JarJDKToolsLibrary>> compoundResults) {
+    collectValidResults(model, jars, results, compoundResults, new JDKDiscoveryCache(null));
+  }
+  
+  /** Check which jars are valid JDKs, and determine if they are compound or full (non-compound) JDKs.  Jars that have
+    * no results in the cache are probed in parallel first.
+    * @param model the global model
+    * @param jars the jar files
+    * @param results container for valid full JDKs; populated by this function
+    * @param compoundResults container for valid compound JDKs; populated by this function
+    * @param cache the results of probing jar files, which is updated by this function
+    */
+  protected static void collectValidResults(GlobalModel model,
+                                            LinkedHashMap<File,Set<JDKDescriptor>> jars,
+                                            Map<FullVersion, Iterable<JarJDKToolsLibrary>> results,
+                                            Map<FullVersion, Iterable<JarJDKToolsLibrary>> compoundResults,
+                                            JDKDiscoveryCache cache) {
     JDKToolsLibrary.msg("---- Collecting Valid Results ----");
+    probeAll(jars, cache);
     for (Map.Entry<File,Set<JDKDescriptor>> jar : jars.entrySet()) {
       for (JDKDescriptor desc : jar.getValue()) {
         assert desc != null;
 
-        boolean containsCompiler = desc.containsCompiler(jar.getKey());
+        JDKDiscoveryCache.Probe probe = cache.probe(jar.getKey(), desc);
+        boolean containsCompiler = probe.containsCompiler();
         JDKToolsLibrary.msg("Checking file " + jar.getKey() + " for " + desc);
         JDKToolsLibrary.msg("    " + containsCompiler);
         if (! containsCompiler) continue;
 
-        JarJDKToolsLibrary lib = makeFromFile(jar.getKey(), model, desc);
+        JarJDKToolsLibrary lib = makeFromFile(jar.getKey(), model, desc, new ArrayList<File>(), probe.version());
         if (lib.isValid()) {
           FullVersion v = lib.version();
           Map<FullVersion, Iterable<JarJDKToolsLibrary>> mapToAddTo = results;
@@ -552,6 +587,42 @@ public class JarJDKToolsLibrary extends JDKToolsLibrary {
     }
   }
   
+  /** The maximum number of threads used to probe jar files. */
+  private static final int MAX_PROBE_THREADS = 4;
+  
+  /** Probes the jar files with their descriptors in parallel on a bounded number of threads, unless the cache already
+    * has the results, and records the results in the cache.
+    * @param jars the jar files
+    * @param cache the results of probing jar files
+    */
+  protected static void probeAll(LinkedHashMap<File,Set<JDKDescriptor>> jars, final JDKDiscoveryCache cache) {
+    List<Callable<Object>> tasks = new ArrayList<Callable<Object>>();
+    for (Map.Entry<File,Set<JDKDescriptor>> jar : jars.entrySet()) {
+      final File f = jar.getKey();
+      for (final JDKDescriptor desc : jar.getValue()) {
+        if (cache.get(f, desc) == null) {
+          tasks.add(new Callable<Object>() {
+            public Object call() { return cache.probe(f, desc); }
+          });
+        }
+      }
+    }
+    JDKToolsLibrary.msg("Probing " + tasks.size() + " jar files");
+    if (tasks.size() < 2) return; // probed by the caller, if at all
+    
+    int threads = Math.min(Math.min(MAX_PROBE_THREADS, Runtime.getRuntime().availableProcessors()), tasks.size());
+    ExecutorService pool = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+      public Thread newThread(Runnable r) {
+        Thread t = new Thread(r, "Probe JDK");
+        t.setDaemon(true);
+        return t;
+      }
+    });
+    try { pool.invokeAll(tasks); } // exceptions are thrown again when the caller probes the jar file
+    catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+    finally { pool.shutdown(); }
+  }
+  
   /** Get completed compound JDKs by going through the list of compound JDKs 
     * and finding full JDKs that complete them. 
     * @param model the global model
@@ -605,7 +676,7 @@ public class JarJDKToolsLibrary extends JDKToolsLibrary {
       // if we found a JDK, then create a new compound library
       if (found != null) {
         JarJDKToolsLibrary lib = makeFromFile(compoundLib.location(), model, compoundLib.jdkDescriptor(),
-                                              found.bootClassPath());
+                                              found.bootClassPath(), compoundLib.version());
         if (lib.isValid()) {
           JDKToolsLibrary.msg("    based on version " + lib.version());
           FullVersion v = lib.version();
@@ -624,11 +695,23 @@ public class JarJDKToolsLibrary extends JDKToolsLibrary {
   /** Produce a list of tools libraries discovered on the file system.  A variety of locations are searched; only those
     * files that can produce a valid library (see {@link #isValid} are returned.  The result is sorted by version.  
     * Where one library of the same version might be preferred over another, the preferred library appears earlier in 
-    * the result list.
+    * the result list.  The results of probing jar files are read from and saved in the default JDKDiscoveryCache.
     * @param model the global model
     * @return list of tools libraries discovered on the file system
     */
   public static Iterable<JarJDKToolsLibrary> search(GlobalModel model) {
+    JDKDiscoveryCache cache = new JDKDiscoveryCache(JDKDiscoveryCache.defaultFile());
+    Iterable<JarJDKToolsLibrary> result = search(model, cache);
+    cache.save();
+    return result;
+  }
+  
+  /** Produce a list of tools libraries discovered on the file system, as described in {@link #search(GlobalModel)}.
+    * @param model the global model
+    * @param cache the results of probing jar files, which is updated by this method
+    * @return list of tools libraries discovered on the file system
+    */
+  public static Iterable<JarJDKToolsLibrary> search(GlobalModel model, JDKDiscoveryCache cache) {
     JDKToolsLibrary.msg("---- Searching for Libraries ----");
     
     /* roots is a list of possible parent directories of Java installations; we want to eliminate duplicates & 
@@ -660,7 +743,7 @@ public class JarJDKToolsLibrary extends JDKToolsLibrary {
     Map<FullVersion, Iterable<JarJDKToolsLibrary>> compoundResults =
       new TreeMap<FullVersion, Iterable<JarJDKToolsLibrary>>();
     
-    collectValidResults(model, jars, results, compoundResults);
+    collectValidResults(model, jars, results, compoundResults, cache);
     
     // We store everything in reverse order, since that's the natural order of the versions
     Iterable<JarJDKToolsLibrary> collapsed = IterUtil.reverse(IterUtil.collapse(results.values()));  // Are versions in results subsequently ignored?
@@ -0,0 +1,153 @@
+/*BEGIN_COPYRIGHT_BLOCK
+ *
+ * Copyright (c) 2001-2019, JavaPLT group at Rice University (drjava@rice.edu).  All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the 
+ * following conditions are met:
+ *    * Redistributions of source code must retain the above copyright notice, this list of conditions and the following
+ *      disclaimer.
+ *    * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the 
+ *      following disclaimer in the documentation and/or other materials provided with the distribution.
+ *    * Neither the names of DrJava, the JavaPLT group, Rice University, nor the names of its contributors may be used 
+ *      to endorse or promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, 
+ * INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, 
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR 
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, 
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This software is Open Source Initiative approved Open Source Software. Open Source Initative Approved is a trademark
+ * of the Open Source Initiative.
+ * 
+ * This file is part of DrJava.  Download the current version of this project from http://www.drjava.org/ or 
+ * http://sourceforge.net/projects/drjava/
+ * 
+ * END_COPYRIGHT_BLOCK*/
+package edu.rice.cs.drjava.model;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/** A bounded cache of reduced model query results used by AbstractDJDocument.  Each answer is stored together with the
+  * offset of the right edge of the text on which it depends, and the entries are indexed by that offset in a sorted 
+  * map of buckets.  When the document changes at offset x, all entries with offset {@literal >=} x are dropped from
+  * the tail of the index.  When the cache is full, the least recently used entry is evicted.  Storing, evicting, and
+  * dropping an entry all take logarithmic time.
+  * 
+  * Every change to the cache's contents advances a stamp.  An answer is only stored if the stamp has not advanced
+  * since the caller obtained it (before computing the answer), so an answer computed while the document was changing,
+  * for example outside the event thread, is never recorded.  Hit and miss counters are maintained for diagnostic
+  * purposes.  All methods are synchronized.
+  * @version $Id$
+  */
+class QueryCache {
+  
+  /** A cached answer; answers with the same offset are chained through _prev and _next. */
+  private static final class Answer {
+    private final Query _query;
+    private final Object _answer;
+    private final int _offset;
+    private Answer _prev;
+    private Answer _next;
+    Answer(Query query, Object answer, int offset) {
+      _query = query;
+      _answer = answer;
+      _offset = offset;
+    }
+  }
+  
+  private final int _capacity;
+  
+  /** The entries in access order, so that the eldest entry is the least recently used one. */
+  private final LinkedHashMap<Query, Answer> _entries;
+  
+  /** The offset index: maps each offset to the first entry of its chain. */
+  private final TreeMap<Integer, Answer> _buckets = new TreeMap<Integer, Answer>();
+  
+  private long _stamp = 0;
+  private long _hits = 0;
+  private long _misses = 0;
+  
+  /** @param capacity the maximum number of entries retained */
+  QueryCache(int capacity) {
+    _capacity = capacity;
+    _entries = new LinkedHashMap<Query, Answer>(capacity * 4 / 3 + 1, 0.75f, true) {
+      protected boolean removeEldestEntry(Map.Entry<Query, Answer> eldest) {
+        if (size() <= _capacity) return false;
+        _unlink(eldest.getValue());
+        return true;
+      }
+    };
+  }
+  
+  /** @param query the query to look up
+    * @return the cached answer to query, or null if there is none
+    */
+  public synchronized Object get(Query query) {
+    Answer e = _entries.get(query);
+    if (e == null) { _misses++; return null; }
+    _hits++;
+    return e._answer;
+  }
+  
+  /** @return the current stamp, to be passed to put along with an answer computed after this call */
+  public synchronized long stamp() { return _stamp; }
+  
+  /** Stores the answer to a query, unless the cache has been cleared since stamp was obtained.
+    * @param query the query
+    * @param answer the answer to the query
+    * @param offset the offset bounding the right edge of the text on which the answer depends
+    * @param stamp the value of stamp() before the answer was computed
+    */
+  public synchronized void put(Query query, Object answer, int offset, long stamp) {
+    if (stamp != _stamp) return;
+    Answer old = _entries.remove(query);
+    if (old != null) _unlink(old);
+    Answer e = new Answer(query, answer, offset);
+    e._next = _buckets.put(offset, e);
+    if (e._next != null) e._next._prev = e;
+    _entries.put(query, e);
+  }
+  
+  /** Removes all entries whose offset is {@literal >=} the given offset.
+    * @param offset the offset of a change to the document
+    */
+  public synchronized void clearFrom(int offset) {
+    _stamp++;
+    SortedMap<Integer, Answer> tail = _buckets.tailMap(offset);
+    for (Iterator<Answer> i = tail.values().iterator(); i.hasNext(); ) {
+      for (Answer e = i.next(); e != null; e = e._next) _entries.remove(e._query);
+      i.remove();
+    }
+  }
+  
+  /** Removes all entries. */
+  public synchronized void clear() {
+    _stamp++;
+    _entries.clear();
+    _buckets.clear();
+  }
+  
+  /** @return the number of entries in the cache */
+  public synchronized int size() { return _entries.size(); }
+  
+  /** @return the number of calls to get that found an answer */
+  public synchronized long getHits() { return _hits; }
+  
+  /** @return the number of calls to get that found no answer */
+  public synchronized long getMisses() { return _misses; }
+  
+  /** Removes e from the chain of its offset, dropping the bucket if it becomes empty. */
+  private void _unlink(Answer e) {
+    if (e._prev != null) e._prev._next = e._next;
+    else if (e._next != null) _buckets.put(e._offset, e._next);
+    else _buckets.remove(e._offset);
+    if (e._next != null) e._next._prev = e._prev;
+  }
+}
@@ -0,0 +1,130 @@
+/*BEGIN_COPYRIGHT_BLOCK
+ *
+ * Copyright (c) 2001-2019, JavaPLT group at Rice University (drjava@rice.edu).  All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the 
+ * following conditions are met:
+ *    * Redistributions of source code must retain the above copyright notice, this list of conditions and the following
+ *      disclaimer.
+ *    * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the 
+ *      following disclaimer in the documentation and/or other materials provided with the distribution.
+ *    * Neither the names of DrJava, the JavaPLT group, Rice University, nor the names of its contributors may be used 
+ *      to endorse or promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, 
+ * INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, 
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR 
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, 
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This software is Open Source Initiative approved Open Source Software. Open Source Initative Approved is a trademark
+ * of the Open Source Initiative.
+ * 
+ * This file is part of DrJava.  Download the current version of this project from http://www.drjava.org/ or 
+ * http://sourceforge.net/projects/drjava/
+ * 
+ * END_COPYRIGHT_BLOCK*/
+package edu.rice.cs.drjava.model;
+
+import edu.rice.cs.drjava.DrJavaTestCase;
+
+/** Tests for QueryCache.
+  * @version $Id$
+  */
+public class QueryCacheTest extends DrJavaTestCase {
+  
+  /** Tests that stored answers are returned and that hits and misses are counted. */
+  public void testGetAndPut() {
+    QueryCache cache = new QueryCache(100);
+    assertNull(cache.get(new Query.LineStartPos(5)));
+    cache.put(new Query.LineStartPos(5), 3, 4, cache.stamp());
+    assertEquals(3, cache.get(new Query.LineStartPos(5)));
+    assertNull("Different query class", cache.get(new Query.LineEndPos(5)));
+    assertEquals("hits", 1, cache.getHits());
+    assertEquals("misses", 2, cache.getMisses());
+  }
+  
+  /** Tests that clearFrom removes exactly the entries whose offsets are at or after the given offset. */
+  public void testClearFrom() {
+    QueryCache cache = new QueryCache(100);
+    for (int i = 0; i < 20; i++) cache.put(new Query.LineStartPos(i), i, i, cache.stamp());
+    cache.put(new Query.LineEndPos(3), -1, Integer.MAX_VALUE, cache.stamp());
+    assertEquals(21, cache.size());
+    cache.clearFrom(10);
+    assertEquals(10, cache.size());
+    assertEquals(9, cache.get(new Query.LineStartPos(9)));
+    assertNull(cache.get(new Query.LineStartPos(10)));
+    assertNull("MAX_VALUE offset is always cleared", cache.get(new Query.LineEndPos(3)));
+    cache.put(new Query.LineStartPos(15), 15, 15, cache.stamp());
+    assertEquals(15, cache.get(new Query.LineStartPos(15)));
+    cache.clearFrom(0);
+    assertEquals(0, cache.size());
+  }
+  
+  /** Tests that entries stored out of offset order are indexed correctly. */
+  public void testUnorderedOffsets() {
+    QueryCache cache = new QueryCache(10000);
+    for (int i = 0; i < 1000; i++) cache.put(new Query.LineStartPos(i), i, (i * 7919) % 1000, cache.stamp());
+    cache.clearFrom(500);
+    for (int i = 0; i < 1000; i++) {
+      Object answer = cache.get(new Query.LineStartPos(i));
+      if ((i * 7919) % 1000 < 500) assertEquals(i, answer);
+      else assertNull(answer);
+    }
+  }
+  
+  /** Tests that a full cache evicts the least recently used entries. */
+  public void testEviction() {
+    QueryCache cache = new QueryCache(50);
+    for (int i = 0; i < 1000; i++) cache.put(new Query.LineStartPos(i), i, i, cache.stamp());
+    assertEquals(50, cache.size());
+    assertNull(cache.get(new Query.LineStartPos(0)));
+    assertEquals(999, cache.get(new Query.LineStartPos(999)));
+    assertEquals(950, cache.get(new Query.LineStartPos(950)));
+  }
+  
+  /** Tests that replacing the answer to a query does not let the old entry evict the new one. */
+  public void testReplace() {
+    QueryCache cache = new QueryCache(100);
+    cache.put(new Query.LineStartPos(5), 1, 10, cache.stamp());
+    cache.put(new Query.LineStartPos(5), 2, 2, cache.stamp());
+    cache.clearFrom(5);
+    assertEquals(2, cache.get(new Query.LineStartPos(5)));
+    assertEquals(1, cache.size());
+  }
+  
+  /** Tests that looking up an entry keeps it from being evicted, and that evicted entries leave the offset index. */
+  public void testLeastRecentlyUsed() {
+    QueryCache cache = new QueryCache(3);
+    cache.put(new Query.LineStartPos(1), 1, 1, cache.stamp());
+    cache.put(new Query.LineStartPos(2), 2, 1, cache.stamp());
+    cache.put(new Query.LineStartPos(3), 3, 3, cache.stamp());
+    assertEquals(1, cache.get(new Query.LineStartPos(1)));
+    cache.put(new Query.LineStartPos(4), 4, 4, cache.stamp());
+    assertEquals(3, cache.size());
+    assertEquals(1, cache.get(new Query.LineStartPos(1)));
+    assertNull("least recently used", cache.get(new Query.LineStartPos(2)));
+    cache.clearFrom(2);
+    assertEquals(1, cache.size());
+    assertEquals(1, cache.get(new Query.LineStartPos(1)));
+    cache.clearFrom(1);
+    assertEquals(0, cache.size());
+  }
+  
+  /** Tests that an answer computed before the cache was cleared is not stored. */
+  public void testStaleStamp() {
+    QueryCache cache = new QueryCache(100);
+    long stamp = cache.stamp();
+    cache.clearFrom(50);
+    cache.put(new Query.LineStartPos(5), 5, 5, stamp);
+    assertNull(cache.get(new Query.LineStartPos(5)));
+    stamp = cache.stamp();
+    cache.put(new Query.LineStartPos(5), 5, 5, stamp);
+    assertEquals(5, cache.get(new Query.LineStartPos(5)));
+    cache.clear();
+    cache.put(new Query.LineStartPos(6), 6, 6, stamp);
+    assertEquals(0, cache.size());
+  }
+}
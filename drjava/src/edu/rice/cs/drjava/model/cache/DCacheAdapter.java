@@ -52,6 +52,10 @@ public interface DCacheAdapter {
   
   public int getLength();
   
+  /** @return the number of lines of this document, as OpenDefinitionsDocument.getNumberOfLines; does not load the
+    *         document if it is not resident */
+  public int getNumberOfLines();
+  
   /** @return the entire text of this document. */
   public String getText();
   
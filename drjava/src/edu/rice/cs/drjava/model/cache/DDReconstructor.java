@@ -59,4 +59,10 @@ public interface DDReconstructor {
   
   /** @return the string text for document that has been kicked out; null otherwise. */
   public String getText();
+  
+  /** @return the length of the text returned by getText(), without decompressing it */
+  public int getLength();
+  
+  /** @return the number of lines of the text returned by getText(), without decompressing it */
+  public int getNumberOfLines();
 }
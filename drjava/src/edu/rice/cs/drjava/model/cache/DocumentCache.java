@@ -32,6 +32,7 @@ import javax.swing.event.DocumentListener;
 import javax.swing.text.BadLocationException;
 import java.util.*;
 import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
 
 import edu.rice.cs.drjava.model.definitions.DefinitionsDocument;
 import edu.rice.cs.drjava.model.OpenDefinitionsDocument;
@@ -63,6 +64,13 @@ import edu.rice.cs.plt.iter.IterUtil;
   * UNMANAGED document remains in memory until it is saved or closed without being saved.  If such a document is
   * saved, it is inserted again in the resident queue.
   * <p>
+  * Besides the number of documents, the cache bounds the estimated memory used by the resident queue (see weigh()).
+  * When either bound is exceeded, documents are virtualized in approximately least recently used order: a document
+  * that has been fetched since it was last considered goes to the end of the queue once (the "second chance"
+  * policy), which keeps fetching a resident document free of locks.  A virtualized document keeps its text as a 
+  * compressed DocumentImage in its reconstructor, so its length, text, and number of lines can be queried without
+  * reconstructing it.
+  * <p>
   * Since the cache and document managers can both be concurrently accessed from multiple threads, the methods in the
   * DocumentCache and DocManager classes are synchronized.  Some operations require locks on both the cache and a
   * document manager, but the code is written so that none of them require these locks to be held simultaneously.
@@ -73,11 +81,31 @@ public class DocumentCache {
   /** Log file. */
   private static final Log _log = new Log("DocumentCache.txt", false);
   
-  private static final int INIT_CACHE_SIZE = 32;
+  private static final int INIT_CACHE_SIZE = 256;
+  
+  /** The default bound on the estimated memory used by the resident queue: an eighth of the heap, but at least 16 MB. */
+  private static final long INIT_BYTE_BUDGET = Math.max(16L << 20, Runtime.getRuntime().maxMemory() / 8);
+  
+  /** Estimated memory used by a resident document per character: the char in its GapContent. */
+  static final int BYTES_PER_CHAR = 2;
+  /** Estimated memory used by a resident document per line: a LeafElement, its two Positions, and their marks. */
+  static final int BYTES_PER_LINE = 120;
+  /** Estimated memory used by a resident document per token of its reduced model. */
+  static final int BYTES_PER_TOKEN = 48;
   
   /** invariant {@code _residentQueue.size() <= CACHE_SIZE} */
   private volatile int CACHE_SIZE;
   
+  /** invariant {@code _residentBytes <= _byteBudget || _residentQueue.size() <= 1} */
+  private volatile long _byteBudget;
+  
+  /** The sum of the weights of the documents in _residentQueue. */
+  private volatile long _residentBytes = 0;
+  
+  /** The number of times a document was fetched while resident, and while it had to be reconstructed. */
+  private final AtomicLong _hits = new AtomicLong(0);
+  private final AtomicLong _misses = new AtomicLong(0);
+  
   /** Data structure representing the queue of resident unmodified documents. */
   private final LinkedHashSet<DocManager> _residentQueue;
   
@@ -87,6 +115,7 @@ public class DocumentCache {
   public DocumentCache(int size) {
 //    Utilities.showDebug("DocumentCache created with size = " + size);
     CACHE_SIZE = size;
+    _byteBudget = INIT_BYTE_BUDGET;
     _residentQueue = new LinkedHashSet<DocManager>();
   }
   
@@ -119,7 +148,7 @@ public class DocumentCache {
       int diff = _residentQueue.size() - CACHE_SIZE;
       if (diff > 0) {
         Iterable<DocManager> toRemove = IterUtil.snapshot(IterUtil.truncate(_residentQueue, diff));
-        for (DocManager dm : toRemove) { _residentQueue.remove(dm); dm.kickOut(); }
+        for (DocManager dm : toRemove) { _dequeue(dm); dm.kickOut(); }
       }
     }
   }
@@ -127,6 +156,73 @@ public class DocumentCache {
   public int getCacheSize() { return CACHE_SIZE; }
   public int getNumInCache() { return _residentQueue.size(); }
   
+  /** Changes the bound on the estimated memory used by the unmodified documents in the cache.  A single document
+    * stays resident even if it exceeds the bound.
+    * @param bytes the new bound, in bytes
+    */
+  public void setByteBudget(long bytes) {
+    if (bytes <= 0) throw new IllegalArgumentException("Cannot set the byte budget to zero or less.");
+    synchronized(_cacheLock) {
+      _byteBudget = bytes;
+      _evict(null);
+    }
+  }
+  
+  public long getByteBudget() { return _byteBudget; }
+  
+  /** @return the estimated memory used by the unmodified documents in the cache, in bytes */
+  public long getResidentBytes() { return _residentBytes; }
+  
+  /** @return the number of times a document was fetched while it was resident */
+  public long getHits() { return _hits.get(); }
+  
+  /** @return the number of times a document had to be reconstructed when it was fetched */
+  public long getMisses() { return _misses.get(); }
+  
+  /** @return the fraction of document fetches that found the document resident, or 1 if there were none */
+  public double getHitRate() {
+    long hits = _hits.get();
+    long total = hits + _misses.get();
+    return (total == 0) ? 1.0 : (double) hits / total;
+  }
+  
+  /** Estimates the memory used by a resident document.
+    * @param length the number of characters of the document
+    * @param lines the number of lines of the document
+    * @param tokens the number of tokens of the reduced model of the document
+    * @return the estimated number of bytes
+    */
+  static long weigh(int length, int lines, int tokens) {
+    return (long) BYTES_PER_CHAR * length + (long) BYTES_PER_LINE * lines + (long) BYTES_PER_TOKEN * tokens;
+  }
+  
+  /** Removes a manager from the resident queue, if it is there.  Assumes _cacheLock is already held. */
+  private void _dequeue(DocManager dm) {
+    if (_residentQueue.remove(dm)) _residentBytes -= dm._weight;
+  }
+  
+  /** Virtualizes documents until the resident queue is within its bounds.  Assumes _cacheLock is already held.
+    * @param keep a manager that must stay resident, or null
+    */
+  private void _evict(DocManager keep) {
+    while (_residentQueue.size() > CACHE_SIZE || (_residentBytes > _byteBudget && _residentQueue.size() > 1)) {
+      DocManager victim = null;
+      // give each document fetched since it was last considered a second chance, at most once per pass
+      for (int i = _residentQueue.size(); i > 0; i--) {
+        DocManager dm = IterUtil.first(_residentQueue);
+        if (dm != keep && ! dm._used) { victim = dm; break; }
+        dm._used = false;
+        _residentQueue.remove(dm);
+        _residentQueue.add(dm);
+      }
+      if (victim == null) {
+        for (DocManager dm : _residentQueue) { if (dm != keep) { victim = dm; break; } }
+        if (victim == null) return;
+      }
+      victim.remove();
+    }
+  }
+  
   public String toString() { return _residentQueue.toString(); }
   
   
@@ -155,6 +251,11 @@ public class DocumentCache {
     private volatile int _stat; // I know, this is not very OO
     private volatile DefinitionsDocument _doc;
     
+    /** The estimated memory used by the document when it was entered in the resident queue; guarded by _cacheLock. */
+    private long _weight = 0;
+    /** Whether the document was fetched since the cache last considered virtualizing it. */
+    private volatile boolean _used = true;
+    
     /** Instantiates a manager for the documents that are produced by the given document reconstructor.
      * @param rec The reconstructor used to create the document
      * @param isUntitled true if the document is untitled; false otherwise
@@ -201,22 +302,31 @@ public class DocumentCache {
 //      Utilities.showDebug("getDocument called on " + this + " with _stat = " + _stat);
       
 //      The following double-check idiom is safe in Java 1.4 and later JVMs provided that _doc is volatile.
+      _used = true;
       final DefinitionsDocument doc = _doc;  // create a snapshot of _doc
-      if (doc != null) return doc;  
+      if (doc != null) { _hits.incrementAndGet(); return doc; }
       synchronized(_cacheLock) { // lock the cache so that this DocManager's state can be updated
-        if (_doc != null) return _doc;  // _doc may have changed since test outside of _cacheLock
+        if (_doc != null) { _hits.incrementAndGet(); return _doc; }  // _doc may have changed since test above
+        _misses.incrementAndGet();
         return makeDocument();
       }
     }
     
-    /** Gets the length of this document using (i) cached _doc or (ii) reconstructor (which may force the document
-      * to be loaded. */
+    /** Gets the length of this document using (i) cached _doc or (ii) reconstructor (which does not force the 
+      * document to be loaded). */
     public int getLength() {
       final DefinitionsDocument doc = _doc;  // create a snapshot of _doc
-      if (doc == null /* || ! doc.isModifiedSinceSave()*/) return _rec.getText().length();
+      if (doc == null /* || ! doc.isModifiedSinceSave()*/) return _rec.getLength();
       return doc.getLength();
     }
     
+    /** Gets the number of lines of this document, like getLength. */
+    public int getNumberOfLines() {
+      final DefinitionsDocument doc = _doc;  // create a snapshot of _doc
+      if (doc == null) return _rec.getNumberOfLines();
+      return doc.getDefaultRootElement().getElementIndex(doc.getLength());
+    }
+    
     /** Gets the text of this document using the cached reconstructor if document is not resident or it is unchanged.
       * If document is not locked, may return stale data. */
     public String getText() {
@@ -246,14 +356,14 @@ public class DocumentCache {
     public void close() {
 //      Utilities.showDebug("close() called on " + this);
       synchronized(_cacheLock) {
-        _residentQueue.remove(this);
+        _dequeue(this);
         closingKickOut();
       }
     }
     
     public void documentModified() {
       synchronized(_cacheLock) { 
-        _residentQueue.remove(this); // remove modified document from queue if present
+        _dequeue(this); // remove modified document from queue if present
         _stat = UNMANAGED;
       }
     }
@@ -280,15 +390,25 @@ public class DocumentCache {
 //      Utilities.showDebug("add " + this + " to the QUEUE\n" + "QUEUE = " + _residentQueue);
 //      System.err.println("adding " + this + " to the QUEUE\n" + "QUEUE = " + _residentQueue);
       if (! _residentQueue.contains(this)) {
+        _weight = weigh();
         _residentQueue.add(this);
+        _residentBytes += _weight;
         _stat = IN_QUEUE;
       }
-      if (_residentQueue.size() > CACHE_SIZE) IterUtil.first(_residentQueue).remove();
+      _evict(this);
+    }
+    
+    /** @return the estimated memory used by the document, or 0 if it is not resident */
+    private long weigh() {
+      final DefinitionsDocument doc = _doc;
+      if (doc == null) return 0;
+      return DocumentCache.weigh(doc.getLength(), doc.getDefaultRootElement().getElementCount(), 
+                                 doc.getReduced().getTokenCount());
     }
     
     /** Removes this DocManager from the queue and sets status to NOT_IN_QUEUE.  Assumes _cacheLock is already held. */
     private void remove() { 
-      _residentQueue.remove(this);
+      _dequeue(this);
       kickOut();
     }
     
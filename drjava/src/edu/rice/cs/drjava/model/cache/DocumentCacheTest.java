@@ -357,6 +357,48 @@ public class DocumentCacheTest extends DrJavaTestCase {
     assertFalse("The document 1 should still be out of the cache", _adapterTable.get(doc1).isReady());
   }
   
+  public void testByteBudget() throws BadLocationException, IOException {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 10; i++) sb.append("class C").append(i).append(" { int x = ").append(i).append("; }\n");
+    String text = sb.toString();
+    File file1 = tempFile(1);
+    File file2 = tempFile(2);
+    File file3 = tempFile(3);
+    IOUtil.writeStringToFile(file1, text);
+    IOUtil.writeStringToFile(file2, text);
+    IOUtil.writeStringToFile(file3, text);
+    
+    OpenDefinitionsDocument doc1 = openFile(file1);
+    doc1.getCurrentLine();  // forces document to be read into memory
+    long bytes = _cache.getResidentBytes();
+    assertTrue("A resident document has a weight", bytes >= DocumentCache.weigh(text.length(), 10, 0));
+    
+    _cache.setByteBudget(bytes * 5 / 2);  // room for two documents of the same text
+    OpenDefinitionsDocument doc2 = openFile(file2);
+    doc2.getCurrentLine();
+    OpenDefinitionsDocument doc3 = openFile(file3);
+    doc3.getCurrentLine();
+    assertEquals("There should be 2 documents in the cache", 2, _cache.getNumInCache());
+    assertEquals("Wrong resident bytes", 2 * bytes, _cache.getResidentBytes());
+    assertFalse("Document 1 should have been kicked out", _adapterTable.get(doc1).isReady());
+    
+    // cheap queries do not reconstruct a virtualized document
+    assertEquals("Wrong length", text.length(), doc1.getLength());
+    assertEquals("Wrong number of lines", 10, doc1.getNumberOfLines());
+    assertEquals("Wrong text", text, doc1.getText());
+    assertEquals("Wrong substring", "class C1", doc1.getText(text.indexOf("class C1"), 8));
+    assertFalse("Document 1 should still be out of the cache", _adapterTable.get(doc1).isReady());
+    
+    long hits = _cache.getHits();
+    long misses = _cache.getMisses();
+    doc1.getCurrentLine();
+    assertEquals("Reconstruction is a miss", misses + 1, _cache.getMisses());
+    doc1.getCurrentLine();
+    assertTrue("A resident document is a hit", _cache.getHits() > hits);
+    assertEquals("There should be 2 documents in the cache", 2, _cache.getNumInCache());
+    assertTrue("Hit rate is a fraction", _cache.getHitRate() > 0 && _cache.getHitRate() <= 1);
+  }
+  
   public void testGetDDocFromCache() throws BadLocationException, IOException, OperationCanceledException {
     File file1 = tempFile(1);
     File file2 = tempFile(2);
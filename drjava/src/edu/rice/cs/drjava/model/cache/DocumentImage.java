@@ -0,0 +1,135 @@
+/*BEGIN_COPYRIGHT_BLOCK
+ *
+ * Copyright (c) 2001-2010, JavaPLT group at Rice University (drjava@rice.edu)
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    * Redistributions of source code must retain the above copyright
+ *      notice, this list of conditions and the following disclaimer.
+ *    * Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in the
+ *      documentation and/or other materials provided with the distribution.
+ *    * Neither the names of DrJava, the JavaPLT group, Rice University, nor the
+ *      names of its contributors may be used to endorse or promote products
+ *      derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This software is Open Source Initiative approved Open Source Software.
+ * Open Source Initative Approved is a trademark of the Open Source Initiative.
+ * 
+ * This file is part of DrJava.  Download the current version of this project
+ * from http://www.drjava.org/ or http://sourceforge.net/projects/drjava/
+ * 
+ * END_COPYRIGHT_BLOCK*/
+
+package edu.rice.cs.drjava.model.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.SoftReference;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import edu.rice.cs.util.UnexpectedException;
+
+/** The text of a document that is not resident in the DocumentCache, kept compressed.  The length and the number
+  * of lines of the text are kept uncompressed, so that they can be queried without decompressing the text or
+  * reconstructing the document.  The text is compressed losslessly, character by character, so any string, even
+  * one that is not valid UTF-16, is restored exactly.  The last decompressed text is kept through a soft reference,
+  * so that repeated queries of the same image do not decompress it again unless memory is short.  Immutable.
+  * @version $Id$
+  */
+public final class DocumentImage {
+  
+  /** The number of characters compressed at a time. */
+  private static final int CHUNK = 4096;
+  
+  private final byte[] _compressed;
+  private final int _length;
+  private final int _newlines;
+  private volatile SoftReference<String> _text;
+  
+  /** Creates the image of the given text.
+    * @param text the text of the document, with lines separated by '\n' as in a Swing document
+    */
+  public DocumentImage(String text) {
+    _length = text.length();
+    int newlines = 0;
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(_length / 4 + 16);
+    Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    try {
+      DeflaterOutputStream out = new DeflaterOutputStream(bytes, deflater);
+      byte[] buffer = new byte[2 * CHUNK];
+      for (int start = 0; start < _length; start += CHUNK) {
+        int end = Math.min(_length, start + CHUNK);
+        int j = 0;
+        for (int i = start; i < end; i++) {
+          char c = text.charAt(i);
+          if (c == '\n') newlines++;
+          buffer[j++] = (byte) (c >> 8);
+          buffer[j++] = (byte) c;
+        }
+        out.write(buffer, 0, j);
+      }
+      out.close();
+    }
+    catch (IOException e) { throw new UnexpectedException(e); }  // a ByteArrayOutputStream does not throw
+    finally { deflater.end(); }
+    _compressed = bytes.toByteArray();
+    _newlines = newlines;
+    _text = new SoftReference<String>(null);  // the text itself is not kept; saving its memory is the point
+  }
+  
+  /** @return the text of this image, decompressed unless it was decompressed recently */
+  public String getText() {
+    String text = _text.get();
+    if (text != null) return text;
+    char[] chars = new char[_length];
+    try {
+      InputStream in = new InflaterInputStream(new ByteArrayInputStream(_compressed));
+      byte[] buffer = new byte[2 * CHUNK];
+      int i = 0;
+      int pending = -1;  // the high byte of a character whose low byte has not been read yet
+      int n;
+      while ((n = in.read(buffer)) > 0) {
+        for (int j = 0; j < n; j++) {
+          int b = buffer[j] & 0xff;
+          if (pending < 0) pending = b;
+          else { chars[i++] = (char) ((pending << 8) | b); pending = -1; }
+        }
+      }
+      in.close();
+      if (i != _length) throw new IOException("Image of " + _length + " characters decompressed to " + i);
+    }
+    catch (IOException e) { throw new UnexpectedException(e); }
+    text = new String(chars);
+    _text = new SoftReference<String>(text);
+    return text;
+  }
+  
+  /** @return the length of the text */
+  public int getLength() { return _length; }
+  
+  /** @return the number of lines of the text, counted as in OpenDefinitionsDocument.getNumberOfLines: the number
+    *         of newlines, which is the index of the last line
+    */
+  public int getNumberOfLines() { return _newlines; }
+  
+  /** @return the number of bytes of the compressed text */
+  public int getCompressedSize() { return _compressed.length; }
+}
@@ -0,0 +1,370 @@
+/*BEGIN_COPYRIGHT_BLOCK
+ *
+ * Copyright (c) 2001-2019, JavaPLT group at Rice University (drjava@rice.edu).  All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the 
+ * following conditions are met:
+ *    * Redistributions of source code must retain the above copyright notice, this list of conditions and the following
+ *      disclaimer.
+ *    * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the 
+ *      following disclaimer in the documentation and/or other materials provided with the distribution.
+ *    * Neither the names of DrJava, the JavaPLT group, Rice University, nor the names of its contributors may be used 
+ *      to endorse or promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, 
+ * INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, 
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR 
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, 
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This software is Open Source Initiative approved Open Source Software. Open Source Initative Approved is a trademark
+ * of the Open Source Initiative.
+ * 
+ * This file is part of DrJava.  Download the current version of this project from http://www.drjava.org/ or 
+ * http://sourceforge.net/projects/drjava/
+ * 
+ * END_COPYRIGHT_BLOCK*/
+package edu.rice.cs.drjava.model.compiler;
+
+import java.io.*;
+import java.util.*;
+
+import org.objectweb.asm.*;
+import org.objectweb.asm.signature.SignatureReader;
+import org.objectweb.asm.signature.SignatureVisitor;
+
+import edu.rice.cs.plt.io.IOUtil;
+
+/** A source-to-class dependency graph used by the incremental compile mode of {@link DefaultCompilerModel}.  For every
+  * source file that has been compiled, the graph records the time stamp the source had when it was compiled, the 
+  * class files that were emitted for it, and the names of all classes referenced from those class files (read from 
+  * the constant pool, descriptors, and generic signatures with ASM).  From this, the set of sources that must be 
+  * recompiled after an edit is the set of changed sources plus everything that transitively depends on them.
+  * <p>Compile-time constants are inlined by javac and leave no trace in the constant pool of the classes that use 
+  * them, so a changed source that exports such a constant cannot be handled incrementally; 
+  * {@link #filesToRecompile} then asks for a full build.</p>
+  * <p>The graph is not thread safe; DefaultCompilerModel only touches it while holding the compiler lock.</p>
+  * @version $Id$
+  */
+class ClassDependencyGraph {
+  
+  /** Name of the file in the build directory holding the persistent graph. */
+  static final String FILE_NAME = ".drjava-deps";
+  
+  /** First line of a persistent graph; bump the version whenever the format changes. */
+  private static final String HEADER = "DrJava class dependency graph 1";
+  
+  /** Time stamp used for sources whose last compilation failed, forcing them to be recompiled. */
+  private static final long DIRTY = -1L;
+  
+  /** Slack (in milliseconds) allowed for file systems with coarse time stamps when looking for new class files. */
+  private static final long TIME_STAMP_SLACK = 2000L;
+  
+  /** What we know about a single compiled source file. */
+  private static class SourceRecord {
+    long lastModified;
+    boolean exportsConstants = false;
+    /** Internal name of each class compiled from this source, mapped to its class file. */
+    final Map<String, File> classes = new HashMap<String, File>();
+    /** Internal names of all classes referenced by the classes of this source. */
+    final Set<String> references = new HashSet<String>();
+    SourceRecord(long lastModified) { this.lastModified = lastModified; }
+  }
+  
+  /** Describes the compiler and paths the graph was built with; a graph for a different configuration is stale. */
+  private final String _configuration;
+  
+  /** The recorded sources, keyed by canonical file. */
+  private final Map<File, SourceRecord> _sources = new HashMap<File, SourceRecord>();
+  
+  /** Creates an empty graph.
+    * @param configuration the compiler configuration the graph describes
+    */
+  ClassDependencyGraph(String configuration) { _configuration = configuration; }
+  
+  /** @return the compiler configuration this graph was built with */
+  String getConfiguration() { return _configuration; }
+  
+  /** @return the number of source files recorded in this graph */
+  int size() { return _sources.size(); }
+  
+  /** Determines which of the given files have to be recompiled.  A file has to be recompiled if it is not recorded in 
+    * the graph, if it was modified since it was recorded, if its last compilation failed, if one of its class files 
+    * has disappeared, or if it depends (transitively) on a file that has to be recompiled.  Files outside of 
+    * {@code files} are never returned.
+    * @param files the files the user asked to compile
+    * @return the files to recompile, or {@code null} if a full build is required
+    */
+  Set<File> filesToRecompile(Collection<File> files) {
+    Set<File> requested = new HashSet<File>();
+    for (File f : files) requested.add(IOUtil.attemptCanonicalFile(f));
+    
+    LinkedList<File> worklist = new LinkedList<File>();
+    for (File f : requested) {
+      SourceRecord r = _sources.get(f);
+      if (r == null || r.lastModified == DIRTY || r.lastModified != f.lastModified() || ! _classFilesExist(r)) {
+        if (r != null && r.exportsConstants) return null;
+        worklist.add(f);
+      }
+    }
+    if (worklist.isEmpty()) return new HashSet<File>();
+    
+    // Invert the graph: for each source, the requested sources that reference one of its classes.
+    Map<String, File> classToSource = new HashMap<String, File>();
+    for (Map.Entry<File, SourceRecord> e : _sources.entrySet()) {
+      for (String c : e.getValue().classes.keySet()) classToSource.put(c, e.getKey());
+    }
+    Map<File, Set<File>> dependents = new HashMap<File, Set<File>>();
+    for (File f : requested) {
+      SourceRecord r = _sources.get(f);
+      if (r == null) continue;
+      for (String ref : r.references) {
+        File target = classToSource.get(ref);
+        if (target == null || target.equals(f)) continue;
+        Set<File> s = dependents.get(target);
+        if (s == null) { s = new HashSet<File>(); dependents.put(target, s); }
+        s.add(f);
+      }
+    }
+    
+    Set<File> result = new HashSet<File>(worklist);
+    while (! worklist.isEmpty()) {
+      Set<File> s = dependents.get(worklist.removeFirst());
+      if (s == null) continue;
+      for (File d : s) { if (result.add(d)) worklist.add(d); }
+    }
+    return result;
+  }
+  
+  /** Marks the given files as needing recompilation, typically because their compilation failed.
+    * @param files the files to mark
+    */
+  void markDirty(Collection<File> files) {
+    for (File f : files) {
+      f = IOUtil.attemptCanonicalFile(f);
+      SourceRecord r = _sources.get(f);
+      if (r == null) _sources.put(f, new SourceRecord(DIRTY));
+      else r.lastModified = DIRTY;
+    }
+  }
+  
+  /** Records the results of a successful compilation.  The class files written since {@code since} are located in 
+    * the package directories of the compiled sources, matched to the sources by package and SourceFile attribute, and 
+    * parsed.  Only those directories are listed, so the cost depends on the compiled sources, not on the size of the
+    * build directory.
+    * @param compiled the source files that were compiled
+    * @param buildDir the canonical build directory, or null if the class files were written next to the sources
+    * @param since the time the compilation started
+    */
+  void update(Collection<File> compiled, File buildDir, long since) {
+    // Index the compiled sources by simple file name
+    Map<String, List<File>> byName = new HashMap<String, List<File>>();
+    Map<File, SourceRecord> records = new HashMap<File, SourceRecord>();
+    Set<File> sourceDirs = new LinkedHashSet<File>();
+    for (File f : compiled) {
+      f = IOUtil.attemptCanonicalFile(f);
+      List<File> l = byName.get(f.getName());
+      if (l == null) { l = new LinkedList<File>(); byName.put(f.getName(), l); }
+      l.add(f);
+      records.put(f, new SourceRecord(f.lastModified()));
+      sourceDirs.add(f.getParentFile());
+    }
+    
+    // The package of a source is not known, so every trailing part of its directory is a candidate package directory
+    // in buildDir; _findSource only accepts classes whose package matches the source's directory.
+    Set<File> classDirs = new LinkedHashSet<File>();
+    for (File dir : sourceDirs) {
+      if (buildDir == null) { classDirs.add(dir); continue; }
+      String pkgPath = "";
+      for (File d = dir; d != null && d.getName().length() > 0; d = d.getParentFile()) {
+        File candidate = (pkgPath.length() == 0) ? buildDir : new File(buildDir, pkgPath);
+        if (! classDirs.contains(candidate) && candidate.isDirectory()) classDirs.add(candidate);
+        pkgPath = (pkgPath.length() == 0) ? d.getName() : d.getName() + File.separator + pkgPath;
+      }
+    }
+    
+    for (File dir : classDirs) _scan(dir, since - TIME_STAMP_SLACK, byName, records);
+    
+    _sources.putAll(records);
+  }
+  
+  /** Parses the class files directly in dir that are newer than since and adds them to records. */
+  private void _scan(File dir, long since, Map<String, List<File>> byName, Map<File, SourceRecord> records) {
+    File[] listing = dir.listFiles();
+    if (listing == null) return;
+    for (File f : listing) {
+      if (f.getName().endsWith(".class") && f.isFile() && f.lastModified() >= since) {
+        try {
+          ClassInfo info = ClassInfo.read(IOUtil.toByteArray(f));
+          if (info.sourceFile == null) continue;
+          File source = _findSource(info, byName);
+          if (source == null) continue;
+          SourceRecord r = records.get(source);
+          r.classes.put(info.name, f);
+          r.references.addAll(info.references);
+          r.exportsConstants |= info.exportsConstants;
+        }
+        catch (IOException e) { /* ignore it; can't read class file */ }
+        catch (RuntimeException e) { /* ignore it; malformed class file */ }
+      }
+    }
+  }
+  
+  /** @return the compiled source that produced the given class, or null if it is not among the compiled sources */
+  private static File _findSource(ClassInfo info, Map<String, List<File>> byName) {
+    List<File> candidates = byName.get(info.sourceFile);
+    if (candidates == null) return null;
+    int slash = info.name.lastIndexOf('/');
+    if (slash < 0) return candidates.get(0);
+    String pkgDir = File.separator + info.name.substring(0, slash).replace('/', File.separatorChar);
+    for (File f : candidates) {
+      if (f.getParent().endsWith(pkgDir)) return f;
+    }
+    return null;
+  }
+  
+  /** @return true iff all class files recorded for r still exist */
+  private static boolean _classFilesExist(SourceRecord r) {
+    for (File f : r.classes.values()) { if (! f.isFile()) return false; }
+    return true;
+  }
+  
+  /** Writes this graph to the given file.
+    * @param file the file to write
+    * @throws IOException if the file cannot be written
+    */
+  void save(File file) throws IOException {
+    PrintWriter out = new PrintWriter(new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), "UTF-8")));
+    try {
+      out.println(HEADER);
+      out.println("config\t" + _configuration);
+      for (Map.Entry<File, SourceRecord> e : _sources.entrySet()) {
+        SourceRecord r = e.getValue();
+        out.println("source\t" + e.getKey().getPath() + "\t" + r.lastModified + "\t" + r.exportsConstants);
+        for (Map.Entry<String, File> c : r.classes.entrySet()) {
+          out.println("class\t" + c.getKey() + "\t" + c.getValue().getPath());
+        }
+        for (String ref : r.references) out.println("ref\t" + ref);
+      }
+    }
+    finally { out.close(); }
+    if (out.checkError()) throw new IOException("Could not write " + file);
+  }
+  
+  /** Reads a graph previously written by {@link #save}.
+    * @param file the file to read
+    * @return the graph, or {@code null} if the file does not exist or is not a valid graph
+    */
+  static ClassDependencyGraph load(File file) {
+    if (! file.isFile()) return null;
+    try {
+      BufferedReader in = new BufferedReader(new InputStreamReader(new FileInputStream(file), "UTF-8"));
+      try {
+        if (! HEADER.equals(in.readLine())) return null;
+        String config = in.readLine();
+        if (config == null || ! config.startsWith("config\t")) return null;
+        ClassDependencyGraph g = new ClassDependencyGraph(config.substring(7));
+        SourceRecord current = null;
+        String line;
+        while ((line = in.readLine()) != null) {
+          String[] parts = line.split("\t");
+          if (parts[0].equals("source") && parts.length == 4) {
+            current = new SourceRecord(Long.parseLong(parts[2]));
+            current.exportsConstants = Boolean.parseBoolean(parts[3]);
+            g._sources.put(new File(parts[1]), current);
+          }
+          else if (parts[0].equals("class") && parts.length == 3 && current != null) {
+            current.classes.put(parts[1], new File(parts[2]));
+          }
+          else if (parts[0].equals("ref") && parts.length == 2 && current != null) current.references.add(parts[1]);
+          else return null;
+        }
+        return g;
+      }
+      finally { in.close(); }
+    }
+    catch (IOException e) { return null; }
+    catch (NumberFormatException e) { return null; }
+  }
+  
+  /** The dependency-relevant contents of a single class file. */
+  static class ClassInfo {
+    String name;
+    String sourceFile;
+    boolean exportsConstants = false;
+    final Set<String> references = new HashSet<String>();
+    
+    /** Parses a class file.
+      * @param bytes the contents of the class file
+      * @return the parsed information
+      */
+    static ClassInfo read(byte[] bytes) {
+      final ClassInfo info = new ClassInfo();
+      final ClassReader cr = new ClassReader(bytes);
+      final char[] buf = new char[cr.getMaxStringLength()];
+      
+      // Every class, field, and method referenced by the code appears in the constant pool
+      for (int i = 1; i < cr.getItemCount(); i++) {
+        int offset = cr.getItem(i);
+        if (offset == 0) continue;  // second slot of a long or double
+        switch (cr.b[offset - 1]) {
+          case 7: info._addType(Type.getObjectType(cr.readUTF8(offset, buf))); break;       // CONSTANT_Class
+          case 12: info._addDescriptor(cr.readUTF8(offset + 2, buf)); break;                // CONSTANT_NameAndType
+          case 16: info._addDescriptor(cr.readUTF8(offset, buf)); break;                    // CONSTANT_MethodType
+          default:
+        }
+      }
+      
+      // Member descriptors and generic signatures are not necessarily in the constant pool as classes
+      cr.accept(new ClassVisitor(Opcodes.ASM4) {
+        public void visit(int version, int access, String name, String sig, String sup, String[] inters) {
+          info.name = name;
+          info._addSignature(sig);
+        }
+        public void visitSource(String source, String debug) { info.sourceFile = source; }
+        public AnnotationVisitor visitAnnotation(String desc, boolean visible) {
+          info._addDescriptor(desc);
+          return null;
+        }
+        public FieldVisitor visitField(int a, String n, String d, String s, Object v) {
+          info._addDescriptor(d);
+          info._addSignature(s);
+          int constant = Opcodes.ACC_STATIC | Opcodes.ACC_FINAL;
+          if (v != null && (a & constant) == constant && (a & Opcodes.ACC_PRIVATE) == 0) info.exportsConstants = true;
+          return null;
+        }
+        public MethodVisitor visitMethod(int a, String n, String d, String s, String[] e) {
+          info._addDescriptor(d);
+          info._addSignature(s);
+          if (e != null) { for (String ex : e) info.references.add(ex); }
+          return null;
+        }
+      }, ClassReader.SKIP_CODE | ClassReader.SKIP_FRAMES);
+      
+      info.references.remove(info.name);
+      return info;
+    }
+    
+    private void _addType(Type t) {
+      if (t.getSort() == Type.ARRAY) t = t.getElementType();
+      if (t.getSort() == Type.OBJECT) references.add(t.getInternalName());
+    }
+    
+    private void _addDescriptor(String desc) {
+      if (desc.startsWith("(")) {
+        for (Type t : Type.getArgumentTypes(desc)) _addType(t);
+        _addType(Type.getReturnType(desc));
+      }
+      else _addType(Type.getType(desc));
+    }
+    
+    private void _addSignature(String sig) {
+      if (sig == null) return;
+      new SignatureReader(sig).accept(new SignatureVisitor(Opcodes.ASM4) {
+        public void visitClassType(String name) { references.add(name); }
+      });
+    }
+  }
+}
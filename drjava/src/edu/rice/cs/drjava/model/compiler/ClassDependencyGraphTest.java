@@ -0,0 +1,150 @@
+/*BEGIN_COPYRIGHT_BLOCK
+ *
+ * Copyright (c) 2001-2019, JavaPLT group at Rice University (drjava@rice.edu).  All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the 
+ * following conditions are met:
+ *    * Redistributions of source code must retain the above copyright notice, this list of conditions and the following
+ *      disclaimer.
+ *    * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the 
+ *      following disclaimer in the documentation and/or other materials provided with the distribution.
+ *    * Neither the names of DrJava, the JavaPLT group, Rice University, nor the names of its contributors may be used 
+ *      to endorse or promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, 
+ * INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, 
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR 
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, 
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This software is Open Source Initiative approved Open Source Software. Open Source Initative Approved is a trademark
+ * of the Open Source Initiative.
+ * 
+ * This file is part of DrJava.  Download the current version of this project from http://www.drjava.org/ or 
+ * http://sourceforge.net/projects/drjava/
+ * 
+ * END_COPYRIGHT_BLOCK*/
+package edu.rice.cs.drjava.model.compiler;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+import edu.rice.cs.drjava.DrJavaTestCase;
+import edu.rice.cs.plt.io.IOUtil;
+
+/** Tests the dependency tracking used for incremental compilation.
+  * @version $Id$
+  */
+public final class ClassDependencyGraphTest extends DrJavaTestCase {
+  
+  private File _tempDir;
+  private File _srcDir;
+  private File _buildDir;
+  
+  public void setUp() throws Exception {
+    super.setUp();
+    String user = System.getProperty("user.name");
+    _tempDir = IOUtil.attemptCanonicalFile(IOUtil.createAndMarkTempDirectory("DrJava-test-" + user, ""));
+    _srcDir = new File(_tempDir, "src");
+    _buildDir = new File(_tempDir, "classes");
+    assertTrue(new File(_srcDir, "p").mkdirs());
+    assertTrue(_buildDir.mkdirs());
+  }
+  
+  public void tearDown() throws Exception {
+    IOUtil.deleteRecursively(_tempDir);
+    _tempDir = null;
+    super.tearDown();
+  }
+  
+  private File _source(String name, String text) throws IOException {
+    File f = new File(_srcDir, name);
+    IOUtil.writeStringToFile(f, text);
+    return f;
+  }
+  
+  /** Compiles the given files into _buildDir and records them in g. */
+  private void _compile(ClassDependencyGraph g, List<File> files) {
+    long start = System.currentTimeMillis();
+    JavaCompiler javac = ToolProvider.getSystemJavaCompiler();
+    List<String> args = new ArrayList<String>(Arrays.asList("-g", "-d", _buildDir.getPath(), 
+                                                            "-sourcepath", _srcDir.getPath()));
+    for (File f : files) args.add(f.getPath());
+    assertEquals("compilation succeeds", 0, javac.run(null, null, null, args.toArray(new String[0])));
+    g.update(files, _buildDir, start);
+  }
+  
+  private static void _touch(File f) { assertTrue(f.setLastModified(f.lastModified() + 10000)); }
+  
+  private static Set<File> _set(File... files) { return new HashSet<File>(Arrays.asList(files)); }
+  
+  public void testTransitiveDependents() throws IOException {
+    File a = _source("p/A.java", "package p; public class A { public void m() { } }");
+    File b = _source("p/B.java", "package p; public class B { void n(A a) { a.m(); } }");
+    File c = _source("C.java", "public class C extends p.B { }");
+    File d = _source("p/D.java", "package p; class D { java.util.List<String> l; }");
+    List<File> all = Arrays.asList(a, b, c, d);
+    
+    ClassDependencyGraph g = new ClassDependencyGraph("config");
+    assertEquals("unknown files must be compiled", _set(a, b, c, d), g.filesToRecompile(all));
+    _compile(g, all);
+    assertEquals(4, g.size());
+    assertEquals("nothing changed", _set(), g.filesToRecompile(all));
+    
+    _touch(a);
+    assertEquals("A and its transitive dependents", _set(a, b, c), g.filesToRecompile(all));
+    assertEquals("only requested files are returned", _set(a, b), g.filesToRecompile(Arrays.asList(a, b)));
+    _compile(g, Arrays.asList(a, b, c));
+    assertEquals(_set(), g.filesToRecompile(all));
+    
+    _touch(d);
+    assertEquals("D has no dependents", _set(d), g.filesToRecompile(all));
+    
+    g.markDirty(Arrays.asList(d));
+    new File(_buildDir, "C.class").delete();
+    assertEquals("dirty files and files with missing class files are recompiled", _set(c, d), 
+                 g.filesToRecompile(all));
+  }
+  
+  public void testInlinedConstantsForceFullBuild() throws IOException {
+    File k = _source("p/K.java", "package p; public class K { public static final int X = 1; }");
+    File u = _source("p/U.java", "package p; class U { int y = K.X; }");
+    List<File> all = Arrays.asList(k, u);
+    
+    ClassDependencyGraph g = new ClassDependencyGraph("config");
+    _compile(g, all);
+    _touch(u);
+    assertEquals(_set(u), g.filesToRecompile(all));
+    _touch(k);
+    assertNull("full build required", g.filesToRecompile(all));
+  }
+  
+  public void testSaveAndLoad() throws IOException {
+    File a = _source("p/A.java", "package p; public class A { }");
+    File b = _source("p/B.java", "package p; class B extends A { }");
+    List<File> all = Arrays.asList(a, b);
+    
+    ClassDependencyGraph g = new ClassDependencyGraph("javac 1.8 [x]");
+    _compile(g, all);
+    File graphFile = new File(_buildDir, ClassDependencyGraph.FILE_NAME);
+    g.save(graphFile);
+    
+    ClassDependencyGraph loaded = ClassDependencyGraph.load(graphFile);
+    assertNotNull(loaded);
+    assertEquals("javac 1.8 [x]", loaded.getConfiguration());
+    assertEquals(2, loaded.size());
+    assertEquals(_set(), loaded.filesToRecompile(all));
+    _touch(a);
+    assertEquals(_set(a, b), loaded.filesToRecompile(all));
+    
+    IOUtil.writeStringToFile(graphFile, "garbage");
+    assertNull(ClassDependencyGraph.load(graphFile));
+    assertNull(ClassDependencyGraph.load(new File(_tempDir, "missing")));
+  }
+}
@@ -115,4 +115,11 @@ class CompilerEventNotifier extends EventNotifier<CompilerListener> implements C
     try { for (CompilerListener cl : _listeners) { cl.activeCompilerChanged(); } }
     finally { _lock.endRead(); }
   }
+  
+  /** Called after the list of available compilers has been changed. */
+  public void availableCompilersChanged() {
+    _lock.startRead();
+    try { for (CompilerListener cl : _listeners) { cl.availableCompilersChanged(); } }
+    finally { _lock.endRead(); }
+  }
 }
@@ -58,4 +58,7 @@ public interface CompilerListener {
   
   /** Called after the active compiler has been changed. */
   public void activeCompilerChanged();
+  
+  /** Called after the list of available compilers has been changed, e.g. because a search for compilers finished. */
+  public void availableCompilersChanged();
 }
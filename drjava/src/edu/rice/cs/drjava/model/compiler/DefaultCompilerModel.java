@@ -57,6 +57,7 @@ import edu.rice.cs.javalanglevels.tree.*;
 import edu.rice.cs.plt.io.IOUtil;
 import edu.rice.cs.plt.iter.IterUtil;
 import edu.rice.cs.plt.collect.CollectUtil;
+import edu.rice.cs.plt.lambda.Thunk;
 // import edu.rice.cs.plt.tuple.Pair;  
 // TODO: use the preceding pair class instead of javalanglevels.Pair; must change javalanglevels code as well 
 
@@ -69,11 +70,17 @@ public class DefaultCompilerModel implements CompilerModel {
   /** for logging debug info */
   private static final Log _log = new edu.rice.cs.util.Log("DefaultCompilerModel.txt", false);
   
-  /** The available compilers */
-  private final List<CompilerInterface> _compilers;
+  /** The available compilers; until the search for compilers has finished, only those known immediately */
+  private volatile List<CompilerInterface> _compilers;
   
   /** Current compiler -- one of _compilers, or a NoCompilerAvailable */
-  private CompilerInterface _active;
+  private volatile CompilerInterface _active = null;
+  
+  /** Whether _active was chosen with setActiveCompiler, rather than by the compiler preference.  Guarded by this. */
+  private boolean _activeChosen = false;
+  
+  /** The source of all available compilers until they have been determined, or null afterwards.  Guarded by this. */
+  private Thunk<? extends Iterable<? extends CompilerInterface>> _compilerSource;
   
   /** Manages listeners to this model. */
   private final CompilerEventNotifier _notifier = new CompilerEventNotifier();
@@ -87,6 +94,12 @@ public class DefaultCompilerModel implements CompilerModel {
   /** The lock providing mutual exclustion between compilation and unit testing */
   private Object _compilerLock = new Object();
   
+  /** The dependency graph used for incremental compilation, or null if it has not been loaded yet. */
+  private ClassDependencyGraph _dependencyGraph = null;
+  
+  /** The file _dependencyGraph is persisted in; null if there is no build directory. */
+  private File _dependencyGraphFile = null;
+  
   /** The LanguageLevelStackTraceMapper that helps translate .java line 
     * numbers to .dj* line numbers when an error is thrown */
   public LanguageLevelStackTraceMapper _LLSTM;
@@ -97,32 +110,96 @@ public class DefaultCompilerModel implements CompilerModel {
     *                   to be available.  An empty list is acceptable.
     */
   public DefaultCompilerModel(GlobalModel m, Iterable<? extends CompilerInterface> compilers) {
-    
-    _compilers = new ArrayList<CompilerInterface>();
+    this(m, compilers, null);
+  }
+  
+  /** Creates a compiler model that starts out with the compilers known immediately, while the search for the other
+    * compilers proceeds in the background.  Neither the constructor nor the accessors of the compilers wait for the
+    * search; when it finishes, the available compilers are replaced and listeners are notified.  Only compiling waits
+    * for the search, so that the active compiler is chosen from all available ones.
+    * @param m the GlobalModel that is the source of documents for this CompilerModel
+    * @param immediate  The compilers available until the search finishes.  The first will be made active, unless the
+    *                   compiler preference names another; all are assumed to be available.  An empty list is acceptable.
+    * @param compilers  Computes all compilers to use, blocking until they are known, or null if the immediate compilers 
+    *                   are all there are.  The result replaces the immediate compilers.
+    */
+  public DefaultCompilerModel(GlobalModel m, Iterable<? extends CompilerInterface> immediate,
+                              Thunk<? extends Iterable<? extends CompilerInterface>> compilers) {
+    _model = m;
+    _compilerErrorModel = new CompilerErrorModel(new DJError[0], _model);
+    _LLSTM = new LanguageLevelStackTraceMapper(_model);
+    _setCompilers(immediate);
+    _compilerSource = compilers;
+    if (compilers != null) {
+      Thread search = new Thread("Find compilers") {
+        public void run() { _resolveCompilers(); }
+      };
+      search.setDaemon(true);
+      search.start();
+    }
+  }
+  
+  /** Makes the given compilers the available compilers, and selects the active compiler among them: the one chosen 
+    * with setActiveCompiler if it is still available, otherwise the preferred one, otherwise the first.  Only called 
+    * from the constructor or while holding this.
+    * @return whether the active compiler changed
+    */
+  private boolean _setCompilers(Iterable<? extends CompilerInterface> compilers) {
+    List<CompilerInterface> result = new ArrayList<CompilerInterface>();
     ArrayList<String> compilerNames = new ArrayList<String>();
     
-    for (CompilerInterface i : compilers) { _compilers.add(i); compilerNames.add(i.getName());}
+    for (CompilerInterface i : compilers) { result.add(i); compilerNames.add(i.getName());}
     
     OptionConstants.COMPILER_PREFERENCE_CONTROL.setList(compilerNames); // populates the compiler list for preference panel
     
     String dCompName = DrJava.getConfig().getSetting(OptionConstants.DEFAULT_COMPILER_PREFERENCE);
     
-    if (_compilers.size() > 0) {
+    CompilerInterface active;
+    if (_activeChosen && result.contains(_active)) 
+      active = _active;
+    else if (result.size() > 0) {
       if (! dCompName.equals(OptionConstants.COMPILER_PREFERENCE_CONTROL.NO_PREFERENCE) &&
            compilerNames.contains(dCompName)) 
-        _active = _compilers.get(compilerNames.indexOf(dCompName));
+        active = result.get(compilerNames.indexOf(dCompName));
       else 
-        _active = _compilers.get(0);
+        active = result.get(0);
     }
     else
-      _active = NoCompilerAvailable.ONLY;
+      active = NoCompilerAvailable.ONLY;
     
-    _model = m;
-    _compilerErrorModel = new CompilerErrorModel(new DJError[0], _model);
-    _LLSTM = new LanguageLevelStackTraceMapper(_model);
+    boolean changed = _active != null && ! active.equals(_active);
+    _compilers = result;
+    _active = active;
+    return changed;
+  }
+  
+  /** Waits until the search for compilers has finished, unless it has been waited for already, and makes the 
+    * compilers found available.  Notifies listeners if the active compiler changed, and then if the available
+    * compilers changed.
+    */
+  private void _resolveCompilers() {
+    Thunk<? extends Iterable<? extends CompilerInterface>> source;
+    synchronized(this) { source = _compilerSource; }
+    if (source == null) return;
+    
+    Iterable<? extends CompilerInterface> all = source.value();  // blocks until the search has finished
+    boolean compilersChanged;
+    boolean activeChanged;
+    synchronized(this) {
+      if (_compilerSource == null) return;  // resolved by another thread in the meantime
+      List<CompilerInterface> old = _compilers;
+      activeChanged = _setCompilers(all);
+      compilersChanged = ! old.equals(_compilers);
+      _compilerSource = null;
+    }
+    if (activeChanged) _notifier.activeCompilerChanged();
+    if (compilersChanged) _notifier.availableCompilersChanged();
   }
   
   
+  /** Waits until the search for compilers has finished and its compilers are available. */
+  public void ensureCompilersFound() { _resolveCompilers(); }
+  
   //--------------------------------- Locking -------------------------------//
   
   /** Returns the lock used to prevent simultaneous compilation and JUnit testing */
@@ -156,7 +233,8 @@ public class DefaultCompilerModel implements CompilerModel {
     * <p>This method formerly only compiled documents which were out of sync with their class file, as a performance 
     * optimization.  However, bug #634386 pointed out that unmodified files could depend on modified files, in which 
     * case this command would not recompile a file in some situations when it should.  Since we value correctness over
-    * performance, we now always compile all open documents.</p>
+    * performance, we now always compile all open documents, unless the user has opted into incremental compilation
+    * (see {@link ClassDependencyGraph}), which also recompiles every file that depends on a modified one.</p>
     * @throws IOException if a filesystem-related problem prevents compilation
     */
   public void compileAll() throws IOException {
@@ -172,7 +250,8 @@ public class DefaultCompilerModel implements CompilerModel {
     * <p>This method formerly only compiled documents which were out of sync with their class file, as a performance 
     * optimization.  However, bug #634386 pointed out that unmodified files could depend on modified files, in which 
     * case this command would not recompile a file in some situations when it should.  Since we value correctness over
-    * performance, we now always compile all open documents.</p>
+    * performance, we now always compile all open documents, unless the user has opted into incremental compilation
+    * (see {@link ClassDependencyGraph}), which also recompiles every file that depends on a modified one.</p>
     * @throws IOException if a filesystem-related problem prevents compilation
     */
   public void compileProject() throws IOException {
@@ -328,6 +407,8 @@ public class DefaultCompilerModel implements CompilerModel {
    */
   private void _compileFiles(List<File> files, File buildDir) throws IOException {
     if (! files.isEmpty()) {
+      _resolveCompilers();  // compile with the active compiler chosen from all available compilers
+      
       /* Canonicalize buildDir */
       if (buildDir == FileOps.NULL_FILE) buildDir = null; // compiler interface wants null pointer if no build directory
       if (buildDir != null) buildDir = IOUtil.attemptCanonicalFile(buildDir);
@@ -352,7 +433,10 @@ public class DefaultCompilerModel implements CompilerModel {
         // Mutual exclusion with JUnit code that finds all test classes (in DefaultJUnitModel)
         synchronized(_compilerLock) {
           if (preprocessedFiles == null) {
-            errors.addAll(compiler.compile(files, classPath, null, buildDir, bootClassPath, null, true));
+            if (DrJava.getConfig().getSetting(OptionConstants.INCREMENTAL_COMPILATION)) {
+              errors.addAll(_compileIncrementally(compiler, files, classPath, buildDir, bootClassPath));
+            }
+            else errors.addAll(compiler.compile(files, classPath, null, buildDir, bootClassPath, null, true));
           }
           else {
             /** If compiling a language level file, do not show warnings, as these are not caught by the language level 
@@ -369,6 +453,48 @@ public class DefaultCompilerModel implements CompilerModel {
     }
   }
   
+  /** Compiles the changed files among the given files together with the files that depend on them, as determined by
+    * the persistent dependency graph.  Falls back to compiling all the given files if the graph is missing, was built
+    * with a different compiler configuration, or cannot describe the change (inlined constants).  Must be called 
+    * while holding _compilerLock.  Package visible for testing purposes.
+    * @param compiler the compiler to use
+    * @param files the files the user asked to compile
+    * @param classPath the class path
+    * @param buildDir the canonical build directory, or null to compile in place
+    * @param bootClassPath the boot class path, or null for the default
+    * @return the errors and warnings reported by the compiler
+    */
+  List<? extends DJError> _compileIncrementally(CompilerInterface compiler, List<File> files, 
+                                                List<File> classPath, File buildDir, List<File> bootClassPath) {
+    String configuration = compiler.getName() + " " + compiler.version() + " " + classPath + " " + bootClassPath;
+    File graphFile = (buildDir == null) ? null : new File(buildDir, ClassDependencyGraph.FILE_NAME);
+    if (_dependencyGraph == null || (graphFile == null ? _dependencyGraphFile != null 
+                                                    : ! graphFile.equals(_dependencyGraphFile))) {
+      _dependencyGraph = (graphFile == null) ? null : ClassDependencyGraph.load(graphFile);
+      _dependencyGraphFile = graphFile;
+    }
+    if (_dependencyGraph == null || ! _dependencyGraph.getConfiguration().equals(configuration)) {
+      _dependencyGraph = new ClassDependencyGraph(configuration);
+    }
+    
+    Set<File> stale = _dependencyGraph.filesToRecompile(files);
+    List<File> toCompile = (stale == null) ? files : new ArrayList<File>(stale);
+    _log.log("Incremental compilation of " + toCompile.size() + " of " + files.size() + " files");
+    if (toCompile.isEmpty()) return Collections.<DJError>emptyList();
+    
+    long start = System.currentTimeMillis();
+    List<? extends DJError> result = compiler.compile(toCompile, classPath, null, buildDir, bootClassPath, null, true);
+    boolean failed = false;
+    for (DJError e : result) { if (! e.isWarning()) { failed = true; break; } }
+    if (failed) _dependencyGraph.markDirty(toCompile);
+    else _dependencyGraph.update(toCompile, buildDir, start);
+    if (graphFile != null) {
+      try { _dependencyGraph.save(graphFile); }
+      catch (IOException e) { _log.log("Could not save dependency graph: " + e); }
+    }
+    return result;
+  }
+  
   /** Reorders files so that all file names containing "Test" are at the end.  
    * @param files the files to be sorted
    * @return the sorted list of files
@@ -608,11 +734,13 @@ public class DefaultCompilerModel implements CompilerModel {
   //-------------------------- Compiler Management --------------------------//
   
   /** Returns all registered compilers that are actually available.  If there are none,
-    * the result is {@link NoCompilerAvailable#ONLY}.
+    * the result is {@link NoCompilerAvailable#ONLY}.  Does not wait for the search for compilers; until it has
+    * finished, only the compilers known immediately are returned.
     */
   public Iterable<CompilerInterface> getAvailableCompilers() {
-    if (_compilers.isEmpty()) { return IterUtil.singleton(NoCompilerAvailable.ONLY); }
-    else { return IterUtil.snapshot(_compilers); }
+    List<CompilerInterface> compilers = _compilers;
+    if (compilers.isEmpty()) { return IterUtil.singleton(NoCompilerAvailable.ONLY); }
+    else { return IterUtil.snapshot(compilers); }
   }
   
   /** Gets the compiler that is the "active" compiler.
@@ -629,16 +757,20 @@ public class DefaultCompilerModel implements CompilerModel {
     * @see #getActiveCompiler
     */
   public void setActiveCompiler(CompilerInterface compiler) {
-    if (_compilers.isEmpty() && compiler.equals(NoCompilerAvailable.ONLY)) {
-      // _active should be set correctly already
-    }
-    else if (_compilers.contains(compiler)) {
-      _active = compiler;
-      _notifier.activeCompilerChanged();
-    }
-    else {
-      throw new IllegalArgumentException("Compiler is not in the list of available compilers: " + compiler);
+    synchronized(this) {
+      List<CompilerInterface> compilers = _compilers;
+      if (compilers.isEmpty() && compiler.equals(NoCompilerAvailable.ONLY)) {
+        return;  // _active should be set correctly already
+      }
+      else if (compilers.contains(compiler)) {
+        _active = compiler;
+        _activeChosen = true;
+      }
+      else {
+        throw new IllegalArgumentException("Compiler is not in the list of available compilers: " + compiler);
+      }
     }
+    _notifier.activeCompilerChanged();
   }
   
   /* This method is no longer used. */
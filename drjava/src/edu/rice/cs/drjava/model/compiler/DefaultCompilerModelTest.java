@@ -0,0 +1,242 @@
+/*BEGIN_COPYRIGHT_BLOCK
+ *
+ * Copyright (c) 2001-2010, JavaPLT group at Rice University (drjava@rice.edu)
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    * Redistributions of source code must retain the above copyright
+ *      notice, this list of conditions and the following disclaimer.
+ *    * Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in the
+ *      documentation and/or other materials provided with the distribution.
+ *    * Neither the names of DrJava, the JavaPLT group, Rice University, nor the
+ *      names of its contributors may be used to endorse or promote products
+ *      derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This software is Open Source Initiative approved Open Source Software.
+ * Open Source Initative Approved is a trademark of the Open Source Initiative.
+ * 
+ * This file is part of DrJava.  Download the current version of this project
+ * from http://www.drjava.org/ or http://sourceforge.net/projects/drjava/
+ * 
+ * END_COPYRIGHT_BLOCK*/
+
+package edu.rice.cs.drjava.model.compiler;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.tools.ToolProvider;
+
+import edu.rice.cs.drjava.DrJavaTestCase;
+import edu.rice.cs.drjava.model.DJError;
+import edu.rice.cs.drjava.model.DummyGlobalModel;
+import edu.rice.cs.drjava.model.GlobalModel;
+import edu.rice.cs.drjava.model.OpenDefinitionsDocument;
+import edu.rice.cs.plt.collect.CollectUtil;
+import edu.rice.cs.plt.concurrent.CompletionMonitor;
+import edu.rice.cs.plt.io.IOUtil;
+import edu.rice.cs.plt.lambda.Thunk;
+import edu.rice.cs.plt.reflect.JavaVersion;
+
+/** Tests that DefaultCompilerModel does not wait for the search for compilers, and that incremental compilation
+  * recompiles exactly the changed files and their dependents.
+  * @version $Id$
+  */
+public final class DefaultCompilerModelTest extends DrJavaTestCase {
+  
+  private static final long TIMEOUT = 10000;
+  
+  private final CompilerInterface _jdk7 = new TestCompiler("1.7.0");
+  private final CompilerInterface _jdk8 = new TestCompiler("1.8.0");
+  
+  /** Releases the search for compilers. */
+  private final CompletionMonitor _searchDone = new CompletionMonitor();
+  
+  /** A search for compilers that finds JDK 8 and JDK 7 once released, or after TIMEOUT, so that a model that waits
+    * for the search fails the tests rather than blocking them.
+    */
+  private final Thunk<List<CompilerInterface>> _search = new Thunk<List<CompilerInterface>>() {
+    public List<CompilerInterface> value() {
+      _searchDone.attemptEnsureSignaled(TIMEOUT);
+      return Arrays.asList(_jdk8, _jdk7);
+    }
+  };
+  
+  /** Tests that the model starts out with the immediate compilers, and switches to all compilers when the search
+    * finishes.
+    */
+  public void testImmediateCompilers() throws Exception {
+    DefaultCompilerModel model = 
+      new DefaultCompilerModel(_globalModel(), Arrays.asList(_jdk7), _search);
+    // the constructor returned, and the compilers are available, while the search is still running
+    assertFalse(_searchDone.isSignaled());
+    assertEquals(Arrays.asList(_jdk7), CollectUtil.makeList(model.getAvailableCompilers()));
+    assertEquals(_jdk7, model.getActiveCompiler());
+    
+    TestListener listener = new TestListener();
+    model.addListener(listener);
+    _searchDone.signal();
+    listener.compilersChanged.ensureSignaled(TIMEOUT);
+    assertEquals(Arrays.asList(_jdk8, _jdk7), CollectUtil.makeList(model.getAvailableCompilers()));
+    assertEquals(_jdk8, model.getActiveCompiler());
+    assertEquals(1, listener.activeChanges());
+  }
+  
+  /** Tests that a compiler chosen before the search finishes remains active. */
+  public void testChosenCompilerKept() throws Exception {
+    DefaultCompilerModel model = 
+      new DefaultCompilerModel(_globalModel(), Arrays.asList(_jdk7), _search);
+    TestListener listener = new TestListener();
+    model.addListener(listener);
+    model.setActiveCompiler(_jdk7);
+    assertEquals(1, listener.activeChanges());
+    
+    _searchDone.signal();
+    listener.compilersChanged.ensureSignaled(TIMEOUT);
+    assertEquals(Arrays.asList(_jdk8, _jdk7), CollectUtil.makeList(model.getAvailableCompilers()));
+    assertEquals(_jdk7, model.getActiveCompiler());
+    assertEquals(1, listener.activeChanges());
+  }
+  
+  /** Tests that a model without a search has its compilers, and no compiler if the list is empty. */
+  public void testNoSearch() {
+    DefaultCompilerModel model = new DefaultCompilerModel(_globalModel(), Arrays.asList(_jdk7, _jdk8));
+    assertEquals(Arrays.asList(_jdk7, _jdk8), CollectUtil.makeList(model.getAvailableCompilers()));
+    assertEquals(_jdk7, model.getActiveCompiler());
+    
+    model = new DefaultCompilerModel(_globalModel(), Collections.<CompilerInterface>emptyList());
+    assertEquals(Arrays.asList(NoCompilerAvailable.ONLY), CollectUtil.makeList(model.getAvailableCompilers()));
+    assertEquals(NoCompilerAvailable.ONLY, model.getActiveCompiler());
+  }
+  
+  /** Tests incremental compilation into a build directory. */
+  public void testCompileIncrementally() throws IOException {
+    File tempDir = _tempDir();
+    try { _testCompileIncrementally(new File(tempDir, "src"), new File(tempDir, "classes")); }
+    finally { IOUtil.deleteRecursively(tempDir); }
+  }
+  
+  /** Tests incremental compilation with the class files next to the sources. */
+  public void testCompileIncrementallyInPlace() throws IOException {
+    File tempDir = _tempDir();
+    try { _testCompileIncrementally(new File(tempDir, "src"), null); }
+    finally { IOUtil.deleteRecursively(tempDir); }
+  }
+  
+  /** Checks that a changed file is recompiled together with a dependent file, but not with an unrelated file. */
+  private void _testCompileIncrementally(File srcDir, File buildDir) throws IOException {
+    assertTrue(new File(srcDir, "p").mkdirs());
+    if (buildDir != null) assertTrue(buildDir.mkdirs());
+    File a = new File(srcDir, "p/A.java");
+    File b = new File(srcDir, "p/B.java");
+    File u = new File(srcDir, "U.java");
+    IOUtil.writeStringToFile(a, "package p; public class A { public void m() { } }");
+    IOUtil.writeStringToFile(b, "package p; public class B { void n(A a) { a.m(); } }");
+    IOUtil.writeStringToFile(u, "public class U { }");
+    List<File> all = Arrays.asList(a, b, u);
+    
+    RecordingCompiler compiler = new RecordingCompiler();
+    DefaultCompilerModel model = new DefaultCompilerModel(_globalModel(), Arrays.asList(compiler));
+    List<File> classPath = Collections.<File>emptyList();
+    assertEquals(0, model._compileIncrementally(compiler, all, classPath, buildDir, null).size());
+    assertEquals("all files are compiled at first", _set(a, b, u), compiler.lastCompiled());
+    
+    assertEquals(0, model._compileIncrementally(compiler, all, classPath, buildDir, null).size());
+    assertNull("nothing changed", compiler.lastCompiled());
+    
+    assertTrue(a.setLastModified(a.lastModified() + 10000));
+    assertEquals(0, model._compileIncrementally(compiler, all, classPath, buildDir, null).size());
+    assertEquals("A and its dependent B, but not U", _set(a, b), compiler.lastCompiled());
+    
+    assertTrue(u.setLastModified(u.lastModified() + 10000));
+    assertEquals(0, model._compileIncrementally(compiler, all, classPath, buildDir, null).size());
+    assertEquals("U has no dependents", _set(u), compiler.lastCompiled());
+  }
+  
+  /** @return a new, canonical temporary directory */
+  private static File _tempDir() throws IOException {
+    String user = System.getProperty("user.name");
+    return IOUtil.attemptCanonicalFile(IOUtil.createAndMarkTempDirectory("DrJava-test-" + user, ""));
+  }
+  
+  private static Set<File> _set(File... files) { return new HashSet<File>(Arrays.asList(files)); }
+  
+  /** @return a global model without documents */
+  private static GlobalModel _globalModel() {
+    return new DummyGlobalModel() {
+      public List<OpenDefinitionsDocument> getOpenDefinitionsDocuments() {
+        return Collections.<OpenDefinitionsDocument>emptyList();
+      }
+    };
+  }
+  
+  /** Counts the changes of the active compiler, and signals when the available compilers change. */
+  private static class TestListener extends DummyCompilerListener {
+    final CompletionMonitor compilersChanged = new CompletionMonitor();
+    private int _activeChanges = 0;
+    
+    @Override public synchronized void activeCompilerChanged() { _activeChanges++; }
+    @Override public void availableCompilersChanged() { compilersChanged.signal(); }
+    synchronized int activeChanges() { return _activeChanges; }
+  }
+  
+  /** A compiler that is available, but compiles nothing. */
+  private static class TestCompiler extends JavacCompiler {
+    TestCompiler(String version) {
+      super(JavaVersion.parseFullVersion(version), "test", Collections.<File>emptyList());
+    }
+    public boolean isAvailable() { return true; }
+    public List<? extends DJError> compile(List<? extends File> files, List<? extends File> classPath, 
+                                           List<? extends File> sourcePath, File destination, 
+                                           List<? extends File> bootClassPath, String sourceVersion, 
+                                           boolean showWarnings) {
+      return Collections.<DJError>emptyList();
+    }
+  }
+  
+  /** A compiler that compiles with the system Java compiler and records which files it was asked to compile. */
+  private static class RecordingCompiler extends TestCompiler {
+    private Set<File> _lastCompiled = null;
+    RecordingCompiler() { super("1.8.0"); }
+    
+    /** @return the files compiled since the last call, or null if there was no compilation */
+    Set<File> lastCompiled() {
+      Set<File> result = _lastCompiled;
+      _lastCompiled = null;
+      return result;
+    }
+    
+    public List<? extends DJError> compile(List<? extends File> files, List<? extends File> classPath, 
+                                           List<? extends File> sourcePath, File destination, 
+                                           List<? extends File> bootClassPath, String sourceVersion, 
+                                           boolean showWarnings) {
+      _lastCompiled = new HashSet<File>(files);
+      List<String> args = new ArrayList<String>();
+      if (destination != null) { args.add("-d"); args.add(destination.getPath()); }
+      for (File f : files) args.add(f.getPath());
+      assertEquals("compilation succeeds", 0, 
+                   ToolProvider.getSystemJavaCompiler().run(null, null, null, args.toArray(new String[0])));
+      return Collections.<DJError>emptyList();
+    }
+  }
+}
@@ -41,4 +41,5 @@ public class DummyCompilerListener implements CompilerListener {
   public void saveBeforeCompile() { }
   public void saveUntitled() { }
   public void activeCompilerChanged() { }
+  public void availableCompilersChanged() { }
 }
\ No newline at end of file
@@ -0,0 +1,278 @@
+/*BEGIN_COPYRIGHT_BLOCK
+ *
+ * Copyright (c) 2001-2010, JavaPLT group at Rice University (drjava@rice.edu)
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    * Redistributions of source code must retain the above copyright
+ *      notice, this list of conditions and the following disclaimer.
+ *    * Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in the
+ *      documentation and/or other materials provided with the distribution.
+ *    * Neither the names of DrJava, the JavaPLT group, Rice University, nor the
+ *      names of its contributors may be used to endorse or promote products
+ *      derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This software is Open Source Initiative approved Open Source Software.
+ * Open Source Initative Approved is a trademark of the Open Source Initiative.
+ * 
+ * This file is part of DrJava.  Download the current version of this project
+ * from http://www.drjava.org/ or http://sourceforge.net/projects/drjava/
+ * 
+ * END_COPYRIGHT_BLOCK*/
+
+package edu.rice.cs.drjava.model.coverage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import edu.rice.cs.plt.io.IOUtil;
+import edu.rice.cs.plt.lambda.Runnable2;
+import edu.rice.cs.util.UnexpectedException;
+
+import org.jacoco.core.analysis.Analyzer;
+import org.jacoco.core.analysis.CoverageBuilder;
+import org.jacoco.core.analysis.IClassCoverage;
+import org.jacoco.core.analysis.ICounter;
+import org.jacoco.core.analysis.ICoverageVisitor;
+import org.jacoco.core.data.ExecutionData;
+import org.jacoco.core.data.ExecutionDataStore;
+
+/** Analyzes class files against the execution data of a test run, several classes at a time.  The analysis of each
+  * class is kept, keyed by the class name, together with a digest of its class file and the execution data (class id
+  * and probes) it was analyzed against.  A class whose class file and execution data are unchanged in a later run is
+  * not analyzed again, so an analyzer only saves work if it outlives a run.  The line colors of each class are computed
+  * as soon as the class is analyzed, and merged into the line colors of its source file.
+  * @version $Id$
+  */
+public class CoverageAnalyzer {
+  
+  /** The threads that analyze the class files; shared by all analyzers. */
+  private static final ExecutorService EXECUTOR = 
+    Executors.newFixedThreadPool(Math.max(1, Runtime.getRuntime().availableProcessors()), new ThreadFactory() {
+    public Thread newThread(Runnable r) {
+      Thread t = new Thread(r, "Coverage Analysis");
+      t.setDaemon(true);
+      return t;
+    }
+  });
+  
+  /** The last analysis of each class, keyed by class name. */
+  private final ConcurrentHashMap<String, Analysis> _cache = new ConcurrentHashMap<String, Analysis>();
+  
+  /** The analysis of one class file against the execution data of one run. */
+  private static final class Analysis {
+    final byte[] digest;
+    /** The class id of the execution data of the class, or null if the run has none. */
+    final Long dataId;
+    final boolean[] probes;
+    /** The coverage of the class, or null if JaCoCo ignores the class (e.g. because it is synthetic). */
+    final IClassCoverage coverage;
+    final List<String> lineColors;
+    
+    Analysis(byte[] digest, ExecutionData data, IClassCoverage coverage) {
+      this.digest = digest;
+      this.dataId = (data == null) ? null : data.getId();
+      this.probes = (data == null) ? null : data.getProbes().clone();
+      this.coverage = coverage;
+      this.lineColors = (coverage == null) ? null : ReportGenerator.getLineColorsForClassHelper(coverage);
+    }
+    
+    boolean matches(byte[] d, ExecutionData data) {
+      if (! Arrays.equals(digest, d)) return false;
+      if (data == null) return dataId == null;
+      return dataId != null && dataId == data.getId() && Arrays.equals(probes, data.getProbes());
+    }
+  }
+  
+  /** The result of analyzing a list of classes. */
+  public static final class Result {
+    private final CoverageBuilder _coverageBuilder;
+    private final Map<String, List<String>> _lineColors;
+    private final int _analyzed;
+    
+    private Result(CoverageBuilder coverageBuilder, Map<String, List<String>> lineColors, int analyzed) {
+      _coverageBuilder = coverageBuilder;
+      _lineColors = lineColors;
+      _analyzed = analyzed;
+    }
+    
+    /** @return the coverage builder that holds the coverage of all classes, from which the report is written */
+    public CoverageBuilder getCoverageBuilder() { return _coverageBuilder; }
+    
+    /** @return the line colors of each class, keyed by class name, as returned by ReportGenerator.getAllLineColors */
+    public Map<String, List<String>> getLineColors() { return _lineColors; }
+    
+    /** @return the number of classes that were analyzed, as opposed to taken from the cache */
+    public int getAnalyzedCount() { return _analyzed; }
+  }
+  
+  /** Analyzes the given classes in parallel.  Only runs in one thread at a time per analyzer.
+    * @param executionData the execution data collected while running the tests
+    * @param classNames the fully qualified names of the classes to analyze
+    * @param loader the class loader from which the class files are read
+    * @return the coverage and the line colors of the classes
+    * @throws IOException if a class file cannot be read or analyzed
+    */
+  public Result analyze(ExecutionDataStore executionData, List<String> classNames, ClassLoader loader)
+    throws IOException {
+    return analyze(executionData, classNames, loader, null);
+  }
+  
+  /** Analyzes the given classes in parallel.  Only runs in one thread at a time per analyzer.
+    * @param executionData the execution data collected while running the tests
+    * @param classNames the fully qualified names of the classes to analyze
+    * @param loader the class loader from which the class files are read
+    * @param documentColors if not null, run in the calling thread with the path of a source file relative to the
+    *        source root (e.g. "edu/rice/Foo.java") and the line colors of the classes of that source file analyzed so
+    *        far, each time a class of that source file has been analyzed
+    * @return the coverage and the line colors of the classes
+    * @throws IOException if a class file cannot be read or analyzed
+    */
+  public Result analyze(final ExecutionDataStore executionData, List<String> classNames, final ClassLoader loader,
+                        Runnable2<String, List<String>> documentColors) throws IOException {
+    // the execution data of each class, keyed by its (internal) name
+    final Map<String, ExecutionData> dataByName = new HashMap<String, ExecutionData>();
+    for (ExecutionData data : executionData.getContents()) dataByName.put(data.getName(), data);
+    
+    CompletionService<Outcome> completion = new ExecutorCompletionService<Outcome>(EXECUTOR);
+    List<Future<Outcome>> futures = new ArrayList<Future<Outcome>>(classNames.size());
+    for (final String name : classNames) {
+      futures.add(completion.submit(new Callable<Outcome>() {
+        public Outcome call() throws IOException {
+          return _analyze(executionData, dataByName.get(name.replace('.', '/')), name, loader);
+        }
+      }));
+    }
+    
+    CoverageBuilder coverageBuilder = new CoverageBuilder();
+    Map<String, List<String>> lineColors = new HashMap<String, List<String>>();
+    Map<String, List<String>> sourceColors = new HashMap<String, List<String>>();
+    int analyzed = 0;
+    try {
+      for (int i = 0; i < futures.size(); i++) {
+        Outcome o = completion.take().get();
+        if (o.fresh) analyzed++;
+        IClassCoverage cc = o.analysis.coverage;
+        if (cc == null) continue;
+        coverageBuilder.visitCoverage(cc);
+        lineColors.put(cc.getName(), o.analysis.lineColors);
+        if (documentColors != null) {
+          String source = sourcePath(cc);
+          List<String> merged = mergeLineColors(sourceColors.get(source), o.analysis.lineColors);
+          sourceColors.put(source, merged);
+          documentColors.run(source, merged);
+        }
+      }
+    }
+    catch (InterruptedException e) { throw new UnexpectedException(e); }
+    catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException) throw (IOException) e.getCause();
+      throw new UnexpectedException(e.getCause());
+    }
+    finally {
+      for (Future<Outcome> f : futures) f.cancel(true);
+    }
+    return new Result(coverageBuilder, lineColors, analyzed);
+  }
+  
+  /** An analysis and whether it was just made rather than taken from the cache. */
+  private static final class Outcome {
+    final Analysis analysis;
+    final boolean fresh;
+    Outcome(Analysis analysis, boolean fresh) { this.analysis = analysis; this.fresh = fresh; }
+  }
+  
+  /** Analyzes one class, unless the cached analysis of the class still applies.  The Analyzer matches the class file
+    * with its execution data by class id; an analysis still applies if the class file and the execution data with the
+    * name of the class are the same.
+    */
+  private Outcome _analyze(ExecutionDataStore executionData, ExecutionData data, String name, ClassLoader loader) 
+    throws IOException {
+    String resource = name.replace('.', '/') + ".class";
+    InputStream is = loader.getResourceAsStream(resource);
+    if (is == null) throw new IOException("Class file " + resource + " of class " + name + " not found");
+    byte[] bytes;
+    try { bytes = IOUtil.toByteArray(is); }
+    finally { is.close(); }
+    
+    byte[] digest = _digest(bytes);
+    Analysis cached = _cache.get(name);
+    if (cached != null && cached.matches(digest, data)) return new Outcome(cached, false);
+    
+    final IClassCoverage[] coverage = new IClassCoverage[1];
+    Analyzer analyzer = new Analyzer(executionData, new ICoverageVisitor() {
+      public void visitCoverage(IClassCoverage cc) { coverage[0] = cc; }
+    });
+    analyzer.analyzeClass(bytes, name);
+    Analysis analysis = new Analysis(digest, data, coverage[0]);
+    _cache.put(name, analysis);
+    return new Outcome(analysis, true);
+  }
+  
+  /** Forgets the analyses of all classes. */
+  public void clear() { _cache.clear(); }
+  
+  /** @return the path of the source file of the given class, relative to the source root */
+  public static String sourcePath(IClassCoverage cc) {
+    String fileName = cc.getSourceFileName();
+    if (fileName == null) return cc.getName() + ".java";  // no debug information
+    String packageName = cc.getPackageName();
+    return (packageName.length() == 0) ? fileName : packageName + "/" + fileName;
+  }
+  
+  /** Merges the line colors of two classes of the same source file.  A line colored in only one of them keeps its 
+    * color; a line colored differently in both is partly covered.
+    * @param colors1 the line colors of the first class, or null
+    * @param colors2 the line colors of the second class
+    * @return the merged line colors, in a new list
+    */
+  public static List<String> mergeLineColors(List<String> colors1, List<String> colors2) {
+    if (colors1 == null) return new ArrayList<String>(colors2);
+    int size = Math.max(colors1.size(), colors2.size());
+    List<String> result = new ArrayList<String>(size);
+    for (int i = 0; i < size; i++) {
+      String c1 = (i < colors1.size()) ? colors1.get(i) : "";
+      String c2 = (i < colors2.size()) ? colors2.get(i) : "";
+      if (c1.length() == 0) result.add(c2);
+      else if (c2.length() == 0 || c1.equals(c2)) result.add(c1);
+      else result.add(ReportGenerator.getColor(ICounter.PARTLY_COVERED));
+    }
+    return result;
+  }
+  
+  /** @return the SHA-1 digest of the given class file */
+  private static byte[] _digest(byte[] classFile) {
+    try { return MessageDigest.getInstance("SHA-1").digest(classFile); }
+    catch (NoSuchAlgorithmException e) { throw new UnexpectedException(e); } // every Java platform supports SHA-1
+  }
+}
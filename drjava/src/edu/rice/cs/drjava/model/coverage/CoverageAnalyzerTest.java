@@ -0,0 +1,123 @@
+/*BEGIN_COPYRIGHT_BLOCK
+ *
+ * Copyright (c) 2001-2010, JavaPLT group at Rice University (drjava@rice.edu)
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    * Redistributions of source code must retain the above copyright
+ *      notice, this list of conditions and the following disclaimer.
+ *    * Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in the
+ *      documentation and/or other materials provided with the distribution.
+ *    * Neither the names of DrJava, the JavaPLT group, Rice University, nor the
+ *      names of its contributors may be used to endorse or promote products
+ *      derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This software is Open Source Initiative approved Open Source Software.
+ * Open Source Initative Approved is a trademark of the Open Source Initiative.
+ * 
+ * This file is part of DrJava.  Download the current version of this project
+ * from http://www.drjava.org/ or http://sourceforge.net/projects/drjava/
+ * 
+ * END_COPYRIGHT_BLOCK*/
+
+package edu.rice.cs.drjava.model.coverage;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import edu.rice.cs.drjava.DrJavaTestCase;
+import edu.rice.cs.plt.lambda.Runnable2;
+
+import org.jacoco.core.data.ExecutionData;
+import org.jacoco.core.data.ExecutionDataStore;
+
+/** Tests the parallel, caching coverage analysis.
+  * @version $Id$
+  */
+public final class CoverageAnalyzerTest extends DrJavaTestCase {
+  
+  private static final String NAME = CoverageMetadata.class.getName();
+  
+  private final ClassLoader _loader = CoverageAnalyzerTest.class.getClassLoader();
+  
+  public void testAnalyze() throws IOException {
+    CoverageAnalyzer analyzer = new CoverageAnalyzer();
+    ExecutionDataStore store = new ExecutionDataStore();
+    CoverageAnalyzer.Result result = analyzer.analyze(store, Arrays.asList(NAME), _loader);
+    assertEquals(1, result.getAnalyzedCount());
+    assertEquals(1, result.getCoverageBuilder().getClasses().size());
+    long classId = result.getCoverageBuilder().getClasses().iterator().next().getId();
+    List<String> colors = result.getLineColors().get(NAME.replace('.', '/'));
+    assertTrue(colors.contains("red"));
+    assertFalse(colors.contains("green"));
+    
+    // unchanged class file and execution data: the analysis is reused
+    result = analyzer.analyze(store, Arrays.asList(NAME), _loader);
+    assertEquals(0, result.getAnalyzedCount());
+    assertEquals(colors, result.getLineColors().get(NAME.replace('.', '/')));
+    
+    // changed execution data: the class is analyzed again
+    ExecutionData data = new ExecutionData(classId, NAME.replace('.', '/'), 1000);
+    Arrays.fill(data.getProbes(), true);
+    store.put(data);
+    result = analyzer.analyze(store, Arrays.asList(NAME), _loader);
+    assertEquals(1, result.getAnalyzedCount());
+    colors = result.getLineColors().get(NAME.replace('.', '/'));
+    assertTrue(colors.contains("green"));
+    assertFalse(colors.contains("red"));
+    
+    analyzer.clear();
+    assertEquals(1, analyzer.analyze(store, Arrays.asList(NAME), _loader).getAnalyzedCount());
+  }
+  
+  public void testMissingClass() {
+    try {
+      new CoverageAnalyzer().analyze(new ExecutionDataStore(), Arrays.asList("no.such.Klass"), _loader);
+      fail("missing class file should throw IOException");
+    }
+    catch (IOException e) { /* expected */ }
+  }
+  
+  /** Tests that the line colors of a source file are reported once for each of its classes, merged. */
+  public void testDocumentColors() throws IOException {
+    String outer = CoverageAnalyzer.class.getName();
+    String inner = outer + "$Analysis";
+    final List<String> sources = new ArrayList<String>();
+    final List<List<String>> colors = new ArrayList<List<String>>();
+    Runnable2<String, List<String>> documentColors = new Runnable2<String, List<String>>() {
+      public void run(String source, List<String> c) { sources.add(source); colors.add(c); }
+    };
+    CoverageAnalyzer.Result result = 
+      new CoverageAnalyzer().analyze(new ExecutionDataStore(), Arrays.asList(outer, inner), _loader, documentColors);
+    String source = "edu/rice/cs/drjava/model/coverage/CoverageAnalyzer.java";
+    assertEquals(Arrays.asList(source, source), sources);
+    List<String> outerColors = result.getLineColors().get(outer.replace('.', '/'));
+    List<String> innerColors = result.getLineColors().get(inner.replace('.', '/'));
+    assertEquals(CoverageAnalyzer.mergeLineColors(outerColors, innerColors), colors.get(1));
+  }
+  
+  public void testMergeLineColors() {
+    List<String> a = Arrays.asList("", "red", "green", "");
+    List<String> b = Arrays.asList("", "", "red", "green", "red");
+    assertEquals(a, CoverageAnalyzer.mergeLineColors(null, a));
+    assertEquals(Arrays.asList("", "red", "yellow", "green", "red"), CoverageAnalyzer.mergeLineColors(a, b));
+    assertEquals(a, CoverageAnalyzer.mergeLineColors(a, Collections.<String>emptyList()));
+  }
+}
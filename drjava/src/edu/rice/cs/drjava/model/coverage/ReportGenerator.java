@@ -86,7 +86,7 @@ public class ReportGenerator {
     * @param status the status of the line (how well it was covered)
     * @return a color corresponding to the amount of coverage
     */
-  private String getColor(final int status) {
+  static String getColor(final int status) {
     
     switch (status) {
       case ICounter.NOT_COVERED: return "red";
@@ -100,7 +100,7 @@ public class ReportGenerator {
     * @param cc the IClassCoverage object from which to get line colors
     * @return a list of colors, where the i-th element in the list corresponds to the i-th line of code
     */
-  private ArrayList<String> getLineColorsForClassHelper(IClassCoverage cc) {
+  static ArrayList<String> getLineColorsForClassHelper(IClassCoverage cc) {
     
     ArrayList<String> lineColors = new ArrayList<String>();
     
@@ -143,7 +143,7 @@ public class ReportGenerator {
     Map<String, List<String>> allLineColors = new HashMap<String, List<String>>();
     
     for (final IClassCoverage cc : this.coverageBuilder.getClasses()) {
-      allLineColors.put(cc.getName(), this.getLineColorsForClassHelper(cc));
+      allLineColors.put(cc.getName(), getLineColorsForClassHelper(cc));
     }
     
     return allLineColors;
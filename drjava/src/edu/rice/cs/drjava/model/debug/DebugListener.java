@@ -66,6 +66,9 @@ public interface DebugListener extends RegionManagerListener<Breakpoint> {
     */
   public void watchRemoved(DebugWatchData w);
   
+  /** Called when the values of the watches have been updated.  Must be executed in event thread. */
+  public void watchesUpdated();
+  
   /** Called when a step is requested on the current thread.  Must be executed in event thread. */
   public void stepRequested();
   
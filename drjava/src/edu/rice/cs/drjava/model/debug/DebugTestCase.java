@@ -527,6 +527,9 @@ public abstract class DebugTestCase extends GlobalModelTestCase {
     
     public void watchRemoved(DebugWatchData w) { fail("watchRemoved fired unexpectedly"); }
     
+    /** Watches are updated asynchronously, so this may fire at any time. */
+    public void watchesUpdated() { }
+    
     public void stepRequested() { fail("stepRequested fired unexpectedly"); }
     
     public void currThreadSuspended() { fail("currThreadSuspended fired unexpectedly"); }
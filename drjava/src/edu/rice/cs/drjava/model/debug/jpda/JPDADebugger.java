@@ -40,6 +40,10 @@ import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Stack;
 import java.util.Vector;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicReference;
 
 // DrJava stuff
 import edu.rice.cs.util.UnexpectedException;
@@ -57,6 +61,7 @@ import edu.rice.cs.plt.lambda.Lambda;
 import edu.rice.cs.drjava.model.debug.*;
 import edu.rice.cs.drjava.DrJava;
 import edu.rice.cs.drjava.config.OptionConstants;
+import edu.rice.cs.plt.tuple.Option;
 import edu.rice.cs.plt.tuple.Pair;
 
 import com.sun.jdi.*;
@@ -88,14 +93,14 @@ public class JPDADebugger implements Debugger {
     * @see #_dumpVariablesIntoInterpreterAndSwitch
     */
   private static final String ADD_INTERPRETER_SIG =
-    "(Ljava/lang/String;Ljava/lang/Object;Ljava/lang/Class;" +
-    "[Ljava/lang/Object;[Ljava/lang/String;[Ljava/lang/Class;)V";
+    "(Ljava/lang/String;Ljava/lang/Object;Ljava/lang/Class;Ljava/lang/String;Ljava/lang/String;" +
+    "[Ljava/lang/Object;[Ljava/lang/Class;[J)V";
   
-  /** Signature of the InterpreterJVM.getVariableValue method.
-    * @see edu.rice.cs.drjava.model.repl.newjvm.InterpreterJVM#getVariableValue
+  /** Signature of the InterpreterJVM.getVariableValues method.
+    * @see edu.rice.cs.drjava.model.repl.newjvm.InterpreterJVM#getVariableValues
     * @see #_copyVariablesFromInterpreter
     */
-  private static final String GET_VARIABLE_VALUE_SIG = "(Ljava/lang/String;)[Ljava/lang/Object;";
+  private static final String GET_VARIABLE_VALUES_SIG = "(Ljava/lang/String;)[[Ljava/lang/Object;";
   
   private static final String NEW_INSTANCE_SIG = "(Ljava/lang/Class;I)Ljava/lang/Object;";
   
@@ -108,9 +113,28 @@ public class JPDADebugger implements Debugger {
   /** Manages all event requests in JDI. */
   private volatile EventRequestManager _eventManager;
   
+  /** Evaluates the watches off the event thread, so that stepping does not wait for the interpreter JVM. */
+  private static final Executor WATCH_EXECUTOR = Executors.newSingleThreadExecutor(new ThreadFactory() {
+    public Thread newThread(Runnable r) {
+      Thread t = new Thread(r, "Debugger Watch Update");
+      t.setDaemon(true);
+      return t;
+    }
+  });
+  
   /** Vector of all current Watches. */
   private final ArrayList<DebugWatchData> _watches = new ArrayList<DebugWatchData>();
   
+  /** The latest requested evaluation of the watches that has not started yet.  Requests made in quick succession, 
+    * e.g. while stepping, replace each other, so only the latest one is evaluated.
+    */
+  private final AtomicReference<Runnable> _pendingWatchUpdate = new AtomicReference<Runnable>();
+  
+  /** Number of the latest requested evaluation of the watches.  The results of earlier ones are discarded.  Only 
+    * accessed in the event thread.
+    */
+  private int _watchUpdateVersion = 0;
+  
   /** Keeps track of any DebugActions whose classes have not yet been loaded, so that EventRequests can be created when the correct
     * ClassPrepareEvent occurs.
     */
@@ -1430,41 +1454,54 @@ public class JPDADebugger implements Debugger {
     }
   }
   
-  /** Updates the stored value of each watched field and variable. Synchronization is necessary because this method is 
-    * called from unsynchronized listeners. */
-  private /* synchronized */ void _updateWatches() {
+  /** Updates the stored value of each watched field and variable.  The watches are evaluated in the active
+    * interpreter with a single call to the interpreter JVM, which is made off the event thread; listeners are notified
+    * with watchesUpdated() when the new values have been stored.  Only runs in the event thread.
+    */
+  private void _updateWatches() {
     assert EventQueue.isDispatchThread();
-    if (! isReady()) return;
+    final int version = ++_watchUpdateVersion;
+    if (! isReady() || _watches.isEmpty()) return;
+    
+    final List<DebugWatchData> watches = new ArrayList<DebugWatchData>(_watches);
+    final List<String> names = new ArrayList<String>(watches.size());
+    for (DebugWatchData w : watches) { names.add(w.getName()); }
+    final DefaultInteractionsModel interactionsModel = _model.getInteractionsModel();
+    // evaluate in the interpreter that is active now, even if it has changed by the time the call is made
+    final String interpreterName = interactionsModel.getActiveInterpreterName();
     
-    for (DebugWatchData w : _watches) {
-      String name = w.getName();
-      String val = "";
-      String type = "";
-//      ArrayList<Integer> arr_index = new ArrayList<Integer>();
-//      
-//      if (name.indexOf("[") != -1 && name.indexOf("]") != -1) {
-//        name = name.substring(0, name.indexOf("["));
-//        arr_index.add(Integer.parseInt(w.getName().substring(w.getName().indexOf("[")+1, w.getName().indexOf("]"))));      
-//        if (w.getName().indexOf("]")<(w.getName().length()-1)) {
-//          String iter = w.getName().substring(w.getName().indexOf("]")+1, w.getName().length());
-//          while(iter.indexOf("[") != -1 && iter.indexOf("]") != -1) {
-//            arr_index.add(Integer.parseInt(iter.substring(iter.indexOf("[")+1, iter.indexOf("]"))));      
-//            if (iter.indexOf("]")<(iter.length()-1))
-//              iter = iter.substring(iter.indexOf("]")+1, iter.length());
-//            else 
-//              iter = "";
-//          }
-//        }
-//      }
-//     
-//      int [] indices = new int[arr_index.size()];
-//      for (int i = 0; i < arr_index.size(); i++) {
-//        indices[i] = arr_index.get(i);
-//      }
-      Pair<String,String> pair = _model.getInteractionsModel().getVariableToString(name);
-      // System.out.println("pair == null? "+(pair == null));
-      val = pair.first();
-      type = pair.second();
+    Runnable update = new Runnable() {
+      public void run() {
+        final Option<List<Pair<String,String>>> values = interactionsModel.getVariablesToString(interpreterName, names);
+        Utilities.invokeLater(new Runnable() {
+          public void run() {
+            // a newer update is coming, or the interpreter has gone away in the meantime
+            if (version != _watchUpdateVersion || values.isNone()) return;
+            _setWatchValues(watches, values.unwrap());
+            _notifier.watchesUpdated();
+          }
+        });
+      }
+    };
+    if (_pendingWatchUpdate.getAndSet(update) == null) {
+      WATCH_EXECUTOR.execute(new Runnable() {
+        public void run() {
+          Runnable latest = _pendingWatchUpdate.getAndSet(null);
+          if (latest != null) latest.run();
+        }
+      });
+    }
+  }
+  
+  /** Stores the values of the given watches.  Only runs in the event thread.
+    * @param watches the watches
+    * @param values the string representations of the values and types of the watches, in the same order
+    */
+  private static void _setWatchValues(List<DebugWatchData> watches, List<Pair<String,String>> values) {
+    for (int i = 0; i < watches.size(); i++) {
+      DebugWatchData w = watches.get(i);
+      String val = values.get(i).first();
+      String type = values.get(i).second();
       
       if (val == null) { w.setNoValue(); }
       else { w.setValue(val); }
@@ -1490,27 +1527,36 @@ public class JPDADebugger implements Debugger {
       ObjectReference thisVal = thread.frame(0).thisObject();
       ClassObjectReference thisClass = thread.frame(0).location().declaringType().classObject();
       
-      List<ObjectReference> localVars = new LinkedList<ObjectReference>();
-      List<StringReference> localVarNames = new LinkedList<StringReference>();
-      List<ClassObjectReference> localVarClasses = new LinkedList<ClassObjectReference>();
+      // All variables are transferred with a single method invocation in the thread: the names are joined into one
+      // string, and primitive values are passed as bits in a long array rather than boxed one by one in the thread.
+      List<ObjectReference> localVars = new ArrayList<ObjectReference>();
+      List<ClassObjectReference> localVarClasses = new ArrayList<ClassObjectReference>();
+      List<LongValue> primitiveVars = new ArrayList<LongValue>();
+      StringBuilder localVarNames = new StringBuilder();
+      StringBuilder localVarTypes = new StringBuilder();
+      LongValue noPrimitive = _vm.mirrorOf(0L);
       try {
-        // we don't store the value thread.frame(0) anywhere, because it is invalidated
-        // each time we invoke a method in thread (as in _box)
-        for (LocalVariable v : thread.frame(0).visibleVariables()) {
+        StackFrame frame = thread.frame(0);
+        for (LocalVariable v : frame.visibleVariables()) {
           try {
             // Get the type first, so that if an error occurs, we haven't mutated the lists.
             Type t = v.type();
+            Value val = frame.getValue(v);
             if (t instanceof ReferenceType) {
               localVarClasses.add(((ReferenceType) t).classObject());
+              localVars.add((ObjectReference) val);
+              primitiveVars.add(noPrimitive);
+              localVarTypes.append('L');
             }
             else {
               // primitive types are represented by null
               localVarClasses.add(null);
+              localVars.add(null);
+              primitiveVars.add(_vm.mirrorOf(_encodePrimitive((PrimitiveValue) val)));
+              localVarTypes.append(t.signature().charAt(0));
             }
-            localVarNames.add(_mirrorString(v.name(), toRelease));
-            Value val = thread.frame(0).getValue(v);
-            if (val == null || val instanceof ObjectReference) { localVars.add((ObjectReference) val); }
-            else { localVars.add(_box((PrimitiveValue) val, thread, toRelease)); }
+            if (localVarNames.length() > 0) { localVarNames.append(' '); }
+            localVarNames.append(v.name());
           }
           catch (ClassNotLoadedException e) {
             // This is a real possibility, as documented in the ClassNotLoadedException
@@ -1520,12 +1566,15 @@ public class JPDADebugger implements Debugger {
         }
       }
       catch (AbsentInformationException e) { /* ignore -- we just won't include any local variables */ }
+      StringReference mirroredVarNames = _mirrorString(localVarNames.toString(), toRelease);
+      StringReference mirroredVarTypes = _mirrorString(localVarTypes.toString(), toRelease);
       ArrayReference mirroredVars = _mirrorArray("java.lang.Object", localVars, thread, toRelease);
-      ArrayReference mirroredVarNames = _mirrorArray("java.lang.String", localVarNames, thread, toRelease);
       ArrayReference mirroredVarClasses = _mirrorArray("java.lang.Class", localVarClasses, thread, toRelease);
+      ArrayReference mirroredPrimitiveVars = _mirrorArray("long", primitiveVars, thread, toRelease);
       
       _invokeMethod(thread, _interpreterJVM, "addInterpreter", ADD_INTERPRETER_SIG,
-                    mirroredName, thisVal, thisClass, mirroredVars, mirroredVarNames, mirroredVarClasses);
+                    mirroredName, thisVal, thisClass, mirroredVarNames, mirroredVarTypes, mirroredVars,
+                    mirroredVarClasses, mirroredPrimitiveVars);
       
       // Set the new interpreter and prompt
       String prompt = _getPromptString(thread);
@@ -1567,24 +1616,30 @@ public class JPDADebugger implements Debugger {
     throw new DebugException("Ran out of OBJECT_COLLECTED_TRIES");
   }
   
-  /** Create an array of the given elements in the VM and prevent it from being garbage collected.
-   * @param elementClass the type of the objects in elts
-   * @param elts a list of objects to mirror
+  /** Create an array of the given elements in the VM and prevent it from being garbage collected.  If the array
+   * type is loaded, the array is created without invoking a method in the thread.
+   * @param elementClass the type of the values in elts; either the name of a class or of a primitive type
+   * @param elts a list of values to mirror
    * @param thread a ThreadReference
    * @param toRelease a list of objects
    * @return reference to the mirrored copy of the array
    * @throws DebugException if something goes wrong
    */
-  private ArrayReference _mirrorArray(String elementClass, List<? extends ObjectReference> elts,
+  private ArrayReference _mirrorArray(String elementClass, List<? extends Value> elts,
                                       ThreadReference thread, List<ObjectReference> toRelease)
     throws DebugException {
-    ClassType arrayC = (ClassType) _getClass("java.lang.reflect.Array");
-    ReferenceType elementC = _getClass(elementClass);
+    ArrayType arrayT = null;
+    try { arrayT = (ArrayType) _getClass(elementClass + "[]"); }
+    catch (DebugException e) { /* not loaded -- use Array.newInstance() */ }
     for (int tries = 0; tries < OBJECT_COLLECTED_TRIES; tries++) {
       try {
-        ArrayReference result =
-          (ArrayReference) _invokeStaticMethod(thread, arrayC, "newInstance", NEW_INSTANCE_SIG,
-                                               elementC.classObject(), _vm.mirrorOf(elts.size()));
+        ArrayReference result;
+        if (arrayT != null) { result = arrayT.newInstance(elts.size()); }
+        else {
+          ClassType arrayC = (ClassType) _getClass("java.lang.reflect.Array");
+          result = (ArrayReference) _invokeStaticMethod(thread, arrayC, "newInstance", NEW_INSTANCE_SIG,
+                                                        _getClassObject(elementClass), _vm.mirrorOf(elts.size()));
+        }
         result.disableCollection();
         if (!result.isCollected()) {
           toRelease.add(result);
@@ -1599,52 +1654,40 @@ public class JPDADebugger implements Debugger {
     throw new DebugException("Ran out of OBJECT_COLLECTED_TRIES");
   }
   
-  /** Create a boxed object corresponding to the given primitive.
-   * @param val the value to be boxed
-   * @param thread a ThreadReference
-   * @param toRelease a list of boxed objects
-   * @return the boxed value
-   * @throws DebugException if something goes wrong
+  /** Get the class object of the class or primitive type with the given name.  The class objects of primitive
+   * types are read from the TYPE fields of the corresponding wrapper classes.
+   * @param name the name of a class or of a primitive type
+   * @return the class object
+   * @throws DebugException  If the class is not loaded.
    */
-  private ObjectReference _box(PrimitiveValue val, ThreadReference thread,
-                               List<ObjectReference> toRelease) throws DebugException {
+  private ClassObjectReference _getClassObject(String name) throws DebugException {
     String c = null;
-    String prim = null;
-    if (val instanceof BooleanValue) { c = "java.lang.Boolean"; prim = "Z"; }
-    else if (val instanceof IntegerValue) { c = "java.lang.Integer"; prim = "I"; }
-    else if (val instanceof DoubleValue) { c = "java.lang.Double"; prim = "D"; }
-    else if (val instanceof CharValue) { c = "java.lang.Character"; prim = "C"; }
-    else if (val instanceof ByteValue) { c = "java.lang.Byte"; prim = "B"; }
-    else if (val instanceof ShortValue) { c = "java.lang.Short"; prim = "S"; }
-    else if (val instanceof LongValue) { c = "java.lang.Long"; prim = "J"; }
-    else if (val instanceof FloatValue) { c = "java.lang.Float"; prim = "F"; }
-    ClassType location = (ClassType) _getClass(c);
-    for (int tries = 0; tries < OBJECT_COLLECTED_TRIES; tries++) {
-      try {
-        ObjectReference result;
-        try {
-          String valueOfSig = "(" + prim + ")L" + c.replace('.', '/') + ";";
-          result = (ObjectReference) _invokeStaticMethod(thread, location, "valueOf",
-                                                         valueOfSig, val);
-        }
-        catch (DebugException e) {
-          // valueOf() is not available in all classes in Java 1.4
-          debug.log("Can't invoke valueOf()", e);
-          String consSig = "(" + prim + ")V";
-          result = (ObjectReference) _invokeConstructor(thread, location, consSig, val);
-        }
-        
-        result.disableCollection();
-        if (!result.isCollected()) {
-          toRelease.add(result);
-          return result;
-        }
-      }
-      catch (ObjectCollectedException e) { /* try again */ }
-    }
-    throw new DebugException("Ran out of OBJECT_COLLECTED_TRIES");
+    if (name.equals("boolean")) { c = "java.lang.Boolean"; }
+    else if (name.equals("int")) { c = "java.lang.Integer"; }
+    else if (name.equals("double")) { c = "java.lang.Double"; }
+    else if (name.equals("char")) { c = "java.lang.Character"; }
+    else if (name.equals("byte")) { c = "java.lang.Byte"; }
+    else if (name.equals("short")) { c = "java.lang.Short"; }
+    else if (name.equals("long")) { c = "java.lang.Long"; }
+    else if (name.equals("float")) { c = "java.lang.Float"; }
+    
+    if (c == null) { return _getClass(name).classObject(); }
+    ReferenceType wrapper = _getClass(c);
+    return (ClassObjectReference) wrapper.getValue(wrapper.fieldByName("TYPE"));
   }
   
+  /** Encode a primitive value in a long, as InterpreterJVM.encodePrimitive() does for boxed values.
+   * @param val the value to be encoded
+   * @return the bits of the value
+   * @see edu.rice.cs.drjava.model.repl.newjvm.InterpreterJVM#encodePrimitive
+   */
+  private static long _encodePrimitive(PrimitiveValue val) {
+    if (val instanceof BooleanValue) { return val.booleanValue() ? 1 : 0; }
+    else if (val instanceof CharValue) { return val.charValue(); }
+    else if (val instanceof FloatValue) { return Float.floatToRawIntBits(val.floatValue()); }
+    else if (val instanceof DoubleValue) { return Double.doubleToRawLongBits(val.doubleValue()); }
+    else { return val.longValue(); }
+  }
   
   /** Create an unboxed primitive corresponding to the given object.
    * @param val the value to be unboxed
@@ -1668,7 +1711,13 @@ public class JPDADebugger implements Debugger {
     else if (type.equals("java.lang.Float")) { m = "floatValue"; sig = "()F"; }
     
     if (m == null) { throw new DebugException("Value can't be unboxed"); }
-    else { return (PrimitiveValue) _invokeMethod(thread, val, m, sig); }
+    // read the value field of the wrapper directly rather than invoking a method in the thread
+    Field valueField = val.referenceType().fieldByName("value");
+    if (valueField != null) {
+      Value result = val.getValue(valueField);
+      if (result instanceof PrimitiveValue) { return (PrimitiveValue) result; }
+    }
+    return (PrimitiveValue) _invokeMethod(thread, val, m, sig);
   }
   
   
@@ -1788,8 +1837,8 @@ public class JPDADebugger implements Debugger {
   }
   
   /** Assumes lock is already held.
-   * @see edu.rice.cs.drjava.model.repl.newjvm.InterpreterJVM#getVariableValue
-   * @see #GET_VARIABLE_VALUE_SIG
+   * @see edu.rice.cs.drjava.model.repl.newjvm.InterpreterJVM#getVariableValues
+   * @see #GET_VARIABLE_VALUES_SIG
    * @throws DebugException if something goes wrong
    */
   private void _copyVariablesFromInterpreter() throws DebugException {
@@ -1798,13 +1847,22 @@ public class JPDADebugger implements Debugger {
     List<ObjectReference> toRelease = new LinkedList<ObjectReference>();
     try {
       // we don't store _runningThread.frame(0) anywhere because it is invalidated
-      // every time we invoke a method in the thread (getVariable, for example)
-      for (LocalVariable var : _runningThread.frame(0).visibleVariables()) {
+      // every time we invoke a method in the thread (getVariableValues, for example)
+      List<LocalVariable> vars = _runningThread.frame(0).visibleVariables();
+      StringBuilder names = new StringBuilder();
+      for (LocalVariable var : vars) {
+        if (names.length() > 0) { names.append(' '); }
+        names.append(var.name());
+      }
+      // fetch the values of all variables with a single method invocation
+      ArrayReference wrappedVals =
+        (ArrayReference) _invokeMethod(_runningThread, _interpreterJVM, "getVariableValues",
+                                       GET_VARIABLE_VALUES_SIG, _mirrorString(names.toString(), toRelease));
+      if (wrappedVals == null) { return; }
+      for (int i = 0; i < vars.size(); i++) {
+        LocalVariable var = vars.get(i);
         Value oldVal = _runningThread.frame(0).getValue(var);
-        StringReference name = _mirrorString(var.name(), toRelease);
-        ArrayReference wrappedVal =
-          (ArrayReference) _invokeMethod(_runningThread, _interpreterJVM, "getVariableValue",
-                                         GET_VARIABLE_VALUE_SIG, name);
+        ArrayReference wrappedVal = (ArrayReference) wrappedVals.getValue(i);
         if ((wrappedVal != null) && (wrappedVal.length() == 1)) { // if it can't be found (length is 0), just ignore it
           try {
             Value val = wrappedVal.getValue(0);
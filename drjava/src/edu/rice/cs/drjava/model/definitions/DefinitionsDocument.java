@@ -660,6 +660,7 @@ public class DefinitionsDocument extends AbstractDJDocument implements Finalizab
     
     // Check cache
     final Query key = new Query.EnclosingClassName(pos, qual);
+    final long stamp = _cacheStamp();
     final String cached = (String) _checkCache(key);
     if (cached != null) return cached;
     
@@ -761,7 +762,7 @@ public class DefinitionsDocument extends AbstractDJDocument implements Finalizab
       }
     }
 //    log = oldLog;
-    _storeInCache(key, name, pos);
+    _storeInCache(key, name, pos, stamp);
     return name;
   }
   
@@ -780,6 +781,7 @@ public class DefinitionsDocument extends AbstractDJDocument implements Finalizab
     
     // Check cache
     final Query key = new Query.AnonymousInnerClass(pos, openCurlyPos);
+    final long stamp = _cacheStamp();
     Boolean cached = (Boolean) _checkCache(key);
     if (cached != null) {
 //      System.err.println(" ==> " + cached);
@@ -835,7 +837,7 @@ public class DefinitionsDocument extends AbstractDJDocument implements Finalizab
         }
       }
     }
-    _storeInCache(key, cached, openCurlyPos);
+    _storeInCache(key, cached, openCurlyPos, stamp);
 //      System.err.println(" ==> " + cached);
     return cached;
 //    }
@@ -884,6 +886,7 @@ public class DefinitionsDocument extends AbstractDJDocument implements Finalizab
     
     // Check cache
     final Query key = new Query.AnonymousInnerClassIndex(pos);
+    final long stamp = _cacheStamp();
     final Integer cached = (Integer) _checkCache(key);
     if (cached != null) {
 //      log = oldLog;
@@ -949,7 +952,7 @@ public class DefinitionsDocument extends AbstractDJDocument implements Finalizab
         else ++index;
       }
     }
-    _storeInCache(key, index, pos);
+    _storeInCache(key, index, pos, stamp);
 //    oldLog = log;
     return index;
   }
@@ -282,6 +282,99 @@ public final class DefinitionsDocumentTest extends MultiThreadedTestCase impleme
     assertEquals(2, v.get(0).getLength());
   }
   
+  /** Tests that a cached failure to find the next enclosing brace is invalidated when the brace is typed.
+    * @throws BadLocationException if attempts to reference an invalid location
+    */
+  public void testNextEnclosingBraceCacheInvalidation() throws BadLocationException {
+    Utilities.invokeAndWait(new Runnable() {
+      public void run() {
+        try {
+          _doc.insertString(0, "class A {\n  int x;\n", null);
+          assertEquals("no closing brace", -1, _doc.findNextEnclosingBrace(12, '{', '}'));
+          _doc.insertString(_doc.getLength(), "}", null);
+          assertEquals("closing brace typed", _doc.getLength() - 1, _doc.findNextEnclosingBrace(12, '{', '}'));
+        }
+        catch(BadLocationException e) { throw new UnexpectedException(e); }
+      }
+    });
+  }
+  
+  /** Tests that a cached line far from an edit is recomputed when the edit changes the state in which it starts, even
+    * though the lines in between are not cached.
+    * @throws BadLocationException if attempts to reference an invalid location
+    */
+  public void testHighlightCacheSparse() throws BadLocationException {
+    Utilities.invokeAndWait(new Runnable() {
+      public void run() {
+        try {
+          _doc.insertString(0, "int a;\nint b;\nint c;\nint d;", null);
+          List<HighlightStatus> v = _doc.getHighlightStatus(21, 27);
+          assertEquals("line 4 before", HighlightStatus.TYPE, v.get(0).getState());
+          
+          _doc.insertString(0, "/*", null);
+          v = _doc.getHighlightStatus(23, 29);
+          _checkHighlightStatusConsistent(v, 23, 29);
+          assertEquals("line 4 commented", 1, v.size());
+          assertEquals("line 4 commented", HighlightStatus.COMMENTED, v.get(0).getState());
+          
+          _doc.remove(0, 2);
+          v = _doc.getHighlightStatus(21, 27);
+          assertEquals("line 4 after", HighlightStatus.TYPE, v.get(0).getState());
+        }
+        catch(BadLocationException e) { throw new UnexpectedException(e); }
+      }
+    });
+  }
+  
+  /** Tests that cached line highlighting is invalidated when an edit changes the state at the start of later lines,
+    * and that it is restored when the edit is undone by a second edit.
+    * @throws BadLocationException if attempts to reference an invalid location
+    */
+  public void testHighlightCacheInvalidation() throws BadLocationException {
+    Utilities.invokeAndWait(new Runnable() {
+      public void run() {
+        try {
+          _doc.insertString(0, "int a;\nint b;\nint c;", null);
+          List<HighlightStatus> v;
+          // Populate the cache for the last two lines
+          v = _doc.getHighlightStatus(7, 13);
+          _checkHighlightStatusConsistent(v, 7, 13);
+          assertEquals("line 2 before", HighlightStatus.TYPE, v.get(0).getState());
+          v = _doc.getHighlightStatus(14, 20);
+          assertEquals("line 3 before", HighlightStatus.TYPE, v.get(0).getState());
+          
+          // Open a block comment on the first line; the cached lines below must be recomputed
+          _doc.insertString(0, "/*", null);
+          v = _doc.getHighlightStatus(9, 15);
+          _checkHighlightStatusConsistent(v, 9, 15);
+          assertEquals("line 2 commented", 1, v.size());
+          assertEquals("line 2 commented", HighlightStatus.COMMENTED, v.get(0).getState());
+          v = _doc.getHighlightStatus(16, 22);
+          assertEquals("line 3 commented", HighlightStatus.COMMENTED, v.get(0).getState());
+          
+          // A request for part of a line is answered from the cached line
+          v = _doc.getHighlightStatus(18, 20);
+          _checkHighlightStatusConsistent(v, 18, 20);
+          assertEquals("partial line", HighlightStatus.COMMENTED, v.get(0).getState());
+          
+          // Remove the comment opener
+          _doc.remove(0, 2);
+          v = _doc.getHighlightStatus(14, 20);
+          _checkHighlightStatusConsistent(v, 14, 20);
+          assertEquals("line 3 after", HighlightStatus.TYPE, v.get(0).getState());
+          assertEquals("line 3 after", 3, v.get(0).getLength());
+          
+          // Edit within a cached line
+          _doc.insertString(7, "x", null);
+          v = _doc.getHighlightStatus(7, 14);
+          _checkHighlightStatusConsistent(v, 7, 14);
+          assertEquals("edited line", HighlightStatus.NORMAL, v.get(0).getState());
+        }
+        catch(BadLocationException e) { throw new UnexpectedException(e); }
+      }
+    });
+  }
+  
   /** Test going to the second line in a two-line document.
    * @throws BadLocationException if attempts to reference an invalid location
    */
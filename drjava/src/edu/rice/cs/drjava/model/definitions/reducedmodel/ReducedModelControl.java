@@ -321,6 +321,9 @@ public class ReducedModelControl implements BraceReduction {
   }
   
   
+  /** @return the number of tokens in the brace and comment models; a measure of the memory they use */
+  public int getTokenCount() { return _rmb._tokens.length() + _rmc._tokens.length(); }
+  
   /** A toString() substitute. */
   public String simpleString() {
     return "\n********\n" + _rmb.simpleString() + "\n________\n" + _rmc.simpleString();
@@ -0,0 +1,925 @@
+/*BEGIN_COPYRIGHT_BLOCK
+ *
+ * Copyright (c) 2001-2010, JavaPLT group at Rice University (drjava@rice.edu)
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    * Redistributions of source code must retain the above copyright
+ *      notice, this list of conditions and the following disclaimer.
+ *    * Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in the
+ *      documentation and/or other materials provided with the distribution.
+ *    * Neither the names of DrJava, the JavaPLT group, Rice University, nor the
+ *      names of its contributors may be used to endorse or promote products
+ *      derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This software is Open Source Initiative approved Open Source Software.
+ * Open Source Initative Approved is a trademark of the Open Source Initiative.
+ * 
+ * This file is part of DrJava.  Download the current version of this project
+ * from http://www.drjava.org/ or http://sourceforge.net/projects/drjava/
+ * 
+ * END_COPYRIGHT_BLOCK*/
+
+package edu.rice.cs.drjava.model.definitions.reducedmodel;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+/** An implementation of the BraceReduction interface that keeps the text of the document in a balanced tree (a 
+  * treap) of chunks of characters instead of the linked token lists of ReducedModelControl.  Each node of the tree
+  * summarizes its subtree: its length, its number of newlines, and, for every state in which a lexical scan could 
+  * enter the subtree, the state in which the scan leaves it and the unmatched braces that are not shadowed by comments
+  * or quotes.  The cursor is just an offset, so moving it takes constant time; finding the state at an offset, 
+  * inserting, and deleting take time logarithmic in the length of the document; and brace matching skips whole 
+  * subtrees in which the matching brace cannot lie.  The tokens seen through currentToken() and getHighlightStatus()
+  * are the same as the ones ReducedModelControl builds:
+  * <ul>
+  * <li> The characters / * \ ' " and newline are special.  Runs of other characters form gaps.
+  * <li> Outside of comments and quotes, // and /* open comments; inside a block comment, * / closes it.
+  * <li> A backslash followed by a backslash or a quote forms an escape in any state.
+  * <li> Only the braces {, }, (, ), [, and ] that are not shadowed are matched.
+  * </ul>
+  * The summaries are recomputed lazily, so inserting a whole file character by character stays linear.  All of the
+  * code in this class assumes that the document read lock and the lock on this are held.
+  * @version $Id$
+  */
+public class ReducedModelTree implements BraceReduction, ReducedModelStates {
+  
+  /* The states of the lexical scan.  The pending states record a character that may combine with the next one. */
+  static final int SCAN_FREE = 0;
+  static final int SCAN_SLASH = 1;              // after a free /
+  static final int SCAN_BACKSLASH = 2;          // after a free \
+  static final int SCAN_LINE = 3;
+  static final int SCAN_LINE_BACKSLASH = 4;
+  static final int SCAN_BLOCK = 5;
+  static final int SCAN_STAR = 6;               // after a * inside a block comment
+  static final int SCAN_BLOCK_BACKSLASH = 7;
+  static final int SCAN_SINGLE = 8;
+  static final int SCAN_SINGLE_BACKSLASH = 9;
+  static final int SCAN_DOUBLE = 10;
+  static final int SCAN_DOUBLE_BACKSLASH = 11;
+  static final int SCAN_STATES = 12;
+  
+  /* The classes of characters that the lexical scan distinguishes. */
+  private static final int CHAR_OTHER = 0;
+  private static final int CHAR_SLASH = 1;
+  private static final int CHAR_STAR = 2;
+  private static final int CHAR_BACKSLASH = 3;
+  private static final int CHAR_SINGLE_QUOTE = 4;
+  private static final int CHAR_DOUBLE_QUOTE = 5;
+  private static final int CHAR_NEWLINE = 6;
+  private static final int CHAR_CLASSES = 7;
+  
+  /** The transitions of the lexical scan, indexed by state * CHAR_CLASSES + character class. */
+  private static final byte[] TRANSITIONS = new byte[SCAN_STATES * CHAR_CLASSES];
+  static {
+    for (int s = 0; s < SCAN_STATES; s++) {
+      for (int c = 0; c < CHAR_CLASSES; c++) TRANSITIONS[s * CHAR_CLASSES + c] = (byte) _transition(s, c);
+    }
+  }
+  
+  /** The braces that are matched; an opening brace is immediately followed by its closing brace. */
+  private static final String BRACES = "{}()[]";
+  
+  /** The maximum number of unmatched braces kept in a summary; longer runs are scanned. */
+  private static final int MAX_RUN = 64;
+  
+  /** The maximum number of characters in the chunk of a node. */
+  static final int MAX_CHUNK = 256;
+  
+  /** The unmatched braces of a stretch of text that are not shadowed.  A stretch without braces is EMPTY.  A stretch
+    * in which a closing brace does not match the opening brace it closes, or that has more than MAX_RUN unmatched 
+    * braces, is summarized by null, so it must be scanned.
+    */
+  private static final class BraceRun {
+    static final BraceRun EMPTY = new BraceRun("", "");
+    
+    /** The closing braces without an opening brace in the stretch, from left to right. */
+    final String _closed;
+    /** The opening braces without a closing brace in the stretch, from left to right. */
+    final String _open;
+    
+    BraceRun(String closed, String open) {
+      _closed = closed;
+      _open = open;
+    }
+    
+    /** @return the summary of the stretch of a followed by the stretch of b */
+    static BraceRun compose(BraceRun a, BraceRun b) {
+      if (a == null || b == null) return null;
+      if (b == EMPTY) return a;
+      if (a == EMPTY) return b;
+      int k = Math.min(a._open.length(), b._closed.length());
+      for (int j = 0; j < k; j++) {
+        if (! _isMatch(a._open.charAt(a._open.length() - 1 - j), b._closed.charAt(j))) return null;
+      }
+      String closed = (k == b._closed.length()) ? a._closed : a._closed + b._closed.substring(k);
+      String open = (k == 0) ? a._open + b._open : a._open.substring(0, a._open.length() - k) + b._open;
+      if (closed.length() + open.length() > MAX_RUN) return null;
+      if (closed.length() == 0 && open.length() == 0) return EMPTY;
+      return new BraceRun(closed, open);
+    }
+  }
+  
+  /** A node of the treap.  The chunk summaries depend only on the characters of the node; the subtree summaries 
+    * are recomputed by _update when the node is dirty.
+    */
+  private static final class Node {
+    final int _priority;
+    Node _left;
+    Node _right;
+    final char[] _chars = new char[MAX_CHUNK];
+    int _count;
+    int _chunkNewlines;
+    boolean _chunkDirty = true;
+    final byte[] _chunkExit = new byte[SCAN_STATES];
+    final BraceRun[] _chunkBraces = new BraceRun[SCAN_STATES];
+    
+    /** The number of characters in the subtree. */
+    int _length;
+    /** The number of newlines in the subtree. */
+    int _newlines;
+    boolean _dirty = true;
+    final byte[] _exit = new byte[SCAN_STATES];
+    final BraceRun[] _braces = new BraceRun[SCAN_STATES];
+    
+    Node(int priority) { _priority = priority; }
+  }
+  
+  /** A brace matching in progress. */
+  private static final class Match {
+    /** The unmatched braces seen so far; the most recent one is last. */
+    final StringBuilder _stack = new StringBuilder();
+    /** The absolute offset of the match, or -1. */
+    int _found = -1;
+    boolean _failed = false;
+    /** The state of the scan before the next character in a forward match. */
+    int _state;
+  }
+  
+  private final Random _random = new Random();
+  private Node _root = null;
+  private int _cursor = 0;
+  private int _walker = 0;
+  
+  /** @return the number of characters in the document */
+  public int getLength() { return _length(_root); }
+  
+  public int absOffset() { return _cursor; }
+  
+  public void insertChar(char ch) {
+    if (_root == null) {
+      _root = new Node(_random.nextInt());
+      _root._chars[0] = ch;
+      _root._count = 1;
+      if (ch == '\n') _root._chunkNewlines = 1;
+      _measure(_root);
+    }
+    else _root = _insert(_root, _cursor, ch);
+    _cursor++;
+  }
+  
+  /** Updates the BraceReduction to reflect cursor movement.  Negative values move left; positive values move right.
+    * @param count indicates the direction and magnitude of cursor movement
+    * @throws IllegalArgumentException if the move would leave the document
+    */
+  public void move(int count) {
+    int target = _cursor + count;
+    if (target < 0 || target > getLength()) {
+      throw new IllegalArgumentException("Cannot move from " + _cursor + " by " + count);
+    }
+    _cursor = target;
+  }
+  
+  /** Updates the BraceReduction to reflect text deletion.
+    * @param count  A number indicating the size and direction of text deletion. Negative values delete text to the left
+    *               of the cursor, positive values delete text to the right.
+    * @throws IllegalArgumentException if the deletion would leave the document
+    */
+  public void delete(int count) {
+    if (count == 0) return;
+    int from = (count > 0) ? _cursor : _cursor + count;
+    int length = Math.abs(count);
+    if (from < 0 || from + length > getLength()) {
+      throw new IllegalArgumentException("Trying to delete past end of file.");
+    }
+    _root = _delete(_root, from, length);
+    _cursor = from;
+  }
+  
+  /** @return true if the cursor position is shadowed by a comment or quotes (not including the "brace" opening them) */
+  public boolean isShadowed() { return getStateAtCurrent() != FREE; }
+  
+  public ReducedModelState getStateAtCurrent() { return _toState(_scanState(_cursor)); }
+  
+  /** Returns the state at the relDistance, where relDistance is relative to the last time it was called.  You can reset
+    * the last call to the current offset using resetLocation.
+    */
+  public ReducedModelState moveWalkerGetState(int relDistance) {
+    _walker += relDistance;
+    return _toState(_scanState(_walker));
+  }
+  
+  public void resetLocation() { _walker = _cursor; }
+  
+  /** Gets the token at the cursor: a comment, quote, escape, or newline "brace" if the cursor is in one, a brace if the
+    * cursor is at one, and otherwise the gap between them.
+    * @return the token at the cursor, or null at the end of the document
+    */
+  public ReducedToken currentToken() {
+    int length = getLength();
+    if (_cursor >= length) return null;
+    int[] token = _commentToken(_cursor);
+    int start = token[0];
+    int size = token[1];
+    char ch = _charAt(_cursor);
+    if (_isSpecial(_charAt(start))) {
+      String type = _text(start, start + size);
+      Brace brace = Brace.MakeBrace(type, _tokenState(token[2], type));
+      if (_isClosingQuote(token[2], type)) brace.flip();
+      return brace;
+    }
+    if (BRACES.indexOf(ch) >= 0) return Brace.MakeBrace(String.valueOf(ch), getStateAtCurrent());
+    
+    // a gap without specials or braces
+    start = _cursor;
+    while (start > 0 && _isPlain(_charAt(start - 1))) start--;
+    int end = _cursor + 1;
+    while (end < length && _isPlain(_charAt(end))) end++;
+    return new Gap(end - start, getStateAtCurrent());
+  }
+  
+  /** Finds the closing brace that matches the next significant brace iff that brace is an open brace. Fails when 
+    * brace is shadowed.
+    * @return the distance until the matching closing brace.  On failure, returns -1.
+    * @see #balanceBackward()
+    */
+  public int balanceForward() {
+    if (_cursor == 0 || ! _isOpening(_charAt(_cursor - 1)) || isShadowed()) return -1;
+    Match m = new Match();
+    m._stack.append(_charAt(_cursor - 1));
+    m._state = _scanState(_cursor);
+    _forward(_root, _cursor, 0, m);
+    return (m._found < 0) ? -1 : m._found + 1 - _cursor;
+  }
+  
+  /** Finds the open brace that matches the previous significant brace iff that brace is an closing brace. Fails when
+    * brace is shadowed.
+    * @return the distance until the matching open brace.  On failure, returns -1.
+    * @see #balanceForward()
+    */
+  public int balanceBackward() {
+    if (_cursor == 0 || ! _isClosing(_charAt(_cursor - 1)) || isShadowed()) return -1;
+    Match m = new Match();
+    m._stack.append(_charAt(_cursor - 1));
+    _backward(_root, _cursor - 1, 0, SCAN_FREE, m);
+    return (m._found < 0) ? -1 : _cursor - m._found;
+  }
+  
+  /** @param relLoc the distance back from the cursor to start searching
+    * @return distance from the cursor to the character after the last newline before cursor - relLoc, or -1 if there 
+    *         is none
+    */
+  public int getDistToStart(int relLoc) {
+    int newline = _lastNewline(_root, _cursor - relLoc, 0);
+    return (newline < 0) ? -1 : _cursor - newline - 1;
+  }
+  
+  /** @return distance from the cursor to the next newline (the end of the document if there is none) */
+  public int getDistToNextNewline() {
+    int newline = _firstNewline(_root, _cursor, 0);
+    return ((newline < 0) ? getLength() : newline) - _cursor;
+  }
+  
+  /** A toString() substitute: the text of the document with the cursor shown as |. */
+  public String simpleString() { return _text(0, _cursor) + "|" + _text(_cursor, getLength()); }
+  
+  /** Return all highlight status info for text between the current location and current location + length.  Adjoining
+    * blocks with the same status are collapsed into one.
+    * @param start  The start location of the area being inspected.  The reduced model cursor is already set at this
+    *               position, but this value is needed to compute the absolute positions of HighlightStatus objects.
+    * @param length The length of the text segment for which status information must be generated.
+    */
+  public ArrayList<HighlightStatus> getHighlightStatus(final int start, final int length) {
+    ArrayList<HighlightStatus> vec = new ArrayList<HighlightStatus>();
+    int docLength = getLength();
+    if (_cursor >= docLength) {
+      vec.add(new HighlightStatus(start, length, HighlightStatus.NORMAL));
+      return vec;
+    }
+    
+    int[] token = _commentToken(_cursor);
+    int from = token[0];
+    int base = token[2];
+    int requestEnd = _cursor + length;
+    // one more character tells whether the last special character combines with the next one
+    String text = _text(from, Math.min(docLength, Math.max(requestEnd, _cursor + 1) + 1));
+    
+    int curLocation = start;
+    int curLength = 0;
+    int curState = -1;
+    int i = 0;
+    while (i < text.length() && (from + i < requestEnd || curState < 0)) {
+      int size = _tokenSize(base, text, i);
+      String type = _isSpecial(text.charAt(i)) ? text.substring(i, i + size) : "";
+      int state = _highlightState(base, type);
+      int tokenLength = from + i + size - Math.max(from + i, _cursor);
+      if (state == curState) curLength += tokenLength;
+      else {
+        if (curState >= 0) vec.add(new HighlightStatus(curLocation, curLength, curState));
+        curLocation += curLength;
+        curLength = tokenLength;
+        curState = state;
+      }
+      base = _base(_scan(base, text, i, i + size));
+      i += size;
+    }
+    
+    // the blocks only cover [start, start + length)
+    if (curLocation + curLength > start + length) curLength = start + length - curLocation;
+    vec.add(new HighlightStatus(curLocation, curLength, curState));
+    return vec;
+  }
+  
+  /* Lexical scanning. */
+  
+  private static int _charClass(char ch) {
+    switch (ch) {
+      case '/': return CHAR_SLASH;
+      case '*': return CHAR_STAR;
+      case '\\': return CHAR_BACKSLASH;
+      case '\'': return CHAR_SINGLE_QUOTE;
+      case '"': return CHAR_DOUBLE_QUOTE;
+      case '\n': return CHAR_NEWLINE;
+      default: return CHAR_OTHER;
+    }
+  }
+  
+  /** Computes the entries of TRANSITIONS. */
+  private static int _transition(int state, int c) {
+    boolean escaped = (c == CHAR_BACKSLASH || c == CHAR_SINGLE_QUOTE || c == CHAR_DOUBLE_QUOTE);
+    switch (state) {
+      case SCAN_SLASH:
+        if (c == CHAR_SLASH) return SCAN_LINE;
+        if (c == CHAR_STAR) return SCAN_BLOCK;
+        return _transition(SCAN_FREE, c);
+      case SCAN_BACKSLASH: return escaped ? SCAN_FREE : _transition(SCAN_FREE, c);
+      case SCAN_LINE_BACKSLASH: return escaped ? SCAN_LINE : _transition(SCAN_LINE, c);
+      case SCAN_BLOCK_BACKSLASH: return escaped ? SCAN_BLOCK : _transition(SCAN_BLOCK, c);
+      case SCAN_SINGLE_BACKSLASH: return escaped ? SCAN_SINGLE : _transition(SCAN_SINGLE, c);
+      case SCAN_DOUBLE_BACKSLASH: return escaped ? SCAN_DOUBLE : _transition(SCAN_DOUBLE, c);
+      case SCAN_STAR: 
+        if (c == CHAR_SLASH) return SCAN_FREE;
+        return _transition(SCAN_BLOCK, c);
+      case SCAN_FREE:
+        switch (c) {
+          case CHAR_SLASH: return SCAN_SLASH;
+          case CHAR_BACKSLASH: return SCAN_BACKSLASH;
+          case CHAR_SINGLE_QUOTE: return SCAN_SINGLE;
+          case CHAR_DOUBLE_QUOTE: return SCAN_DOUBLE;
+          default: return SCAN_FREE;
+        }
+      case SCAN_LINE:
+        if (c == CHAR_NEWLINE) return SCAN_FREE;
+        return (c == CHAR_BACKSLASH) ? SCAN_LINE_BACKSLASH : SCAN_LINE;
+      case SCAN_BLOCK:
+        if (c == CHAR_STAR) return SCAN_STAR;
+        return (c == CHAR_BACKSLASH) ? SCAN_BLOCK_BACKSLASH : SCAN_BLOCK;
+      case SCAN_SINGLE:
+        if (c == CHAR_SINGLE_QUOTE || c == CHAR_NEWLINE) return SCAN_FREE;
+        return (c == CHAR_BACKSLASH) ? SCAN_SINGLE_BACKSLASH : SCAN_SINGLE;
+      case SCAN_DOUBLE:
+        if (c == CHAR_DOUBLE_QUOTE || c == CHAR_NEWLINE) return SCAN_FREE;
+        return (c == CHAR_BACKSLASH) ? SCAN_DOUBLE_BACKSLASH : SCAN_DOUBLE;
+      default: throw new IllegalArgumentException("Unknown state " + state);
+    }
+  }
+  
+  private static int _next(int state, char ch) { return TRANSITIONS[state * CHAR_CLASSES + _charClass(ch)]; }
+  
+  /** @return the state of the scan of text[from, to) that starts in the given state */
+  private static int _scan(int state, CharSequence text, int from, int to) {
+    for (int i = from; i < to; i++) state = _next(state, text.charAt(i));
+    return state;
+  }
+  
+  /** @return the state in which the token that ends in the given state started, if it is pending; otherwise state */
+  private static int _base(int state) {
+    switch (state) {
+      case SCAN_SLASH:
+      case SCAN_BACKSLASH: return SCAN_FREE;
+      case SCAN_LINE_BACKSLASH: return SCAN_LINE;
+      case SCAN_STAR:
+      case SCAN_BLOCK_BACKSLASH: return SCAN_BLOCK;
+      case SCAN_SINGLE_BACKSLASH: return SCAN_SINGLE;
+      case SCAN_DOUBLE_BACKSLASH: return SCAN_DOUBLE;
+      default: return state;
+    }
+  }
+  
+  private static ReducedModelState _toState(int state) {
+    switch (_base(state)) {
+      case SCAN_LINE: return INSIDE_LINE_COMMENT;
+      case SCAN_BLOCK: return INSIDE_BLOCK_COMMENT;
+      case SCAN_SINGLE: return INSIDE_SINGLE_QUOTE;
+      case SCAN_DOUBLE: return INSIDE_DOUBLE_QUOTE;
+      default: return FREE;
+    }
+  }
+  
+  /** @return true if a brace scanned in the given state is not shadowed */
+  private static boolean _isFree(int state) { return _base(state) == SCAN_FREE; }
+  
+  /** @return true if ch is one of the characters from which ReducedModelComment builds its "braces" */
+  private static boolean _isSpecial(char ch) { return _charClass(ch) != CHAR_OTHER; }
+  
+  /** @return true if ch is neither special nor a brace */
+  private static boolean _isPlain(char ch) { return ! _isSpecial(ch) && BRACES.indexOf(ch) < 0; }
+  
+  private static boolean _isOpening(char ch) { return ch == '{' || ch == '(' || ch == '['; }
+  
+  private static boolean _isClosing(char ch) { return ch == '}' || ch == ')' || ch == ']'; }
+  
+  private static boolean _isMatch(char open, char closed) {
+    int i = BRACES.indexOf(open);
+    return i >= 0 && i % 2 == 0 && BRACES.charAt(i + 1) == closed;
+  }
+  
+  /** @return true if the special characters first and second, seen in the given base state, form one token */
+  private static boolean _combines(int base, char first, char second) {
+    switch (first) {
+      case '/': return base == SCAN_FREE && (second == '/' || second == '*');
+      case '*': return base == SCAN_BLOCK && second == '/';
+      case '\\': return second == '\\' || second == '\'' || second == '"';
+      default: return false;
+    }
+  }
+  
+  /** @return the size of the token of ReducedModelComment that starts at text[i] in the given base state */
+  private static int _tokenSize(int base, CharSequence text, int i) {
+    char ch = text.charAt(i);
+    if (_isSpecial(ch)) return (i + 1 < text.length() && _combines(base, ch, text.charAt(i + 1))) ? 2 : 1;
+    int j = i + 1;
+    while (j < text.length() && ! _isSpecial(text.charAt(j))) j++;
+    return j - i;
+  }
+  
+  /** @return the state ReducedModelComment gives to the special token of the given type that starts in base */
+  private static ReducedModelState _tokenState(int base, String type) {
+    switch (base) {
+      case SCAN_LINE: return type.equals("\n") ? FREE : INSIDE_LINE_COMMENT;
+      case SCAN_BLOCK: return type.equals("*/") ? FREE : INSIDE_BLOCK_COMMENT;
+      case SCAN_SINGLE: return (type.equals("'") || type.equals("\n")) ? FREE : INSIDE_SINGLE_QUOTE;
+      case SCAN_DOUBLE: return (type.equals("\"") || type.equals("\n")) ? FREE : INSIDE_DOUBLE_QUOTE;
+      default: return FREE;
+    }
+  }
+  
+  private static boolean _isClosingQuote(int base, String type) {
+    return (base == SCAN_SINGLE && type.equals("'")) || (base == SCAN_DOUBLE && type.equals("\""));
+  }
+  
+  /** @return the highlight state of a token of the given type (empty for a gap) that starts in base, as computed by
+    *         ReducedToken.getHighlightState()
+    */
+  private static int _highlightState(int base, String type) {
+    ReducedModelState state = (type.length() == 0) ? _toState(base) : _tokenState(base, type);
+    if (type.equals("//") || type.equals("/*") || type.equals("*/") || state == INSIDE_LINE_COMMENT || 
+        state == INSIDE_BLOCK_COMMENT) return HighlightStatus.COMMENTED;
+    if ((type.equals("'") && state == FREE) || state == INSIDE_SINGLE_QUOTE) return HighlightStatus.SINGLE_QUOTED;
+    if ((type.equals("\"") && state == FREE) || state == INSIDE_DOUBLE_QUOTE) return HighlightStatus.DOUBLE_QUOTED;
+    return HighlightStatus.NORMAL;
+  }
+  
+  /** Finds the token of ReducedModelComment that contains offset, which is less than the length of the document.
+    * @return the start of the token, its size, and the base state in which it starts
+    */
+  private int[] _commentToken(int offset) {
+    int state = _scanState(offset);
+    int base = _base(state);
+    char ch = _charAt(offset);
+    if (base != state && _combines(base, _charAt(offset - 1), ch)) return new int[] { offset - 1, 2, base };
+    if (_isSpecial(ch)) {
+      boolean combined = offset + 1 < getLength() && _combines(base, ch, _charAt(offset + 1));
+      return new int[] { offset, combined ? 2 : 1, base };
+    }
+    int start = offset;
+    while (start > 0 && ! _isSpecial(_charAt(start - 1))) start--;
+    int end = offset + 1;
+    while (end < getLength() && ! _isSpecial(_charAt(end))) end++;
+    return new int[] { start, end - start, base };
+  }
+  
+  /* Tree queries. */
+  
+  private static int _length(Node t) { return (t == null) ? 0 : t._length; }
+  
+  private static int _newlines(Node t) { return (t == null) ? 0 : t._newlines; }
+  
+  /** @return the state in which a scan that enters t in the given state leaves it */
+  private static int _exit(Node t, int state) {
+    if (t == null) return state;
+    _update(t);
+    return t._exit[state];
+  }
+  
+  /** @return the state of the scan from the start of the document to offset */
+  private int _scanState(int offset) {
+    int state = SCAN_FREE;
+    Node t = _root;
+    while (t != null) {
+      int leftLength = _length(t._left);
+      if (offset < leftLength) {
+        t = t._left;
+        continue;
+      }
+      state = _exit(t._left, state);
+      offset -= leftLength;
+      if (offset <= t._count) {
+        for (int i = 0; i < offset; i++) state = _next(state, t._chars[i]);
+        return state;
+      }
+      if (t._chunkDirty) _summarizeChunk(t);
+      state = t._chunkExit[state];
+      offset -= t._count;
+      t = t._right;
+    }
+    return state;
+  }
+  
+  private char _charAt(int offset) {
+    Node t = _root;
+    while (true) {
+      int leftLength = _length(t._left);
+      if (offset < leftLength) t = t._left;
+      else if (offset < leftLength + t._count) return t._chars[offset - leftLength];
+      else {
+        offset -= leftLength + t._count;
+        t = t._right;
+      }
+    }
+  }
+  
+  /** @return the text from offset from to offset to */
+  String _text(int from, int to) {
+    StringBuilder sb = new StringBuilder(to - from);
+    _append(_root, from, to, sb);
+    return sb.toString();
+  }
+  
+  private static void _append(Node t, int from, int to, StringBuilder sb) {
+    if (t == null || from >= to) return;
+    int leftLength = _length(t._left);
+    if (from < leftLength) _append(t._left, from, Math.min(to, leftLength), sb);
+    int start = Math.max(from - leftLength, 0);
+    int end = Math.min(to - leftLength, t._count);
+    if (start < end) sb.append(t._chars, start, end - start);
+    int rightStart = leftLength + t._count;
+    if (to > rightStart) _append(t._right, Math.max(from - rightStart, 0), to - rightStart, sb);
+  }
+  
+  /** @return the offset of the last newline before offset to in t, or -1; base is the offset of t */
+  private static int _lastNewline(Node t, int to, int base) {
+    if (t == null || to <= 0 || t._newlines == 0) return -1;
+    int leftLength = _length(t._left);
+    int chunkEnd = leftLength + t._count;
+    if (to > chunkEnd) {
+      int result = _lastNewline(t._right, to - chunkEnd, base + chunkEnd);
+      if (result >= 0) return result;
+    }
+    if (to > leftLength && t._chunkNewlines > 0) {
+      for (int i = Math.min(to, chunkEnd) - leftLength - 1; i >= 0; i--) {
+        if (t._chars[i] == '\n') return base + leftLength + i;
+      }
+    }
+    return _lastNewline(t._left, Math.min(to, leftLength), base);
+  }
+  
+  /** @return the offset of the first newline at or after offset from in t, or -1; base is the offset of t */
+  private static int _firstNewline(Node t, int from, int base) {
+    if (t == null || from >= t._length || t._newlines == 0) return -1;
+    int leftLength = _length(t._left);
+    int chunkEnd = leftLength + t._count;
+    if (from < leftLength) {
+      int result = _firstNewline(t._left, from, base);
+      if (result >= 0) return result;
+    }
+    if (from < chunkEnd && t._chunkNewlines > 0) {
+      for (int i = Math.max(from - leftLength, 0); i < t._count; i++) {
+        if (t._chars[i] == '\n') return base + leftLength + i;
+      }
+    }
+    return _firstNewline(t._right, Math.max(from - chunkEnd, 0), base + chunkEnd);
+  }
+  
+  /** Continues the forward match m from offset from in t, skipping whole subtrees whose summary shows the match is 
+    * not in them.  The scan state of m is the state at from.
+    * @param base the offset of t
+    * @return true if the match succeeded or failed in t
+    */
+  private boolean _forward(Node t, int from, int base, Match m) {
+    if (t == null || from >= t._length) return false;
+    if (from == 0) {
+      _update(t);
+      BraceRun run = t._braces[m._state];
+      if (run != null && run._closed.length() < m._stack.length()) {
+        if (! _pop(m, run._closed, false)) return true;
+        m._stack.append(run._open);
+        m._state = t._exit[m._state];
+        return false;
+      }
+    }
+    int leftLength = _length(t._left);
+    if (from < leftLength) {
+      if (_forward(t._left, from, base, m)) return true;
+      from = leftLength;
+    }
+    for (int i = from - leftLength; i < t._count; i++) {
+      char ch = t._chars[i];
+      if (_isFree(m._state) && _step(m, ch, false)) {
+        if (! m._failed) m._found = base + leftLength + i;
+        return true;
+      }
+      m._state = _next(m._state, ch);
+    }
+    int chunkEnd = leftLength + t._count;
+    return _forward(t._right, Math.max(from - chunkEnd, 0), base + chunkEnd, m);
+  }
+  
+  /** Continues the backward match m from offset to (exclusive) in t, skipping whole subtrees whose summary shows the
+    * match is not in them.
+    * @param base the offset of t
+    * @param state the scan state at the start of t
+    * @return true if the match succeeded or failed in t
+    */
+  private boolean _backward(Node t, int to, int base, int state, Match m) {
+    if (t == null || to <= 0) return false;
+    if (to == t._length) {
+      _update(t);
+      BraceRun run = t._braces[state];
+      if (run != null && run._open.length() < m._stack.length()) {
+        if (! _pop(m, run._open, true)) return true;
+        m._stack.append(new StringBuilder(run._closed).reverse());
+        return false;
+      }
+    }
+    int leftLength = _length(t._left);
+    int chunkEnd = leftLength + t._count;
+    int chunkState = _exit(t._left, state);
+    if (to > chunkEnd) {
+      if (t._chunkDirty) _summarizeChunk(t);
+      if (_backward(t._right, to - chunkEnd, base + chunkEnd, t._chunkExit[chunkState], m)) return true;
+      to = chunkEnd;
+    }
+    if (to > leftLength) {
+      // the states before the characters of the chunk are only known from left to right
+      int end = to - leftLength;
+      byte[] states = new byte[end];
+      for (int i = 0; i < end; i++) {
+        states[i] = (byte) chunkState;
+        chunkState = _next(chunkState, t._chars[i]);
+      }
+      for (int i = end - 1; i >= 0; i--) {
+        if (_isFree(states[i]) && _step(m, t._chars[i], true)) {
+          if (! m._failed) m._found = base + leftLength + i;
+          return true;
+        }
+      }
+      to = leftLength;
+    }
+    return _backward(t._left, to, base, state, m);
+  }
+  
+  /** Applies a brace to the match m.  A brace that closes in the direction of the match pops the stack.
+    * @return true if the match succeeded or failed
+    */
+  private static boolean _step(Match m, char ch, boolean backward) {
+    boolean opening = _isOpening(ch);
+    if (! opening && ! _isClosing(ch)) return false;
+    if (opening == backward) {
+      StringBuilder stack = m._stack;
+      char top = stack.charAt(stack.length() - 1);
+      stack.setLength(stack.length() - 1);
+      if (! (backward ? _isMatch(ch, top) : _isMatch(top, ch))) m._failed = true;
+      return m._failed || stack.length() == 0;
+    }
+    m._stack.append(ch);
+    return false;
+  }
+  
+  /** Pops the stack of m with the braces of run, which close in the direction of the match, nearest first.
+    * @return false if the match failed
+    */
+  private static boolean _pop(Match m, String braces, boolean backward) {
+    StringBuilder stack = m._stack;
+    for (int j = 0; j < braces.length(); j++) {
+      char ch = braces.charAt(backward ? braces.length() - 1 - j : j);
+      char top = stack.charAt(stack.length() - 1);
+      stack.setLength(stack.length() - 1);
+      if (! (backward ? _isMatch(ch, top) : _isMatch(top, ch))) {
+        m._failed = true;
+        return false;
+      }
+    }
+    return true;
+  }
+  
+  /* Tree maintenance. */
+  
+  /** Recomputes the length and newline count of t from its children. */
+  private static void _measure(Node t) {
+    t._length = _length(t._left) + t._count + _length(t._right);
+    t._newlines = _newlines(t._left) + t._chunkNewlines + _newlines(t._right);
+    t._dirty = true;
+  }
+  
+  /** Recomputes the summaries of the chunk of t for every state in which a scan can enter it. */
+  private static void _summarizeChunk(Node t) {
+    StringBuilder closed = new StringBuilder();
+    StringBuilder open = new StringBuilder();
+    for (int s = 0; s < SCAN_STATES; s++) {
+      closed.setLength(0);
+      open.setLength(0);
+      boolean matched = true;
+      int state = s;
+      for (int i = 0; i < t._count; i++) {
+        char ch = t._chars[i];
+        if (_isFree(state)) {
+          if (_isOpening(ch)) open.append(ch);
+          else if (_isClosing(ch)) {
+            if (open.length() == 0) closed.append(ch);
+            else {
+              matched &= _isMatch(open.charAt(open.length() - 1), ch);
+              open.setLength(open.length() - 1);
+            }
+          }
+        }
+        state = _next(state, ch);
+      }
+      t._chunkExit[s] = (byte) state;
+      if (! matched || closed.length() + open.length() > MAX_RUN) t._chunkBraces[s] = null;
+      else if (closed.length() == 0 && open.length() == 0) t._chunkBraces[s] = BraceRun.EMPTY;
+      else t._chunkBraces[s] = new BraceRun(closed.toString(), open.toString());
+    }
+    t._chunkDirty = false;
+  }
+  
+  /** Recomputes the subtree summaries of t if it is dirty. */
+  private static void _update(Node t) {
+    if (! t._dirty) return;
+    if (t._left != null) _update(t._left);
+    if (t._right != null) _update(t._right);
+    if (t._chunkDirty) _summarizeChunk(t);
+    for (int s = 0; s < SCAN_STATES; s++) {
+      int state = s;
+      BraceRun run = BraceRun.EMPTY;
+      if (t._left != null) {
+        run = t._left._braces[state];
+        state = t._left._exit[state];
+      }
+      run = BraceRun.compose(run, t._chunkBraces[state]);
+      state = t._chunkExit[state];
+      if (t._right != null) {
+        run = BraceRun.compose(run, t._right._braces[state]);
+        state = t._right._exit[state];
+      }
+      t._exit[s] = (byte) state;
+      t._braces[s] = run;
+    }
+    t._dirty = false;
+  }
+  
+  /** Inserts ch at offset in t.
+    * @return the new root of t
+    */
+  private Node _insert(Node t, int offset, char ch) {
+    int leftLength = _length(t._left);
+    if (offset < leftLength) {
+      t._left = _insert(t._left, offset, ch);
+      if (t._left._priority > t._priority) t = _rotateRight(t);
+    }
+    else if (offset > leftLength + t._count) {
+      t._right = _insert(t._right, offset - leftLength - t._count, ch);
+      if (t._right._priority > t._priority) t = _rotateLeft(t);
+    }
+    else {
+      int i = offset - leftLength;
+      if (t._count == MAX_CHUNK) {
+        // a full chunk moves its second half, or just the new character if it is appended, to a new node
+        Node n = new Node(_random.nextInt());
+        boolean append = (i == MAX_CHUNK);
+        int half = append ? MAX_CHUNK : MAX_CHUNK / 2;
+        System.arraycopy(t._chars, half, n._chars, 0, MAX_CHUNK - half);
+        n._count = MAX_CHUNK - half;
+        t._count = half;
+        for (int j = 0; j < n._count; j++) if (n._chars[j] == '\n') n._chunkNewlines++;
+        t._chunkNewlines -= n._chunkNewlines;
+        t._chunkDirty = true;
+        if (append || i > half) _insertChar(n, i - half, ch);
+        else _insertChar(t, i, ch);
+        _measure(n);
+        t._right = _insertFirst(t._right, n);
+        _measure(t);
+        if (t._right._priority > t._priority) t = _rotateLeft(t);
+        return t;
+      }
+      _insertChar(t, i, ch);
+    }
+    _measure(t);
+    return t;
+  }
+  
+  /** Inserts ch at index i of the chunk of t, which is not full. */
+  private static void _insertChar(Node t, int i, char ch) {
+    System.arraycopy(t._chars, i, t._chars, i + 1, t._count - i);
+    t._chars[i] = ch;
+    t._count++;
+    if (ch == '\n') t._chunkNewlines++;
+    t._chunkDirty = true;
+  }
+  
+  /** @return the new root of t after making n its first node */
+  private static Node _insertFirst(Node t, Node n) {
+    if (t == null) return n;
+    if (n._priority > t._priority) {
+      n._right = t;
+      _measure(n);
+      return n;
+    }
+    t._left = _insertFirst(t._left, n);
+    _measure(t);
+    return t;
+  }
+  
+  /** Deletes the characters from offset to offset + count from t.
+    * @return the new root of t
+    */
+  private static Node _delete(Node t, int offset, int count) {
+    if (t == null || count == 0) return t;
+    int leftLength = _length(t._left);
+    int chunkEnd = leftLength + t._count;
+    int end = offset + count;
+    if (end > chunkEnd) {
+      int from = Math.max(offset, chunkEnd);
+      t._right = _delete(t._right, from - chunkEnd, end - from);
+    }
+    if (offset < chunkEnd && end > leftLength) {
+      int from = Math.max(offset, leftLength) - leftLength;
+      int to = Math.min(end, chunkEnd) - leftLength;
+      for (int i = from; i < to; i++) if (t._chars[i] == '\n') t._chunkNewlines--;
+      System.arraycopy(t._chars, to, t._chars, from, t._count - to);
+      t._count -= to - from;
+      t._chunkDirty = true;
+    }
+    if (offset < leftLength) t._left = _delete(t._left, offset, Math.min(end, leftLength) - offset);
+    if (t._count == 0) return _merge(t._left, t._right);
+    _measure(t);
+    return t;
+  }
+  
+  /** @return the root of the treap with the nodes of a followed by the nodes of b */
+  private static Node _merge(Node a, Node b) {
+    if (a == null) return b;
+    if (b == null) return a;
+    if (a._priority > b._priority) {
+      a._right = _merge(a._right, b);
+      _measure(a);
+      return a;
+    }
+    b._left = _merge(a, b._left);
+    _measure(b);
+    return b;
+  }
+  
+  private static Node _rotateLeft(Node t) {
+    Node r = t._right;
+    t._right = r._left;
+    r._left = t;
+    _measure(t);
+    _measure(r);
+    return r;
+  }
+  
+  private static Node _rotateRight(Node t) {
+    Node l = t._left;
+    t._left = l._right;
+    l._right = t;
+    _measure(t);
+    _measure(l);
+    return l;
+  }
+}
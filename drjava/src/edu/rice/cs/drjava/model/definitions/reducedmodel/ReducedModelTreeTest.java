@@ -0,0 +1,279 @@
+/*BEGIN_COPYRIGHT_BLOCK
+ *
+ * Copyright (c) 2001-2010, JavaPLT group at Rice University (drjava@rice.edu)
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    * Redistributions of source code must retain the above copyright
+ *      notice, this list of conditions and the following disclaimer.
+ *    * Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in the
+ *      documentation and/or other materials provided with the distribution.
+ *    * Neither the names of DrJava, the JavaPLT group, Rice University, nor the
+ *      names of its contributors may be used to endorse or promote products
+ *      derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This software is Open Source Initiative approved Open Source Software.
+ * Open Source Initative Approved is a trademark of the Open Source Initiative.
+ * 
+ * This file is part of DrJava.  Download the current version of this project
+ * from http://www.drjava.org/ or http://sourceforge.net/projects/drjava/
+ * 
+ * END_COPYRIGHT_BLOCK*/
+
+package edu.rice.cs.drjava.model.definitions.reducedmodel;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import edu.rice.cs.drjava.DrJavaTestCase;
+
+/** Tests ReducedModelTree by comparing it with ReducedModelControl.
+  * @version $Id$
+  */
+public final class ReducedModelTreeTest extends DrJavaTestCase {
+  
+  /** The characters that matter to the reduced models, and a few that do not. */
+  private static final String CHARS = "{}()[]/*\\'\"\n ab";
+  
+  private static void _insert(BraceReduction model, String text) {
+    for (int i = 0; i < text.length(); i++) model.insertChar(text.charAt(i));
+  }
+  
+  private static void _moveTo(BraceReduction model, int offset) { model.move(offset - model.absOffset()); }
+  
+  private static String _randomText(Random random, int length) {
+    StringBuilder sb = new StringBuilder(length);
+    for (int i = 0; i < length; i++) sb.append(CHARS.charAt(random.nextInt(CHARS.length())));
+    return sb.toString();
+  }
+  
+  /** Asserts that the models for text agree at every step-th offset. */
+  private void _assertAgree(String text, ReducedModelControl control, ReducedModelTree tree, int step) {
+    assertEquals(text, tree._text(0, tree.getLength()));
+    for (int i = 0; i <= text.length(); i += step) {
+      String where = "at " + i + " of \"" + text.replace("\n", "\\n") + "\"";
+      _moveTo(control, i);
+      _moveTo(tree, i);
+      assertEquals(where, control.getStateAtCurrent(), tree.getStateAtCurrent());
+      if (i < text.length()) {
+        ReducedToken expected = control.currentToken();
+        ReducedToken actual = tree.currentToken();
+        assertEquals(where, expected.getType(), actual.getType());
+        // ReducedModelControl does not always merge adjacent gaps
+        if (! expected.isGap()) assertEquals(where, expected.getSize(), actual.getSize());
+        assertEquals(where, expected.getState(), actual.getState());
+        // the orientation of shadowed quotes depends on the order of the edits
+        if (expected.getState() == ReducedModelStates.FREE) assertEquals(where, expected.isOpen(), actual.isOpen());
+      }
+      assertEquals(where, control.balanceForward(), tree.balanceForward());
+      assertEquals(where, control.balanceBackward(), tree.balanceBackward());
+      assertEquals(where, control.getDistToNextNewline(), tree.getDistToNextNewline());
+      for (int rel = 0; rel <= i && rel < 40; rel += 3) {
+        assertEquals(where, control.getDistToStart(rel), tree.getDistToStart(rel));
+      }
+      for (int length = 0; length < 40 && i + length <= text.length(); length += 5) {
+        ArrayList<HighlightStatus> expected = control.getHighlightStatus(i, length);
+        ArrayList<HighlightStatus> actual = tree.getHighlightStatus(i, length);
+        assertEquals(where, _toString(expected), _toString(actual));
+      }
+      control.resetLocation();
+      tree.resetLocation();
+      for (int j = i; j > 0 && j > i - 40; j -= 4) {
+        int back = - Math.min(j, 4);
+        assertEquals(where, control.moveWalkerGetState(back), tree.moveWalkerGetState(back));
+      }
+    }
+  }
+  
+  private static String _toString(ArrayList<HighlightStatus> status) {
+    StringBuilder sb = new StringBuilder();
+    for (HighlightStatus s : status) {
+      sb.append('[').append(s.getLocation()).append(',').append(s.getLength()).append(',').append(s.getState());
+      sb.append(']');
+    }
+    return sb.toString();
+  }
+  
+  public void testSimple() {
+    ReducedModelTree tree = new ReducedModelTree();
+    _insert(tree, "{ (\"}\") /* ] */ [] }");
+    assertEquals(20, tree.getLength());
+    tree.move(-19);
+    assertEquals(19, tree.balanceForward());
+    tree.move(19);
+    assertEquals(20, tree.balanceBackward());
+    tree.move(-15);
+    assertEquals(ReducedModelStates.INSIDE_DOUBLE_QUOTE, tree.getStateAtCurrent());
+    tree.move(7);
+    assertEquals(ReducedModelStates.INSIDE_BLOCK_COMMENT, tree.getStateAtCurrent());
+    assertEquals(-1, tree.getDistToStart(0));
+  }
+  
+  public void testAgreesWithControl() {
+    Random random = new Random(42);
+    for (int round = 0; round < 300; round++) {
+      _assertAgreeAfterEdits(random, _randomText(random, random.nextInt(60)), 4, 1);
+    }
+  }
+  
+  /** Compares the models on documents with many nodes. */
+  public void testAgreesWithControlOnLongDocuments() {
+    Random random = new Random(7);
+    for (int round = 0; round < 3; round++) {
+      _assertAgreeAfterEdits(random, _randomText(random, 1000 + random.nextInt(1000)), 20, 37);
+      _assertAgreeAfterEdits(random, _generate(10 + random.nextInt(10)), 20, 37);
+    }
+    // nesting deeper than the summaries of the tree keep
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 300; i++) sb.append("([{".charAt(i % 3));
+    for (int i = 299; i >= 0; i--) sb.append(")]}".charAt(i % 3));
+    _assertAgreeAfterEdits(random, sb.toString(), 20, 7);
+  }
+  
+  /** Applies random edits to a random document in both models and compares them after each edit. */
+  private void _assertAgreeAfterEdits(Random random, String text, int edits, int step) {
+    ReducedModelControl control = new ReducedModelControl();
+    ReducedModelTree tree = new ReducedModelTree();
+    _insert(control, text);
+    _insert(tree, text);
+    _assertAgree(text, control, tree, step);
+    
+    for (int edit = 0; edit < edits; edit++) {
+      int offset = random.nextInt(text.length() + 1);
+      _moveTo(control, offset);
+      _moveTo(tree, offset);
+      if (random.nextBoolean() && offset < text.length()) {
+        int count = 1 + random.nextInt(Math.min(5 * step, text.length() - offset));
+        if (random.nextBoolean()) {
+          control.delete(count);
+          tree.delete(count);
+        }
+        else {
+          control.move(count);
+          tree.move(count);
+          control.delete(-count);
+          tree.delete(-count);
+        }
+        text = text.substring(0, offset) + text.substring(offset + count);
+      }
+      else {
+        String inserted = _randomText(random, 1 + random.nextInt(3 * step));
+        _insert(control, inserted);
+        _insert(tree, inserted);
+        text = text.substring(0, offset) + inserted + text.substring(offset);
+      }
+      _assertAgree(text, control, tree, step);
+    }
+  }
+  
+  /** Tests a document large enough to have many nodes, with braces that match across them. */
+  public void testLargeDocument() {
+    ReducedModelTree tree = new ReducedModelTree();
+    String text = _generate(2000);
+    _insert(tree, text);
+    assertEquals(text, tree._text(0, tree.getLength()));
+    _moveTo(tree, text.indexOf('{') + 1);
+    assertEquals(text.lastIndexOf('}') + 1 - tree.absOffset(), tree.balanceForward());
+    _moveTo(tree, text.length() - 1);
+    assertEquals(text.length() - 1 - text.indexOf('{'), tree.balanceBackward());
+    
+    // an edit in the middle unbalances the class
+    _moveTo(tree, text.length() / 2);
+    tree.insertChar('(');
+    _moveTo(tree, text.indexOf('{') + 1);
+    assertEquals(-1, tree.balanceForward());
+    _moveTo(tree, text.length() / 2 + 1);
+    tree.delete(-1);
+    _moveTo(tree, text.indexOf('{') + 1);
+    assertEquals(text.lastIndexOf('}') + 1 - tree.absOffset(), tree.balanceForward());
+    
+    // commenting out the closing brace of the class leaves its opening brace unmatched
+    _moveTo(tree, text.length() - 2);
+    _insert(tree, "//");
+    assertEquals(ReducedModelStates.INSIDE_LINE_COMMENT, tree.getStateAtCurrent());
+    tree.move(1);
+    assertEquals(-1, tree.balanceBackward());
+    _moveTo(tree, text.indexOf('{') + 1);
+    assertEquals(-1, tree.balanceForward());
+    
+    _moveTo(tree, 0);
+    tree.delete(tree.getLength());
+    assertEquals(0, tree.getLength());
+    assertEquals(ReducedModelStates.FREE, tree.getStateAtCurrent());
+  }
+  
+  /** @return a class with the given number of methods */
+  private static String _generate(int methods) {
+    StringBuilder sb = new StringBuilder("public class Generated {\n");
+    for (int i = 0; i < methods; i++) {
+      sb.append("  /* Method ").append(i).append(" { */\n");
+      sb.append("  int m").append(i).append("(int[] a) {\n");
+      sb.append("    String s = \"(\" + a[").append(i % 7).append("] + '}'; // ]\n");
+      sb.append("    return (a.length > 0) ? a[0] : ").append(i).append(";\n  }\n");
+    }
+    return sb.append("}\n").toString();
+  }
+  
+  private static long _time(Runnable r) {
+    long start = System.nanoTime();
+    r.run();
+    return (System.nanoTime() - start) / 1000000;
+  }
+  
+  /** Run to compare the performance of ReducedModelControl and ReducedModelTree on a large generated file. */
+  public static void main(String[] args) {
+    final String text = _generate(10000);
+    final int[] lines = { 0 };
+    for (int i = 0; i < text.length(); i++) if (text.charAt(i) == '\n') lines[0]++;
+    System.out.println("Document of " + text.length() + " characters and " + lines[0] + " lines");
+    final BraceReduction[] models = { new ReducedModelControl(), new ReducedModelTree() };
+    for (final BraceReduction model : models) {
+      final Random random = new Random(1);
+      final String name = model.getClass().getSimpleName();
+      System.out.println(name + ": insert " + _time(new Runnable() { public void run() { _insert(model, text); } }) + 
+                         " ms");
+      System.out.println(name + ": 1000 seeks and states " + _time(new Runnable() { public void run() { 
+        for (int i = 0; i < 1000; i++) {
+          _moveTo(model, random.nextInt(text.length()));
+          model.getStateAtCurrent();
+        }
+      } }) + " ms");
+      System.out.println(name + ": 100 balances of the class " + _time(new Runnable() { public void run() { 
+        for (int i = 0; i < 100; i++) {
+          _moveTo(model, text.indexOf('{') + 1);
+          model.balanceForward();
+          _moveTo(model, text.length() - 1);
+          model.balanceBackward();
+        }
+      } }) + " ms");
+      System.out.println(name + ": 1000 highlights of 2000 characters " + _time(new Runnable() { public void run() { 
+        for (int i = 0; i < 1000; i++) {
+          int start = random.nextInt(text.length() - 2000);
+          _moveTo(model, start);
+          model.getHighlightStatus(start, 2000);
+        }
+      } }) + " ms");
+      System.out.println(name + ": 1000 edits " + _time(new Runnable() { public void run() { 
+        for (int i = 0; i < 1000; i++) {
+          _moveTo(model, random.nextInt(text.length()));
+          model.insertChar('*');
+          model.delete(-1);
+        }
+      } }) + " ms");
+    }
+  }
+}
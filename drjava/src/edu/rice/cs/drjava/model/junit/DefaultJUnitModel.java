@@ -37,6 +37,7 @@ h *      names of its contributors may be used to endorse or promote products
 package edu.rice.cs.drjava.model.junit;
 
 import java.awt.EventQueue;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.rmi.RemoteException;
@@ -44,17 +45,17 @@ import java.rmi.RemoteException;
 import java.util.List;
 import java.util.LinkedList;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import edu.rice.cs.drjava.config.BooleanOption;
 import edu.rice.cs.drjava.model.DrJavaFileUtils;
 import edu.rice.cs.drjava.model.FileMovedException;
-import edu.rice.cs.drjava.model.FindReplaceMachine;
-import edu.rice.cs.drjava.model.FindResult;
 import edu.rice.cs.drjava.model.OpenDefinitionsDocument;
 import edu.rice.cs.drjava.model.SingleDisplayModel;
+import edu.rice.cs.drjava.model.repl.InteractionsModel;
 import edu.rice.cs.drjava.model.repl.newjvm.MainJVM;
 import edu.rice.cs.drjava.model.compiler.CompilerModel;
 import edu.rice.cs.drjava.model.compiler.CompilerListener;
@@ -64,9 +65,11 @@ import edu.rice.cs.drjava.ui.DrJavaErrorHandler;
 import edu.rice.cs.drjava.config.OptionConstants;
 
 import edu.rice.cs.plt.io.IOUtil;
+import edu.rice.cs.plt.collect.CollectUtil;
+import edu.rice.cs.plt.concurrent.JVMBuilder;
 import edu.rice.cs.plt.iter.IterUtil;
-import edu.rice.cs.plt.lambda.Box;
-import edu.rice.cs.plt.lambda.SimpleBox;
+import edu.rice.cs.plt.lambda.Runnable1;
+import edu.rice.cs.plt.lambda.Runnable2;
 import edu.rice.cs.util.FileOps;
 import edu.rice.cs.util.UnexpectedException;
 import edu.rice.cs.util.classloader.ClassFileError;
@@ -74,12 +77,15 @@ import edu.rice.cs.util.text.SwingDocument;
 import edu.rice.cs.util.swing.Utilities;
 import edu.rice.cs.util.Log;
 
-import org.objectweb.asm.*;
-
 import static edu.rice.cs.plt.debug.DebugUtil.debug;
 
+import edu.rice.cs.drjava.model.coverage.CoverageAnalyzer;
 import edu.rice.cs.drjava.model.coverage.CoverageMetadata;
 
+import org.jacoco.core.data.ExecutionDataReader;
+import org.jacoco.core.data.ExecutionDataStore;
+import org.jacoco.core.data.SessionInfoStore;
+
 /** Manages unit testing via JUnit.
   * @version $Id$
   */
@@ -120,6 +126,27 @@ public class DefaultJUnitModel implements JUnitModel, JUnitModelCallback {
   /** The document used to display JUnit test results.  Used only for testing. */
   private final SwingDocument _junitDoc = new SwingDocument();
   
+  /** The running time of each test class in the previous runs of this session, in milliseconds.  Used to balance the 
+    * test classes among the JVMs of a parallel run.
+    */
+  private final Map<String, Long> _testDurations = new HashMap<String, Long>();
+  
+  /** Analyzes the coverage of all runs, in the slave JVM or in worker JVMs; keeps the analyses of unchanged classes 
+    * between the runs of a session.
+    */
+  private final CoverageAnalyzer _coverageAnalyzer = new CoverageAnalyzer();
+  
+  /** The result of the last run that measured code coverage. */
+  private volatile JUnitResultTuple _finalResult = new JUnitResultTuple(false, null);
+  
+  /** The line colors of the source files analyzed so far in the last run, keyed by path relative to the source root;
+    * filled while the coverage is analyzed, before the report is written.
+    */
+  private final Map<String, List<String>> _documentLineColors = new ConcurrentHashMap<String, List<String>>();
+  
+  /** The class files found in the build directories by previous runs. */
+  private final TestClassIndex _testClassIndex = new TestClassIndex();
+  
   /** Main constructor.
     * @param jvm RMI interface to a secondary JVM for running tests
     * @param compilerModel the CompilerModel, used only as a lock to prevent simultaneous test and compile
@@ -145,10 +172,10 @@ public class DefaultJUnitModel implements JUnitModel, JUnitModelCallback {
   //------------------------ Simple Predicates ------------------------------//
   
   public boolean isTestInProgress() { return _testInProgress;  }
-  public JUnitResultTuple getFinalResult() { 
-    return new JUnitResultTuple(false, null);
-    // @rebecca TODO: why does this result in not finding any test classes?
-    //return this._jvm.getLastJUnitResult(); 
+  public JUnitResultTuple getFinalResult() { return _finalResult; }
+  
+  public Map<String, List<String>> getDocumentLineColors() { 
+    return new HashMap<String, List<String>>(_documentLineColors); 
   }
 
   public boolean getCoverage() { 
@@ -194,21 +221,6 @@ public class DefaultJUnitModel implements JUnitModel, JUnitModelCallback {
     junitOpenDefDocs(lod, true);
   }
   
-  /** Determines if className appears as an identifier in the open documents. */
-  private boolean appearsInSourceText(String className, FindReplaceMachine frm) {
-    _log.log("***appearsInSourceText(" + className + ", " + frm + ")");
-    OpenDefinitionsDocument doc = _model.getActiveDocument();
-    frm.setDocument(doc);
-    frm.setFirstDoc(doc);
-    frm.setPosition(doc.getCurrentLocation());
-    frm.setFindWord(className);
-    frm.setIgnoreCommentsAndStrings(true);
-    frm.setSearchAllDocuments(true);
-    FindResult match = frm.findNext();
-    _log.log("Matching result = " + match);
-    return (match.getFoundOffset() != -1);
-  }
-  
   public void junitDocs(List<OpenDefinitionsDocument> lod) { junitOpenDefDocs(lod, true); }
   
   /** Runs JUnit on the current document.  Forces the user to compile all open documents before proceeding. */
@@ -368,99 +380,79 @@ public class DefaultJUnitModel implements JUnitModel, JUnitModelCallback {
     /* Flag indicating if project is open */
     final boolean isProject = _model.isProjectActive();
     
-    /* Set up FindReplaceMachine to search open definitions documents. */
-    final FindReplaceMachine frm = new FindReplaceMachine(_model, _model.getDocumentIterator(), null);
+    /* Whether the classes that were not test classes in the last run may be skipped: nothing that could change their
+     * status has changed.  Their class files are needed for a coverage report, though.
+     */
+    boolean skipNonTests = ! coverageMetadata.getFlag();
+    
+    /* The index entries of the classes in classNames */
+    final ArrayList<TestClassIndex.Entry> entries = new ArrayList<TestClassIndex.Entry>();
     
     try {
+      List<TestClassIndex.Entry> candidates = new ArrayList<TestClassIndex.Entry>();
       for (File dir: classDirs) { // foreach class file directory
         _log.log("Examining directory " + dir);
+        candidates.addAll(_testClassIndex.scan(dir));
+      }
+      skipNonTests = skipNonTests && ! _testClassIndex.hasChanged();
+      
+      for (TestClassIndex.Entry entry : candidates) { /* for each class file in the build directories */
         
-        File[] listing = dir.listFiles();
+        _log.log("Examining file " + entry.file());
         
-        _log.log("Directory contains the files: " + Arrays.asList(listing));
+        final String name = entry.file().getName();
+        final String noExtName = name.substring(0, name.length() - 6);  // remove ".class" from name
+        final int indexOfLastDot = noExtName.lastIndexOf('.');
+        final String simpleClassName = noExtName.substring(indexOfLastDot + 1);
+        _log.log("Simple class name is " + simpleClassName);  
         
-        if (listing != null) { // listFiles may return null if there's an IO error
-          for (File entry : listing) { /* for each class file in the build directory */        
-            
-            _log.log("Examining file " + entry);
-            
-            /* ignore non-class files */
-            final String name = entry.getName();
-            if (! name.endsWith(".class")) continue;
-            
-            final String noExtName = name.substring(0, name.length() - 6);  // remove ".class" from name
-            final int indexOfLastDot = noExtName.lastIndexOf('.');
-            final String simpleClassName = noExtName.substring(indexOfLastDot + 1);
-            _log.log("Simple class name is " + simpleClassName);  
-            
-            /* Ignore class names that do not end in "Test" if FORCE_TEST_SUFFIX option is set */
-            if (_forceTestSuffix && ! simpleClassName.endsWith("Test")) continue;
-                       
-            /* ignore entries that do not correspond to files?  Can this happen? */
-            if (! entry.isFile()) continue;
-            
-            /* In flat file mode, ignore files that are not named in a source document. */
-            if (! isProject && ! appearsInSourceText(simpleClassName, frm)) continue;
-            _log.log("isProject = " + isProject + "; name = " + name);
-            
-            // Add this class and the corrresponding source file to classNames and files, respectively.
-            // Finding the source file is non-trivial because it may be a language-levels file
-            
-            try {
-              final Box<String> className = new SimpleBox<String>();
-              final Box<String> sourceName = new SimpleBox<String>();
-              new ClassReader(IOUtil.toByteArray(entry)).accept(new ClassVisitor(Opcodes.ASM4) {
-                public void visit(int version, int access, String name, String sig, String sup, String[] inters) {
-                  className.set(name.replace('/', '.'));
-                }
-                public void visitSource(String source, String debug) { sourceName.set(source); }
-                public void visitOuterClass(String owner, String name, String desc) { }
-                public AnnotationVisitor visitAnnotation(String desc, boolean visible) { return null; }
-                public void visitAttribute(Attribute attr) { }
-                public void visitInnerClass(String name, String out, String in, int access) { }
-                public FieldVisitor visitField(int a, String n, String d, String s, Object v) { return null; }
-                public MethodVisitor visitMethod(int a, String n, String d, String s, String[] e) { return null; }
-                public void visitEnd() { }
-              }, 0);
-              
-              File rootDir = classDirsAndRoots.get(dir);
-              
-              /** The canonical pathname for the file (including the file name) */
-              String javaSourceFileName = getCanonicalPath(rootDir) + File.separator + sourceName.value();
- 
-//              System.err.println("Full java source fileName = " + javaSourceFileName);
-              
-              /* The index in fileName of the dot preceding the extension ".java", ".dj", ".dj0*, ".dj1", or ".dj2" */
-              int indexOfExtDot = javaSourceFileName.lastIndexOf('.');
-//              System.err.println("indexOfExtDot = " + indexOfExtDot);
-              if (indexOfExtDot == -1) continue;  // RMI stub class files return source file names without extensions
-//              System.err.println("File found in openDocFiles = "  + openDocFiles.contains(sourceFileName));
-              
-              /* Determine if this java source file was generated from a language levels file. */
-              String strippedName = javaSourceFileName.substring(0, indexOfExtDot);
-//              System.err.println("Stripped name = " + strippedName);
-              
-              String sourceFileName;
-              
-              if (openDocFiles.contains(javaSourceFileName)) sourceFileName = javaSourceFileName;
-              else if (openDocFiles.contains(strippedName + OptionConstants.DJ_FILE_EXTENSION))
-                sourceFileName = strippedName + OptionConstants.DJ_FILE_EXTENSION;
-              else if (openDocFiles.contains(strippedName + OptionConstants.OLD_DJ0_FILE_EXTENSION))
-                sourceFileName = strippedName + OptionConstants.OLD_DJ0_FILE_EXTENSION;
-              else if (openDocFiles.contains(strippedName + OptionConstants.OLD_DJ1_FILE_EXTENSION))
-                sourceFileName = strippedName + OptionConstants.OLD_DJ1_FILE_EXTENSION;
-              else if (openDocFiles.contains(strippedName + OptionConstants.OLD_DJ2_FILE_EXTENSION))
-                sourceFileName = strippedName + OptionConstants.OLD_DJ2_FILE_EXTENSION;
-              else continue; // no matching source file is open
-              
-              File sourceFile = new File(sourceFileName);
-              classNames.add(className.value());
-              files.add(sourceFile);
-              _log.log("Class " + className + " added to classNames.   File " + sourceFileName + " added to files.");
-            }
-            catch(IOException e) { /* ignore it; can't read class file */ }
-          }
-        }
+        /* Ignore class names that do not end in "Test" if FORCE_TEST_SUFFIX option is set */
+        if (_forceTestSuffix && ! simpleClassName.endsWith("Test")) continue;
+        
+        /* In flat file mode, ignore nested and anonymous classes, whose names do not appear in a source document. */
+        if (! isProject && simpleClassName.indexOf('$') >= 0) continue;
+        _log.log("isProject = " + isProject + "; name = " + name);
+        
+        /* Ignore classes that were not test classes in the last run if nothing has changed since */
+        if (skipNonTests && Boolean.FALSE.equals(entry.isTest())) continue;
+        
+        // Add this class and the corrresponding source file to classNames and files, respectively.
+        // Finding the source file is non-trivial because it may be a language-levels file
+        
+        if (entry.sourceName() == null) continue;  // the class file does not name its source file
+        
+        File rootDir = classDirsAndRoots.get(entry.file().getParentFile());
+        
+        /** The canonical pathname for the file (including the file name) */
+        String javaSourceFileName = getCanonicalPath(rootDir) + File.separator + entry.sourceName();
+        
+        /* The index in fileName of the dot preceding the extension ".java", ".dj", ".dj0*, ".dj1", or ".dj2" */
+        int indexOfExtDot = javaSourceFileName.lastIndexOf('.');
+        if (indexOfExtDot == -1) continue;  // RMI stub class files return source file names without extensions
+        
+        /* Determine if this java source file was generated from a language levels file. */
+        String strippedName = javaSourceFileName.substring(0, indexOfExtDot);
+        
+        /* Only classes whose source file is open are tested; this is a set lookup in openDocFiles. */
+        String sourceFileName;
+        
+        if (openDocFiles.contains(javaSourceFileName)) sourceFileName = javaSourceFileName;
+        else if (openDocFiles.contains(strippedName + OptionConstants.DJ_FILE_EXTENSION))
+          sourceFileName = strippedName + OptionConstants.DJ_FILE_EXTENSION;
+        else if (openDocFiles.contains(strippedName + OptionConstants.OLD_DJ0_FILE_EXTENSION))
+          sourceFileName = strippedName + OptionConstants.OLD_DJ0_FILE_EXTENSION;
+        else if (openDocFiles.contains(strippedName + OptionConstants.OLD_DJ1_FILE_EXTENSION))
+          sourceFileName = strippedName + OptionConstants.OLD_DJ1_FILE_EXTENSION;
+        else if (openDocFiles.contains(strippedName + OptionConstants.OLD_DJ2_FILE_EXTENSION))
+          sourceFileName = strippedName + OptionConstants.OLD_DJ2_FILE_EXTENSION;
+        else continue; // no matching source file is open
+        
+        File sourceFile = new File(sourceFileName);
+        classNames.add(entry.className());
+        files.add(sourceFile);
+        entries.add(entry);
+        _log.log("Class " + entry.className() + " added to classNames.   File " + sourceFileName + 
+                 " added to files.");
       }
     }
 
@@ -483,18 +475,42 @@ public class DefaultJUnitModel implements JUnitModel, JUnitModelCallback {
         // _debugger.getPendingRequestManager().classPrepared(e); (which presumably
         // deals with preparing the class) on the event thread using invokeLater.
         // This, however, doesn't get executed because the event thread is still blocking --> deadlock.
+        ParallelJUnitRunner runner;
         synchronized(_compilerModel.getCompilerLock()) {
           // synchronized over _compilerModel to ensure that compilation and junit testing are mutually exclusive.
-          /** Set up junit test suite on slave JVM; get TestCase classes forming that suite */
-          _log.log("Calling findTestClasses(" + classNames + ", " + files + " ... )");
-          List<String> tests = _jvm.findTestClasses(classNames, files, coverageMetadata).unwrap(null);
+          /** Set up junit test suite on the worker JVMs or the slave JVM; get TestCase classes forming that suite */
+          List<String> tests = null;
+          runner = _newParallelRunner();
+          if (runner != null) {
+            _log.log("Calling runner.findTestClasses(" + classNames + ", " + files + " ... )");
+            List<File> classPath = CollectUtil.makeList(_jvm.getClassPath().unwrap(IterUtil.<File>empty()));
+            tests = runner.findTestClasses(classNames, files, classPath, coverageMetadata);
+            if (tests == null) runner = null;  // the workers could not be started; fall back to the slave JVM
+          }
+          if (runner == null) {
+            _log.log("Calling findTestClasses(" + classNames + ", " + files + " ... )");
+            tests = _jvm.findTestClasses(classNames, files, coverageMetadata).unwrap(null);
+          }
 
+          if (tests != null) {
+            HashSet<String> testSet = new HashSet<String>(tests);
+            for (TestClassIndex.Entry e : entries) e.setIsTest(testSet.contains(e.className()));
+            _testClassIndex.resetChanged();
+          }
+          
           if (tests == null || tests.isEmpty()) {
+            if (runner != null) runner.quit();
             nonTestCase(allTests, false);
             return;
           }
         }
         
+        if (runner != null) {
+          _notifyJUnitStarted();
+          runner.runTestSuite();
+          return;
+        }
+        
         try {
           _notifyJUnitStarted(); 
           // The false return value could be changed to an exception.
@@ -514,6 +530,25 @@ public class DefaultJUnitModel implements JUnitModel, JUnitModelCallback {
    
 //-------------------------------- Helpers --------------------------------//
   
+  /** Creates a runner for the tests in separate worker JVMs if the JUNIT_PARALLEL_WORKERS option asks for more than 
+    * one worker.  The tests are run in the slave JVM instead while the debugger is active, so that breakpoints in 
+    * tests are hit, and before the slave JVM has been started.
+    * @return the runner, or null if the tests should be run in the slave JVM
+    */
+  private ParallelJUnitRunner _newParallelRunner() {
+    int numWorkers = edu.rice.cs.drjava.DrJava.getConfig().getSetting(OptionConstants.JUNIT_PARALLEL_WORKERS).intValue();
+    JVMBuilder jvmBuilder = _jvm.getTestJVMBuilder();
+    if (numWorkers <= 1 || jvmBuilder == null || _model.getDebugger().isReady()) return null;
+    final InteractionsModel interactionsModel = _model.getInteractionsModel();
+    Runnable1<String> out = new Runnable1<String>() {
+      public void run(String s) { interactionsModel.replSystemOutPrint(s); }
+    };
+    Runnable1<String> err = new Runnable1<String>() {
+      public void run(String s) { interactionsModel.replSystemErrPrint(s); }
+    };
+    return new ParallelJUnitRunner(this, out, err, jvmBuilder, numWorkers, _testDurations);
+  }
+  
   /** Helper method to notify JUnitModel listeners that JUnit test suite execution has started. */
   private void _notifyJUnitStarted() { 
     // Use EventQueue.invokeLater so that notification is deferred when running in the event thread.
@@ -625,6 +660,40 @@ public class DefaultJUnitModel implements JUnitModel, JUnitModelCallback {
   }
 
   
+  /** Called when a suite of tests that measured code coverage has finished running, just before testSuiteEnded.
+    * Analyzes the coverage and writes the HTML report.  Does not necessarily run in event thread.
+    * @param nonTestClassNames the names of the classes whose coverage was measured
+    * @param executionData the JaCoCo execution data of the run, in the format written by ExecutionDataWriter
+    */
+  public void coverageCollected(List<String> nonTestClassNames, byte[] executionData) {
+    _documentLineColors.clear();
+    try {
+      ExecutionDataStore store = new ExecutionDataStore();
+      SessionInfoStore sessionInfos = new SessionInfoStore();
+      ExecutionDataReader reader = new ExecutionDataReader(new ByteArrayInputStream(executionData));
+      reader.setExecutionDataVisitor(store);
+      reader.setSessionInfoVisitor(sessionInfos);
+      reader.read();
+      
+      CoverageAnalyzer.Result analysis = 
+        JUnitTestManager.analyzeCoverage(_coverageAnalyzer, store, nonTestClassNames, getClassPath(), 
+                                         new Runnable2<String, List<String>>() {
+        public void run(String source, List<String> colors) { _documentLineColors.put(source, colors); }
+      });
+      _finalResult = new JUnitResultTuple(true, analysis.getLineColors());
+      
+      // the report shows the first source root of the project
+      Iterable<File> projectFilesCP = _jvm.getProjectFilesClassPath().unwrap(IterUtil.<File>empty());
+      File projectRoot = IterUtil.isEmpty(projectFilesCP) ? null : IterUtil.first(projectFilesCP);
+      JUnitTestManager.writeCoverageReport(analysis, store, sessionInfos, projectRoot, 
+                                           coverageMetadata.getOutdirPath());
+    }
+    catch (IOException e) {
+      _finalResult = new JUnitResultTuple(false, null);
+      DrJavaErrorHandler.record(e);
+    }
+  }
+  
   /** Called when the JUnitTestManager wants to open a file that is not currently open.
     * @param className the name of the class for which we want to find the file
     * @return the file associated with the given class
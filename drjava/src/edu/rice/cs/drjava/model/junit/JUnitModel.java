@@ -30,6 +30,7 @@ package edu.rice.cs.drjava.model.junit;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.Map;
 import edu.rice.cs.drjava.model.OpenDefinitionsDocument;
 import edu.rice.cs.util.text.SwingDocument;
 
@@ -48,6 +49,12 @@ public interface JUnitModel {
   public void setForceTestSuffix(boolean b);
 
   public JUnitResultTuple getFinalResult(); 
+  
+  /** @return the line colors of the source files whose coverage has been analyzed in the last run, keyed by path 
+    *         relative to the source root; available before the coverage report is written
+    */
+  public Map<String, List<String>> getDocumentLineColors();
+  
   public boolean getCoverage();
   
   //-------------------------- Listener Management --------------------------//
@@ -29,6 +29,7 @@
 package edu.rice.cs.drjava.model.junit;
 
 import java.io.File;
+import java.util.List;
 import edu.rice.cs.util.classloader.ClassFileError;
 
 /** Callback interface which allows an JUnitModel to respond to tests running in a remote JVM.
@@ -70,6 +71,12 @@ public interface JUnitModelCallback {
     */
   public void testSuiteEnded(JUnitError[] errors);
   
+  /** Called when a suite of tests that measured code coverage has finished running, just before testSuiteEnded.
+    * @param nonTestClassNames the names of the classes whose coverage was measured
+    * @param executionData the JaCoCo execution data of the run, in the format written by ExecutionDataWriter
+    */
+  public void coverageCollected(List<String> nonTestClassNames, byte[] executionData);
+  
   /** Called when the JUnitTestManager wants to open a file that is not currently open.
     * @param className the name of the class for which we want to find the file
     * @return the file associated with the given class
@@ -28,8 +28,9 @@
  * END_COPYRIGHT_BLOCK*/
 package edu.rice.cs.drjava.model.junit;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.InputStream;
+import java.io.IOException;
 
 import java.net.MalformedURLException;
 import java.net.URL;
@@ -41,10 +42,10 @@ import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
 import java.util.Enumeration;
 import java.util.Arrays;
 
+import edu.rice.cs.drjava.model.coverage.CoverageAnalyzer;
 import edu.rice.cs.drjava.model.coverage.CoverageMetadata;
 import edu.rice.cs.drjava.model.coverage.ReportGenerator;
 
@@ -57,6 +58,7 @@ import edu.rice.cs.util.classloader.ClassFileError;
 import edu.rice.cs.plt.io.IOUtil;
 import edu.rice.cs.plt.tuple.Pair;
 import edu.rice.cs.plt.iter.IterUtil;
+import edu.rice.cs.plt.lambda.Runnable2;
 
 import edu.rice.cs.drjava.model.coverage.JacocoClassLoader;
 import edu.rice.cs.plt.reflect.EmptyClassLoader;
@@ -73,10 +75,10 @@ import junit.framework.TestSuite;
 import junit.framework.TestFailure;
 import junit.framework.JUnit4TestCaseFacade;
 
-import org.jacoco.core.analysis.Analyzer;
 import org.jacoco.core.analysis.CoverageBuilder;
 import org.jacoco.core.analysis.IBundleCoverage;
 import org.jacoco.core.data.ExecutionDataStore;
+import org.jacoco.core.data.ExecutionDataWriter;
 import org.jacoco.core.data.SessionInfoStore;
 
 import org.jacoco.core.instr.Instrumenter;
@@ -114,7 +116,6 @@ public class JUnitTestManager {
   private List<File> _testFiles = null;
   
   // Create and initialize fields for JaCoCo
-  private String _coverageOutdir = null;
   private IRuntime _runtime = null;
   private RuntimeData _myData = null;
   private JUnitResultTuple _finalResult = new JUnitResultTuple(false, null);
@@ -131,12 +132,21 @@ public class JUnitTestManager {
   /** @return result of the last JUnit run */  
   public JUnitResultTuple getFinalResult() { return _finalResult; }
   
+  /** @return the number of test cases in the pending test suite, or 0 if no test suite is pending */
+  public int countTestCases() { return (_suite == null) ? 0 : _suite.countTestCases(); }
+  
+  /** @return the names of the classes passed to the last findTestClasses call that are not test classes */
+  public List<String> getNonTestClassNames() {
+    return (_nonTestClassNames == null) ? new ArrayList<String>() : new ArrayList<String>(_nonTestClassNames);
+  }
+  
   /** Used to load class files in the analysis phase of code coverage
+    * @param classPath the class path to load from
     * @return URLClassLoader with DrJava classpath
     */
-  private URLClassLoader newURLLoader() {
+  private static URLClassLoader newURLLoader(Iterable<File> classPath) {
     List<URL> urls = new LinkedList<URL>();
-    for (File f : _classPathManager.getClassPath()) {
+    for (File f : classPath) {
       try { urls.add(f.toURI().toURL()); }
       catch (IllegalArgumentException e) { error.log(e); }
       catch (MalformedURLException e) { error.log(e); }
@@ -165,7 +175,6 @@ public class JUnitTestManager {
     if (! doCoverage) loader = _classPathManager.value(defaultLoader);
     else {
       // create a Jacoco runtime, output directory, report descriptors, and loader
-      _coverageOutdir = coverageMetadata.getOutdirPath();
       _runtime = new LoggerRuntime();
       _myData = new RuntimeData();
       loader = new JacocoClassLoader(_classPathManager.getClassPath(), new Instrumenter(_runtime), defaultLoader);
@@ -230,7 +239,6 @@ public class JUnitTestManager {
       _finalResult = new JUnitResultTuple(false, null);
       return false;
     }
-    Map<String, List<String>> lineColors = null;
     _finalResult = new JUnitResultTuple(true, null);
     
 //    _log.log("runTestSuite() in SlaveJVM called");
@@ -280,39 +288,12 @@ public class JUnitTestManager {
         _log.log("Collected coverage information");
         _runtime.shutdown();
         
-        /** Together with the original class definitions we can calculate coverage information. */
-        final CoverageBuilder coverageBuilder = new CoverageBuilder();
-        final Analyzer analyzer = new Analyzer(_executionDataStore, coverageBuilder);
-        URLClassLoader urlCL = newURLLoader();
-        
-        String cName = null;
-        try {
-          for (int j = 0; j < _nonTestClassNames.size(); j++) {
-            cName = _nonTestClassNames.get(j);
-            InputStream is = urlCL.getResource(cName + ".class").openStream();
-            _log.log("Constructed InputStream " + is + " for class " + cName);
-            analyzer.analyzeClass(is, cName);
-          } 
-        } catch(Exception e) {
-          throw new UnexpectedException(e, "Coverage analysis threw this exception while processing class " + cName);
-        }
-        
-        /* Run the structure analyzer on the project source folder to build up the coverage model. In flat file
-         * mode, only the first source directory (if there are multiple source directories) is analyzed.  TODO:
-         * extend this analysis to all source directories for the open classes in flat file mode.
-         */
-        
-        _log.log("Generating test coverage");
-        IBundleCoverage bundleCoverage = coverageBuilder.getBundle("Coverage Summary");
-        ReportGenerator rg = new ReportGenerator(_coverageOutdir, coverageBuilder);
-        _log.log("Determining project root");
-        _log.log("getProjectCP() = " + _classPathManager.getProjectFilesCP());
-        File f = _classPathManager.getProjectFilesCP().iterator().next();
-        if (! f.exists()) _log.log("****** Project root does not exist!");
-        _log.log("Creating coverage report for code base rooted at " + f);
-        rg.createReport(bundleCoverage, _executionDataStore, sessionInfos, f);
-        lineColors = rg.getAllLineColors();
-        _finalResult = new JUnitResultTuple(true, lineColors);
+        // the coverage is analyzed by the receiver, which may outlive this JVM and reuse its earlier analyses
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ExecutionDataWriter writer = new ExecutionDataWriter(bytes);
+        sessionInfos.accept(writer);
+        _executionDataStore.accept(writer);
+        _jmc.coverageCollected(new ArrayList<String>(_nonTestClassNames), bytes.toByteArray());
         
       } else {
         _log.log("runtime was null");
@@ -336,6 +317,52 @@ public class JUnitTestManager {
     return _finalResult.getRetval();
   }
   
+  /** Analyzes the given execution data against the class files of the given classes, in parallel.  Classes whose
+    * class files and execution data have not changed since the analyzer's last analysis are not analyzed again.
+    * @param analyzer the analyzer
+    * @param executionData the execution data collected while running the tests
+    * @param classNames the names of the (non-test) classes whose coverage is analyzed
+    * @param classPath the class path from which the class files are read
+    * @param documentColors if not null, run with the path and the line colors of each source file as its classes are
+    *        analyzed; see CoverageAnalyzer.analyze
+    * @return the result of the analysis
+    * @throws IOException if a class file cannot be read or analyzed
+    */
+  public static CoverageAnalyzer.Result analyzeCoverage(CoverageAnalyzer analyzer, ExecutionDataStore executionData, 
+                                                        List<String> classNames, Iterable<File> classPath,
+                                                        Runnable2<String, List<String>> documentColors) 
+    throws IOException {
+    URLClassLoader urlCL = newURLLoader(classPath);
+    CoverageAnalyzer.Result result = analyzer.analyze(executionData, classNames, urlCL, documentColors);
+    _log.log("Analyzed " + result.getAnalyzedCount() + " of " + classNames.size() + " classes for coverage");
+    return result;
+  }
+  
+  /** Writes the HTML coverage report of an analysis.
+    * @param analysis the result of analyzeCoverage
+    * @param executionData the execution data collected while running the tests
+    * @param sessionInfos the sessions during which the execution data was collected
+    * @param projectRoot the root of the source files shown in the report
+    * @param outdir the directory to which the report is written
+    * @throws IOException if the report cannot be written
+    */
+  public static void writeCoverageReport(CoverageAnalyzer.Result analysis, ExecutionDataStore executionData, 
+                                         SessionInfoStore sessionInfos, File projectRoot, 
+                                         String outdir) throws IOException {
+    /* Run the structure analyzer on the project source folder to build up the coverage model. In flat file
+     * mode, only the first source directory (if there are multiple source directories) is analyzed.  TODO:
+     * extend this analysis to all source directories for the open classes in flat file mode.
+     */
+    
+    _log.log("Generating test coverage");
+    CoverageBuilder coverageBuilder = analysis.getCoverageBuilder();
+    IBundleCoverage bundleCoverage = coverageBuilder.getBundle("Coverage Summary");
+    ReportGenerator rg = new ReportGenerator(outdir, coverageBuilder);
+    if (! projectRoot.exists()) _log.log("****** Project root does not exist!");
+    _log.log("Creating coverage report for code base rooted at " + projectRoot);
+    rg.createReport(bundleCoverage, executionData, sessionInfos, projectRoot);
+  }
+  
   private void _reset() {
     _suite = null;
     _testClassNames = null;
@@ -0,0 +1,200 @@
+/*BEGIN_COPYRIGHT_BLOCK
+ *
+ * Copyright (c) 2001-2010, JavaPLT group at Rice University (drjava@rice.edu)
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    * Redistributions of source code must retain the above copyright
+ *      notice, this list of conditions and the following disclaimer.
+ *    * Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in the
+ *      documentation and/or other materials provided with the distribution.
+ *    * Neither the names of DrJava, the JavaPLT group, Rice University, nor the
+ *      names of its contributors may be used to endorse or promote products
+ *      derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This software is Open Source Initiative approved Open Source Software.
+ * Open Source Initative Approved is a trademark of the Open Source Initiative.
+ * 
+ * This file is part of DrJava.  Download the current version of this project
+ * from http://www.drjava.org/ or http://sourceforge.net/projects/drjava/
+ * 
+ * END_COPYRIGHT_BLOCK*/
+
+package edu.rice.cs.drjava.model.junit;
+
+import java.io.File;
+import java.io.PrintStream;
+import java.rmi.RemoteException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import edu.rice.cs.drjava.model.coverage.CoverageMetadata;
+import edu.rice.cs.drjava.model.repl.newjvm.ClassPathManager;
+import edu.rice.cs.plt.iter.IterUtil;
+import edu.rice.cs.util.BufferedOutputStreamRedirector;
+import edu.rice.cs.util.Log;
+import edu.rice.cs.util.UnexpectedException;
+import edu.rice.cs.util.classloader.ClassFileError;
+import edu.rice.cs.util.newjvm.AbstractSlaveJVM;
+import edu.rice.cs.util.newjvm.MasterRemote;
+
+import static edu.rice.cs.plt.debug.DebugUtil.error;
+
+/** A JVM that runs one share of a test suite for ParallelJUnitRunner.  Each worker runs a single suite and is then 
+  * quit, so tests in different runs never share static state.  This class is loaded in the worker JVM, not the 
+  * Main JVM.
+  * @version $Id$
+  */
+public class JUnitWorkerJVM extends AbstractSlaveJVM implements JUnitWorkerRemoteI, JUnitModelCallback {
+  
+  protected static final Log _log = new Log("GlobalModel.txt", false);
+  
+  /** Singleton instance of this class. */
+  public static final JUnitWorkerJVM ONLY = new JUnitWorkerJVM();
+  
+  /** Remote reference to the ParallelJUnitRunner worker in the Main JVM.  Assigned ONLY once. */
+  private volatile JUnitWorkerMasterRemoteI _master;
+  
+  /** Buffers for System.out and System.err, which forward output to _master.  Assigned ONLY once. */
+  private volatile BufferedOutputStreamRedirector _stdOut;
+  private volatile BufferedOutputStreamRedirector _stdErr;
+  
+  /** The test manager for the suite of this worker; null until findTestClasses is called. */
+  private volatile JUnitTestManager _junitTestManager;
+  
+  /** The class path of the suite of this worker. */
+  private volatile Iterable<File> _classPath = IterUtil.empty();
+  
+  /** The errors reported by _junitTestManager at the end of the suite. */
+  private volatile JUnitError[] _errors = new JUnitError[0];
+  
+  /** The execution data of the last run, reported by _junitTestManager; null if coverage was not measured. */
+  private volatile byte[] _executionData = null;
+  
+  /** The start times of the running tests and the accumulated time of each test class, in milliseconds. */
+  private final Map<String, Long> _startTimes = new HashMap<String, Long>();
+  private final HashMap<String, Long> _durations = new HashMap<String, Long>();
+  
+  private JUnitWorkerJVM() { super("Quit JUnit Worker Thread", "Poll DrJava Thread"); }
+  
+  /** Actions to perform when this JVM is started (through its superclass, AbstractSlaveJVM). */
+  protected void handleStart(MasterRemote master) {
+    _master = (JUnitWorkerMasterRemoteI) master;
+    
+    _stdOut = new BufferedOutputStreamRedirector() {
+      public void print(String s) {
+        try { _master.systemOutPrint(s); }
+        catch (RemoteException re) {
+          error.log(re);
+          throw new UnexpectedException("Main JVM can't be reached for output.\n" + re);
+        }
+      }
+    };
+    _stdErr = new BufferedOutputStreamRedirector() {
+      public void print(String s) {
+        try { _master.systemErrPrint(s); }
+        catch (RemoteException re) {
+          error.log(re);
+          throw new UnexpectedException("Main JVM can't be reached for output.\n" + re);
+        }
+      }
+    };
+    _stdOut.setPeer(_stdErr);
+    _stdErr.setPeer(_stdOut);
+    System.setOut(new PrintStream(_stdOut));
+    System.setErr(new PrintStream(_stdErr));
+  }
+  
+  // ---------- JUnitWorkerRemoteI methods ----------
+  
+  public List<String> findTestClasses(List<String> classNames, List<File> files, List<File> classPath,
+                                      CoverageMetadata coverageMetadata) {
+    _log.log("Worker finding test classes among " + classNames);
+    _classPath = classPath;
+    _junitTestManager = new JUnitTestManager(this, new ClassPathManager(classPath));
+    return _junitTestManager.findTestClasses(classNames, files, coverageMetadata);
+  }
+  
+  public int countTestCases() {
+    JUnitTestManager manager = _junitTestManager;
+    return (manager == null) ? 0 : manager.countTestCases();
+  }
+  
+  public JUnitWorkerResult runTestSuite() {
+    JUnitTestManager manager = _junitTestManager;
+    if (manager == null) throw new IllegalStateException("No test suite is pending");
+    _executionData = null;
+    manager.runTestSuite();
+    _stdOut.flush();
+    _stdErr.flush();
+    synchronized(_startTimes) {
+      return new JUnitWorkerResult(_errors, manager.getNonTestClassNames(), new HashMap<String, Long>(_durations),
+                                   _executionData);
+    }
+  }
+  
+  // ---------- JUnitModelCallback methods ----------
+  
+  /** The test manager only calls nonTestCase from the main JVM. */
+  public void nonTestCase(boolean isTestAll, boolean didCompileFail) { }
+  
+  public void classFileError(ClassFileError e) {
+    try { _master.classFileError(e); }
+    catch (RemoteException re) { error.log(re); }
+  }
+  
+  /** The master announces the size of the whole suite, so the size of this share is not forwarded. */
+  public void testSuiteStarted(int numTests) { }
+  
+  public void testStarted(String testName) {
+    synchronized(_startTimes) { _startTimes.put(testName, System.currentTimeMillis()); }
+  }
+  
+  public void testEnded(String testName, boolean wasSuccessful, boolean causedError) {
+    synchronized(_startTimes) {
+      Long start = _startTimes.remove(testName);
+      int paren = testName.indexOf('(');
+      if (start != null && paren >= 0 && testName.endsWith(")")) {
+        String className = testName.substring(paren + 1, testName.length() - 1);
+        Long soFar = _durations.get(className);
+        long elapsed = System.currentTimeMillis() - start;
+        _durations.put(className, (soFar == null) ? elapsed : soFar + elapsed);
+      }
+    }
+    _stdOut.flush();  // output printed by the test appears before its result
+    _stdErr.flush();
+    try { _master.testEnded(testName, wasSuccessful, causedError); }
+    catch (RemoteException re) { error.log(re); }
+  }
+  
+  public void testSuiteEnded(JUnitError[] errors) { _errors = errors; }
+  
+  /** The master merges the coverage of all workers, so the execution data is returned with the result. */
+  public void coverageCollected(List<String> nonTestClassNames, byte[] executionData) {
+    _executionData = executionData;
+  }
+  
+  public File getFileForClassName(String className) {
+    try { return _master.getFileForClassName(className); }
+    catch (RemoteException re) { error.log(re); return null; }
+  }
+  
+  public Iterable<File> getClassPath() { return _classPath; }
+  
+  public void junitJVMReady() { }
+}
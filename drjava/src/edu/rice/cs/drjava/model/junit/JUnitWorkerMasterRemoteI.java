@@ -0,0 +1,83 @@
+/*BEGIN_COPYRIGHT_BLOCK
+ *
+ * Copyright (c) 2001-2010, JavaPLT group at Rice University (drjava@rice.edu)
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    * Redistributions of source code must retain the above copyright
+ *      notice, this list of conditions and the following disclaimer.
+ *    * Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in the
+ *      documentation and/or other materials provided with the distribution.
+ *    * Neither the names of DrJava, the JavaPLT group, Rice University, nor the
+ *      names of its contributors may be used to endorse or promote products
+ *      derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This software is Open Source Initiative approved Open Source Software.
+ * Open Source Initative Approved is a trademark of the Open Source Initiative.
+ * 
+ * This file is part of DrJava.  Download the current version of this project
+ * from http://www.drjava.org/ or http://sourceforge.net/projects/drjava/
+ * 
+ * END_COPYRIGHT_BLOCK*/
+
+package edu.rice.cs.drjava.model.junit;
+
+import java.io.File;
+import java.rmi.RemoteException;
+
+import edu.rice.cs.util.classloader.ClassFileError;
+import edu.rice.cs.util.newjvm.MasterRemote;
+
+/** The methods that the main JVM exposes for a test worker JVM to call.
+  * @version $Id$
+  */
+public interface JUnitWorkerMasterRemoteI extends MasterRemote {
+  
+  /** Forwards text printed to System.out in the worker JVM.
+    * @param s String that was printed in the other JVM
+    * @throws RemoteException if communication over RMI fails
+    */
+  public void systemOutPrint(String s) throws RemoteException;
+  
+  /** Forwards text printed to System.err in the worker JVM.
+    * @param s String that was printed in the other JVM
+    * @throws RemoteException if communication over RMI fails
+    */
+  public void systemErrPrint(String s) throws RemoteException;
+  
+  /** Called if the worker encounters an illegal class file.
+    * @param e the ClassFileError object describing the error when loading the class file.
+    * @throws RemoteException if communication over RMI fails
+    */
+  public void classFileError(ClassFileError e) throws RemoteException;
+  
+  /** Called when a test has ended.  Workers do not report the start of a test separately, so that the results of 
+    * concurrently running tests are not interleaved.
+    * @param testName The name of the test that has ended.
+    * @param wasSuccessful Whether the test passed or not.
+    * @param causedError If not successful, whether the test caused an error or simply failed.
+    * @throws RemoteException if communication over RMI fails
+    */
+  public void testEnded(String testName, boolean wasSuccessful, boolean causedError) throws RemoteException;
+  
+  /** Called when the JUnitTestManager wants to open a file that is not currently open.
+    * @param className the name of the class for which we want to find the file
+    * @return the file associated with the given class
+    * @throws RemoteException if communication over RMI fails
+    */
+  public File getFileForClassName(String className) throws RemoteException;
+}
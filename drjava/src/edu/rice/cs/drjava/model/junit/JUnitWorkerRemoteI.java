@@ -0,0 +1,74 @@
+/*BEGIN_COPYRIGHT_BLOCK
+ *
+ * Copyright (c) 2001-2010, JavaPLT group at Rice University (drjava@rice.edu)
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    * Redistributions of source code must retain the above copyright
+ *      notice, this list of conditions and the following disclaimer.
+ *    * Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in the
+ *      documentation and/or other materials provided with the distribution.
+ *    * Neither the names of DrJava, the JavaPLT group, Rice University, nor the
+ *      names of its contributors may be used to endorse or promote products
+ *      derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This software is Open Source Initiative approved Open Source Software.
+ * Open Source Initative Approved is a trademark of the Open Source Initiative.
+ * 
+ * This file is part of DrJava.  Download the current version of this project
+ * from http://www.drjava.org/ or http://sourceforge.net/projects/drjava/
+ * 
+ * END_COPYRIGHT_BLOCK*/
+
+package edu.rice.cs.drjava.model.junit;
+
+import java.io.File;
+import java.rmi.RemoteException;
+import java.util.List;
+
+import edu.rice.cs.drjava.model.coverage.CoverageMetadata;
+import edu.rice.cs.util.newjvm.SlaveRemote;
+
+/** The methods that a test worker JVM exposes for the main JVM to call.  A worker runs its share of a test suite 
+  * in two steps, mirroring JUnitTestManager: findTestClasses loads the candidate classes and sets up the suite, and 
+  * runTestSuite runs it.
+  * @version $Id$
+  */
+public interface JUnitWorkerRemoteI extends SlaveRemote {
+  
+  /** Sets up a JUnit test suite in the worker JVM from the test classes among the given class names.
+    * @param classNames the class names that are test class candidates
+    * @param files the source files corresponding to classNames
+    * @param classPath the class path from which the classes are loaded
+    * @param coverageMetadata whether (and where) to measure code coverage
+    * @return the class names that are actually test cases
+    * @throws RemoteException if communication over RMI fails
+    */
+  public List<String> findTestClasses(List<String> classNames, List<File> files, List<File> classPath, 
+                                      CoverageMetadata coverageMetadata) throws RemoteException;
+  
+  /** @return the number of test cases in the suite set up by findTestClasses
+    * @throws RemoteException if communication over RMI fails
+    */
+  public int countTestCases() throws RemoteException;
+  
+  /** Runs the test suite set up by findTestClasses.  Individual results are reported to the master as the tests end.
+    * @return the errors, timings and coverage data of the run
+    * @throws RemoteException if communication over RMI fails
+    */
+  public JUnitWorkerResult runTestSuite() throws RemoteException;
+}
@@ -0,0 +1,73 @@
+/*BEGIN_COPYRIGHT_BLOCK
+ *
+ * Copyright (c) 2001-2010, JavaPLT group at Rice University (drjava@rice.edu)
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    * Redistributions of source code must retain the above copyright
+ *      notice, this list of conditions and the following disclaimer.
+ *    * Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in the
+ *      documentation and/or other materials provided with the distribution.
+ *    * Neither the names of DrJava, the JavaPLT group, Rice University, nor the
+ *      names of its contributors may be used to endorse or promote products
+ *      derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This software is Open Source Initiative approved Open Source Software.
+ * Open Source Initative Approved is a trademark of the Open Source Initiative.
+ * 
+ * This file is part of DrJava.  Download the current version of this project
+ * from http://www.drjava.org/ or http://sourceforge.net/projects/drjava/
+ * 
+ * END_COPYRIGHT_BLOCK*/
+
+package edu.rice.cs.drjava.model.junit;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Map;
+
+/** The results that a test worker JVM sends back to the main JVM after running its share of a test suite.
+  * @version $Id$
+  */
+public class JUnitWorkerResult implements Serializable {
+  
+  private final JUnitError[] _errors;
+  private final List<String> _nonTestClassNames;
+  private final Map<String, Long> _durations;
+  private final byte[] _executionData;
+  
+  /** @param errors the errors and failures of the tests run by the worker
+    * @param nonTestClassNames the classes given to the worker that are not test classes
+    * @param durations the time in milliseconds spent running each test class
+    * @param executionData the serialized JaCoCo execution data, or null if coverage was not measured
+    */
+  public JUnitWorkerResult(JUnitError[] errors, List<String> nonTestClassNames, Map<String, Long> durations,
+                           byte[] executionData) {
+    _errors = errors;
+    _nonTestClassNames = nonTestClassNames;
+    _durations = durations;
+    _executionData = executionData;
+  }
+  
+  public JUnitError[] getErrors() { return _errors; }
+  
+  public List<String> getNonTestClassNames() { return _nonTestClassNames; }
+  
+  public Map<String, Long> getDurations() { return _durations; }
+  
+  public byte[] getExecutionData() { return _executionData; }
+}
@@ -0,0 +1,350 @@
+/*BEGIN_COPYRIGHT_BLOCK
+ *
+ * Copyright (c) 2001-2010, JavaPLT group at Rice University (drjava@rice.edu)
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    * Redistributions of source code must retain the above copyright
+ *      notice, this list of conditions and the following disclaimer.
+ *    * Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in the
+ *      documentation and/or other materials provided with the distribution.
+ *    * Neither the names of DrJava, the JavaPLT group, Rice University, nor the
+ *      names of its contributors may be used to endorse or promote products
+ *      derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This software is Open Source Initiative approved Open Source Software.
+ * Open Source Initative Approved is a trademark of the Open Source Initiative.
+ * 
+ * This file is part of DrJava.  Download the current version of this project
+ * from http://www.drjava.org/ or http://sourceforge.net/projects/drjava/
+ * 
+ * END_COPYRIGHT_BLOCK*/
+
+package edu.rice.cs.drjava.model.junit;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.rmi.RemoteException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import edu.rice.cs.drjava.model.coverage.CoverageMetadata;
+import edu.rice.cs.plt.concurrent.JVMBuilder;
+import edu.rice.cs.plt.lambda.Runnable1;
+import edu.rice.cs.util.Log;
+import edu.rice.cs.util.classloader.ClassFileError;
+import edu.rice.cs.util.newjvm.AbstractMasterJVM;
+import edu.rice.cs.util.newjvm.SlaveRemote;
+
+import org.jacoco.core.data.ExecutionDataReader;
+import org.jacoco.core.data.ExecutionDataStore;
+import org.jacoco.core.data.ExecutionDataWriter;
+import org.jacoco.core.data.SessionInfoStore;
+
+import static edu.rice.cs.plt.debug.DebugUtil.error;
+
+/** Runs a test suite in a pool of worker JVMs (see JUnitWorkerJVM) instead of the interpreter JVM.  The test class 
+  * candidates are sharded across the workers by their historical running time, longest first, so that the slowest 
+  * classes start first and the shards take about the same time.  Like JUnitTestManager, a run has two steps: 
+  * findTestClasses starts the workers and sets up their suites, and runTestSuite runs them, streams the result of 
+  * each test to the JUnitModelCallback as it ends, and merges the errors and the code coverage data of all workers.
+  * A runner is used for a single run; its workers are quit at the end of runTestSuite or by quit().
+  * @version $Id$
+  */
+public class ParallelJUnitRunner {
+  
+  protected static final Log _log = new Log("GlobalModel.txt", false);
+  
+  /** Receives the merged results of the workers. */
+  private final JUnitModelCallback _jmc;
+  
+  /** Receive the text the tests print to System.out and System.err. */
+  private final Runnable1<String> _out;
+  private final Runnable1<String> _err;
+  
+  /** The builder for the worker JVMs. */
+  private final JVMBuilder _jvmBuilder;
+  
+  /** The maximum number of workers. */
+  private final int _numWorkers;
+  
+  /** The running time of each test class in previous runs, in milliseconds; updated at the end of each run.  Only 
+    * accessed while holding its lock.
+    */
+  private final Map<String, Long> _durations;
+  
+  /** The workers of this run; empty until findTestClasses is called. */
+  private final List<Worker> _workers = new ArrayList<Worker>();
+  
+  private volatile List<File> _classPath;
+  private volatile CoverageMetadata _coverageMetadata;
+  
+  /** @param jmc the callback receiving test results
+    * @param out receives the text printed to System.out by the tests
+    * @param err receives the text printed to System.err by the tests
+    * @param jvmBuilder the builder used to start the worker JVMs
+    * @param numWorkers the maximum number of worker JVMs
+    * @param durations the running times of test classes in previous runs, which this runner updates
+    */
+  public ParallelJUnitRunner(JUnitModelCallback jmc, Runnable1<String> out, Runnable1<String> err, 
+                             JVMBuilder jvmBuilder, int numWorkers, Map<String, Long> durations) {
+    _jmc = jmc;
+    _out = out;
+    _err = err;
+    _jvmBuilder = jvmBuilder;
+    _numWorkers = numWorkers;
+    _durations = durations;
+  }
+  
+  /** Shards the given classes among at most numShards shards.  The classes are assigned in decreasing order of their
+    * expected running time, each to the shard with the least total so far; a class with no recorded time is expected 
+    * to take as long as the average class that has one.
+    * @param classNames the names of the classes to shard
+    * @param numShards the maximum number of shards
+    * @param durations the recorded running times of the classes
+    * @return the indices into classNames of the classes in each shard, each shard in decreasing expected time
+    */
+  public static List<List<Integer>> schedule(List<String> classNames, int numShards, Map<String, Long> durations) {
+    int n = classNames.size();
+    final long[] estimates = new long[n];
+    long total = 0;
+    int known = 0;
+    for (int i = 0; i < n; i++) {
+      Long d = durations.get(classNames.get(i));
+      estimates[i] = (d == null) ? -1 : d;
+      if (d != null) { total += d; known++; }
+    }
+    long unknown = (known == 0) ? 1 : total / known;
+    // every class has a positive weight, so the first numShards classes go to distinct shards
+    for (int i = 0; i < n; i++) estimates[i] = Math.max(1, (estimates[i] < 0) ? unknown : estimates[i]);
+    
+    List<Integer> order = new ArrayList<Integer>(n);
+    for (int i = 0; i < n; i++) order.add(i);
+    Collections.sort(order, new Comparator<Integer>() {
+      public int compare(Integer i1, Integer i2) { return Long.compare(estimates[i2], estimates[i1]); }
+    });
+    
+    int shards = Math.min(numShards, n);
+    List<List<Integer>> result = new ArrayList<List<Integer>>(shards);
+    long[] loads = new long[shards];
+    for (int s = 0; s < shards; s++) result.add(new ArrayList<Integer>());
+    for (int i : order) {
+      int least = 0;
+      for (int s = 1; s < shards; s++) { if (loads[s] < loads[least]) least = s; }
+      result.get(least).add(i);
+      loads[least] += estimates[i];
+    }
+    return result;
+  }
+  
+  /** Starts the workers and sets up their test suites.  Blocks until all workers are ready.
+    * @param classNames the (fully qualified) class names that are test class candidates
+    * @param files the source files corresponding to classNames
+    * @param classPath the class path from which the classes are loaded
+    * @param coverageMetadata whether (and where) to measure code coverage
+    * @return the test class names, or null if a worker could not be started or set up, in which case all workers 
+    *         have been quit
+    */
+  public List<String> findTestClasses(List<String> classNames, List<File> files, List<File> classPath,
+                                      CoverageMetadata coverageMetadata) {
+    _classPath = classPath;
+    _coverageMetadata = coverageMetadata;
+    Map<String, Long> durations;
+    synchronized(_durations) { durations = new HashMap<String, Long>(_durations); }
+    for (List<Integer> shard : schedule(classNames, _numWorkers, durations)) {
+      List<String> names = new ArrayList<String>(shard.size());
+      List<File> shardFiles = new ArrayList<File>(shard.size());
+      for (int i : shard) {
+        names.add(classNames.get(i));
+        shardFiles.add(files.get(i));
+      }
+      _workers.add(new Worker(names, shardFiles));
+    }
+    _log.log("Starting " + _workers.size() + " test workers");
+    
+    _forEachWorker(new Runnable1<Worker>() {
+      public void run(Worker w) {
+        w.start();
+        JUnitWorkerRemoteI remote = w._remote;
+        if (remote == null) return;
+        try {
+          w._tests = remote.findTestClasses(w._classNames, w._files, _classPath, _coverageMetadata);
+          w._numTests = remote.countTestCases();
+        }
+        catch (RemoteException e) { error.log(e); }
+      }
+    });
+    
+    List<String> tests = new ArrayList<String>();
+    for (Worker w : _workers) {
+      if (w._tests == null) {
+        _log.log("Test worker for " + w._classNames + " failed to start");
+        quit();
+        return null;
+      }
+      tests.addAll(w._tests);
+    }
+    return tests;
+  }
+  
+  /** Runs the test suites set up by findTestClasses, reports the results to the JUnitModelCallback, and quits the
+    * workers.  Blocks until all workers are done.
+    */
+  public void runTestSuite() {
+    try {
+      int numTests = 0;
+      for (Worker w : _workers) numTests += w._numTests;
+      _jmc.testSuiteStarted(numTests);
+      
+      _forEachWorker(new Runnable1<Worker>() {
+        public void run(Worker w) {
+          try { w._result = w._remote.runTestSuite(); }
+          catch (RemoteException e) { error.log(e); }
+        }
+      });
+      
+      List<JUnitError> errors = new ArrayList<JUnitError>();
+      List<String> nonTestClassNames = new ArrayList<String>();
+      ExecutionDataStore executionData = new ExecutionDataStore();
+      SessionInfoStore sessionInfos = new SessionInfoStore();
+      for (Worker w : _workers) {
+        JUnitWorkerResult result = w._result;
+        if (result == null) {
+          errors.add(new JUnitError("Test worker quit while running " + w._tests, true, ""));
+          continue;
+        }
+        errors.addAll(Arrays.asList(result.getErrors()));
+        nonTestClassNames.addAll(result.getNonTestClassNames());
+        synchronized(_durations) {
+          _durations.putAll(result.getDurations());
+          for (String name : result.getNonTestClassNames()) _durations.put(name, 0L);
+        }
+        byte[] data = result.getExecutionData();
+        if (data != null) {
+          ExecutionDataReader reader = new ExecutionDataReader(new ByteArrayInputStream(data));
+          reader.setExecutionDataVisitor(executionData);  // merges the probes of classes run by several workers
+          reader.setSessionInfoVisitor(sessionInfos);
+          reader.read();
+        }
+      }
+      
+      if (_coverageMetadata.getFlag()) {
+        _log.log("Reporting merged coverage of " + nonTestClassNames);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ExecutionDataWriter writer = new ExecutionDataWriter(bytes);
+        sessionInfos.accept(writer);
+        executionData.accept(writer);
+        _jmc.coverageCollected(nonTestClassNames, bytes.toByteArray());
+      }
+      _jmc.testSuiteEnded(errors.toArray(new JUnitError[errors.size()]));
+    }
+    catch (Exception e) {
+      _jmc.testSuiteEnded(new JUnitError[] {
+        new JUnitError(null, -1, -1, e.getMessage(), false, "", "", e.toString(), e.getStackTrace())
+      });
+    }
+    finally { quit(); }
+  }
+  
+  /** Quits all workers of this runner. */
+  public void quit() {
+    _forEachWorker(new Runnable1<Worker>() { public void run(Worker w) { w.stop(); } });
+  }
+  
+  /** Runs the given action for each worker in a thread of its own, and waits for all of them to finish.
+    * @param action the action to run
+    */
+  private void _forEachWorker(final Runnable1<Worker> action) {
+    List<Thread> threads = new ArrayList<Thread>(_workers.size());
+    for (final Worker w : _workers) {
+      Thread t = new Thread("JUnit Worker " + threads.size()) {
+        public void run() { action.run(w); }
+      };
+      threads.add(t);
+      t.start();
+    }
+    for (Thread t : threads) {
+      try { t.join(); }
+      catch (InterruptedException e) { Thread.currentThread().interrupt(); return; }
+    }
+  }
+  
+  /** The main JVM side of a worker JVM. */
+  private class Worker extends AbstractMasterJVM implements JUnitWorkerMasterRemoteI {
+    private final List<String> _classNames;
+    private final List<File> _files;
+    
+    /** The remote worker; null until it has started, or if it could not be started. */
+    private volatile JUnitWorkerRemoteI _remote = null;
+    
+    private volatile List<String> _tests = null;
+    private volatile int _numTests = 0;
+    private volatile JUnitWorkerResult _result = null;
+    
+    public Worker(List<String> classNames, List<File> files) {
+      super(JUnitWorkerJVM.class.getName());
+      _classNames = classNames;
+      _files = files;
+    }
+    
+    /** Starts the worker JVM.  Blocks until it has connected or failed to start. */
+    public void start() { invokeSlave(_jvmBuilder); }
+    
+    /** Quits the worker JVM, if it is running, and frees this master.  Does not use quitSlave, which would block 
+      * forever if the worker had already quit (for example, because a test called System.exit).
+      */
+    public void stop() {
+      JUnitWorkerRemoteI remote = _remote;
+      _remote = null;
+      if (remote != null) {
+        try { remote.quit(); }
+        catch (RemoteException e) { /* the worker has already quit */ }
+      }
+      if (! isDisposed()) dispose();
+    }
+    
+    protected void handleSlaveConnected(SlaveRemote newSlave) { _remote = (JUnitWorkerRemoteI) newSlave; }
+    
+    protected void handleSlaveQuit(int status) { _log.log("Test worker quit with status " + status); }
+    
+    protected void handleSlaveWontStart(Exception e) { error.log("Test worker won't start", e); }
+    
+    public void systemOutPrint(String s) { _out.run(s); }
+    
+    public void systemErrPrint(String s) { _err.run(s); }
+    
+    public void classFileError(ClassFileError e) { _jmc.classFileError(e); }
+    
+    /** Reports the start and end of the test together, so that the results of different workers are not
+      * interleaved.
+      */
+    public void testEnded(String testName, boolean wasSuccessful, boolean causedError) {
+      synchronized(ParallelJUnitRunner.this) {
+        _jmc.testStarted(testName);
+        _jmc.testEnded(testName, wasSuccessful, causedError);
+      }
+    }
+    
+    public File getFileForClassName(String className) { return _jmc.getFileForClassName(className); }
+  }
+}
@@ -0,0 +1,244 @@
+/*BEGIN_COPYRIGHT_BLOCK
+ *
+ * Copyright (c) 2001-2010, JavaPLT group at Rice University (drjava@rice.edu)
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    * Redistributions of source code must retain the above copyright
+ *      notice, this list of conditions and the following disclaimer.
+ *    * Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in the
+ *      documentation and/or other materials provided with the distribution.
+ *    * Neither the names of DrJava, the JavaPLT group, Rice University, nor the
+ *      names of its contributors may be used to endorse or promote products
+ *      derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This software is Open Source Initiative approved Open Source Software.
+ * Open Source Initative Approved is a trademark of the Open Source Initiative.
+ * 
+ * This file is part of DrJava.  Download the current version of this project
+ * from http://www.drjava.org/ or http://sourceforge.net/projects/drjava/
+ * 
+ * END_COPYRIGHT_BLOCK*/
+
+package edu.rice.cs.drjava.model.junit;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+import edu.rice.cs.drjava.DrJavaTestCase;
+import edu.rice.cs.drjava.model.coverage.CoverageAnalyzer;
+import edu.rice.cs.drjava.model.coverage.CoverageMetadata;
+import edu.rice.cs.drjava.model.repl.newjvm.ClassPathManager;
+import edu.rice.cs.plt.concurrent.JVMBuilder;
+import edu.rice.cs.plt.io.IOUtil;
+import edu.rice.cs.plt.lambda.Runnable1;
+import edu.rice.cs.util.classloader.ClassFileError;
+
+import org.jacoco.core.data.ExecutionDataReader;
+import org.jacoco.core.data.ExecutionDataStore;
+import org.jacoco.core.data.SessionInfoStore;
+
+/** Tests the sharding of test classes in ParallelJUnitRunner, and that a run in worker JVMs matches a serial run.
+  * @version $Id$
+  */
+public final class ParallelJUnitRunnerTest extends DrJavaTestCase {
+  
+  private static final List<String> NAMES = Arrays.asList("A", "B", "C", "D", "E");
+  
+  /** Tests that the classes are assigned longest first, each to the least loaded shard. */
+  public void testScheduleByDuration() {
+    Map<String, Long> durations = new HashMap<String, Long>();
+    durations.put("A", 10L);
+    durations.put("B", 70L);
+    durations.put("C", 30L);
+    durations.put("D", 40L);
+    durations.put("E", 20L);
+    List<List<Integer>> shards = ParallelJUnitRunner.schedule(NAMES, 2, durations);
+    assertEquals(2, shards.size());
+    assertEquals(Arrays.asList(1, 4), shards.get(0));     // B, E: 90ms
+    assertEquals(Arrays.asList(3, 2, 0), shards.get(1));  // D, C, A: 80ms
+  }
+  
+  /** Tests that classes without a recorded duration are expected to take the average time. */
+  public void testScheduleUnknownDurations() {
+    Map<String, Long> durations = new HashMap<String, Long>();
+    durations.put("A", 100L);
+    durations.put("B", 20L);
+    List<List<Integer>> shards = ParallelJUnitRunner.schedule(NAMES, 3, durations);
+    assertEquals(3, shards.size());
+    // C, D, and E are expected to take 60ms
+    assertEquals(Arrays.asList(0), shards.get(0));
+    assertEquals(Arrays.asList(2, 4), shards.get(1));
+    assertEquals(Arrays.asList(3, 1), shards.get(2));
+    
+    // without any history, the classes are dealt out in order
+    shards = ParallelJUnitRunner.schedule(NAMES, 2, Collections.<String, Long>emptyMap());
+    assertEquals(Arrays.asList(0, 2, 4), shards.get(0));
+    assertEquals(Arrays.asList(1, 3), shards.get(1));
+  }
+  
+  /** Tests that there are no more shards than classes, and that every class is assigned exactly once. */
+  public void testScheduleFewClasses() {
+    Map<String, Long> durations = Collections.emptyMap();
+    assertEquals(0, ParallelJUnitRunner.schedule(Collections.<String>emptyList(), 4, durations).size());
+    List<List<Integer>> shards = ParallelJUnitRunner.schedule(NAMES.subList(0, 2), 4, durations);
+    assertEquals(2, shards.size());
+    assertEquals(Arrays.asList(0), shards.get(0));
+    assertEquals(Arrays.asList(1), shards.get(1));
+    
+    shards = ParallelJUnitRunner.schedule(NAMES, 1, durations);
+    assertEquals(1, shards.size());
+    assertEquals(Arrays.asList(0, 1, 2, 3, 4), shards.get(0));
+  }
+  
+  /** Runs the same classes in the current JVM and in two worker JVMs, and compares the results and the coverage.  The
+    * two test classes cover different branches of the class under test and land in different workers, so the 
+    * coverage only matches if the execution data of the workers is merged.
+    */
+  public void testMatchesSerialRun() throws Exception {
+    File root = IOUtil.createAndMarkTempDirectory("paralleljunit", "");
+    try {
+      List<File> files = Arrays.asList(
+        _source(root, "sample/Sample.java", 
+                "package sample;\n" +
+                "public class Sample {\n" +
+                "  public static int sign(int x) {\n" +
+                "    if (x > 0) return 1;\n" +
+                "    else return -1;\n" +
+                "  }\n" +
+                "}\n"),
+        _source(root, "sample/PositiveTest.java", 
+                "package sample;\n" +
+                "public class PositiveTest extends junit.framework.TestCase {\n" +
+                "  public void testPositive() { assertEquals(1, Sample.sign(1)); }\n" +
+                "}\n"),
+        _source(root, "sample/NegativeTest.java", 
+                "package sample;\n" +
+                "public class NegativeTest extends junit.framework.TestCase {\n" +
+                "  public void testNegative() { assertEquals(-1, Sample.sign(-1)); }\n" +
+                "  public void testWrong() { assertEquals(1, Sample.sign(-2)); }\n" +
+                "}\n"));
+      JavaCompiler javac = ToolProvider.getSystemJavaCompiler();
+      List<String> args = new ArrayList<String>(Arrays.asList("-g", "-d", root.getPath(), "-cp", 
+                                                              IOUtil.attemptAbsoluteFile(_junitJar()).getPath()));
+      for (File f : files) args.add(f.getPath());
+      assertEquals("compilation succeeds", 0, javac.run(null, null, null, args.toArray(new String[0])));
+      
+      // scheduled without history, Sample and NegativeTest share a worker, and PositiveTest runs in the other
+      List<String> classNames = Arrays.asList("sample.Sample", "sample.PositiveTest", "sample.NegativeTest");
+      List<File> classPath = Arrays.asList(root);
+      
+      RecordingCallback serial = new RecordingCallback(classPath);
+      ClassPathManager classPathManager = new ClassPathManager(classPath);
+      classPathManager.addProjectFilesCP(root);
+      JUnitTestManager manager = new JUnitTestManager(serial, classPathManager);
+      List<String> serialTests = 
+        manager.findTestClasses(classNames, files, new CoverageMetadata(true, new File(root, "serial").getPath()));
+      assertEquals(2, serialTests.size());
+      manager.runTestSuite();
+      Map<String, List<String>> serialColors = _lineColors(serial, classPath);
+      assertNotNull(serialColors.get("sample/Sample"));
+      
+      RecordingCallback parallel = new RecordingCallback(classPath);
+      Runnable1<String> ignore = new Runnable1<String>() { public void run(String s) { } };
+      ParallelJUnitRunner runner = 
+        new ParallelJUnitRunner(parallel, ignore, ignore, JVMBuilder.DEFAULT, 2, new HashMap<String, Long>());
+      List<String> parallelTests = 
+        runner.findTestClasses(classNames, files, classPath, 
+                               new CoverageMetadata(true, new File(root, "parallel").getPath()));
+      assertNotNull("workers started", parallelTests);
+      assertEquals(new TreeSet<String>(serialTests), new TreeSet<String>(parallelTests));
+      runner.runTestSuite();
+      
+      assertEquals(3, serial._started.size());
+      assertEquals(serial._started, parallel._started);
+      assertEquals(serial._ended, parallel._ended);
+      assertEquals(1, serial._errors.size());
+      assertEquals(serial._errors, parallel._errors);
+      assertEquals(serial._coverageNames, parallel._coverageNames);
+      assertEquals(serialColors, _lineColors(parallel, classPath));
+    }
+    finally { IOUtil.deleteRecursively(root); }
+  }
+  
+  /** Analyzes the execution data reported to a callback. */
+  private static Map<String, List<String>> _lineColors(RecordingCallback c, List<File> classPath) throws IOException {
+    assertNotNull("coverage reported", c._executionData);
+    ExecutionDataStore store = new ExecutionDataStore();
+    ExecutionDataReader reader = new ExecutionDataReader(new ByteArrayInputStream(c._executionData));
+    reader.setExecutionDataVisitor(store);
+    reader.setSessionInfoVisitor(new SessionInfoStore());
+    reader.read();
+    return JUnitTestManager.analyzeCoverage(new CoverageAnalyzer(), store, c._coverageNames, classPath, 
+                                            null).getLineColors();
+  }
+  
+  private static File _source(File root, String name, String text) throws IOException {
+    File f = new File(root, name);
+    f.getParentFile().mkdirs();
+    IOUtil.writeStringToFile(f, text);
+    return f;
+  }
+  
+  private static File _junitJar() throws Exception {
+    return new File(junit.framework.TestCase.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+  }
+  
+  /** Records the tests started and ended, and the errors at the end of the suite, each in a canonical order, and the
+    * reported coverage.
+    */
+  private static class RecordingCallback implements JUnitModelCallback {
+    private final Iterable<File> _classPath;
+    final Set<String> _started = new TreeSet<String>();
+    final Set<String> _ended = new TreeSet<String>();
+    final Set<String> _errors = new TreeSet<String>();
+    volatile List<String> _coverageNames = null;
+    volatile byte[] _executionData = null;
+    
+    RecordingCallback(Iterable<File> classPath) { _classPath = classPath; }
+    
+    public void nonTestCase(boolean isTestAll, boolean didCompileFail) { }
+    public void classFileError(ClassFileError e) { fail("class file error: " + e); }
+    public void testSuiteStarted(int numTests) { }
+    public synchronized void testStarted(String testName) { _started.add(testName); }
+    public synchronized void testEnded(String testName, boolean wasSuccessful, boolean causedError) {
+      _ended.add(testName + " " + wasSuccessful + " " + causedError);
+    }
+    public synchronized void testSuiteEnded(JUnitError[] errors) {
+      for (JUnitError e : errors) _errors.add(e.testName() + ": " + e.message() + " " + e.isWarning());
+    }
+    public void coverageCollected(List<String> nonTestClassNames, byte[] executionData) {
+      _coverageNames = nonTestClassNames;
+      _executionData = executionData;
+    }
+    public File getFileForClassName(String className) { return null; }
+    public Iterable<File> getClassPath() { return _classPath; }
+    public void junitJVMReady() { }
+  }
+}
@@ -0,0 +1,175 @@
+/*BEGIN_COPYRIGHT_BLOCK
+ *
+ * Copyright (c) 2001-2010, JavaPLT group at Rice University (drjava@rice.edu)
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    * Redistributions of source code must retain the above copyright
+ *      notice, this list of conditions and the following disclaimer.
+ *    * Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in the
+ *      documentation and/or other materials provided with the distribution.
+ *    * Neither the names of DrJava, the JavaPLT group, Rice University, nor the
+ *      names of its contributors may be used to endorse or promote products
+ *      derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This software is Open Source Initiative approved Open Source Software.
+ * Open Source Initative Approved is a trademark of the Open Source Initiative.
+ * 
+ * This file is part of DrJava.  Download the current version of this project
+ * from http://www.drjava.org/ or http://sourceforge.net/projects/drjava/
+ * 
+ * END_COPYRIGHT_BLOCK*/
+
+package edu.rice.cs.drjava.model.junit;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import edu.rice.cs.plt.io.IOUtil;
+import edu.rice.cs.plt.lambda.Box;
+import edu.rice.cs.plt.lambda.SimpleBox;
+import edu.rice.cs.util.Log;
+
+import org.objectweb.asm.*;
+
+/** An index of the class files in the build directories searched for test classes.  For each class file, it 
+  * remembers the class name and source file name read from the class file, and whether the class was a test class 
+  * the last time the tests were run.  A class file is only read again when its modification time or length has 
+  * changed.  The index is only accessed by the thread setting up a test run, but is synchronized anyway.
+  * @version $Id$
+  */
+class TestClassIndex {
+  
+  private static final Log _log = new Log("GlobalModel.txt", false);
+  
+  /** The information about a class file. */
+  static class Entry {
+    private final File _file;
+    private final long _lastModified;
+    private final long _length;
+    private final String _className;
+    private final String _sourceName;
+    
+    /** Whether the class was a test class in the last run; null if unknown. */
+    private volatile Boolean _isTest = null;
+    
+    private Entry(File file, long lastModified, long length, String className, String sourceName) {
+      _file = file;
+      _lastModified = lastModified;
+      _length = length;
+      _className = className;
+      _sourceName = sourceName;
+    }
+    
+    /** @return the class file */
+    public File file() { return _file; }
+    
+    /** @return the fully qualified name of the class */
+    public String className() { return _className; }
+    
+    /** @return the name of the source file (without directory) named by the class file, or null if there is none */
+    public String sourceName() { return _sourceName; }
+    
+    /** @return whether the class was a test class in the last run, or null if that is unknown */
+    public Boolean isTest() { return _isTest; }
+    
+    /** @param isTest whether the class is a test class */
+    public void setIsTest(boolean isTest) { _isTest = isTest; }
+    
+    /** @return true if the class file has not changed since this entry was made */
+    private boolean isCurrent(long lastModified, long length) {
+      return _lastModified == lastModified && _length == length;
+    }
+  }
+  
+  /** The entries for the class files in each directory that has been scanned, keyed by class file name. */
+  private final Map<File, Map<String, Entry>> _dirs = new HashMap<File, Map<String, Entry>>();
+  
+  /** Whether any class file was added, changed, or removed by the scans since the last call of resetChanged(). */
+  private boolean _changed = false;
+  
+  /** Returns the entries for the class files in the given directory, reading only the class files that are new or 
+    * have changed since the directory was last scanned.  Entries of class files that have been removed are dropped.
+    * @param dir the directory to scan (not recursively)
+    * @return the entries for the readable class files in dir
+    */
+  public synchronized List<Entry> scan(File dir) {
+    Map<String, Entry> old = _dirs.get(dir);
+    if (old == null) old = new HashMap<String, Entry>();
+    Map<String, Entry> current = new HashMap<String, Entry>();
+    
+    File[] listing = dir.listFiles();
+    if (listing != null) { // listFiles may return null if there's an IO error
+      for (File f : listing) {
+        String name = f.getName();
+        if (! name.endsWith(".class") || ! f.isFile()) continue;
+        long lastModified = f.lastModified();
+        long length = f.length();
+        Entry e = old.get(name);
+        if (e == null || ! e.isCurrent(lastModified, length)) {
+          _changed = true;
+          e = _read(f, lastModified, length);
+        }
+        current.put(name, e);
+      }
+    }
+    if (! current.keySet().containsAll(old.keySet())) _changed = true;
+    _dirs.put(dir, current);
+    
+    List<Entry> result = new ArrayList<Entry>(current.size());
+    for (Entry e : current.values()) { if (e._className != null) result.add(e); }
+    return result;
+  }
+  
+  /** @return true if any class file was added, changed, or removed by a scan since the last call of resetChanged() */
+  public synchronized boolean hasChanged() { return _changed; }
+  
+  /** Starts tracking changes anew. */
+  public synchronized void resetChanged() { _changed = false; }
+  
+  /** Reads the class name and the source file name from the given class file.
+    * @return the new entry, whose class name is null if the file cannot be read
+    */
+  private static Entry _read(File f, long lastModified, long length) {
+    _log.log("Reading class file " + f);
+    try {
+      final Box<String> className = new SimpleBox<String>();
+      final Box<String> sourceName = new SimpleBox<String>();
+      new ClassReader(IOUtil.toByteArray(f)).accept(new ClassVisitor(Opcodes.ASM4) {
+        public void visit(int version, int access, String name, String sig, String sup, String[] inters) {
+          className.set(name.replace('/', '.'));
+        }
+        public void visitSource(String source, String debug) { sourceName.set(source); }
+        public void visitOuterClass(String owner, String name, String desc) { }
+        public AnnotationVisitor visitAnnotation(String desc, boolean visible) { return null; }
+        public void visitAttribute(Attribute attr) { }
+        public void visitInnerClass(String name, String out, String in, int access) { }
+        public FieldVisitor visitField(int a, String n, String d, String s, Object v) { return null; }
+        public MethodVisitor visitMethod(int a, String n, String d, String s, String[] e) { return null; }
+        public void visitEnd() { }
+      }, ClassReader.SKIP_CODE | ClassReader.SKIP_FRAMES);
+      return new Entry(f, lastModified, length, className.value(), sourceName.value());
+    }
+    catch (IOException e) { /* ignore it; can't read class file */ }
+    catch (RuntimeException e) { /* not a valid class file */ }
+    return new Entry(f, lastModified, length, null, null);
+  }
+}
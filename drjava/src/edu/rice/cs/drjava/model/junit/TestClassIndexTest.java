@@ -0,0 +1,113 @@
+/*BEGIN_COPYRIGHT_BLOCK
+ *
+ * Copyright (c) 2001-2010, JavaPLT group at Rice University (drjava@rice.edu)
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    * Redistributions of source code must retain the above copyright
+ *      notice, this list of conditions and the following disclaimer.
+ *    * Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in the
+ *      documentation and/or other materials provided with the distribution.
+ *    * Neither the names of DrJava, the JavaPLT group, Rice University, nor the
+ *      names of its contributors may be used to endorse or promote products
+ *      derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This software is Open Source Initiative approved Open Source Software.
+ * Open Source Initative Approved is a trademark of the Open Source Initiative.
+ * 
+ * This file is part of DrJava.  Download the current version of this project
+ * from http://www.drjava.org/ or http://sourceforge.net/projects/drjava/
+ * 
+ * END_COPYRIGHT_BLOCK*/
+
+package edu.rice.cs.drjava.model.junit;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import edu.rice.cs.drjava.DrJavaTestCase;
+import edu.rice.cs.plt.io.IOUtil;
+
+/** Tests the class file index used to find test classes.
+  * @version $Id$
+  */
+public final class TestClassIndexTest extends DrJavaTestCase {
+  
+  private File _tempDir;
+  
+  public void setUp() throws Exception {
+    super.setUp();
+    String user = System.getProperty("user.name");
+    _tempDir = IOUtil.createAndMarkTempDirectory("DrJava-test-" + user, "");
+  }
+  
+  public void tearDown() throws Exception {
+    IOUtil.deleteRecursively(_tempDir);
+    _tempDir = null;
+    super.tearDown();
+  }
+  
+  /** Copies the class file of the given class into the temporary directory. */
+  private File _copyClassFile(Class<?> c, String fileName) throws IOException {
+    String resource = c.getName().replace('.', '/') + ".class";
+    File f = new File(_tempDir, fileName);
+    IOUtil.copyFile(new File(c.getClassLoader().getResource(resource).getPath()), f);
+    return f;
+  }
+  
+  public void testScan() throws IOException {
+    TestClassIndex index = new TestClassIndex();
+    File f = _copyClassFile(TestClassIndexTest.class, "TestClassIndexTest.class");
+    IOUtil.writeStringToFile(new File(_tempDir, "Notes.txt"), "not a class file");
+    IOUtil.writeStringToFile(new File(_tempDir, "Broken.class"), "not a class file");
+    
+    List<TestClassIndex.Entry> entries = index.scan(_tempDir);
+    assertEquals(1, entries.size());
+    TestClassIndex.Entry e = entries.get(0);
+    assertEquals(f, e.file());
+    assertEquals(TestClassIndexTest.class.getName(), e.className());
+    assertEquals("TestClassIndexTest.java", e.sourceName());
+    assertNull(e.isTest());
+    assertTrue(index.hasChanged());
+    
+    // unchanged class files are not read again
+    index.resetChanged();
+    e.setIsTest(true);
+    entries = index.scan(_tempDir);
+    assertEquals(1, entries.size());
+    assertSame(e, entries.get(0));
+    assertEquals(Boolean.TRUE, entries.get(0).isTest());
+    assertFalse(index.hasChanged());
+    
+    // a changed class file is read again and its test status is forgotten
+    _copyClassFile(TestClassIndex.class, "TestClassIndexTest.class");
+    assertTrue(f.setLastModified(f.lastModified() + 2000));
+    entries = index.scan(_tempDir);
+    assertEquals(1, entries.size());
+    assertNotSame(e, entries.get(0));
+    assertEquals(TestClassIndex.class.getName(), entries.get(0).className());
+    assertNull(entries.get(0).isTest());
+    assertTrue(index.hasChanged());
+    
+    // a removed class file is dropped
+    index.resetChanged();
+    assertTrue(f.delete());
+    assertEquals(0, index.scan(_tempDir).size());
+    assertTrue(index.hasChanged());
+  }
+}
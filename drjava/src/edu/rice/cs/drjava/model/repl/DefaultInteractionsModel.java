@@ -76,6 +76,13 @@ public class DefaultInteractionsModel extends RMIInteractionsModel {
     
     // Add option listeners  // WHEN ARE THESE EVER REMOVED?
     DrJava.getConfig().addOptionListener(OptionConstants.HISTORY_MAX_SIZE, _document.getHistoryOptionListener());
+    _document.setMaxLength(DrJava.getConfig().getSetting(OptionConstants.INTERACTIONS_MAX_LENGTH).intValue());
+    DrJava.getConfig().addOptionListener(OptionConstants.INTERACTIONS_MAX_LENGTH,
+                                         new OptionListener<Integer>() {
+      public void optionChanged(OptionEvent<Integer> oce) {
+        _document.setMaxLength(oce.value.intValue());
+      }
+    });
     DrJava.getConfig().addOptionListener(OptionConstants.RUN_WITH_ASSERT,
                                          new OptionListener<Boolean>() {
       public void optionChanged(OptionEvent<Boolean> oce) {
@@ -41,8 +41,15 @@ import edu.rice.cs.util.text.ConsoleDocumentInterface;
 import edu.rice.cs.util.swing.Utilities;
 
 import java.awt.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
-import java.util.LinkedList;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
 import javax.swing.text.AbstractDocument;
 import javax.swing.undo.*;
 
@@ -188,40 +195,135 @@ public class InteractionsDJDocument extends AbstractDJDocument implements Consol
    */
   protected Indenter makeNewIndenter(int indentLevel) { return new Indenter(indentLevel); }
   
-  /** A list of styles and their locations augmenting this document.  This augmentation is NOT part of the reduced
-    * model; it a separate extension that uses itself as a mutual exclusion lock.  This list holds pairs of location
-    * intervals and strings (identifying styles).  In essence it maps regions to colors (??).
-    * in the document and styles, which is basically a map of regions where the coloring view that is now attached to
-    * the Interactions Pane.  It is not allowed to use the reduced model to determine the color settings when 
-    * rendering text. (Why not? -- Corky)  We keep a list of all places where styles not considered by the reduced 
-    * are being used, such as System.out, System.err, and the various return styles for Strings and other Objects.  
-    * Since the LinkedList class is not thread safe,  we have to synchronized all methods that access pointers in 
-    * _stylesList and the associated boolean _toClear.
+  /** A style run: the closed interval [start, end] of absolute offsets (see _trimmed) and the name of its style. */
+  private static final class StyleRun {
+    private final long _start;
+    private final long _end;
+    private final String _style;
+    private final long _seq;
+    private StyleRun(long start, long end, String style, long seq) {
+      _start = start;
+      _end = end;
+      _style = style;
+      _seq = seq;
+    }
+  }
+  
+  /** The part of a style run, ending at the absolute offset _end, that is not painted over by a newer run. */
+  private static final class Segment {
+    private final long _end;
+    private final StyleRun _run;
+    private Segment(long end, StyleRun run) {
+      _end = end;
+      _run = run;
+    }
+  }
+  
+  /** The styles and their locations augmenting this document.  This augmentation is NOT part of the reduced model; 
+    * it is a separate extension that uses itself as a mutual exclusion lock.  It is not allowed to use the reduced 
+    * model to determine the color settings when rendering text, so we keep track of all places where styles not
+    * considered by the reduced model are being used, such as System.out, System.err, and the various return styles 
+    * for Strings and other Objects.  When styles overlap, the most recently added one wins, so each style run is 
+    * painted over the map of disjoint segments, keyed by start offset, that are still visible.  ColoringView looks up 
+    * a point with a single floorEntry instead of scanning every style ever added.  Since the TreeMap class is not
+    * thread safe, we have to synchronize all methods that access _styleRuns and the associated fields _toClear and 
+    * _trimmed.
+    */
+  private final TreeMap<Long, Segment> _styleRuns = new TreeMap<Long, Segment>();
+  
+  /** The number of characters removed from the head of the document by bounded scrollback since the styles were last
+    * cleared.  Offsets in _styleRuns are absolute: the document offset plus _trimmed, so trimming the head never 
+    * requires shifting the runs that remain.
     */
-  private List<Pair<Pair<Integer,Integer>,String>> _stylesList = new LinkedList<Pair<Pair<Integer,Integer>,String>>();
+  private long _trimmed = 0;
+  
+  /** The sequence number of the next style run, used to order getStyles() from newest to oldest. */
+  private long _nextSeq = 0;
   
   /** Adds the given coloring style to the styles list.  Only runs in event thread. */
   public void addColoring(int start, int end, String style) {
-//    synchronized(_stylesList) {
-    if (_toClear) {
-      _stylesList.clear();    
-      _toClear = false;
+    synchronized(_styleRuns) {
+      if (_toClear) {
+        _styleRuns.clear();
+        _trimmed = 0;
+        _toClear = false;
+      }
+      if (style != null) _paint(new StyleRun(start + _trimmed, end + _trimmed, style, _nextSeq++));
+    }
+  }
+  
+  /** Paints the given run over the segments in _styleRuns, truncating or splitting the segments it overlaps.  Assumes
+    * that the lock on _styleRuns is held.
+    * @param run the new style run
+    */
+  private void _paint(StyleRun run) {
+    long start = run._start;
+    long end = run._end;
+    Map.Entry<Long, Segment> before = _styleRuns.lowerEntry(start);
+    if (before != null && before.getValue()._end >= start) {
+      Segment b = before.getValue();
+      _styleRuns.put(before.getKey(), new Segment(start - 1, b._run));
+      if (b._end > end) _styleRuns.put(end + 1, new Segment(b._end, b._run));
+    }
+    NavigableMap<Long, Segment> covered = _styleRuns.subMap(start, true, end, true);
+    if (! covered.isEmpty()) {
+      Segment last = covered.lastEntry().getValue();
+      covered.clear();
+      if (last._end > end) _styleRuns.put(end + 1, last);
+    }
+    _styleRuns.put(start, new Segment(end, run));
+  }
+  
+  /** Finds the style at the given point.  Only runs in event thread.
+    * @param point the document offset
+    * @return the name of the most recently added style covering point, or null if there is none
+    */
+  private String _styleAt(int point) {
+    synchronized(_styleRuns) {
+      long p = point + _trimmed;
+      Map.Entry<Long, Segment> e = _styleRuns.floorEntry(p);
+      if (e == null || e.getValue()._end < p) return null;
+      return e.getValue()._run._style;
     }
-    if (style != null)
-      _stylesList.add(0, new Pair<Pair<Integer,Integer>,String>
-                      (new Pair<Integer,Integer>(Integer.valueOf(start),Integer.valueOf(end)), style));
-//    }
   }
   
-  /** Accessor method used to copy contents of _stylesList to an array.  Used in test cases. 
-   * @return a copy of the contents of _styleList
+  /** Removes the first len characters of the document and the style runs that lie entirely within them. Since it 
+    * shifts every offset in the document, pending undo edits are discarded.  Only runs in event thread.
+    * @param len Number of characters to remove
+    */
+  @Override
+  public void removeHead(int len) {
+    super.removeHead(len);
+    synchronized(_styleRuns) {
+      _trimmed += len;
+      NavigableMap<Long, Segment> dropped = _styleRuns.headMap(_trimmed, false);
+      if (! dropped.isEmpty()) {
+        Segment last = dropped.lastEntry().getValue();
+        dropped.clear();
+        if (last._end >= _trimmed) _styleRuns.put(_trimmed, last);
+      }
+    }
+    resetUndoManager();
+  }
+  
+  /** Accessor method used to copy the visible style runs to an array, newest first.  Used in test cases. 
+   * @return a copy of the style runs that have not been painted over or trimmed, as ((start, end), style) pairs
    */
   public Pair<Pair<Integer, Integer>, String>[] getStyles() { 
-    synchronized(_stylesList) {
-      // TODO: file javac bug report concerning placement of @SuppressWarnings.  Fails if rhs of result binding is used as body of 
-      // return statement.
+    synchronized(_styleRuns) {
+      Set<StyleRun> visible = new HashSet<StyleRun>();
+      for (Segment seg : _styleRuns.values()) visible.add(seg._run);
+      List<StyleRun> runs = new ArrayList<StyleRun>(visible);
+      Collections.sort(runs, new Comparator<StyleRun>() {
+        public int compare(StyleRun r1, StyleRun r2) { return Long.compare(r2._seq, r1._seq); }
+      });
       @SuppressWarnings({"unchecked","rawtypes"})
-      Pair<Pair<Integer, Integer>, String>[] result = _stylesList.toArray(new Pair[0]);
+      Pair<Pair<Integer, Integer>, String>[] result = new Pair[runs.size()];
+      for (int i = 0; i < result.length; i++) {
+        StyleRun r = runs.get(i);
+        Pair<Integer, Integer> loc = Pair.make((int) Math.max(0, r._start - _trimmed), (int) (r._end - _trimmed));
+        result[i] = Pair.make(loc, r._style);
+      }
       return result;
     }
   }
@@ -233,59 +335,53 @@ public class InteractionsDJDocument extends AbstractDJDocument implements Consol
     * @return true if coloring was set; false otherwise (e.g. if point was not in the list)
     */
   public boolean setColoring(int point, Graphics g) {
-    synchronized(_stylesList) {
-      for(Pair<Pair<Integer,Integer>,String> p :  _stylesList) {
-        Pair<Integer,Integer> loc = p.first();
-        if (loc.first() <= point && loc.second() >= point) {
-          if (p.second().equals(InteractionsDocument.ERROR_STYLE)) {
-            //DrJava.consoleErr().println("Error Style");
-            g.setColor(ERROR_COLOR);   
-            g.setFont(g.getFont().deriveFont(Font.BOLD));
-          }
-          else if (p.second().equals(InteractionsDocument.DEBUGGER_STYLE)) {
-            //DrJava.consoleErr().println("Debugger Style");
-            g.setColor(DEBUGGER_COLOR);
-            g.setFont(g.getFont().deriveFont(Font.BOLD));
-          }
-          /* Note: SYSTEM_OUT_STYLE, SYSTEM_IN_STYLE, SYSTEM_ERR_STYLE are defined in EditDocumentInterface */
-          else if (p.second().equals(SYSTEM_OUT_STYLE)) {
-            //DrJava.consoleErr().println("System.out Style");
-            g.setColor(INTERACTIONS_SYSTEM_OUT_COLOR);
-            g.setFont(MAIN_FONT);
-          }
-          else if (p.second().equals(SYSTEM_IN_STYLE)) {
-            //DrJava.consoleErr().println("System.in Style");
-            g.setColor(INTERACTIONS_SYSTEM_IN_COLOR);
-            g.setFont(MAIN_FONT);
-          }
-          else if (p.second().equals(SYSTEM_ERR_STYLE)) {
-            //DrJava.consoleErr().println("System.err Style");
-            g.setColor(INTERACTIONS_SYSTEM_ERR_COLOR);
-            g.setFont(MAIN_FONT);
-          }
-          else if (p.second().equals(InteractionsDocument.OBJECT_RETURN_STYLE)) {
-            g.setColor(NORMAL_COLOR);
-            g.setFont(MAIN_FONT);
-          }
-          else if (p.second().equals(InteractionsDocument.STRING_RETURN_STYLE)) {
-            g.setColor(DOUBLE_QUOTED_COLOR);
-            g.setFont(MAIN_FONT);
-          }
-          else if (p.second().equals(InteractionsDocument.NUMBER_RETURN_STYLE)) {
-            g.setColor(NUMBER_COLOR);
-            g.setFont(MAIN_FONT);
-          }
-          else if (p.second().equals(InteractionsDocument.CHARACTER_RETURN_STYLE)) {
-            g.setColor(SINGLE_QUOTED_COLOR);
-            g.setFont(MAIN_FONT);
-          }
-          else return false; /* Normal text color */ 
-          
-          return true;
-        }
-      }
-      return false;
+    String style = _styleAt(point);
+    if (style == null) return false;
+    if (style.equals(InteractionsDocument.ERROR_STYLE)) {
+      //DrJava.consoleErr().println("Error Style");
+      g.setColor(ERROR_COLOR);   
+      g.setFont(g.getFont().deriveFont(Font.BOLD));
+    }
+    else if (style.equals(InteractionsDocument.DEBUGGER_STYLE)) {
+      //DrJava.consoleErr().println("Debugger Style");
+      g.setColor(DEBUGGER_COLOR);
+      g.setFont(g.getFont().deriveFont(Font.BOLD));
+    }
+    /* Note: SYSTEM_OUT_STYLE, SYSTEM_IN_STYLE, SYSTEM_ERR_STYLE are defined in EditDocumentInterface */
+    else if (style.equals(SYSTEM_OUT_STYLE)) {
+      //DrJava.consoleErr().println("System.out Style");
+      g.setColor(INTERACTIONS_SYSTEM_OUT_COLOR);
+      g.setFont(MAIN_FONT);
     }
+    else if (style.equals(SYSTEM_IN_STYLE)) {
+      //DrJava.consoleErr().println("System.in Style");
+      g.setColor(INTERACTIONS_SYSTEM_IN_COLOR);
+      g.setFont(MAIN_FONT);
+    }
+    else if (style.equals(SYSTEM_ERR_STYLE)) {
+      //DrJava.consoleErr().println("System.err Style");
+      g.setColor(INTERACTIONS_SYSTEM_ERR_COLOR);
+      g.setFont(MAIN_FONT);
+    }
+    else if (style.equals(InteractionsDocument.OBJECT_RETURN_STYLE)) {
+      g.setColor(NORMAL_COLOR);
+      g.setFont(MAIN_FONT);
+    }
+    else if (style.equals(InteractionsDocument.STRING_RETURN_STYLE)) {
+      g.setColor(DOUBLE_QUOTED_COLOR);
+      g.setFont(MAIN_FONT);
+    }
+    else if (style.equals(InteractionsDocument.NUMBER_RETURN_STYLE)) {
+      g.setColor(NUMBER_COLOR);
+      g.setFont(MAIN_FONT);
+    }
+    else if (style.equals(InteractionsDocument.CHARACTER_RETURN_STYLE)) {
+      g.setColor(SINGLE_QUOTED_COLOR);
+      g.setFont(MAIN_FONT);
+    }
+    else return false; /* Normal text color */ 
+    
+    return true;
   }
   
   /** Attempts to set the font on the graphics context based upon the styles 
@@ -294,23 +390,17 @@ public class InteractionsDJDocument extends AbstractDJDocument implements Consol
     * @param g Graphics object
     */
   public void setBoldFonts(int point, Graphics g) {
-    synchronized(_stylesList) {
-      for(Pair<Pair<Integer,Integer>,String> p :  _stylesList) {
-        Pair<Integer,Integer> loc = p.first();
-        if (loc.first() <= point && loc.second() >= point) {
-          if (p.second().equals(InteractionsDocument.ERROR_STYLE))
-            g.setFont(g.getFont().deriveFont(Font.BOLD));
-          else if (p.second().equals(InteractionsDocument.DEBUGGER_STYLE))
-            g.setFont(g.getFont().deriveFont(Font.BOLD));
-          else  g.setFont(MAIN_FONT);
-          return;
-        }
-      }
-    }
+    String style = _styleAt(point);
+    if (style == null) return;
+    if (style.equals(InteractionsDocument.ERROR_STYLE))
+      g.setFont(g.getFont().deriveFont(Font.BOLD));
+    else if (style.equals(InteractionsDocument.DEBUGGER_STYLE))
+      g.setFont(g.getFont().deriveFont(Font.BOLD));
+    else  g.setFont(MAIN_FONT);
   }
   
   /** Called when the Interactions pane is reset.  Only runs in event thread. */
-  public void clearColoring() { synchronized(_stylesList) { _toClear = true; } }
+  public void clearColoring() { synchronized(_styleRuns) { _toClear = true; } }
   
   /** @return true iff the end of the current interaction is an open comment block
     */
@@ -43,6 +43,7 @@ import edu.rice.cs.util.OperationCanceledException;
 import edu.rice.cs.util.StringOps;
 import edu.rice.cs.util.UnexpectedException;
 import edu.rice.cs.util.swing.Utilities;
+import edu.rice.cs.util.text.ConsoleAppendBuffer;
 import edu.rice.cs.util.text.ConsoleDocumentInterface;
 import edu.rice.cs.util.text.ConsoleDocument;
 import edu.rice.cs.util.text.EditDocumentException;
@@ -92,6 +93,12 @@ public abstract class InteractionsModel implements InteractionsModelCallback {
   /** Number of milliseconds to wait after each println, to prevent the JVM from being flooded with print calls. */
   private final int _writeDelay;
   
+  /** Coalesces System.out and System.err text from the interpreter so that it is inserted into _document once per
+    * event queue tick. */
+  private final ConsoleAppendBuffer _outputBuffer = new ConsoleAppendBuffer() {
+    protected void _insert(String text, String style) { _document.insertBeforeLastPrompt(text, style); }
+  };
+  
   /** Port used by the debugger to connect to the Interactions JVM. Uniquely created in getDebugPort(). */
   private volatile int _debugPort;
   
@@ -101,6 +108,10 @@ public abstract class InteractionsModel implements InteractionsModelCallback {
   /** Whether the debug port has already been set.  If not, calling getDebugPort will generate an available port. */
   private volatile boolean _debugPortSet;
   
+  /** The port reserved for the interactions JVM started at the next reset, or -1 if none is reserved.  Guarded by this.
+    */
+  private int _nextDebugPort = -1;
+  
   /** The input listener to listen for requests to System.in. */
   protected volatile InputListener _inputListener;
   
@@ -453,17 +464,41 @@ public abstract class InteractionsModel implements InteractionsModelCallback {
     */
   protected void _createNewDebugPort() throws IOException {
 //    Utilities.showDebug("InteractionsModel: _createNewDebugPort() called");
+    int reserved;
+    synchronized(this) {
+      reserved = _nextDebugPort;
+      _nextDebugPort = -1;
+    }
+    _debugPort = (reserved > -1) ? reserved : _findAvailablePort();
+    _debugPortSet = true;
+    System.setProperty("drjava.debug.port", String.valueOf(_debugPort));
+  }
+  
+  /** Returns the port number that the interactions JVM started at the next reset will use for debugging, reserving an
+    * available port if none has been reserved yet.  Lets a standby interactions JVM be started ahead of time with the
+    * port it will have when it replaces the current one.
+    * @return the port, or -1 if no port is available
+    * @throws IOException if unable to get a valid port number.
+    */
+  public synchronized int getNextDebugPort() throws IOException {
+    if (_nextDebugPort == -1) _nextDebugPort = _findAvailablePort();
+    return _nextDebugPort;
+  }
+  
+  /** @return an available port, or -1 if sockets cannot be used
+    * @throws IOException if unable to get a valid port number.
+    */
+  private static int _findAvailablePort() throws IOException {
     try {
       ServerSocket socket = new ServerSocket(0);
-      _debugPort = socket.getLocalPort();
+      int port = socket.getLocalPort();
       socket.close();
+      return port;
     }
     catch (java.net.SocketException se) {
       // something wrong with sockets, can't use for debugger
-      _debugPort = -1;
+      return -1;
     }
-    _debugPortSet = true;
-    System.setProperty("drjava.debug.port", String.valueOf(_debugPort));
   }
   
   /** Sets the port number to use for debugging the interactions JVM.
@@ -482,9 +517,7 @@ public abstract class InteractionsModel implements InteractionsModelCallback {
     * @param s String to print
     */
   public void replSystemOutPrint(final String s) {
-    Utilities.invokeLater(new Runnable() {
-      public void run() { _document.insertBeforeLastPrompt(s, ConsoleDocument.SYSTEM_OUT_STYLE); }
-    });
+    _outputBuffer.append(s, ConsoleDocument.SYSTEM_OUT_STYLE);
     if (delayCount == 0) {
       scrollToCaret();
 //      System.err.println(s + " printed; caretPostion = " + _pane.getCaretPosition());
@@ -499,9 +532,7 @@ public abstract class InteractionsModel implements InteractionsModelCallback {
     * @param s String to print 
     */
   public void replSystemErrPrint(final String s) {
-      Utilities.invokeLater(new Runnable() {
-        public void run() { _document.insertBeforeLastPrompt(s, ConsoleDocument.SYSTEM_ERR_STYLE); } 
-      });
+      _outputBuffer.append(s, ConsoleDocument.SYSTEM_ERR_STYLE);
       if (delayCount == 0) {
         scrollToCaret();
 //      System.err.println(s + " printed; caretPostion = " + _pane.getCaretPosition());
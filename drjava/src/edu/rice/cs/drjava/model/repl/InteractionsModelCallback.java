@@ -43,6 +43,12 @@ public interface InteractionsModelCallback {
    */
   public int getDebugPort() throws IOException;
   
+  /** @return the port number that the remote interpreter started at the next reset will use for debugging, so that a 
+   * standby interpreter can be started with it ahead of time; -1 if no port is available.
+   * @throws IOException if unable to get a valid port number.
+   */
+  public int getNextDebugPort() throws IOException;
+  
   /** Called when the repl prints to System.out.
     * @param s String to print
     */
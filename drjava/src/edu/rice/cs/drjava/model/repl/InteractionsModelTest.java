@@ -450,6 +450,24 @@ public final class InteractionsModelTest extends DrJavaTestCase {
     _log.log("testDebugPort ended");
   }
   
+  /** Tests that the interactions JVM started at a reset uses the debug port reserved for it, so that a standby JVM 
+    * started with that port can replace it.
+    * @throws IOException if an IO operation fails
+    */
+  public void testNextDebugPort() throws IOException {
+    int port = _model.getDebugPort();
+    int next = _model.getNextDebugPort();
+    assertTrue("reserved debug port", next != -1);
+    assertTrue("reserved port differs from the current one", next != port);
+    assertEquals("reservation is kept", next, _model.getNextDebugPort());
+    assertEquals("current port is unchanged", port, _model.getDebugPort());
+    
+    _model.setWaitingForFirstInterpreter(false);
+    _model.interpreterResetting();
+    assertEquals("reset uses the reserved port", next, _model.getDebugPort());
+    assertTrue("a new port is reserved for the following reset", _model.getNextDebugPort() != next);
+  }
+  
   /** Tests that an interactions history can be loaded in as a script. 
     * @throws Exception if something goes wrong
     */
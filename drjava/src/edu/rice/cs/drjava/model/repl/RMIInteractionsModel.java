@@ -35,6 +35,7 @@ import edu.rice.cs.plt.tuple.Pair;
 import edu.rice.cs.util.text.ConsoleDocumentInterface;
 
 import java.io.File;
+import java.util.List;
 import java.awt.EventQueue;
 
 import static edu.rice.cs.plt.debug.DebugUtil.debug;
@@ -48,6 +49,9 @@ public abstract class RMIInteractionsModel extends InteractionsModel {
   /** RMI interface to the remote Java interpreter.*/
   protected final MainJVM _jvm;
   
+  /** The name of the active interpreter, or "" for the default interpreter. */
+  private volatile String _activeInterpreterName = "";
+  
   /** Constructs an InteractionsModel which can communicate with another JVM.
     * @param jvm RMI interface to the slave JVM
     * @param cDoc document to use in the InteractionsDocument
@@ -81,6 +85,20 @@ public abstract class RMIInteractionsModel extends InteractionsModel {
     return retval;
   }
   
+  /** Gets the string representations of the values of several variables in the named interpreter with a single
+    * call to the interpreter JVM.  May be called outside the event thread.
+    * @param interpreterName the name of the interpreter, as returned by {@link #getActiveInterpreterName}
+    * @param vars the names of the variables
+    * @return the string representations of the variables, in the same order, or "none" if the interpreter no longer
+    *         exists or the interpreter JVM is unavailable
+    */
+  public Option<List<Pair<String,String>>> getVariablesToString(String interpreterName, List<String> vars) {
+    return _jvm.getVariablesToString(interpreterName, vars);
+  }
+  
+  /** @return the name of the active interpreter, or "" for the default interpreter */
+  public String getActiveInterpreterName() { return _activeInterpreterName; }
+  
   /** Adds the given path to the interpreter's class path.
     * @param f  the path to add
     */
@@ -109,6 +127,7 @@ public abstract class RMIInteractionsModel extends InteractionsModel {
   /** Resets the Java interpreter. */
   protected void _resetInterpreter(File wd, boolean force) {
     setToDefaultInterpreter();
+    _activeInterpreterName = "";  // a new interpreter JVM only has the default interpreter
     _jvm.setWorkingDirectory(wd);
     _jvm.restartInterpreterJVM(force);
   }
@@ -131,6 +150,7 @@ public abstract class RMIInteractionsModel extends InteractionsModel {
   public void setActiveInterpreter(String name, String prompt) {
     Option<Pair<Boolean, Boolean>> result = _jvm.setActiveInterpreter(name);
     debug.logValue("result", result);
+    if (result.isSome()) { _activeInterpreterName = name; }
     if (result.isSome() && result.unwrap().first()) { // interpreter changed
       boolean inProgress = result.unwrap().second();
       _updateDocument(prompt, inProgress);
@@ -141,6 +161,7 @@ public abstract class RMIInteractionsModel extends InteractionsModel {
   /** Sets the default interpreter to be the current one. */
   public void setToDefaultInterpreter() {
     Option<Pair<Boolean, Boolean>> result = _jvm.setToDefaultInterpreter();
+    if (result.isSome()) { _activeInterpreterName = ""; }
     if (result.isSome() && result.unwrap().first()) { // interpreter changed
       boolean inProgress = result.unwrap().second();
       _updateDocument(InteractionsDocument.DEFAULT_PROMPT, inProgress);
@@ -146,14 +146,15 @@ public class ClassPathManager implements Lambda<ClassLoader, ClassLoader> {
   /** Create a new class loader based on the given path.  The loader's path is dynamically updated
     * as changes are made in the ClassPathManager.  Each loader returned by this method will
     * have its own set of loaded classes, and will only share those classes that are loaded
-    * by a common parent.
+    * by a common parent.  The loader is indexed, so that lookups on long paths of jar files are
+    * fast; its index is rebuilt when the path changes.
     * @param parent  The parent class loader.  May be {@code null}, signifying the bootstrap
     *                class loader.
     * @return the newly-created class loader
     */
   public synchronized ClassLoader makeClassLoader(ClassLoader parent) {
     updateProperty();
-    return new PathClassLoader(parent, _fullPath);
+    return new PathClassLoader(parent, _fullPath, true);
   }
   
   /** Lambda value method.  In DrJava usage, parent is often null. */
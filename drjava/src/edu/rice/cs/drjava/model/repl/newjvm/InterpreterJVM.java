@@ -36,9 +36,9 @@ import java.rmi.*;
 // NOTE: Do NOT import/use the config framework in this class!
 //  (This class runs in a different JVM, and will not share the config object)
 
+import edu.rice.cs.util.BufferedOutputStreamRedirector;
 import edu.rice.cs.util.InputStreamRedirector;
 import edu.rice.cs.util.Log;
-import edu.rice.cs.util.OutputStreamRedirector;
 import edu.rice.cs.util.UnexpectedException;
 import edu.rice.cs.util.classloader.ClassFileError;
 import edu.rice.cs.util.newjvm.*;
@@ -107,6 +107,10 @@ public class InterpreterJVM extends AbstractSlaveJVM implements InterpreterJVMRe
   /** Remote reference to the MainJVM class in DrJava's primary JVM.  Assigned ONLY once. */
   private volatile MainJVMRemoteI _mainJVM;
   
+  /** Buffers for System.out and System.err, which forward output to _mainJVM.  Assigned ONLY once. */
+  private volatile BufferedOutputStreamRedirector _stdOut;
+  private volatile BufferedOutputStreamRedirector _stdErr;
+  
   /** Private constructor; use the singleton ONLY instance. */
   private InterpreterJVM() {
     super("Reset Interactions Thread", "Poll DrJava Thread");
@@ -137,6 +141,7 @@ public class InterpreterJVM extends AbstractSlaveJVM implements InterpreterJVMRe
     // redirect stdin
     System.setIn(new InputStreamRedirector() {
       protected String _getInput() {
+        _flushOutput();  // make sure that any prompt printed by the program is visible
         try { return _mainJVM.getConsoleInput(); }
         catch(RemoteException re) {
           error.log(re);
@@ -145,8 +150,8 @@ public class InterpreterJVM extends AbstractSlaveJVM implements InterpreterJVMRe
       }
     });
     
-    // redirect stdout
-    System.setOut(new PrintStream(new OutputStreamRedirector() {
+    // redirect stdout and stderr; output is shipped to the main JVM in batches rather than one remote call per print
+    _stdOut = new BufferedOutputStreamRedirector() {
       public void print(String s) {
         try { _mainJVM.systemOutPrint(s); }
         catch (RemoteException re) {
@@ -154,10 +159,8 @@ public class InterpreterJVM extends AbstractSlaveJVM implements InterpreterJVMRe
           throw new UnexpectedException("Main JVM can't be reached for output.\n" + re);
         }
       }
-    }));
-    
-    // redirect stderr
-    System.setErr(new PrintStream(new OutputStreamRedirector() {
+    };
+    _stdErr = new BufferedOutputStreamRedirector() {
       public void print(String s) {
         try { _mainJVM.systemErrPrint(s); }
         catch (RemoteException re) {
@@ -165,7 +168,19 @@ public class InterpreterJVM extends AbstractSlaveJVM implements InterpreterJVMRe
           throw new UnexpectedException("Main JVM can't be reached for output.\n" + re);
         }
       }
-    }));
+    };
+    _stdOut.setPeer(_stdErr);
+    _stdErr.setPeer(_stdOut);
+    System.setOut(new PrintStream(_stdOut));
+    System.setErr(new PrintStream(_stdErr));
+    
+    // forward any remaining output if the program calls System.exit
+    Runtime.getRuntime().addShutdownHook(new Thread("Flush Output Thread") {
+      public void run() {
+        try { _flushOutput(); }
+        catch (RuntimeException e) { /* main JVM is gone; nothing to do */ }
+      }
+    });
     
     /* On Windows, any frame or dialog opened from Interactions pane will appear *behind* DrJava's frame, unless a 
      * previous frame or dialog is shown here.  Not sure what the difference is, but this hack seems to work.  (I'd
@@ -180,6 +195,14 @@ public class InterpreterJVM extends AbstractSlaveJVM implements InterpreterJVMRe
     //_dialog("interpreter JVM started");
   }
   
+  /** Forwards all buffered System.out and System.err text to the main JVM. */
+  private void _flushOutput() {
+    BufferedOutputStreamRedirector out = _stdOut;
+    BufferedOutputStreamRedirector err = _stdErr;
+    if (out != null) out.flush();
+    if (err != null) err.flush();
+  }
+  
   /* Concurrent operations on _interpreters. */ 
   private Interpreter getInterpreter(String name) {
     synchronized(_interpreters) {return _interpreters.get(name); }
@@ -243,7 +266,10 @@ public class InterpreterJVM extends AbstractSlaveJVM implements InterpreterJVMRe
     try { result = interpreter.interpret(input); }
     catch (InterpreterException e) { debug.logEnd(); return InterpretResult.exception(e); }
     catch (Throwable e) { debug.logEnd(); return InterpretResult.unexpectedException(e); }
-    finally { removeBusyInterpreter(interpreter); }
+    finally {
+      removeBusyInterpreter(interpreter);
+      _flushOutput();  // output must reach the main JVM before the result does
+    }
     
     return result.apply(new OptionVisitor<Object, InterpretResult>() {
       public InterpretResult forNone() { return InterpretResult.noValue(); }
@@ -288,6 +314,22 @@ public class InterpreterJVM extends AbstractSlaveJVM implements InterpreterJVMRe
     else return new Object[] { arr[0].first() };
   }
   
+  /** Gets the values of several variables in the current interpreter at once.  Invoked reflectively by the debugger,
+    * which can then copy all local variables back into a stack frame with a single method invocation.
+    * @param vars names of the variables to look up, separated by spaces
+    * @return for each variable, an empty array for "none" or a singleton array for a "some" value
+    * @see edu.rice.cs.drjava.model.debug.jpda.JPDADebugger#GET_VARIABLE_VALUES_SIG
+    * @see edu.rice.cs.drjava.model.debug.jpda.JPDADebugger#_copyVariablesFromInterpreter()
+    */
+  public Object[][] getVariableValues(String vars) {
+    synchronized(_stateLock) {
+      String[] names = _splitNames(vars);
+      Object[][] result = new Object[names.length][];
+      for (int i = 0; i < names.length; i++) { result[i] = getVariableValue(names[i]); }
+      return result;
+    }
+  }
+  
   //public JUnitResultTuple getLastJUnitResult() {
   //  return this._junitTestManager.getFinalResult();
   //}
@@ -299,10 +341,17 @@ public class InterpreterJVM extends AbstractSlaveJVM implements InterpreterJVMRe
    * @param var the variable to look up
    * @return the value and type string of var
    */
+  public Pair<Object,String>[] getVariable(String var) { return getVariable(var, _activeInterpreter.second()); }
+  
+  /** Gets the value and type string of the variable with the given name in the given interpreter.
+    * @param var the variable to look up
+    * @param interpreter the interpreter
+    * @return the value and type string of var
+    */
   @SuppressWarnings({"unchecked","rawtypes"})
-  public Pair<Object,String>[] getVariable(String var) {
+  private Pair<Object,String>[] getVariable(String var, Interpreter interpreter) {
     synchronized(_stateLock) {
-      InterpretResult ir = interpret(var);
+      InterpretResult ir = interpret(var, interpreter);
       return ir.apply(new InterpretResult.Visitor<Pair<Object,String>[]>() {
         public Pair<Object,String>[] fail() { return new Pair[0]; }
 //        public Pair<Object,String>[] fail() { return (Pair<Object,String>[]) new Pair<?,?>[0]; }
@@ -330,9 +379,34 @@ public class InterpreterJVM extends AbstractSlaveJVM implements InterpreterJVMRe
     * otherwise its string representation; the second part is the string representation of the variable's type
     */
   public Pair<String,String> getVariableToString(String var) {
+    return getVariableToString(var, _activeInterpreter.second());
+  }
+  
+  /** Gets the string representations of the values of several variables in the named interpreter.
+    * @param interpreterName the name of the interpreter, or "" for the default interpreter
+    * @param vars the names of the variables
+    * @return one pair per variable, as returned by {@link #getVariableToString(String)}, or null if there is no
+    *         interpreter with the given name
+    */
+  public List<Pair<String,String>> getVariablesToString(String interpreterName, List<String> vars) {
+    synchronized(_stateLock) {
+      Interpreter interpreter = interpreterName.equals("") ? _defaultInterpreter : getInterpreter(interpreterName);
+      if (interpreter == null) { return null; }
+      List<Pair<String,String>> result = new ArrayList<Pair<String,String>>(vars.size());
+      for (String var : vars) { result.add(getVariableToString(var, interpreter)); }
+      return result;
+    }
+  }
+  
+  /** Gets the string representation of the value of a variable in the given interpreter.
+    * @param var the name of the variable
+    * @param interpreter the interpreter
+    * @return the value and type strings, as returned by {@link #getVariableToString(String)}
+    */
+  private Pair<String,String> getVariableToString(String var, Interpreter interpreter) {
     synchronized(_stateLock) {
 //    if (!isValidFieldName(var)) { return "<error in watch name>"; }
-      Pair<Object,String>[] val = getVariable(var);  // recursive locking
+      Pair<Object,String>[] val = getVariable(var, interpreter);  // recursive locking
       if (val.length == 0) { return new Pair<String,String>(null,null); }
       else {
         Object o = val[0].first();
@@ -444,6 +518,88 @@ public class InterpreterJVM extends AbstractSlaveJVM implements InterpreterJVMRe
     }
   }
   
+  /** Adds a named Interpreter in the given environment to the list.  Invoked reflectively by the debugger, which
+    * transfers all local variables with this method in a single invocation: rather than boxing each primitive value
+    * in the debugged thread, the debugger passes the bits of the primitive values in an array.
+    * @param name  The unique name for the interpreter
+    * @param thisVal  The value of {@code this} (may be null, implying this is a static context)
+    * @param thisClass  The class in whose context the interpreter is to be created
+    * @param localVarNames  Names of the local variables, separated by spaces
+    * @param localVarTypes  For each local variable, the type descriptor character of a primitive variable
+    *                       ({@code Z}, {@code B}, {@code C}, {@code S}, {@code I}, {@code J}, {@code F} or
+    *                       {@code D}), or {@code L} for a variable of reference type
+    * @param localVars  Values of the local variables of reference type; the entries of primitive variables are ignored
+    * @param localVarClasses  Classes of the local variables of reference type; the entries of primitive variables
+    *                         are ignored
+    * @param primitiveVars  Values of the primitive local variables, as returned by {@link #encodePrimitive}; the
+    *                       entries of variables of reference type are ignored
+    * @throws IllegalArgumentException if the name is not unique, or if the local var arrays
+    *                                  are not all of the same length
+    * @see edu.rice.cs.drjava.model.debug.jpda.JPDADebugger#ADD_INTERPRETER_SIG
+    * @see edu.rice.cs.drjava.model.debug.jpda.JPDADebugger#_dumpVariablesIntoInterpreterAndSwitch
+    */
+  public void addInterpreter(String name, Object thisVal, Class<?> thisClass, String localVarNames,
+                             String localVarTypes, Object[] localVars, Class<?>[] localVarClasses,
+                             long[] primitiveVars) {
+    String[] names = _splitNames(localVarNames);
+    if (names.length != localVarTypes.length() || names.length != localVars.length ||
+        names.length != localVarClasses.length || names.length != primitiveVars.length) {
+      throw new IllegalArgumentException("Local variable arrays are inconsistent");
+    }
+    Object[] vars = new Object[names.length];
+    Class<?>[] classes = new Class<?>[names.length];
+    for (int i = 0; i < names.length; i++) {
+      char type = localVarTypes.charAt(i);
+      if (type == 'L') {
+        vars[i] = localVars[i];
+        classes[i] = localVarClasses[i];
+      }
+      else {
+        vars[i] = decodePrimitive(type, primitiveVars[i]);
+        classes[i] = null; // filled in with the primitive class
+      }
+    }
+    addInterpreter(name, thisVal, thisClass, vars, names, classes);
+  }
+  
+  /** Encodes a primitive value in a long for {@link #addInterpreter(String, Object, Class, String, String, Object[],
+    * Class[], long[])}.
+    * @param value a boxed primitive value
+    * @return the bits of the value
+    */
+  public static long encodePrimitive(Object value) {
+    if (value instanceof Boolean) { return ((Boolean) value) ? 1 : 0; }
+    else if (value instanceof Character) { return (Character) value; }
+    else if (value instanceof Float) { return Float.floatToRawIntBits((Float) value); }
+    else if (value instanceof Double) { return Double.doubleToRawLongBits((Double) value); }
+    else { return ((Number) value).longValue(); }
+  }
+  
+  /** Decodes a primitive value encoded by {@link #encodePrimitive}.
+    * @param type the type descriptor character of the value
+    * @param bits the bits of the value
+    * @return the boxed value
+    */
+  public static Object decodePrimitive(char type, long bits) {
+    switch (type) {
+      case 'Z': return bits != 0;
+      case 'B': return (byte) bits;
+      case 'C': return (char) bits;
+      case 'S': return (short) bits;
+      case 'I': return (int) bits;
+      case 'J': return bits;
+      case 'F': return Float.intBitsToFloat((int) bits);
+      case 'D': return Double.longBitsToDouble(bits);
+      default: throw new IllegalArgumentException("Not a primitive type: " + type);
+    }
+  }
+  
+  /** @param names names separated by spaces
+    * @return the names */
+  private static String[] _splitNames(String names) {
+    return (names.length() == 0) ? new String[0] : names.split(" ");
+  }
+  
   /** A custom context for interpreting within the body of a defined method. */
   private static class DebugMethodContext extends DelegatingContext {
     private final boolean _isStatic;
@@ -591,6 +747,16 @@ public class InterpreterJVM extends AbstractSlaveJVM implements InterpreterJVMRe
     catch (RemoteException re) { error.log(re); }
   }
   
+  /** Sends the coverage of a test suite to the main JVM, which analyzes it.  Unsynchronized because it contains a
+    * remote call and does not involve mutable local state.
+    * @param nonTestClassNames the names of the classes whose coverage was measured
+    * @param executionData the JaCoCo execution data of the run
+    */
+  public void coverageCollected(List<String> nonTestClassNames, byte[] executionData) {
+    try { _mainJVM.coverageCollected(nonTestClassNames, executionData); }
+    catch (RemoteException re) { error.log(re); }
+  }
+  
   /** Called when the JUnitTestManager wants to open a file that is not currently open.  Unsynchronized because it 
     * contains a remote call and does not involve mutable local state.
     * @param className the name of the class for which we want to find the file
@@ -613,5 +779,6 @@ public class InterpreterJVM extends AbstractSlaveJVM implements InterpreterJVMRe
     // need to make a serializable snapshot
     return IterUtil.snapshot(_classPathManager.getClassPath());
   }
+  public Iterable<File> getProjectFilesClassPath() { return _classPathManager.getProjectFilesCP(); }
   
 }
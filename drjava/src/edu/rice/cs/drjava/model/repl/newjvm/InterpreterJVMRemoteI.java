@@ -113,11 +113,27 @@ public interface InterpreterJVMRemoteI extends SlaveRemote {
    */
   public Pair<String,String> getVariableToString(String var) throws RemoteException;
   
+  /** Gets the string representations of the values of several variables in the named interpreter.
+   * @param interpreterName the name of the interpreter, or "" for the default interpreter
+   * @param vars the names of the variables
+   * @return one pair per variable, as returned by {@link #getVariableToString}, or null if there is no
+   *         interpreter with the given name
+   * @throws RemoteException if communication over RMI fails
+   */
+  public List<Pair<String,String>> getVariablesToString(String interpreterName, List<String> vars) 
+    throws RemoteException;
+  
   /** @return the current class path.
    * @throws RemoteException if communication over RMI fails
    */
   public Iterable<File> getClassPath() throws RemoteException;  
   
+  /** @return the class path entries of the open project files; the first is the root of the source files shown in a
+   *          coverage report.
+   * @throws RemoteException if communication over RMI fails
+   */
+  public Iterable<File> getProjectFilesClassPath() throws RemoteException;
+  
   /** Adds the given path to the class path shared by ALL Java interpreters.  
    * Only unique paths are added.
    * @param f Entry to add to the accumulated class path
@@ -53,6 +53,7 @@ import edu.rice.cs.util.FileOps;
 import edu.rice.cs.util.UnexpectedException;
 import edu.rice.cs.plt.io.IOUtil;
 import edu.rice.cs.plt.iter.IterUtil;
+import edu.rice.cs.plt.object.ObjectUtil;
 import edu.rice.cs.plt.reflect.ReflectUtil;
 import edu.rice.cs.plt.reflect.JavaVersion;
 import edu.rice.cs.plt.tuple.Option;
@@ -92,6 +93,9 @@ public class MainJVM extends AbstractMasterJVM implements MainJVMRemoteI {
   /** Number of milliseconds to block while waiting for an InterpreterJVM stub. */
   private static final int STARTUP_TIMEOUT = 10000;  
   
+  /** JVM argument that lets the debugger attach to the interpreter JVM, without the port number. */
+  private static final String DEBUG_ARGUMENT = "-Xrunjdwp:transport=dt_socket,server=y,suspend=n,address=";
+  
   /** Contains the current InterpreterJVM stub, or {@code null} if it is not running. */
   private final StateMonitor<State> _state;
   
@@ -119,6 +123,14 @@ public class MainJVM extends AbstractMasterJVM implements MainJVMRemoteI {
   /** Working directory for slave JVM */
   private volatile File _workingDir;
   
+  /** Builder for JVMs that run unit tests outside the interpreter JVM; null until the interpreter JVM has been started.
+    * It is the builder of the interpreter JVM without the debugger arguments.
+    */
+  private volatile JVMBuilder _testJVMBuilder = null;
+  
+  /** Builder of the interpreter JVM that was started last; null until the interpreter JVM has been started. */
+  private volatile JVMBuilder _jvmBuilder = null;
+  
   /** Creates a new MainJVM to interface to another JVM;  the MainJVM has a 
    * link to the partially initialized global model.  The MainJVM but does 
    * not automatically start the Interpreter JVM.  Callers must set the
@@ -151,7 +163,10 @@ public class MainJVM extends AbstractMasterJVM implements MainJVMRemoteI {
   /** Stop the interpreter if it's current running.  (Note that, until {@link #startInterpreterJVM} is called
     * again, all methods that delegate to the interpreter JVM will fail, returning "false" or "none".)
     */
-  public void stopInterpreterJVM() { _state.value().stop(); }
+  public void stopInterpreterJVM() {
+    discardStandbySlave();
+    _state.value().stop();
+  }
   
   /** Get a "fresh" interpreter JVM.  Has the same effect as 
     * {@link #startInterpreterJVM} if no interpreter is running.  If a 
@@ -276,6 +291,15 @@ public class MainJVM extends AbstractMasterJVM implements MainJVMRemoteI {
   public void testSuiteEnded(JUnitError[] errors) {
     _junitModel.testSuiteEnded(errors);
   }
+  
+  /** Called when a suite of tests that measured code coverage has finished running. Forwards from the other JVM to 
+   * the local JUnit model.
+   * @param nonTestClassNames the names of the classes whose coverage was measured
+   * @param executionData the JaCoCo execution data of the run
+   */
+  public void coverageCollected(List<String> nonTestClassNames, byte[] executionData) {
+    _junitModel.coverageCollected(nonTestClassNames, executionData);
+  }
  
   /** Called when the JUnitTestManager wants to open a file that is not currently open.
    * @param className the name of the class for which we want to find the file
@@ -319,13 +343,18 @@ public class MainJVM extends AbstractMasterJVM implements MainJVMRemoteI {
   /** Sets whether the remote JVM will run "assert" statements after the next restart. 
    * @param allow true if the JVM will allow assertions after the next restart; false otherwise
    */
-  public void setAllowAssertions(boolean allow) { _allowAssertions = allow; }
+  public void setAllowAssertions(boolean allow) {
+    if (allow != _allowAssertions) { discardStandbySlave(); }
+    _allowAssertions = allow;
+  }
   
   /** Sets the class path to use for starting the interpreter JVM. Must include the classes for the interpreter.
     * @param classPath Class path for the interpreter JVM
     */
   public void setStartupClassPath(String classPath) {
-    _startupClassPath = IOUtil.parsePath(classPath);
+    Iterable<File> startupClassPath = IOUtil.parsePath(classPath);
+    if (! IterUtil.isEqual(startupClassPath, _startupClassPath)) { discardStandbySlave(); }
+    _startupClassPath = startupClassPath;
   }
   
   /** Sets the working directory for the interpreter (takes effect on next startup). 
@@ -375,6 +404,20 @@ public class MainJVM extends AbstractMasterJVM implements MainJVMRemoteI {
     catch (RemoteException e) { _handleRemoteException(e); return Option.none(); }
   }
   
+  /** Gets the string representations of the values of several variables in the named interpreter with a single
+    * remote call, or "none" if the remote JVM is unavailable, there is no such interpreter, or an error occurs.
+    * Blocks until the interpreter is connected.
+    * @param interpreterName the name of the interpreter, or "" for the default interpreter
+    * @param vars the names of the variables
+    * @return the string representations of the variables, in the same order
+    */
+  public Option<List<Pair<String,String>>> getVariablesToString(String interpreterName, List<String> vars) {
+    InterpreterJVMRemoteI remote = _state.value().interpreter(false);
+    if (remote == null) { return Option.none(); }
+    try { return Option.wrap(remote.getVariablesToString(interpreterName, new ArrayList<String>(vars))); }
+    catch (RemoteException e) { _handleRemoteException(e); return Option.none(); }
+  }
+  
   /** Blocks until the interpreter is connected. 
     * @param f file to be added to the class path
     * @return {@code true} if the change was successfully passed to the remote JVM.
@@ -443,6 +486,24 @@ public class MainJVM extends AbstractMasterJVM implements MainJVMRemoteI {
     catch (RemoteException e) { _handleRemoteException(e); return Option.none(); }
   }
   
+  /** Returns the class path entries of the open project files in the interpreter, most recently added first.
+   * The result is "none" if the remote JVM is unavailable or if an exception occurs. 
+   * Blocks until the interpreter is connected.
+   * @return the project files class path
+   */
+  public Option<Iterable<File>> getProjectFilesClassPath() {
+    InterpreterJVMRemoteI remote = _state.value().interpreter(false);
+    if (remote == null) { return Option.none(); }
+    try { return Option.some(remote.getProjectFilesClassPath()); }
+    catch (RemoteException e) { _handleRemoteException(e); return Option.none(); }
+  }
+  
+  /** Returns a builder for JVMs that run unit tests outside the interpreter JVM.  Such a JVM has the class path, 
+    * working directory, properties, and JVM arguments of the interpreter JVM, except for those enabling the debugger.
+    * @return the builder, or null if the interpreter JVM has not been started yet
+    */
+  public JVMBuilder getTestJVMBuilder() { return _testJVMBuilder; }
+  
   /** Sets the Interpreter to be in the given package.  Blocks until the interpreter is connected.
    * @param packageName Name of the package to enter.
    * @return true if successfully changed the package scope; false otherwise
@@ -684,7 +745,7 @@ public class MainJVM extends AbstractMasterJVM implements MainJVMRemoteI {
     if (_allowAssertions) { jvmArgs.add("-ea"); }
     int debugPort = _getDebugPort();
     if (debugPort > -1) {
-      jvmArgs.add("-Xrunjdwp:transport=dt_socket,server=y,suspend=n,address=" + debugPort);
+      jvmArgs.add(DEBUG_ARGUMENT + debugPort);
       jvmArgs.add("-Xdebug");
       jvmArgs.add("-Xnoagent");
       jvmArgs.add("-Djava.compiler=NONE");
@@ -760,9 +821,63 @@ public class MainJVM extends AbstractMasterJVM implements MainJVMRemoteI {
     
     jvmb = jvmb.properties(props);
     
+    List<String> testJVMArgs = new ArrayList<String>();
+    for (String arg : jvmArgs) {
+      if (! (arg.startsWith("-Xrunjdwp:") || arg.equals("-Xdebug") || arg.equals("-Xnoagent") || 
+             arg.equals("-Djava.compiler=NONE"))) { testJVMArgs.add(arg); }
+    }
+    _testJVMBuilder = jvmb.jvmArguments(testJVMArgs);
+    
+    // A standby interpreter JVM started with the same options replaces a new one.  It was started with the debug port
+    // that the interactions model reserved for this JVM.
+    JVMBuilder standby = standbyJVMBuilder();
+    if (standby != null && DrJava.getConfig().getSetting(OptionConstants.SLAVE_JVM_STANDBY) &&
+        _isSameJVM(standby, jvmb)) {
+      jvmb = standby;
+    }
+    _jvmBuilder = jvmb;
     invokeSlave(jvmb);
   }
   
+  /** Starts a standby interpreter JVM like the one that was started last, if standby interpreter JVMs are enabled. */
+  private void _prepareStandby() {
+    JVMBuilder jvmb = _jvmBuilder;
+    if (jvmb == null || ! DrJava.getConfig().getSetting(OptionConstants.SLAVE_JVM_STANDBY)) {
+      discardStandbySlave();
+      return;
+    }
+    // The running interpreter JVM still holds the current debug port, so the standby uses the port that the
+    // interactions model will assign at the next reset.  If the model has no such port, there is no standby.
+    List<String> jvmArgs = new ArrayList<String>();
+    for (String arg : jvmb.jvmArguments()) {
+      if (arg.startsWith(DEBUG_ARGUMENT)) {
+        int port;
+        try { port = _interactionsModel.getNextDebugPort(); }
+        catch (IOException e) { port = -1; }
+        if (port < 0) {
+          discardStandbySlave();
+          return;
+        }
+        jvmArgs.add(DEBUG_ARGUMENT + port);
+      }
+      else { jvmArgs.add(arg); }
+    }
+    prepareStandbySlave(jvmb.jvmArguments(jvmArgs));
+  }
+  
+  /** @param jvmb1 a JVMBuilder
+    * @param jvmb2 another JVMBuilder
+    * @return true if jvmb1 and jvmb2 start the same JVMs
+    */
+  private static boolean _isSameJVM(JVMBuilder jvmb1, JVMBuilder jvmb2) {
+    return ObjectUtil.equal(jvmb1.javaCommand(), jvmb2.javaCommand()) &&
+      ObjectUtil.equal(jvmb1.directory(), jvmb2.directory()) &&
+      IterUtil.isEqual(jvmb1.classPath(), jvmb2.classPath()) &&
+      IterUtil.isEqual(jvmb1.jvmArguments(), jvmb2.jvmArguments()) &&
+      ObjectUtil.equal(jvmb1.properties(), jvmb2.properties()) &&
+      ObjectUtil.equal(jvmb1.environment(), jvmb2.environment());
+  }
+  
   /** @return the debug port to use, as specified by the model; returns -1 if no usable port could be found. */
   private int _getDebugPort() {
     int port = -1;
@@ -894,6 +1009,7 @@ public class MainJVM extends AbstractMasterJVM implements MainJVMRemoteI {
         // (Is the user ever going to see a working dir message that doesn't match the actual setting?)
         _interactionsModel.interpreterReady(_workingDir);
         _junitModel.junitJVMReady();        
+        _prepareStandby();
       }
       else { _state.value().started(i); }
     }
@@ -1090,6 +1206,7 @@ public class MainJVM extends AbstractMasterJVM implements MainJVMRemoteI {
   /** InteractionsModel which does not react to events. */
   public static class DummyInteractionsModel implements InteractionsModelCallback {
     public int getDebugPort() throws IOException { return -1; }
+    public int getNextDebugPort() throws IOException { return -1; }
     public void replSystemOutPrint(String s) { }
     public void replSystemErrPrint(String s) { }
     public String getConsoleInput() {
@@ -1124,6 +1241,7 @@ public class MainJVM extends AbstractMasterJVM implements MainJVMRemoteI {
     public void testStarted(String testName) { }
     public void testEnded(String testName, boolean wasSuccessful, boolean causedError) { }
     public void testSuiteEnded(JUnitError[] errors) { }
+    public void coverageCollected(List<String> nonTestClassNames, byte[] executionData) { }
     public File getFileForClassName(String className) { return null; }
     public Iterable<File> getClassPath() { return IterUtil.empty(); }
     public void junitJVMReady() { }
@@ -30,6 +30,7 @@ package edu.rice.cs.drjava.model.repl.newjvm;
 
 import java.io.File;
 import java.rmi.RemoteException;
+import java.util.List;
 import edu.rice.cs.util.newjvm.*;
 import edu.rice.cs.drjava.model.junit.JUnitError;
 import edu.rice.cs.util.classloader.ClassFileError;
@@ -99,6 +100,13 @@ public interface MainJVMRemoteI extends MasterRemote {
     */
   public void testSuiteEnded(JUnitError[] errors) throws RemoteException;
   
+  /** Called when a suite of tests that measured code coverage has finished running, just before testSuiteEnded.
+    * @param nonTestClassNames the names of the classes whose coverage was measured
+    * @param executionData the JaCoCo execution data of the run, in the format written by ExecutionDataWriter
+    * @throws RemoteException if remote communication fails
+    */
+  public void coverageCollected(List<String> nonTestClassNames, byte[] executionData) throws RemoteException;
+  
   /** Called when the JUnitTestManager wants to open a file that is not currently open.
     * @param className the name of the class for which we want to find the file
     * @return the file associated with the given class
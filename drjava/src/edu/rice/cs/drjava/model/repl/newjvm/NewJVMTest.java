@@ -28,10 +28,14 @@
  * END_COPYRIGHT_BLOCK*/
 package edu.rice.cs.drjava.model.repl.newjvm;
 
+import edu.rice.cs.drjava.DrJava;
 import edu.rice.cs.drjava.DrJavaTestCase;
+import edu.rice.cs.drjava.config.OptionConstants;
 
 import edu.rice.cs.plt.concurrent.CompletionMonitor;
 import edu.rice.cs.plt.io.IOUtil;
+import edu.rice.cs.plt.tuple.Option;
+import edu.rice.cs.plt.tuple.Pair;
 import edu.rice.cs.util.Log;
 import edu.rice.cs.util.UnexpectedException;
 
@@ -40,6 +44,8 @@ import junit.framework.Test;
 import junit.framework.TestSuite;
 
 import java.rmi.RemoteException;
+import java.util.Arrays;
+import java.util.List;
 
 import static edu.rice.cs.plt.debug.DebugUtil.debug;
 
@@ -196,6 +202,72 @@ public final class NewJVMTest extends DrJavaTestCase  {
     _log.log("$$$ NewJVMTest.testSwitchActiveInterpreter executing");
   }
 
+  /** Ensure that the interpreter works after restarts that switch to a standby interpreter JVM.
+   * @throws Throwable if something goes wrong
+   */
+  public void testRestartWithStandby() throws Throwable {
+    _log.log("$$$ NewJVMTest.testRestartWithStandby executing");
+    
+    DrJava.getConfig().setSetting(OptionConstants.SLAVE_JVM_STANDBY, Boolean.TRUE);
+    try {
+      _jvm.restartInterpreterJVM(true);
+      for (int i = 0; i < 2; i++) {
+        assertTrue(_jvm.interpret("int z = " + i + ";"));
+        _jvm.awaitStandby();
+        _jvm.restartInterpreterJVM(true);
+        
+        // the standby interpreter JVM is fresh
+        _jvm.resetFlags();
+        assertTrue(_jvm.interpret("z"));
+        assertNotNull("exception was thrown", _jvm.exceptionMsgBuf());
+        _jvm.resetFlags();
+        assertTrue(_jvm.interpret("" + i));
+        assertEquals("result", "" + i, _jvm.returnBuf());
+      }
+    }
+    finally { DrJava.getConfig().setSetting(OptionConstants.SLAVE_JVM_STANDBY, Boolean.FALSE); }
+    
+    _log.log("$$$ NewJVMTest.testRestartWithStandby completed");
+  }
+  
+  /** Ensure that the values of several variables can be fetched from a named interpreter with a single call. */
+  public void testGetVariablesToString() {
+    _log.log("$$$ NewJVMTest.testGetVariablesToString executing");
+    
+    assertTrue(_jvm.interpret("int y = 7;"));
+    assertTrue(_jvm.interpret("String s = \"seven\";"));
+    _jvm.addInterpreter("zebra");
+    _jvm.setActiveInterpreter("zebra");
+    assertTrue(_jvm.interpret("int y = 8;"));
+    
+    // the named interpreter is used, not the active one
+    Option<List<Pair<String,String>>> values = _jvm.getVariablesToString("", Arrays.asList("y", "s", "undefined"));
+    assertTrue("values", values.isSome());
+    assertEquals("number of values", 3, values.unwrap().size());
+    assertEquals("y", "7", values.unwrap().get(0).first());
+    assertEquals("s", "seven", values.unwrap().get(1).first());
+    assertNull("undefined", values.unwrap().get(2).first());
+    
+    values = _jvm.getVariablesToString("zebra", Arrays.asList("y", "s"));
+    assertTrue("values", values.isSome());
+    assertEquals("y", "8", values.unwrap().get(0).first());
+    assertNull("s", values.unwrap().get(1).first());
+    
+    assertTrue("no such interpreter", _jvm.getVariablesToString("giraffe", Arrays.asList("y")).isNone());
+    _jvm.setToDefaultInterpreter();
+    _log.log("$$$ NewJVMTest.testGetVariablesToString completed");
+  }
+  
+  /** Ensure that primitive values survive the encoding used to transfer local variables from the debugger. */
+  public void testEncodePrimitive() {
+    Object[] values = { true, false, (byte) -3, 'x', (short) -300, -7, Long.MIN_VALUE, -1.5f, Float.NaN, 
+      Double.MAX_VALUE, -0.0 };
+    char[] types = { 'Z', 'Z', 'B', 'C', 'S', 'I', 'J', 'F', 'F', 'D', 'D' };
+    for (int i = 0; i < values.length; i++) {
+      assertEquals(values[i], InterpreterJVM.decodePrimitive(types[i], InterpreterJVM.encodePrimitive(values[i])));
+    }
+  }
+
   private static class TestJVMExtension extends MainJVM {
     private static final int WAIT_TIMEOUT = 30000; // time to wait for an interaction to complete
     
@@ -220,6 +292,15 @@ public final class NewJVMTest extends DrJavaTestCase  {
       return _testHandler;
     }
 
+    /** Waits until a standby interpreter JVM has started. */
+    public void awaitStandby() throws InterruptedException {
+      long end = System.currentTimeMillis() + WAIT_TIMEOUT;
+      while (! isStandbySlaveAvailable()) {
+        assertTrue("standby interpreter JVM started", System.currentTimeMillis() < end);
+        Thread.sleep(50);
+      }
+    }
+    
     public void resetFlags() {
       _done.reset();
       _outBuf = "";
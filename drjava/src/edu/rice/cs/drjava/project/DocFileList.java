@@ -0,0 +1,147 @@
+/*BEGIN_COPYRIGHT_BLOCK
+ *
+ * Copyright (c) 2001-2019, JavaPLT group at Rice University (drjava@rice.edu).  All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the 
+ * following conditions are met:
+ *    * Redistributions of source code must retain the above copyright notice, this list of conditions and the following
+ *      disclaimer.
+ *    * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the 
+ *      following disclaimer in the documentation and/or other materials provided with the distribution.
+ *    * Neither the names of DrJava, the JavaPLT group, Rice University, nor the names of its contributors may be used 
+ *      to endorse or promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, 
+ * INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, 
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR 
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, 
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This software is Open Source Initiative approved Open Source Software. Open Source Initative Approved is a trademark
+ * of the Open Source Initiative.
+ * 
+ * This file is part of DrJava.  Download the current version of this project from http://www.drjava.org/ or 
+ * http://sourceforge.net/projects/drjava/
+ * 
+ * END_COPYRIGHT_BLOCK*/
+package edu.rice.cs.drjava.project;
+
+import java.io.File;
+import java.util.AbstractList;
+import java.util.ArrayList;
+
+import edu.rice.cs.plt.tuple.Pair;
+
+/** A list of the document entries read from a project file that creates the DocFile of an entry only when the entry
+  * is first accessed.  Copies made with the copy constructor keep the entries that have not been accessed yet.
+  */
+class DocFileList extends AbstractList<DocFile> {
+  
+  /** The values of a document entry in a project file, from which its DocFile is created. */
+  static final class Entry {
+    private final String _rootPath;
+    private final String _name;
+    private final int _selectFrom;
+    private final int _selectTo;
+    private final int _scrollColumn;
+    private final int _scrollRow;
+    private final boolean _active;
+    private final String _package;
+    private final long _modDate;
+    
+    /** @param rootPath the path that a relative name is relative to, or "" if it is relative to the working directory
+      * @param name the name of the file
+      * @param selectFrom the start of the selection
+      * @param selectTo the end of the selection
+      * @param scrollColumn the first scroll value
+      * @param scrollRow the second scroll value
+      * @param active whether the document is the active document
+      * @param pkg the package of the document
+      * @param modDate the modification date of the file when the project file was saved
+      */
+    Entry(String rootPath, String name, int selectFrom, int selectTo, int scrollColumn, int scrollRow, boolean active,
+          String pkg, long modDate) {
+      _rootPath = rootPath;
+      _name = name;
+      _selectFrom = selectFrom;
+      _selectTo = selectTo;
+      _scrollColumn = scrollColumn;
+      _scrollRow = scrollRow;
+      _active = active;
+      _package = pkg;
+      _modDate = modDate;
+    }
+    
+    /** @return a new DocFile for this entry */
+    DocFile toDocFile() {
+      boolean absName = new File(_name).isAbsolute();
+      File f = (_rootPath.length() > 0 && ! absName) ? new File(_rootPath, _name) : new File(_name);
+      DocFile docF = new DocFile(f.getAbsoluteFile(),
+                                 new Pair<Integer,Integer>(_selectFrom, _selectTo),
+                                 new Pair<Integer,Integer>(_scrollColumn, _scrollRow),
+                                 _active,
+                                 _package);
+      docF.setSavedModDate(_modDate);
+      return docF;
+    }
+  }
+  
+  /** The elements; each is either an Entry or the DocFile that replaced it. */
+  private final ArrayList<Object> _items;
+  
+  /** Creates an empty list. */
+  DocFileList() { _items = new ArrayList<Object>(); }
+  
+  /** Creates a copy of a list that shares the DocFiles already created and the entries not yet accessed.
+    * @param l the list to copy
+    */
+  DocFileList(DocFileList l) {
+    synchronized(l) { _items = new ArrayList<Object>(l._items); }
+  }
+  
+  /** Appends an entry whose DocFile is created when it is first accessed.
+    * @param e the entry
+    */
+  synchronized void addEntry(Entry e) {
+    _items.add(e);
+    modCount++;
+  }
+  
+  /** @return the number of elements whose DocFile has been created */
+  synchronized int materializedCount() {
+    int count = 0;
+    for (Object o : _items) { if (o instanceof DocFile) count++; }
+    return count;
+  }
+  
+  public synchronized DocFile get(int index) {
+    Object o = _items.get(index);
+    if (o instanceof Entry) {
+      o = ((Entry) o).toDocFile();
+      _items.set(index, o);
+    }
+    return (DocFile) o;
+  }
+  
+  public synchronized int size() { return _items.size(); }
+  
+  public synchronized DocFile set(int index, DocFile df) {
+    DocFile old = get(index);
+    _items.set(index, df);
+    return old;
+  }
+  
+  public synchronized void add(int index, DocFile df) {
+    _items.add(index, df);
+    modCount++;
+  }
+  
+  public synchronized DocFile remove(int index) {
+    DocFile old = get(index);
+    _items.remove(index);
+    modCount++;
+    return old;
+  }
+}
@@ -59,7 +59,7 @@ public class ProjectFileParserFacade {
       // does not start with a ';', can't be an old S-expression format project file
       // try new XML format parser
       fr.close();
-      return fixup(XMLProjectFileParser.ONLY.parse(projFile));
+      return fixup(StreamingProjectFileParser.ONLY.parse(projFile));
     }
     read = fr.read();
     if (read==-1) {
@@ -71,7 +71,7 @@ public class ProjectFileParserFacade {
       // does not start with ";;", can't be an old S-expression format project file
       // try new XML format parser
       fr.close();
-      return fixup(XMLProjectFileParser.ONLY.parse(projFile));
+      return fixup(StreamingProjectFileParser.ONLY.parse(projFile));
     }
     fr.close();
     // file started with ";;", try old S-expression format parser
@@ -248,14 +248,21 @@ public class ProjectProfile implements ProjectFileIR {
   }
   public void setWorkingDirectory(File dir) { _workDir = FileOps.validate(dir); }
   public void setMainClass(String main) { _mainClass = main;  }
-  public void setSourceFiles(List<DocFile> sf) { _sourceFiles = new LinkedList<DocFile>(sf); }
+  public void setSourceFiles(List<DocFile> sf) {
+    // keep the entries of a DocFileList that have not been accessed yet
+    _sourceFiles = (sf instanceof DocFileList) ? new DocFileList((DocFileList) sf) : new LinkedList<DocFile>(sf);
+  }
   public void setClassPaths(Iterable<? extends AbsRelFile> cpf) {
     _classPathFiles = new ArrayList<AbsRelFile>();
     for (AbsRelFile f : cpf) { _classPathFiles.add(f); }
   }
   public void setCollapsedPaths(List<String> cp) { _collapsedPaths = new ArrayList<String>(cp); }
-  public void setAuxiliaryFiles(List<DocFile> af) { _auxiliaryFiles = new LinkedList<DocFile>(af); }
-  public void setExcludedFiles(List<DocFile> ef) { _excludedFiles = new ArrayList<DocFile>(ef); }
+  public void setAuxiliaryFiles(List<DocFile> af) {
+    _auxiliaryFiles = (af instanceof DocFileList) ? new DocFileList((DocFileList) af) : new LinkedList<DocFile>(af);
+  }
+  public void setExcludedFiles(List<DocFile> ef) {
+    _excludedFiles = (ef instanceof DocFileList) ? new DocFileList((DocFileList) ef) : new ArrayList<DocFile>(ef);
+  }
   
   /** Assumes that root.getParentFile != null 
    * @param root the new project root to be set
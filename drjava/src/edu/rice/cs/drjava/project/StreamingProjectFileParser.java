@@ -0,0 +1,366 @@
+/*BEGIN_COPYRIGHT_BLOCK
+ *
+ * Copyright (c) 2001-2019, JavaPLT group at Rice University (drjava@rice.edu).  All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the 
+ * following conditions are met:
+ *    * Redistributions of source code must retain the above copyright notice, this list of conditions and the following
+ *      disclaimer.
+ *    * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the 
+ *      following disclaimer in the documentation and/or other materials provided with the distribution.
+ *    * Neither the names of DrJava, the JavaPLT group, Rice University, nor the names of its contributors may be used 
+ *      to endorse or promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, 
+ * INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, 
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR 
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, 
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This software is Open Source Initiative approved Open Source Software. Open Source Initative Approved is a trademark
+ * of the Open Source Initiative.
+ * 
+ * This file is part of DrJava.  Download the current version of this project from http://www.drjava.org/ or 
+ * http://sourceforge.net/projects/drjava/
+ * 
+ * END_COPYRIGHT_BLOCK*/
+package edu.rice.cs.drjava.project;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.text.DateFormat;
+import java.text.SimpleDateFormat;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import edu.rice.cs.util.AbsRelFile;
+import edu.rice.cs.drjava.model.DummyDocumentRegion;
+import edu.rice.cs.drjava.model.IRegion;
+import edu.rice.cs.drjava.model.debug.DebugWatchData;
+import edu.rice.cs.drjava.model.debug.DebugBreakpointData;
+import edu.rice.cs.drjava.config.OptionParser;
+import edu.rice.cs.plt.text.TextUtil;
+import edu.rice.cs.plt.tuple.Pair;
+import edu.rice.cs.util.StringOps;
+
+/** This parser reads XML project files in a single pass over a stream of XML events, without building a DOM tree.
+  * It reads the same format as XMLProjectFileParser and fills the ProjectFileIR the same way, except that the DocFile
+  * objects for the source, included, and excluded files are only created when they are first accessed.  The values of
+  * the document entries are still checked while the project file is read, so a malformed entry is reported by parse.
+  * 
+  * <p> If new information is stored in the project file, both this parser and XMLProjectFileParser need to read it.</p>
+  */
+public class StreamingProjectFileParser extends ProjectFileParserFacade {
+  /** Singleton instance of StreamingProjectFileParser */
+  public static final StreamingProjectFileParser ONLY = new StreamingProjectFileParser();
+  private StreamingProjectFileParser() { _xmlProjectFile = true; }
+  
+  private static final XMLInputFactory FACTORY = XMLInputFactory.newInstance();
+  static {
+    FACTORY.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, Boolean.FALSE);
+    FACTORY.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+  }
+  
+  /** @param projFile the file to parse
+    * @return the project file IR
+    */
+  public ProjectFileIR parse(File projFile) throws IOException, FileNotFoundException, MalformedProjectFileException {
+    _projectFile = projFile;
+    InputStream is = new BufferedInputStream(new FileInputStream(projFile));
+    try {
+      XMLStreamReader r;
+      synchronized(FACTORY) { r = FACTORY.createXMLStreamReader(is); }
+      try { return new ProjectReader(projFile).read(r); }
+      finally { r.close(); }
+    }
+    catch(XMLStreamException e) {
+      throw new MalformedProjectFileException("Malformed XML project file." + e.getMessage() + "\n" + StringOps.getStackTrace(e));
+    }
+    catch(NumberFormatException e) {
+      throw new MalformedProjectFileException("Malformed XML project file; a value that should have been an integer was not.\n" + StringOps.getStackTrace(e));
+    }
+    catch(IllegalArgumentException e) {
+      throw new MalformedProjectFileException("Malformed XML project file; a value had the wrong type.\n" + StringOps.getStackTrace(e));
+    }
+    finally { is.close(); }
+  }
+  
+  /** The state of reading one project file. */
+  private static class ProjectReader {
+    private final String _parent;
+    private final ProjectFileIR _pfir;
+    private String _srcFileBase;
+    
+    /** Name of the element directly inside the project element that is being read, or null. */
+    private String _section = null;
+    
+    private final DateFormat _usFormat = new SimpleDateFormat(ProjectProfile.MOD_DATE_FORMAT_STRING, Locale.US);
+    private DateFormat _localFormat = null;
+    
+    private final DocFileList _sourceFiles = new DocFileList();
+    private final DocFileList _auxiliaryFiles = new DocFileList();
+    private final DocFileList _excludedFiles = new DocFileList();
+    private final List<String> _collapsed = new ArrayList<String>();
+    private final List<AbsRelFile> _classPaths = new ArrayList<AbsRelFile>();
+    private final List<DebugBreakpointData> _breakpoints = new ArrayList<DebugBreakpointData>();
+    private final List<DebugWatchData> _watches = new ArrayList<DebugWatchData>();
+    private final List<IRegion> _bookmarks = new ArrayList<IRegion>();
+    private final List<Pair<String,String>> _preferences = new ArrayList<Pair<String,String>>();
+    private final List<String> _createJarFiles = new ArrayList<String>();
+    private final List<String> _createJarFlags = new ArrayList<String>();
+    
+    /* The document entry that is being read. */
+    private String _docName;
+    private String _docTimestamp;
+    private String _docPackage;
+    private String _docActive;
+    private final List<String> _selectFrom = new ArrayList<String>();
+    private final List<String> _selectTo = new ArrayList<String>();
+    private final List<String> _scrollColumn = new ArrayList<String>();
+    private final List<String> _scrollRow = new ArrayList<String>();
+    
+    ProjectReader(File projFile) throws IOException {
+      _parent = projFile.getParent();
+      _srcFileBase = _parent;
+      _pfir = new ProjectProfile(projFile);
+    }
+    
+    /** Reads the project file from the stream.
+      * @param r the stream of XML events
+      * @return the project file IR
+      */
+    ProjectFileIR read(XMLStreamReader r) throws XMLStreamException, IOException, MalformedProjectFileException {
+      String version = "unknown";
+      boolean projectRead = false;  // whether the project element has been read; only the first one is used
+      boolean inProject = false;
+      boolean inDoc = false;
+      int depth = 0;
+      while(r.hasNext()) {
+        int event = r.next();
+        if (event == XMLStreamConstants.START_ELEMENT) {
+          ++depth;
+          String name = r.getLocalName();
+          if (depth == 1) {
+            if (! name.equals("drjava")) break;
+            String v = r.getAttributeValue(null, "version");
+            if (v != null) version = v;
+          }
+          else if (depth == 2) {
+            if (name.equals("project") && ! projectRead) {
+              _readProject(r);
+              inProject = true;
+            }
+          }
+          else if (inProject && depth == 3) {
+            _section = name;
+            if (name.equals("createjar")) {
+              _addIfPresent(_createJarFiles, r, "file");
+              _addIfPresent(_createJarFlags, r, "flags");
+            }
+          }
+          else if (inProject && depth == 4) {
+            inDoc = _readEntry(r, name);
+          }
+          else if (inDoc && depth == 5) {
+            if (name.equals("select")) {
+              _addIfPresent(_selectFrom, r, "from");
+              _addIfPresent(_selectTo, r, "to");
+            }
+            else if (name.equals("scroll")) {
+              _addIfPresent(_scrollColumn, r, "column");
+              _addIfPresent(_scrollRow, r, "row");
+            }
+          }
+        }
+        else if (event == XMLStreamConstants.END_ELEMENT) {
+          if (inDoc && depth == 4) {
+            _endDocEntry();
+            inDoc = false;
+          }
+          else if (inProject && depth == 3) { _section = null; }
+          else if (inProject && depth == 2) {
+            inProject = false;
+            projectRead = true;
+          }
+          --depth;
+        }
+      }
+      if (! projectRead) throw new MalformedProjectFileException("Malformed XML project file; a required value was missing.");
+      
+      _pfir.setDrJavaVersion(version);
+      if (_createJarFiles.size() == 1) _pfir.setCreateJarFile(new File(_parent, _createJarFiles.get(0)));
+      if (_createJarFlags.size() == 1) _pfir.setCreateJarFlags(Integer.valueOf(_createJarFlags.get(0)));
+      _pfir.setSourceFiles(_sourceFiles);
+      _pfir.setAuxiliaryFiles(_auxiliaryFiles);
+      _pfir.setExcludedFiles(_excludedFiles);
+      _pfir.setCollapsedPaths(_collapsed);
+      _pfir.setClassPaths(_classPaths);
+      _pfir.setBreakpoints(_breakpoints);
+      _pfir.setWatches(_watches);
+      _pfir.setBookmarks(_bookmarks);
+      
+      Map<OptionParser<?>,String> storedPreferences = new HashMap<OptionParser<?>,String>();
+      for(Pair<String,String> p: _preferences) {
+        XMLProjectFileParser.restorePreference(storedPreferences, p.first(), p.second());
+      }
+      _pfir.setPreferencesStoredInProject(storedPreferences);
+      return _pfir;
+    }
+    
+    /** Reads the attributes of the project element. */
+    private void _readProject(XMLStreamReader r) throws IOException, MalformedProjectFileException {
+      String s = _required(r, "root");
+      File root = new File(_parent, s);
+      _pfir.setProjectRoot(root);
+      _srcFileBase = root.getCanonicalPath();
+      
+      s = r.getAttributeValue(null, "manifest");
+      if (s != null) _pfir.setCustomManifest(TextUtil.xmlUnescape(s));
+      
+      s = r.getAttributeValue(null, "build");
+      if (s != null) _pfir.setBuildDirectory((! new File(s).isAbsolute()) ? new File(_parent, s) : new File(s));
+      
+      s = _required(r, "work");
+      _pfir.setWorkingDirectory((! new File(s).isAbsolute()) ? new File(_parent, s) : new File(s));
+      
+      s = r.getAttributeValue(null, "main");
+      if (s != null) _pfir.setMainClass(s);
+      
+      s = r.getAttributeValue(null, "autorefresh");
+      if (s != null) _pfir.setAutoRefreshStatus(Boolean.valueOf(s));
+    }
+    
+    /** Reads an element inside one of the sections of the project element.
+      * @return true if the element is a document entry whose select and scroll elements are read next
+      */
+    private boolean _readEntry(XMLStreamReader r, String name) throws MalformedProjectFileException {
+      if (_section == null) return false;
+      if (name.equals("file") && 
+          (_section.equals("source") || _section.equals("included") || _section.equals("excluded"))) {
+        _docName = _required(r, "name");
+        _docTimestamp = _required(r, "timestamp");
+        _docPackage = _required(r, "package");
+        _docActive = r.getAttributeValue(null, "active");
+        _selectFrom.clear();
+        _selectTo.clear();
+        _scrollColumn.clear();
+        _scrollRow.clear();
+        return true;
+      }
+      if (name.equals("file") && _section.equals("classpath")) {
+        String fileName = _required(r, "name");
+        String absolute = r.getAttributeValue(null, "absolute");
+        boolean abs = (absolute == null) || _toBool(absolute); // default to true for backward compatibility
+        abs |= new File(fileName).isAbsolute();
+        _classPaths.add(new AbsRelFile(((_srcFileBase.length() > 0 && ! abs) ? new File(_srcFileBase, fileName) :
+                                          new File(fileName)).getAbsoluteFile(), abs));
+      }
+      else if (name.equals("path") && _section.equals("collapsed")) {
+        _collapsed.add(_required(r, "name"));
+      }
+      else if (name.equals("breakpoint") && _section.equals("breakpoints")) {
+        final File f = _resolve(_required(r, "file"));
+        final int lnr = Integer.valueOf(_required(r, "line"));
+        final boolean enabled = _toBool(_required(r, "enabled"));
+        _breakpoints.add(new DebugBreakpointData() {
+          public File getFile() { return f; }
+          public int getLineNumber() { return lnr; }
+          public boolean isEnabled() { return enabled; }
+        });
+      }
+      else if (name.equals("watch") && _section.equals("watches")) {
+        _watches.add(new DebugWatchData(_required(r, "name")));
+      }
+      else if (name.equals("bookmark") && _section.equals("bookmarks")) {
+        File f = _resolve(_required(r, "file"));
+        int from = Integer.valueOf(_required(r, "from"));
+        int to = Integer.valueOf(_required(r, "to"));
+        _bookmarks.add(new DummyDocumentRegion(f, from, to));
+      }
+      else if (name.equals("preference") && _section.equals("preferences")) {
+        _preferences.add(new Pair<String,String>(TextUtil.xmlUnescape(_required(r, "name")),
+                                                 TextUtil.xmlUnescape(_required(r, "value"))));
+      }
+      return false;
+    }
+    
+    /** Checks the values of the document entry that has been read and adds it to the list of its section. */
+    private void _endDocEntry() throws MalformedProjectFileException {
+      int selectFrom = Integer.valueOf(_single(_selectFrom, "select.from"));
+      int selectTo = Integer.valueOf(_single(_selectTo, "select.to"));
+      int scrollColumn = Integer.valueOf(_single(_scrollColumn, "scroll.column"));
+      int scrollRow = Integer.valueOf(_single(_scrollRow, "scroll.row"));
+      boolean active = (_docActive != null) && _toBool(_docActive);
+      long modDate = _parseDate(_docTimestamp);
+      if (_section.equals("source")) {
+        _sourceFiles.addEntry(new DocFileList.Entry(_srcFileBase, _docName, selectFrom, selectTo,
+                                                    scrollColumn, scrollRow, active, _docPackage, modDate));
+      }
+      else {
+        DocFileList files = _section.equals("included") ? _auxiliaryFiles : _excludedFiles;
+        files.addEntry(new DocFileList.Entry("", _docName, selectFrom, selectTo, 
+                                             scrollColumn, scrollRow, active, _docPackage, modDate));
+      }
+    }
+    
+    /** @return the modification date in the timestamp, parsed in the US locale or else in the default locale */
+    private long _parseDate(String timestamp) throws MalformedProjectFileException {
+      try { return _usFormat.parse(timestamp).getTime(); }
+      catch (java.text.ParseException e1) {
+        try {
+          if (_localFormat == null) _localFormat = new SimpleDateFormat(ProjectProfile.MOD_DATE_FORMAT_STRING);
+          return _localFormat.parse(timestamp).getTime();
+        }
+        catch (java.text.ParseException e2) {
+          throw new MalformedProjectFileException("Source file node contains badly formatted timestamp.");
+        }
+      }
+    }
+    
+    /** @return the file with the given name, relative to the source root unless it is absolute */
+    private File _resolve(String name) {
+      if ((_srcFileBase == null) || (new File(name).isAbsolute())) return new File(name);
+      else return new File(_srcFileBase, name);
+    }
+  }
+  
+  private static void _addIfPresent(List<String> values, XMLStreamReader r, String attribute) {
+    String s = r.getAttributeValue(null, attribute);
+    if (s != null) values.add(s);
+  }
+  
+  private static String _required(XMLStreamReader r, String attribute) throws MalformedProjectFileException {
+    String s = r.getAttributeValue(null, attribute);
+    if (s == null) {
+      throw new MalformedProjectFileException("XML Parse Error: Attribute " + attribute + " of " + r.getLocalName() + 
+                                              " is missing");
+    }
+    return s;
+  }
+  
+  private static String _single(List<String> values, String path) throws MalformedProjectFileException {
+    if (values.size() != 1) throw new MalformedProjectFileException("XML Parse Error: Number of " + path + " != 1");
+    return values.get(0);
+  }
+  
+  /** @return the Boolean value of s, as read by XMLConfig.getBool */
+  private static boolean _toBool(String s) {
+    s = s.toLowerCase().trim();
+    if ((s.equals("true")) || (s.equals("yes")) || (s.equals("on"))) return true;
+    if ((s.equals("false")) || (s.equals("no")) || (s.equals("off"))) return false;
+    throw new IllegalArgumentException("Not a Boolean value.");
+  }
+}
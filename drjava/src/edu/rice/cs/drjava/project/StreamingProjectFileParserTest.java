@@ -0,0 +1,202 @@
+/*BEGIN_COPYRIGHT_BLOCK
+ *
+ * Copyright (c) 2001-2019, JavaPLT group at Rice University (drjava@rice.edu).  All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the 
+ * following conditions are met:
+ *    * Redistributions of source code must retain the above copyright notice, this list of conditions and the following
+ *      disclaimer.
+ *    * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the 
+ *      following disclaimer in the documentation and/or other materials provided with the distribution.
+ *    * Neither the names of DrJava, the JavaPLT group, Rice University, nor the names of its contributors may be used 
+ *      to endorse or promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, 
+ * INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, 
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR 
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, 
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This software is Open Source Initiative approved Open Source Software. Open Source Initative Approved is a trademark
+ * of the Open Source Initiative.
+ * 
+ * This file is part of DrJava.  Download the current version of this project from http://www.drjava.org/ or 
+ * http://sourceforge.net/projects/drjava/
+ * 
+ * END_COPYRIGHT_BLOCK*/
+package edu.rice.cs.drjava.project;
+
+import java.io.*;
+import java.util.Arrays;
+import edu.rice.cs.plt.io.IOUtil;
+import edu.rice.cs.plt.iter.IterUtil;
+import edu.rice.cs.drjava.DrJavaTestCase;
+import edu.rice.cs.drjava.model.IRegion;
+import edu.rice.cs.drjava.model.debug.DebugBreakpointData;
+import edu.rice.cs.util.AbsRelFile;
+
+/** Test for StreamingProjectFileParser. */
+public class StreamingProjectFileParserTest extends DrJavaTestCase {
+  
+  private File _write(String xml) throws IOException {
+    File f = File.createTempFile("project", ".xml", new File(System.getProperty("user.dir")));
+    f.deleteOnExit();
+    IOUtil.writeStringToFile(f, xml);
+    return f;
+  }
+  
+  private static void _assertDocFilesEqual(String what, DocFile[] expected, DocFile[] actual) {
+    assertEquals("number of " + what, expected.length, actual.length);
+    for (int i = 0; i < expected.length; ++i) {
+      assertEquals(what + " " + i, expected[i], actual[i]);
+      assertEquals(what + " selection " + i, expected[i].getSelection(), actual[i].getSelection());
+      assertEquals(what + " scroll " + i, expected[i].getScroll(), actual[i].getScroll());
+      assertEquals(what + " active " + i, expected[i].isActive(), actual[i].isActive());
+      assertEquals(what + " package " + i, expected[i].getPackage(), actual[i].getPackage());
+      assertEquals(what + " mod date " + i, expected[i].getSavedModDate(), actual[i].getSavedModDate());
+    }
+  }
+  
+  /** Checks that both parsers read the same values from the project file f. */
+  private static void _assertAgrees(File f) throws IOException, MalformedProjectFileException {
+    ProjectFileIR dom = XMLProjectFileParser.ONLY.parse(f);
+    ProjectFileIR stream = StreamingProjectFileParser.ONLY.parse(f);
+    assertEquals("version", dom.getDrJavaVersion(), stream.getDrJavaVersion());
+    assertEquals("project root", dom.getProjectRoot(), stream.getProjectRoot());
+    assertEquals("build directory", dom.getBuildDirectory(), stream.getBuildDirectory());
+    assertEquals("working directory", dom.getWorkingDirectory(), stream.getWorkingDirectory());
+    assertEquals("main class", dom.getMainClass(), stream.getMainClass());
+    assertEquals("create jar file", dom.getCreateJarFile(), stream.getCreateJarFile());
+    assertEquals("create jar flags", dom.getCreateJarFlags(), stream.getCreateJarFlags());
+    assertEquals("manifest", dom.getCustomManifest(), stream.getCustomManifest());
+    assertEquals("auto refresh", dom.getAutoRefreshStatus(), stream.getAutoRefreshStatus());
+    _assertDocFilesEqual("source files", dom.getSourceFiles(), stream.getSourceFiles());
+    _assertDocFilesEqual("aux files", dom.getAuxiliaryFiles(), stream.getAuxiliaryFiles());
+    _assertDocFilesEqual("excluded files", dom.getExcludedFiles(), stream.getExcludedFiles());
+    assertEquals("collapsed paths", Arrays.asList(dom.getCollapsedPaths()), Arrays.asList(stream.getCollapsedPaths()));
+    assertEquals("number of class paths", IterUtil.sizeOf(dom.getClassPaths()), IterUtil.sizeOf(stream.getClassPaths()));
+    for (AbsRelFile cp : dom.getClassPaths()) {
+      assertTrue("class path " + cp, IterUtil.contains(stream.getClassPaths(), cp));
+    }
+    DebugBreakpointData[] domBps = dom.getBreakpoints();
+    DebugBreakpointData[] streamBps = stream.getBreakpoints();
+    assertEquals("number of breakpoints", domBps.length, streamBps.length);
+    for (int i = 0; i < domBps.length; ++i) {
+      assertEquals("breakpoint file " + i, domBps[i].getFile(), streamBps[i].getFile());
+      assertEquals("breakpoint line " + i, domBps[i].getLineNumber(), streamBps[i].getLineNumber());
+      assertEquals("breakpoint enabled " + i, domBps[i].isEnabled(), streamBps[i].isEnabled());
+    }
+    assertEquals("number of watches", dom.getWatches().length, stream.getWatches().length);
+    for (int i = 0; i < dom.getWatches().length; ++i) {
+      assertEquals("watch " + i, dom.getWatches()[i].getName(), stream.getWatches()[i].getName());
+    }
+    IRegion[] domBms = dom.getBookmarks();
+    IRegion[] streamBms = stream.getBookmarks();
+    assertEquals("number of bookmarks", domBms.length, streamBms.length);
+    for (int i = 0; i < domBms.length; ++i) {
+      assertEquals("bookmark file " + i, domBms[i].getFile(), streamBms[i].getFile());
+      assertEquals("bookmark start " + i, domBms[i].getStartOffset(), streamBms[i].getStartOffset());
+      assertEquals("bookmark end " + i, domBms[i].getEndOffset(), streamBms[i].getEndOffset());
+    }
+  }
+  
+  public void testAgreesWithDOMParser() throws IOException, MalformedProjectFileException {
+    _assertAgrees(_write(XMLProjectFileParserTest.sampleProject()));
+    _assertAgrees(_write(_generate(50)));
+  }
+  
+  public void testMalformed() throws IOException {
+    String xml = XMLProjectFileParserTest.sampleProject();
+    String[] broken = {
+      xml.replace("root=\"src\"", ""),                                     // missing project root
+      xml.replace("timestamp=\"27-Mar-2008 15:05:07\"", "timestamp=\"yesterday\""),
+      xml.replaceFirst("<select from=\"0\" to=\"0\"/>", ""),               // missing selection
+      xml.replace("line=\"50\"", "line=\"fifty\""),
+      xml.replace("enabled=\"true\"", "enabled=\"maybe\""),
+      xml.replace("<project ", "<projekt ").replace("</project>", "</projekt>"),
+      xml.substring(0, xml.length() / 2)
+    };
+    for (String s : broken) {
+      File f = _write(s);
+      try {
+        StreamingProjectFileParser.ONLY.parse(f);
+        fail("Should throw MalformedProjectFileException for " + s);
+      }
+      catch (MalformedProjectFileException e) { /* expected */ }
+    }
+  }
+  
+  public void testLazyDocFiles() {
+    DocFileList l = new DocFileList();
+    for (int i = 0; i < 3; ++i) {
+      l.addEntry(new DocFileList.Entry("/root", "File" + i + ".java", i, i + 1, 0, 0, i == 1, "pkg", 1000L * i));
+    }
+    assertEquals(3, l.size());
+    assertEquals(0, l.materializedCount());
+    
+    DocFile df = l.get(1);
+    assertEquals(1, l.materializedCount());
+    assertEquals(new File("/root", "File1.java").getAbsoluteFile(), df);
+    assertTrue(df.isActive());
+    assertEquals(1000L, df.getSavedModDate());
+    assertSame(df, l.get(1));
+    
+    DocFileList copy = new DocFileList(l);
+    assertEquals(1, copy.materializedCount());
+    assertSame(df, copy.get(1));
+    
+    copy.remove(df);
+    copy.add(0, df);
+    assertSame(df, copy.get(0));
+    assertEquals(2, copy.materializedCount());
+    assertEquals(1, l.materializedCount());
+  }
+  
+  /** @return the text of a project file with the given number of source files */
+  private static String _generate(int files) {
+    StringBuilder sb = new StringBuilder();
+    sb.append("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"no\"?>\n");
+    sb.append("<drjava version=\"20100711-r5314\">\n");
+    sb.append("  <project root=\"src\" build=\"classes\" work=\"\" autorefresh=\"true\">\n");
+    sb.append("    <source>\n");
+    for (int i = 0; i < files; ++i) {
+      sb.append("      <file name=\"pkg").append(i % 40).append("/Class").append(i).append(".java\" package=\"pkg")
+        .append(i % 40).append("\" timestamp=\"27-Mar-2008 15:05:07\"").append(i == 7 ? " active=\"true\"" : "")
+        .append(">\n");
+      sb.append("        <select from=\"").append(i).append("\" to=\"").append(2 * i).append("\"/>\n");
+      sb.append("        <scroll column=\"").append(i % 7).append("\" row=\"").append(i).append("\"/>\n");
+      sb.append("      </file>\n");
+    }
+    sb.append("    </source>\n");
+    sb.append("    <collapsed>\n      <path name=\"./[ Source Files ]/pkg1/\"/>\n    </collapsed>\n");
+    sb.append("    <classpath>\n      <file name=\"lib\" absolute=\"false\"/>\n    </classpath>\n");
+    sb.append("    <breakpoints>\n      <breakpoint file=\"pkg0/Class0.java\" line=\"5\" enabled=\"false\"/>\n");
+    sb.append("    </breakpoints>\n");
+    sb.append("  </project>\n");
+    sb.append("</drjava>\n");
+    return sb.toString();
+  }
+  
+  /** Run to compare the performance of the DOM parser and the streaming parser on a project with 3000 source files. */
+  public static void main(String[] args) throws Exception {
+    File f = File.createTempFile("project", ".xml");
+    f.deleteOnExit();
+    IOUtil.writeStringToFile(f, _generate(3000));
+    for (int round = 0; round < 5; ++round) {
+      long start = System.nanoTime();
+      XMLProjectFileParser.ONLY.parse(f).getSourceFiles();
+      long dom = System.nanoTime() - start;
+      
+      start = System.nanoTime();
+      ProjectFileIR pfir = StreamingProjectFileParser.ONLY.parse(f);
+      long stream = System.nanoTime() - start;
+      pfir.getSourceFiles();
+      long streamAll = System.nanoTime() - start;
+      
+      System.out.println("DOM: " + dom / 1000000 + " ms, streaming: " + stream / 1000000 + " ms, " +
+                         "streaming with all documents created: " + streamAll / 1000000 + " ms");
+    }
+  }
+}
@@ -78,6 +78,38 @@ public class XMLProjectFileParser extends ProjectFileParserFacade {
   protected XMLConfig _xc;
   
   static edu.rice.cs.util.Log LOG = new edu.rice.cs.util.Log("xmlparser.log", false);
+  
+  /* Paths used to read the project file, compiled once. */
+  private static final XMLConfig.Path VERSION = new XMLConfig.Path("drjava.version");
+  private static final XMLConfig.Path PROJECT = new XMLConfig.Path("drjava/project");
+  private static final XMLConfig.Path ROOT = new XMLConfig.Path(".root");
+  private static final XMLConfig.Path CREATEJAR_FILE = new XMLConfig.Path("createjar.file");
+  private static final XMLConfig.Path CREATEJAR_FLAGS = new XMLConfig.Path("createjar.flags");
+  private static final XMLConfig.Path MANIFEST = new XMLConfig.Path(".manifest");
+  private static final XMLConfig.Path BUILD = new XMLConfig.Path(".build");
+  private static final XMLConfig.Path WORK = new XMLConfig.Path(".work");
+  private static final XMLConfig.Path MAIN = new XMLConfig.Path(".main");
+  private static final XMLConfig.Path AUTOREFRESH = new XMLConfig.Path(".autorefresh");
+  private static final XMLConfig.Path NAME = new XMLConfig.Path(".name");
+  private static final XMLConfig.Path SELECT_FROM = new XMLConfig.Path("select.from");
+  private static final XMLConfig.Path SELECT_TO = new XMLConfig.Path("select.to");
+  private static final XMLConfig.Path SCROLL_COLUMN = new XMLConfig.Path("scroll.column");
+  private static final XMLConfig.Path SCROLL_ROW = new XMLConfig.Path("scroll.row");
+  private static final XMLConfig.Path TIMESTAMP = new XMLConfig.Path(".timestamp");
+  private static final XMLConfig.Path PACKAGE = new XMLConfig.Path(".package");
+  private static final XMLConfig.Path ACTIVE = new XMLConfig.Path(".active");
+  private static final XMLConfig.Path ABSOLUTE = new XMLConfig.Path(".absolute");
+  private static final XMLConfig.Path COLLAPSED_PATH = new XMLConfig.Path("collapsed/path");
+  private static final XMLConfig.Path BREAKPOINTS_BREAKPOINT = new XMLConfig.Path("breakpoints/breakpoint");
+  private static final XMLConfig.Path FILE = new XMLConfig.Path(".file");
+  private static final XMLConfig.Path LINE = new XMLConfig.Path(".line");
+  private static final XMLConfig.Path ENABLED = new XMLConfig.Path(".enabled");
+  private static final XMLConfig.Path WATCHES_WATCH = new XMLConfig.Path("watches/watch");
+  private static final XMLConfig.Path BOOKMARKS_BOOKMARK = new XMLConfig.Path("bookmarks/bookmark");
+  private static final XMLConfig.Path FROM = new XMLConfig.Path(".from");
+  private static final XMLConfig.Path TO = new XMLConfig.Path(".to");
+  private static final XMLConfig.Path PREFERENCES_PREFERENCE = new XMLConfig.Path("preferences/preference");
+  private static final XMLConfig.Path VALUE = new XMLConfig.Path(".value");
     
   /** @param projFile the file to parse
    *  @return the project file IR
@@ -92,19 +124,19 @@ public class XMLProjectFileParser extends ProjectFileParserFacade {
       XMLConfig xcParent = new XMLConfig(projFile);
 
       // read version... this string isn't actually used
-      String version = xcParent.get("drjava.version", "unknown");
+      String version = xcParent.get(VERSION, "unknown");
       LOG.log("version = '" + version + "'");
       
       pfir.setDrJavaVersion(version);
       
       // create a sub-configuration so we don't have to prefix everything with "drjava/project/"
-      _xc = new XMLConfig(xcParent, xcParent.getNodes("drjava/project").get(0));
+      _xc = new XMLConfig(xcParent, xcParent.getNodes(PROJECT).get(0));
       LOG.log(_xc.toString());
       String s;
       
       // read project root; must be present
       try {
-        s = _xc.get(".root");
+        s = _xc.get(ROOT);
         LOG.log("root = '" + s + "'");
         File root = new File(_parent, s);
         LOG.log("_parent = " + _parent);
@@ -116,14 +148,14 @@ public class XMLProjectFileParser extends ProjectFileParserFacade {
       
       // read create jar options
       try {
-        s = _xc.get("createjar.file");
+        s = _xc.get(CREATEJAR_FILE);
         LOG.log("createjar.file = '" + s + "'");
         File jarFile = new File(_parent, s);
         pfir.setCreateJarFile(jarFile);
       }
       catch(XMLConfigException e) { /* not present is ok too */ }
       try {
-        s = _xc.get("createjar.flags");
+        s = _xc.get(CREATEJAR_FLAGS);
         LOG.log("createjar.flags = '" + s + "'");
         int flags = Integer.valueOf(s);
         pfir.setCreateJarFlags(flags);
@@ -131,14 +163,14 @@ public class XMLProjectFileParser extends ProjectFileParserFacade {
       catch(XMLConfigException e) { /* not present is ok too */ }
       
       try {
-        s = _xc.get(".manifest");
+        s = _xc.get(MANIFEST);
         LOG.log("manifest = '" + s + "'");
         pfir.setCustomManifest(TextUtil.xmlUnescape(s));
       } catch(XMLConfigException e) { /* not present is fine */ }
       
       // read build dir
       try {
-        s = _xc.get(".build");
+        s = _xc.get(BUILD);
         LOG.log("build = '" + s + "'");
         File buildDir = (!new File(s).isAbsolute())?new File(_parent, s):new File(s);
         pfir.setBuildDirectory(buildDir);
@@ -147,7 +179,7 @@ public class XMLProjectFileParser extends ProjectFileParserFacade {
 
       // read working dir; must be present
       try {
-        s = _xc.get(".work");
+        s = _xc.get(WORK);
         LOG.log("work = '" + s + "'");
         File workDir = (!new File(s).isAbsolute())?new File(_parent, s):new File(s);
         pfir.setWorkingDirectory(workDir);
@@ -156,7 +188,7 @@ public class XMLProjectFileParser extends ProjectFileParserFacade {
 
       // read main class
       try {
-        s = _xc.get(".main");
+        s = _xc.get(MAIN);
         LOG.log("main = '" + s + "'");
         /*File mainClass = new File(_parent, s);
         pfir.setMainClass(mainClass);*/
@@ -165,7 +197,7 @@ public class XMLProjectFileParser extends ProjectFileParserFacade {
       catch(XMLConfigException e) { /* not present is ok too */ }
       
       try {
-        s = _xc.get(".autorefresh");
+        s = _xc.get(AUTOREFRESH);
         boolean b = Boolean.valueOf(s);
         pfir.setAutoRefreshStatus(b);
       } 
@@ -228,18 +260,18 @@ public class XMLProjectFileParser extends ProjectFileParserFacade {
       LOG.log("\t" + n.toString());
       
       // now all path names are relative to node n...
-      String name = _xc.get(".name",n);
+      String name = _xc.get(NAME,n);
       LOG.log("\t\tname = '" + name + "'");
       
-      int selectFrom = _xc.getInt("select.from",n);
-      int selectTo = _xc.getInt("select.to",n);
+      int selectFrom = _xc.getInt(SELECT_FROM,n);
+      int selectTo = _xc.getInt(SELECT_TO,n);
       LOG.log("\t\tselect = '" + selectFrom + " to " + selectTo + "'");
       
-      int scrollCol = _xc.getInt("scroll.column",n);
-      int scrollRow = _xc.getInt("scroll.row",n);
+      int scrollCol = _xc.getInt(SCROLL_COLUMN,n);
+      int scrollRow = _xc.getInt(SCROLL_ROW,n);
       LOG.log("\t\tscroll = '" + scrollCol + " , " + scrollRow + "'");
       
-      String timestamp = _xc.get(".timestamp",n);
+      String timestamp = _xc.get(TIMESTAMP,n);
       LOG.log("\t\ttimestamp = '" + timestamp + "'");
       Date modDate;
       try {
@@ -257,12 +289,12 @@ public class XMLProjectFileParser extends ProjectFileParserFacade {
         }
       }
       
-      String pkg = _xc.get(".package",n);
+      String pkg = _xc.get(PACKAGE,n);
       LOG.log("\t\tpackage = '" + pkg + "'");
       
       boolean active;
       try {
-        active = _xc.getBool(".active",n);
+        active = _xc.getBool(ACTIVE,n);
         LOG.log("\t\tactive = '" + active + "'");
       }
       catch(XMLConfigException e) { active = false; /* it's ok if it doesn't exist */ }
@@ -272,7 +304,7 @@ public class XMLProjectFileParser extends ProjectFileParserFacade {
       
       DocFile docF = new DocFile(((rootPath.length() > 0 && !absName)?new File(rootPath,name):new File(name)).getAbsoluteFile(),
                                  new Pair<Integer,Integer>(selectFrom,selectTo),
-                                 new Pair<Integer,Integer>(scrollCol,scrollCol),
+                                 new Pair<Integer,Integer>(scrollCol,scrollRow),
                                  active,
                                  pkg);
       docF.setSavedModDate(modDate.getTime());
@@ -290,8 +322,8 @@ public class XMLProjectFileParser extends ProjectFileParserFacade {
     List<Node> defs = _xc.getNodes(path + "/file");
     for(Node n: defs) {
       // now all path names are relative to node n...
-      String name = _xc.get(".name",n);
-      boolean abs = _xc.getBool(".absolute",n,true); // default to true for backward compatibility
+      String name = _xc.get(NAME,n);
+      boolean abs = _xc.getBool(ABSOLUTE,n,true); // default to true for backward compatibility
 
       /* added to check if file path name refers to absolute. Intended to eliminate project errors over network paths */
       abs |= (new File(name)).isAbsolute();   
@@ -306,22 +338,22 @@ public class XMLProjectFileParser extends ProjectFileParserFacade {
   
   protected List<String> readCollapsed() {
     List<String> pList = new ArrayList<String>();
-    List<Node> defs = _xc.getNodes("collapsed/path");
+    List<Node> defs = _xc.getNodes(COLLAPSED_PATH);
     for(Node n: defs) {
       // now all path names are relative to node n...
-      pList.add(_xc.get(".name", n));
+      pList.add(_xc.get(NAME, n));
     }
     return pList;
   }
   
   protected List<DebugBreakpointData> readBreakpoints() {
     List<DebugBreakpointData> bpList = new ArrayList<DebugBreakpointData>();
-    List<Node> defs = _xc.getNodes("breakpoints/breakpoint");
+    List<Node> defs = _xc.getNodes(BREAKPOINTS_BREAKPOINT);
     for(Node n: defs) {
       // now all path names are relative to node n...
-      String name = _xc.get(".file", n);
-      final int lnr = _xc.getInt(".line", n);
-      final boolean enabled = _xc.getBool(".enabled", n);
+      String name = _xc.get(FILE, n);
+      final int lnr = _xc.getInt(LINE, n);
+      final boolean enabled = _xc.getBool(ENABLED, n);
       DebugBreakpointData dbd;
       if ((_srcFileBase == null) || (new File(name).isAbsolute())) {
         final File f = new File(name);
@@ -346,22 +378,22 @@ public class XMLProjectFileParser extends ProjectFileParserFacade {
 
   protected List<DebugWatchData> readWatches() {
     List<DebugWatchData> wList = new ArrayList<DebugWatchData>();
-    List<Node> defs = _xc.getNodes("watches/watch");
+    List<Node> defs = _xc.getNodes(WATCHES_WATCH);
     for(Node n: defs) {
       // now all path names are relative to node n...
-      wList.add(new DebugWatchData(_xc.get(".name", n)));
+      wList.add(new DebugWatchData(_xc.get(NAME, n)));
     }
     return wList;
   }
     
   protected List<IRegion> readBookmarks() {
     List<IRegion> rList = new ArrayList<IRegion>();
-    List<Node> defs = _xc.getNodes("bookmarks/bookmark");
+    List<Node> defs = _xc.getNodes(BOOKMARKS_BOOKMARK);
     for(Node n: defs) {
       // now all path names are relative to node n...
-      String name = _xc.get(".file", n);
-      final int from = _xc.getInt(".from", n);
-      final int to = _xc.getInt(".to", n);
+      String name = _xc.get(FILE, n);
+      final int from = _xc.getInt(FROM, n);
+      final int to = _xc.getInt(TO, n);
       File f;
       if ((_srcFileBase == null) || (new File(name).isAbsolute())) { f = new File(name); }
       else { f = new File(_srcFileBase, name); }
@@ -370,32 +402,41 @@ public class XMLProjectFileParser extends ProjectFileParserFacade {
     return rList;
   }
   
-  @SuppressWarnings({ "unchecked", "rawtypes" })
   protected Map<OptionParser<?>,String> readStoredPreferences() {
     HashMap<OptionParser<?>,String> storedPreferences = new HashMap<OptionParser<?>,String>();
-    List<Node> prefs = _xc.getNodes("preferences/preference");
+    List<Node> prefs = _xc.getNodes(PREFERENCES_PREFERENCE);
        
     for(Node n: prefs) {
       // now all path names are relative to node n...
-      String name = TextUtil.xmlUnescape(_xc.get(".name", n));
-      String value = TextUtil.xmlUnescape(_xc.get(".value", n));
-      
-      OptionMap map = DrJava.getConfig().getOptionMap();
-      for (OptionParser<?> option : map.keys()) {
-        if (option.name.equals(name)) {
-          try {
-            map.setString(option, value);
-            storedPreferences.put(option, value);
-            if (option instanceof Option) {
-              DrJava.getConfig().setSetting((Option)option, map.getOption(option));
-            }
+      String name = TextUtil.xmlUnescape(_xc.get(NAME, n));
+      String value = TextUtil.xmlUnescape(_xc.get(VALUE, n));
+      restorePreference(storedPreferences, name, value);
+    }
+    
+    return storedPreferences;
+  }
+  
+  /** Restores a preference stored in a project file and records it in storedPreferences.  Preferences that are
+    * unknown or whose value cannot be parsed are ignored.
+    * @param storedPreferences the map of preferences stored in the project
+    * @param name the name of the option
+    * @param value the value of the option
+    */
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  static void restorePreference(Map<OptionParser<?>,String> storedPreferences, String name, String value) {
+    OptionMap map = DrJava.getConfig().getOptionMap();
+    for (OptionParser<?> option : map.keys()) {
+      if (option.name.equals(name)) {
+        try {
+          map.setString(option, value);
+          storedPreferences.put(option, value);
+          if (option instanceof Option) {
+            DrJava.getConfig().setSetting((Option)option, map.getOption(option));
           }
-          catch(OptionParseException ope) { /* ignore, just do not restore */ }
-          break;
         }
+        catch(OptionParseException ope) { /* ignore, just do not restore */ }
+        break;
       }
     }
-    
-    return storedPreferences;
   }
 }
@@ -37,8 +37,9 @@ import edu.rice.cs.drjava.project.ProjectFileIR;
 
 /** Test for XMLProjectFileParser. */
 public class XMLProjectFileParserTest extends DrJavaTestCase {
-  public void testXMLParse() throws IOException, MalformedProjectFileException, java.text.ParseException {
-    String xml = 
+  /** @return the text of a project file with all kinds of entries except stored preferences */
+  static String sampleProject() {
+    return
       "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"no\"?>\n" + 
       "<drjava version=\"" + edu.rice.cs.drjava.Version.getVersionString() + "\">\n" + 
       "  <project root=\"src\" build=\"classes\" work=\"\" main=\"some.main.ClassName\">\n" + 
@@ -125,6 +126,10 @@ public class XMLProjectFileParserTest extends DrJavaTestCase {
       "    </bookmarks>\n" + 
       "  </project>\n" + 
       "</drjava>\n";
+  }
+  
+  public void testXMLParse() throws IOException, MalformedProjectFileException, java.text.ParseException {
+    String xml = sampleProject();
     
     //File f = new File("testFiles/sample-project-file.xml");
     File f = File.createTempFile("project", ".xml", new File(System.getProperty("user.dir")));
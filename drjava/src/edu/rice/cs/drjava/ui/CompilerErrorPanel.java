@@ -36,8 +36,9 @@ import edu.rice.cs.drjava.model.SingleDisplayModel;
 import edu.rice.cs.drjava.model.compiler.CompilerModel;
 import edu.rice.cs.drjava.model.compiler.CompilerErrorModel;
 import edu.rice.cs.drjava.model.compiler.CompilerInterface;
+import edu.rice.cs.drjava.model.compiler.DummyCompilerListener;
 import edu.rice.cs.util.UnexpectedException;
-import edu.rice.cs.plt.iter.IterUtil;
+import edu.rice.cs.util.swing.Utilities;
 
 import javax.swing.*;
 import javax.swing.text.BadLocationException;
@@ -60,6 +61,9 @@ public class CompilerErrorPanel extends ErrorPanel {
   private volatile CompilerErrorListPane _errorListPane;
   private final JComboBox<CompilerInterface> _compilerChoiceBox;
   
+  /** Whether _compilerChoiceBox is being refilled, so that its selection does not change the active compiler. */
+  private boolean _updatingCompilerChoices = false;
+  
   /** The list of files from the last compilation unit that were not compiled because they were not source files. */
   private volatile File[] _excludedFiles = new File[0];
   
@@ -77,19 +81,15 @@ public class CompilerErrorPanel extends ErrorPanel {
     
     
     /******** Initialize the drop-down compiler menu ********/
-    // Limitation: Only compiler choices are those that were available
-    // at the time this box was created.
-    // Also: The UI will go out of sync with reality if the active compiler
-    // is later changed somewhere else. This is because there is no way
-    // to listen on the active compiler.
+    // The menu starts out with the compilers known immediately, and is refilled when the search for compilers 
+    // finishes or the active compiler is changed elsewhere.
     final CompilerModel compilerModel = getModel().getCompilerModel();
-    Iterable<CompilerInterface> iter = getModel().getCompilerModel().getAvailableCompilers();
-    _compilerChoiceBox = new JComboBox<CompilerInterface>(IterUtil.toArray(iter, CompilerInterface.class));
+    _compilerChoiceBox = new JComboBox<CompilerInterface>();
     _compilerChoiceBox.setEditable(false);
-    _compilerChoiceBox.setSelectedItem(compilerModel.getActiveCompiler());
+    _updateCompilerChoices();
     _compilerChoiceBox.addItemListener(new ItemListener() {
       public void itemStateChanged(ItemEvent e) {
-        if (e.getStateChange() == ItemEvent.SELECTED) {
+        if (e.getStateChange() == ItemEvent.SELECTED && ! _updatingCompilerChoices) {
           final CompilerInterface compiler = (CompilerInterface) _compilerChoiceBox.getSelectedItem();
           compilerModel.resetCompilerErrors();
           _compileHasOccurred = false;
@@ -107,6 +107,10 @@ public class CompilerErrorPanel extends ErrorPanel {
 
     customPanel.add(_compilerChoiceBox, BorderLayout.NORTH);
     
+    compilerModel.addListener(new DummyCompilerListener() {
+      @Override public void activeCompilerChanged() { _updateCompilerChoicesLater(); }
+      @Override public void availableCompilersChanged() { _updateCompilerChoicesLater(); }
+    });
     DrJava.getConfig().addOptionListener(OptionConstants.JAVAC_LOCATION, new CompilerLocationOptionListener<File>());
     DrJava.getConfig().addOptionListener(OptionConstants.EXTRA_COMPILERS, new CompilerLocationOptionListener<Vector<String>>());
   }
@@ -115,12 +119,24 @@ public class CompilerErrorPanel extends ErrorPanel {
   /** The OptionListener for compiler LOCATIONs */
   private class CompilerLocationOptionListener<T> implements OptionListener<T> {
     
-    public void optionChanged(OptionEvent<T> oce) {
+    public void optionChanged(OptionEvent<T> oce) { _updateCompilerChoicesLater(); }
+  }
+  
+  /** Fills the compiler menu with the available compilers and selects the active one.  Only runs in the event thread. */
+  private void _updateCompilerChoices() {
+    CompilerModel compilerModel = getModel().getCompilerModel();
+    _updatingCompilerChoices = true;
+    try {
       _compilerChoiceBox.removeAllItems();
-      for (CompilerInterface c : getModel().getCompilerModel().getAvailableCompilers()) {
-        _compilerChoiceBox.addItem(c);
-      }
+      for (CompilerInterface c : compilerModel.getAvailableCompilers()) { _compilerChoiceBox.addItem(c); }
+      _compilerChoiceBox.setSelectedItem(compilerModel.getActiveCompiler());
     }
+    finally { _updatingCompilerChoices = false; }
+  }
+  
+  /** Runs _updateCompilerChoices in the event thread; compiler events are not fired in the event thread. */
+  private void _updateCompilerChoicesLater() {
+    Utilities.invokeLater(new Runnable() { public void run() { _updateCompilerChoices(); } });
   }
   
   /** Returns the CompilerErrorListPane that this panel manages. */
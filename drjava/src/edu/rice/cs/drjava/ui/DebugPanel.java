@@ -632,6 +632,7 @@ public class DebugPanel extends JPanel implements OptionConstants {
     public void breakpointReached(final Breakpoint bp) { }
     public void watchSet(final DebugWatchData w) { }
     public void watchRemoved(final DebugWatchData w) { }
+    public void watchesUpdated() { _watchTable.repaint(); }
     public void stepRequested() { }
     public void regionAdded(Breakpoint r) { }
     public void regionChanged(Breakpoint r) { }
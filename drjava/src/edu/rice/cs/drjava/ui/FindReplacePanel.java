@@ -43,6 +43,7 @@ import edu.rice.cs.drjava.DrJava;
 import edu.rice.cs.drjava.config.*;
 import edu.rice.cs.drjava.model.SingleDisplayModel;
 import edu.rice.cs.drjava.model.OpenDefinitionsDocument;
+import edu.rice.cs.drjava.model.FindAllTask;
 import edu.rice.cs.drjava.model.FindReplaceMachine;
 import edu.rice.cs.drjava.model.FindResult;
 import edu.rice.cs.drjava.model.ClipboardHistoryModel;
@@ -609,6 +610,11 @@ class FindReplacePanel extends TabbedPanel implements ClipboardOwner {
     final int searchLen = searchStr.length();
     if (searchLen == 0) return;
     
+    if (searchAll && ! searchSelectionOnly) {
+      _findAllInBackground(searchStr, matchCase, wholeWord, noComments, noTestCases, startDoc, rm, panel);
+      return;
+    }
+    
     final OpenDefinitionsDocument oldDoc = _machine.getDocument();
     final OpenDefinitionsDocument oldFirstDoc = _machine.getFirstDoc();
 //    final String oldFindWord = _machine.getFindWord();
@@ -697,6 +703,64 @@ class FindReplacePanel extends TabbedPanel implements ClipboardOwner {
     _frame.setStatusMessage("Found " + count + " occurrence" + ((count == 1) ? "" : "s") + ".");
   }
   
+  /** Performs "find all" in all documents as a FindAllTask, which adds the occurrences to the region manager (and 
+    * thus to the panel) as they are found.  The panel is shown with the first occurrence, and the user can stop the 
+    * search from it.
+    * @param searchStr string to search for
+    * @param matchCase true if search should be case-sensitive
+    * @param wholeWord true if we want to match the whole word
+    * @param noComments true if we want to ignore comments
+    * @param noTestCases true if we want to ignore test cases
+    * @param startDoc first document to search within
+    * @param rm a RegionManager
+    * @param panel panel in which to display search results
+    */
+  private void _findAllInBackground(final String searchStr, boolean matchCase, boolean wholeWord, boolean noComments, 
+                                    boolean noTestCases, OpenDefinitionsDocument startDoc, 
+                                    final RegionManager<MovingDocumentRegion> rm, final FindResultsPanel panel) {
+    final int searchLen = searchStr.length();
+    
+    /* The documents in the order in which "find next" visits them, starting with startDoc */
+    final List<OpenDefinitionsDocument> docs = new ArrayList<OpenDefinitionsDocument>();
+    final int n = _model.getDocumentCount();
+    OpenDefinitionsDocument doc = startDoc;
+    for (int i = 0; i < n && doc != null; i++) {
+      docs.add(doc);
+      doc = _model.getDocumentIterator().getNextDocument(doc);
+      if (doc == startDoc) break;
+    }
+    
+    final boolean[] shown = { false };
+    Runnable1<FindResult> found = new Runnable1<FindResult>() {
+      public void run(FindResult fr) {
+        final OpenDefinitionsDocument doc = fr.getDocument();
+        final int end = fr.getFoundOffset();
+        final int start = end - searchLen;
+        rm.addRegion(new MovingDocumentRegion(doc, start, end, doc._getLineStartPos(start), doc._getLineEndPos(end)));
+        if (! shown[0]) {
+          shown[0] = true;
+          _frame.showFindResultsPanel(panel);
+        }
+      }
+    };
+    Runnable1<FindAllTask> done = new Runnable1<FindAllTask>() {
+      public void run(FindAllTask task) {
+        if (! panel.findAllEnded(task)) return;  // superseded by another search or panel closed
+        int count = task.getCount();
+        if (count == 0) panel.freeResources();
+        _model.refreshActiveDocument();
+        Toolkit.getDefaultToolkit().beep();
+        _frame.setStatusMessage("Found " + count + " occurrence" + ((count == 1) ? "" : "s") + 
+                                (task.isCancelled() ? " before the search was stopped." : "."));
+      }
+    };
+    FindAllTask task = new FindAllTask(docs, searchStr, matchCase, wholeWord, noComments, noTestCases, 
+                                       _model.getDocumentSearchIndex(), found, done);
+    panel.setFindAllTask(task);
+    _frame.setStatusMessage("Finding All");
+    task.start();
+  }
+  
   /** Performs the "replace all" command. */
   
   private void _replaceAll() {
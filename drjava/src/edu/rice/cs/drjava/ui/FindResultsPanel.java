@@ -58,6 +58,7 @@ import edu.rice.cs.drjava.config.Option;
 import edu.rice.cs.drjava.config.OptionConstants;
 import edu.rice.cs.drjava.config.OptionEvent;
 import edu.rice.cs.drjava.config.OptionListener;
+import edu.rice.cs.drjava.model.FindAllTask;
 import edu.rice.cs.drjava.model.MovingDocumentRegion;
 import edu.rice.cs.drjava.model.OpenDefinitionsDocument;
 import edu.rice.cs.drjava.model.RegionManager;
@@ -84,12 +85,16 @@ public class FindResultsPanel extends RegionsTreePanel<MovingDocumentRegion> {
   private final MovingDocumentRegion _region; //document region used for search limited selection function
     
   private volatile JButton _findAgainButton;
+  private volatile JButton _stopButton;
   private volatile JButton _goToButton;
   private volatile JButton _bookmarkButton;
   private volatile JButton _removeButton;
   private volatile JComboBox<Color> _colorBox;
   private volatile int _lastIndex;
   
+  /** The background search adding its results to this panel, or null if none is running. */
+  private volatile FindAllTask _findAllTask = null;
+  
   /** Saved option listeners kept in this field so they can be removed for garbage collection  */
   private final LinkedList<Pair<Option<Color>, OptionListener<Color>>> _colorOptionListeners = 
     new LinkedList<Pair<Option<Color>, OptionListener<Color>>>();
@@ -211,6 +216,14 @@ public class FindResultsPanel extends RegionsTreePanel<MovingDocumentRegion> {
       public void actionPerformed(ActionEvent ae) { _findAgain(); }
     };
     _findAgainButton = new JButton(findAgainAction);
+    
+    Action stopAction = new AbstractAction("Stop") {
+      public void actionPerformed(ActionEvent ae) { 
+        FindAllTask task = _findAllTask;
+        if (task != null) task.cancel();
+      }
+    };
+    _stopButton = new JButton(stopAction);
 
     Action goToAction = new AbstractAction("Go to") {
       public void actionPerformed(ActionEvent ae) { goToRegion(); }
@@ -276,7 +289,8 @@ public class FindResultsPanel extends RegionsTreePanel<MovingDocumentRegion> {
                                               DefinitionsPane.FIND_RESULTS_PAINTERS[_lastIndex]);
     
     updateButtons();
-    return new JComponent[] { _findAgainButton, _goToButton, _bookmarkButton, _removeButton, highlightPanel, _colorBox};
+    return new JComponent[] { _findAgainButton, _stopButton, _goToButton, _bookmarkButton, _removeButton, highlightPanel, 
+      _colorBox};
   }
   
   /** @return the selected painter for these find results. */
@@ -308,6 +322,27 @@ public class FindResultsPanel extends RegionsTreePanel<MovingDocumentRegion> {
     }
   }
   
+  /** Sets the background search that adds its results to this panel, cancelling the previous one. Only runs in the 
+    * event thread.
+    * @param task the search
+    */
+  public void setFindAllTask(FindAllTask task) {
+    if (_findAllTask != null) _findAllTask.cancel();
+    _findAllTask = task;
+    _updateButtons();
+  }
+  
+  /** Records that a background search has ended.  Only runs in the event thread.
+    * @param task the search that ended
+    * @return true if task was the current search of this panel, false if it was superseded or the panel was closed
+    */
+  public boolean findAllEnded(FindAllTask task) {
+    if (_findAllTask != task) return false;
+    _findAllTask = null;
+    _updateButtons();
+    return true;
+  }
+  
   /** Turn the selected regions into bookmarks. */
   private void _bookmark() {  // TODO: consolidate with _toggleBookmark in MainFrame/AbstractGlobalModel?
     updateButtons();
@@ -335,6 +370,7 @@ public class FindResultsPanel extends RegionsTreePanel<MovingDocumentRegion> {
     OpenDefinitionsDocument odd = null;
     if (_doc != null) { odd = _doc.get(); }
     _findAgainButton.setEnabled(odd != null || _searchAll);
+    _stopButton.setEnabled(_findAllTask != null);
     _goToButton.setEnabled(regs.size() == 1);
     _bookmarkButton.setEnabled(regs.size() > 0);
     _removeButton.setEnabled(regs.size() > 0);
@@ -379,6 +415,10 @@ public class FindResultsPanel extends RegionsTreePanel<MovingDocumentRegion> {
   @Override
   protected void _close() {
 //    System.err.println("FindResultsPanel.close() called on " + this);
+    if (_findAllTask != null) {
+      _findAllTask.cancel();
+      _findAllTask = null;
+    }
     getRegionManager().clearRegions();  // removes and unhighlights each region; regionListener closes the panel at the end
     getGlobalModel().removeFindResultsManager(getRegionManager());  // removes manager from global model (should be done by listener!)
     _frame.removeCurrentLocationHighlight();
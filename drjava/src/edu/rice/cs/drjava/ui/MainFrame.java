@@ -9039,6 +9039,7 @@ public class MainFrame extends SwingFrame implements ClipboardOwner, DropTargetL
     public void regionRemoved(final Breakpoint bp) { }    
     public void watchSet(final DebugWatchData w) { }
     public void watchRemoved(final DebugWatchData w) { }
+    public void watchesUpdated() { }
     public void threadStarted() { }
     public void nonCurrThreadDied() { }
   }
@@ -9500,6 +9501,9 @@ public class MainFrame extends SwingFrame implements ClipboardOwner, DropTargetL
          _model.getCompilerModel().getActiveCompiler().supportsLanguageLevels());
     }
     
+    /** Called after the list of available compilers has been changed.  The compiler panel listens for itself. */
+    public void availableCompilersChanged() { }
+    
     public void prepareForRun(final OpenDefinitionsDocument doc) {
       // Only change GUI from event-dispatching AbstractDJDocument
       assert EventQueue.isDispatchThread();
@@ -518,6 +518,10 @@ public class ConfigDescriptions {
         "The maximum heap the Interactions JVM can use. Select blank for default");
     add(OptionConstants.SLAVE_JVM_ARGS, "JVM Args for Interactions JVM",
         "The command-line arguments to pass to the Interactions JVM.");    
+    add(OptionConstants.SLAVE_JVM_STANDBY, "Keep a Standby Interactions JVM",
+        "<html>Whether to keep a second, fully started Interactions JVM in the background.<br>"+
+        "Resetting the Interactions Pane then switches to it immediately, but it uses<br>"+
+        "as much memory as another Interactions JVM.</html>");
     
     /** Adds all of the components for the Compiler Options Panel of the preferences window
       */
@@ -544,6 +548,10 @@ public class ConfigDescriptions {
     add(OptionConstants.SHOW_FALLTHROUGH_WARNINGS, "Show Fall-Through Warnings",
         "<html>Warn about <code>switch</code> block cases that fall through to the next case.</html>");
     
+    add(OptionConstants.INCREMENTAL_COMPILATION, "Incremental Compilation",
+        "<html>Only recompile the files that changed since the last compilation and the files<br>"+
+        "that depend on them.  A full build is done whenever the dependencies are unknown.</html>");
+    
     /*
      * The drop down box containing the compiler names
      */
@@ -573,6 +581,10 @@ public class ConfigDescriptions {
     add(OptionConstants.HISTORY_MAX_SIZE, "Size of Interactions History",
         "The number of interactions to remember in the history.");
     
+    add(OptionConstants.INTERACTIONS_MAX_LENGTH, "Interactions Pane Scrollback",
+        "<html>The number of characters to keep in the Interactions Pane.<br>"+
+        "Older output is discarded when this limit is exceeded. 0 keeps all output.</html>");
+    
     add(OptionConstants.DYNAMICJAVA_ACCESS_CONTROL,
         "Enforce access control", 
         "What kind of access control should DrJava enforce in the Interactions Pane?");
@@ -613,6 +625,11 @@ public class ConfigDescriptions {
     add(OptionConstants.FORCE_TEST_SUFFIX,
         "Require test classes in projects to end in \"Test\"",
         "Whether to force test classes in projects to end in \"Test\".");
+    
+    add(OptionConstants.JUNIT_PARALLEL_WORKERS, "Number of Parallel Test JVMs",
+        "<html>The number of separate JVMs in which unit tests are run in parallel.<br>"+
+        "0 or 1 runs the tests in the Interactions JVM. Tests are always run in the<br>"+
+        "Interactions JVM while the debugger is active.</html>");
 
     add(OptionConstants.LANGUAGE_LEVEL,
         "Language Level",
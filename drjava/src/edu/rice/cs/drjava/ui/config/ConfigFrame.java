@@ -1073,6 +1073,8 @@ public class ConfigFrame extends SwingFrame {
                        newForcedChoiceOptionComponent(OptionConstants.SLAVE_JVM_XMX));
     addOptionComponent(panel, 
                        newStringOptionComponent(OptionConstants.SLAVE_JVM_ARGS));    
+    addOptionComponent(panel, 
+                       newBooleanOptionComponent(OptionConstants.SLAVE_JVM_STANDBY));
     panel.displayComponents();
   }
 
@@ -1210,6 +1212,9 @@ public class ConfigFrame extends SwingFrame {
     addOptionComponent(panel, 
                        newBooleanOptionComponent(OptionConstants.SHOW_FALLTHROUGH_WARNINGS, false)
                          .setEntireColumn(true));
+    addOptionComponent(panel, 
+                       newBooleanOptionComponent(OptionConstants.INCREMENTAL_COMPILATION, false)
+                         .setEntireColumn(true));
     addOptionComponent(panel, 
                        new LabelComponent("<html><br><br>Note: Some of these options may not be effective, depending on the<br>"+
                                           "compiler you are using.</html>",
@@ -1280,6 +1285,7 @@ public class ConfigFrame extends SwingFrame {
     addOptionComponent(panel, new LabelComponent("<html>&nbsp;</html>", this, true));
       
     addOptionComponent(panel, newIntegerOptionComponent(OptionConstants.HISTORY_MAX_SIZE));
+    addOptionComponent(panel, newIntegerOptionComponent(OptionConstants.INTERACTIONS_MAX_LENGTH));
 
     addOptionComponent(panel, new LabelComponent("<html>&nbsp;</html>", this, true));
     addOptionComponent(panel, new LabelComponent("<html>&nbsp;</html>", this, true));
@@ -1528,6 +1534,7 @@ public class ConfigFrame extends SwingFrame {
       newBooleanOptionComponent(OptionConstants.FORCE_TEST_SUFFIX,false)
       .setEntireColumn(true);
     addOptionComponent(panel, forceTestSuffix);
+    addOptionComponent(panel, newIntegerOptionComponent(OptionConstants.JUNIT_PARALLEL_WORKERS));
     
     panel.displayComponents();
   }
@@ -0,0 +1,222 @@
+/*BEGIN_COPYRIGHT_BLOCK
+ *
+ * Copyright (c) 2001-2010, JavaPLT group at Rice University (drjava@rice.edu)
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    * Redistributions of source code must retain the above copyright
+ *      notice, this list of conditions and the following disclaimer.
+ *    * Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in the
+ *      documentation and/or other materials provided with the distribution.
+ *    * Neither the names of DrJava, the JavaPLT group, Rice University, nor the
+ *      names of its contributors may be used to endorse or promote products
+ *      derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This software is Open Source Initiative approved Open Source Software.
+ * Open Source Initative Approved is a trademark of the Open Source Initiative.
+ * 
+ * This file is part of DrJava.  Download the current version of this project
+ * from http://www.drjava.org/ or http://sourceforge.net/projects/drjava/
+ * 
+ * END_COPYRIGHT_BLOCK*/
+
+package edu.rice.cs.drjava.ui.predictive;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.StringTokenizer;
+
+import edu.rice.cs.plt.lambda.Condition;
+
+/** Index over the items of a PredictiveInputModel, used by the prefix and fragment strategies so that a new mask
+  * does not require testing every item.  Items are identified by their position in the (sorted) item list, and all
+  * results are ascending arrays of such positions.  The index is immutable once built, except for the lazily created
+  * parts, and may be used from any thread.
+  */
+final class MatchIndex {
+  
+  /** Number of hash buckets for trigrams. */
+  private static final int BUCKETS = 1 << 16;
+  
+  /** Number of items tested between checks for cancellation. */
+  private static final int CANCEL_CHECK_INTERVAL = 1024;
+  
+  /** The items that were indexed. */
+  private final List<?> _items;
+  
+  /** The string representation of each item, lower case if the index ignores case. */
+  private final String[] _keys;
+  
+  /** Item positions ordered by key; created on the first prefix query. */
+  private volatile int[] _sorted = null;
+  
+  /** For each trigram bucket, the ascending positions of the items containing a trigram in that bucket; created on
+    * the first fragment query. */
+  private volatile int[][] _trigrams = null;
+  
+  /** Create a new index.
+    * @param items the items of the model, in order
+    * @param ignoreCase true if case should be ignored
+    */
+  public MatchIndex(List<?> items, boolean ignoreCase) {
+    _items = items;
+    _keys = new String[items.size()];
+    int i = 0;
+    for (Object item: items) {
+      String s = item.toString();
+      _keys[i++] = ignoreCase ? s.toLowerCase() : s;
+    }
+  }
+  
+  /** @param items list of items
+    * @return true if this index was created for the given list */
+  public boolean isFor(List<?> items) { return _items == items; }
+  
+  /** @param pos position of an item
+    * @return the key of the item at pos */
+  public String key(int pos) { return _keys[pos]; }
+  
+  /** @return the positions of all items */
+  public int[] all() {
+    int[] result = new int[_keys.length];
+    for (int i = 0; i < result.length; ++i) { result[i] = i; }
+    return result;
+  }
+  
+  /** Return the positions of the items whose keys start with the given prefix.
+    * @param prefix prefix, already lower case if the index ignores case
+    * @param candidates positions to choose from, or null to consider all items
+    * @param cancelled condition that becomes true if the result is no longer needed
+    * @return ascending positions of the matching items, or null if cancelled
+    */
+  public int[] prefixMatches(final String prefix, int[] candidates, Condition cancelled) {
+    if (prefix.length() == 0) { return (candidates == null) ? all() : candidates; }
+    if (candidates != null) {
+      int[] result = new int[candidates.length];
+      int count = 0;
+      for (int i = 0; i < candidates.length; ++i) {
+        if (i % CANCEL_CHECK_INTERVAL == 0 && cancelled.isTrue()) { return null; }
+        if (_keys[candidates[i]].startsWith(prefix)) { result[count++] = candidates[i]; }
+      }
+      return Arrays.copyOf(result, count);
+    }
+    
+    // keys starting with prefix form a contiguous range in key order
+    int[] sorted = _sorted();
+    int lo = 0;
+    int hi = sorted.length;
+    while (lo < hi) {
+      int mid = (lo + hi) >>> 1;
+      if (_keys[sorted[mid]].compareTo(prefix) < 0) { lo = mid + 1; }
+      else { hi = mid; }
+    }
+    int end = lo;
+    while (end < sorted.length && _keys[sorted[end]].startsWith(prefix)) { ++end; }
+    int[] result = Arrays.copyOfRange(sorted, lo, end);
+    Arrays.sort(result);
+    return result;
+  }
+  
+  /** Return the positions of the items whose keys contain all of the whitespace-separated fragments of the mask.
+    * @param mask fragments, already lower case if the index ignores case
+    * @param candidates positions to choose from, or null to consider all items
+    * @param cancelled condition that becomes true if the result is no longer needed
+    * @return ascending positions of the matching items, or null if cancelled
+    */
+  public int[] fragmentMatches(String mask, int[] candidates, Condition cancelled) {
+    StringTokenizer tok = new StringTokenizer(mask);
+    String[] fragments = new String[tok.countTokens()];
+    for (int i = 0; i < fragments.length; ++i) { fragments[i] = tok.nextToken(); }
+    if (fragments.length == 0) { return (candidates == null) ? all() : candidates; }
+    
+    // only the items in the smallest trigram bucket of any fragment need to be tested
+    int[][] trigrams = _trigrams();
+    for (String f: fragments) {
+      for (int i = 0; i + 3 <= f.length(); ++i) {
+        int[] bucket = trigrams[_hash(f.charAt(i), f.charAt(i + 1), f.charAt(i + 2))];
+        if (candidates == null || bucket.length < candidates.length) { candidates = bucket; }
+      }
+    }
+    if (candidates == null) { candidates = all(); }
+    
+    int[] result = new int[candidates.length];
+    int count = 0;
+    for (int i = 0; i < candidates.length; ++i) {
+      if (i % CANCEL_CHECK_INTERVAL == 0 && cancelled.isTrue()) { return null; }
+      String key = _keys[candidates[i]];
+      boolean match = true;
+      for (String f: fragments) {
+        if (key.indexOf(f) < 0) { match = false; break; }
+      }
+      if (match) { result[count++] = candidates[i]; }
+    }
+    return Arrays.copyOf(result, count);
+  }
+  
+  /** @return the item positions ordered by key */
+  private int[] _sorted() {
+    int[] sorted = _sorted;
+    if (sorted == null) {
+      Integer[] order = new Integer[_keys.length];
+      for (int i = 0; i < order.length; ++i) { order[i] = i; }
+      Arrays.sort(order, new Comparator<Integer>() {
+        public int compare(Integer a, Integer b) { return _keys[a].compareTo(_keys[b]); }
+      });
+      sorted = new int[order.length];
+      for (int i = 0; i < order.length; ++i) { sorted[i] = order[i]; }
+      _sorted = sorted;
+    }
+    return sorted;
+  }
+  
+  /** @return the trigram buckets */
+  private int[][] _trigrams() {
+    int[][] trigrams = _trigrams;
+    if (trigrams == null) {
+      // count the items in each bucket first so that every bucket can be allocated at its final size
+      int[] counts = new int[BUCKETS];
+      int[] last = new int[BUCKETS];
+      Arrays.fill(last, -1);
+      for (int pos = 0; pos < _keys.length; ++pos) {
+        String key = _keys[pos];
+        for (int i = 0; i + 3 <= key.length(); ++i) {
+          int h = _hash(key.charAt(i), key.charAt(i + 1), key.charAt(i + 2));
+          if (last[h] != pos) { last[h] = pos; ++counts[h]; }
+        }
+      }
+      trigrams = new int[BUCKETS][];
+      for (int h = 0; h < BUCKETS; ++h) { trigrams[h] = new int[counts[h]]; }
+      Arrays.fill(counts, 0);
+      Arrays.fill(last, -1);
+      for (int pos = 0; pos < _keys.length; ++pos) {
+        String key = _keys[pos];
+        for (int i = 0; i + 3 <= key.length(); ++i) {
+          int h = _hash(key.charAt(i), key.charAt(i + 1), key.charAt(i + 2));
+          if (last[h] != pos) { last[h] = pos; trigrams[h][counts[h]++] = pos; }
+        }
+      }
+      _trigrams = trigrams;
+    }
+    return trigrams;
+  }
+  
+  /** @return the bucket of the trigram abc */
+  private static int _hash(char a, char b, char c) {
+    return (((a << 10) ^ (b << 5) ^ c) * 0x9E3779B1) >>> 16;
+  }
+}
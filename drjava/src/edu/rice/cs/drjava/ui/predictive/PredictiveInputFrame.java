@@ -41,8 +41,12 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.StringTokenizer;
 import java.util.NoSuchElementException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 
 import edu.rice.cs.plt.iter.IterUtil;
+import edu.rice.cs.plt.lambda.Condition;
 import edu.rice.cs.plt.lambda.Lambda;
 import edu.rice.cs.plt.lambda.Runnable1;
 import edu.rice.cs.plt.lambda.LambdaUtil;
@@ -126,8 +130,23 @@ public class PredictiveInputFrame<T extends Comparable<? super T>> extends Swing
     public int getCurrentStrategyIndex() { return _currentStrategyIndex; }
   }
 
+  /** Matches the masks typed by the user off the event thread, so that typing does not wait for long item lists. */
+  private static final Executor MATCHING_EXECUTOR = Executors.newSingleThreadExecutor(new ThreadFactory() {
+    public Thread newThread(Runnable r) {
+      Thread t = new Thread(r, "Predictive Input Matching");
+      t.setDaemon(true);
+      return t;
+    }
+  });
+  
   /** Predictive input model */
   private volatile PredictiveInputModel<T> _pim;
+  
+  /** Number of the latest change of the mask or the model. A match for an earlier change is cancelled. */
+  private volatile int _matchVersion = 0;
+  
+  /** True if the text field has changed since the model's mask was last updated. */
+  private volatile boolean _matchPending = false;
 
   /** Code for the last button that was pressed.*/
   private volatile String _buttonPressed;
@@ -304,6 +323,7 @@ public class PredictiveInputFrame<T extends Comparable<? super T>> extends Swing
   public void setModel(boolean ignoreCase, PredictiveInputModel<T> pim) {
     String trace = Arrays.toString(Thread.currentThread().getStackTrace());
 //    Utilities.show("PI model set to " + pim + "\nBacktrace:\n" + trace);
+    _cancelMatch();
     _pim = new PredictiveInputModel<T>(ignoreCase, pim);
     removeListener();
     updateTextField();
@@ -317,6 +337,7 @@ public class PredictiveInputFrame<T extends Comparable<? super T>> extends Swing
     * @param items list of items
     */
   public void setItems(boolean ignoreCase, Collection<T> items) {
+    _cancelMatch();
     _pim = new PredictiveInputModel<T>(ignoreCase, _currentStrategy, items);
     removeListener();
     updateTextField();
@@ -329,6 +350,7 @@ public class PredictiveInputFrame<T extends Comparable<? super T>> extends Swing
     * @param item item to select
     */
   public void setCurrentItem(T item) {
+    _cancelMatch();
     _pim.setCurrentItem(item);
     removeListener();
     updateTextField();
@@ -344,6 +366,7 @@ public class PredictiveInputFrame<T extends Comparable<? super T>> extends Swing
   @SuppressWarnings({"unchecked", "varargs"})  // @SafeVarargs does not work here
   public final void setItems(boolean ignoreCase, T... items) {
 //    Utilities.show("matching items in PIM set to: " + items);
+    _cancelMatch();
     _pim = new PredictiveInputModel<T>(ignoreCase, _currentStrategy, items);
     removeListener();
     updateTextField();
@@ -368,6 +391,7 @@ public class PredictiveInputFrame<T extends Comparable<? super T>> extends Swing
   /** Set the mask in the text field.
     * @param mask for text field*/
   public void setMask(String mask) {
+    _cancelMatch();
     _pim.setMask(mask);
     removeListener();
     updateTextField();
@@ -464,6 +488,7 @@ public class PredictiveInputFrame<T extends Comparable<? super T>> extends Swing
     ourMap.addActionForKeyStroke(KeyStroke.getKeyStroke(KeyEvent.VK_TAB, 0), new AbstractAction() {
       public void actionPerformed(ActionEvent e) {
 //        System.out.println("tab!");
+        _finishMatch();
         removeListener();
         _pim.extendSharedMask();
         updateTextField();
@@ -781,6 +806,7 @@ public class PredictiveInputFrame<T extends Comparable<? super T>> extends Swing
    * @param a the button press action being handled
    */
   private void buttonPressed(CloseAction<T> a) {
+    _finishMatch();
     _buttonPressed = a.getName();
     _lastState = new FrameState(PredictiveInputFrame.this);
     setVisible(false);
@@ -790,6 +816,7 @@ public class PredictiveInputFrame<T extends Comparable<? super T>> extends Swing
   /** Select the strategy for matching. */
   public void selectStrategy() {
     _currentStrategy = _strategies.get(_strategyBox.getSelectedIndex());
+    _finishMatch();
     removeListener();
     _pim.setStrategy(_currentStrategy);
     updateTextField();
@@ -799,48 +826,71 @@ public class PredictiveInputFrame<T extends Comparable<? super T>> extends Swing
     _textField.requestFocus();
   }
 
+  /** Match the text in the text field against the items in the background and update the list when done. Any match
+    * still running for an earlier text is cancelled. */
+  private void _startMatch() {
+    assert EventQueue.isDispatchThread();
+    final int version = ++_matchVersion;
+    final PredictiveInputModel<T> pim = _pim;
+    final String mask = _textField.getText();
+    _matchPending = true;
+    MATCHING_EXECUTOR.execute(new Runnable() {
+      public void run() {
+        final PredictiveInputModel.MatchResult<T> matches = pim.match(mask, new Condition() {
+          public boolean isTrue() { return version != _matchVersion; }
+        });
+        if (matches == null) return;
+        Utilities.invokeLater(new Runnable() {
+          public void run() {
+            if (version != _matchVersion) return;
+            _matchPending = false;
+            removeListener();
+            _pim.setMatches(matches);
+            updateExtensionLabel();
+            updateList();
+            addListener();
+          }
+        });
+      }
+    });
+  }
+  
+  /** Cancel the match running in the background, if any, because the model is about to be changed directly. */
+  private void _cancelMatch() {
+    ++_matchVersion;
+    _matchPending = false;
+  }
+  
+  /** If the text field has changed since the model was last updated, match its text right away. */
+  private void _finishMatch() {
+    if (_matchPending) {
+      _cancelMatch();
+      removeListener();
+      _pim.setMask(_textField.getText());
+      updateExtensionLabel();
+      updateList();
+      addListener();
+    }
+  }
+
   /** Listener for several events. */
   private class PredictiveInputListener implements CaretListener, DocumentListener {
     public void insertUpdate(DocumentEvent e) {
       assert EventQueue.isDispatchThread();
 //      System.out.println("insertUpdate fired!");
-//      Utilities.invokeLater(new Runnable() {
-//        public void run() { 
-          removeListener();
-          _pim.setMask(_textField.getText());
-          updateExtensionLabel();
-          updateList();
-          addListener();
-//        }
-//      });
+      _startMatch();
     }
 
     public void removeUpdate(DocumentEvent e) {
       assert EventQueue.isDispatchThread();
 //      System.err.println("removeUpdate fired!");
-//      Utilities.invokeLater(new Runnable() {
-//        public void run() { 
-          removeListener();
-          _pim.setMask(_textField.getText());
-          updateExtensionLabel();
-          updateList();
-          addListener();
-//        }
-//      });
+      _startMatch();
     }
 
     public void changedUpdate(DocumentEvent e) {
       assert EventQueue.isDispatchThread();
 //      System.err.println("changedUpdate fired!");
-//      Utilities.invokeLater(new Runnable() {
-//        public void run() {
-          removeListener();
-          _pim.setMask(_textField.getText());
-          updateExtensionLabel();
-          updateList();
-          addListener();
-//        }
-//      });
+      _startMatch();
     }
 
     public void caretUpdate(CaretEvent e) { }
@@ -32,10 +32,13 @@ import java.util.Collection;
 import java.util.List;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Arrays;
 import java.util.regex.Pattern;
 import java.util.regex.Matcher;
 import java.util.regex.PatternSyntaxException;
 
+import edu.rice.cs.plt.lambda.Condition;
+
 /** Model class for predictive string input. */
 public class PredictiveInputModel<T extends Comparable<? super T>> {
   
@@ -104,9 +107,29 @@ public class PredictiveInputModel<T extends Comparable<? super T>> {
     public String force(X item, String mask);
   }
   
+  /** Strategy whose matches can be looked up in an index instead of testing every item. Extending the mask can only
+    * narrow the list of matches of such a strategy.
+    */
+  public static interface IndexedMatchingStrategy<X extends Comparable<? super X>> extends MatchingStrategy<X> {
+    
+    /** Returns the part of the mask that the items have to match.
+      * @param mask the mask
+      * @return the part of the mask that is looked up in the index
+      */
+    public String getIndexedMask(String mask);
+    
+    /** Returns true if an item matches when it starts with the indexed mask, false if it matches when it contains
+      * each of the whitespace-separated fragments of the indexed mask.
+      * @return true for prefix matching, false for fragment matching
+      */
+    public boolean isPrefixMatch();
+  }
+  
   /** Matching based on string prefix. */
-  public static class PrefixStrategy<X extends Comparable<? super X>> implements MatchingStrategy<X> {
+  public static class PrefixStrategy<X extends Comparable<? super X>> implements IndexedMatchingStrategy<X> {
     public String toString() { return "Prefix"; }
+    public String getIndexedMask(String mask) { return mask; }
+    public boolean isPrefixMatch() { return true; }
     public boolean isMatch(X item, PredictiveInputModel<X> pim) {
       String a = (pim._ignoreCase) ? (item.toString().toLowerCase()) : (item.toString());
       String b = (pim._ignoreCase) ? (pim._mask.toLowerCase()) : (pim._mask);
@@ -178,8 +201,10 @@ public class PredictiveInputModel<T extends Comparable<? super T>> {
   };
   
   /** Matching based on string fragments. */
-  public static class FragmentStrategy<X extends Comparable<? super X>> implements MatchingStrategy<X> {
+  public static class FragmentStrategy<X extends Comparable<? super X>> implements IndexedMatchingStrategy<X> {
     public String toString() { return "Fragments"; }
+    public String getIndexedMask(String mask) { return mask; }
+    public boolean isPrefixMatch() { return false; }
     public boolean isMatch(X item, PredictiveInputModel<X> pim) {
       String a = (pim._ignoreCase) ? (item.toString().toLowerCase()) : (item.toString());
       String b = (pim._ignoreCase) ? (pim._mask.toLowerCase()) : (pim._mask);
@@ -263,8 +288,13 @@ public class PredictiveInputModel<T extends Comparable<? super T>> {
   };
   
   /** Matching based on string prefix, supporting line numbers separated by :. */
-  public static class PrefixLineNumStrategy<X extends Comparable<? super X>> implements MatchingStrategy<X> {
+  public static class PrefixLineNumStrategy<X extends Comparable<? super X>> implements IndexedMatchingStrategy<X> {
     public String toString() { return "Prefix"; }
+    public String getIndexedMask(String mask) {
+      int pos = mask.lastIndexOf(':');
+      return (pos < 0) ? mask : mask.substring(0, pos);
+    }
+    public boolean isPrefixMatch() { return true; }
     public boolean isMatch(X item, PredictiveInputModel<X> pim) {
       int posB = pim._mask.lastIndexOf(':');
       if (posB < 0) { posB = pim._mask.length(); }
@@ -387,8 +417,13 @@ public class PredictiveInputModel<T extends Comparable<? super T>> {
   };
   
   /** Matching based on string fragments, supporting line numbers. */
-  public static class FragmentLineNumStrategy<X extends Comparable<? super X>> implements MatchingStrategy<X> {
+  public static class FragmentLineNumStrategy<X extends Comparable<? super X>> implements IndexedMatchingStrategy<X> {
     public String toString() { return "Fragments"; }
+    public String getIndexedMask(String mask) {
+      int pos = mask.lastIndexOf(':');
+      return (pos < 0) ? mask : mask.substring(0, pos);
+    }
+    public boolean isPrefixMatch() { return false; }
     public boolean isMatch(X item, PredictiveInputModel<X> pim) {
       int posB = pim._mask.lastIndexOf(':');
       if (posB < 0) { posB = pim._mask.length(); }
@@ -534,14 +569,50 @@ public class PredictiveInputModel<T extends Comparable<? super T>> {
     }
   };
   
+  
+  /** The items matching a mask, as computed by {@link #match}. A result can be computed on any thread and then
+    * installed with {@link #setMatches}.
+    */
+  public static final class MatchResult<X extends Comparable<? super X>> {
+    private final ArrayList<X> _items;
+    private final MatchingStrategy<X> _strategy;
+    private final String _mask;
+    /** Ascending positions of the matching items in _items. */
+    private final int[] _indices;
+    /** Position of the first perfect match in _items, or -1 if there is none. */
+    private final int _perfectMatch;
+    
+    private MatchResult(ArrayList<X> items, MatchingStrategy<X> strategy, String mask, int[] indices, int perfectMatch) {
+      _items = items;
+      _strategy = strategy;
+      _mask = mask;
+      _indices = indices;
+      _perfectMatch = perfectMatch;
+    }
+    
+    /** @return the mask that was matched */
+    public String getMask() { return _mask; }
+  }
+  
+  /** Condition for matches that are never cancelled. */
+  private static final Condition NOT_CANCELLED = new Condition() {
+    public boolean isTrue() { return false; }
+  };
+  
   /** Array of items. */
   private volatile ArrayList<T> _items = new ArrayList<T>();
+  
+  /** Index over _items, created when an indexed strategy first needs it. */
+  private volatile MatchIndex _matchIndex = null;
 
   /** Index of currently selected full string. */
   private volatile int _index = 0;
 
   /** Array of matching items. */
   private final ArrayList<T> _matchingItems = new ArrayList<T>();
+  
+  /** The result from which _matchingItems was taken. */
+  private volatile MatchResult<T> _matches = null;
 
   /** Currently entered mask. */
   private volatile String _mask = "";
@@ -557,7 +628,11 @@ public class PredictiveInputModel<T extends Comparable<? super T>> {
     * @param pim other predictive input model
     */
   public PredictiveInputModel(boolean ignoreCase, PredictiveInputModel<T> pim) {
-    this(ignoreCase, pim._strategy, pim._items);
+    _ignoreCase = ignoreCase;
+    _strategy = pim._strategy;
+    // the list of items is never modified, so it can be shared, and so can its index
+    _items = pim._items;
+    if (ignoreCase == pim._ignoreCase) { _matchIndex = pim._matchIndex; }
     setMask(pim.getMask());
   }
 
@@ -583,13 +658,25 @@ public class PredictiveInputModel<T extends Comparable<? super T>> {
     _strategy = strategy;
     setItems(items);
   }
+  
+  /** Create a model without items that only serves to hold the mask passed to a strategy's isMatch and
+    * isPerfectMatch methods while matching off the current thread.
+    * @param mask the mask
+    * @param ignoreCase true if case should be ignored
+    * @param strategy matching strategy
+    */
+  private PredictiveInputModel(String mask, boolean ignoreCase, MatchingStrategy<T> strategy) {
+    _mask = mask;
+    _ignoreCase = ignoreCase;
+    _strategy = strategy;
+  }
 
   /** Sets the strategy
    * @param strategy to be set
    */
   public void setStrategy(MatchingStrategy<T> strategy) {
     _strategy = strategy;
-    updateMatchingStrings(_items);
+    setMatches(_match(_items, strategy, _mask, null, NOT_CANCELLED));
   }
 
   /** Returns a copy of the list of items.
@@ -603,9 +690,9 @@ public class PredictiveInputModel<T extends Comparable<? super T>> {
    * @param items list of items
    */
   public void setItems(Collection<T> items) {
-    _items = new ArrayList<T>(items);
-    Collections.sort(_items);
-    updateMatchingStrings(_items);
+    ArrayList<T> l = new ArrayList<T>(items);
+    Collections.sort(l);
+    _setItems(l);
   }
 
   /** Sets the list
@@ -613,16 +700,25 @@ public class PredictiveInputModel<T extends Comparable<? super T>> {
     */
   @SafeVarargs
   public final void setItems(T... items) {
-    _items = new ArrayList<T>(items.length);
-    for(T s: items) _items.add(s);
-    Collections.sort(_items);
-    updateMatchingStrings(_items);
+    ArrayList<T> l = new ArrayList<T>(items.length);
+    for(T s: items) l.add(s);
+    Collections.sort(l);
+    _setItems(l);
   }
 
   /** Sets the list.
     * @param pim other predictive input model
     */
-  public void setItems(PredictiveInputModel<T> pim) { setItems(pim._items); }  
+  public void setItems(PredictiveInputModel<T> pim) { setItems(pim._items); }
+  
+  /** Sets the list and updates the matches for the current mask.
+    * @param items sorted list of items that is not modified afterwards
+    */
+  private void _setItems(ArrayList<T> items) {
+    _items = items;
+    _matchIndex = null;
+    setMatches(_match(items, _strategy, _mask, null, NOT_CANCELLED));
+  }
 
   /** Return the current mask.
     * @return current mask
@@ -633,8 +729,46 @@ public class PredictiveInputModel<T extends Comparable<? super T>> {
     * @param mask new mask
     */
   public void setMask(String mask) {
-    _mask = mask;
-    updateMatchingStrings(_items);
+    setMatches(match(mask, NOT_CANCELLED));
+  }
+  
+  /** Find the items matching the given mask without changing the model. This may be called on any thread, so that
+    * the matches for a large list of items can be computed off the event thread and then installed using
+    * {@link #setMatches}. If the new mask extends the current mask of a model with an indexed strategy, only the
+    * current matches are tested.
+    * @param mask the mask to match
+    * @param cancelled condition that becomes true if the result is no longer needed
+    * @return the matching items, or null if the computation was cancelled
+    */
+  public MatchResult<T> match(String mask, Condition cancelled) {
+    ArrayList<T> items = _items;
+    MatchingStrategy<T> strategy = _strategy;
+    MatchResult<T> current = _matches;
+    int[] candidates = null;
+    if (current != null && current._items == items && current._strategy == strategy &&
+        strategy instanceof IndexedMatchingStrategy && mask.startsWith(current._mask)) {
+      candidates = current._indices;
+    }
+    return _match(items, strategy, mask, candidates, cancelled);
+  }
+  
+  /** Make the given matches the current matches, and the mask for which they were computed the current mask. If the
+    * items or the strategy have changed since the matches were computed, they are computed again.
+    * @param matches result of {@link #match}
+    */
+  public void setMatches(MatchResult<T> matches) {
+    if (matches._items != _items || matches._strategy != _strategy) {
+      matches = _match(_items, _strategy, matches._mask, null, NOT_CANCELLED);
+    }
+    _mask = matches._mask;
+    _matches = matches;
+    _matchingItems.clear();
+    for (int i: matches._indices) _matchingItems.add(_items.get(i));
+    if (_items.size() > 0) {
+      if (matches._perfectMatch >= 0) _index = matches._perfectMatch;
+      _selectMatchFrom(_index);
+    }
+    else _index = 0;
   }
 
   /** Helper function that does indexOf with ignoreCase option.
@@ -651,25 +785,59 @@ public class PredictiveInputModel<T extends Comparable<? super T>> {
     return -1;
   }
   
-  /** Update the list of matching strings and current index.
-    * @param items list of items to base the matching on
+  /** Find the items matching a mask.
+    * @param items the items
+    * @param strategy the matching strategy
+    * @param mask the mask
+    * @param candidates ascending positions of the items that may match, or null if any item may match
+    * @param cancelled condition that becomes true if the result is no longer needed
+    * @return the matching items, or null if the computation was cancelled
     */
-  private void updateMatchingStrings(ArrayList<T> items) {
-    items = new ArrayList<T>(items); // create a new copy, otherwise we might be clearing the list in the next line
-    _matchingItems.clear();
-    for(T s: items) {
-      if (_strategy.isMatch(s, this)) _matchingItems.add(s);
+  private MatchResult<T> _match(ArrayList<T> items, MatchingStrategy<T> strategy, String mask, int[] candidates,
+                                Condition cancelled) {
+    int[] indices;
+    int perfectMatch = -1;
+    if (strategy instanceof IndexedMatchingStrategy) {
+      IndexedMatchingStrategy<T> s = (IndexedMatchingStrategy<T>) strategy;
+      MatchIndex index = _getMatchIndex(items);
+      String query = (_ignoreCase) ? (s.getIndexedMask(mask).toLowerCase()) : (s.getIndexedMask(mask));
+      indices = (s.isPrefixMatch()) ? (index.prefixMatches(query, candidates, cancelled)) :
+        (index.fragmentMatches(query, candidates, cancelled));
+      if (indices == null) return null;
+      // a perfect match is also a match
+      for (int i: indices) {
+        if (index.key(i).equals(query)) { perfectMatch = i; break; }
+      }
     }
-    if (_items.size() > 0) {
-      for(int i = 0; i < _items.size(); ++i) {
-        if (_strategy.isPerfectMatch(_items.get(i), this)) {
-          _index = i;
-          break;
-        }
+    else {
+      PredictiveInputModel<T> probe = new PredictiveInputModel<T>(mask, _ignoreCase, strategy);
+      int size = (candidates == null) ? items.size() : candidates.length;
+      indices = new int[size];
+      int count = 0;
+      for (int i = 0; i < size; ++i) {
+        if (cancelled.isTrue()) return null;
+        int pos = (candidates == null) ? i : candidates[i];
+        if (strategy.isMatch(items.get(pos), probe)) indices[count++] = pos;
+      }
+      indices = Arrays.copyOf(indices, count);
+      for (int i = 0; i < items.size(); ++i) {
+        if (strategy.isPerfectMatch(items.get(i), probe)) { perfectMatch = i; break; }
       }
-      setCurrentItem(_items.get(_index));
     }
-    else _index = 0;
+    return new MatchResult<T>(items, strategy, mask, indices, perfectMatch);
+  }
+  
+  /** Return the index over the given items, creating it if necessary.
+    * @param items the current items
+    * @return the index
+    */
+  private MatchIndex _getMatchIndex(ArrayList<T> items) {
+    MatchIndex index = _matchIndex;
+    if (index == null || ! index.isFor(items)) {
+      index = new MatchIndex(items, _ignoreCase);
+      if (items == _items) _matchIndex = index;
+    }
+    return index;
   }
 
   /** Get currently selected item.
@@ -689,24 +857,24 @@ public class PredictiveInputModel<T extends Comparable<? super T>> {
       _index = 0;
       return;
     }
-    boolean found = false;
     int index = indexOf(_items, item);
     if (index < 0) {
       // not in list of items, pick first item
       pickClosestMatch(item);
     }
-    else {
-      for (int i=index; i < _items.size(); ++i) {
-        if (0 <= indexOf(_matchingItems, _items.get(i))) {
-          _index = i;
-          found = true;
-          break;
-        }
-      }
-      if (!found) {
-        pickClosestMatch(item);
-      }
-    }
+    else _selectMatchFrom(index);
+  }
+  
+  /** Select the first matching item at or after the given position, or if there is none, the matching item that
+    * precedes the item at that position most closely.
+    * @param index position in the list of items
+    */
+  private void _selectMatchFrom(int index) {
+    int[] matching = _matches._indices;
+    int pos = Arrays.binarySearch(matching, index);
+    if (pos < 0) pos = -pos - 1;
+    if (pos < matching.length) _index = matching[pos];
+    else pickClosestMatch(_items.get(index));
   }
 
   /** Select as current item the item in the list of current matches that lexicographically precedes it most closely.
@@ -722,7 +890,8 @@ public class PredictiveInputModel<T extends Comparable<? super T>> {
         }
         follows = i;
       }
-      _index = indexOf(_items, follows);
+      // items equivalent to a match are matches too, so the first equivalent item is among the matches
+      _index = _matches._indices[indexOf(_matchingItems, follows)];
     }
     else {
       _index = indexOf(_items, _strategy.getLongestMatch(item, _items, this));
@@ -750,15 +919,14 @@ public class PredictiveInputModel<T extends Comparable<? super T>> {
    * @param extension string to append to mask
    */
   public void extendMask(String extension) {
-    _mask = _mask + extension;
-    updateMatchingStrings(_matchingItems);
+    setMatches(_match(_items, _strategy, _mask + extension, _matches._indices, NOT_CANCELLED));
   }
   
 
   /** Extends the mask by the shared string.
    */
   public void extendSharedMask() {
-    _mask = _strategy.getExtendedSharedMask(_matchingItems, this);
-    updateMatchingStrings(_matchingItems);
+    String mask = _strategy.getExtendedSharedMask(_matchingItems, this);
+    setMatches(_match(_items, _strategy, mask, _matches._indices, NOT_CANCELLED));
   }
 }
@@ -33,6 +33,9 @@ import edu.rice.cs.drjava.DrJavaTestCase;
 import java.util.List;
 import java.util.Set;
 
+import edu.rice.cs.plt.lambda.Condition;
+import edu.rice.cs.drjava.ui.MainFrameStatics.JavaAPIListEntry;
+
 /** * Unit tests for PredictiveInputModel class.
  */
 public class PredictiveInputModelTest extends DrJavaTestCase {
@@ -1097,4 +1100,91 @@ public class PredictiveInputModelTest extends DrJavaTestCase {
     System.err.println("JavaAPIList = " + l);
     assertTrue(l.size() > 0);
   }
+  
+  /** Strategy that hides whether the wrapped strategy is indexed, so that the model tests every item. */
+  private static class UnindexedStrategy<X extends Comparable<? super X>>
+    implements PredictiveInputModel.MatchingStrategy<X> {
+    private final PredictiveInputModel.MatchingStrategy<X> _s;
+    public UnindexedStrategy(PredictiveInputModel.MatchingStrategy<X> s) { _s = s; }
+    public boolean isMatch(X item, PredictiveInputModel<X> pim) { return _s.isMatch(item, pim); }
+    public boolean isPerfectMatch(X item, PredictiveInputModel<X> pim) { return _s.isPerfectMatch(item, pim); }
+    public boolean equivalent(X item1, X item2, PredictiveInputModel<X> pim) { return _s.equivalent(item1, item2, pim); }
+    public int compare(X item1, X item2, PredictiveInputModel<X> pim) { return _s.compare(item1, item2, pim); }
+    public X getLongestMatch(X item, List<X> items, PredictiveInputModel<X> pim) {
+      return _s.getLongestMatch(item, items, pim);
+    }
+    public String getSharedMaskExtension(List<X> items, PredictiveInputModel<X> pim) {
+      return _s.getSharedMaskExtension(items, pim);
+    }
+    public String getExtendedSharedMask(List<X> items, PredictiveInputModel<X> pim) {
+      return _s.getExtendedSharedMask(items, pim);
+    }
+    public String force(X item, String mask) { return _s.force(item, mask); }
+  }
+  
+  /** Checks that the indexed strategies find the same items as testing every item of the Java API list. */
+  public void testIndexedMatchingOnJavaAPI() {
+    Set<JavaAPIListEntry> l = edu.rice.cs.drjava.ui.MainFrame._generateJavaAPISet("/allclasses-1.8.html");
+    assertTrue(l.size() > 0);
+    List<PredictiveInputModel.MatchingStrategy<JavaAPIListEntry>> strategies =
+      new java.util.ArrayList<PredictiveInputModel.MatchingStrategy<JavaAPIListEntry>>();
+    strategies.add(new PredictiveInputModel.PrefixStrategy<JavaAPIListEntry>());
+    strategies.add(new PredictiveInputModel.FragmentStrategy<JavaAPIListEntry>());
+    strategies.add(new PredictiveInputModel.PrefixLineNumStrategy<JavaAPIListEntry>());
+    strategies.add(new PredictiveInputModel.FragmentLineNumStrategy<JavaAPIListEntry>());
+    String[] typed = { "String", "list", "Abstract Map", "xml parser", "Str:12", "zzz", "Ja a" };
+    for (boolean ignoreCase: new boolean[] { true, false }) {
+      for (PredictiveInputModel.MatchingStrategy<JavaAPIListEntry> s: strategies) {
+        PredictiveInputModel<JavaAPIListEntry> indexed =
+          new PredictiveInputModel<JavaAPIListEntry>(ignoreCase, s, l);
+        PredictiveInputModel<JavaAPIListEntry> unindexed =
+          new PredictiveInputModel<JavaAPIListEntry>(ignoreCase, new UnindexedStrategy<JavaAPIListEntry>(s), l);
+        for (String t: typed) {
+          // type the mask one character at a time, then delete it again
+          for (int i = 0; i <= 2 * t.length(); ++i) {
+            String mask = t.substring(0, (i <= t.length()) ? i : (2 * t.length() - i));
+            String msg = s + " " + ignoreCase + " '" + mask + "'";
+            indexed.setMask(mask);
+            unindexed.setMask(mask);
+            assertEquals(msg, unindexed.getMatchingItems(), indexed.getMatchingItems());
+            assertEquals(msg, unindexed.getCurrentItem(), indexed.getCurrentItem());
+          }
+        }
+      }
+    }
+  }
+  
+  public void testMatchInBackground() {
+    PredictiveInputModel<String> pim = new PredictiveInputModel<String>(true,
+                                                                        new PredictiveInputModel.FragmentStrategy<String>(),
+                                                                        "Frame",
+                                                                        "JFrame",
+                                                                        "Window",
+                                                                        "JWindow",
+                                                                        "Test");
+    PredictiveInputModel.MatchResult<String> matches = pim.match("win", new Condition() {
+      public boolean isTrue() { return false; }
+    });
+    // the model does not change until the matches are installed
+    assertEquals("", pim.getMask());
+    assertEquals(5, pim.getMatchingItems().size());
+    pim.setMatches(matches);
+    assertEquals("win", pim.getMask());
+    assertEquals(2, pim.getMatchingItems().size());
+    assertEquals("JWindow", pim.getCurrentItem());
+    
+    assertNull(pim.match("w", new Condition() {
+      public boolean isTrue() { return true; }
+    }));
+    
+    // matches computed before the items changed are computed again when installed
+    matches = pim.match("frame", new Condition() {
+      public boolean isTrue() { return false; }
+    });
+    pim.setItems("Frame", "Test", "NewFrame");
+    pim.setMatches(matches);
+    assertEquals("frame", pim.getMask());
+    assertEquals(2, pim.getMatchingItems().size());
+    assertTrue(pim.getMatchingItems().contains("NewFrame"));
+  }
 }
@@ -0,0 +1,177 @@
+/*BEGIN_COPYRIGHT_BLOCK
+ *
+ * Copyright (c) 2001-2019, JavaPLT group at Rice University (drjava@rice.edu).  All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the 
+ * following conditions are met:
+ *    * Redistributions of source code must retain the above copyright notice, this list of conditions and the following
+ *      disclaimer.
+ *    * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the 
+ *      following disclaimer in the documentation and/or other materials provided with the distribution.
+ *    * Neither the names of DrJava, the JavaPLT group, Rice University, nor the names of its contributors may be used 
+ *      to endorse or promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, 
+ * INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, 
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR 
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, 
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This software is Open Source Initiative approved Open Source Software. Open Source Initative Approved is a trademark
+ * of the Open Source Initiative.
+ * 
+ * This file is part of DrJava.  Download the current version of this project from http://www.drjava.org/ or 
+ * http://sourceforge.net/projects/drjava/
+ * 
+ * END_COPYRIGHT_BLOCK*/
+package edu.rice.cs.util;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.util.Timer;
+import java.util.TimerTask;
+
+/** An output stream that coalesces the bytes written to it and forwards them in chunks.  Unlike 
+  * OutputStreamRedirector, which calls print once for every write (and once per byte for write(int)), this class 
+  * decodes written bytes into a buffer and calls print only when the buffer exceeds its capacity, when the oldest 
+  * buffered text is older than the flush delay, or when flush is called explicitly.  This is intended for
+  * destinations where each print is expensive, such as a remote call from the interpreter JVM to the main JVM.
+  * <p>
+  * Bytes are decoded with the platform's default charset; an incomplete multi-byte sequence at the end of a write is 
+  * kept until the rest of the sequence arrives.
+  * @version $Id$
+  */
+public abstract class BufferedOutputStreamRedirector extends OutputStream {
+  
+  /** Default number of characters buffered before a chunk is forwarded. */
+  public static final int DEFAULT_CAPACITY = 8192;
+  
+  /** Default number of milliseconds that buffered text may wait before it is forwarded. */
+  public static final int DEFAULT_FLUSH_DELAY = 20;
+  
+  private final int _capacity;
+  private final int _flushDelay;
+  
+  /** Decoder state; only accessed while holding the lock on this. */
+  private final CharsetDecoder _decoder;
+  private final ByteBuffer _bytes;
+  private final CharBuffer _chars;
+  
+  /** Whether a timed flush is currently scheduled; only accessed while holding the lock on this. */
+  private boolean _flushScheduled = false;
+  
+  /** The redirector for the other standard stream, if any; flushed before anything is written to this one so that 
+    * text written alternately to System.out and System.err arrives in order. */
+  private volatile BufferedOutputStreamRedirector _peer = null;
+  
+  /** Daemon timer used for time-bounded flushes; created lazily. */
+  private volatile Timer _timer = null;
+  
+  /** Constructs a redirector with the default capacity and flush delay. */
+  public BufferedOutputStreamRedirector() { this(DEFAULT_CAPACITY, DEFAULT_FLUSH_DELAY); }
+  
+  /** Constructs a redirector with the given capacity and flush delay.
+    * @param capacity number of characters buffered before a chunk is forwarded
+    * @param flushDelay number of milliseconds that buffered text may wait before it is forwarded
+    */
+  public BufferedOutputStreamRedirector(int capacity, int flushDelay) {
+    if (capacity < 1) throw new IllegalArgumentException("capacity must be positive");
+    _capacity = capacity;
+    _flushDelay = flushDelay;
+    _decoder = Charset.defaultCharset().newDecoder()
+      .onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+    _bytes = ByteBuffer.allocate(256);
+    _chars = CharBuffer.allocate(capacity);
+  }
+  
+  /** Implement this method to print to the appropriate destination.
+    * @param s The string to be printed to the new destination.
+    */
+  public abstract void print(String s);
+  
+  /** Sets the redirector that is flushed before text is written to this one.
+    * @param peer the other redirector, or null
+    */
+  public void setPeer(BufferedOutputStreamRedirector peer) { _peer = peer; }
+  
+  public void write(int b) { write(new byte[] { (byte) b }, 0, 1); }
+  
+  public void write(byte[] b) { write(b, 0, b.length); }
+  
+  public void write(byte[] b, int off, int len) {
+    BufferedOutputStreamRedirector peer = _peer;
+    if (peer != null) peer.flush();  // must not hold the lock on this; see flush
+    
+    boolean schedule = false;
+    synchronized(this) {
+      while (len > 0) {
+        int n = Math.min(len, _bytes.remaining());  // at most a partial character is left over, so n > 0
+        _bytes.put(b, off, n);
+        off += n;
+        len -= n;
+        _decodeBuffered();
+      }
+      if (_chars.position() > 0 && ! _flushScheduled) { _flushScheduled = true; schedule = true; }
+    }
+    if (schedule) _scheduleFlush();
+  }
+  
+  /** Forwards all buffered text to print. */
+  public synchronized void flush() {
+    _forward();
+  }
+  
+  /** Flushes the buffer and cancels the flush timer. */
+  public void close() {
+    flush();
+    Timer t = _timer;
+    if (t != null) t.cancel();
+  }
+  
+  /** Decodes as much of _bytes as possible into _chars, forwarding _chars whenever it fills up.  Assumes the lock on
+    * this is held. */
+  private void _decodeBuffered() {
+    _bytes.flip();
+    while (true) {
+      _decoder.decode(_bytes, _chars, false);
+      if (_chars.hasRemaining()) break;
+      _forward();
+    }
+    _bytes.compact();
+  }
+  
+  /** Calls print with the contents of _chars and clears it.  Assumes the lock on this is held. */
+  private void _forward() {
+    if (_chars.position() == 0) return;
+    _chars.flip();
+    String s = _chars.toString();
+    _chars.clear();
+    print(s);
+  }
+  
+  private void _scheduleFlush() {
+    if (_timer == null) {
+      synchronized(this) { if (_timer == null) _timer = new Timer("Output Flush Thread", true); }
+    }
+    try {
+      _timer.schedule(new TimerTask() {
+        public void run() {
+          synchronized(BufferedOutputStreamRedirector.this) {
+            _flushScheduled = false;
+            _forward();
+          }
+        }
+      }, _flushDelay);
+    }
+    catch (IllegalStateException e) {
+      // timer has been cancelled by close; forward the text immediately
+      synchronized(this) { _flushScheduled = false; _forward(); }
+    }
+  }
+}
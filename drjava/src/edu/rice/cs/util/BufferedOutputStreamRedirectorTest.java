@@ -0,0 +1,121 @@
+/*BEGIN_COPYRIGHT_BLOCK
+ *
+ * Copyright (c) 2001-2019, JavaPLT group at Rice University (drjava@rice.edu).  All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the 
+ * following conditions are met:
+ *    * Redistributions of source code must retain the above copyright notice, this list of conditions and the following
+ *      disclaimer.
+ *    * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the 
+ *      following disclaimer in the documentation and/or other materials provided with the distribution.
+ *    * Neither the names of DrJava, the JavaPLT group, Rice University, nor the names of its contributors may be used 
+ *      to endorse or promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, 
+ * INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, 
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR 
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, 
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This software is Open Source Initiative approved Open Source Software. Open Source Initative Approved is a trademark
+ * of the Open Source Initiative.
+ * 
+ * This file is part of DrJava.  Download the current version of this project from http://www.drjava.org/ or 
+ * http://sourceforge.net/projects/drjava/
+ * 
+ * END_COPYRIGHT_BLOCK*/
+package edu.rice.cs.util;
+
+import edu.rice.cs.drjava.DrJavaTestCase;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/** Test suite over BufferedOutputStreamRedirector.
+  * @version $Id$
+  */
+public class BufferedOutputStreamRedirectorTest extends DrJavaTestCase {
+  
+  /** A redirector that records each chunk it is asked to print. */
+  private static class RecordingRedirector extends BufferedOutputStreamRedirector {
+    final List<String> chunks = new ArrayList<String>();
+    RecordingRedirector(int capacity, int delay) { super(capacity, delay); }
+    public synchronized void print(String s) { chunks.add(s); }
+    synchronized String contents() {
+      StringBuilder sb = new StringBuilder();
+      for (String s : chunks) sb.append(s);
+      return sb.toString();
+    }
+  }
+  
+  /** Tests that many small writes are forwarded as a single chunk on flush. */
+  public void testCoalescesWrites() {
+    RecordingRedirector r = new RecordingRedirector(1024, 60000);
+    PrintStream ps = new PrintStream(r);
+    for (int i = 0; i < 10; i++) ps.println(i);
+    assertEquals("Nothing forwarded before flush", 0, r.chunks.size());
+    ps.flush();
+    assertEquals("One chunk after flush", 1, r.chunks.size());
+    assertEquals("Text preserved", "0\n1\n2\n3\n4\n5\n6\n7\n8\n9\n".replace("\n", System.getProperty("line.separator")),
+                 r.contents());
+    r.close();
+  }
+  
+  /** Tests that a full buffer is forwarded without an explicit flush. */
+  public void testCapacityBound() {
+    RecordingRedirector r = new RecordingRedirector(4, 60000);
+    for (byte b : "abcdefghij".getBytes()) r.write(b);
+    assertEquals("Two full chunks forwarded", 2, r.chunks.size());
+    assertEquals("abcdefgh", r.contents());
+    r.flush();
+    assertEquals("abcdefghij", r.contents());
+    r.close();
+  }
+  
+  /** Tests that buffered text is forwarded after the flush delay.
+    * @throws InterruptedException if the test is interrupted
+    */
+  public void testTimeBound() throws InterruptedException {
+    RecordingRedirector r = new RecordingRedirector(1024, 10);
+    r.write("hello".getBytes());
+    long deadline = System.currentTimeMillis() + 5000;
+    while (r.contents().length() == 0 && System.currentTimeMillis() < deadline) Thread.sleep(10);
+    assertEquals("Text forwarded by the timer", "hello", r.contents());
+    r.close();
+  }
+  
+  /** Tests that writing to one redirector first flushes its peer, so that interleaved text stays in order. */
+  public void testPeerOrdering() {
+    final StringBuilder sb = new StringBuilder();
+    BufferedOutputStreamRedirector out = new BufferedOutputStreamRedirector(1024, 60000) {
+      public void print(String s) { sb.append("[out:" + s + "]"); }
+    };
+    BufferedOutputStreamRedirector err = new BufferedOutputStreamRedirector(1024, 60000) {
+      public void print(String s) { sb.append("[err:" + s + "]"); }
+    };
+    out.setPeer(err);
+    err.setPeer(out);
+    out.write("a".getBytes());
+    out.write("b".getBytes());
+    err.write("c".getBytes());
+    out.write("d".getBytes());
+    out.flush();
+    err.flush();
+    assertEquals("[out:ab][err:c][out:d]", sb.toString());
+    out.close();
+    err.close();
+  }
+  
+  /** Tests that a multi-byte character split across writes is decoded correctly. */
+  public void testSplitCharacter() {
+    RecordingRedirector r = new RecordingRedirector(1024, 60000);
+    byte[] bytes = "caf\u00e9 \u4e2d".getBytes();
+    for (byte b : bytes) r.write(b);
+    r.flush();
+    assertEquals(new String(bytes), r.contents());
+    r.close();
+  }
+}
@@ -73,6 +73,15 @@ public class XMLConfig {
   /** Node where this XMLConfig starts if delegation is used, or null. */
   private Node _startNode = null;
   
+  /** Number of changes made to the document through this configuration; only counted if this is not delegated. */
+  private int _modCount = 0;
+  
+  /** Nodes of compiled paths resolved from the start of this configuration. */
+  private final HashMap<Path, List<Node>> _nodeCache = new HashMap<Path, List<Node>>();
+  
+  /** Value of _modCount of the configuration that owns the document when _nodeCache was last valid. */
+  private int _cacheModCount = 0;
+  
   /** Creates an empty configuration. */
   public XMLConfig() {
     DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
@@ -201,22 +210,27 @@ public class XMLConfig {
     * @param path DOM path
     * @return value.
     */
-  public String get(String path) {
-    List<String> r = getMultiple(path);
-    if (r.size() != 1) throw new XMLConfigException("Number of results != 1");
-    return r.get(0);
-  }
+  public String get(String path) { return get(Path.compile(path)); }
+
+  /** Returns the value as specified by the compiled DOM path.
+    * @param path compiled DOM path
+    * @return value.
+    */
+  public String get(Path path) { return _single(getMultiple(path)); }
 
   /** Returns the value as specified by the DOM path.
     * @param path DOM path
     * @param root node where the search should start
     * @return value.
     */
-  public String get(String path, Node root) {
-    List<String> r = getMultiple(path, root);
-    if (r.size() != 1) throw new XMLConfigException("Number of results != 1");
-    return r.get(0);
-  }
+  public String get(String path, Node root) { return get(Path.compile(path), root); }
+
+  /** Returns the value as specified by the compiled DOM path.
+    * @param path compiled DOM path
+    * @param root node where the search should start
+    * @return value.
+    */
+  public String get(Path path, Node root) { return _single(getMultiple(path, root)); }
   
   /** Returns the value as specified by the DOM path, or the default value if the value could not be found.
     * @param path DOM path
@@ -228,6 +242,16 @@ public class XMLConfig {
     catch(XMLConfigException e) { return defaultVal; }
   }
   
+  /** Returns the value as specified by the compiled DOM path, or the default value if the value could not be found.
+    * @param path compiled DOM path
+    * @param defaultVal default value in case value is not in DOM
+    * @return value.
+    */
+  public String get(Path path, String defaultVal) {
+    try { return get(path); }
+    catch(XMLConfigException e) { return defaultVal; }
+  }
+  
   /** Returns the value as specified by the DOM path, or the default value if the value could not be found.
     * @param path DOM path
     * @param root node where the search should start
@@ -239,6 +263,17 @@ public class XMLConfig {
     catch (XMLConfigException e) { return defaultVal; }
   }
   
+  /** Returns the value as specified by the compiled DOM path, or the default value if the value could not be found.
+    * @param path compiled DOM path
+    * @param root node where the search should start
+    * @param defaultVal default value in case value is not in DOM
+    * @return value.
+    */
+  public String get(Path path, Node root, String defaultVal) {
+    try { return get(path, root); }
+    catch (XMLConfigException e) { return defaultVal; }
+  }
+  
   // ----- Integer ------
   
   /** Returns the value as specified by the DOM path.
@@ -246,12 +281,7 @@ public class XMLConfig {
     * @return value.
     * @throws IllegalArgumentException if the path is invalid
     */
-  public int getInt(String path) {
-    List<String> r = getMultiple(path);
-    if (r.size() != 1) throw new XMLConfigException("Number of results != 1");
-    try { return Integer.valueOf(r.get(0)); }
-    catch(NumberFormatException nfe) { throw new IllegalArgumentException("Not an integer value.", nfe); }
-  }
+  public int getInt(String path) { return _toInt(get(path)); }
 
   /** Returns the value as specified by the DOM path.
     * @param path DOM path
@@ -259,12 +289,15 @@ public class XMLConfig {
     * @return value.
     * @throws IllegalArgumentException if the path is invalid
     */
-  public int getInt(String path, Node root) {
-    List<String> r = getMultiple(path, root);
-    if (r.size() != 1) throw new XMLConfigException("Number of results != 1");
-    try { return Integer.valueOf(r.get(0)); }
-    catch(NumberFormatException nfe) { throw new IllegalArgumentException("Not an integer value.", nfe); }
-  }
+  public int getInt(String path, Node root) { return _toInt(get(path, root)); }
+
+  /** Returns the value as specified by the compiled DOM path.
+    * @param path compiled DOM path
+    * @param root node where the search should start
+    * @return value.
+    * @throws IllegalArgumentException if the path is invalid
+    */
+  public int getInt(Path path, Node root) { return _toInt(get(path, root)); }
   
   /** Returns the value as specified by the DOM path, or the default value if the value could not be found.
     * @param path DOM path
@@ -296,14 +329,7 @@ public class XMLConfig {
     * @return value.
     * @throws IllegalArgumentException if the path is invalid
     */
-  public boolean getBool(String path) {
-    List<String> r = getMultiple(path);
-    if (r.size() != 1) throw new XMLConfigException("Number of results != 1");
-    String s = r.get(0).toLowerCase().trim();
-    if ((s.equals("true")) || (s.equals("yes")) || (s.equals("on"))) return true;
-    if ((s.equals("false")) || (s.equals("no")) || (s.equals("off"))) return false;
-    throw new IllegalArgumentException("Not a Boolean vlaue.");
-  }
+  public boolean getBool(String path) { return _toBool(get(path)); }
 
   /** Returns the value as specified by the DOM path.
     * @param path DOM path
@@ -311,14 +337,15 @@ public class XMLConfig {
     * @return value.
     * @throws IllegalArgumentException if the path is invalid
     */
-  public boolean getBool(String path, Node root) {
-    List<String> r = getMultiple(path, root);
-    if (r.size() != 1) throw new XMLConfigException("Number of results != 1");
-    String s = r.get(0).toLowerCase().trim();
-    if ((s.equals("true")) || (s.equals("yes")) || (s.equals("on"))) return true;
-    if ((s.equals("false")) || (s.equals("no")) || (s.equals("off"))) return false;
-    throw new IllegalArgumentException("Not a Boolean vlaue.");
-  }
+  public boolean getBool(String path, Node root) { return _toBool(get(path, root)); }
+
+  /** Returns the value as specified by the compiled DOM path.
+    * @param path compiled DOM path
+    * @param root node where the search should start
+    * @return value.
+    * @throws IllegalArgumentException if the path is invalid
+    */
+  public boolean getBool(Path path, Node root) { return _toBool(get(path, root)); }
   
   /** Returns the value as specified by the DOM path, or the default value if the value could not be found.
     * @param path DOM path
@@ -343,33 +370,77 @@ public class XMLConfig {
     catch(XMLConfigException e) { return defaultVal; }
   }
   
+  /** Returns the value as specified by the compiled DOM path, or the default value if the value could not be found.
+    * @param path compiled DOM path
+    * @param root node where the search should start
+    * @param defaultVal default value in case value is not in DOM
+    * @return value.
+    * @throws IllegalArgumentException if the path is invalid
+    */
+  public boolean getBool(Path path, Node root, boolean defaultVal) {
+    try { return getBool(path, root); }
+    catch(XMLConfigException e) { return defaultVal; }
+  }
+  
+  private static String _single(List<String> r) {
+    if (r.size() != 1) throw new XMLConfigException("Number of results != 1");
+    return r.get(0);
+  }
+  
+  private static int _toInt(String s) {
+    try { return Integer.valueOf(s); }
+    catch(NumberFormatException nfe) { throw new IllegalArgumentException("Not an integer value.", nfe); }
+  }
+  
+  private static boolean _toBool(String s) {
+    s = s.toLowerCase().trim();
+    if ((s.equals("true")) || (s.equals("yes")) || (s.equals("on"))) return true;
+    if ((s.equals("false")) || (s.equals("no")) || (s.equals("off"))) return false;
+    throw new IllegalArgumentException("Not a Boolean vlaue.");
+  }
+  
   // ----- Other -----
   
   /** Returns the value as specified by the DOM path.
     * @param path DOM path
     * @return list of values.
     */
-  public List<String> getMultiple(String path) {
-    if (isDelegated()) { return getMultiple(path, _startNode); }
-    return getMultiple(path, _document);
-  }
+  public List<String> getMultiple(String path) { return getMultiple(Path.compile(path)); }
+  
+  /** Returns the value as specified by the compiled DOM path.  The nodes are resolved from the start of this
+    * configuration and cached until the configuration is changed.
+    * @param path compiled DOM path
+    * @return list of values.
+    */
+  public List<String> getMultiple(Path path) { return _values(_cachedNodes(path)); }
   
   /** Returns the value as specified by the DOM path.
     * @param path DOM path
     * @param root node where the search should start
     * @return list of values.
     */
-  public List<String> getMultiple(String path, Node root) {
-    List<Node> accum = getNodes(path, root);
-    List<String> strings = new LinkedList<String>();
-    for(Node n: accum) {
+  public List<String> getMultiple(String path, Node root) { return getMultiple(Path.compile(path), root); }
+  
+  /** Returns the value as specified by the compiled DOM path.
+    * @param path compiled DOM path
+    * @param root node where the search should start
+    * @return list of values.
+    */
+  public List<String> getMultiple(Path path, Node root) { return _values(getNodes(path, root)); }
+  
+  /** Returns the values of the nodes: the value of an attribute, or the concatenated #text children of an element.
+    * @param nodes the nodes
+    * @return list of values.
+    */
+  private static List<String> _values(List<Node> nodes) {
+    List<String> strings = new ArrayList<String>(nodes.size());
+    for(Node n: nodes) {
       if (n instanceof Attr) { strings.add(n.getNodeValue()); }
       else {
-        Node child;
-        String acc = "";
-        child = n.getFirstChild();
+        StringBuilder acc = new StringBuilder();
+        Node child = n.getFirstChild();
         while(child != null) {
-          if (child.getNodeName().equals("#text")) { acc += " " + child.getNodeValue(); }
+          if (child.getNodeName().equals("#text")) { acc.append(' ').append(child.getNodeValue()); }
           else if (child.getNodeName().equals("#comment")) { /* ignore */ }
           else {
             String text = "Node " + n.getNodeName() + " contained node " + child.getNodeName() + 
@@ -378,7 +449,7 @@ public class XMLConfig {
           }
           child = child.getNextSibling();
         }
-        strings.add(acc.trim());
+        strings.add(acc.toString().trim());
       }
     }
     return strings;
@@ -388,107 +459,95 @@ public class XMLConfig {
     * @param path DOM path
     * @return list of nodes.
     */
-  public List<Node> getNodes(String path) {
-    if (isDelegated()) { return getNodes(path, _startNode); }
-
-    return getNodes(path, _document);
-  }
+  public List<Node> getNodes(String path) { return getNodes(Path.compile(path)); }
+  
+  /** Returns the nodes as specified by the compiled DOM path.  The nodes are resolved from the start of this
+    * configuration and cached until the configuration is changed.
+    * @param path compiled DOM path
+    * @return list of nodes.
+    */
+  public List<Node> getNodes(Path path) { return new LinkedList<Node>(_cachedNodes(path)); }
   
   /** Returns the nodes as specified by the DOM path.
     * @param path DOM path
     * @param root node where the search should start
     * @return list of nodes.
     */
-  public List<Node> getNodes(String path, Node root) {
+  public List<Node> getNodes(String path, Node root) { return getNodes(Path.compile(path), root); }
+  
+  /** Returns the nodes as specified by the compiled DOM path.
+    * @param path compiled DOM path
+    * @param root node where the search should start
+    * @return list of nodes.
+    */
+  public List<Node> getNodes(Path path, Node root) {
     List<Node> accum = new LinkedList<Node>();
-    getMultipleHelper(path, root, accum, false);
+    _collect(path, 0, root, accum);
     return accum;
   }
   
-  /** Returns the value as specified by the DOM path.
-    * @param path DOM path
-    * @param n node where the search begins
-    * @param accum accumulator
-    * @param dotRead whether a dot has been read
+  /** Returns the nodes of the compiled path, starting at the start of this configuration, from the cache if the
+    * document has not been changed by this configuration since they were cached.  The returned list must not be
+    * modified.
+    * @param path compiled DOM path
+    * @return list of nodes.
     */
-  private void getMultipleHelper(String path, Node n, List<Node> accum, boolean dotRead) {
-    int dotPos = path.indexOf('.');
-    boolean initialDot = (dotPos == 0);
-    if ((path.length() > 0) && (dotPos == -1) && (!path.endsWith("/"))) { path = path + "/"; }
-    int slashPos = path.indexOf('/');
-    
-    if (dotPos != -1 && path.indexOf('.', dotPos+1) != -1)
-      throw new XMLConfigException("An attribute cannot have subparts (foo.bar.fum and foo.bar/fum not allowed)");
-    
-    if (dotPos != -1 && path.indexOf('/', dotPos+1) != -1)
-      throw new XMLConfigException("An attribute cannot have subparts (foo.bar.fum and foo.bar/fum not allowed)");
-    
-    if (((slashPos > -1) || (dotPos > -1)) && !dotRead || initialDot)  {
-      String nodeName;
-      if ((slashPos > -1) && ((dotPos == -1) || (slashPos < dotPos))) {
-        nodeName = path.substring(0, slashPos);
-        path = path.substring(slashPos+1);
-      }
-      else {
-        if (slashPos > -1) {
-          throw new XMLConfigException("An attribute cannot have subparts (foo.bar.fum and foo.bar/fum not allowed)");
-        }
-        if (!initialDot) {
-          nodeName = path.substring(0, dotPos);
-          path = path.substring(dotPos+1);
-          dotRead = true;
-        }
-        else {
-          path = path.substring(1);
-          getMultipleAddAttributesHelper(path, n, accum);
-          return;
-        }
-      }
-      Node child = n.getFirstChild();
-      if (nodeName.equals("*")) {
-        while(child != null) {
-          if (! child.getNodeName().equals("#text") && ! child.getNodeName().equals("#comment")) {
-            if (dotRead) { getMultipleAddAttributesHelper(path, child, accum); }
-            else { getMultipleHelper(path, child, accum, false); }
-          }
-          child = child.getNextSibling();
-        }
-        return;
-      }
-      else {
-        while(child != null) {
-          if (child.getNodeName().equals(nodeName)) {
-            // found
-            if (dotRead) {
-              getMultipleAddAttributesHelper(path, child, accum);
-            }
-            else {
-              getMultipleHelper(path, child, accum, false);
-            }
-          }
-          child = child.getNextSibling();
-        }
-        return;
-      }
+  private List<Node> _cachedNodes(Path path) {
+    XMLConfig owner = isDelegated() ? _parent : this;
+    while (owner.isDelegated()) owner = owner._parent;
+    if (_cacheModCount != owner._modCount) {
+      _nodeCache.clear();
+      _cacheModCount = owner._modCount;
     }
-    else {
-      accum.add(n);
+    List<Node> nodes = _nodeCache.get(path);
+    if (nodes == null) {
+      nodes = new ArrayList<Node>();
+      _collect(path, 0, isDelegated() ? _startNode : _document, nodes);
+      _nodeCache.put(path, nodes);
     }
+    return nodes;
   }
   
-  private void getMultipleAddAttributesHelper(String path, Node n, List<Node> accum) {
-    if ((path.indexOf('.') > -1) || (path.indexOf('/') > -1)) {
-      throw new XMLConfigException("An attribute cannot have subparts (foo.bar.fum and foo.bar/fum not allowed)");
+  /** Discards the nodes cached by getNodes(Path) and getMultiple(Path).  The cache is discarded automatically when
+    * the document is changed using set or createNode, but not when nodes returned by this class are changed directly.
+    */
+  public void clearCache() { _nodeCache.clear(); }
+  
+  /** Adds the nodes matching the steps of the compiled path starting at the given step to the accumulator.
+    * @param path compiled DOM path
+    * @param step index of the next step of the path
+    * @param n node where the search continues
+    * @param accum accumulator
+    */
+  private static void _collect(Path path, int step, Node n, List<Node> accum) {
+    if (step == path._steps.length) {
+      if (path._attribute == null) { accum.add(n); }
+      else { _collectAttributes(path._attribute, n, accum); }
+      return;
     }
+    String nodeName = path._steps[step];
+    boolean any = nodeName.equals("*");
+    Node child = n.getFirstChild();
+    while(child != null) {
+      String childName = child.getNodeName();
+      if (any ? (! childName.equals("#text") && ! childName.equals("#comment")) : childName.equals(nodeName)) {
+        _collect(path, step + 1, child, accum);
+      }
+      child = child.getNextSibling();
+    }
+  }
+  
+  private static void _collectAttributes(String name, Node n, List<Node> accum) {
     NamedNodeMap attrMap = n.getAttributes();
-    if (path.equals("*")) {
+    if (attrMap == null) return;
+    if (name.equals("*")) {
       for(int i = 0; i < attrMap.getLength(); ++i) {
         Node attr = attrMap.item(i);
         accum.add(attr);
       }
     }
     else {
-      Node attr = attrMap.getNamedItem(path);
+      Node attr = attrMap.getNamedItem(name);
       if (attr != null) {
         accum.add(attr);
       }
@@ -528,6 +587,7 @@ public class XMLConfig {
   public Node set(String path, String value, Node n, boolean overwrite) {
     if (isDelegated()) { return _parent.set(path, value, n, overwrite); }
     
+    ++_modCount;
     int dotPos = path.lastIndexOf('.');
     Node node;
     if (dotPos == 0) { node = n; }
@@ -568,6 +628,7 @@ public class XMLConfig {
   public Node createNode(String path, Node n, boolean overwrite) {
     if (isDelegated()) { return _parent.createNode(path, n, overwrite); }
 
+    ++_modCount;
     if (n == null) { n = _document; }
     while(path.indexOf('/') > -1) {
       Node child = null;
@@ -670,6 +731,70 @@ public class XMLConfig {
     return path.substring(0,path.length()-1);
   }
   
+  /** A DOM path that has been parsed once, so that it can be used repeatedly without parsing the path string again.
+    * Compiled paths can be used with any XMLConfig.
+    */
+  public static final class Path {
+    /** Maximum number of compiled path strings kept by compile. */
+    private static final int CACHE_SIZE = 256;
+    
+    /** Paths compiled by compile, in access order. */
+    private static final LinkedHashMap<String, Path> _compiled = new LinkedHashMap<String, Path>(16, 0.75f, true) {
+      protected boolean removeEldestEntry(Map.Entry<String, Path> eldest) { return size() > CACHE_SIZE; }
+    };
+    
+    private final String _path;
+    
+    /** Names of the nodes along the path; "*" matches any node. */
+    private final String[] _steps;
+    
+    /** Name of the attribute at the end of the path, "*" for any attribute, or null if the path refers to nodes. */
+    private final String _attribute;
+    
+    /** Parses a DOM path.
+      * @param path DOM path
+      * @throws XMLConfigException if the path refers to subparts of an attribute
+      */
+    public Path(String path) {
+      _path = path;
+      String nodes = path;
+      int dotPos = path.indexOf('.');
+      if (dotPos == -1) { _attribute = null; }
+      else {
+        _attribute = path.substring(dotPos + 1);
+        nodes = path.substring(0, dotPos);
+        if ((_attribute.indexOf('.') > -1) || (_attribute.indexOf('/') > -1)) {
+          throw new XMLConfigException("An attribute cannot have subparts (foo.bar.fum and foo.bar/fum not allowed)");
+        }
+      }
+      if (nodes.endsWith("/")) { nodes = nodes.substring(0, nodes.length() - 1); }
+      _steps = (nodes.length() == 0) ? new String[0] : nodes.split("/", -1);
+    }
+    
+    /** Returns the compiled DOM path, reusing the result for recently compiled path strings.
+      * @param path DOM path
+      * @return compiled path
+      * @throws XMLConfigException if the path refers to subparts of an attribute
+      */
+    public static Path compile(String path) {
+      synchronized(_compiled) {
+        Path p = _compiled.get(path);
+        if (p == null) {
+          p = new Path(path);
+          _compiled.put(path, p);
+        }
+        return p;
+      }
+    }
+    
+    public boolean equals(Object o) { return (o instanceof Path) && _path.equals(((Path)o)._path); }
+    
+    public int hashCode() { return _path.hashCode(); }
+    
+    /** @return the DOM path string */
+    public String toString() { return _path; }
+  }
+  
   /** Exception in XMLConfig methods. */
   public static class XMLConfigException extends RuntimeException {
     /* The following code looks like a repetition of inherited definitions, but constructors aren't inherited! */
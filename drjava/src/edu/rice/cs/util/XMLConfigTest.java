@@ -1154,4 +1154,81 @@ public class XMLConfigTest extends TestCase {
     Assert.assertTrue("Want to get default value", b);
     
   }
+  
+  /** Tests that compiled paths find the same values as path strings. */
+  public void testCompiledPaths() throws Exception {
+    XMLConfig xc = 
+      new XMLConfig(new StringReader(
+                                     "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"no\"?><foo a=\"foo.a\">\n"
+                                       + "  <bar fee=\"xxx\" fuz=\"aaa\">abc</bar>\n"
+                                       + "  <bar fee=\"yyy\">ghi</bar>\n"
+                                       + "  <fum fee=\"zzz\">def<!-- comment --></fum>\n"
+                                       + "  <num n=\"42\" b=\"yes\"/>\n"
+                                       + "</foo>"));
+    assertEquals(xc.getNodes("foo"), xc.getNodes(new XMLConfig.Path("foo/")));
+    String[] paths = { "foo.a", "foo/bar", "foo/bar.fee", "foo/bar/", "foo/*", "foo/*.fee", "foo/*.*",
+      "foo.*", "foo/fum", "foo//bar", "/foo", "foo/xyz", "foo/bar.xyz", "*/bar" };
+    for (String path : paths) {
+      XMLConfig.Path p = new XMLConfig.Path(path);
+      assertEquals(path, p.toString());
+      assertEquals(path, xc.getNodes(path), xc.getNodes(p));
+      assertEquals(path, xc.getMultiple(path), xc.getMultiple(p));
+      assertEquals(path, xc.getMultiple(path), xc.getMultiple(p, xc.getNodes("").get(0)));
+    }
+    Node foo = xc.getNodes("foo").get(0);
+    assertEquals("zzz", xc.get(new XMLConfig.Path("fum.fee"), foo));
+    assertEquals("def", xc.get(new XMLConfig.Path("foo/fum")));
+    assertEquals("none", xc.get(new XMLConfig.Path("foo/bar"), "none"));
+    assertEquals(42, xc.getInt(new XMLConfig.Path("num.n"), foo));
+    assertTrue(xc.getBool(new XMLConfig.Path("num.b"), foo));
+    assertTrue(xc.getBool(new XMLConfig.Path("num.c"), foo, true));
+    assertSame(XMLConfig.Path.compile("foo/bar"), XMLConfig.Path.compile("foo/bar"));
+    assertEquals(new XMLConfig.Path("foo/bar"), XMLConfig.Path.compile("foo/bar"));
+    
+    XMLConfig delegate = new XMLConfig(xc, foo);
+    XMLConfig.Path p = new XMLConfig.Path("bar.fee");
+    assertEquals(Arrays.asList("xxx", "yyy"), delegate.getMultiple(p));
+    assertEquals("foo.a", delegate.get(new XMLConfig.Path(".a")));
+    
+    try {
+      new XMLConfig.Path("foo.bar.fum");
+      fail("Should throw 'attribute subparts' exception");
+    }
+    catch(XMLConfig.XMLConfigException e) { /* expected */ }
+    try {
+      XMLConfig.Path.compile("foo.bar/fum");
+      fail("Should throw 'attribute subparts' exception");
+    }
+    catch(XMLConfig.XMLConfigException e) { /* expected */ }
+  }
+  
+  /** Tests that the nodes cached for compiled paths are updated when the document is changed. */
+  public void testNodeCache() throws Exception {
+    XMLConfig xc = new XMLConfig();
+    xc.set("foo/bar", "abc");
+    XMLConfig delegate = new XMLConfig(xc, xc.getNodes("foo").get(0));
+    XMLConfig.Path all = new XMLConfig.Path("foo/bar");
+    XMLConfig.Path bars = new XMLConfig.Path("bar");
+    assertEquals(Arrays.asList("abc"), xc.getMultiple(all));
+    assertEquals(Arrays.asList("abc"), delegate.getMultiple(bars));
+    
+    xc.set("foo/bar", "def", false);
+    assertEquals(Arrays.asList("abc", "def"), xc.getMultiple(all));
+    assertEquals(Arrays.asList("abc", "def"), delegate.getMultiple(bars));
+    
+    delegate.set("bar", "ghi", false);
+    assertEquals(Arrays.asList("abc", "def", "ghi"), xc.getMultiple(all));
+    assertEquals(Arrays.asList("abc", "def", "ghi"), delegate.getMultiple(bars));
+    
+    // the list returned by getNodes is a copy
+    xc.getNodes(all).clear();
+    assertEquals(3, xc.getNodes(all).size());
+    
+    // changes made directly to the DOM require the cache to be cleared
+    Node foo = xc.getNodes("foo").get(0);
+    foo.removeChild(foo.getFirstChild());
+    assertEquals(3, xc.getNodes(all).size());
+    xc.clearCache();
+    assertEquals(Arrays.asList("def", "ghi"), xc.getMultiple(all));
+  }
 }
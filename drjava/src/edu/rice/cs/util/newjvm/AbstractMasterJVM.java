@@ -33,10 +33,12 @@ import java.rmi.RemoteException;
 import java.rmi.server.UnicastRemoteObject;
 import java.io.Serializable;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
 
 import edu.rice.cs.util.Log;
 import edu.rice.cs.util.UnexpectedException;
 import edu.rice.cs.plt.collect.CollectUtil;
+import edu.rice.cs.plt.concurrent.CompletionMonitor;
 import edu.rice.cs.plt.concurrent.ConcurrentUtil;
 import edu.rice.cs.plt.concurrent.JVMBuilder;
 import edu.rice.cs.plt.concurrent.StateMonitor;
@@ -66,6 +68,9 @@ public abstract class AbstractMasterJVM implements MasterRemote {
   /** Debugging log. */
   public static final Log _log  = new Log("GlobalModel.txt", false);
   
+  /** How long invokeSlave waits for a discarded standby slave to quit, in milliseconds. */
+  private static final long STANDBY_QUIT_TIMEOUT = 10000;
+  
   /** Synchronization strategy: compare-and-swap guarantees that only one thread enters a STARTING, or
    * QUITTING, or DISPOSED state.  After that, the only state transitions out of STARTING/QUITTING occur 
    * in the same thread (or a single designated worker thread); all other threads must wait until the
@@ -86,11 +91,64 @@ public abstract class AbstractMasterJVM implements MasterRemote {
     }
   }
   
+  /** A spare slave JVM, started ahead of time so that it can replace the running slave without startup delay. */
+  private final class StandbySlave {
+    /** The JVMBuilder with which the standby slave was started. */
+    public final JVMBuilder jvmBuilder;
+    /** Signaled when the standby slave has been started, or has failed to start. */
+    public final CompletionMonitor done = new CompletionMonitor();
+    /** Signaled when the standby slave has quit without becoming the running slave, or has failed to start. */
+    public final CompletionMonitor quit = new CompletionMonitor();
+    /** The standby slave JVM remote stub; non-null once it has been started, until it is discarded.  Guarded by this. */
+    private SlaveRemote _slave = null;
+    /** Whether this standby slave has been discarded.  Guarded by this. */
+    private boolean _discarded = false;
+    /** Whether this standby slave has become the running slave.  Guarded by this. */
+    private boolean _promoted = false;
+    
+    public StandbySlave(JVMBuilder builder) { jvmBuilder = builder; }
+    
+    /** Records that the slave has been started, and quits it if it has been discarded in the meantime. */
+    public void started(SlaveRemote slave) {
+      synchronized(this) { if (! _discarded) { _slave = slave; return; } }
+      attemptQuit(slave);
+    }
+    
+    /** Quits the slave if it has been started and has not become the running slave. */
+    public void discard() {
+      SlaveRemote slave;
+      synchronized(this) {
+        if (_promoted || _discarded) { return; }
+        _discarded = true;
+        slave = _slave;
+        _slave = null;
+      }
+      if (slave != null) { attemptQuit(slave); }
+    }
+    
+    /** @return the slave if it is available to become the running slave; null otherwise */
+    public SlaveRemote promote() {
+      synchronized(this) {
+        if (_slave == null || _discarded) { return null; }
+        _promoted = true;
+        return _slave;
+      }
+    }
+    
+    /** @return true if the slave has become the running slave */
+    public synchronized boolean isPromoted() { return _promoted; }
+    
+    /** @return true if the slave has been started and is available */
+    public synchronized boolean isAvailable() { return _slave != null && ! _discarded; }
+  }
+  
   private final StateMonitor<State> _monitor;
   private final SlaveFactory _slaveFactory;
   private final LazyThunk<MasterRemote> _masterStub;
   /** The slave JVM remote stub (non-null when the state is RUNNING). */
   private volatile SlaveRemote _slave;
+  /** The standby slave JVM, or null if there is none. */
+  private final AtomicReference<StandbySlave> _standby = new AtomicReference<StandbySlave>(null);
   
   /** Set up the master JVM object.  Does not start a slave JVM.
    * @param slaveClassName The fully-qualified class name of the class to start up in the second JVM.  Must be a
@@ -131,37 +189,41 @@ public abstract class AbstractMasterJVM implements MasterRemote {
   
   /** Creates and starts the slave JVM.  If the the slave is currently running, waits until it completes.
     * Also waits until the new process has started up and calls one of {@link #handleSlaveConnected}
-    * or {@link #handleSlaveWontStart} before returning.
+    * or {@link #handleSlaveWontStart} before returning.  If a standby slave was prepared with the same
+    * JVMBuilder (see {@link #prepareStandbySlave}), it becomes the running slave instead of a new process.
     * @param jvmBuilder  JVMBuilder to use in starting the remote process.
     * @throws IllegalStateException  If this object has been disposed.
     */
   protected final void invokeSlave(JVMBuilder jvmBuilder) {
     transition(State.FRESH, State.STARTING);
-
-    // update jvmBuilder with any special properties
-    Map<String, String> props = ConcurrentUtil.getPropertiesAsMap("plt.", "drjava.", "edu.rice.cs.");
-    if (!props.containsKey("plt.log.working.dir") && // Set plt.log.working.dir, in case the working dir changes
-        (props.containsKey("plt.debug.log") || props.containsKey("plt.error.log") || 
-            props.containsKey("plt.log.factory"))) {
-      props.put("plt.log.working.dir", System.getProperty("user.dir", ""));
+    
+    StandbySlave standby = _standby.getAndSet(null);
+    if (standby != null) {
+      if (standby.jvmBuilder == jvmBuilder) {
+        standby.done.attemptEnsureSignaled();
+        SlaveRemote newSlave = standby.promote();
+        if (newSlave != null) {
+          debug.log("Using standby remote JVM process");
+          handleSlaveConnected(newSlave);
+          _slave = newSlave;
+          _monitor.set(State.RUNNING);
+          return;
+        }
+      }
+      else {
+        // the new slave may need resources, such as a debug port, that the discarded one still holds
+        standby.discard();
+        standby.quit.attemptEnsureSignaled(STANDBY_QUIT_TIMEOUT);
+      }
     }
-    // include props, but shadow them with any definitions in jvmBuilder
-    final JVMBuilder tweakedJVMBuilder = jvmBuilder.properties(CollectUtil.union(props, jvmBuilder.properties()));
 
     SlaveRemote newSlave = null;
     try {
       debug.logStart("invoking remote JVM process");
-      newSlave =
-        (SlaveRemote) ConcurrentUtil.exportInProcess(_slaveFactory, tweakedJVMBuilder, new Runnable1<Process>() {
-          public void run(Process p) {
-            debug.log("Remote JVM quit");
-            _monitor.set(State.FRESH);
-            //debug.log("Entered state " + State.FRESH);
-            debug.logStart("handleSlaveQuit");
-            handleSlaveQuit(p.exitValue());
-            debug.logEnd("handleSlaveQuit");
-          }
-        });
+      newSlave = (SlaveRemote) ConcurrentUtil.exportInProcess(_slaveFactory, _tweak(jvmBuilder), 
+                                                              new Runnable1<Process>() {
+        public void run(Process p) { _slaveQuit(p); }
+      });
       debug.logEnd("invoking remote JVM process");
     }
     catch (Exception e) {
@@ -190,6 +252,103 @@ public abstract class AbstractMasterJVM implements MasterRemote {
     }
   }
   
+  /** Starts a standby slave JVM in the background, replacing any standby slave prepared before.  The standby slave is 
+    * fully started, but {@link #handleSlaveConnected} is not called until {@link #invokeSlave} is called with the same
+    * JVMBuilder.  The standby slave quits when it is discarded, when a slave is invoked with a different JVMBuilder,
+    * and when this object is disposed.  If the standby slave fails to start, it is silently dropped.
+    * @param jvmBuilder  JVMBuilder to use in starting the remote process.
+    */
+  protected final void prepareStandbySlave(final JVMBuilder jvmBuilder) {
+    if (isDisposed()) { return; }
+    final StandbySlave standby = new StandbySlave(jvmBuilder);
+    StandbySlave old = _standby.getAndSet(standby);
+    if (old != null) { old.discard(); }
+    
+    Thread t = new Thread("Standby Slave JVM Startup") {
+      public void run() {
+        try {
+          debug.logStart("invoking standby remote JVM process");
+          SlaveRemote newSlave = 
+            (SlaveRemote) ConcurrentUtil.exportInProcess(_slaveFactory, _tweak(jvmBuilder), new Runnable1<Process>() {
+            public void run(Process p) {
+              if (standby.isPromoted()) { _slaveQuit(p); }
+              else {
+                debug.log("Standby remote JVM quit");
+                standby.discard();
+                _standby.compareAndSet(standby, null);
+                standby.quit.signal();
+              }
+            }
+          });
+          debug.logEnd("invoking standby remote JVM process");
+          try { newSlave.start(_masterStub.value()); }
+          catch (RemoteException e) {
+            debug.log(e);
+            attemptQuit(newSlave);
+            throw e;
+          }
+          standby.started(newSlave);
+        }
+        catch (Exception e) {
+          debug.log("Standby remote JVM won't start", e);
+          standby.discard();
+          _standby.compareAndSet(standby, null);
+          standby.quit.signal();
+        }
+        finally { standby.done.signal(); }
+      }
+    };
+    t.setDaemon(true);
+    t.start();
+  }
+  
+  /** Quits the standby slave JVM, if there is one. */
+  protected final void discardStandbySlave() {
+    StandbySlave standby = _standby.getAndSet(null);
+    if (standby != null) { standby.discard(); }
+  }
+  
+  /** @return the JVMBuilder of the standby slave JVM, or null if there is none.  The standby slave may still be
+    *         starting. */
+  protected final JVMBuilder standbyJVMBuilder() {
+    StandbySlave standby = _standby.get();
+    return (standby == null) ? null : standby.jvmBuilder;
+  }
+  
+  /** @return true if a standby slave JVM has been started and is ready to become the running slave */
+  protected final boolean isStandbySlaveAvailable() {
+    StandbySlave standby = _standby.get();
+    return standby != null && standby.isAvailable();
+  }
+  
+  /** Adds properties of this JVM that are relevant to the slave to jvmBuilder.
+    * @param jvmBuilder  JVMBuilder to use in starting the remote process.
+    * @return the resulting JVMBuilder
+    */
+  private static JVMBuilder _tweak(JVMBuilder jvmBuilder) {
+    // update jvmBuilder with any special properties
+    Map<String, String> props = ConcurrentUtil.getPropertiesAsMap("plt.", "drjava.", "edu.rice.cs.");
+    if (!props.containsKey("plt.log.working.dir") && // Set plt.log.working.dir, in case the working dir changes
+        (props.containsKey("plt.debug.log") || props.containsKey("plt.error.log") || 
+            props.containsKey("plt.log.factory"))) {
+      props.put("plt.log.working.dir", System.getProperty("user.dir", ""));
+    }
+    // include props, but shadow them with any definitions in jvmBuilder
+    return jvmBuilder.properties(CollectUtil.union(props, jvmBuilder.properties()));
+  }
+  
+  /** Reacts to the running slave JVM quitting.
+    * @param p  the process of the slave JVM
+    */
+  private void _slaveQuit(Process p) {
+    debug.log("Remote JVM quit");
+    _monitor.set(State.FRESH);
+    //debug.log("Entered state " + State.FRESH);
+    debug.logStart("handleSlaveQuit");
+    handleSlaveQuit(p.exitValue());
+    debug.logEnd("handleSlaveQuit");
+  }
+  
   /** Quits slave JVM.  If a slave is not currently started and running, blocks until that state is reached.
     * @throws IllegalStateException  If this object has been disposed.
     */
@@ -215,6 +374,7 @@ public abstract class AbstractMasterJVM implements MasterRemote {
    */
   protected void dispose() {
     transition(State.FRESH, State.DISPOSED);
+    discardStandbySlave();
     if (_masterStub.isResolved()) { 
       try { UnicastRemoteObject.unexportObject(this, true); }
       catch (NoSuchObjectException e) { error.log(e); }
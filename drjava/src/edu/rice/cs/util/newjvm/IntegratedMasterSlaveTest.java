@@ -32,6 +32,7 @@ import edu.rice.cs.drjava.DrJavaTestCase;
 
 import edu.rice.cs.plt.concurrent.CompletionMonitor;
 import edu.rice.cs.plt.concurrent.JVMBuilder;
+import edu.rice.cs.plt.io.IOUtil;
 
 import java.rmi.RemoteException;
 
@@ -66,6 +67,11 @@ public class IntegratedMasterSlaveTest extends DrJavaTestCase {
     for (int i = 0; i < 5; i++)  _testMaster.runImmediateQuitTest();
   }
   
+  // this test uses thread pools and starts a THRAD_EXECUTOR-n thread that we cannot join
+  public void testStandbySlave_NOJOIN() throws Exception {
+    _testMaster.runStandbyTest();
+  }
+  
   private static class TestMasterJVM extends AbstractMasterJVM implements TestMasterRemote {
     
     private static final int WAIT_TIMEOUT = 10000; 
@@ -128,6 +134,56 @@ public class IntegratedMasterSlaveTest extends DrJavaTestCase {
       _currentTest = "";
     }
     
+    /** A standby slave prepared with the same JVMBuilder replaces a new slave; a standby slave prepared with a
+      * different JVMBuilder is discarded.
+      * @throws Exception if something goes wrong
+      */
+    public void runStandbyTest() throws Exception {
+      _currentTest = "runStandbyTest";
+      JVMBuilder other = JVMBuilder.DEFAULT.directory(IOUtil.WORKING_DIRECTORY);
+      assertFalse(isStandbySlaveAvailable());
+      
+      for (int i = 0; i < 2; i++) {
+        _justQuit.reset();
+        _slave = null;
+        _letter = 'a';
+        prepareStandbySlave(JVMBuilder.DEFAULT);
+        assertSame(JVMBuilder.DEFAULT, standbyJVMBuilder());
+        _awaitStandby();
+        
+        invokeSlave(JVMBuilder.DEFAULT);
+        assertNull("standby slave was used", standbyJVMBuilder());
+        assertEquals("value returned by slave", 0, _slave.getNumber());
+        assertEquals("value returned by slave", 1, _slave.getNumber());
+        quitSlave();
+        assertTrue(_justQuit.attemptEnsureSignaled(WAIT_TIMEOUT));
+      }
+      
+      _justQuit.reset();
+      _slave = null;
+      prepareStandbySlave(other);
+      _awaitStandby();
+      invokeSlave(JVMBuilder.DEFAULT);
+      assertNull("standby slave was discarded", standbyJVMBuilder());
+      assertEquals("value returned by slave", 0, _slave.getNumber());
+      quitSlave();
+      assertTrue(_justQuit.attemptEnsureSignaled(WAIT_TIMEOUT));
+      
+      prepareStandbySlave(JVMBuilder.DEFAULT);
+      discardStandbySlave();
+      assertFalse(isStandbySlaveAvailable());
+      _currentTest = "";
+    }
+    
+    /** Waits until the standby slave has started. */
+    private void _awaitStandby() throws InterruptedException {
+      long end = System.currentTimeMillis() + WAIT_TIMEOUT;
+      while (! isStandbySlaveAvailable()) {
+        assertTrue("standby slave started", System.currentTimeMillis() < end);
+        Thread.sleep(50);
+      }
+    }
+    
     public char getLetter() {
       synchronized(_letterLock) {
         char ret = _letter;
@@ -0,0 +1,95 @@
+/*BEGIN_COPYRIGHT_BLOCK
+ *
+ * Copyright (c) 2001-2019, JavaPLT group at Rice University (drjava@rice.edu).  All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the 
+ * following conditions are met:
+ *    * Redistributions of source code must retain the above copyright notice, this list of conditions and the following
+ *      disclaimer.
+ *    * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the 
+ *      following disclaimer in the documentation and/or other materials provided with the distribution.
+ *    * Neither the names of DrJava, the JavaPLT group, Rice University, nor the names of its contributors may be used 
+ *      to endorse or promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, 
+ * INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, 
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR 
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, 
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This software is Open Source Initiative approved Open Source Software. Open Source Initative Approved is a trademark
+ * of the Open Source Initiative.
+ * 
+ * This file is part of DrJava.  Download the current version of this project from http://www.drjava.org/ or 
+ * http://sourceforge.net/projects/drjava/
+ * 
+ * END_COPYRIGHT_BLOCK*/
+package edu.rice.cs.util.text;
+
+import java.awt.EventQueue;
+import java.util.ArrayList;
+
+import edu.rice.cs.util.swing.Utilities;
+
+/** Coalesces styled text destined for a console document.  Text may be appended from any thread; it is collected 
+  * into runs of equal style and inserted into the document by a single event thread task, so a burst of output 
+  * costs one document update per style run and event queue tick rather than one per append.  Text appended in the 
+  * event thread is inserted immediately (together with anything still pending) to preserve ordering with the caller.
+  * @version $Id$
+  */
+public abstract class ConsoleAppendBuffer {
+  
+  /** Pending text; _runText.get(i) has style _runStyles.get(i).  Guarded by _lock. */
+  private ArrayList<StringBuilder> _runText = new ArrayList<StringBuilder>();
+  private ArrayList<String> _runStyles = new ArrayList<String>();
+  
+  /** Whether a flush task is in the event queue.  Guarded by _lock. */
+  private boolean _flushScheduled = false;
+  
+  private final Object _lock = new Object();
+  
+  private final Runnable _flushTask = new Runnable() { public void run() { flush(); } };
+  
+  /** Inserts text into the document.  Only runs in the event thread.
+    * @param text the text to insert
+    * @param style name of the style of the text
+    */
+  protected abstract void _insert(String text, String style);
+  
+  /** Queues text for insertion into the document.  This method can safely be called from outside the event thread.
+    * @param text the text to append
+    * @param style name of the style of the text
+    */
+  public void append(String text, String style) {
+    boolean schedule;
+    synchronized(_lock) {
+      int last = _runStyles.size() - 1;
+      if (last >= 0 && _runStyles.get(last).equals(style)) _runText.get(last).append(text);
+      else {
+        _runText.add(new StringBuilder(text));
+        _runStyles.add(style);
+      }
+      schedule = ! _flushScheduled;
+      _flushScheduled = true;
+    }
+    if (EventQueue.isDispatchThread()) flush();
+    else if (schedule) Utilities.invokeLater(_flushTask);
+  }
+  
+  /** Inserts all pending text into the document.  Only runs in the event thread. */
+  public void flush() {
+    assert Utilities.TEST_MODE || EventQueue.isDispatchThread();
+    ArrayList<StringBuilder> text;
+    ArrayList<String> styles;
+    synchronized(_lock) {
+      text = _runText;
+      styles = _runStyles;
+      _runText = new ArrayList<StringBuilder>();
+      _runStyles = new ArrayList<String>();
+      _flushScheduled = false;
+    }
+    for (int i = 0; i < text.size(); i++) _insert(text.get(i).toString(), styles.get(i));
+  }
+}
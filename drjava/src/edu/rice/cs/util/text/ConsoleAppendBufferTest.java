@@ -0,0 +1,108 @@
+/*BEGIN_COPYRIGHT_BLOCK
+ *
+ * Copyright (c) 2001-2019, JavaPLT group at Rice University (drjava@rice.edu).  All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the 
+ * following conditions are met:
+ *    * Redistributions of source code must retain the above copyright notice, this list of conditions and the following
+ *      disclaimer.
+ *    * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the 
+ *      following disclaimer in the documentation and/or other materials provided with the distribution.
+ *    * Neither the names of DrJava, the JavaPLT group, Rice University, nor the names of its contributors may be used 
+ *      to endorse or promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, 
+ * INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, 
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR 
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, 
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This software is Open Source Initiative approved Open Source Software. Open Source Initative Approved is a trademark
+ * of the Open Source Initiative.
+ * 
+ * This file is part of DrJava.  Download the current version of this project from http://www.drjava.org/ or 
+ * http://sourceforge.net/projects/drjava/
+ * 
+ * END_COPYRIGHT_BLOCK*/
+
+package edu.rice.cs.util.text;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import edu.rice.cs.drjava.DrJavaTestCase;
+import edu.rice.cs.util.swing.Utilities;
+
+/** Tests the coalescing and flushing of ConsoleAppendBuffer.
+  * @version $Id$
+  */
+public class ConsoleAppendBufferTest extends DrJavaTestCase {
+  
+  /** A buffer that records each insertion as "style:text". */
+  private static class RecordingBuffer extends ConsoleAppendBuffer {
+    private final List<String> _inserts = new ArrayList<String>();
+    protected synchronized void _insert(String text, String style) { _inserts.add(style + ":" + text); }
+    synchronized List<String> inserts() { return new ArrayList<String>(_inserts); }
+  }
+  
+  /** Tests that text appended outside the event thread is inserted by one task, one insertion per style run. */
+  public void testCoalescesRuns() {
+    RecordingBuffer b = new RecordingBuffer();
+    b.append("a", "out");
+    b.append("b", "out");
+    b.append("c", "err");
+    b.append("d", "out");
+    b.append("e", "out");
+    Utilities.clearEventQueue();
+    assertEquals(Arrays.asList("out:ab", "err:c", "out:de"), b.inserts());
+    
+    // a later burst is inserted by another task
+    b.append("f", "err");
+    Utilities.clearEventQueue();
+    assertEquals(Arrays.asList("out:ab", "err:c", "out:de", "err:f"), b.inserts());
+  }
+  
+  /** Tests that flush inserts the pending text at once, and that flushing with nothing pending inserts nothing. */
+  public void testFlush() {
+    final RecordingBuffer b = new RecordingBuffer();
+    Utilities.invokeAndWait(new Runnable() {
+      public void run() {
+        b.flush();
+        assertEquals(0, b.inserts().size());
+      }
+    });
+    b.append("x", "out");
+    b.append("y", "out");
+    Utilities.invokeAndWait(new Runnable() {
+      public void run() {
+        b.flush();  // may run before or after the scheduled task; either way the text is inserted exactly once
+        assertEquals(Arrays.asList("out:xy"), b.inserts());
+      }
+    });
+    Utilities.clearEventQueue();
+    assertEquals(Arrays.asList("out:xy"), b.inserts());
+  }
+  
+  /** Tests that text appended in the event thread is inserted immediately, after the text still pending. */
+  public void testAppendInEventThread() {
+    final RecordingBuffer b = new RecordingBuffer();
+    Utilities.invokeAndWait(new Runnable() {
+      public void run() {
+        b.append("a", "out");
+        assertEquals(Arrays.asList("out:a"), b.inserts());
+      }
+    });
+    b.append("b", "out");  // pending until the scheduled task or the next append in the event thread
+    Utilities.invokeAndWait(new Runnable() {
+      public void run() {
+        b.append("c", "err");
+        List<String> inserts = b.inserts();
+        assertEquals("out:b", inserts.get(inserts.size() - 2));
+        assertEquals("err:c", inserts.get(inserts.size() - 1));
+      }
+    });
+  }
+}
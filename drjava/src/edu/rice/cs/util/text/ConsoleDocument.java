@@ -82,6 +82,9 @@ public class ConsoleDocument implements ConsoleDocumentInterface {
   /** The book object used for printing that represents several pages */
   protected volatile DrJavaBook _book;
   
+  /** The maximum number of characters kept in the document, or 0 if the scrollback is unbounded. */
+  private volatile int _maxLength = 0;
+  
   /** Creates a new ConsoleDocument with the given embedded ConsoleDocumentInterface (a SwingDocument in native DrJava).
     * @param doc the embedded ConsoleDocumentInterface object
     */
@@ -131,6 +134,16 @@ public class ConsoleDocument implements ConsoleDocumentInterface {
     _promptPos = newPos; 
   }
   
+  /** @return the maximum number of characters kept in the document, or 0 if the scrollback is unbounded. */
+  public int getMaxLength() { return _maxLength; }
+  
+  /** Bounds the scrollback of this document.  Once output grows the document past maxLength characters, the oldest
+    * lines are removed in bulk, bringing the document down to about three quarters of the limit so that trimming 
+    * happens rarely.  The current prompt and input are never removed.
+    * @param maxLength the maximum number of characters to keep, or 0 for unbounded scrollback
+    */
+  public void setMaxLength(int maxLength) { _maxLength = maxLength; }
+  
   /** Sets a runnable action to use as a beep.
     * @param beep Runnable beep command
     */
@@ -208,10 +221,32 @@ public class ConsoleDocument implements ConsoleDocumentInterface {
 //      System.err.println("_promptPos before update = " + _promptPos);
       _promptPos = _promptPos + text.length();
       forceInsertText(pos, text, style);
+      _trimHead();
     }
     catch (EditDocumentException ble) { throw new UnexpectedException(ble); }
   }
   
+  /** Removes the oldest lines of the document if it has grown past _maxLength.  Only runs in event thread.
+    * @throws EditDocumentException if the document cannot be trimmed
+    */
+  private void _trimHead() throws EditDocumentException {
+    int max = _maxLength;
+    int len = _document.getLength();
+    if (max <= 0 || len <= max) return;
+    
+    int limit = _getPositionBeforePrompt();
+    int cut = Math.min(len - max * 3 / 4, limit);
+    if (cut <= 0) return;
+    // Extend the cut to the end of the line it falls in, unless that line reaches the prompt
+    int eol = _document.getDocText(cut - 1, limit - cut + 1).indexOf('\n');
+    if (eol >= 0) cut += eol;
+    
+    // Update _promptPos before updating _document because removeText runs removeUpdate to adjust caret
+    _promptPos = Math.max(0, _promptPos - cut);
+    if (_document instanceof SwingDocument) ((SwingDocument)_document).removeHead(cut);
+    else _document.forceRemoveText(0, cut);
+  }
+  
   /** Inserts a string into the document at the given offset and named style, if the edit condition allows it.
     * @param offs Offset into the document
     * @param str String to be inserted
@@ -236,6 +271,7 @@ public class ConsoleDocument implements ConsoleDocumentInterface {
     int offs = _document.getLength();
     _addToStyleLists(offs, str, style);
     _document.insertText(offs, str, style);
+    _trimHead();
   }
   
   /** Inserts a string into the document at the given offset and  style, regardless of the edit condition.
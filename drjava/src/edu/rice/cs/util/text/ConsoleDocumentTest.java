@@ -28,9 +28,13 @@
  * END_COPYRIGHT_BLOCK*/
 package edu.rice.cs.util.text;
 
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
 import javax.swing.text.BadLocationException;
 
+import edu.rice.cs.drjava.model.definitions.ColoringView;
 import edu.rice.cs.drjava.model.repl.InteractionsDJDocument;
+import edu.rice.cs.drjava.model.repl.InteractionsDocument;
 import edu.rice.cs.drjava.DrJavaTestCase;
 import edu.rice.cs.util.swing.Utilities;
 
@@ -117,4 +121,63 @@ public class ConsoleDocumentTest extends DrJavaTestCase {
     _doc.setPromptPos(_doc.getLength());
     assertEquals("promptPos is character position at end of document", _doc.getLength(), _doc.getPromptPos());
   }
+  
+  /** Tests that the most recently added style covering a point determines its coloring. */
+  public void testColoring() throws EditDocumentException {
+    InteractionsDJDocument swingDoc = (InteractionsDJDocument) _doc._document;
+    Graphics g = new BufferedImage(1, 1, BufferedImage.TYPE_INT_RGB).getGraphics();
+    _doc.append("out\n", ConsoleDocument.SYSTEM_OUT_STYLE);
+    _doc.append("err\n", ConsoleDocument.SYSTEM_ERR_STYLE);
+    _doc.append("x", ConsoleDocument.DEFAULT_STYLE);
+    assertEquals("three style runs", 3, swingDoc.getStyles().length);
+    assertEquals("newest style run first", "((8, 9), default)", swingDoc.getStyles()[0].toString());
+    
+    assertTrue(swingDoc.setColoring(2, g));
+    assertEquals("System.out color", ColoringView.INTERACTIONS_SYSTEM_OUT_COLOR, g.getColor());
+    assertTrue(swingDoc.setColoring(4, g));
+    assertEquals("newer run wins at shared offset", ColoringView.INTERACTIONS_SYSTEM_ERR_COLOR, g.getColor());
+    assertFalse("default style has normal color", swingDoc.setColoring(8, g));
+    assertFalse("no style past the end", swingDoc.setColoring(20, g));
+    
+    swingDoc.addColoring(1, 6, InteractionsDocument.ERROR_STYLE);
+    assertEquals("four style runs", 4, swingDoc.getStyles().length);
+    assertTrue(swingDoc.setColoring(0, g));
+    assertEquals("System.out color", ColoringView.INTERACTIONS_SYSTEM_OUT_COLOR, g.getColor());
+    assertTrue(swingDoc.setColoring(3, g));
+    assertEquals("error color", ColoringView.ERROR_COLOR, g.getColor());
+    assertTrue(swingDoc.setColoring(7, g));
+    assertEquals("System.err color", ColoringView.INTERACTIONS_SYSTEM_ERR_COLOR, g.getColor());
+    
+    swingDoc.addColoring(0, 9, ConsoleDocument.DEFAULT_STYLE);
+    assertEquals("covered style runs are dropped", 1, swingDoc.getStyles().length);
+  }
+  
+  /** Tests that bounded scrollback removes whole lines from the head along with their styles. */
+  public void testBoundedScrollback() throws EditDocumentException {
+    InteractionsDJDocument swingDoc = (InteractionsDJDocument) _doc._document;
+    Graphics g = new BufferedImage(1, 1, BufferedImage.TYPE_INT_RGB).getGraphics();
+    _doc.setPrompt("> ");
+    _doc.insertPrompt();
+    _doc.setMaxLength(40);
+    for (int i = 0; i < 100; i++) {
+      String style = (i % 2 == 0) ? ConsoleDocument.SYSTEM_OUT_STYLE : ConsoleDocument.SYSTEM_ERR_STYLE;
+      _doc.insertBeforeLastPrompt("line " + (char) ('a' + i % 26) + i % 2 + "\n", style);
+      assertTrue("document is bounded", _doc.getLength() <= 40);
+    }
+    String text = _doc.getText();
+    assertTrue("oldest lines are removed", text.startsWith("line "));
+    assertTrue("newest line is kept", text.endsWith("line v1\n> "));
+    assertEquals("prompt is kept", _doc.getLength(), _doc.getPromptPos());
+    for (int i = 0; i < text.length() - 2; i++) {
+      boolean out = text.charAt(text.indexOf('\n', i) - 1) == '0';
+      assertTrue(swingDoc.setColoring(i, g));
+      assertEquals("color at " + i, out ? ColoringView.INTERACTIONS_SYSTEM_OUT_COLOR 
+                     : ColoringView.INTERACTIONS_SYSTEM_ERR_COLOR, g.getColor());
+    }
+    assertFalse("trimmed document cannot be undone", swingDoc.undoManagerCanUndo());
+    
+    _doc.setMaxLength(0);
+    for (int i = 0; i < 10; i++) _doc.insertBeforeLastPrompt("unbounded\n", ConsoleDocument.SYSTEM_OUT_STYLE);
+    assertTrue("document is unbounded", _doc.getLength() > 100);
+  }
 }
@@ -34,6 +34,7 @@ import javax.swing.text.DefaultStyledDocument;
 import javax.swing.text.AttributeSet;
 import javax.swing.text.Position;
 import javax.swing.text.BadLocationException;
+import javax.swing.event.UndoableEditListener;
 
 import edu.rice.cs.util.UnexpectedException;
 import java.util.HashMap;
@@ -161,6 +162,20 @@ public class SwingDocument extends DefaultStyledDocument implements EditDocument
     catch (BadLocationException e) { throw new EditDocumentException(e); }
   }
   
+  /** Removes the first len characters of the document, as a console with bounded scrollback does when it grows too
+    * long.  The removal ignores the edit condition and is not reported to undoable edit listeners, since it is not a
+    * user edit.  Subclasses that keep offsets alongside the text (such as colorings) shift them here.  Only runs in
+    * event thread.
+    * @param len Number of characters to remove
+    * @throws EditDocumentException if the length is illegal
+    */
+  public void removeHead(int len) {
+    UndoableEditListener[] listeners = getUndoableEditListeners();
+    for (UndoableEditListener l : listeners) removeUndoableEditListener(l);
+    try { forceRemoveText(0, len); }
+    finally { for (UndoableEditListener l : listeners) addUndoableEditListener(l); }
+  }
+  
   /** Overrides superclass's remove to impose the edit condition. */
   public void remove(int offs, int len) throws BadLocationException {
     if (_condition.canRemoveText(offs))  super.remove(offs, len); 
@@ -37,4 +37,9 @@ public class Options {
   public boolean prohibitBoxing() { return false; }
   /** Disallow unchecked casting conversion. */
   public boolean prohibitUncheckedCasts() { return true; }
+  /**
+   * Number of times a method of an interpreted class is invoked before its body is compiled to bytecode
+   * (where possible).  A negative value disables compilation.
+   */
+  public int methodCompilationThreshold() { return 50; }
 }
@@ -168,7 +168,30 @@ public class ClassChecker {
    * Should be called <em>after</em> the signatures of all relevant classes and interfaces have been checked.
    */
   public void checkBodies(TypeDeclaration ast) {
-    checkBodies(ast.getMembers());
+    checkBodies(ast.getMembers(), false);
+  }
+  
+  /**
+   * Check the field initializers, method bodies, nested class bodies, etc., of a class or interface declaration.
+   * Should be called <em>after</em> the signatures of all relevant classes and interfaces have been checked.
+   * @param constantsChecked  Whether {@link #checkConstants} has already been called on {@code ast}; if so, the
+   *                          initializers of constant fields are not checked again, but their errors are reported.
+   */
+  public void checkBodies(TypeDeclaration ast, boolean constantsChecked) {
+    checkBodies(ast.getMembers(), constantsChecked);
+  }
+  
+  /**
+   * Check the initializers of the static final fields of a class or interface declaration and its member classes,
+   * so that their constant values are known when other bodies refer to them.  Errors are not thrown, but recorded
+   * for a later call to {@code checkBodies(ast, true)}.  Should be called <em>after</em> the signatures of all
+   * relevant classes and interfaces have been checked.
+   */
+  public void checkConstants(TypeDeclaration ast) {
+    TypeContext sigContext = new ClassSignatureContext(_context, _c, _loader);
+    TypeContext bodyContext = new ClassContext(sigContext, _c);
+    ConstantVisitor v = new ConstantVisitor(bodyContext);
+    for (Node n : ast.getMembers()) { n.acceptVisitor(v); }
   }
     
   /**
@@ -176,7 +199,7 @@ public class ClassChecker {
    * Should be called <em>after</em> the signatures of all relevant classes and interfaces have been checked.
    */
   public void checkBodies(AnonymousAllocation ast) {
-    checkBodies(ast.getMembers());
+    checkBodies(ast.getMembers(), false);
   }
   
   /**
@@ -184,13 +207,19 @@ public class ClassChecker {
    * Should be called <em>after</em> the signatures of all relevant classes and interfaces have been checked.
    */
   public void checkBodies(AnonymousInnerAllocation ast) {
-    checkBodies(ast.getMembers());
+    checkBodies(ast.getMembers(), false);
   }
   
-  private void checkBodies(Iterable<? extends Node> members) {
+  private void checkBodies(Iterable<? extends Node> members, boolean constantsChecked) {
     TypeContext sigContext = new ClassSignatureContext(_context, _c, _loader);
     TypeContext bodyContext = new ClassContext(sigContext, _c);
-    visitMembers(members, new MemberBodyVisitor(bodyContext));
+    visitMembers(members, new MemberBodyVisitor(bodyContext, constantsChecked));
+  }
+  
+  /** Whether a field's initializer may define a constant value. */
+  private static boolean isConstant(FieldDeclaration node) {
+    DJField f = getField(node);
+    return f.isStatic() && f.isFinal() && node.getInitializer() != null;
   }
   
   private abstract class MemberSignatureVisitor extends AbstractVisitor<Void> {
@@ -327,16 +356,20 @@ public class ClassChecker {
   private class MemberBodyVisitor extends AbstractVisitor<Void> {
     
     private final TypeContext _bodyContext;
+    private final boolean _constantsChecked;
     
-    public MemberBodyVisitor(TypeContext bodyContext) { _bodyContext = bodyContext; }
+    public MemberBodyVisitor(TypeContext bodyContext, boolean constantsChecked) {
+      _bodyContext = bodyContext;
+      _constantsChecked = constantsChecked;
+    }
     
     @Override public Void visit(ClassDeclaration node) {
-      new ClassChecker(getDJClass(node), _loader, _bodyContext, _opt).checkBodies(node);
+      new ClassChecker(getDJClass(node), _loader, _bodyContext, _opt).checkBodies(node, _constantsChecked);
       return null;
     }
     
     @Override public Void visit(InterfaceDeclaration node) {
-      new ClassChecker(getDJClass(node), _loader, _bodyContext, _opt).checkBodies(node);
+      new ClassChecker(getDJClass(node), _loader, _bodyContext, _opt).checkBodies(node, _constantsChecked);
       return null;
     }
     
@@ -374,6 +407,10 @@ public class ClassChecker {
     }
     
     @Override public Void visit(FieldDeclaration node) {
+      if (_constantsChecked && isConstant(node)) {
+        if (hasError(node)) { throw getError(node); }
+        return null;
+      }
       Expression init = node.getInitializer();
       if (init != null) {
         TypeContext c = new InitializerContext(_bodyContext, getField(node).isStatic(), _c);
@@ -406,4 +443,36 @@ public class ClassChecker {
     }
   }
   
+  /** Checks constant initializers, recording an error in the field's declaration; ignores other members. */
+  private class ConstantVisitor extends AbstractVisitor<Void> {
+    
+    private final TypeContext _bodyContext;
+    private final MemberBodyVisitor _bodyVisitor;
+    
+    public ConstantVisitor(TypeContext bodyContext) {
+      _bodyContext = bodyContext;
+      _bodyVisitor = new MemberBodyVisitor(bodyContext, false);
+    }
+    
+    @Override public Void defaultCase(Node node) { return null; }
+    
+    @Override public Void visit(ClassDeclaration node) {
+      new ClassChecker(getDJClass(node), _loader, _bodyContext, _opt).checkConstants(node);
+      return null;
+    }
+    
+    @Override public Void visit(InterfaceDeclaration node) {
+      new ClassChecker(getDJClass(node), _loader, _bodyContext, _opt).checkConstants(node);
+      return null;
+    }
+    
+    @Override public Void visit(FieldDeclaration node) {
+      if (isConstant(node)) {
+        try { _bodyVisitor.visit(node); }
+        catch (ExecutionError e) { setError(node, e); }
+      }
+      return null;
+    }
+  }
+  
 }
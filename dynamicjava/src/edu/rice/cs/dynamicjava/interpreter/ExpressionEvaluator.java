@@ -49,7 +49,7 @@ public class ExpressionEvaluator extends AbstractVisitor<Object> implements Lamb
   
   @Override public Object visit(Literal node) { return node.getValue(); }
   
-  @Override public Object visit(VariableAccess node) { return new LValueVisitor().visit(node).value(); }
+  @Override public Object visit(VariableAccess node) { return _bindings.get(getVariable(node)); }
 
   @Override public Object visit(SimpleFieldAccess node) { return new LValueVisitor().visit(node).value(); }
   
@@ -0,0 +1,780 @@
+package edu.rice.cs.dynamicjava.interpreter;
+
+import java.util.*;
+import edu.rice.cs.plt.tuple.Pair;
+
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+
+import edu.rice.cs.dynamicjava.Options;
+import edu.rice.cs.dynamicjava.symbol.*;
+import koala.dynamicjava.tree.*;
+import koala.dynamicjava.tree.visitor.*;
+
+import static org.objectweb.asm.Opcodes.*;
+import static koala.dynamicjava.interpreter.NodeProperties.*;
+
+/**
+ * Compiles the body of a type-checked method declaration directly to bytecode.  The result is a
+ * subclass of {@link TreeCompiler.CompiledMethod} with a static method that takes the method's
+ * {@code RuntimeBindings}, followed by its declared parameters:
+ * <pre>
+ * public final class CompiledClass$$compiled1 extends TreeCompiler.CompiledMethod {
+ *   public Object invoke(RuntimeBindings $bindings, Object[] $args) {
+ *     return fib($bindings, (Integer) $args[0]);
+ *   }
+ *   public static int fib(RuntimeBindings $bindings, int n) {
+ *     return n &lt; 2 ? n : fib($bindings, n-1) + fib($bindings, n-2);
+ *   }
+ * }
+ * </pre>
+ * Only a subset of the language is supported: local variables, primitive arithmetic and comparisons,
+ * structured control flow, and calls to the static methods of the declaring class (recursive calls
+ * are made directly).  Anything else -- fields, {@code this}, captured variables, allocations,
+ * string concatenation, {@code try}, {@code switch}, labeled jumps, etc. -- causes an
+ * {@link UnsupportedConstructException}, and the method should continue to be interpreted.
+ */
+class MethodBodyCompiler {
+
+  private static final String RUNTIME_BINDINGS_DESCRIPTOR =
+    org.objectweb.asm.Type.getDescriptor(RuntimeBindings.class);
+  private static final String COMPILED_METHOD_NAME =
+    org.objectweb.asm.Type.getInternalName(TreeCompiler.CompiledMethod.class);
+  private static final String INVOKE_DESCRIPTOR =
+    "(" + RUNTIME_BINDINGS_DESCRIPTOR + "[Ljava/lang/Object;)Ljava/lang/Object;";
+
+  private final TreeClass _treeClass;
+  private final String _stubName;
+  private final String _name;
+  private final MethodDeclaration _decl;
+  private final Options _opt;
+  private final ClassLoader _loader;
+  private final Class<?>[] _paramClasses;
+  private final Class<?> _returnClass;
+  private final String _descriptor;
+  private final Map<LocalVariable, Integer> _slots;
+  private final LinkedList<Pair<Label, Label>> _loops; // break and continue targets
+  private MethodVisitor _mv;
+  private int _nextSlot;
+
+  /**
+   * @param treeClass  The class declaring {@code decl}
+   * @param stubName  Internal name of the stub class compiled by {@link TreeCompiler} for {@code treeClass}
+   * @param name  Internal name of the class to be generated
+   * @param loader  The loader that will define the generated class
+   */
+  public MethodBodyCompiler(TreeClass treeClass, String stubName, String name, MethodDeclaration decl,
+                            Options opt, ClassLoader loader) {
+    _treeClass = treeClass;
+    _stubName = stubName;
+    _name = name;
+    _decl = decl;
+    _opt = opt;
+    _loader = loader;
+    List<FormalParameter> params = decl.getParameters();
+    _paramClasses = new Class<?>[params.size()];
+    StringBuilder desc = new StringBuilder("(").append(RUNTIME_BINDINGS_DESCRIPTOR);
+    int i = 0;
+    for (FormalParameter p : params) {
+      _paramClasses[i] = erasedClass(getVariable(p).type());
+      desc.append(descriptor(_paramClasses[i]));
+      i++;
+    }
+    _returnClass = getErasedType(decl).value();
+    _descriptor = desc.append(")").append(descriptor(_returnClass)).toString();
+    _slots = new HashMap<LocalVariable, Integer>();
+    _loops = new LinkedList<Pair<Label, Label>>();
+  }
+
+  /**
+   * Produce the class file.
+   * @throws UnsupportedConstructException  If the method body cannot be compiled.
+   */
+  public byte[] bytecode() {
+    if (_decl.getModifiers().isSynchronized() || _decl.getBody() == null) {
+      throw new UnsupportedConstructException(_decl);
+    }
+    // Unlike TreeCompiler, which emits straight-line code, method bodies branch freely; let ASM
+    // compute the stack and locals sizes
+    ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+    cw.visit(V1_5, ACC_PUBLIC | ACC_FINAL | ACC_SYNTHETIC, _name, null, COMPILED_METHOD_NAME, null);
+
+    MethodVisitor init = cw.visitMethod(ACC_PUBLIC, "<init>", "()V", null, null);
+    init.visitCode();
+    init.visitVarInsn(ALOAD, 0);
+    init.visitMethodInsn(INVOKESPECIAL, COMPILED_METHOD_NAME, "<init>", "()V", false);
+    init.visitInsn(RETURN);
+    init.visitMaxs(0, 0);
+    init.visitEnd();
+
+    compileInvoke(cw.visitMethod(ACC_PUBLIC, "invoke", INVOKE_DESCRIPTOR, null, null));
+
+    _mv = cw.visitMethod(ACC_PUBLIC | ACC_STATIC, _decl.getName(), _descriptor, null, null);
+    _mv.visitCode();
+    _nextSlot = 1;
+    int i = 0;
+    for (FormalParameter p : _decl.getParameters()) { allocate(getVariable(p), _paramClasses[i++]); }
+    _decl.getBody().acceptVisitor(new StatementCompiler());
+    // if the body completes normally, produce null or a zero primitive (as the interpreter does)
+    if (_returnClass.equals(void.class)) { _mv.visitInsn(RETURN); }
+    else {
+      pushDefault(_returnClass);
+      _mv.visitInsn(asmType(_returnClass).getOpcode(IRETURN));
+    }
+    _mv.visitMaxs(0, 0);
+    _mv.visitEnd();
+
+    cw.visitEnd();
+    return cw.toByteArray();
+  }
+
+  /** Unpack the argument array, call the compiled method, and box the result. */
+  private void compileInvoke(MethodVisitor mv) {
+    mv.visitCode();
+    mv.visitVarInsn(ALOAD, 1);
+    for (int i = 0; i < _paramClasses.length; i++) {
+      mv.visitVarInsn(ALOAD, 2);
+      mv.visitLdcInsn(i);
+      mv.visitInsn(AALOAD);
+      Class<?> c = _paramClasses[i];
+      if (c.isPrimitive()) {
+        String boxName = boxedName(c);
+        mv.visitTypeInsn(CHECKCAST, boxName);
+        mv.visitMethodInsn(INVOKEVIRTUAL, boxName, c.getName() + "Value", "()" + descriptor(c), false);
+      }
+      else if (!c.equals(Object.class)) { mv.visitTypeInsn(CHECKCAST, asmType(c).getInternalName()); }
+    }
+    mv.visitMethodInsn(INVOKESTATIC, _name, _decl.getName(), _descriptor, false);
+    if (_returnClass.equals(void.class)) { mv.visitInsn(ACONST_NULL); }
+    else if (_returnClass.isPrimitive()) {
+      String boxName = boxedName(_returnClass);
+      mv.visitMethodInsn(INVOKESTATIC, boxName, "valueOf",
+                         "(" + descriptor(_returnClass) + ")L" + boxName + ";", false);
+    }
+    mv.visitInsn(ARETURN);
+    mv.visitMaxs(0, 0);
+    mv.visitEnd();
+  }
+
+
+  private class StatementCompiler extends AbstractVisitor<Void> {
+
+    @Override public Void defaultCase(Node node) { throw new UnsupportedConstructException(node); }
+
+    @Override public Void visit(EmptyStatement node) { return null; }
+
+    @Override public Void visit(BlockStatement node) {
+      for (Node n : node.getStatements()) { n.acceptVisitor(this); }
+      return null;
+    }
+
+    @Override public Void visit(VariableDeclaration node) {
+      Class<?> c = getErasedType(node).value();
+      int slot = allocate(getVariable(node), c);
+      Expression init = node.getInitializer();
+      // a variable may be referenced in its own initializer, so it must be initialized first
+      if (init == null || mentions(init, getVariable(node))) {
+        pushDefault(c);
+        _mv.visitVarInsn(asmType(c).getOpcode(ISTORE), slot);
+      }
+      if (init != null) {
+        coerce(compile(init), c);
+        _mv.visitVarInsn(asmType(c).getOpcode(ISTORE), slot);
+      }
+      return null;
+    }
+
+    @Override public Void visit(ExpressionStatement node) {
+      if (hasStatementTranslation(node)) { return getStatementTranslation(node).acceptVisitor(this); }
+      Expression exp = node.getExpression();
+      if (!emitIncrementStatement(exp)) { pop(compile(exp)); }
+      return null;
+    }
+
+    @Override public Void visit(IfThenStatement node) {
+      Label end = new Label();
+      branch(node.getCondition(), end, false);
+      node.getThenStatement().acceptVisitor(this);
+      _mv.visitLabel(end);
+      return null;
+    }
+
+    @Override public Void visit(IfThenElseStatement node) {
+      Label elseL = new Label();
+      Label end = new Label();
+      branch(node.getCondition(), elseL, false);
+      node.getThenStatement().acceptVisitor(this);
+      _mv.visitJumpInsn(GOTO, end);
+      _mv.visitLabel(elseL);
+      node.getElseStatement().acceptVisitor(this);
+      _mv.visitLabel(end);
+      return null;
+    }
+
+    @Override public Void visit(WhileStatement node) {
+      Label test = new Label();
+      Label body = new Label();
+      Label end = new Label();
+      _mv.visitJumpInsn(GOTO, test);
+      _mv.visitLabel(body);
+      compileLoopBody(node.getBody(), end, test);
+      _mv.visitLabel(test);
+      branch(node.getCondition(), body, true);
+      _mv.visitLabel(end);
+      return null;
+    }
+
+    @Override public Void visit(DoStatement node) {
+      Label body = new Label();
+      Label test = new Label();
+      Label end = new Label();
+      _mv.visitLabel(body);
+      compileLoopBody(node.getBody(), end, test);
+      _mv.visitLabel(test);
+      branch(node.getCondition(), body, true);
+      _mv.visitLabel(end);
+      return null;
+    }
+
+    @Override public Void visit(ForStatement node) {
+      if (node.getInitialization() != null) {
+        for (Node n : node.getInitialization()) { compileStatementOrExpression(n); }
+      }
+      Label test = new Label();
+      Label body = new Label();
+      Label update = new Label();
+      Label end = new Label();
+      _mv.visitJumpInsn(GOTO, test);
+      _mv.visitLabel(body);
+      compileLoopBody(node.getBody(), end, update);
+      _mv.visitLabel(update);
+      if (node.getUpdate() != null) {
+        for (Node n : node.getUpdate()) { compileStatementOrExpression(n); }
+      }
+      _mv.visitLabel(test);
+      if (node.getCondition() == null) { _mv.visitJumpInsn(GOTO, body); }
+      else { branch(node.getCondition(), body, true); }
+      _mv.visitLabel(end);
+      return null;
+    }
+
+    @Override public Void visit(BreakStatement node) {
+      if (node.getLabel() != null || _loops.isEmpty()) { throw new UnsupportedConstructException(node); }
+      _mv.visitJumpInsn(GOTO, _loops.getFirst().first());
+      return null;
+    }
+
+    @Override public Void visit(ContinueStatement node) {
+      if (node.getLabel() != null || _loops.isEmpty()) { throw new UnsupportedConstructException(node); }
+      _mv.visitJumpInsn(GOTO, _loops.getFirst().second());
+      return null;
+    }
+
+    @Override public Void visit(ReturnStatement node) {
+      if (node.getExpression() == null) { _mv.visitInsn(RETURN); }
+      else {
+        coerce(compile(node.getExpression()), _returnClass);
+        _mv.visitInsn(asmType(_returnClass).getOpcode(IRETURN));
+      }
+      return null;
+    }
+
+    private void compileLoopBody(Node body, Label breakTarget, Label continueTarget) {
+      _loops.addFirst(Pair.make(breakTarget, continueTarget));
+      body.acceptVisitor(this);
+      _loops.removeFirst();
+    }
+
+    private void compileStatementOrExpression(Node n) {
+      if (n instanceof Expression) {
+        Expression exp = (Expression) n;
+        if (!emitIncrementStatement(exp)) { pop(compile(exp)); }
+      }
+      else { n.acceptVisitor(this); }
+    }
+
+  }
+
+
+  private class ExpressionCompiler extends AbstractVisitor<Class<?>> {
+
+    @Override public Class<?> defaultCase(Node node) { throw new UnsupportedConstructException(node); }
+
+    @Override public Class<?> visit(Literal node) {
+      if (node.getValue() == null) { _mv.visitInsn(ACONST_NULL); return Object.class; }
+      else { return pushConstant(node.getValue(), erasedClass(node)); }
+    }
+
+    @Override public Class<?> visit(VariableAccess node) {
+      LocalVariable var = getVariable(node);
+      Class<?> c = erasedClass(var.type());
+      _mv.visitVarInsn(asmType(c).getOpcode(ILOAD), slot(var, node));
+      return c;
+    }
+
+    @Override public Class<?> visit(SimpleMethodCall node) { return compileCall(node); }
+
+    @Override public Class<?> visit(StaticMethodCall node) { return compileCall(node); }
+
+    @Override public Class<?> visit(SimpleAssignExpression node) {
+      LocalVariable var = assignedVariable(node.getLeftExpression());
+      Class<?> c = erasedClass(var.type());
+      coerce(compile(node.getRightExpression()), c);
+      dup(c);
+      _mv.visitVarInsn(asmType(c).getOpcode(ISTORE), slot(var, node));
+      return c;
+    }
+
+    @Override public Class<?> visit(AddAssignExpression node) {
+      if (getOperation(node) != ExpressionEvaluator.ADD) { throw new UnsupportedConstructException(node); }
+      return compileOpAssign(node, IADD);
+    }
+    @Override public Class<?> visit(SubtractAssignExpression node) { return compileOpAssign(node, ISUB); }
+    @Override public Class<?> visit(MultiplyAssignExpression node) { return compileOpAssign(node, IMUL); }
+    @Override public Class<?> visit(DivideAssignExpression node) { return compileOpAssign(node, IDIV); }
+    @Override public Class<?> visit(RemainderAssignExpression node) { return compileOpAssign(node, IREM); }
+    @Override public Class<?> visit(BitAndAssignExpression node) { return compileOpAssign(node, IAND); }
+    @Override public Class<?> visit(BitOrAssignExpression node) { return compileOpAssign(node, IOR); }
+    @Override public Class<?> visit(ExclusiveOrAssignExpression node) { return compileOpAssign(node, IXOR); }
+    @Override public Class<?> visit(ShiftLeftAssignExpression node) { return compileOpAssign(node, ISHL); }
+    @Override public Class<?> visit(ShiftRightAssignExpression node) { return compileOpAssign(node, ISHR); }
+    @Override public Class<?> visit(UnsignedShiftRightAssignExpression node) {
+      return compileOpAssign(node, IUSHR);
+    }
+
+    @Override public Class<?> visit(PreIncrement node) { return compileIncrement(node, IADD, false); }
+    @Override public Class<?> visit(PreDecrement node) { return compileIncrement(node, ISUB, false); }
+    @Override public Class<?> visit(PostIncrement node) { return compileIncrement(node, IADD, true); }
+    @Override public Class<?> visit(PostDecrement node) { return compileIncrement(node, ISUB, true); }
+
+    @Override public Class<?> visit(AddExpression node) {
+      if (getOperation(node) != ExpressionEvaluator.ADD) { throw new UnsupportedConstructException(node); }
+      return compileArithmetic(node, IADD);
+    }
+    @Override public Class<?> visit(SubtractExpression node) { return compileArithmetic(node, ISUB); }
+    @Override public Class<?> visit(MultiplyExpression node) { return compileArithmetic(node, IMUL); }
+    @Override public Class<?> visit(DivideExpression node) { return compileArithmetic(node, IDIV); }
+    @Override public Class<?> visit(RemainderExpression node) { return compileArithmetic(node, IREM); }
+    @Override public Class<?> visit(BitAndExpression node) { return compileArithmetic(node, IAND); }
+    @Override public Class<?> visit(BitOrExpression node) { return compileArithmetic(node, IOR); }
+    @Override public Class<?> visit(ExclusiveOrExpression node) { return compileArithmetic(node, IXOR); }
+    @Override public Class<?> visit(ShiftLeftExpression node) { return compileArithmetic(node, ISHL); }
+    @Override public Class<?> visit(ShiftRightExpression node) { return compileArithmetic(node, ISHR); }
+    @Override public Class<?> visit(UnsignedShiftRightExpression node) { return compileArithmetic(node, IUSHR); }
+
+    @Override public Class<?> visit(PlusExpression node) { return compilePrimitive(node.getExpression()); }
+
+    @Override public Class<?> visit(MinusExpression node) {
+      Class<?> c = compilePrimitive(node.getExpression());
+      _mv.visitInsn(asmType(c).getOpcode(INEG));
+      return c;
+    }
+
+    @Override public Class<?> visit(ComplementExpression node) {
+      Class<?> c = compilePrimitive(node.getExpression());
+      if (c.equals(long.class)) { _mv.visitLdcInsn(-1L); }
+      else { _mv.visitInsn(ICONST_M1); }
+      _mv.visitInsn(asmType(c).getOpcode(IXOR));
+      return c;
+    }
+
+    @Override public Class<?> visit(CastExpression node) {
+      // cast checks and conversions are handled by compile()
+      return compile(node.getExpression());
+    }
+
+    @Override public Class<?> visit(ConditionalExpression node) {
+      Class<?> c = erasedClass(node);
+      Label falseL = new Label();
+      Label end = new Label();
+      branch(node.getConditionExpression(), falseL, false);
+      coerce(compile(node.getIfTrueExpression()), c);
+      _mv.visitJumpInsn(GOTO, end);
+      _mv.visitLabel(falseL);
+      coerce(compile(node.getIfFalseExpression()), c);
+      _mv.visitLabel(end);
+      return c;
+    }
+
+    @Override public Class<?> visit(NotExpression node) { return compileBoolean(node); }
+    @Override public Class<?> visit(AndExpression node) { return compileBoolean(node); }
+    @Override public Class<?> visit(OrExpression node) { return compileBoolean(node); }
+    @Override public Class<?> visit(EqualExpression node) { return compileBoolean(node); }
+    @Override public Class<?> visit(NotEqualExpression node) { return compileBoolean(node); }
+    @Override public Class<?> visit(LessExpression node) { return compileBoolean(node); }
+    @Override public Class<?> visit(LessOrEqualExpression node) { return compileBoolean(node); }
+    @Override public Class<?> visit(GreaterExpression node) { return compileBoolean(node); }
+    @Override public Class<?> visit(GreaterOrEqualExpression node) { return compileBoolean(node); }
+
+    private Class<?> compileBoolean(Expression node) {
+      Label falseL = new Label();
+      Label end = new Label();
+      branchOn(node, falseL, false);
+      _mv.visitInsn(ICONST_1);
+      _mv.visitJumpInsn(GOTO, end);
+      _mv.visitLabel(falseL);
+      _mv.visitInsn(ICONST_0);
+      _mv.visitLabel(end);
+      return boolean.class;
+    }
+
+    private Class<?> compileArithmetic(BinaryExpression node, int opcode) {
+      Class<?> c = compilePrimitive(node.getLeftExpression());
+      Class<?> rightC = compilePrimitive(node.getRightExpression());
+      if (opcode == ISHL || opcode == ISHR || opcode == IUSHR) {
+        // the shift distance is promoted independently of the shifted value
+        if (rightC.equals(long.class)) { _mv.visitInsn(L2I); }
+      }
+      else if (!c.equals(rightC)) { throw new UnsupportedConstructException(node); }
+      _mv.visitInsn(asmType(c).getOpcode(opcode));
+      return c;
+    }
+
+    private Class<?> compileOpAssign(AssignExpression node, int opcode) {
+      LocalVariable var = assignedVariable(node.getLeftExpression());
+      Class<?> varC = erasedClass(var.type());
+      if (!varC.isPrimitive()) { throw new UnsupportedConstructException(node); }
+      // LEFT_EXPRESSION is the variable, wrapped in any promotions
+      Class<?> c = compilePrimitive(getLeftExpression(node));
+      Class<?> rightC = compilePrimitive(node.getRightExpression());
+      if (opcode == ISHL || opcode == ISHR || opcode == IUSHR) {
+        if (rightC.equals(long.class)) { _mv.visitInsn(L2I); }
+      }
+      else if (!c.equals(rightC)) { throw new UnsupportedConstructException(node); }
+      _mv.visitInsn(asmType(c).getOpcode(opcode));
+      coerce(c, varC);
+      dup(varC);
+      _mv.visitVarInsn(asmType(varC).getOpcode(ISTORE), slot(var, node));
+      return varC;
+    }
+
+    private Class<?> compileIncrement(UnaryExpression node, int opcode, boolean post) {
+      LocalVariable var = assignedVariable(node.getExpression());
+      Class<?> c = erasedClass(var.type());
+      if (!(c.equals(int.class) || c.equals(long.class) || c.equals(float.class) || c.equals(double.class))) {
+        throw new UnsupportedConstructException(node);
+      }
+      int slot = slot(var, node);
+      _mv.visitVarInsn(asmType(c).getOpcode(ILOAD), slot);
+      if (post) { dup(c); }
+      pushConstant(1, c);
+      _mv.visitInsn(asmType(c).getOpcode(opcode));
+      if (!post) { dup(c); }
+      _mv.visitVarInsn(asmType(c).getOpcode(ISTORE), slot);
+      return c;
+    }
+
+    private Class<?> compileCall(MethodCall node) {
+      DJMethod m = getMethod(node).declaredSignature();
+      if (!m.isStatic() || !_treeClass.equals(m.declaringClass())) {
+        throw new UnsupportedConstructException(node);
+      }
+      List<LocalVariable> params = new ArrayList<LocalVariable>();
+      for (LocalVariable p : m.parameters()) { params.add(p); }
+      List<Expression> args = node.getArguments();
+      if (args == null) { args = Collections.emptyList(); }
+      if (args.size() != params.size()) { throw new UnsupportedConstructException(node); }
+
+      Class<?>[] paramCs = new Class<?>[params.size()];
+      StringBuilder desc = new StringBuilder("(").append(RUNTIME_BINDINGS_DESCRIPTOR);
+      for (int i = 0; i < paramCs.length; i++) {
+        paramCs[i] = erasedClass(params.get(i).type());
+        desc.append(descriptor(paramCs[i]));
+      }
+      Class<?> returnC = erasedClass(m.returnType());
+      desc.append(")").append(descriptor(returnC));
+
+      boolean recursive = m.declaredName().equals(_decl.getName()) && Arrays.equals(paramCs, _paramClasses);
+      if (!recursive && m.accessibility() == Access.PRIVATE) { throw new UnsupportedConstructException(node); }
+
+      // the callee's bindings extend the caller's, as in the interpreter
+      _mv.visitVarInsn(ALOAD, 0);
+      for (int i = 0; i < paramCs.length; i++) { coerce(compile(args.get(i)), paramCs[i]); }
+      _mv.visitMethodInsn(INVOKESTATIC, recursive ? _name : _stubName, m.declaredName(), desc.toString(), false);
+      return returnC;
+    }
+
+  }
+
+
+  /**
+   * Compile an expression, leaving its value on the stack.  Mirrors {@link ExpressionEvaluator#value}.
+   * @return  The (erased) type of the value on the stack.
+   */
+  private Class<?> compile(Expression exp) {
+    Class<?> result;
+    if (hasValue(exp)) { result = pushConstant(getValue(exp), erasedClass(exp)); }
+    else if (hasTranslation(exp)) {
+      Node translation = getTranslation(exp);
+      if (!(translation instanceof Expression)) { throw new UnsupportedConstructException(exp); }
+      result = compile((Expression) translation);
+    }
+    else { result = exp.acceptVisitor(new ExpressionCompiler()); }
+    if (hasConvertedType(exp)) {
+      Class<?> target = getConvertedType(exp).value();
+      if (!result.isPrimitive() || !target.isPrimitive()) { throw new UnsupportedConstructException(exp); }
+      emitPrimitiveConversion(result, target, exp);
+      result = target;
+    }
+    if (hasCheckedType(exp)) {
+      Class<?> target = getCheckedType(exp).value();
+      if (result.isPrimitive() || target.isPrimitive()) { throw new UnsupportedConstructException(exp); }
+      _mv.visitTypeInsn(CHECKCAST, asmType(target).getInternalName());
+      result = target;
+    }
+    return result;
+  }
+
+  private Class<?> compilePrimitive(Expression exp) {
+    Class<?> result = compile(exp);
+    if (!result.isPrimitive() || result.equals(void.class)) { throw new UnsupportedConstructException(exp); }
+    return result;
+  }
+
+  /** Compile a boolean expression, jumping to {@code target} if its value is {@code jumpIf}. */
+  private void branch(Expression cond, Label target, boolean jumpIf) {
+    if (hasValue(cond) || hasTranslation(cond) || hasConvertedType(cond) || hasCheckedType(cond)) {
+      jumpOnValue(cond, target, jumpIf);
+    }
+    else { branchOn(cond, target, jumpIf); }
+  }
+
+  /** Like {@link #branch}, but ignores the properties of {@code cond} itself. */
+  private void branchOn(Expression cond, Label target, boolean jumpIf) {
+    if (cond instanceof NotExpression) {
+      branch(((NotExpression) cond).getExpression(), target, !jumpIf);
+    }
+    else if (cond instanceof AndExpression || cond instanceof OrExpression) {
+      BinaryExpression bin = (BinaryExpression) cond;
+      boolean isAnd = cond instanceof AndExpression;
+      if (isAnd != jumpIf) {
+        // (a && b) is false if either is false; (a || b) is true if either is true
+        branch(bin.getLeftExpression(), target, jumpIf);
+        branch(bin.getRightExpression(), target, jumpIf);
+      }
+      else {
+        Label skip = new Label();
+        branch(bin.getLeftExpression(), skip, !jumpIf);
+        branch(bin.getRightExpression(), target, jumpIf);
+        _mv.visitLabel(skip);
+      }
+    }
+    else if (cond instanceof EqualExpression || cond instanceof NotEqualExpression ||
+             cond instanceof LessExpression || cond instanceof LessOrEqualExpression ||
+             cond instanceof GreaterExpression || cond instanceof GreaterOrEqualExpression) {
+      BinaryExpression bin = (BinaryExpression) cond;
+      // the condition under which to jump
+      int test;
+      if (cond instanceof EqualExpression) { test = jumpIf ? IFEQ : IFNE; }
+      else if (cond instanceof NotEqualExpression) { test = jumpIf ? IFNE : IFEQ; }
+      else if (cond instanceof LessExpression) { test = jumpIf ? IFLT : IFGE; }
+      else if (cond instanceof LessOrEqualExpression) { test = jumpIf ? IFLE : IFGT; }
+      else if (cond instanceof GreaterExpression) { test = jumpIf ? IFGT : IFLE; }
+      else { test = jumpIf ? IFGE : IFLT; }
+
+      Class<?> c = compile(bin.getLeftExpression());
+      Class<?> rightC = compile(bin.getRightExpression());
+      if (!c.isPrimitive() && !rightC.isPrimitive()) {
+        if (test == IFEQ) { _mv.visitJumpInsn(IF_ACMPEQ, target); }
+        else if (test == IFNE) { _mv.visitJumpInsn(IF_ACMPNE, target); }
+        else { throw new UnsupportedConstructException(cond); }
+      }
+      else if (!c.equals(rightC) || c.equals(void.class)) { throw new UnsupportedConstructException(cond); }
+      else if (c.equals(long.class)) { _mv.visitInsn(LCMP); _mv.visitJumpInsn(test, target); }
+      else if (c.equals(float.class) || c.equals(double.class)) {
+        // NaN must make <, <=, >, and >= false: the comparison result for NaN is chosen to fail the test
+        boolean nanIsGreater = (cond instanceof LessExpression || cond instanceof LessOrEqualExpression);
+        if (c.equals(float.class)) { _mv.visitInsn(nanIsGreater ? FCMPG : FCMPL); }
+        else { _mv.visitInsn(nanIsGreater ? DCMPG : DCMPL); }
+        _mv.visitJumpInsn(test, target);
+      }
+      else { _mv.visitJumpInsn(test + (IF_ICMPEQ - IFEQ), target); }
+    }
+    else { jumpOnValue(cond, target, jumpIf); }
+  }
+
+  private void jumpOnValue(Expression cond, Label target, boolean jumpIf) {
+    if (!compile(cond).equals(boolean.class)) { throw new UnsupportedConstructException(cond); }
+    _mv.visitJumpInsn(jumpIf ? IFNE : IFEQ, target);
+  }
+
+  /**
+   * If {@code exp} is an increment or decrement of an {@code int} variable whose value is unused,
+   * emit an IINC instruction.
+   * @return  {@code true} iff the instruction was emitted.
+   */
+  private boolean emitIncrementStatement(Expression exp) {
+    int delta;
+    if (exp instanceof PreIncrement || exp instanceof PostIncrement) { delta = 1; }
+    else if (exp instanceof PreDecrement || exp instanceof PostDecrement) { delta = -1; }
+    else { return false; }
+    if (hasValue(exp) || hasTranslation(exp) || hasConvertedType(exp) || hasCheckedType(exp)) { return false; }
+    Expression varExp = ((UnaryExpression) exp).getExpression();
+    while (hasTranslation(varExp)) { varExp = getTranslation(varExp); }
+    if (!(varExp instanceof VariableAccess)) { return false; }
+    LocalVariable var = getVariable(varExp);
+    if (!erasedClass(var.type()).equals(int.class)) { return false; }
+    _mv.visitIincInsn(slot(var, exp), delta);
+    return true;
+  }
+
+  /** The local variable being assigned by an assignment, increment, or decrement. */
+  private LocalVariable assignedVariable(Expression left) {
+    Expression exp = left;
+    while (hasTranslation(exp)) { exp = getTranslation(exp); }
+    if (!(exp instanceof VariableAccess)) { throw new UnsupportedConstructException(left); }
+    return getVariable(exp);
+  }
+
+  private int allocate(LocalVariable var, Class<?> c) {
+    int result = _nextSlot;
+    _slots.put(var, result);
+    _nextSlot += asmType(c).getSize();
+    return result;
+  }
+
+  /** The slot of a local variable or parameter; captured variables are not supported. */
+  private int slot(LocalVariable var, Node context) {
+    Integer result = _slots.get(var);
+    if (result == null) { throw new UnsupportedConstructException(context); }
+    return result;
+  }
+
+  /** Whether {@code var} is accessed anywhere in the given subtree. */
+  private static boolean mentions(Node n, final LocalVariable var) {
+    final boolean[] result = { false };
+    n.acceptVisitor(new DepthFirstVisitor() {
+      @Override public void run(Node n) {
+        if (!result[0]) {
+          if (n instanceof VariableAccess && getVariable(n) == var) { result[0] = true; }
+          else { super.run(n); }
+        }
+      }
+    });
+    return result[0];
+  }
+
+  /** Convert the value on the stack from one class to another, as in assignment. */
+  private void coerce(Class<?> from, Class<?> to) {
+    if (from.equals(to)) { return; }
+    else if (from.isPrimitive() && to.isPrimitive() && !from.equals(void.class) && !to.equals(void.class)) {
+      emitPrimitiveConversion(from, to, _decl);
+    }
+    else if (!from.isPrimitive() && !to.isPrimitive()) {
+      if (!to.isAssignableFrom(from)) { _mv.visitTypeInsn(CHECKCAST, asmType(to).getInternalName()); }
+    }
+    else { throw new UnsupportedConstructException(_decl); }
+  }
+
+  private void emitPrimitiveConversion(Class<?> from, Class<?> to, Node context) {
+    if (from.equals(to)) { return; }
+    if (from.equals(boolean.class) || to.equals(boolean.class)) { throw new UnsupportedConstructException(context); }
+    char f = computationalType(from);
+    char t = computationalType(to);
+    if (f != t) {
+      switch (f) {
+        case 'I': _mv.visitInsn(t == 'J' ? I2L : t == 'F' ? I2F : I2D); break;
+        case 'J': _mv.visitInsn(t == 'I' ? L2I : t == 'F' ? L2F : L2D); break;
+        case 'F': _mv.visitInsn(t == 'I' ? F2I : t == 'J' ? F2L : F2D); break;
+        default: _mv.visitInsn(t == 'I' ? D2I : t == 'J' ? D2L : D2F); break;
+      }
+    }
+    if (to.equals(byte.class)) { _mv.visitInsn(I2B); }
+    else if (to.equals(short.class)) { _mv.visitInsn(I2S); }
+    else if (to.equals(char.class)) { _mv.visitInsn(I2C); }
+  }
+
+  private static char computationalType(Class<?> c) {
+    if (c.equals(long.class)) { return 'J'; }
+    else if (c.equals(float.class)) { return 'F'; }
+    else if (c.equals(double.class)) { return 'D'; }
+    else { return 'I'; }
+  }
+
+  /** Push a constant of the given class. */
+  private Class<?> pushConstant(Object val, Class<?> c) {
+    if (val == null) {
+      if (c.isPrimitive()) { throw new UnsupportedConstructException(_decl); }
+      _mv.visitInsn(ACONST_NULL);
+    }
+    else if (c.equals(boolean.class)) { _mv.visitInsn(((Boolean) val) ? ICONST_1 : ICONST_0); }
+    else if (c.equals(char.class)) {
+      _mv.visitLdcInsn((val instanceof Character) ? (int) (Character) val : ((Number) val).intValue());
+    }
+    else if (c.isPrimitive() && !c.equals(void.class)) {
+      Number n = (val instanceof Character) ? (int) (Character) val : (Number) val;
+      if (c.equals(long.class)) { _mv.visitLdcInsn(n.longValue()); }
+      else if (c.equals(float.class)) { _mv.visitLdcInsn(n.floatValue()); }
+      else if (c.equals(double.class)) { _mv.visitLdcInsn(n.doubleValue()); }
+      else { _mv.visitLdcInsn(n.intValue()); }
+    }
+    else if (val instanceof String && c.isAssignableFrom(String.class)) {
+      _mv.visitLdcInsn(val);
+      return String.class;
+    }
+    else { throw new UnsupportedConstructException(_decl); }
+    return c;
+  }
+
+  private void pushDefault(Class<?> c) {
+    if (c.isPrimitive()) { pushConstant(c.equals(boolean.class) ? (Object) false : (Object) 0, c); }
+    else { _mv.visitInsn(ACONST_NULL); }
+  }
+
+  private static String boxedName(Class<?> c) {
+    if (c.equals(boolean.class)) { return "java/lang/Boolean"; }
+    else if (c.equals(char.class)) { return "java/lang/Character"; }
+    else if (c.equals(byte.class)) { return "java/lang/Byte"; }
+    else if (c.equals(short.class)) { return "java/lang/Short"; }
+    else if (c.equals(int.class)) { return "java/lang/Integer"; }
+    else if (c.equals(long.class)) { return "java/lang/Long"; }
+    else if (c.equals(float.class)) { return "java/lang/Float"; }
+    else { return "java/lang/Double"; }
+  }
+
+  private void dup(Class<?> c) { _mv.visitInsn(asmType(c).getSize() == 2 ? DUP2 : DUP); }
+
+  private void pop(Class<?> c) {
+    if (!c.equals(void.class)) { _mv.visitInsn(asmType(c).getSize() == 2 ? POP2 : POP); }
+  }
+
+  private Class<?> erasedClass(Node n) { return erasedClass(getType(n)); }
+
+  private Class<?> erasedClass(edu.rice.cs.dynamicjava.symbol.type.Type t) {
+    return _opt.typeSystem().erasedClass(t).value();
+  }
+
+  private String descriptor(Class<?> c) { return asmType(c).getDescriptor(); }
+
+  /**
+   * Get the ASM type corresponding to a class.  Reference types must be visible, by name, to the loader
+   * of the generated class.
+   */
+  private org.objectweb.asm.Type asmType(Class<?> c) {
+    Class<?> base = c;
+    while (base.isArray()) { base = base.getComponentType(); }
+    if (!base.isPrimitive()) {
+      try {
+        if (!base.equals(Class.forName(base.getName(), false, _loader))) {
+          throw new UnsupportedConstructException(_decl);
+        }
+      }
+      catch (ClassNotFoundException e) { throw new UnsupportedConstructException(_decl); }
+      catch (LinkageError e) { throw new UnsupportedConstructException(_decl); }
+    }
+    return org.objectweb.asm.Type.getType(c);
+  }
+
+
+  /** Thrown when a method body uses a construct that cannot be compiled. */
+  public static class UnsupportedConstructException extends RuntimeException {
+    private final Node _node;
+    public UnsupportedConstructException(Node node) {
+      super("Can't compile " + node.getClass().getSimpleName());
+      _node = node;
+    }
+    public Node node() { return _node; }
+  }
+
+}
@@ -0,0 +1,81 @@
+package edu.rice.cs.dynamicjava.interpreter;
+
+import junit.framework.TestCase;
+
+import edu.rice.cs.dynamicjava.Options;
+
+public class MethodBodyCompilerTest extends TestCase {
+
+  private static final String CLASS_DECL =
+    "class C {" +
+    "  static int fib(int n) { return n < 2 ? n : fib(n-1) + fib(n-2); }" +
+    "  static int fibPlus(int n) { return fib(n) + 1; }" +
+    "  static long sum(int n) {" +
+    "    long s = 0;" +
+    "    for (int i = 0; i < n; i++) { if (i % 3 == 0 && i != 6) continue; if (i > 50) break; s += i * 2L; }" +
+    "    return s;" +
+    "  }" +
+    "  static double harmonic(double x) { double r = 0; int k = 0; while (k < 10) { r = r + x / (k + 1); k++; } return r; }" +
+    "  static boolean isNaN(double x) { return !(x < 1.0) && !(x >= 1.0); }" +
+    "  static String last(String x, int n) { String r = null; do { r = x; n--; } while (n > 0); return r == null ? \"none\" : r; }" +
+    "  static char next(char c) { c += 1; return (char) (c + 1); }" +
+    "  static int shifts(int x) { int y = x; y <<= 2; y >>>= 1L; return -y ^ ~x; }" +
+    "  static byte narrow(int x) { byte b = (byte) (x * 3); return b; }" +
+    "  static int divide(int x, int y) { return x / y; }" +
+    "  static String concat(int x) { return \"x=\" + x; }" +
+    "  int plusOne(int x) { return x + 1; }" +
+    "}";
+
+  private static final String[] EXPRESSIONS = {
+    "C.fib(15)", "C.fibPlus(10)", "C.sum(100)", "C.harmonic(3.0)", "C.isNaN(0.0/0.0)", "C.isNaN(2.0)",
+    "C.last(\"a\", 3)", "C.last(null, 1)", "C.next('a')", "C.shifts(5)", "C.shifts(-77)", "C.narrow(200)",
+    "C.divide(7, 2)", "C.concat(3)", "new C().plusOne(41)"
+  };
+
+  private static Options threshold(final int t) {
+    return new Options() {
+      @Override public int methodCompilationThreshold() { return t; }
+    };
+  }
+
+  public void testCompiledMatchesInterpreted() throws InterpreterException {
+    Interpreter interpreted = new Interpreter(threshold(-1));
+    Interpreter compiled = new Interpreter(threshold(0));
+    interpreted.interpret(CLASS_DECL);
+    compiled.interpret(CLASS_DECL);
+    for (int i = 0; i < 3; i++) {
+      for (String exp : EXPRESSIONS) {
+        assertEquals(exp, interpreted.interpret(exp), compiled.interpret(exp));
+      }
+    }
+  }
+
+  public void testExceptions() throws InterpreterException {
+    Interpreter compiled = new Interpreter(threshold(0));
+    compiled.interpret(CLASS_DECL);
+    try { compiled.interpret("C.divide(1, 0)"); fail("Expected an exception"); }
+    catch (EvaluatorException e) {
+      assertTrue(e.getCause() instanceof ArithmeticException);
+      boolean inCompiledCode = false;
+      for (StackTraceElement elt : e.getCause().getStackTrace()) {
+        if (elt.getClassName().startsWith("C$$compiled")) { inCompiledCode = true; }
+      }
+      assertTrue("Exception thrown by compiled code", inCompiledCode);
+    }
+  }
+
+  public void testThreshold() throws InterpreterException {
+    Interpreter interp = new Interpreter(threshold(2));
+    interp.interpret(CLASS_DECL);
+    for (int i = 0; i < 2; i++) {
+      try { interp.interpret("C.divide(1, 0)"); fail("Expected an exception"); }
+      catch (EvaluatorException e) {
+        for (StackTraceElement elt : e.getCause().getStackTrace()) {
+          assertFalse(elt.getClassName().startsWith("C$$compiled"));
+        }
+      }
+    }
+    assertEquals(interp.interpret("C.divide(9, 3)"), interp.interpret("3"));
+  }
+
+}
@@ -1,9 +1,6 @@
 package edu.rice.cs.dynamicjava.interpreter;
 
 import java.util.Map;
-import java.util.HashMap;
-import java.util.Collections;
-import edu.rice.cs.plt.tuple.Pair;
 import edu.rice.cs.plt.iter.IterUtil;
 
 import edu.rice.cs.dynamicjava.symbol.*;
@@ -16,72 +13,125 @@ import edu.rice.cs.dynamicjava.symbol.type.VariableType;
   * the calling context.  Without this flexibility, it would have to be determined at what point
   * (if any) in the calling context's chain of environments the function declaration and the calling
   * context share a common lexical scope.
+  * <p>Each instance is a frame of slots: the variables it binds are kept in an array in the order
+  * they were given (for a block, the order assigned by {@link StatementChecker}; see 
+  * {@link koala.dynamicjava.interpreter.NodeProperties#getBlockVariables}), and their values in a
+  * parallel array.  Frames are small, so lookups scan the arrays comparing variables by identity
+  * rather than hashing, and no maps are allocated when a frame is created.</p>
   */
 public class RuntimeBindings {
   
+  // must be initialized before EMPTY
+  private static final LocalVariable[] NO_VARS = new LocalVariable[0];
+  private static final VariableType[] NO_TVARS = new VariableType[0];
+  private static final DJClass[] NO_CLASSES = new DJClass[0];
+  private static final Object[] NO_VALS = new Object[0];
+  private static final Type[] NO_TYPES = new Type[0];
+  
   public static final RuntimeBindings EMPTY = new RuntimeBindings();
   
   private final RuntimeBindings _parent;
-  private final Map<LocalVariable, Object> _vars;
-  private final Map<VariableType, Type> _tvars; // might be useful someday...
-  private final Map<DJClass, Object> _thisVals;
+  private final LocalVariable[] _vars;
+  private final Object[] _vals;
+  private final VariableType[] _tvars; // might be useful someday...
+  private final Type[] _tvals;
+  private final DJClass[] _thisClasses;
+  private final Object[] _thisVals;
   
   public RuntimeBindings(RuntimeBindings parent, Map<LocalVariable, Object> vars,
                          Map<VariableType, Type> tvars, Map<DJClass, Object> thisVals) {
     _parent = parent;
-    _vars = new HashMap<LocalVariable, Object>(vars);
-    _tvars = new HashMap<VariableType, Type>(tvars);
-    _thisVals = new HashMap<DJClass, Object>(thisVals);
+    _vars = vars.keySet().toArray(NO_VARS);
+    _vals = vars.values().toArray(NO_VALS);
+    _tvars = tvars.keySet().toArray(NO_TVARS);
+    _tvals = tvars.values().toArray(NO_TYPES);
+    _thisClasses = thisVals.keySet().toArray(NO_CLASSES);
+    _thisVals = thisVals.values().toArray(NO_VALS);
   }
   
-  private RuntimeBindings() {
-    this(null, Collections.<LocalVariable, Object>emptyMap(),
-         Collections.<VariableType, Type>emptyMap(), Collections.<DJClass, Object>emptyMap());
+  /** Create a frame directly from its slot arrays; the arrays are not copied. */
+  private RuntimeBindings(RuntimeBindings parent, LocalVariable[] vars, Object[] vals, DJClass[] thisClasses,
+                          Object[] thisVals) {
+    _parent = parent;
+    _vars = vars;
+    _vals = vals;
+    _tvars = NO_TVARS;
+    _tvals = NO_TYPES;
+    _thisClasses = thisClasses;
+    _thisVals = thisVals;
   }
   
+  private RuntimeBindings() { this(null, NO_VARS, NO_VALS, NO_CLASSES, NO_VALS); }
+  
   public RuntimeBindings(RuntimeBindings parent, LocalVariable var, Object val) {
-    this(parent, Collections.singletonMap(var, val), Collections.<VariableType, Type>emptyMap(),
-         Collections.<DJClass, Object>emptyMap());
+    this(parent, new LocalVariable[]{ var }, new Object[]{ val }, NO_CLASSES, NO_VALS);
   }
   
   public RuntimeBindings(RuntimeBindings parent, Iterable<LocalVariable> vars, Iterable<Object> vals) {
-    this(parent, makeMap(vars, vals), Collections.<VariableType, Type>emptyMap(),
-         Collections.<DJClass, Object>emptyMap());
+    this(parent, vars, IterUtil.toArray(vals, Object.class));
+  }
+  
+  private RuntimeBindings(RuntimeBindings parent, Iterable<LocalVariable> vars, Object[] vals) {
+    // Like IterUtil.zip, ignore any excess variables or values
+    this(parent, IterUtil.toArray(IterUtil.truncate(vars, vals.length), LocalVariable.class), vals, NO_CLASSES,
+         NO_VALS);
   }
   
-  private static <K, V> Map<K, V> makeMap(Iterable<? extends K> keys, Iterable<? extends V> vals) {
-    Map<K, V> result = new HashMap<K, V>();
-    for (Pair<K, V> entry : IterUtil.zip(keys, vals)) { result.put(entry.first(), entry.second()); }
-    return result;
+  /** Create a frame with a slot for each of the given variables, all initially {@code null}.  The caller
+    * is expected to {@link #set} each variable before it is read (as a block does when evaluating the
+    * variable's declaration).  The array is not copied.
+    */
+  public RuntimeBindings(RuntimeBindings parent, LocalVariable[] vars) {
+    this(parent, vars, new Object[vars.length], NO_CLASSES, NO_VALS);
   }
   
   public RuntimeBindings(RuntimeBindings parent, DJClass thisClass, Object thisObj) {
-      this(parent, Collections.<LocalVariable, Object>emptyMap(),
-           Collections.<VariableType, Type>emptyMap(), Collections.singletonMap(thisClass, thisObj));
+    this(parent, NO_VARS, NO_VALS, new DJClass[]{ thisClass }, new Object[]{ thisObj });
   }
   
+  /** @return {@code true} iff {@code v} has a slot in this frame (ignoring the parent frames) */
+  public boolean bindsLocally(LocalVariable v) { return indexOf(_vars, v) >= 0; }
+  
   public Object get(LocalVariable v) {
-    if (_vars.containsKey(v)) { return _vars.get(v); }
-    else if (_parent != null) { return _parent.get(v); }
-    else { throw new IllegalArgumentException("Variable " + v + " is undefined"); }
+    for (RuntimeBindings b = this; b != null; b = b._parent) {
+      int i = indexOf(b._vars, v);
+      if (i >= 0) { return b._vals[i]; }
+    }
+    throw new IllegalArgumentException("Variable " + v + " is undefined");
   }
   
   public void set(LocalVariable v, Object val) {
-    if (_vars.containsKey(v)) { _vars.put(v, val); }
-    else if (_parent != null) { _parent.set(v, val); }
-    else { throw new IllegalArgumentException("Variable " + v + " is undefined"); }
+    for (RuntimeBindings b = this; b != null; b = b._parent) {
+      int i = indexOf(b._vars, v);
+      if (i >= 0) { b._vals[i] = val; return; }
+    }
+    throw new IllegalArgumentException("Variable " + v + " is undefined");
   }
 
   public Type get(VariableType v) {
-    if (_tvars.containsKey(v)) { return _tvars.get(v); }
-    else if (_parent != null) { return _parent.get(v); }
-    else { throw new IllegalArgumentException("Type variable " + v + " is undefined"); }
+    for (RuntimeBindings b = this; b != null; b = b._parent) {
+      for (int i = 0; i < b._tvars.length; i++) {
+        if (b._tvars[i].equals(v)) { return b._tvals[i]; }
+      }
+    }
+    throw new IllegalArgumentException("Type variable " + v + " is undefined");
   }
   
   public Object getThis(DJClass c) {
-    if (_thisVals.containsKey(c)) { return _thisVals.get(c); }
-    else if (_parent != null) { return _parent.getThis(c); }
-    else { throw new IllegalArgumentException("This value " + c + " is undefined"); }
+    for (RuntimeBindings b = this; b != null; b = b._parent) {
+      for (int i = 0; i < b._thisClasses.length; i++) {
+        if (b._thisClasses[i].equals(c)) { return b._thisVals[i]; }
+      }
+    }
+    throw new IllegalArgumentException("This value " + c + " is undefined");
+  }
+  
+  /** Identity search: every LocalVariable is a distinct entity (see {@link LocalVariable}). */
+  private static int indexOf(LocalVariable[] vars, LocalVariable v) {
+    for (int i = 0; i < vars.length; i++) {
+      if (vars[i] == v) { return i; }
+    }
+    return -1;
   }
 
 }
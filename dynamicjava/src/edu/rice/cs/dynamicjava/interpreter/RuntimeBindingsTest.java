@@ -0,0 +1,57 @@
+package edu.rice.cs.dynamicjava.interpreter;
+
+import junit.framework.TestCase;
+import edu.rice.cs.plt.iter.IterUtil;
+import edu.rice.cs.plt.tuple.Option;
+
+import edu.rice.cs.dynamicjava.Options;
+import edu.rice.cs.dynamicjava.symbol.LocalVariable;
+import edu.rice.cs.dynamicjava.symbol.TypeSystem;
+
+public class RuntimeBindingsTest extends TestCase {
+  
+  private static LocalVariable var(String name) { return new LocalVariable(name, TypeSystem.INT, false); }
+  
+  public void testFrames() {
+    LocalVariable x = var("x");
+    LocalVariable y = var("y");
+    LocalVariable z = var("z");
+    RuntimeBindings outer = new RuntimeBindings(RuntimeBindings.EMPTY, x, 1);
+    RuntimeBindings block = new RuntimeBindings(outer, new LocalVariable[]{ y, z });
+    assertTrue(block.bindsLocally(y));
+    assertFalse(block.bindsLocally(x));
+    assertNull(block.get(z));
+    block.set(y, 2);
+    block.set(x, 3);
+    assertEquals(2, block.get(y));
+    assertEquals(3, block.get(x));
+    assertEquals(3, outer.get(x));
+    try { outer.get(y); fail("y is not visible in the outer frame"); }
+    catch (IllegalArgumentException e) { /* expected */ }
+    
+    RuntimeBindings args = new RuntimeBindings(block, IterUtil.make(x, z), IterUtil.<Object>make(4, 5));
+    assertEquals(4, args.get(x));
+    assertEquals(5, args.get(z));
+    assertEquals(2, args.get(y));
+    assertEquals(3, outer.get(x));
+  }
+  
+  public void testBlockVariables() throws InterpreterException {
+    Interpreter i = new Interpreter(Options.DEFAULT);
+    i.interpret("int x = 1;");
+    assertEquals(Option.some(3), i.interpret("{ int y = 2; { int z = y + x; x = z; } } x"));
+    assertEquals(Option.some(45), i.interpret("int sum = 0; for (int k = 0; k < 10; k++) { int t = k; sum += t; } sum"));
+  }
+  
+  /** Each execution of a block must get its own variables, even if they are captured. */
+  public void testCapturedBlockVariables() throws InterpreterException {
+    Interpreter i = new Interpreter(Options.DEFAULT);
+    i.interpret("final StringBuilder sb = new StringBuilder();" +
+                "java.util.List<Runnable> rs = new java.util.ArrayList<Runnable>();" +
+                "for (int k = 0; k < 3; k++) {" +
+                "  final int j = k * 10;" +
+                "  rs.add(new Runnable() { public void run() { sb.append(j).append(','); } });" +
+                "}");
+    assertEquals(Option.some("0,10,20,"), i.interpret("for (Runnable r : rs) { r.run(); } sb.toString()"));
+  }
+}
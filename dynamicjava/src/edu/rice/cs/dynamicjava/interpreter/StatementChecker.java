@@ -78,6 +78,7 @@ import java.util.Set;
 import java.util.HashSet;
 import java.util.List;
 import java.util.LinkedList;
+import java.util.ArrayList;
 import edu.rice.cs.plt.iter.IterUtil;
 import edu.rice.cs.plt.tuple.Pair;
 import edu.rice.cs.plt.tuple.Option;
@@ -730,6 +731,13 @@ public class StatementChecker extends AbstractVisitor<TypeContext> implements La
    */
   @Override public TypeContext visit(BlockStatement node) {
     checkList(node.getStatements());
+    // Assign each variable declared in the block a slot in the block's frame
+    List<LocalVariable> vars = new ArrayList<LocalVariable>();
+    for (Node n : node.getStatements()) {
+      if (hasStatementTranslation(n)) { n = getStatementTranslation(n); }
+      if (n instanceof VariableDeclaration) { vars.add(getVariable(n)); }
+    }
+    setBlockVariables(node, vars.toArray(new LocalVariable[vars.size()]));
     return context;
   }
   
@@ -83,10 +83,14 @@ public class StatementEvaluator extends AbstractVisitor<StatementEvaluator.Resul
   @Override public Result visit(VariableDeclaration node) {
     // even when an initializer is present, there may be a reference to the uninitialized
     // variable in the initializer
+    LocalVariable var = getVariable(node);
     Object init = SymbolUtil.initialValue(getErasedType(node).value());
-    RuntimeBindings newB = new RuntimeBindings(_bindings, getVariable(node), init);
+    RuntimeBindings newB;
+    // Inside a block, the block's frame already has a slot for the variable
+    if (_bindings.bindsLocally(var)) { newB = _bindings; newB.set(var, init); }
+    else { newB = new RuntimeBindings(_bindings, var, init); }
     if (node.getInitializer() != null) {
-      newB.set(getVariable(node), new ExpressionEvaluator(newB, _opt).value(node.getInitializer()));
+      newB.set(var, new ExpressionEvaluator(newB, _opt).value(node.getInitializer()));
     }
     return new Result(newB);
   }
@@ -363,7 +367,13 @@ public class StatementEvaluator extends AbstractVisitor<StatementEvaluator.Resul
   }
   
   @Override public Result visit(BlockStatement node) {
-    return evaluateSequence(node.getStatements());
+    LocalVariable[] vars = hasBlockVariables(node) ? getBlockVariables(node) : null;
+    if (vars != null && vars.length > 0) {
+      // A fresh frame for each execution of the block, so that iterations of a loop don't share variables
+      RuntimeBindings frame = new RuntimeBindings(_bindings, vars);
+      return new StatementEvaluator(frame, _opt).evaluateSequence(node.getStatements());
+    }
+    else { return evaluateSequence(node.getStatements()); }
   }
   
   
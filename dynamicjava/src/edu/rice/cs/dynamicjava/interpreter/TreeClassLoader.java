@@ -1,7 +1,9 @@
 package edu.rice.cs.dynamicjava.interpreter;
 
+import java.util.Collections;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
 import edu.rice.cs.dynamicjava.Options;
 import edu.rice.cs.dynamicjava.symbol.TreeClass;
 import edu.rice.cs.plt.reflect.AbstractClassLoader;
@@ -16,19 +18,19 @@ import edu.rice.cs.plt.iter.IterUtil;
 public class TreeClassLoader extends AbstractClassLoader {
   
   private final Options _opt;
-  // trees that have been declared but not yet loaded
+  // trees that have been declared but not yet loaded; trees may be registered concurrently (by the SourceChecker)
   private final Map<String, TreeClass> _registeredTrees;
   private final Map<String, TreeCompiler.EvaluationAdapter> _adapters;
   
   public TreeClassLoader(ClassLoader parent, Options opt) {
-    this(parent, opt, new HashMap<String, TreeClass>());
+    this(parent, opt, new ConcurrentHashMap<String, TreeClass>());
   }
   
   private TreeClassLoader(ClassLoader parent, Options opt, Map<String, TreeClass> registeredTrees) {
     super(makeParent(parent, registeredTrees.keySet()));
     _opt = opt;
     _registeredTrees = registeredTrees;
-    _adapters = new HashMap<String, TreeCompiler.EvaluationAdapter>();
+    _adapters = Collections.synchronizedMap(new HashMap<String, TreeCompiler.EvaluationAdapter>());
   }
   
   private static ClassLoader makeParent(ClassLoader p, Iterable<String> registeredNames) {
@@ -41,7 +43,8 @@ public class TreeClassLoader extends AbstractClassLoader {
                     RuntimeBindings.class.getName(),
                     TreeClassLoader.class.getName(),
                     TreeCompiler.EvaluationAdapter.class.getName(),
-                    TreeCompiler.BindingsFactory.class.getName());
+                    TreeCompiler.BindingsFactory.class.getName(),
+                    TreeCompiler.CompiledMethod.class.getName());
     // For maximum flexibility, we let p load bootstrap classes
     // (except those listed above)
     ClassLoader implementationLoader =
@@ -75,5 +78,13 @@ public class TreeClassLoader extends AbstractClassLoader {
   public TreeCompiler.EvaluationAdapter getAdapter(String className) {
     return _adapters.get(className);
   }
+  
+  /**
+   * Define a class produced by a {@link MethodBodyCompiler}.  It is defined here so that it and the
+   * tree classes loaded by this loader can refer to each other.
+   */
+  public Class<?> defineCompiledMethod(String name, byte[] bytes) {
+    return defineClass(name, bytes, 0, bytes.length);
+  }
     
 }
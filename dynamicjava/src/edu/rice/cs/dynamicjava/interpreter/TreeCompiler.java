@@ -22,6 +22,7 @@ import koala.dynamicjava.tree.visitor.*;
 import koala.dynamicjava.interpreter.NodeProperties;
   
 import static org.objectweb.asm.Opcodes.*;
+import static edu.rice.cs.plt.debug.DebugUtil.debug;
 import static koala.dynamicjava.tree.ModifierSet.Modifier.*;
 
 /**
@@ -67,6 +68,10 @@ import static koala.dynamicjava.tree.ModifierSet.Modifier.*;
  * 
  * }
  * </pre>
+ * <p>Method bodies are tiered: once a method has been invoked
+ * {@link Options#methodCompilationThreshold} times, the adapter attempts to compile its body
+ * directly to bytecode with a {@link MethodBodyCompiler}, and subsequent invocations run the compiled
+ * code.  Bodies that use unsupported constructs continue to be interpreted.</p>
  */
 public class TreeCompiler {
   
@@ -120,12 +125,13 @@ public class TreeCompiler {
   private final EvaluationAdapter _adapter;
   private final String _name;
   private final boolean _java5;
-  private final Map<String, MethodDeclaration> _methods; // keys: name + descriptor
+  private final Map<String, InterpretedMethod> _methods; // keys: name + descriptor
   private final Map<String, ConstructorDeclaration> _constructors; // keys: descriptor
   private final Map<String, Initializer> _initializers; // keys: "class init x" or "instance init x"
   private final Map<String, Expression> _expressions; // keys: field names or "anon super arg x"
   private final List<Runnable2<MethodVisitor, StackSizeTracker>> _staticInits;
   private final List<Runnable2<MethodVisitor, StackSizeTracker>> _instanceInits;
+  private int _compiledMethodCount; // guarded by this; used to name compiled method bodies
   
   public TreeCompiler(TreeClass treeClass, Options opt) {
     _treeClass = treeClass;
@@ -134,12 +140,13 @@ public class TreeCompiler {
     _adapter = new EvaluationAdapter();
     _name = className(_treeClass);
     _java5 = JavaVersion.CURRENT.supports(JavaVersion.JAVA_5);
-    _methods = new HashMap<String, MethodDeclaration>();
+    _methods = new HashMap<String, InterpretedMethod>();
     _constructors = new HashMap<String, ConstructorDeclaration>();
     _initializers = new HashMap<String, Initializer>();
     _expressions = new HashMap<String, Expression>();
     _staticInits = new LinkedList<Runnable2<MethodVisitor, StackSizeTracker>>();
     _instanceInits = new LinkedList<Runnable2<MethodVisitor, StackSizeTracker>>();
+    _compiledMethodCount = 0;
   }
   
   // Use this to perform verification with the CheckClassAdapter:
@@ -628,7 +635,7 @@ public class TreeCompiler {
     
     if (!Modifier.isAbstract(access) && !Modifier.isNative(access)) {
       String key = ast.getName() + methodDescriptor;
-      _methods.put(key, ast);
+      _methods.put(key, new InterpretedMethod(ast));
       
       int[] paramLocations = computeParamLocations(params, 1);
       StackSizeTracker stack = new StackSizeTracker(paramLocations[params.size()]);
@@ -1290,7 +1297,10 @@ public class TreeCompiler {
      * @throws Throwable  Any exceptions (or errors) that occur during evaluation, without any wrapping.
      */
     public Object evaluateMethod(String key, RuntimeBindings bindings, Object[] args) throws Throwable {
-      MethodDeclaration decl = _methods.get(key);
+      InterpretedMethod method = _methods.get(key);
+      CompiledMethod compiled = method.compiled();
+      if (compiled != null) { return compiled.invoke(bindings, args); }
+      MethodDeclaration decl = method.declaration();
       RuntimeBindings methodBindings = bindArgs(bindings, decl.getParameters(), args);
       return evaluateBlock(decl.getBody(), NodeProperties.getErasedType(decl).value(), methodBindings);
     }
@@ -1390,6 +1400,72 @@ public class TreeCompiler {
     
   }
   
+  /**
+   * A method body that is interpreted until it has been invoked often enough to be worth compiling
+   * (see {@link Options#methodCompilationThreshold}).  Compilation is attempted at most once.
+   */
+  private class InterpretedMethod {
+    private final MethodDeclaration _decl;
+    private int _invocations; // unsynchronized: an approximate count is good enough
+    private volatile CompiledMethod _compiled;
+    private volatile boolean _uncompilable;
+    
+    public InterpretedMethod(MethodDeclaration decl) {
+      _decl = decl;
+      _invocations = 0;
+      _compiled = null;
+      _uncompilable = false;
+    }
+    
+    public MethodDeclaration declaration() { return _decl; }
+    
+    /** Count an invocation, and produce the compiled body, if it is (or has just become) available. */
+    public CompiledMethod compiled() {
+      if (_compiled == null && !_uncompilable) {
+        int threshold = _opt.methodCompilationThreshold();
+        if (threshold < 0) { _uncompilable = true; }
+        else if (_invocations++ >= threshold) { compile(); }
+      }
+      return _compiled;
+    }
+    
+    private void compile() {
+      // lock the compiler, rather than the method, to serialize naming of the compiled classes
+      synchronized (TreeCompiler.this) {
+        if (_compiled != null || _uncompilable) { return; }
+        try {
+          ClassLoader loader = _treeClass.load().getClassLoader();
+          if (!(loader instanceof TreeClassLoader)) { _uncompilable = true; return; }
+          String name = _name + "$$compiled" + (++_compiledMethodCount);
+          byte[] bytes = new MethodBodyCompiler(_treeClass, _name, name, _decl, _opt, loader).bytecode();
+          Class<?> c = ((TreeClassLoader) loader).defineCompiledMethod(name.replace('/', '.'), bytes);
+          _compiled = (CompiledMethod) c.newInstance();
+        }
+        catch (MethodBodyCompiler.UnsupportedConstructException e) {
+          debug.logValues(new String[]{ "method", "construct" }, _decl.getName(), e.node());
+          _uncompilable = true;
+        }
+        // a bug in the compiler shouldn't break the program -- keep interpreting
+        catch (RuntimeException e) { debug.log(e); _uncompilable = true; }
+        catch (LinkageError e) { debug.log(e); _uncompilable = true; }
+        catch (InstantiationException e) { debug.log(e); _uncompilable = true; }
+        catch (IllegalAccessException e) { debug.log(e); _uncompilable = true; }
+      }
+    }
+  }
+  
+  /**
+   * Superclass of the classes produced by {@link MethodBodyCompiler}.  Public so that it is accessible
+   * to those classes.
+   */
+  public static abstract class CompiledMethod {
+    /**
+     * Execute a method body, as in {@link EvaluationAdapter#evaluateMethod}.
+     * @throws Throwable  Any exceptions (or errors) that occur during evaluation, without any wrapping.
+     */
+    public abstract Object invoke(RuntimeBindings bindings, Object[] args) throws Throwable;
+  }
+  
   /**
    * A simple factory mapping an object to a RuntimeBindings in which that object is defined as "this".
    * See {@link EvaluationAdapter#makeBindingsFactory}.  By informal contract, all invocations of
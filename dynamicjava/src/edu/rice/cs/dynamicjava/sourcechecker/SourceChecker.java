@@ -11,12 +11,20 @@ import java.lang.reflect.Field;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.EnumSet;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 
 import koala.dynamicjava.interpreter.NodeProperties;
 import koala.dynamicjava.interpreter.error.ExecutionError;
@@ -43,6 +51,7 @@ import edu.rice.cs.plt.lambda.LambdaUtil;
 import edu.rice.cs.plt.lambda.Predicate2;
 import edu.rice.cs.plt.lambda.SimpleBox;
 import edu.rice.cs.plt.lambda.Thunk;
+import edu.rice.cs.plt.lambda.WrappedException;
 import edu.rice.cs.plt.recur.RecursionStack2;
 import edu.rice.cs.plt.reflect.PathClassLoader;
 import edu.rice.cs.plt.text.ArgumentParser;
@@ -54,18 +63,34 @@ public class SourceChecker {
 
   private final Options _opt;
   private final boolean _quiet;
+  private final int _threads;
   private int _statusCount;
   private Iterable<CompilationUnit> _processed;
+  /** The wall-clock time of each phase of the last check, in milliseconds. */
+  private final Map<String, Long> _timings;
   
-  public SourceChecker(Options opt, boolean quiet) {
+  public SourceChecker(Options opt, boolean quiet) { this(opt, quiet, 1); }
+  
+  /**
+   * @param threads  The number of threads used to parse files and to check class member bodies.  If greater
+   *                 than 1, these phases run concurrently; the other phases, in which classes depend on each other
+   *                 in order, always run in a single thread.  Results and errors are reported in the same order
+   *                 either way.
+   */
+  public SourceChecker(Options opt, boolean quiet, int threads) {
     _opt = opt;
     _quiet = quiet;
+    _threads = threads;
     _statusCount = 0;
     _processed = IterUtil.empty();
+    _timings = new LinkedHashMap<String, Long>();
   }
   
   public Iterable<CompilationUnit> processed() { return _processed; }
   
+  /** The wall-clock time, in milliseconds, of each phase of the last check, in the order the phases ran. */
+  public Map<String, Long> timings() { return Collections.unmodifiableMap(_timings); }
+  
   public void check(File... sources) throws InterpreterException {
     check(IterUtil.asIterable(sources), IterUtil.<File>empty());
   }
@@ -76,40 +101,63 @@ public class SourceChecker {
   
   public void check(Iterable<? extends File> sources, Iterable<? extends File> classPath)
                       throws InterpreterException {
-    Iterable<CompilationUnit> tree = parse(sources);
-    _processed = IterUtil.compose(_processed, tree);
-    TypeContext context = makeContext(tree, classPath);
-    Relation<TypeDeclaration, ClassChecker> decls = extractDeclarations(tree, context);
-    initializeClassSignatures(decls);
-    checkSignatures(decls);
-    checkBodies(decls);
+    _timings.clear();
+    ExecutorService executor = (_threads > 1) ? Executors.newFixedThreadPool(_threads, THREAD_FACTORY) : null;
+    try {
+      Iterable<CompilationUnit> tree = parse(sources, executor);
+      _processed = IterUtil.compose(_processed, tree);
+      TypeContext context = makeContext(tree, classPath);
+      Relation<TypeDeclaration, ClassChecker> decls = extractDeclarations(tree, context);
+      initializeClassSignatures(decls);
+      checkSignatures(decls);
+      checkConstants(decls);
+      checkBodies(decls, executor);
+    }
+    finally {
+      if (executor != null) { executor.shutdownNow(); }
+    }
   }
   
-  private Iterable<CompilationUnit> parse(Iterable<? extends File> sources) throws InterpreterException {
-    final List<CompilationUnit> result = new ArrayList<CompilationUnit>();
-    Iterable<File> files = IterUtil.collapse(IterUtil.map(sources, new Lambda<File, Iterable<File>>() {
+  private static final ThreadFactory THREAD_FACTORY = new ThreadFactory() {
+    public Thread newThread(Runnable r) {
+      Thread t = new Thread(r, "SourceChecker");
+      t.setDaemon(true);
+      return t;
+    }
+  };
+  
+  private Iterable<CompilationUnit> parse(Iterable<? extends File> sources, ExecutorService executor)
+                                           throws InterpreterException {
+    List<File> files = CollectUtil.makeList(IterUtil.collapse(IterUtil.map(sources, new Lambda<File, Iterable<File>>() {
       private final FileFilter _filter = IOUtil.extensionFilePredicate("java");
       public Iterable<File> value(File f) { return IOUtil.listFilesRecursively(f, _filter); }
-    }));
+    })));
+    // keyed by identity so that a file listed twice is parsed twice, as it is when parsing sequentially
+    final Map<File, CompilationUnit> parsed =
+      Collections.synchronizedMap(new IdentityHashMap<File, CompilationUnit>());
     new Phase<File>("Parsing") {
       protected void step(File source) throws InterpreterException {
         try {
           JavaCCParser parser = new JavaCCParser(new FileReader(source), source, _opt);
-          result.add(parser.parseCompilationUnit());
+          parsed.put(source, parser.parseCompilationUnit());
         }
         catch (ParseError e) { throw new ParserException(e); }
         catch (FileNotFoundException e) { throw new SourceException(e); }
       }
       protected SourceInfo location(File f) { return SourceInfo.point(f, 0, 0); }
-    }.run(files);
+    }.run(files, executor);
+    List<CompilationUnit> result = new ArrayList<CompilationUnit>(files.size());
+    for (File f : files) { result.add(parsed.get(f)); }
     return result;
   }
   
   private TypeContext makeContext(Iterable<CompilationUnit> sources, Iterable<? extends File> cp) {
+    long start = System.currentTimeMillis();
     Library classLib = SymbolUtil.classLibrary(new PathClassLoader(null, cp));
     debug.logStart("creating TreeLibrary");
     Library sourceLib = new TreeLibrary(sources, classLib.classLoader(), _opt);
     debug.logEnd("creating TreeLibrary");
+    _timings.put("Creating libraries", System.currentTimeMillis() - start);
     return new ImportContext(new LibraryContext(new LibraryContext(classLib), sourceLib), _opt);
   }
   
@@ -139,12 +187,21 @@ public class SourceChecker {
     }.run(decls);
   }
   
-  private void checkBodies(Relation<TypeDeclaration, ClassChecker> decls) throws InterpreterException {
-    new ClassCheckerPhase("Checking class member bodies") {
-      protected void step(TypeDeclaration ast, ClassChecker checker) { checker.checkBodies(ast); } 
+  private void checkConstants(Relation<TypeDeclaration, ClassChecker> decls) throws InterpreterException {
+    // bodies read the values of other classes' constants, so the constants are all known before any body is checked
+    new ClassCheckerPhase("Checking constant initializers") {
+      protected void step(TypeDeclaration ast, ClassChecker checker) { checker.checkConstants(ast); } 
     }.run(decls);
   }
   
+  private void checkBodies(Relation<TypeDeclaration, ClassChecker> decls, ExecutorService executor)
+                             throws InterpreterException {
+    // once all signatures and constants are known, the bodies of different classes can be checked independently
+    new ClassCheckerPhase("Checking class member bodies") {
+      protected void step(TypeDeclaration ast, ClassChecker checker) { checker.checkBodies(ast, true); } 
+    }.run(decls, executor);
+  }
+  
   
   private void startStatus(String description) {
     _statusCount = 0;
@@ -161,8 +218,8 @@ public class SourceChecker {
     if (!_quiet && (_statusCount % 10 == 0)) { System.out.print('*'); System.out.flush(); }
   }
   
-  private void endStatus() {
-    if (!_quiet) { System.out.println(); }
+  private void endStatus(long millis) {
+    if (!_quiet) { System.out.println(" (" + millis + " ms)"); }
   }
   
   
@@ -173,22 +230,63 @@ public class SourceChecker {
     protected abstract void step(T arg) throws InterpreterException;
     protected abstract SourceInfo location(T arg);
     
-    public void run(Iterable<? extends T> args) throws InterpreterException {
+    public void run(Iterable<? extends T> args) throws InterpreterException { run(args, null); }
+    
+    /**
+     * Run the steps in the given executor, if it is not null.  The steps must then be independent of each other.
+     * Errors are reported in the order of the arguments, whatever the order the steps finish in.
+     */
+    public void run(Iterable<? extends T> args, ExecutorService executor) throws InterpreterException {
       List<InterpreterException> errors = new ArrayList<InterpreterException>();
       debug.logStart(_description);
       startStatus(_description);
-      for (T arg : args) {
-        debug.logStart("location", location(arg));
-        try { step(arg); }
-        catch (InterpreterException e) { errors.add(e); }
-        catch (RuntimeException e) { errors.add(new InternalException(e, location(arg))); }
-        incrementStatus();
-        debug.logEnd();
-      }
-      endStatus();
+      long start = System.currentTimeMillis();
+      if (executor == null) {
+        for (T arg : args) {
+          InterpreterException e = runStep(arg);
+          if (e != null) { errors.add(e); }
+          incrementStatus();
+        }
+      }
+      else {
+        List<Future<InterpreterException>> results = new ArrayList<Future<InterpreterException>>();
+        for (final T arg : args) {
+          results.add(executor.submit(new Callable<InterpreterException>() {
+            public InterpreterException call() { return runStep(arg); }
+          }));
+        }
+        for (Future<InterpreterException> f : results) {
+          InterpreterException e = getResult(f);
+          if (e != null) { errors.add(e); }
+          incrementStatus();
+        }
+      }
+      long millis = System.currentTimeMillis() - start;
+      _timings.put(_description, millis);
+      endStatus(millis);
       debug.logEnd(_description);
       if (!errors.isEmpty()) { throw CompositeException.make(errors); }
     }
+    
+    /** Run a step, returning its error, if any. */
+    private InterpreterException runStep(T arg) {
+      debug.logStart("location", location(arg));
+      try { step(arg); return null; }
+      catch (InterpreterException e) { return e; }
+      catch (RuntimeException e) { return new InternalException(e, location(arg)); }
+      finally { debug.logEnd(); }
+    }
+    
+    /** Wait for the result of a step run in an executor; Errors in the step are rethrown, as when run directly. */
+    private InterpreterException getResult(Future<InterpreterException> f) {
+      try { return f.get(); }
+      catch (InterruptedException e) { throw new WrappedException(e); }
+      catch (ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof Error) { throw (Error) cause; }
+        else { throw new WrappedException(cause); }
+      }
+    }
   }
   
   private abstract class ClassCheckerPhase extends Phase<Pair<TypeDeclaration, ClassChecker>> {
@@ -265,16 +363,23 @@ public class SourceChecker {
     argParser.supportAlias("cp", "classpath");
     argParser.supportOption("opt", 1);
     argParser.supportOption("verbose");
+    argParser.supportOption("threads", 1);
     argParser.requireParams(1);
     final ArgumentParser.Result parsedArgs = argParser.parse(args);
     Iterable<File> cp = IOUtil.parsePath(parsedArgs.getUnaryOption("classpath"));
     Iterable<File> sources = IterUtil.map(parsedArgs.params(), IOUtil.FILE_FACTORY);
     boolean verbose = parsedArgs.hasOption("verbose");
+    int threads = 1;
+    if (parsedArgs.hasOption("threads")) {
+      try { threads = Integer.parseInt(parsedArgs.getUnaryOption("threads")); }
+      catch (NumberFormatException e) { System.out.println("Invalid number of threads: " + e.getMessage()); return; }
+      if (threads < 1) { threads = Runtime.getRuntime().availableProcessors(); }
+    }
     
     if (parsedArgs.hasOption("opt")) {
       Options opt = _options.get(parsedArgs.getUnaryOption("opt"));
       if (opt == null) { System.out.println("Unrecognized options name: " + parsedArgs.getUnaryOption("opt")); }
-      else { processFiles(sources, cp, opt); }
+      else { processFiles(sources, cp, opt, threads); }
     }
       
     else {
@@ -282,7 +387,7 @@ public class SourceChecker {
       Map<String, Iterable<CompilationUnit>> results = new LinkedHashMap<String, Iterable<CompilationUnit>>();
       for (String n : _options.keySet()) {
         System.out.println("============ Checking with type system " + n + " ============");
-        results.put(n, processFiles(sources, cp, _options.get(n)));
+        results.put(n, processFiles(sources, cp, _options.get(n), threads));
       }
       for (Map.Entry<String, Iterable<CompilationUnit>> e : results.entrySet()) {
         if (e.getKey().equals(canonical)) continue;
@@ -310,8 +415,10 @@ public class SourceChecker {
   }
   
   
-  private static Iterable<CompilationUnit> processFiles(Iterable<File> sources, Iterable<File> cp, Options opt) {
-    SourceChecker checker = new SourceChecker(opt, false);
+  private static Iterable<CompilationUnit> processFiles(Iterable<File> sources, Iterable<File> cp, Options opt,
+                                                        int threads) {
+    SourceChecker checker = new SourceChecker(opt, false, threads);
+    long start = System.currentTimeMillis();
     try {
       checker.check(sources, cp);
       System.out.println("Completed checking successfully.");
@@ -320,6 +427,8 @@ public class SourceChecker {
       debug.log(e);
       e.printUserMessage(new PrintWriter(System.out, true));
     }
+    System.out.println("Total time: " + (System.currentTimeMillis() - start) + " ms (" + threads +
+                       (threads == 1 ? " thread)" : " threads)"));
     return checker.processed();
   }
   
@@ -0,0 +1,88 @@
+package edu.rice.cs.dynamicjava.sourcechecker;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import edu.rice.cs.dynamicjava.Options;
+import edu.rice.cs.dynamicjava.interpreter.CompositeException;
+import edu.rice.cs.dynamicjava.interpreter.InterpreterException;
+import edu.rice.cs.plt.io.IOUtil;
+import edu.rice.cs.plt.iter.IterUtil;
+
+import koala.dynamicjava.tree.SourceInfo;
+
+public class SourceCheckerTest extends TestCase {
+  
+  private static final int CLASSES = 24;
+  
+  private File _dir;
+  
+  public void setUp() throws IOException {
+    _dir = IOUtil.createAndMarkTempDirectory("sourcechecker", "");
+  }
+  
+  public void tearDown() {
+    IOUtil.deleteRecursively(_dir);
+  }
+  
+  /**
+   * Write classes that refer to each other's constants and methods; if errors, every third has errors in a constant
+   * and in its body.  The constants are not literals, so their values are only known once their initializers have
+   * been checked.
+   */
+  private void writeClasses(boolean errors) throws IOException {
+    for (int i = 0; i < CLASSES; i++) {
+      String next = "C" + ((i + 1) % CLASSES);
+      StringBuilder src = new StringBuilder();
+      src.append("package p;\n");
+      src.append("public class C").append(i).append(" {\n");
+      src.append("  public static final int K = ").append(i).append(" * 1;\n");
+      if (errors && i % 3 == 0) { src.append("  public static final int E = \"e\";\n"); }
+      src.append("  public int m(int x) {\n");
+      src.append("    switch (x) { case ").append(next).append(".K: return new ").append(next).append("().m(x - 1); }\n");
+      if (errors && i % 3 == 0) {
+        src.append("    String s = x;\n");
+        src.append("    undefined(x);\n");
+      }
+      src.append("    return K;\n");
+      src.append("  }\n");
+      src.append("}\n");
+      IOUtil.writeStringToFile(new File(_dir, "C" + i + ".java"), src.toString());
+    }
+  }
+  
+  /** Check the classes with the given number of threads, returning the locations of the errors. */
+  private List<String> check(int threads) {
+    List<String> result = new ArrayList<String>();
+    SourceChecker checker = new SourceChecker(Options.DEFAULT, true, threads);
+    try { checker.check(_dir); }
+    catch (CompositeException e) {
+      for (InterpreterException ie : e.exceptions()) {
+        result.add(((SourceInfo.Wrapper) ie).getSourceInfo().toString());
+      }
+    }
+    catch (InterpreterException e) { fail("Unexpected exception: " + e); }
+    assertEquals(CLASSES, IterUtil.sizeOf(checker.processed()));
+    assertTrue(checker.timings().containsKey("Parsing"));
+    assertTrue(checker.timings().containsKey("Checking class member bodies"));
+    return result;
+  }
+  
+  public void testSuccess() throws IOException {
+    writeClasses(false);
+    assertEquals(0, check(1).size());
+    assertEquals(0, check(4).size());
+  }
+  
+  public void testErrorOrder() throws IOException {
+    writeClasses(true);
+    List<String> sequential = check(1);
+    assertEquals(3 * ((CLASSES + 2) / 3), sequential.size());
+    for (int i = 0; i < 5; i++) { assertEquals(sequential, check(4)); }
+  }
+  
+}
@@ -42,10 +42,16 @@ public interface DJClass extends Access.Limited, Access.Module {
 
   public Iterable<DJField> declaredFields();
   
+  /** List the declared fields with the given name (equivalent to filtering {@link #declaredFields()}) */
+  public Iterable<DJField> declaredFields(String name);
+  
   public Iterable<DJConstructor> declaredConstructors();
   
   public Iterable<DJMethod> declaredMethods();
   
+  /** List the declared methods with the given name (equivalent to filtering {@link #declaredMethods()}) */
+  public Iterable<DJMethod> declaredMethods(String name);
+  
   public Iterable<DJClass> declaredClasses();
   
   /**
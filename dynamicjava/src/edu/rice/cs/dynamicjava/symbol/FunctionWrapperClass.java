@@ -3,6 +3,7 @@ package edu.rice.cs.dynamicjava.symbol;
 import java.util.Iterator;
 import edu.rice.cs.plt.lambda.Lambda;
 import edu.rice.cs.plt.lambda.LambdaUtil;
+import edu.rice.cs.plt.lambda.Predicate;
 import edu.rice.cs.plt.iter.IterUtil;
 import edu.rice.cs.plt.iter.SequenceIterator;
 
@@ -65,8 +66,14 @@ public class FunctionWrapperClass implements DJClass {
   /** List the declared supertypes of this class */
   public Iterable<Type> declaredSupertypes() { return IterUtil.empty(); }
   public Iterable<DJField> declaredFields() { return IterUtil.empty(); }
+  public Iterable<DJField> declaredFields(String name) { return IterUtil.empty(); }
   public Iterable<DJConstructor> declaredConstructors() { return IterUtil.empty(); }
   public Iterable<DJMethod> declaredMethods() { return _methods; }
+  public Iterable<DJMethod> declaredMethods(final String name) {
+    return IterUtil.filter(_methods, new Predicate<DJMethod>() {
+      public boolean contains(DJMethod m) { return m.declaredName().equals(name); }
+    });
+  }
   public Iterable<DJClass> declaredClasses() { return IterUtil.empty(); }
 
   /**
@@ -56,17 +56,17 @@ public class Java5Class extends JavaClass {
     return superC == null ? superIs : IterUtil.compose(superC, superIs);
   }
   
-  @Override public Iterable<DJField> declaredFields() {
+  @Override protected Iterable<DJField> wrapDeclaredFields() {
     // CONVERT_FIELD is shadowed here to create a Java5Field
     return IterUtil.mapSnapshot(IterUtil.asIterable(_c.getDeclaredFields()), CONVERT_FIELD);
   }
   
-  @Override public Iterable<DJConstructor> declaredConstructors() {
+  @Override protected Iterable<DJConstructor> wrapDeclaredConstructors() {
     // CONVERT_CONSTRUCTOR is shadowed here to create a Java5Constructor
     return IterUtil.mapSnapshot(IterUtil.asIterable(_c.getDeclaredConstructors()), CONVERT_CONSTRUCTOR);
   }
   
-  @Override public Iterable<DJMethod> declaredMethods() {
+  @Override protected Iterable<DJMethod> wrapDeclaredMethods() {
     // CONVERT_METHOD is shadowed here to create a Java5Method
     Iterable<Method> ms = IterUtil.filter(IterUtil.asIterable(_c.getDeclaredMethods()), IS_NOT_BRIDGE);
     return IterUtil.mapSnapshot(ms, CONVERT_METHOD);
@@ -76,11 +76,15 @@ public class Java5Class extends JavaClass {
     public boolean contains(Method m) { return !m.isBridge(); }
   };
   
-  @Override public Iterable<DJClass> declaredClasses() {
+  @Override protected Iterable<DJClass> wrapDeclaredClasses() {
     // CONVERT_CLASS is shadowed here to create a Java5Class
     return IterUtil.mapSnapshot(IterUtil.asIterable(_c.getDeclaredClasses()), CONVERT_CLASS);
   }
   
+  @Override protected MemberCache memberCache() { return MEMBER_CACHE; }
+  
+  private static final MemberCache MEMBER_CACHE = new MemberCache();
+  
 
   /**
    * Return the type bound to {@code super} in the context of this class, or 
@@ -2,6 +2,12 @@ package edu.rice.cs.dynamicjava.symbol;
 
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Map;
+import java.util.HashMap;
+import java.util.WeakHashMap;
+import java.lang.ref.Reference;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
 import java.lang.reflect.*;
 
 import edu.rice.cs.dynamicjava.Options;
@@ -29,6 +35,7 @@ import static edu.rice.cs.plt.debug.DebugUtil.debug;
 public class JavaClass implements DJClass {
   
   protected Class<?> _c;
+  private volatile Members _members; // shared with other JavaClasses wrapping _c; see memberCache()
   
   public JavaClass(Class<?> c) { _c = c; }
   
@@ -83,22 +90,154 @@ public class JavaClass implements DJClass {
     return superC == null ? superIs : IterUtil.compose(superC, superIs);
   }
   
-  public Iterable<DJField> declaredFields() {
+  public Iterable<DJField> declaredFields() { return members().fields(this); }
+  
+  public Iterable<DJField> declaredFields(String name) {
+    return lookupName(members().fieldsByName(this), name);
+  }
+  
+  public Iterable<DJConstructor> declaredConstructors() { return members().constructors(this); }
+  
+  public Iterable<DJMethod> declaredMethods() { return members().methods(this); }
+  
+  public Iterable<DJMethod> declaredMethods(String name) {
+    return lookupName(members().methodsByName(this), name);
+  }
+  
+  public Iterable<DJClass> declaredClasses() { return members().classes(this); }
+  
+  /**
+   * Wrap the declared fields of the class.  Only invoked once per class and cache (see
+   * {@link #memberCache}); subclasses may override in order to produce specialized fields.
+   */
+  protected Iterable<DJField> wrapDeclaredFields() {
     return IterUtil.mapSnapshot(IterUtil.asIterable(_c.getDeclaredFields()), CONVERT_FIELD);
   }
   
-  public Iterable<DJConstructor> declaredConstructors() {
+  /** Wrap the declared constructors of the class.  Only invoked once per class and cache. */
+  protected Iterable<DJConstructor> wrapDeclaredConstructors() {
     return IterUtil.mapSnapshot(IterUtil.asIterable(_c.getDeclaredConstructors()), CONVERT_CONSTRUCTOR);
   }
   
-  public Iterable<DJMethod> declaredMethods() {
+  /** Wrap the declared methods of the class.  Only invoked once per class and cache. */
+  protected Iterable<DJMethod> wrapDeclaredMethods() {
     return IterUtil.mapSnapshot(IterUtil.asIterable(_c.getDeclaredMethods()), CONVERT_METHOD);
   }
   
-  public Iterable<DJClass> declaredClasses() {
+  /** Wrap the declared member classes of the class.  Only invoked once per class and cache. */
+  protected Iterable<DJClass> wrapDeclaredClasses() {
     return IterUtil.mapSnapshot(IterUtil.asIterable(_c.getDeclaredClasses()), CONVERT_CLASS);
   }
   
+  /**
+   * The cache in which this class's wrapped members are stored.  Subclasses that override the
+   * {@code wrapDeclared} methods must provide a distinct cache.
+   */
+  protected MemberCache memberCache() { return MEMBER_CACHE; }
+  
+  private static final MemberCache MEMBER_CACHE = new MemberCache();
+  
+  private Members members() {
+    Members result = _members;
+    if (result == null) { result = memberCache().get(_c); _members = result; }
+    return result;
+  }
+  
+  private static <T> Iterable<T> lookupName(Map<String, List<T>> index, String name) {
+    List<T> result = index.get(name);
+    if (result == null) { return IterUtil.empty(); }
+    else { return IterUtil.immutable(result); }
+  }
+  
+  /**
+   * A table mapping Class objects to their wrapped members, shared by all JavaClasses of the same
+   * kind.  Repeated lookups in a class (as occur, for example, during method resolution) thus avoid
+   * calls to the reflection API and the allocation of new wrappers.  Class keys are weakly held.
+   * The wrapped members necessarily refer to their class, so a cached value keeps its key alive:
+   * values are softly held only for classes of the bootstrap, extension, and system class loaders,
+   * which are never unloaded.  Values for other classes (like those defined by a TreeClassLoader) are
+   * weakly held, and so are only shared while some JavaClass still refers to them; they never
+   * prevent a class from being unloaded.
+   */
+  protected static final class MemberCache {
+    private final Map<Class<?>, Reference<Members>> _map = new WeakHashMap<Class<?>, Reference<Members>>();
+    
+    private synchronized Members get(Class<?> c) {
+      Reference<Members> ref = _map.get(c);
+      Members result = (ref == null) ? null : ref.get();
+      if (result == null) {
+        result = new Members();
+        if (isPermanent(c)) { _map.put(c, new SoftReference<Members>(result)); }
+        else { _map.put(c, new WeakReference<Members>(result)); }
+      }
+      return result;
+    }
+    
+    private static boolean isPermanent(Class<?> c) {
+      ClassLoader l = c.getClassLoader();
+      if (l == null) { return true; }
+      ClassLoader system = ClassLoader.getSystemClassLoader();
+      return l == system || (system != null && l == system.getParent());
+    }
+  }
+  
+  /**
+   * Lazily-wrapped members of a class.  The members are created by the first JavaClass to ask for
+   * them, which is passed in on each lookup rather than stored, and which they refer to.
+   */
+  private static final class Members {
+    private Iterable<DJField> _fields;
+    private Iterable<DJConstructor> _constructors;
+    private Iterable<DJMethod> _methods;
+    private Iterable<DJClass> _classes;
+    private Map<String, List<DJField>> _fieldsByName;
+    private Map<String, List<DJMethod>> _methodsByName;
+    
+    public synchronized Iterable<DJField> fields(JavaClass owner) {
+      if (_fields == null) { _fields = owner.wrapDeclaredFields(); }
+      return _fields;
+    }
+    
+    public synchronized Iterable<DJConstructor> constructors(JavaClass owner) {
+      if (_constructors == null) { _constructors = owner.wrapDeclaredConstructors(); }
+      return _constructors;
+    }
+    
+    public synchronized Iterable<DJMethod> methods(JavaClass owner) {
+      if (_methods == null) { _methods = owner.wrapDeclaredMethods(); }
+      return _methods;
+    }
+    
+    public synchronized Iterable<DJClass> classes(JavaClass owner) {
+      if (_classes == null) { _classes = owner.wrapDeclaredClasses(); }
+      return _classes;
+    }
+    
+    public synchronized Map<String, List<DJField>> fieldsByName(JavaClass owner) {
+      if (_fieldsByName == null) {
+        Map<String, List<DJField>> result = new HashMap<String, List<DJField>>();
+        for (DJField f : fields(owner)) { indexName(result, f.declaredName(), f); }
+        _fieldsByName = result;
+      }
+      return _fieldsByName;
+    }
+    
+    public synchronized Map<String, List<DJMethod>> methodsByName(JavaClass owner) {
+      if (_methodsByName == null) {
+        Map<String, List<DJMethod>> result = new HashMap<String, List<DJMethod>>();
+        for (DJMethod m : methods(owner)) { indexName(result, m.declaredName(), m); }
+        _methodsByName = result;
+      }
+      return _methodsByName;
+    }
+    
+    private static <T> void indexName(Map<String, List<T>> index, String name, T member) {
+      List<T> list = index.get(name);
+      if (list == null) { list = new ArrayList<T>(1); index.put(name, list); }
+      list.add(member);
+    }
+  }
+  
 
   /**
    * Return the type bound to {@code super} in the context of this class, or 
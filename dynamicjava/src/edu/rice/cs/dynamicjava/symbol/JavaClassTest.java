@@ -0,0 +1,110 @@
+package edu.rice.cs.dynamicjava.symbol;
+
+import java.lang.ref.WeakReference;
+import java.net.URL;
+import java.net.URLClassLoader;
+
+import junit.framework.TestCase;
+
+import edu.rice.cs.plt.iter.IterUtil;
+
+import edu.rice.cs.dynamicjava.Options;
+import edu.rice.cs.dynamicjava.interpreter.EvaluatorException;
+import edu.rice.cs.dynamicjava.interpreter.RuntimeBindings;
+
+public class JavaClassTest extends TestCase {
+
+  public static class Sample {
+    public int x;
+    public Sample(int x) { this.x = x; }
+    public static long add(int a, long b) { return a + b; }
+    public static String join(String sep, String... parts) {
+      StringBuilder result = new StringBuilder();
+      for (String p : parts) { if (result.length() > 0) { result.append(sep); } result.append(p); }
+      return result.toString();
+    }
+    public int plus(int y) { return x + y; }
+    public void bump() { x++; }
+    public int fail(int n) { if (n > 0) { throw new IllegalStateException("n=" + n); } return n; }
+    private char first(String s) { return s.charAt(0); }
+  }
+
+  private static DJMethod method(DJClass c, String name) {
+    return IterUtil.first(c.declaredMethods(name));
+  }
+
+  private static Object call(DJMethod m, Object receiver, Object... args) throws EvaluatorException {
+    return m.evaluate(receiver, IterUtil.asIterable(args), RuntimeBindings.EMPTY, Options.DEFAULT);
+  }
+
+  public void testMemberCache() {
+    DJClass c1 = SymbolUtil.wrapClass(Sample.class);
+    DJClass c2 = SymbolUtil.wrapClass(Sample.class);
+    assertNotSame(c1, c2);
+    assertSame(method(c1, "plus"), method(c2, "plus"));
+    assertSame(IterUtil.first(c1.declaredFields("x")), IterUtil.first(c2.declaredFields("x")));
+    assertEquals(IterUtil.sizeOf(c1.declaredMethods()), IterUtil.sizeOf(c2.declaredMethods()));
+    assertTrue(IterUtil.isEmpty(c1.declaredMethods("missing")));
+    assertTrue(IterUtil.isEmpty(c1.declaredFields("plus")));
+    for (DJMethod m : c1.declaredMethods()) {
+      assertTrue(IterUtil.contains(c1.declaredMethods(m.declaredName()), m));
+    }
+
+    // a JavaClass has a distinct cache, since its members are not Java5 members
+    DJClass plain = new JavaClass(Sample.class);
+    assertNotSame(method(plain, "plus"), method(c1, "plus"));
+    assertEquals(IterUtil.sizeOf(plain.declaredMethods("plus")), IterUtil.sizeOf(c1.declaredMethods("plus")));
+  }
+
+  public void testMemberCacheAllowsUnloading() throws Exception {
+    URL codeBase = Sample.class.getProtectionDomain().getCodeSource().getLocation();
+    ClassLoader loader = new URLClassLoader(new URL[]{ codeBase }, null);
+    Class<?> c = loader.loadClass(Sample.class.getName());
+    assertNotSame(Sample.class, c);
+    DJClass wrapped = SymbolUtil.wrapClass(c);
+    assertNotNull(method(wrapped, "plus"));
+    assertSame(method(wrapped, "plus"), method(SymbolUtil.wrapClass(c), "plus"));
+    
+    WeakReference<Class<?>> ref = new WeakReference<Class<?>>(c);
+    loader = null;
+    c = null;
+    wrapped = null;
+    for (int i = 0; i < 10 && ref.get() != null; i++) { System.gc(); Thread.sleep(10); }
+    assertNull("Cached members should not keep the class alive", ref.get());
+  }
+
+  public void testEvaluate() throws EvaluatorException {
+    DJClass c = SymbolUtil.wrapClass(Sample.class);
+    Sample s = new Sample(3);
+    // iterate past the point at which reflection switches to a generated accessor
+    for (int i = 0; i < 20; i++) {
+      assertEquals(Long.valueOf(i + 10L), call(method(c, "add"), null, i, 10L));
+      assertEquals("a-b-" + i, call(method(c, "join"), null, "-", new String[]{ "a", "b", "" + i }));
+      assertEquals(Integer.valueOf(s.x + i), call(method(c, "plus"), s, i));
+      assertEquals(Character.valueOf('q'), call(method(c, "first"), s, "q" + i));
+      assertNull(call(method(c, "bump"), s));
+    }
+    assertEquals(23, s.x);
+  }
+
+  public void testExceptions() throws EvaluatorException {
+    DJClass c = SymbolUtil.wrapClass(Sample.class);
+    Sample s = new Sample(0);
+    for (int i = 0; i < 20; i++) {
+      assertEquals(Integer.valueOf(-i), call(method(c, "fail"), s, -i));
+      try { call(method(c, "fail"), s, i+1); fail("Expected an exception"); }
+      catch (EvaluatorException e) {
+        assertTrue(e.getCause() instanceof IllegalStateException);
+        assertEquals("n=" + (i+1), e.getCause().getMessage());
+        // the interpreter's calling context should be removed from the stack trace
+        StackTraceElement[] stack = e.getCause().getStackTrace();
+        assertEquals("fail", stack[0].getMethodName());
+        for (StackTraceElement elt : stack) { assertFalse(elt.getClassName().equals(getClass().getName())); }
+      }
+    }
+    try { call(method(c, "plus"), null, 1); fail("Expected an exception"); }
+    catch (EvaluatorException e) { fail("Expected a wrapped exception"); }
+    catch (RuntimeException e) { /* expected */ }
+  }
+
+}
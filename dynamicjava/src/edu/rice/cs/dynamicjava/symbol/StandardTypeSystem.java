@@ -1884,7 +1884,7 @@ public abstract class StandardTypeSystem extends TypeSystem {
         }
         @Override public Iterable<DJMethod> forClassType(ClassType t) {
           List<DJMethod> result = new LinkedList<DJMethod>();
-          for (DJMethod m : t.ofClass().declaredMethods()) {
+          for (DJMethod m : t.ofClass().declaredMethods(_name)) {
             if (matches(m)) { result.add(instantiateMethod(m, t)); }
           }
           if (!_onlyStatic && _name.equals("getClass")) {
@@ -1982,7 +1982,7 @@ public abstract class StandardTypeSystem extends TypeSystem {
           else { return IterUtil.empty(); }
         }
         @Override public Iterable<T> forClassType(ClassType t) {
-          for (DJField f : t.ofClass().declaredFields()) {
+          for (DJField f : t.ofClass().declaredFields(_name)) {
             if (matches(f)) { return IterUtil.make(makeFieldReference(t, f)); }
           }
           return IterUtil.empty();
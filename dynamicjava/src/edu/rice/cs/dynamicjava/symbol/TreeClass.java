@@ -6,6 +6,7 @@ import java.util.LinkedList;
 import edu.rice.cs.plt.lambda.Thunk;
 import edu.rice.cs.plt.lambda.LazyThunk;
 import edu.rice.cs.plt.lambda.Box;
+import edu.rice.cs.plt.lambda.Predicate;
 import edu.rice.cs.plt.tuple.Option;
 import edu.rice.cs.plt.tuple.Pair;
 import edu.rice.cs.plt.iter.IterUtil;
@@ -264,10 +265,22 @@ public class TreeClass implements DJClass {
   
   public Iterable<DJField> declaredFields() { return IterUtil.<DJField>immutable(_fields); }
   
+  public Iterable<DJField> declaredFields(final String name) {
+    return IterUtil.filter(declaredFields(), new Predicate<DJField>() {
+      public boolean contains(DJField f) { return f.declaredName().equals(name); }
+    });
+  }
+  
   public Iterable<DJConstructor> declaredConstructors() { return IterUtil.<DJConstructor>immutable(_constructors); }
   
   public Iterable<DJMethod> declaredMethods() { return IterUtil.<DJMethod>immutable(_methods); }
   
+  public Iterable<DJMethod> declaredMethods(final String name) {
+    return IterUtil.filter(declaredMethods(), new Predicate<DJMethod>() {
+      public boolean contains(DJMethod m) { return m.declaredName().equals(name); }
+    });
+  }
+  
   public Iterable<DJClass> declaredClasses() { return IterUtil.<DJClass>immutable(_classes); }
   
   /**
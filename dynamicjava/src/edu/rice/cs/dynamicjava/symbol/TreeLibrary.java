@@ -1,5 +1,10 @@
 package edu.rice.cs.dynamicjava.symbol;
 
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
 import koala.dynamicjava.interpreter.NodeProperties;
 import koala.dynamicjava.tree.CompilationUnit;
 import koala.dynamicjava.tree.Node;
@@ -8,15 +13,12 @@ import koala.dynamicjava.tree.TypeDeclaration;
 
 import edu.rice.cs.dynamicjava.Options;
 import edu.rice.cs.dynamicjava.interpreter.TreeClassLoader;
-import edu.rice.cs.plt.collect.IndexedInjectiveRelation;
-import edu.rice.cs.plt.collect.InjectiveRelation;
-import edu.rice.cs.plt.collect.TotalMap;
 import edu.rice.cs.plt.iter.IterUtil;
-import edu.rice.cs.plt.lambda.Lambda;
 
 public class TreeLibrary implements Library {
   
-  private final TotalMap<String, InjectiveRelation<String, DJClass>> _packages;
+  /** The declared classes by fully-qualified name; not modified after construction, so lookups are thread-safe. */
+  private final Map<String, List<DJClass>> _classes;
   private final TreeClassLoader _loader;
 
   /**
@@ -27,38 +29,29 @@ public class TreeLibrary implements Library {
    * operations of DJClass will fail.
    */
   public TreeLibrary(Iterable<CompilationUnit> cus, ClassLoader parentLoader, Options opt) {
-    _packages = new TotalMap<String, InjectiveRelation<String, DJClass>>(
-        new Lambda<String, InjectiveRelation<String, DJClass>>() {
-          public InjectiveRelation<String, DJClass> value(String pkg) {
-            return new IndexedInjectiveRelation<String, DJClass>();
-          }
-        }, true);
+    _classes = new HashMap<String, List<DJClass>>();
     _loader = new TreeClassLoader(parentLoader, opt); 
     for (CompilationUnit cu : cus) {
       PackageDeclaration pd = cu.getPackage();
       String pkg = (pd == null) ? "" : pd.getName();
-      InjectiveRelation<String, DJClass> classes = _packages.get(pkg);
       for (Node ast : cu.getDeclarations()) {
         if (ast instanceof TypeDeclaration) {
           String declaredName = ((TypeDeclaration) ast).getName();
           String fullName = pkg.equals("") ? declaredName : pkg + "." + declaredName;
           DJClass c = new TreeClass(fullName, null, null, ast, _loader, opt);
           NodeProperties.setDJClass(ast, c);
-          classes.add(declaredName, c);
+          List<DJClass> classes = _classes.get(fullName);
+          if (classes == null) { classes = new LinkedList<DJClass>(); _classes.put(fullName, classes); }
+          classes.add(c);
         }
       }
     }
   }
   
   public Iterable<DJClass> declaredClasses(String fullName) {
-    String packageName, className;
-    int dot = fullName.lastIndexOf('.');
-    if (dot == -1) { packageName = ""; className = fullName; }
-    else { packageName = fullName.substring(0, dot); className = fullName.substring(dot + 1); }
-    if (_packages.containsOverride(packageName)) {
-      return _packages.get(packageName).matchFirst(className);
-    }
-    else { return IterUtil.empty(); }
+    List<DJClass> result = _classes.get(fullName);
+    if (result == null) { return IterUtil.empty(); }
+    else { return IterUtil.immutable(result); }
   }
 
   public ClassLoader classLoader() { return _loader; }
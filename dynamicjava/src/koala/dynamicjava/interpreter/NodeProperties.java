@@ -292,6 +292,24 @@ public class NodeProperties {
     };
     
     
+    /** The LocalVariables declared directly in a block, in declaration order; each variable's index is its
+      * slot in the block's RuntimeBindings frame */
+    public final static String BLOCK_VARIABLES = "blockVariables";
+    
+    public static LocalVariable[] getBlockVariables(Node n) {
+      return (LocalVariable[]) n.getProperty(BLOCK_VARIABLES);
+    }
+    
+    public static LocalVariable[] setBlockVariables(Node n, LocalVariable[] vars) {
+      n.setProperty(BLOCK_VARIABLES, vars);
+      return vars;
+    }
+    
+    public static boolean hasBlockVariables(Node n) {
+      return n.hasProperty(BLOCK_VARIABLES);
+    }
+    
+    
     /** DJConstructor used by a constructor invocation */
     public final static String CONSTRUCTOR = "constructor";
 
@@ -103,12 +103,15 @@ public abstract class Node implements SourceInfo.Wrapper {
   
   // Properties support //////////////////////////////////////////////////
   
+  // Property access is synchronized on the node: the SourceChecker checks the bodies of different classes
+  // concurrently, and a check may read the properties of nodes in another class (such as a constant's initializer).
+  
   /**
    * Sets the value of a property
    * @param name  the property name
    * @param value the new value to set
    */
-  public void setProperty(String name, Object value) {
+  public synchronized void setProperty(String name, Object value) {
     properties.put(name, value);
   }
   
@@ -117,31 +120,33 @@ public abstract class Node implements SourceInfo.Wrapper {
    * @param name  the property name
    * @return null if the property was not previously set
    */
-  public Object getProperty(String name) {
-    if (!properties.containsKey(name)) { 
+  public synchronized Object getProperty(String name) {
+    Object result = properties.get(name);
+    // only a null result needs a second lookup to distinguish a null value from a missing property
+    if (result == null && !properties.containsKey(name)) { 
       throw new IllegalStateException("Property '" + name + "' is not initialized");
     }
-    return properties.get(name);
+    return result;
   }
   
   /**
    * Returns the defined properties for this node.
-   * @return a set of string
+   * @return a snapshot of the property names
    */
-  public Set<String> getProperties() {
-    return properties.keySet();
+  public synchronized Set<String> getProperties() {
+    return new HashSet<String>(properties.keySet());
   }
   
   /**
    * Returns true if a property is defined for this node
    * @param name the name of the property
    */
-  public boolean hasProperty(String name) {
+  public synchronized boolean hasProperty(String name) {
     return properties.containsKey(name);
   }
   
   /** Change the names of all properties by prefixing each name with the given string. */
-  public void archiveProperties(String prefix) {
+  public synchronized void archiveProperties(String prefix) {
     Map<String, Object> newProps = new HashMap<String, Object>();
     for (Map.Entry<String, Object> e : properties.entrySet()) { newProps.put(prefix + e.getKey(), e.getValue()); }
     properties.clear();
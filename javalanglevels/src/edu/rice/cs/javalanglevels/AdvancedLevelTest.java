@@ -214,6 +214,44 @@ public class AdvancedLevelTest extends TestCase {
         
   }
   
+  /** Make sure that parsing and augmenting files concurrently yields the same errors, in the same order, and the same
+    * conversions as converting them one at a time, and that each converter leaves the thread's converter in place. */
+  public void testConcurrentConversion() throws IOException {
+    _log.log("Running testConcurrentConversion");
+    LanguageLevelConverter current = LanguageLevelConverter.current();
+    List<File> files = new ArrayList<File>();
+    files.addAll(Arrays.asList(dir1.listFiles(dj2Filter)));
+    files.addAll(Arrays.asList(dir2.listFiles(dj2Filter)));
+    files.addAll(Arrays.asList(dir3.listFiles(dj2Filter)));
+    File[] testFiles = files.toArray(new File[files.size()]);
+    File[] brokenFiles = new File(dir1, "shouldBreak").listFiles(dj2Filter);
+    Options opt = new Options(JavaVersion.JAVA_8, IterUtil.<File>empty());
+    
+    Pair<LinkedList<JExprParseException>, LinkedList<Pair<String, JExpressionIF>>> serial, concurrent;
+    serial = new LanguageLevelConverter(1).convert(testFiles, opt);
+    List<String> serialOutput = new ArrayList<String>();
+    for (File f : testFiles) { serialOutput.add(IOUtil.toString(_javaFile(f))); }
+    concurrent = new LanguageLevelConverter(4).convert(testFiles, opt);
+    assertEquals(serial.toString(), concurrent.toString());
+    for (int i = 0; i < testFiles.length; i++) {
+      assertEquals("Conversion of " + testFiles[i].getName(), serialOutput.get(i),
+                   IOUtil.toString(_javaFile(testFiles[i])));
+    }
+    
+    serial = new LanguageLevelConverter(1).convert(brokenFiles, opt);
+    concurrent = new LanguageLevelConverter(4).convert(brokenFiles, opt);
+    assertFalse("should be parse exceptions", serial.getFirst().isEmpty());
+    assertEquals(serial.getFirst().toString(), concurrent.getFirst().toString());
+    assertEquals(serial.getSecond().toString(), concurrent.getSecond().toString());
+    assertSame(current, LanguageLevelConverter.current());
+  }
+  
+  /** @return the .java file that a .dj2 file is converted to */
+  private static File _javaFile(File f) {
+    String path = f.getPath();
+    return new File(path.substring(0, path.length() - 4) + ".java");
+  }
+  
   /** This file used to have a NullPointer Exception in it because of a bug in the code.  Leave the test in so that the bug
     * never gets reintroduced.
     */
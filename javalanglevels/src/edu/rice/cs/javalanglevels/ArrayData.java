@@ -228,8 +228,8 @@ public class ArrayData extends SymbolData {
                                      new Hashtable<String, Triple<SourceInfo, LanguageLevelVisitor, SymbolData>>(),
                                      new LinkedList<Command>());
       
-      LanguageLevelConverter.symbolTable.clear();
-      LanguageLevelConverter._newSDs.clear();
+      LanguageLevelConverter.symbolTable().clear();
+      LanguageLevelConverter.newSDs().clear();
       si = SourceInfo.NONE;
       SymbolData e = new SymbolData("elementType");
       e.setIsContinuation(false);
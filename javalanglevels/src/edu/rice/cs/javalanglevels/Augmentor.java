@@ -55,39 +55,42 @@ public class Augmentor extends JExpressionIFDepthFirstVisitor<Void> {
   private static final int indentWidth = 2; // TODO: get this from DrJava?
 
   
-  /** IDIOCY Pointer:  Why are all these private fields static?  They are set in the constructor.  Was this design 
-    * choice made to ensure only one Augmentor exists at a time by clobbering fields.  Stupid, stupid, stupid. */
+  /** The state of the augmentation of one file, shared by the Augmentors of its class and method bodies. */
+  private static final class FileState {
+    /** The original source file to be augmented. */
+    BufferedReader _fileIn;
   
-  /** The original source file to be augmented. */
-  static private BufferedReader _fileIn;
+    /** The current line number in _fileIn. */
+    int _fileInLine;
   
-  /** The current line number in _fileIn. */
-  static private int _fileInLine;
+    /** The current column number in _fileIn.  This is the 1 greater than the last column read. */
+    int _fileInColumn;
   
-  /** The current column number in _fileIn.  This is the 1 greater than the last column read. */
-  static private int _fileInColumn;
+    /** The destination file. */
+    BufferedWriter _fileOut;
   
-  /** The destination file. */
-  static private BufferedWriter _fileOut;
+    /** The current line number in _fileOut. */
+    int _fileOutLine;
   
-  /** The current line number in _fileOut. */
-  static private int _fileOutLine;
-  
-  /** The dj* line number to which the current line number in _fileOut corresponds. */
-  static private int _fileOutCorrespondingLine;
+    /** The dj* line number to which the current line number in _fileOut corresponds. */
+    int _fileOutCorrespondingLine;
 
-  /** A map from original dj* line number to generated java line number. */
-  static private TreeMap<Integer,Integer> _lineNumberMap;
+    /** A map from original dj* line number to generated java line number. */
+    TreeMap<Integer,Integer> _lineNumberMap;
+  
+    /** The symbol information from this source tree. */
+    LanguageLevelVisitor _llv;
   
-  /** The symbol information from this source tree. */
-  static private LanguageLevelVisitor _llv;
+    /** If true, generated toString, hashCode, & equals methods should correctly handle arrays & infinitely recursive
+      * structures */
+    boolean _safeSupportCode;
   
-  /** If true, generated toString, hashCode, & equals methods should correctly handle arrays & infinitely recursive
-    * structures */
-  static private boolean _safeSupportCode;
+    /** A String of variable definitions to be written at the end of the top-level class definitions */
+    List<String> _endOfClassVarDefs;
+  }
   
-  /** A String of variable definitions to be written at the end of the top-level class definitions */
-  static private List<String> _endOfClassVarDefs;
+  /** The state of the file being augmented. */
+  private final FileState _state;
   
   /** The SymbolData enclosing whatever we are currently augmenting.*/
   private SymbolData _enclosingData;
@@ -99,25 +102,30 @@ public class Augmentor extends JExpressionIFDepthFirstVisitor<Void> {
     * @param llv  The LanguageLevelVisitor that was used to traverse the language level file.
     */
   public Augmentor(boolean safeSupportCode, BufferedReader fileIn, BufferedWriter fileOut, LanguageLevelVisitor llv) {
-    _fileIn = fileIn;
-    _fileInLine = 1;
-    _fileInColumn = 1;
-    _fileOut = fileOut;
-    _fileOutLine = 1;
-    _fileOutCorrespondingLine = 1;
-    _lineNumberMap = new TreeMap<Integer,Integer>();
-    _llv = llv;
-    _safeSupportCode = safeSupportCode;
-    _endOfClassVarDefs = new LinkedList<String>();
+    _state = new FileState();
+    _state._fileIn = fileIn;
+    _state._fileInLine = 1;
+    _state._fileInColumn = 1;
+    _state._fileOut = fileOut;
+    _state._fileOutLine = 1;
+    _state._fileOutCorrespondingLine = 1;
+    _state._lineNumberMap = new TreeMap<Integer,Integer>();
+    _state._llv = llv;
+    _state._safeSupportCode = safeSupportCode;
+    _state._endOfClassVarDefs = new LinkedList<String>();
     
     _enclosingData = null;
   }
   
-  /** Create another Augmentor sharing the same static fields as the current Augmentor, but with a new _enclosingData d.
+  /** Create another Augmentor sharing the file state of the given Augmentor, but with a new _enclosingData d.
     * This constructor should only be called from within another Augmentor.
+    * @param outer  The Augmentor of the enclosing body.
     * @param d  The EnclosingData from which this Augmentor works.
     */
-  protected Augmentor(SymbolData d) { _enclosingData = d; }
+  protected Augmentor(Augmentor outer, SymbolData d) {
+    _state = outer._state;
+    _enclosingData = d;
+  }
   
   /** This method is called by default from cases that do not override forCASEOnly. */
   protected Void defaultCase(JExpressionIF that) { return null; } 
@@ -224,7 +232,7 @@ public class Augmentor extends JExpressionIFDepthFirstVisitor<Void> {
       throw new RuntimeException("Internal Program Error: Can't find method data for " + that.getName() + 
                                  " Please report this bug."); 
     }
-    that.getBody().visit(new MethodBodyAugmentor(enclosing));
+    that.getBody().visit(new MethodBodyAugmentor(this, enclosing));
     return null;
   }
   
@@ -235,7 +243,7 @@ public class Augmentor extends JExpressionIFDepthFirstVisitor<Void> {
     */
   public Void forClassDef(ClassDef cd) {
     String className = cd.getName().getText();
-    SymbolData sd = _llv.symbolTable.get(_llv.getQualifiedClassName(className));
+    SymbolData sd = _state._llv.symbolTable.get(_state._llv.getQualifiedClassName(className));
     if (sd == null) { throw new RuntimeException("Internal Program Error: Can't find SymbolData for " + 
                                                  cd.getName().getText() + " Please report this bug."); }
     
@@ -260,7 +268,7 @@ public class Augmentor extends JExpressionIFDepthFirstVisitor<Void> {
     
     BracedBody bb = cd.getBody();
     sd.setAnonymousInnerClassNum(0);
-    bb.visit(new Augmentor(sd));
+    bb.visit(new Augmentor(this, sd));
     
     int baseIndent = cd.getSourceInfo().getStartColumn() - 1;
     className = LanguageLevelVisitor.getUnqualifiedClassName(sd.getName());
@@ -275,12 +283,12 @@ public class Augmentor extends JExpressionIFDepthFirstVisitor<Void> {
     writeToString(sd, baseIndent, valueToStringName);
     writeEquals(className, sd, baseIndent, valueEqualsName);
     writeHashCode(className, sd, baseIndent, false, valueHashCodeName);
-    for (String s : _endOfClassVarDefs) {
+    for (String s : _state._endOfClassVarDefs) {
       _writeToFileOut(newLine + indentString(baseIndent, 1) + s);
     }
-    if (_endOfClassVarDefs.size() > 0) {
+    if (_state._endOfClassVarDefs.size() > 0) {
       _writeToFileOut(newLine);
-      _endOfClassVarDefs.clear();
+      _state._endOfClassVarDefs.clear();
     }
     _writeToFileOut(indentString(baseIndent, 0));
     
@@ -309,7 +317,7 @@ public class Augmentor extends JExpressionIFDepthFirstVisitor<Void> {
     /** WARNING: the code suffix copied from ClassDef; it it works it should be refactored. */
     BracedBody bb = cd.getBody();
     sd.setAnonymousInnerClassNum(0);
-    bb.visit(new Augmentor(sd));
+    bb.visit(new Augmentor(this, sd));
     
     int baseIndent = cd.getSourceInfo().getStartColumn() - 1;
     className = LanguageLevelVisitor.getUnqualifiedClassName(sd.getName());
@@ -324,12 +332,12 @@ public class Augmentor extends JExpressionIFDepthFirstVisitor<Void> {
     writeToString(sd, baseIndent, valueToStringName);
     writeEquals(className, sd, baseIndent, valueEqualsName);
     writeHashCode(className, sd, baseIndent, false, valueHashCodeName);
-    for (String s : _endOfClassVarDefs) {
+    for (String s : _state._endOfClassVarDefs) {
       _writeToFileOut(newLine + indentString(baseIndent, 1) + s);
     }
-    if (_endOfClassVarDefs.size() > 0) {
+    if (_state._endOfClassVarDefs.size() > 0) {
       _writeToFileOut(newLine);
-      _endOfClassVarDefs.clear();
+      _state._endOfClassVarDefs.clear();
     }
     _writeToFileOut(indentString(baseIndent, 0));
     
@@ -356,7 +364,7 @@ public class Augmentor extends JExpressionIFDepthFirstVisitor<Void> {
     */
   public Void forInterfaceDef(InterfaceDef cd) {
     String interfaceName = cd.getName().getText();
-    SymbolData sd = _llv.symbolTable.get(_llv.getQualifiedClassName(interfaceName));
+    SymbolData sd = _state._llv.symbolTable.get(_state._llv.getQualifiedClassName(interfaceName));
     if (sd == null) { throw new RuntimeException("Internal Program Error: Can't find SymbolData for " +
                                                  cd.getName().getText() + ".  Please report this bug."); }
     ModifiersAndVisibility m = cd.getMav();
@@ -369,16 +377,16 @@ public class Augmentor extends JExpressionIFDepthFirstVisitor<Void> {
 
     BracedBody bb = cd.getBody();
     sd.setAnonymousInnerClassNum(0);
-    bb.visit(new Augmentor(sd));
+    bb.visit(new Augmentor(this, sd));
     
     int baseIndent = cd.getSourceInfo().getStartColumn() - 1;
     _readAndWriteThroughIndex(cd.getSourceInfo().getEndLine(), cd.getSourceInfo().getEndColumn() - 1);
-    for (String s : _endOfClassVarDefs) {
+    for (String s : _state._endOfClassVarDefs) {
       _writeToFileOut(newLine + indentString(baseIndent, 1) + s);
     }
-    if (_endOfClassVarDefs.size() > 0) {
+    if (_state._endOfClassVarDefs.size() > 0) {
       _writeToFileOut(newLine);
-      _endOfClassVarDefs.clear();
+      _state._endOfClassVarDefs.clear();
     }
     _writeToFileOut(indentString(baseIndent, 0));
     // We don't bother visiting any of the signature nodes -- parameters, type, name, etc.
@@ -404,7 +412,7 @@ public class Augmentor extends JExpressionIFDepthFirstVisitor<Void> {
 
     BracedBody bb = cd.getBody();
     sd.setAnonymousInnerClassNum(0);
-    bb.visit(new Augmentor(sd));
+    bb.visit(new Augmentor(this, sd));
     
     // We don't bother visiting any of the signature nodes -- parameters, type, name, etc.
     return null;
@@ -424,7 +432,7 @@ public class Augmentor extends JExpressionIFDepthFirstVisitor<Void> {
     }
     BracedBody bb = e.getBody();
     sd.setAnonymousInnerClassNum(0);
-    bb.visit(new Augmentor(sd));
+    bb.visit(new Augmentor(this, sd));
     
     int baseIndent = e.getSourceInfo().getStartColumn() - 1;
     _readAndWriteThroughIndex(e.getSourceInfo().getEndLine(), e.getSourceInfo().getEndColumn() - 1);
@@ -435,7 +443,7 @@ public class Augmentor extends JExpressionIFDepthFirstVisitor<Void> {
     String valueEqualsName = writeValueEquals(sd, baseIndent);
     String valueHashCodeName = writeValueHashCode(sd, baseIndent, valueEqualsName);
     writeToString(sd, baseIndent, valueToStringName);
-    if (!_safeSupportCode) { writeAnonEquals(baseIndent);}
+    if (!_state._safeSupportCode) { writeAnonEquals(baseIndent);}
     else { writeEquals(className, sd, baseIndent, valueEqualsName); }
     writeHashCode(className, sd, baseIndent, true, valueHashCodeName);
     _writeToFileOut(indentString(baseIndent, 0));
@@ -484,11 +492,11 @@ public class Augmentor extends JExpressionIFDepthFirstVisitor<Void> {
   /** Convert the provided FormalParameter array into an array of TypeData corresponding
     * to the types of the FormalParameters.
     */
-  protected static TypeData[] formalParameters2TypeDatas(FormalParameter[] fps, SymbolData enclosing) { 
+  protected TypeData[] formalParameters2TypeDatas(FormalParameter[] fps, SymbolData enclosing) { 
     TypeData[] tds = new TypeData[fps.length];
     int j = 0;
     for (FormalParameter fp: fps) {
-      SymbolData type = _llv.getSymbolData(fp.getDeclarator().getType().getName(), fp.getSourceInfo());
+      SymbolData type = _state._llv.getSymbolData(fp.getDeclarator().getType().getName(), fp.getSourceInfo());
       
       if (type == null) {
         //see if this is a partially qualified field reference
@@ -510,7 +518,7 @@ public class Augmentor extends JExpressionIFDepthFirstVisitor<Void> {
    * @param sd  The method's enclosing class.
    * @param baseIndent  The base indent level (number of spaces).
    */
-  protected static void writeConstructor(String className, SymbolData sd, int baseIndent) {
+  protected void writeConstructor(String className, SymbolData sd, int baseIndent) {
     // Find the constructor.  There should be at most one that we generated, so select that one.
     MethodData constructor = null;
     for (MethodData currMd : sd.getMethods()) {
@@ -585,7 +593,7 @@ public class Augmentor extends JExpressionIFDepthFirstVisitor<Void> {
    * @param sd  The method's enclosing class.
    * @param baseIndent  The base indent level (number of spaces).
    */
-  protected static void writeAccessors(SymbolData sd, int baseIndent) {
+  protected void writeAccessors(SymbolData sd, int baseIndent) {
     // Find the accessor methods and generate them if we had to create them ourselves.
     LinkedList<MethodData> methods = sd.getMethods();
     MethodData accessor = null;
@@ -620,7 +628,7 @@ public class Augmentor extends JExpressionIFDepthFirstVisitor<Void> {
    * @param baseIndent  The base indent level (number of spaces).
    * @param valueToStringName  The name of the generated valueToString method
    */
-  protected static void writeToString(SymbolData sd, int baseIndent, String valueToStringName) {
+  protected void writeToString(SymbolData sd, int baseIndent, String valueToStringName) {
     LinkedList<MethodData> methods = sd.getMethods();
     MethodData toString = null;
     Iterator<MethodData> iter = methods.iterator();
@@ -637,19 +645,19 @@ public class Augmentor extends JExpressionIFDepthFirstVisitor<Void> {
     LinkedList<MethodData> allMds = _getVariableAccessorListHelper(sd);
     MethodData[] mds = allMds.toArray(new MethodData[allMds.size()]);
 
-    if (_safeSupportCode) { writeSafeToString(sd, baseIndent, valueToStringName, mds); }
+    if (_state._safeSupportCode) { writeSafeToString(sd, baseIndent, valueToStringName, mds); }
     else { writeSimpleToString(sd, baseIndent, valueToStringName, mds); }
   }
     
   /** Helper to writeToString; writes a toString that handles infinitely-recursive data structures. */
-  protected static void writeSafeToString(SymbolData sd, int baseIndent, String valueToStringName, 
+  protected void writeSafeToString(SymbolData sd, int baseIndent, String valueToStringName, 
                                           MethodData[] accessors) {
     
     String flagName = sd.createUniqueName("__toStringFlag");
     VariableData toStringFlag = new VariableData(flagName, 
                                                  new ModifiersAndVisibility(NONE, 
                                                                             new String[]{ "private", "static" }),
-                                 _llv.getQualifiedSymbolData("java.util.LinkedList", SourceInfo.NONE, false),
+                                 _state._llv.getQualifiedSymbolData("java.util.LinkedList", SourceInfo.NONE, false),
                                  true, sd);
     toStringFlag.setGenerated(true);
     sd.addVar(toStringFlag);
@@ -695,7 +703,7 @@ public class Augmentor extends JExpressionIFDepthFirstVisitor<Void> {
   }
   
   /** Helper to writeToString; writes a short toString that does not handle infinitely-recursive data structures. */
-  protected static void writeSimpleToString(SymbolData sd, int baseIndent, String valueToStringName,
+  protected void writeSimpleToString(SymbolData sd, int baseIndent, String valueToStringName,
                                             MethodData[] accessors) {
     
     _writeToFileOut(newLine + indentString(baseIndent, 1) + 
@@ -724,7 +732,7 @@ public class Augmentor extends JExpressionIFDepthFirstVisitor<Void> {
    * @param baseIndent  The base indent level (number of spaces).
    * @param valueEqualsName  The name of the generated valueEquals method
    */
-  protected static void writeEquals(String className, SymbolData sd, int baseIndent, String valueEqualsName) {
+  protected void writeEquals(String className, SymbolData sd, int baseIndent, String valueEqualsName) {
     LinkedList<MethodData> methods = sd.getMethods();
     MethodData equals = null;
     Iterator<MethodData> iter = methods.iterator();
@@ -742,19 +750,19 @@ public class Augmentor extends JExpressionIFDepthFirstVisitor<Void> {
     LinkedList<MethodData> allMds = _getVariableAccessorListHelper(sd);
     MethodData[] mds = allMds.toArray(new MethodData[allMds.size()]);
 
-    if (_safeSupportCode) { writeSafeEquals(className, sd, baseIndent, valueEqualsName, mds); }
+    if (_state._safeSupportCode) { writeSafeEquals(className, sd, baseIndent, valueEqualsName, mds); }
     else { writeSimpleEquals(className, sd, baseIndent, valueEqualsName, mds); }
   }
     
   /** Helper to writeEquals; writes an equals that handles infinitely-recursive data structures. */
-  protected static void writeSafeEquals(String className, SymbolData sd, int baseIndent, String valueEqualsName, 
+  protected void writeSafeEquals(String className, SymbolData sd, int baseIndent, String valueEqualsName, 
                                         MethodData[] accessors) {
     
     String listName = sd.createUniqueName("__equalsList");
     
     VariableData equalsList = 
       new VariableData(listName, new ModifiersAndVisibility(SourceInfo.NONE, new String[]{ "private", "static" }),
-                       _llv.getQualifiedSymbolData("java.util.LinkedList", SourceInfo.NONE, false),
+                       _state._llv.getQualifiedSymbolData("java.util.LinkedList", SourceInfo.NONE, false),
                        true, sd);
     equalsList.setGenerated(true);
     sd.addVar(equalsList);
@@ -815,7 +823,7 @@ public class Augmentor extends JExpressionIFDepthFirstVisitor<Void> {
   }
   
   /** Helper to writeEquals; writes a simple equals that does not handle infinitely-recursive data structures. */
-  protected static void writeSimpleEquals(String className, SymbolData sd, int baseIndent, String valueEqualsName, 
+  protected void writeSimpleEquals(String className, SymbolData sd, int baseIndent, String valueEqualsName, 
                                           MethodData[] accessors) {
     
     _writeToFileOut(newLine + indentString(baseIndent, 1) + 
@@ -861,7 +869,7 @@ public class Augmentor extends JExpressionIFDepthFirstVisitor<Void> {
   /** 
    * AnonymousClasses are only equal if they are identical. 
    */
-  protected static void writeAnonEquals(int baseIndent) {
+  protected void writeAnonEquals(int baseIndent) {
     
     _writeToFileOut(newLine + indentString(baseIndent, 1) + 
                     "/** This method is automatically generated by the Language Level Converter. */" + newLine);
@@ -882,7 +890,7 @@ public class Augmentor extends JExpressionIFDepthFirstVisitor<Void> {
    *                       by adding them to _endOfClassVarDefs.
    * @param valueHashCodeName  The name of the generated valueHashCode method
    */
-  protected static void writeHashCode(String className, SymbolData sd, int baseIndent, boolean waitForVarDef, 
+  protected void writeHashCode(String className, SymbolData sd, int baseIndent, boolean waitForVarDef, 
                                       String valueHashCodeName) {
     LinkedList<MethodData> methods = sd.getMethods();
     MethodData hashCode = null;
@@ -901,7 +909,9 @@ public class Augmentor extends JExpressionIFDepthFirstVisitor<Void> {
     LinkedList<MethodData> allMds = _getVariableAccessorListHelper(sd);
     MethodData[] mds = allMds.toArray(new MethodData[allMds.size()]);
     
-    if (_safeSupportCode) { writeSafeHashCode(className, sd, baseIndent, waitForVarDef, valueHashCodeName, mds); }
+    if (_state._safeSupportCode) {
+      writeSafeHashCode(className, sd, baseIndent, waitForVarDef, valueHashCodeName, mds);
+    }
     else { writeSimpleHashCode(className, sd, baseIndent, waitForVarDef, valueHashCodeName, mds); }
   }
     
@@ -915,14 +925,14 @@ public class Augmentor extends JExpressionIFDepthFirstVisitor<Void> {
    * @param valueHashCodeName  The name of the generated valueHashCode method
    * @param accessors  An Array of the MethodDatas corresponding to the accessors for this class.
    */
-  protected static void writeSafeHashCode(String className, SymbolData sd, int baseIndent, boolean waitForVarDef, 
+  protected void writeSafeHashCode(String className, SymbolData sd, int baseIndent, boolean waitForVarDef, 
                                           String valueHashCodeName, MethodData[] accessors) {
     
     String listName = "__hashCodeList";
     listName = sd.createUniqueName(listName);
     VariableData hashCodeList =
       new VariableData(listName, new ModifiersAndVisibility(SourceInfo.NONE, new String[]{ "private", "static" }),
-                       _llv.getQualifiedSymbolData("java.util.LinkedList", SourceInfo.NONE, false),
+                       _state._llv.getQualifiedSymbolData("java.util.LinkedList", SourceInfo.NONE, false),
                        true, sd);
     hashCodeList.setGenerated(true);
     
@@ -932,10 +942,10 @@ public class Augmentor extends JExpressionIFDepthFirstVisitor<Void> {
         outermostData = outermostData.getOuterData().getSymbolData();
       }
       outermostData.addVar(hashCodeList);
-      _endOfClassVarDefs.add("/** This field is automatically generated by the Language Level Converter. */");
-      _endOfClassVarDefs.add("private static java.util.LinkedList<Object> " + listName + 
+      _state._endOfClassVarDefs.add("/** This field is automatically generated by the Language Level Converter. */");
+      _state._endOfClassVarDefs.add("private static java.util.LinkedList<Object> " + listName + 
                              " = new java.util.LinkedList<Object>();");
-      _endOfClassVarDefs.add("");
+      _state._endOfClassVarDefs.add("");
     }
     else {
       sd.addVar(hashCodeList);
@@ -986,7 +996,7 @@ public class Augmentor extends JExpressionIFDepthFirstVisitor<Void> {
    * @param valueHashCodeName  The name of the generated valueHashCode method
    * @param accessors  An Array of the MethodDatas corresponding to the accessors for this class.
    */
-  protected static void writeSimpleHashCode(String className, SymbolData sd, int baseIndent, boolean waitForVarDef, 
+  protected void writeSimpleHashCode(String className, SymbolData sd, int baseIndent, boolean waitForVarDef, 
                                             String valueHashCodeName, MethodData[] accessors) {
     
     _writeToFileOut(newLine + indentString(baseIndent, 1) + 
@@ -1023,9 +1033,9 @@ public class Augmentor extends JExpressionIFDepthFirstVisitor<Void> {
    * 
    * @return  The name of the generated valueToString method (__valueToString by default).
    */
-  private static String writeValueToString(SymbolData sd, int baseIndent) {
+  private String writeValueToString(SymbolData sd, int baseIndent) {
     String methodName = sd.createUniqueMethodName("__valueToString");
-    if (_safeSupportCode) { writeSafeValueToString(sd, baseIndent, methodName); }
+    if (_state._safeSupportCode) { writeSafeValueToString(sd, baseIndent, methodName); }
     return methodName;
   }
   
@@ -1035,7 +1045,7 @@ public class Augmentor extends JExpressionIFDepthFirstVisitor<Void> {
    * @param methodName  The name of the generated valueToString method (__valueToString by default).
    */
 
-  private static void writeSafeValueToString(SymbolData sd, int baseIndent, String methodName) {
+  private void writeSafeValueToString(SymbolData sd, int baseIndent, String methodName) {
     String[] primitiveTypes = new String[]{"byte[]", "short[]", "char[]", "int[]", "long[]", "float[]", "double[]",
       "boolean[]"};
     boolean useGenerics = true;
@@ -1140,7 +1150,7 @@ public class Augmentor extends JExpressionIFDepthFirstVisitor<Void> {
    * @param sd  The method's enclosing class.
    * @param baseIndent  The base indent level (number of spaces).
    */
-  private static void writeSimpleValueToString(SymbolData sd, int baseIndent, String methodName) {
+  private void writeSimpleValueToString(SymbolData sd, int baseIndent, String methodName) {
     _writeToFileOut(newLine);
     _writeToFileOut(indentString(baseIndent, 1) + "/**" + newLine);
     _writeToFileOut(indentString(baseIndent, 1) + 
@@ -1164,15 +1174,15 @@ public class Augmentor extends JExpressionIFDepthFirstVisitor<Void> {
    * 
    * @return  The name of the generated valueEquals method (__valueEquals by default).
    */
-  private static String writeValueEquals(SymbolData sd, int baseIndent) {
+  private String writeValueEquals(SymbolData sd, int baseIndent) {
     String methodName = sd.createUniqueMethodName("__valueEquals");
-    if (_safeSupportCode) { writeSafeValueEquals(sd, baseIndent, methodName); }
+    if (_state._safeSupportCode) { writeSafeValueEquals(sd, baseIndent, methodName); }
 //    else { writeSimpleValueEquals(sd, baseIndent, methodName); }
     return methodName;
   }
   
   /** Helper to writeValueEquals; writes a valueEquals that correctly handles arbitrary arrays. */
-  private static void writeSafeValueEquals(SymbolData sd, int baseIndent, String methodName) {
+  private void writeSafeValueEquals(SymbolData sd, int baseIndent, String methodName) {
     String[] primitiveTypes = new String[]{"byte[]", "short[]", "char[]", "int[]", "long[]", "float[]", "double[]", 
       "boolean[]"};
     boolean useGenerics = true;
@@ -1295,7 +1305,7 @@ public class Augmentor extends JExpressionIFDepthFirstVisitor<Void> {
   /** Helper to writeValueEquals; writes a simple valueEquals that does not handle arrays. 
    *  NOTE: This is currently unused.  For the simple case, no valueEquals method is generated.
    */
-  private static void writeSimpleValueEquals(SymbolData sd, int baseIndent, String methodName) {
+  private void writeSimpleValueEquals(SymbolData sd, int baseIndent, String methodName) {
     _writeToFileOut(newLine);
     _writeToFileOut(indentString(baseIndent, 1) + "/**" + newLine);
     _writeToFileOut(indentString(baseIndent, 1) + 
@@ -1319,15 +1329,15 @@ public class Augmentor extends JExpressionIFDepthFirstVisitor<Void> {
     * 
     * @return  The name of the generated valueHashCode method (__valueHashCode by default).
     */
-  private static String writeValueHashCode(SymbolData sd, int baseIndent, String valueEqualsName) {
+  private String writeValueHashCode(SymbolData sd, int baseIndent, String valueEqualsName) {
     String methodName = sd.createUniqueMethodName("__valueHashCode");
-    if (_safeSupportCode) { writeSafeValueHashCode(sd, baseIndent, valueEqualsName, methodName); }
+    if (_state._safeSupportCode) { writeSafeValueHashCode(sd, baseIndent, valueEqualsName, methodName); }
 //    else { writeSimpleValueHashCode(sd, baseIndent, valueEqualsName, methodName); }
     return methodName;
   }
   
   /** Helper to writeValueHashCode; writes a valueHashCode that correctly handles arbitrary arrays. */
-  private static void writeSafeValueHashCode(SymbolData sd, int baseIndent, String valueEqualsName, String methodName) {
+  private void writeSafeValueHashCode(SymbolData sd, int baseIndent, String valueEqualsName, String methodName) {
     String[] primitiveTypes =
       new String[]{"byte[]", "short[]", "char[]", "int[]", "long[]", "float[]", "double[]", "boolean[]"};
     boolean useGenerics = true;
@@ -1435,7 +1445,7 @@ public class Augmentor extends JExpressionIFDepthFirstVisitor<Void> {
   /** Helper to writeValueHashCode; writes a valueHashCode that does not handle arrays. 
    *  NOTE: This is currently unused.  For the simple case, no valueHashCode method is generated.
    */
-  private static void writeSimpleValueHashCode(SymbolData sd, int baseIndent, String valueEqualsName, 
+  private void writeSimpleValueHashCode(SymbolData sd, int baseIndent, String valueEqualsName, 
                                                String methodName) {
     _writeToFileOut(newLine);
     _writeToFileOut(indentString(baseIndent, 1) + "/**" + newLine);
@@ -1517,42 +1527,43 @@ public class Augmentor extends JExpressionIFDepthFirstVisitor<Void> {
     * @param line The line number to read through.
     * @param column The column to read to (or 0 to read to through the end of the previous line).
     */
-  private static String _readThroughIndex(int line, int column) {
-    if (_fileInLine > line || (_fileInLine == line && _fileInColumn - 1 > column)) {
-      throw new RuntimeException("Internal Program Error: Attempt to read in " + _llv._file.getName() + 
+  private String _readThroughIndex(int line, int column) {
+    if (_state._fileInLine > line || (_state._fileInLine == line && _state._fileInColumn - 1 > column)) {
+      throw new RuntimeException("Internal Program Error: Attempt to read in " + _state._llv._file.getName() + 
                                  " at a point that is already past: line " + line + ", column " + column + 
-                                 "; (currently at " + _fileInLine + ", " + _fileInColumn + ").  Please report this bug.");
+                                 "; (currently at " + _state._fileInLine + ", " + _state._fileInColumn + 
+                                 ").  Please report this bug.");
     }
     
     try {
       StringBuffer result = new StringBuffer();
-      while (_fileInLine < line) {
-        String l = _fileIn.readLine();
+      while (_state._fileInLine < line) {
+        String l = _state._fileIn.readLine();
         if (l == null) {
-          _fileOut.flush();
-          throw new RuntimeException("Internal Program Error: Attempt to read in " + _llv._file.getName() + 
+          _state._fileOut.flush();
+          throw new RuntimeException("Internal Program Error: Attempt to read in " + _state._llv._file.getName() + 
                                      " past the end of file: line " + line + ", column " + column + "; (currently at " +
-                                     _fileInLine + ", " + _fileInColumn + ").  Please report this bug.");
+                                     _state._fileInLine + ", " + _state._fileInColumn + ").  Please report this bug.");
         }
         
         result.append(l).append(newLine);
         
-        _fileInLine++;
-        _fileInColumn = 1;
+        _state._fileInLine++;
+        _state._fileInColumn = 1;
       }
       
-      int lastLineLength = column - _fileInColumn + 1;
+      int lastLineLength = column - _state._fileInColumn + 1;
       char[] chars = new char[lastLineLength];
-      int charsRead = _fileIn.read(chars, 0, lastLineLength);
+      int charsRead = _state._fileIn.read(chars, 0, lastLineLength);
       if (charsRead != lastLineLength) {
-        _fileOut.flush();
-        throw new RuntimeException("Internal Program Error: Attempt to read in " + _llv._file.getName() + 
+        _state._fileOut.flush();
+        throw new RuntimeException("Internal Program Error: Attempt to read in " + _state._llv._file.getName() + 
                                    " past the end of file: line " + line + ", column " + column + "; (currently at " +
-                                   _fileInLine + ", " + _fileInColumn + ").  Please report this bug.");
+                                   _state._fileInLine + ", " + _state._fileInColumn + ").  Please report this bug.");
       }
       result.append(chars);
-      _fileInLine = line;
-      _fileInColumn = column + 1;
+      _state._fileInLine = line;
+      _state._fileInColumn = column + 1;
       return result.toString();
     }
     catch (IOException ioe) { throw new Augmentor.Exception(ioe); }
@@ -1563,32 +1574,32 @@ public class Augmentor extends JExpressionIFDepthFirstVisitor<Void> {
     * @param line The line number to read through.
     * @param column The column to read to (or 0 to read to through the end of the previous line).
     */
-  private static void _readAndWriteThroughIndex(int line, int column) {
+  private void _readAndWriteThroughIndex(int line, int column) {
     String text = _readThroughIndex(line, column);
     _writeToFileOut(text, true); // yes, writing straight from input
   }
   
-  private static void _writeToFileOut(String s) { _writeToFileOut(s, false); }
+  protected void _writeToFileOut(String s) { _writeToFileOut(s, false); }
   
   /** Write the string to _fileOut. If fromInput is true, the string is coming straight from the input file,
     * which means the corresponding line number should be incremented as well.
     * @param s The string to write.
     * @param fromInput true if the corresponding line number should be incremented as well */
-  private static void _writeToFileOut(String s, boolean fromInput) {
+  private void _writeToFileOut(String s, boolean fromInput) {
     try {
       String[] lines = s.split(newLine, -1);
       for(int i=0; i<lines.length-1; ++i) {
-        _fileOut.write(lines[i]);
+        _state._fileOut.write(lines[i]);
         // add line number to map if it doesn't exist yet
-        if (_lineNumberMap.get(_fileOutCorrespondingLine)==null) 
-          _lineNumberMap.put(_fileOutCorrespondingLine, _fileOutLine);
+        if (_state._lineNumberMap.get(_state._fileOutCorrespondingLine)==null) 
+          _state._lineNumberMap.put(_state._fileOutCorrespondingLine, _state._fileOutLine);
         // end-of-line line number mapping; disabled since we output the entire map at the beginning of the file
         // _fileOut.write("//["+_fileOutCorrespondingLine+"]");
-        _fileOut.write(newLine);
-        ++_fileOutLine;
-        if (fromInput) ++_fileOutCorrespondingLine; // true if we are copying straight from input
+        _state._fileOut.write(newLine);
+        ++_state._fileOutLine;
+        if (fromInput) ++_state._fileOutCorrespondingLine; // true if we are copying straight from input
       }
-      _fileOut.write(lines[lines.length-1]);
+      _state._fileOut.write(lines[lines.length-1]);
     }
     catch (IOException ioe) { throw new Augmentor.Exception(ioe); }
   }
@@ -1597,18 +1608,18 @@ public class Augmentor extends JExpressionIFDepthFirstVisitor<Void> {
     * @param line The line number to read through.
     * @param column The column to read to (or 0 to read to through the end of the previous line).
     */
-  private static String _peek(int line, int column) {
+  private String _peek(int line, int column) {
     
     try {
-      _fileIn.mark(LanguageLevelConverter.INPUT_BUFFER_SIZE);
+      _state._fileIn.mark(LanguageLevelConverter.INPUT_BUFFER_SIZE);
       // Save the cursor
-      int fileInLine = _fileInLine;
-      int fileInColumn = _fileInColumn;
+      int fileInLine = _state._fileInLine;
+      int fileInColumn = _state._fileInColumn;
       String text = _readThroughIndex(line, column);
-      _fileIn.reset();
+      _state._fileIn.reset();
       // Reset the cursor
-      _fileInLine = fileInLine;
-      _fileInColumn = fileInColumn;
+      _state._fileInLine = fileInLine;
+      _state._fileInColumn = fileInColumn;
       return text;
       }
       catch (IOException ioe) { throw new Augmentor.Exception(ioe); }
@@ -1617,14 +1628,14 @@ public class Augmentor extends JExpressionIFDepthFirstVisitor<Void> {
   /** Returns a copy of the line number map that maps original dj* line numbers
     * to generated java line numbers.
     * @return copy of line number map */
-  public static SortedMap<Integer,Integer> getLineNumberMap() {
-    return new TreeMap<Integer,Integer>(_lineNumberMap);
+  public SortedMap<Integer,Integer> getLineNumberMap() {
+    return new TreeMap<Integer,Integer>(_state._lineNumberMap);
   }
   
   public static class MethodBodyAugmentor extends Augmentor {
     
     /** Mandatory forwarding constructor. */
-    protected MethodBodyAugmentor(SymbolData enclosing) { super(enclosing); }
+    protected MethodBodyAugmentor(Augmentor outer, SymbolData enclosing) { super(outer, enclosing); }
     
     /** Writes out implicit variableDeclarationModfiers that must be added to augmented file. */
     protected void augmentVariableDeclarationModifiers(VariableDeclaration that) { _writeToFileOut("final "); }
@@ -1645,7 +1656,7 @@ public class Augmentor extends JExpressionIFDepthFirstVisitor<Void> {
     }
     
     private Augmentor _a;
-    private Symboltable _s = LanguageLevelConverter.symbolTable; // Define a short synonym
+    private Symboltable _s = LanguageLevelConverter.symbolTable(); // Define a short synonym
     private File _f = new File("");
     
     public void setUp() {
@@ -1656,14 +1667,14 @@ public class Augmentor extends JExpressionIFDepthFirstVisitor<Void> {
                                 new LinkedList<Command>(),
                                 new LinkedList<Pair<LanguageLevelVisitor, SourceFile>>());
       _a = new Augmentor(true, null, null, llv);
-      LanguageLevelConverter.symbolTable.clear();
-      Symboltable _s = LanguageLevelConverter.symbolTable;   
-      LanguageLevelConverter.OPT = new Options(JavaVersion.JAVA_8, EmptyIterable.<File>make());
+      LanguageLevelConverter.symbolTable().clear();
+      Symboltable _s = LanguageLevelConverter.symbolTable();   
+      LanguageLevelConverter.setOptions(new Options(JavaVersion.JAVA_8, EmptyIterable.<File>make()));
     }
 
     public void testFormalParameters2TypeDatas() {
       FormalParameter[] fp = new FormalParameter[0];
-      TypeData[] result = formalParameters2TypeDatas(fp, _a._enclosingData);
+      TypeData[] result = _a.formalParameters2TypeDatas(fp, _a._enclosingData);
       assertEquals("The result is empty", 0, result.length);
       
       PrimitiveType intt = new PrimitiveType(SourceInfo.NONE, "int");
@@ -1683,7 +1694,7 @@ public class Augmentor extends JExpressionIFDepthFirstVisitor<Void> {
       _s.put("java.lang.String", stringData);
 
       fp = new FormalParameter[]{ param, param2 };
-      result = formalParameters2TypeDatas(fp, _a._enclosingData);
+      result = _a.formalParameters2TypeDatas(fp, _a._enclosingData);
       assertTrue("Arrays should be equal", 
                  LanguageLevelVisitor.arrayEquals(result, new TypeData[]{ intData, stringData }));
       
@@ -1699,7 +1710,7 @@ public class Augmentor extends JExpressionIFDepthFirstVisitor<Void> {
       inner.setIsContinuation(false);
       _a._enclosingData = new SymbolData("me");
       _a._enclosingData.addInnerClass(inner);
-      result = formalParameters2TypeDatas(fp, _a._enclosingData);
+      result = _a.formalParameters2TypeDatas(fp, _a._enclosingData);
       assertTrue("Arrays should be equal", LanguageLevelVisitor.arrayEquals(result, new TypeData[] {inner}));
     }
 
@@ -265,10 +265,10 @@ public class BodyBodyFullJavaVisitor extends FullJavaVisitor {
                                    null);
 
       errors = new LinkedList<Pair<String, JExpressionIF>>();
-      LanguageLevelConverter.symbolTable.clear();
-      LanguageLevelConverter._newSDs.clear();
+      LanguageLevelConverter.symbolTable().clear();
+      LanguageLevelConverter.newSDs().clear();
       // Use _sd1 for _enclosingClassName
-      LanguageLevelConverter.symbolTable.put("i.like.monkey", _sd1);
+      LanguageLevelConverter.symbolTable().put("i.like.monkey", _sd1);
       visitedFiles = new LinkedList<Pair<LanguageLevelVisitor, edu.rice.cs.javalanglevels.tree.SourceFile>>();      
 //      _hierarchy = new Hashtable<String, TypeDefBase>();
       _bfv = new BodyBodyFullJavaVisitor(_md1, 
@@ -278,9 +278,9 @@ public class BodyBodyIntermediateVisitor extends IntermediateVisitor {
                             null);
 
       errors = new LinkedList<Pair<String, JExpressionIF>>();
-      LanguageLevelConverter.symbolTable.clear();
-      LanguageLevelConverter._newSDs.clear();
-      LanguageLevelConverter.symbolTable.put("ILikeMonkey", _sd1);
+      LanguageLevelConverter.symbolTable().clear();
+      LanguageLevelConverter.newSDs().clear();
+      LanguageLevelConverter.symbolTable().put("ILikeMonkey", _sd1);
       visitedFiles = new LinkedList<Pair<LanguageLevelVisitor, edu.rice.cs.javalanglevels.tree.SourceFile>>();      
 //      _hierarchy = new Hashtable<String, TypeDefBase>();
       
@@ -481,7 +481,7 @@ public class BodyBodyIntermediateVisitor extends IntermediateVisitor {
      
       // Test a local inner class definition and reference
       SymbolData obj = new SymbolData("ILikeMonkey");
-      LanguageLevelConverter.symbolTable.put("ILikeMonkey", obj);
+      LanguageLevelConverter.symbolTable().put("ILikeMonkey", obj);
       InnerClassDef cd0 = 
         new InnerClassDef(SourceInfo.NONE, 
                           _packageMav, 
@@ -1061,17 +1061,17 @@ public class BodyTypeChecker extends SpecialTypeChecker {
        ((MethodData)_bd2).getParams()[0].setEnclosingData(_bd2);
                             
       errors = new LinkedList<Pair<String, JExpressionIF>>();
-      symbolTable.clear();
-      _newSDs.clear();  // Refers to LanguageLevelConverter.  Why are we doing this?
+      symbolTable().clear();
+      newSDs().clear();  // Refers to LanguageLevelConverter.  Why are we doing this?
       
-      loadSymbolTable();
+      current().loadSymbolTable();
 //      System.err.println("Boolean Type is " + symbolTable.get("java.lang.Boolean"));
       _bd1.addEnclosingData(_sd1);
       _bd1.addVars(((MethodData)_bd1).getParams());
       _bd2.addVars(((MethodData)_bd2).getParams());
       _bbtc = new BodyTypeChecker(_bd1, new File(""), "", new LinkedList<String>(), new LinkedList<String>(), 
                                   new LinkedList<VariableData>(), new LinkedList<Pair<SymbolData,JExpression>>());
-      LanguageLevelConverter.OPT = new Options(JavaVersion.JAVA_8, EmptyIterable.<File>make());
+      LanguageLevelConverter.setOptions(new Options(JavaVersion.JAVA_8, EmptyIterable.<File>make()));
       _bbtc._importedPackages.addFirst("java.lang");
     }
     
@@ -2562,7 +2562,7 @@ public class BodyTypeChecker extends SpecialTypeChecker {
     }
     
     public void testForLabeledCase() {
-      symbolTable.put("java.lang.String", new SymbolData("java.lang.String"));
+      symbolTable().put("java.lang.String", new SymbolData("java.lang.String"));
       UnbracedBody emptyBody = new UnbracedBody(SourceInfo.NONE, new BodyItemI[0]);
       //Test a label that is okay
       LabeledCase lc = new LabeledCase(SourceInfo.NONE, new CharLiteral(SourceInfo.NONE, 'e'), emptyBody);
@@ -2713,12 +2713,12 @@ public class BodyTypeChecker extends SpecialTypeChecker {
       SymbolData re = llv.getQualifiedSymbolData("java.lang.RuntimeException", SourceInfo.NONE);
       SymbolData ioe = llv.getQualifiedSymbolData("java.io.IOException", SourceInfo.NONE);
       
-      assert symbolTable.containsKey("java.lang.Exception");
-      assert symbolTable.containsKey("java.lang.RuntimeException");
-      assert symbolTable.containsKey("java.io.IOException");
-      assert symbolTable.contains(e);
-      assert symbolTable.contains(re);
-      assert symbolTable.contains(ioe);
+      assert symbolTable().containsKey("java.lang.Exception");
+      assert symbolTable().containsKey("java.lang.RuntimeException");
+      assert symbolTable().containsKey("java.io.IOException");
+      assert symbolTable().contains(e);
+      assert symbolTable().contains(re);
+      assert symbolTable().contains(ioe);
       
       CatchBlock c1 = new CatchBlock(SourceInfo.NONE, fp1, b);
       CatchBlock c2 = new CatchBlock(SourceInfo.NONE, fp2, b);
@@ -2758,7 +2758,7 @@ public class BodyTypeChecker extends SpecialTypeChecker {
     }
     
     public void testtryCatchLeastCommonType() {
-      SymbolData objectSymbol = LanguageLevelConverter.symbolTable.get("java.lang.Object");
+      SymbolData objectSymbol = symbolTable().get("java.lang.Object");
 
       InstanceData[] sdArray = new InstanceData[] { 
         SymbolData.BYTE_TYPE.getInstanceData(), 
@@ -2788,7 +2788,7 @@ public class BodyTypeChecker extends SpecialTypeChecker {
                                                       sdArray, 
                                                       SymbolData.SHORT_TYPE.getInstanceData()));
       
-      SymbolData sd2 = LanguageLevelConverter.symbolTable.get("java.lang.String");
+      SymbolData sd2 = symbolTable().get("java.lang.String");
 //      sd.setIsContinuation(false);
 //      sd2.setIsContinuation(false);
 //      symbolTable.put("java.lang.Object", sd);
@@ -2842,10 +2842,10 @@ public class BodyTypeChecker extends SpecialTypeChecker {
       SymbolData re = llv.getSymbolData("java.lang.RuntimeException", SourceInfo.NONE, true);
       SymbolData ioe = llv.getSymbolData("java.io.IOException", SourceInfo.NONE, true);
       
-      assert symbolTable.containsKey("java.lang.RuntimeException");
-      assert symbolTable.containsKey("java.io.IOException");
-      assert symbolTable.contains(re);
-      assert symbolTable.contains(ioe);
+      assert symbolTable().containsKey("java.lang.RuntimeException");
+      assert symbolTable().containsKey("java.io.IOException");
+      assert symbolTable().contains(re);
+      assert symbolTable().contains(ioe);
 //      symbolTable.put("java.lang.RuntimeException", re);
 //      symbolTable.put("java.io.IOException", ioe);
 
@@ -2879,8 +2879,8 @@ public class BodyTypeChecker extends SpecialTypeChecker {
       llv._classesInThisFile = new HashSet<String>();
 
       SymbolData re = llv.getSymbolData("java.lang.RuntimeException", SourceInfo.NONE, true);
-      assert symbolTable.containsKey("java.lang.RuntimeException");
-      assert symbolTable.contains(re);
+      assert symbolTable().containsKey("java.lang.RuntimeException");
+      assert symbolTable().contains(re);
       
 //      symbolTable.put("java.lang.RuntimeException", re);
       
@@ -2948,10 +2948,10 @@ public class BodyTypeChecker extends SpecialTypeChecker {
       SymbolData re = new SymbolData("java.lang.RuntimeException");
       re.setIsContinuation(false);
       re.setSuperClass(ex);
-      symbolTable.put("java.lang.Throwable", th);
-      symbolTable.put("java.lang.RuntimeException", re);
-      symbolTable.put("java.lang.Error", r);
-      symbolTable.put("java.lang.Exception", ex);
+      symbolTable().put("java.lang.Throwable", th);
+      symbolTable().put("java.lang.RuntimeException", re);
+      symbolTable().put("java.lang.Error", r);
+      symbolTable().put("java.lang.Exception", ex);
       SymbolData e1 = new SymbolData("exception1");
       e1.setSuperClass(ex);
       SymbolData e2 = new SymbolData("exception2");
@@ -2980,15 +2980,15 @@ public class BodyTypeChecker extends SpecialTypeChecker {
       SymbolData re = new SymbolData("java.lang.RuntimeException");
       re.setIsContinuation(false);
       re.setSuperClass(ex);
-      symbolTable.put("java.lang.Throwable", th);
-      symbolTable.put("java.lang.RuntimeException", re);
-      symbolTable.put("java.lang.Error", r);
-      symbolTable.put("java.lang.Exception", ex);
+      symbolTable().put("java.lang.Throwable", th);
+      symbolTable().put("java.lang.RuntimeException", re);
+      symbolTable().put("java.lang.Error", r);
+      symbolTable().put("java.lang.Exception", ex);
 
       SymbolData e1 = new SymbolData("exception1");
       e1.setIsContinuation(false);
       e1.setSuperClass(ex);
-      symbolTable.put("exception1", e1);
+      symbolTable().put("exception1", e1);
       SymbolData e2 = new SymbolData("exception2");
       e2.setSuperClass(re);
       SymbolData e3 = new SymbolData("exception3");
@@ -3106,9 +3106,9 @@ public class BodyTypeChecker extends SpecialTypeChecker {
       SymbolData eb = llv.getQualifiedSymbolData("java.util.prefs.BackingStoreException");
       SymbolData re = llv.getQualifiedSymbolData("java.lang.RuntimeException");
       
-      assert symbolTable.contains(throwable);
-      assert symbolTable.contains(exception);
-      assert symbolTable.contains(string);
+      assert symbolTable().contains(throwable);
+      assert symbolTable().contains(exception);
+      assert symbolTable().contains(string);
 
 //      System.err.println("Interfaces for java.lang.RuntimeException = " + re.getInterfaces());
       //Make sure it is okay to have something else other than an uncaught exception in a braced body.
@@ -3233,9 +3233,9 @@ public class BodyTypeChecker extends SpecialTypeChecker {
       SymbolData eb = llv.getSymbolData("java.util.prefs.BackingStoreException", SourceInfo.NONE, true);
       SymbolData re = llv.getSymbolData("java.lang.RuntimeException", SourceInfo.NONE, true);
       
-      assert symbolTable.contains(throwable);
-      assert symbolTable.contains(exception);
-      assert symbolTable.contains(string);
+      assert symbolTable().contains(throwable);
+      assert symbolTable().contains(exception);
+      assert symbolTable().contains(string);
       
       BracedBody emptyBody = new BracedBody(SourceInfo.NONE, new BodyItemI[0]);
       BracedBody bb = new BracedBody(SourceInfo.NONE, 
@@ -3442,9 +3442,9 @@ public class BodyTypeChecker extends SpecialTypeChecker {
       SymbolData eb = llv.getQualifiedSymbolData("java.util.prefs.BackingStoreException");
       SymbolData re = llv.getQualifiedSymbolData("java.lang.RuntimeException");
            
-      assert symbolTable.contains(throwable);
-      assert symbolTable.contains(exception);
-      assert symbolTable.contains(string);
+      assert symbolTable().contains(throwable);
+      assert symbolTable().contains(exception);
+      assert symbolTable().contains(string);
       
       BracedBody emptyBody = new BracedBody(SourceInfo.NONE, new BodyItemI[0]);
       BracedBody bb = new BracedBody(SourceInfo.NONE, 
@@ -365,9 +365,9 @@ public class ClassBodyFullJavaVisitor extends FullJavaVisitor {
       _sd1 = new SymbolData("i.like.monkey");  // creates a continuation
       
       errors = new LinkedList<Pair<String, JExpressionIF>>();
-      LanguageLevelConverter.symbolTable.clear();
-      LanguageLevelConverter.symbolTable.put("i.like.monkey", _sd1);
-      LanguageLevelConverter._newSDs.clear();
+      LanguageLevelConverter.symbolTable().clear();
+      LanguageLevelConverter.symbolTable().put("i.like.monkey", _sd1);
+      LanguageLevelConverter.newSDs().clear();
       visitedFiles = new LinkedList<Pair<LanguageLevelVisitor, edu.rice.cs.javalanglevels.tree.SourceFile>>();      
 //      _hierarchy = new Hashtable<String, TypeDefBase>();
       _cbfjv = new ClassBodyFullJavaVisitor(_sd1, 
@@ -485,7 +485,7 @@ public class ClassBodyFullJavaVisitor extends FullJavaVisitor {
       
       ArrayInitializer ai = new ArrayInitializer(SourceInfo.NONE, new VariableInitializerI[0]);
       TypeVariable tv = new TypeVariable(SourceInfo.NONE, "String");
-      SymbolData _string = LanguageLevelConverter.symbolTable.get("java.lang.String");
+      SymbolData _string = LanguageLevelConverter.symbolTable().get("java.lang.String");
       assertNotNull("java.lang.String already in table", _string);
       ArrayType at = new ArrayType(SourceInfo.NONE, "String[]", tv);
       
@@ -502,7 +502,7 @@ public class ClassBodyFullJavaVisitor extends FullJavaVisitor {
       assertEquals("There should be no errors", 0, errors.size());
 //      System.err.println("That error is: " + errors.getLast().getFirst());
       
-      SymbolData bob = LanguageLevelConverter.symbolTable.get("java.lang.String[]");
+      SymbolData bob = LanguageLevelConverter.symbolTable().get("java.lang.String[]");
 //      System.err.println("Getting READY to fail");
 //      try { Thread.sleep(1000); } catch (Exception e) { };
       assertNotNull("bob should not be null", bob);
@@ -710,7 +710,7 @@ public class ClassBodyFullJavaVisitor extends FullJavaVisitor {
     }
     
     public void xtestForInnerClassDef() {
-      SymbolData obj = LanguageLevelConverter.symbolTable.get("java.lang.Object");
+      SymbolData obj = LanguageLevelConverter.symbolTable().get("java.lang.Object");
       InnerClassDef cd1 = new InnerClassDef(SourceInfo.NONE, _packageMav, new Word(SourceInfo.NONE, "Bart"),
                                             new TypeParameter[0], new ClassOrInterfaceType(SourceInfo.NONE, "java.lang.Object", new Type[0]), new ReferenceType[0], 
                                             new BracedBody(SourceInfo.NONE, new BodyItemI[0]));
@@ -733,7 +733,7 @@ public class ClassBodyFullJavaVisitor extends FullJavaVisitor {
       
       
       
-      LanguageLevelConverter.symbolTable.put(_cbfjv._enclosing.getName() + "$Lisa", sd0);
+      LanguageLevelConverter.symbolTable().put(_cbfjv._enclosing.getName() + "$Lisa", sd0);
 //      LanguageLevelConverter.symbolTable.put(_cbfjv._enclosing.getName() + "$Lisa$Bart", sd1);
       
       cd0.visit(_cbfjv);
@@ -301,9 +301,9 @@ public class ClassBodyIntermediateVisitor extends IntermediateVisitor {
       _sd1 = new SymbolData("i.like.monkey");
 
       errors = new LinkedList<Pair<String, JExpressionIF>>();
-      LanguageLevelConverter.symbolTable.clear();
-      LanguageLevelConverter._newSDs.clear();
-      LanguageLevelConverter.symbolTable.put("i.like.monkey", _sd1);
+      LanguageLevelConverter.symbolTable().clear();
+      LanguageLevelConverter.newSDs().clear();
+      LanguageLevelConverter.symbolTable().put("i.like.monkey", _sd1);
       visitedFiles = new LinkedList<Pair<LanguageLevelVisitor, edu.rice.cs.javalanglevels.tree.SourceFile>>();      
 //      _hierarchy = new Hashtable<String, TypeDefBase>();
       _cbiv = new ClassBodyIntermediateVisitor(_sd1,
@@ -719,8 +719,8 @@ public class ClassBodyIntermediateVisitor extends IntermediateVisitor {
       sd0.setIsContinuation(true);
       sd1.setIsContinuation(true);
       
-      LanguageLevelConverter.symbolTable.put(_cbiv._enclosing.getName() + "$Lisa", sd0);
-      LanguageLevelConverter.symbolTable.put(_cbiv._enclosing.getName() + "$Lisa$Bart", sd1);
+      LanguageLevelConverter.symbolTable().put(_cbiv._enclosing.getName() + "$Lisa", sd0);
+      LanguageLevelConverter.symbolTable().put(_cbiv._enclosing.getName() + "$Lisa$Bart", sd1);
 
       cd0.visit(_cbiv);
 
@@ -44,6 +44,7 @@ import edu.rice.cs.plt.reflect.JavaVersion;
 import edu.rice.cs.plt.iter.*;
 
 import junit.framework.TestCase;
+import static edu.rice.cs.javalanglevels.LanguageLevelConverter.symbolTable;
 
 /** Do the TypeChecking appropriate to the context of a class body.  Common to all Language Levels. */
 public class ClassBodyTypeChecker extends SpecialTypeChecker {
@@ -386,12 +387,12 @@ public class ClassBodyTypeChecker extends SpecialTypeChecker {
       _sd6 = new SymbolData("cebu");
       
       errors = new LinkedList<Pair<String, JExpressionIF>>();
-      LanguageLevelConverter.symbolTable.clear();
-      LanguageLevelConverter._newSDs.clear();
+      symbolTable().clear();
+      LanguageLevelConverter.newSDs().clear();
       _cbbtc = 
         new ClassBodyTypeChecker(_sd1, new File(""), "", new LinkedList<String>(), new LinkedList<String>(), 
                                  new LinkedList<VariableData>(), new LinkedList<Pair<SymbolData, JExpression>>());
-      LanguageLevelConverter.OPT = new Options(JavaVersion.JAVA_8, EmptyIterable.<File>make());
+      LanguageLevelConverter.setOptions(new Options(JavaVersion.JAVA_8, EmptyIterable.<File>make()));
       _cbbtc._importedPackages.addFirst("java.lang");
     }
     
@@ -679,7 +680,7 @@ public class ClassBodyTypeChecker extends SpecialTypeChecker {
       
       SymbolData sd = new SymbolData("Adam");
       sd.setIsContinuation(false);
-      symbolTable.put("Adam", sd);
+      symbolTable().put("Adam", sd);
       sd.setMav(_publicMav);
       t = new ClassOrInterfaceType(SourceInfo.NONE, "Adam", new Type[0]);
       t.visit(_cbbtc);
@@ -753,15 +754,15 @@ public class ClassBodyTypeChecker extends SpecialTypeChecker {
       jimes.setIsContinuation(false);
       jimes.addVar(vData);
 
-      symbolTable.put("Jimes", jimes);
+      symbolTable().put("Jimes", jimes);
 
 //      SymbolData obj = _cbbtc.getSymbolData("java.lang.Object", new NullLiteral(SourceInfo.NONE), false, true);
       SymbolData tokenizer = _cbbtc.getSymbolData("java.io.StreamTokenizer", new NullLiteral(SourceInfo.NONE), false, true);
       jimes.setSuperClass(tokenizer);
       SymbolData jutc = defineTestCaseClass();
       
-      assert symbolTable.contains(tokenizer);
-      assert symbolTable.contains(jutc);
+      assert symbolTable().contains(tokenizer);
+      assert symbolTable().contains(jutc);
       
       MethodData md = 
         new MethodData("Jimes", _publicMav, new TypeParameter[0], jimes, new VariableData[0], new String[0], jimes, cd);
@@ -42,6 +42,7 @@ import java.util.*;
 import java.io.*;
 
 import junit.framework.TestCase;
+import static edu.rice.cs.javalanglevels.LanguageLevelConverter.symbolTable;
 
 /** Do the TypeChecking appropriate to the context of a constructor body.  Common to all Language Levels. */
 public class ConstructorBodyTypeChecker extends BodyTypeChecker {
@@ -390,8 +391,8 @@ public class ConstructorBodyTypeChecker extends BodyTypeChecker {
       _bd1.getParams()[1].setEnclosingData(_bd1);                      
 
       errors = new LinkedList<Pair<String, JExpressionIF>>();
-      LanguageLevelConverter.symbolTable.clear();
-      LanguageLevelConverter._newSDs.clear();
+      symbolTable().clear();
+      LanguageLevelConverter.newSDs().clear();
       _bd1.addEnclosingData(_sd1);
       _bd1.addVars(_bd1.getParams());
       _cbtc = new ConstructorBodyTypeChecker(_bd1, 
@@ -465,10 +466,10 @@ public class ConstructorBodyTypeChecker extends BodyTypeChecker {
       SymbolData re = llv.getSymbolData("java.lang.RuntimeException", SourceInfo.NONE, true);
 //      LanguageLevelConverter.symbolTable = symbolTable = llv.symbolTable;
       
-      assert symbolTable.contains(eb);
-      assert symbolTable.contains(re);
-      assert symbolTable.containsKey("java.lang.Throwable");
-      assert symbolTable.containsKey("java.lang.Exception");
+      assert symbolTable().contains(eb);
+      assert symbolTable().contains(re);
+      assert symbolTable().containsKey("java.lang.Throwable");
+      assert symbolTable().containsKey("java.lang.Exception");
 
       _sd3.setIsContinuation(false);
       _sd3.setMav(_publicMav);
@@ -553,7 +554,7 @@ public class ConstructorBodyTypeChecker extends BodyTypeChecker {
       
       _sd5.setMav(_publicMav);
       _sd5.setIsContinuation(false);
-      symbolTable.put("elephant", _sd5);
+      symbolTable().put("elephant", _sd5);
       
       BracedBody complexSC = new BracedBody(SourceInfo.NONE, new BodyItemI[] {new ExpressionStatement(SourceInfo.NONE, new ComplexSuperConstructorInvocation(SourceInfo.NONE, new SimpleNameReference(SourceInfo.NONE, new Word(SourceInfo.NONE, "e")), new ParenthesizedExpressionList(SourceInfo.NONE, new Expression[0])))});
       oldData.getMethodData().setThrown(new String[0]);
@@ -688,7 +689,7 @@ public class ConstructorBodyTypeChecker extends BodyTypeChecker {
       
       //if the superclass is null, add error
       ComplexSuperConstructorInvocation constr2 = new ComplexSuperConstructorInvocation(SourceInfo.NONE, new SimpleNameReference(SourceInfo.NONE, new Word(SourceInfo.NONE, "zebra")), new ParenthesizedExpressionList(SourceInfo.NONE, new Expression[0]));
-      symbolTable.put("zebra", _sd3);
+      symbolTable().put("zebra", _sd3);
       _sd3.setIsContinuation(false);
       _sd3.setMav(_publicMav);
       _cbtc.complexSuperConstructorInvocationAllowed(constr2);
@@ -704,7 +705,7 @@ public class ConstructorBodyTypeChecker extends BodyTypeChecker {
       //if the outer data of the super class does not match the name specified in the constructor, give error
       _sd5.setOuterData(_sd3);
       ComplexSuperConstructorInvocation constr3 = new ComplexSuperConstructorInvocation(SourceInfo.NONE, new SimpleNameReference(SourceInfo.NONE, new Word(SourceInfo.NONE, "u.like.emu")), new ParenthesizedExpressionList(SourceInfo.NONE, new Expression[0]));
-      symbolTable.put("u.like.emu", _sd4);
+      symbolTable().put("u.like.emu", _sd4);
       _sd4.setPackage("u.like");
       _sd4.setIsContinuation(false);
       _sd4.setMav(_publicMav);
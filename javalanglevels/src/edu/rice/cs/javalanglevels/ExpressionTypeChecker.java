@@ -45,11 +45,12 @@ import edu.rice.cs.plt.reflect.JavaVersion;
 import edu.rice.cs.plt.iter.*;
 
 import junit.framework.TestCase;
+import static edu.rice.cs.javalanglevels.LanguageLevelConverter.symbolTable;
 
 /** This is a TypeChecker for all Expressions used in the students files.  It is used with every LanguageLevel. */
 public class ExpressionTypeChecker extends SpecialTypeChecker {
   
-  public static final JavaVersion JAVA_VERSION = LanguageLevelConverter.OPT.javaVersion();
+  public static final JavaVersion JAVA_VERSION = LanguageLevelConverter.options().javaVersion();
   public static final NullLiteral NULL_LITERAL = new NullLiteral(SourceInfo.NONE);
   
   /** Simply pass the necessary information on to superclass constructor.
@@ -1744,13 +1745,13 @@ public class ExpressionTypeChecker extends SpecialTypeChecker {
     
     public void setUp() {
       errors = new LinkedList<Pair<String, JExpressionIF>>();
-      LanguageLevelConverter.symbolTable.clear();
-      LanguageLevelConverter._newSDs.clear();
-      LanguageLevelConverter.loadSymbolTable();
+      symbolTable().clear();
+      LanguageLevelConverter.newSDs().clear();
+      LanguageLevelConverter.current().loadSymbolTable();
       _etc = 
         new ExpressionTypeChecker(null, new File(""), "", new LinkedList<String>(), new LinkedList<String>(), 
                                   new LinkedList<VariableData>(), new LinkedList<Pair<SymbolData, JExpression>>());
-      LanguageLevelConverter.OPT = new Options(JavaVersion.JAVA_8, EmptyIterable.<File>make());
+      LanguageLevelConverter.setOptions(new Options(JavaVersion.JAVA_8, EmptyIterable.<File>make()));
       _etc._importedPackages.addFirst("java.lang");
       _sd1 = new SymbolData("i.like.monkey");
       _sd2 = new SymbolData("i.like.giraffe");
@@ -1891,16 +1892,16 @@ public class ExpressionTypeChecker extends SpecialTypeChecker {
       
       ArrayData intArray = new ArrayData(SymbolData.INT_TYPE, llv, si);
       intArray.setIsContinuation(false);
-      symbolTable.remove("int[]");
-      symbolTable.put("int[]", intArray);
+      symbolTable().remove("int[]");
+      symbolTable().put("int[]", intArray);
       
       ArrayData intArrayArray = new ArrayData(intArray, llv, si);
       intArrayArray.setIsContinuation(false);
-      symbolTable.put("int[][]", intArrayArray);
+      symbolTable().put("int[][]", intArrayArray);
       
       ArrayData intArray3 = new ArrayData(intArrayArray, llv, si);
       intArray3.setIsContinuation(false);
-      symbolTable.put("int[][][]", intArray3);
+      symbolTable().put("int[][][]", intArray3);
       
       Expression i1 = new IntegerLiteral(si, 5);
       Expression i2 = new PlusExpression(si, new IntegerLiteral(si, 5), new IntegerLiteral(si, 7));
@@ -2018,16 +2019,16 @@ public class ExpressionTypeChecker extends SpecialTypeChecker {
       
       ArrayData intArray = new ArrayData(SymbolData.INT_TYPE, llv, si);
       intArray.setIsContinuation(false);
-      symbolTable.remove("int[]");
-      symbolTable.put("int[]", intArray);
+      symbolTable().remove("int[]");
+      symbolTable().put("int[]", intArray);
       
       ArrayData intArrayArray = new ArrayData(intArray, llv, si);
       intArrayArray.setIsContinuation(false);
-      symbolTable.put("int[][]", intArrayArray);
+      symbolTable().put("int[][]", intArrayArray);
       
       ArrayData intArray3 = new ArrayData(intArrayArray, llv, si);
       intArray3.setIsContinuation(false);
-      symbolTable.put("int[][][]", intArray3);
+      symbolTable().put("int[][][]", intArray3);
       
       // One that works--int instance index
       Expression[] exps = new Expression[] { new NullLiteral(si), new NullLiteral(si), new NullLiteral(si)};
@@ -2120,8 +2121,8 @@ public class ExpressionTypeChecker extends SpecialTypeChecker {
       
       ArrayData intArray = new ArrayData(SymbolData.INT_TYPE, llv, SourceInfo.NONE);
       intArray.setIsContinuation(false);
-      symbolTable.remove("int[]");
-      symbolTable.put("int[]", intArray);
+      symbolTable().remove("int[]");
+      symbolTable().put("int[]", intArray);
       
       //try one that should work:
       InitializedArrayInstantiation good = 
@@ -2267,7 +2268,7 @@ public class ExpressionTypeChecker extends SpecialTypeChecker {
       string.setIsContinuation(false);
       string.setPackage("java.lang");
       string.setMav(_publicMav);
-      symbolTable.put("java.lang.String", string);
+      symbolTable().put("java.lang.String", string);
       
       assertEquals("Should return string instance", 
                    string.getInstanceData(), 
@@ -2572,11 +2573,11 @@ public class ExpressionTypeChecker extends SpecialTypeChecker {
       //left and right are both number types, only left is primitive--should work
       SymbolData integer = new SymbolData("java.lang.Integer");
       integer.setIsContinuation(false);
-      symbolTable.put("java.lang.Integer", integer);
+      symbolTable().put("java.lang.Integer", integer);
       
       SymbolData bool = new SymbolData("java.lang.Boolean");
       bool.setIsContinuation(false);
-      symbolTable.put("java.lang.Boolean", bool);
+      symbolTable().put("java.lang.Boolean", bool);
       
       assertEquals("Should return boolean instance", SymbolData.BOOLEAN_TYPE.getInstanceData(), 
                    _etc.forEqualityExpressionOnly(ee, SymbolData.INT_TYPE.getInstanceData(), integer.getInstanceData()));
@@ -2721,7 +2722,7 @@ public class ExpressionTypeChecker extends SpecialTypeChecker {
       SymbolData string = new SymbolData("java.lang.String");
       string.setPackage("java.lang");
       string.setIsContinuation(false);
-      symbolTable.put("java.lang.String", string);
+      symbolTable().put("java.lang.String", string);
       
       //left side is a string instance data and right side is some other instance data
       assertEquals("Should return String instance", string.getInstanceData(), 
@@ -3101,7 +3102,7 @@ public class ExpressionTypeChecker extends SpecialTypeChecker {
                                         simpleClass,
                                         null);
       simpleClass.addMethod(cons1);
-      symbolTable.put("simpleClass", simpleClass);
+      symbolTable().put("simpleClass", simpleClass);
       
       assertEquals("Should return simpleClass even though it could not really access it", 
                    simpleClass.getInstanceData(), ci3.visit(_etc));
@@ -3156,7 +3157,7 @@ public class ExpressionTypeChecker extends SpecialTypeChecker {
       MethodData consb = 
         new MethodData("B", _publicMav, new TypeParameter[0], b, new VariableData[0], new String[0], b, null);
       b.addMethod(consb);
-      symbolTable.put("A", a);
+      symbolTable().put("A", a);
       a.setMav(new ModifiersAndVisibility(SourceInfo.NONE, new String[] {"public"}));
       b.setMav(new ModifiersAndVisibility(SourceInfo.NONE, new String[] {"public"}));
 
@@ -3204,7 +3205,7 @@ public class ExpressionTypeChecker extends SpecialTypeChecker {
         new MethodData("innerClass", _publicMav, new TypeParameter[0], innerClass, new VariableData[0], new String[0], 
                        innerClass, null);
       innerClass.addMethod(cons1);
-      symbolTable.put("outer", outerClass);
+      symbolTable().put("outer", outerClass);
       _etc._vars.addLast(new VariableData("o", _publicMav, outerClass, true, _etc._data));
       outerClass.setMav(new ModifiersAndVisibility(SourceInfo.NONE, new String[] {"public"}));
       innerClass.setMav(new ModifiersAndVisibility(SourceInfo.NONE, new String[] {"public"}));
@@ -3374,7 +3375,7 @@ public class ExpressionTypeChecker extends SpecialTypeChecker {
       SimpleNameReference className = new SimpleNameReference(SourceInfo.NONE, new Word(SourceInfo.NONE, "Frog"));
       SymbolData frog = new SymbolData("Frog");
       frog.setIsContinuation(false);
-      symbolTable.put("Frog", frog);
+      symbolTable().put("Frog", frog);
       
       //if it is not visibile from this context, return package data
       TypeData result = className.visit(_etc);
@@ -3446,8 +3447,8 @@ public class ExpressionTypeChecker extends SpecialTypeChecker {
       // if reference builds to a class in the symbol table, return that class
       ComplexNameReference ref2 = 
         new ComplexNameReference(SourceInfo.NONE, ref1, new Word(SourceInfo.NONE, "String"));
-      assertTrue("symbol table already contains String", symbolTable.containsKey("java.lang.String"));
-      SymbolData string = symbolTable.get("java.lang.String");          
+      assertTrue("symbol table already contains String", symbolTable().containsKey("java.lang.String"));
+      SymbolData string = symbolTable().get("java.lang.String");          
 //      SymbolData string = new SymbolData("java.lang.String");
 //      string.setPackage("java.lang");
 //      string.setMav(_publicMav);
@@ -3635,7 +3636,7 @@ public class ExpressionTypeChecker extends SpecialTypeChecker {
       _sd6.addInterface(interfaceD);
       _sd6.setSuperClass(classD);
       
-      symbolTable.put("cebu", _sd6);
+      symbolTable().put("cebu", _sd6);
       _sd6.setMav(_publicMav);
       _sd6.setIsContinuation(false);
       
@@ -3831,7 +3832,7 @@ public class ExpressionTypeChecker extends SpecialTypeChecker {
       ArrayAccess aa = 
         new ArrayAccess(SourceInfo.NONE, NULL_LITERAL, NULL_LITERAL);
       
-      Hashtable<SymbolData, LanguageLevelVisitor> testNewSDs = LanguageLevelConverter._newSDs;
+      Hashtable<SymbolData, LanguageLevelVisitor> testNewSDs = LanguageLevelConverter.newSDs();
       LanguageLevelVisitor testLLVisitor = 
         new LanguageLevelVisitor(_etc._file, 
                                  _etc._package,
@@ -3928,8 +3929,8 @@ public class ExpressionTypeChecker extends SpecialTypeChecker {
       classD.setPackage("java.lang");
       classD.setMav(_publicMav);
       
-      symbolTable.put("java.lang.String", string);
-      symbolTable.put("java.lang.Class", classD);
+      symbolTable().put("java.lang.String", string);
+      symbolTable().put("java.lang.Class", classD);
       
       assertEquals("Should return string", string.getInstanceData(), sl.visit(_etc));
       assertEquals("Should return int", SymbolData.INT_TYPE.getInstanceData(), il.visit(_etc));
@@ -4124,7 +4125,7 @@ public class ExpressionTypeChecker extends SpecialTypeChecker {
       SymbolData g = new SymbolData("giraffe");
       g.setIsContinuation(false);
       g.setMav(_publicMav);
-      symbolTable.put("giraffe", g);
+      symbolTable().put("giraffe", g);
       
       VariableData var = new VariableData("g", _publicMav, g, true, _sd1);
       _etc._vars.addLast(var);
@@ -4285,8 +4286,8 @@ public class ExpressionTypeChecker extends SpecialTypeChecker {
 //      LanguageLevelConverter._newSDs = new Hashtable<SymbolData, LanguageLevelVisitor>();
       ArrayData boolArray = new ArrayData(SymbolData.BOOLEAN_TYPE, llv, SourceInfo.NONE);
       boolArray.setIsContinuation(false);
-      symbolTable.remove("boolean[]");
-      symbolTable.put("boolean[]", boolArray);
+      symbolTable().remove("boolean[]");
+      symbolTable().put("boolean[]", boolArray);
       VariableData myArrayVD = new VariableData("myArray", _publicMav, boolArray, true, _etc._data);
       _etc._vars.addLast(myArrayVD);
       
@@ -4355,8 +4356,8 @@ public class ExpressionTypeChecker extends SpecialTypeChecker {
       SymbolData stringSD = new SymbolData("java.lang.String");
       stringSD.setIsContinuation(false);
       stringSD.setPackage("java.lang");
-      symbolTable.remove("java.lang.String");
-      symbolTable.put("java.lang.String", stringSD);
+      symbolTable().remove("java.lang.String");
+      symbolTable().put("java.lang.String", stringSD);
       VariableData s = new VariableData("s", _publicMav, stringSD, true, _etc._data);
       _etc._vars.add(s);
       
@@ -4590,7 +4591,7 @@ public class ExpressionTypeChecker extends SpecialTypeChecker {
                                               new ParenthesizedExpressionList(SourceInfo.NONE, new Expression[0]),
                                               new BracedBody(SourceInfo.NONE, new BodyItemI[0]));
       
-      SymbolData object = LanguageLevelConverter.symbolTable.get("java.lang.Object");
+      SymbolData object = symbolTable().get("java.lang.Object");
       
       _sd1.setAnonymousInnerClassNum(0);
       
@@ -4646,7 +4647,7 @@ public class ExpressionTypeChecker extends SpecialTypeChecker {
       SymbolData sd = new SymbolData("name");
       sd.setIsContinuation(false);
       sd.setMav(_publicMav);
-      symbolTable.put("name", sd);
+      symbolTable().put("name", sd);
       SymbolData anon2 = new SymbolData("i.like.monkey$2");
       anon2.setIsContinuation(false);
       anon2.setPackage("i.like");
@@ -4676,7 +4677,7 @@ public class ExpressionTypeChecker extends SpecialTypeChecker {
       
       // Test that I can assign the anonymous inner class to a variable of the right type.
       _sd1.setAnonymousInnerClassNum(1);
-      symbolTable.put("int", SymbolData.INT_TYPE);
+      symbolTable().put("int", SymbolData.INT_TYPE);
       VariableDeclaration vd =
         new VariableDeclaration(SourceInfo.NONE, _publicMav, new VariableDeclarator[] { 
         new InitializedVariableDeclarator(SourceInfo.NONE, 
@@ -4734,7 +4735,7 @@ public class ExpressionTypeChecker extends SpecialTypeChecker {
                                         b,
                                         null);
       b.addMethod(consb);
-      symbolTable.put("A", a);
+      symbolTable().put("A", a);
       a.setMav(new ModifiersAndVisibility(SourceInfo.NONE, new String[] {"public"}));
       b.setMav(new ModifiersAndVisibility(SourceInfo.NONE, new String[] {"public"}));
       
@@ -4776,7 +4777,7 @@ public class ExpressionTypeChecker extends SpecialTypeChecker {
       VariableData bob = new VariableData("bob", _publicMav, _sd2, true, _sd1);
       _etc._vars.add(bob);  // _data for _etc is _sd1
       
-      SymbolData object = LanguageLevelConverter.symbolTable.get("java.lang.Object");
+      SymbolData object = symbolTable().get("java.lang.Object");
       _sd1.setAnonymousInnerClassNum(0);
       SymbolData anon1 = new SymbolData("i.like.monkey$1");
       anon1.setIsContinuation(false);
@@ -4832,7 +4833,7 @@ public class ExpressionTypeChecker extends SpecialTypeChecker {
       sd.setIsContinuation(false);
       sd.setMav(_publicMav);
       sd.setSuperClass(object);
-      symbolTable.put("name", sd);
+      symbolTable().put("name", sd);
       SymbolData anon2 = new SymbolData("i.like.monkey$2");
       anon2.setIsContinuation(false);
       anon2.setPackage("i.like");
@@ -4863,7 +4864,7 @@ public class ExpressionTypeChecker extends SpecialTypeChecker {
       
       // Test that I can assign the anonymous inner class to a variable of the right type.
       _sd1.setAnonymousInnerClassNum(1);
-      symbolTable.put("int", SymbolData.INT_TYPE);
+      symbolTable().put("int", SymbolData.INT_TYPE);
       VariableDeclaration vd = 
         new VariableDeclaration(SourceInfo.NONE, _publicMav, new VariableDeclarator[] { 
         new InitializedVariableDeclarator(SourceInfo.NONE, 
@@ -4921,7 +4922,7 @@ public class ExpressionTypeChecker extends SpecialTypeChecker {
       MethodData consb = 
         new MethodData("B", _publicMav, new TypeParameter[0], b, new VariableData[0], new String[0], b, null);
       b.addMethod(consb);
-      symbolTable.put("A", a);
+      symbolTable().put("A", a);
       a.setMav(new ModifiersAndVisibility(SourceInfo.NONE, new String[] {"public"}));
       b.setMav(new ModifiersAndVisibility(SourceInfo.NONE, new String[] {"public"}));
       
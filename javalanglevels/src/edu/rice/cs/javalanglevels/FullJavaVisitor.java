@@ -150,7 +150,7 @@ public class FullJavaVisitor extends LanguageLevelVisitor {
     // if sd already has a constructor, just return.
     boolean hasOtherConstructor = sd.hasMethod(name);
     if (hasOtherConstructor) {
-          LanguageLevelConverter._newSDs.remove(sd); // this won't do anything if sd is not in _newSDs.
+          LanguageLevelConverter.newSDs().remove(sd); // this won't do anything if sd is not in _newSDs.
 //          System.err.println(sd + " removed from _newSDs.  _newSDs = " + LanguageLevelConverter._newSDs);
           return;
     }
@@ -166,7 +166,7 @@ public class FullJavaVisitor extends LanguageLevelVisitor {
                                     null);
 
     addGeneratedMethod(sd, md);
-    LanguageLevelConverter._newSDs.remove(sd); // does nothing if sd is not in _newSDs.
+    LanguageLevelConverter.newSDs().remove(sd); // does nothing if sd is not in _newSDs.
   }
   
   /** Process the inner class def and then resolve it and store it in
@@ -549,9 +549,10 @@ public class FullJavaVisitor extends LanguageLevelVisitor {
     
     public void setUp() {
       errors = new LinkedList<Pair<String, JExpressionIF>>();
-      LanguageLevelConverter.symbolTable.clear();
-      LanguageLevelConverter._newSDs.clear();
-      LanguageLevelConverter.OPT = new Options(JavaVersion.JAVA_8, IterUtil.make(new File("lib/buildlib/junit.jar")));
+      LanguageLevelConverter.symbolTable().clear();
+      LanguageLevelConverter.newSDs().clear();
+      LanguageLevelConverter.setOptions(new Options(JavaVersion.JAVA_8, 
+                                                    IterUtil.make(new File("lib/buildlib/junit.jar"))));
       visitedFiles = new LinkedList<Pair<LanguageLevelVisitor, edu.rice.cs.javalanglevels.tree.SourceFile>>();      
 //      _hierarchy = new Hashtable<String, TypeDefBase>();
       _fv = new FullJavaVisitor(new File(""), 
@@ -577,7 +578,7 @@ public class FullJavaVisitor extends LanguageLevelVisitor {
       _sd1.setTypeParameters(new TypeParameter[0]);
       _sd1.setInterfaces(new ArrayList<SymbolData>()); 
       
-      _objectSD = LanguageLevelConverter.symbolTable.get("java.lang.Object");
+      _objectSD = LanguageLevelConverter.symbolTable().get("java.lang.Object");
       _sd1.setSuperClass(_objectSD);
       
       _fv._enclosingClassName = "i.like.monkey";
@@ -796,8 +797,8 @@ public class FullJavaVisitor extends LanguageLevelVisitor {
       sd.setPackage("");
       sd.setTypeParameters(new TypeParameter[0]);
       sd.setInterfaces(new ArrayList<SymbolData>()); 
-      sd.setSuperClass(LanguageLevelConverter.symbolTable.get("java.lang.Object"));
-      LanguageLevelConverter.symbolTable.put("Name", sd);
+      sd.setSuperClass(LanguageLevelConverter.symbolTable().get("java.lang.Object"));
+      LanguageLevelConverter.symbolTable().put("Name", sd);
                        
       ArrayInitializer ai = new ArrayInitializer(SourceInfo.NONE, new VariableInitializerI[0]);
       TypeVariable tv = new TypeVariable(SourceInfo.NONE, "Name");
@@ -805,7 +806,7 @@ public class FullJavaVisitor extends LanguageLevelVisitor {
       
       at.visit(_fv);
       assertEquals("There should be no errors", 0, errors.size());
-      SymbolData asd = LanguageLevelConverter.symbolTable.get("Name[]");
+      SymbolData asd = LanguageLevelConverter.symbolTable().get("Name[]");
       assertNotNull("asd should not be null", asd);
       ArrayData ad = (ArrayData) asd;
       assertEquals("ad should have an elt sd of name 'Name'", "Name", ad.getElementType().getName());
@@ -817,11 +818,12 @@ public class FullJavaVisitor extends LanguageLevelVisitor {
 
       at2.visit(_fv);
       assertEquals("There should be no errors", 0, errors.size());
-      assertNotNull("Object should be in the symbolTable", LanguageLevelConverter.symbolTable.get("java.lang.Object"));
+      assertNotNull("Object should be in the symbolTable", 
+                    LanguageLevelConverter.symbolTable().get("java.lang.Object"));
       assertNotNull("Object[] should be in the symbolTable", 
-                    LanguageLevelConverter.symbolTable.get("java.lang.Object[]"));
+                    LanguageLevelConverter.symbolTable().get("java.lang.Object[]"));
       assertNotNull("Object[][] should be in the symbolTable", 
-                    LanguageLevelConverter.symbolTable.get("java.lang.Object[][]"));
+                    LanguageLevelConverter.symbolTable().get("java.lang.Object[][]"));
     }
     
     // TODO: resurrect a test of this method
@@ -919,11 +921,11 @@ public class FullJavaVisitor extends LanguageLevelVisitor {
       cd0.visit(_fv);
       assertEquals("There should be no errors", 0, errors.size());
       assertTrue("Should have resolved java.lang.Object", 
-                 LanguageLevelConverter.symbolTable.containsKey("java.lang.Object"));
+                 LanguageLevelConverter.symbolTable().containsKey("java.lang.Object"));
       assertFalse("Should not be a continuation", 
-                  LanguageLevelConverter.symbolTable.get("java.lang.Object").isContinuation());
-      SymbolData sd = LanguageLevelConverter.symbolTable.get("Lisa");
-      assertTrue("Lisa should be in _newSDs", LanguageLevelConverter._newSDs.containsKey(sd));
+                  LanguageLevelConverter.symbolTable().get("java.lang.Object").isContinuation());
+      SymbolData sd = LanguageLevelConverter.symbolTable().get("Lisa");
+      assertTrue("Lisa should be in _newSDs", LanguageLevelConverter.newSDs().containsKey(sd));
       assertEquals("sd should have no methods", 0, sd.getMethods().size());
       assertEquals("sd's package should be correct", "", sd.getPackage());
       
@@ -938,10 +940,10 @@ public class FullJavaVisitor extends LanguageLevelVisitor {
       cd1.visit(_fv);
       assertEquals("There should be no errors", 0, errors.size());
       assertTrue("Should have resolved java.lang.System", 
-                 LanguageLevelConverter.symbolTable.containsKey("java.lang.System"));
+                 LanguageLevelConverter.symbolTable().containsKey("java.lang.System"));
       assertFalse("Should not be a continuation", 
-                  LanguageLevelConverter.symbolTable.get("java.lang.System").isContinuation());
-      sd = LanguageLevelConverter.symbolTable.get("Bart");
+                  LanguageLevelConverter.symbolTable().get("java.lang.System").isContinuation());
+      sd = LanguageLevelConverter.symbolTable().get("Bart");
       
       assertEquals("There should be 0 methods", 0, sd.getMethods().size()); //(no code augmentation is done)
       
@@ -966,11 +968,11 @@ public class FullJavaVisitor extends LanguageLevelVisitor {
 
       _fv._file = new File("TestSuper2.dj2");
       _fv._importedFiles.addLast("junit.framework.TestCase");
-      LanguageLevelConverter.symbolTable.put("junit.framework.TestCase", new SymbolData("junit.framework.TestCase"));
+      LanguageLevelConverter.symbolTable().put("junit.framework.TestCase", new SymbolData("junit.framework.TestCase"));
       cd3.visit(_fv);
       assertEquals("There should still just be no errors", 0, errors.size());
       assertNotNull("Should have looked up TestSuper2", 
-                    LanguageLevelConverter.symbolTable.get("TestSuper2"));
+                    LanguageLevelConverter.symbolTable().get("TestSuper2"));
       
       //Check a method with void return, but name not starting with test, so it's not okay.
       //This is now checked in the type checker!
@@ -1045,16 +1047,16 @@ public class FullJavaVisitor extends LanguageLevelVisitor {
         new MethodData("myMethod", _publicMav, new TypeParameter[0], SymbolData.INT_TYPE, new VariableData[0], 
                        new String[0], sd2, amd2);
       
-      LanguageLevelConverter.symbolTable.put("i.like.monkey.id", sd);
-      LanguageLevelConverter.symbolTable.put("i.like.monkey.id2", sd2);
+      LanguageLevelConverter.symbolTable().put("i.like.monkey.id", sd);
+      LanguageLevelConverter.symbolTable().put("i.like.monkey.id2", sd2);
 
       id.visit(_fv);
       id2.visit(_fv);
       assertEquals("Should be no errors", 0, errors.size());
       assertEquals("Should return the same symbol datas: id", sd, 
-                   LanguageLevelConverter.symbolTable.get("i.like.monkey.id"));
+                   LanguageLevelConverter.symbolTable().get("i.like.monkey.id"));
       assertEquals("Should return the same symbol datas:id2 ", sd2, 
-                   LanguageLevelConverter.symbolTable.get("i.like.monkey.id2"));
+                   LanguageLevelConverter.symbolTable().get("i.like.monkey.id2"));
     }
     
     public void testHandleInnerClassDef() { 
@@ -1300,9 +1302,9 @@ public class FullJavaVisitor extends LanguageLevelVisitor {
      _fv._enclosingClassName = "i.like.monkey";
      _fv.complexAnonymousClassInstantiationHelper(basic, _sd1);  // TODO: the wrong enclosing context?
      assertEquals("There should be no errors", 0, errors.size());
-     SymbolData obj = LanguageLevelConverter.symbolTable.get("java.lang.Object");
+     SymbolData obj = LanguageLevelConverter.symbolTable().get("java.lang.Object");
      assertNotNull("Object should be in the symbol table", obj);
-     SymbolData objInner = LanguageLevelConverter.symbolTable.get("java.lang.Object.Inner");
+     SymbolData objInner = LanguageLevelConverter.symbolTable().get("java.lang.Object.Inner");
      assertEquals("sd1 should have one inner class", 1, _sd1.getInnerClasses().size());
      SymbolData inner = _sd1.getInnerClasses().get(0);
      assertEquals("The inner class should have the proper name", "i.like.monkey$1", inner.getName());
@@ -260,9 +260,10 @@ public class InterfaceBodyFullJavaVisitor extends FullJavaVisitor {
     
     public void setUp() {
       errors = new LinkedList<Pair<String, JExpressionIF>>();
-      LanguageLevelConverter.symbolTable.clear();
-      LanguageLevelConverter._newSDs.clear();
-      LanguageLevelConverter.OPT = new Options(JavaVersion.JAVA_8, IterUtil.make(new File("lib/buildlib/junit.jar")));
+      LanguageLevelConverter.symbolTable().clear();
+      LanguageLevelConverter.newSDs().clear();
+      LanguageLevelConverter.setOptions(new Options(JavaVersion.JAVA_8, 
+                                                    IterUtil.make(new File("lib/buildlib/junit.jar"))));
       visitedFiles = new LinkedList<Pair<LanguageLevelVisitor, edu.rice.cs.javalanglevels.tree.SourceFile>>();   
       
             
@@ -287,10 +288,10 @@ public class InterfaceBodyFullJavaVisitor extends FullJavaVisitor {
       _ibfv._importedPackages.addFirst("java.lang");
       _ibfv._enclosingClassName = "MyInterface";
 
-      _objectSD = LanguageLevelConverter.symbolTable.get("java.lang.Object");
+      _objectSD = LanguageLevelConverter.symbolTable().get("java.lang.Object");
       _sd1.setSuperClass(_objectSD);
       
-      LanguageLevelConverter.symbolTable.put("MyInterface", _sd1);
+      LanguageLevelConverter.symbolTable().put("MyInterface", _sd1);
 
       _errorAdded = false;
     }
@@ -487,7 +488,7 @@ public class InterfaceBodyFullJavaVisitor extends FullJavaVisitor {
       _ibfv._enclosing.setInterface(true);
       
 //      SymbolData obj = new SymbolData("java.lang.Object");
-      LanguageLevelConverter._newSDs.clear();
+      LanguageLevelConverter.newSDs().clear();
 //      LanguageLevelConverter.symbolTable.put("java.lang.Object", obj);
       
       InnerClassDef cd1 = 
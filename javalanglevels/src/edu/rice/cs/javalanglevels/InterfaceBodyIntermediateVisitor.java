@@ -202,9 +202,10 @@ public class InterfaceBodyIntermediateVisitor extends IntermediateVisitor {
       _sd1.setInterfaces(new ArrayList<SymbolData>());
 
       errors = new LinkedList<Pair<String, JExpressionIF>>();
-      LanguageLevelConverter.symbolTable.clear();
-      LanguageLevelConverter._newSDs.clear();
-      LanguageLevelConverter.OPT = new Options(JavaVersion.JAVA_8, IterUtil.make(new File("lib/buildlib/junit.jar")));
+      LanguageLevelConverter.symbolTable().clear();
+      LanguageLevelConverter.newSDs().clear();
+      LanguageLevelConverter.setOptions(new Options(JavaVersion.JAVA_8, 
+                                                    IterUtil.make(new File("lib/buildlib/junit.jar"))));
       visitedFiles = new LinkedList<Pair<LanguageLevelVisitor, edu.rice.cs.javalanglevels.tree.SourceFile>>();      
 //      _hierarchy = new Hashtable<String, TypeDefBase>();
       _ibiv = 
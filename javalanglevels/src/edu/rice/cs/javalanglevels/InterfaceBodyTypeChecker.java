@@ -44,6 +44,7 @@ import edu.rice.cs.plt.reflect.JavaVersion;
 import edu.rice.cs.plt.iter.*;
 
 import junit.framework.TestCase;
+import static edu.rice.cs.javalanglevels.LanguageLevelConverter.symbolTable;
 
 /**Do the TypeChecking appropriate to the context of a class body.  Common to all Language Levels.*/
 public class InterfaceBodyTypeChecker extends SpecialTypeChecker {
@@ -171,12 +172,12 @@ public class InterfaceBodyTypeChecker extends SpecialTypeChecker {
       _sd5 = new SymbolData("");
       _sd6 = new SymbolData("cebu");
       errors = new LinkedList<Pair<String, JExpressionIF>>();
-      LanguageLevelConverter.symbolTable.clear();
-      LanguageLevelConverter._newSDs.clear();
+      symbolTable().clear();
+      LanguageLevelConverter.newSDs().clear();
       _ibbtc = 
         new InterfaceBodyTypeChecker(_sd1, new File(""), "", new LinkedList<String>(), new LinkedList<String>(),
                                      new LinkedList<VariableData>(), new LinkedList<Pair<SymbolData, JExpression>>());
-      LanguageLevelConverter.OPT = new Options(JavaVersion.JAVA_8, EmptyIterable.<File>make());
+      LanguageLevelConverter.setOptions(new Options(JavaVersion.JAVA_8, EmptyIterable.<File>make()));
       _ibbtc._importedPackages.addFirst("java.lang");
     }
     
@@ -270,7 +271,7 @@ public class InterfaceBodyTypeChecker extends SpecialTypeChecker {
       
       SymbolData sd = new SymbolData("Adam");
       sd.setIsContinuation(false);
-      symbolTable.put("Adam", sd);
+      symbolTable().put("Adam", sd);
       sd.setMav(_publicMav);
       t = new ClassOrInterfaceType(SourceInfo.NONE, "Adam", new Type[0]);
       t.visit(_ibbtc);
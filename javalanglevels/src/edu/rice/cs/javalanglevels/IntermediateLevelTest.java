@@ -147,7 +147,7 @@ public class IntermediateLevelTest extends TestCase {
     File[] arrayF = new File[]{ new File("testFiles/forIntermediateLevelTest/Yay.dj1")};
     LanguageLevelConverter llc = new LanguageLevelConverter();
     Pair<LinkedList<JExprParseException>, LinkedList<Pair<String, JExpressionIF>>> result;
-    assert llc._newSDs != null;
+    assert LanguageLevelConverter.newSDs() != null;
     result = llc.convert(arrayF, new Options(JavaVersion.JAVA_8, EmptyIterable.<File>make()));
     assertEquals("should be no parse exceptions", new LinkedList<JExprParseException>(), result.getFirst());
     
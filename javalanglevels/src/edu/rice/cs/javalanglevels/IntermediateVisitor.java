@@ -667,9 +667,10 @@ public class IntermediateVisitor extends LanguageLevelVisitor {
     public void setUp() {
       
       errors = new LinkedList<Pair<String, JExpressionIF>>();
-      LanguageLevelConverter.symbolTable.clear();
-      LanguageLevelConverter._newSDs.clear();
-      LanguageLevelConverter.OPT = new Options(JavaVersion.JAVA_8, IterUtil.make(new File("lib/buildlib/junit.jar")));
+      LanguageLevelConverter.symbolTable().clear();
+      LanguageLevelConverter.newSDs().clear();
+      LanguageLevelConverter.setOptions(new Options(JavaVersion.JAVA_8, 
+                                                    IterUtil.make(new File("lib/buildlib/junit.jar"))));
       visitedFiles = new LinkedList<Pair<LanguageLevelVisitor, SourceFile>>();      
 //      _hierarchy = new Hashtable<String, TypeDefBase>();
       
@@ -678,7 +679,8 @@ public class IntermediateVisitor extends LanguageLevelVisitor {
                                     continuations,
                                     new LinkedList<Command>(),
                                     new LinkedList<Pair<LanguageLevelVisitor, SourceFile>>());
-      LanguageLevelConverter.OPT = new Options(JavaVersion.JAVA_8, IterUtil.make(new File("lib/buildlib/junit.jar")));
+      LanguageLevelConverter.setOptions(new Options(JavaVersion.JAVA_8, 
+                                                    IterUtil.make(new File("lib/buildlib/junit.jar"))));
       _iv._classesInThisFile = new HashSet<String>();
       _iv.continuations = new Hashtable<String, Triple<SourceInfo, LanguageLevelVisitor, SymbolData>>();
 //      _iv._resetNonStaticFields();
@@ -1135,11 +1137,11 @@ public class IntermediateVisitor extends LanguageLevelVisitor {
       cd0.visit(_iv);
       assertEquals("There should be no errors", 0, errors.size());
       assertTrue("Should have resolved java.lang.Object", 
-                 LanguageLevelConverter.symbolTable.containsKey("java.lang.Object"));
+                 LanguageLevelConverter.symbolTable().containsKey("java.lang.Object"));
       assertFalse("Should not be a continuation", 
-                  LanguageLevelConverter.symbolTable.get("java.lang.Object").isContinuation());
-      SymbolData sd = LanguageLevelConverter.symbolTable.get("Lisa");
-      assertTrue("Lisa should be in _newSDs", LanguageLevelConverter._newSDs.containsKey(sd));
+                  LanguageLevelConverter.symbolTable().get("java.lang.Object").isContinuation());
+      SymbolData sd = LanguageLevelConverter.symbolTable().get("Lisa");
+      assertTrue("Lisa should be in _newSDs", LanguageLevelConverter.newSDs().containsKey(sd));
       MethodData md2 = 
         new MethodData("equals",
                        PUBLIC_MAV, 
@@ -1168,10 +1170,10 @@ public class IntermediateVisitor extends LanguageLevelVisitor {
       cd1.visit(_iv);
       assertEquals("There should be no errors", 0, errors.size());
       assertTrue("Should have resolved java.lang.System", 
-                 LanguageLevelConverter.symbolTable.containsKey("java.lang.System"));
+                 LanguageLevelConverter.symbolTable().containsKey("java.lang.System"));
       assertFalse("Should not be a continuation", 
-                  LanguageLevelConverter.symbolTable.get("java.lang.System").isContinuation());
-      sd = LanguageLevelConverter.symbolTable.get("Bart");
+                  LanguageLevelConverter.symbolTable().get("java.lang.System").isContinuation());
+      sd = LanguageLevelConverter.symbolTable().get("Bart");
       
       assertEquals("There should be 3 methods", 3, sd.getMethods().size());
       
@@ -1196,10 +1198,10 @@ public class IntermediateVisitor extends LanguageLevelVisitor {
       
       _iv._file=new File("TestSuper2.dj0");
       _iv._importedFiles.addLast("junit.framework.TestCase");
-      LanguageLevelConverter.symbolTable.put("junit.framework.TestCase", new SymbolData("junit.framework.TestCase"));
+      LanguageLevelConverter.symbolTable().put("junit.framework.TestCase", new SymbolData("junit.framework.TestCase"));
       cd3.visit(_iv);
       assertEquals("There should still just be no errors", 0, errors.size());
-      assertNotNull("Should have looked up TestSuper2", LanguageLevelConverter.symbolTable.get("TestSuper2"));
+      assertNotNull("Should have looked up TestSuper2", LanguageLevelConverter.symbolTable().get("TestSuper2"));
       
       // Check a method with void return, but name not starting with test, but it's still okay.
       //This is now checked in the type checker!
@@ -1272,15 +1274,15 @@ public class IntermediateVisitor extends LanguageLevelVisitor {
       MethodData md2 = 
         new MethodData("myMethod", PUBLIC_MAV, new TypeParameter[0], SymbolData.INT_TYPE, new VariableData[0], 
                        new String[0], sd2, amd2);
-      LanguageLevelConverter.symbolTable.put("id", sd);
-      LanguageLevelConverter.symbolTable.put("id2", sd2);
+      LanguageLevelConverter.symbolTable().put("id", sd);
+      LanguageLevelConverter.symbolTable().put("id2", sd2);
       
       id.visit(_iv);
       id2.visit(_iv);
       
       assertEquals("Should be no errors", 0, errors.size());
-      assertEquals("Should return the same symbol datas: id", sd, LanguageLevelConverter.symbolTable.get("id"));
-      assertEquals("Should return the same symbol datas:id2 ", sd2, LanguageLevelConverter.symbolTable.get("id2"));
+      assertEquals("Should return the same symbol datas: id", sd, LanguageLevelConverter.symbolTable().get("id"));
+      assertEquals("Should return the same symbol datas:id2 ", sd2, LanguageLevelConverter.symbolTable().get("id2"));
     }
     
     
@@ -1384,7 +1386,7 @@ public class IntermediateVisitor extends LanguageLevelVisitor {
 //      System.err.println("SymbolData for i.like.monkey = " + _iv.getQualifiedSymbolData("i.like.monkey", SourceInfo.NONE));
       _iv.simpleAnonymousClassInstantiationHelper(basic, _sd1);
       assertEquals("There should be no errors", 0, errors.size());
-      SymbolData obj = LanguageLevelConverter.symbolTable.get("java.lang.Object");
+      SymbolData obj = LanguageLevelConverter.symbolTable().get("java.lang.Object");
       assertNotNull("Object should be in the symbol table", obj);
       assertEquals("sd1 should have one inner class", 1, _sd1.getInnerClasses().size());
       SymbolData inner = _sd1.getInnerClasses().get(0);
@@ -1408,9 +1410,9 @@ public class IntermediateVisitor extends LanguageLevelVisitor {
       _iv._enclosingClassName = "i.like.monkey";
       _iv.complexAnonymousClassInstantiationHelper(basic, _sd1); // TODO: the wrong enclosing context?
       assertEquals("There should be no errors", 0, errors.size());
-      SymbolData obj = LanguageLevelConverter.symbolTable.get("java.lang.Object");
+      SymbolData obj = LanguageLevelConverter.symbolTable().get("java.lang.Object");
       assertNotNull("Object should be in the symbol table", obj);
-      SymbolData objInner = LanguageLevelConverter.symbolTable.get("java.lang.Object.Inner");
+      SymbolData objInner = LanguageLevelConverter.symbolTable().get("java.lang.Object.Inner");
       assertEquals("sd1 should have one inner class", 1, _sd1.getInnerClasses().size());
       SymbolData inner = _sd1.getInnerClasses().get(0);
       assertEquals("The inner class should have the proper name", "i.like.monkey$1", inner.getName());
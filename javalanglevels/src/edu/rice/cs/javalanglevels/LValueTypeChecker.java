@@ -269,7 +269,7 @@ public class LValueTypeChecker extends JExpressionIFAbstractVisitor<TypeData> {
                    new LinkedList<VariableData>(), new LinkedList<Pair<SymbolData, JExpression>>()));
       _ta = _lvtc._testAssignableInstance;
       _lvtc._bob.errors = new LinkedList<Pair<String, JExpressionIF>>();
-      LanguageLevelConverter.symbolTable.clear();
+      LanguageLevelConverter.symbolTable().clear();
 //      LanguageLevelConverter.OPT = new Options(JavaVersion.JAVA_8, IterUtil.<File>empty());
       _lvtc._bob._importedPackages.addFirst("java.lang");
     }
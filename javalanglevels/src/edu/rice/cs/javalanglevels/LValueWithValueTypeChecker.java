@@ -262,7 +262,7 @@ public class LValueWithValueTypeChecker extends JExpressionIFAbstractVisitor<Typ
                                                               new LinkedList<Pair<SymbolData, JExpression>>()));
       _ta = _lvtc._testAssignableInstance;
       _lvtc._bob.errors = new LinkedList<Pair<String, JExpressionIF>>();
-      LanguageLevelConverter.symbolTable.clear();
+      LanguageLevelConverter.symbolTable().clear();
 //      LanguageLevelConverter.OPT = new Options(JavaVersion.JAVA_8, IterUtil.<File>empty());
       _lvtc._bob._importedPackages.addFirst("java.lang");
     }
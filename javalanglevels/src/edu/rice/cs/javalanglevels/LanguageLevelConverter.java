@@ -39,8 +39,13 @@ package edu.rice.cs.javalanglevels;
 import java.lang.reflect.Modifier;
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 
-import org.objectweb.asm.*;
 
 import edu.rice.cs.javalanglevels.*;
 import edu.rice.cs.javalanglevels.parser.*;
@@ -51,7 +56,7 @@ import edu.rice.cs.javalanglevels.util.Utilities;
 
 import edu.rice.cs.plt.iter.*;
 import edu.rice.cs.plt.io.IOUtil;
-import edu.rice.cs.plt.lambda.Thunk;
+import edu.rice.cs.plt.lambda.Lambda;
 import edu.rice.cs.plt.reflect.EmptyClassLoader;
 import edu.rice.cs.plt.reflect.JavaVersion;
 import edu.rice.cs.plt.reflect.PathClassLoader;
@@ -64,15 +69,13 @@ public class LanguageLevelConverter {
   
   public static final Log _log = new Log("LLConverter.txt", false);
   
-  /* TODO: get rid of all the static dreck (except constants) used in this class and its affiliated
-   * classes.  Ugly, ugly, ugly ...  Corky 11-11-14 */
+  /* TODO: get rid of the static state (except constants) that remains in the affiliated visitor classes. */
   
-  /** Hashtable for a shared symbolTable.  Since this field is static, only one instance of
-    * LanguageLevelConverter should exist at a time.  If we create a
-    * LanguageLevelConverter instance for each translation, we must drop the static attribute. */
-  public static final Symboltable symbolTable = new Symboltable();
-  
-  public static Options OPT = Options.DEFAULT;
+  /** The converter whose symbol table, options, and new SymbolDatas are used by the visitors, type checkers, and 
+    * SymbolDatas running in the current thread.  A converter binds itself while it converts, including in the threads
+    * that augment its files.  Code that uses the visitors without a converter (such as their unit tests) gets a 
+    * converter of its own for each thread; see current(). */
+  private static final ThreadLocal<LanguageLevelConverter> CURRENT = new ThreadLocal<LanguageLevelConverter>();
   
   /* For Corky's version: set this to false */
   private static final boolean SAFE_SUPPORT_CODE = false;
@@ -83,10 +86,14 @@ public class LanguageLevelConverter {
   
   public static final SymbolData OBJECT;  // initialized in static initialization block
   
-  /** Stores all the SymbolDatas (and corresponding visitors) created as in course of conversion.  If we create a
-    * LanguageLevelConverter instance for each translation, we must drop the static attribute. */
-  public static final Hashtable<SymbolData, LanguageLevelVisitor> _newSDs = 
-    new Hashtable<SymbolData, LanguageLevelVisitor>();
+  /** The symbol table of this converter, which is cleared at the start of every conversion. */
+  private final Symboltable _symbolTable = new Symboltable();
+  
+  /** The options of the current (or last) conversion. */
+  private volatile Options _options = Options.DEFAULT;
+  
+  /** Stores all the SymbolDatas (and corresponding visitors) created in the course of conversion. */
+  private final Hashtable<SymbolData, LanguageLevelVisitor> _newSDs = new Hashtable<SymbolData, LanguageLevelVisitor>();
   
   /**Holds any parse exceptions that are encountered*/
   private LinkedList<JExprParseException> _parseExceptions = new LinkedList<JExprParseException>();
@@ -94,41 +101,95 @@ public class LanguageLevelConverter {
   /**Holds any visitor exceptions that are encountered*/
   private LinkedList<Pair<String, JExpressionIF>> _visitorErrors = new LinkedList<Pair<String, JExpressionIF>>();
   
-  /* Relying on default constructor. */
+  /** The number of threads used to parse and augment files. */
+  private final int _threads;
+  
+  /** Creates a converter that parses and augments files with one thread per available processor. */
+  public LanguageLevelConverter() { this(Runtime.getRuntime().availableProcessors()); }
+  
+  /** @param threads  The number of threads used to parse and augment files.  If greater than 1, files are parsed, and 
+    *                 once the symbol table is complete, augmented concurrently; the passes in between, which build
+    *                 the symbol table, always run in a single thread, in the order of the files.  Errors are 
+    *                 reported in the same order either way. */
+  public LanguageLevelConverter(int threads) { _threads = threads; }
+  
+  /** @return the converter bound to the current thread, which is created if the thread has none. */
+  public static LanguageLevelConverter current() {
+    LanguageLevelConverter result = CURRENT.get();
+    if (result == null) {
+      result = new LanguageLevelConverter(1);
+      CURRENT.set(result);
+    }
+    return result;
+  }
+  
+  /** @return the symbol table of the converter bound to the current thread */
+  public static Symboltable symbolTable() { return current()._symbolTable; }
+  
+  /** @return the options of the converter bound to the current thread */
+  public static Options options() { return current()._options; }
+  
+  /** Sets the options of the converter bound to the current thread.  Used in testing; convert sets the options of
+    * the converter it runs on. */
+  public static void setOptions(Options options) { current()._options = options; }
+  
+  /** @return the SymbolDatas (and corresponding visitors) created by the converter bound to the current thread whose
+    *         constructors have not been created yet */
+  public static Hashtable<SymbolData, LanguageLevelVisitor> newSDs() { return current()._newSDs; }
   
   /** Ensures that the symbol table contains essential symbols.  Executed as part of LanguageLevelVisitor init
     * and typechecker inits (TryCatchBodyTypeChecker, TypeChecker, ExpressionTypeChecker). */
-  public static void loadSymbolTable() {
+  public synchronized void loadSymbolTable() {
 
-    if (symbolTable.get("java.lang.Object") == null)    _classFile2SymbolData("java.lang.Object");
-    if (symbolTable.get("java.lang.Integer") == null)   _classFile2SymbolData("java.lang.Integer");
-    if (symbolTable.get("java.lang.Double") == null)    _classFile2SymbolData("java.lang.Double");
-    if (symbolTable.get("java.lang.Boolean") == null)   _classFile2SymbolData("java.lang.Boolean");
-    if (symbolTable.get("java.lang.Long") == null)      _classFile2SymbolData("java.lang.Long");
-    if (symbolTable.get("java.lang.Byte") == null)      _classFile2SymbolData("java.lang.Byte");
-    if (symbolTable.get("java.lang.Short") == null)     _classFile2SymbolData("java.lang.Short");
-    if (symbolTable.get("java.lang.Float") == null)     _classFile2SymbolData("java.lang.Float");
-    if (symbolTable.get("java.lang.Character") == null) _classFile2SymbolData("java.lang.Character");
-    
-    if (symbolTable.get("java.lang.String") == null)    _classFile2SymbolData("java.lang.String");
+    if (_symbolTable.get("java.lang.Object") == null)    _classFile2SymbolData("java.lang.Object");
+    if (_symbolTable.get("java.lang.Integer") == null)   _classFile2SymbolData("java.lang.Integer");
+    if (_symbolTable.get("java.lang.Double") == null)    _classFile2SymbolData("java.lang.Double");
+    if (_symbolTable.get("java.lang.Boolean") == null)   _classFile2SymbolData("java.lang.Boolean");
+    if (_symbolTable.get("java.lang.Long") == null)      _classFile2SymbolData("java.lang.Long");
+    if (_symbolTable.get("java.lang.Byte") == null)      _classFile2SymbolData("java.lang.Byte");
+    if (_symbolTable.get("java.lang.Short") == null)     _classFile2SymbolData("java.lang.Short");
+    if (_symbolTable.get("java.lang.Float") == null)     _classFile2SymbolData("java.lang.Float");
+    if (_symbolTable.get("java.lang.Character") == null) _classFile2SymbolData("java.lang.Character");
+    
+    if (_symbolTable.get("java.lang.String") == null)    _classFile2SymbolData("java.lang.String");
 
-    SymbolData objectSD = symbolTable.get("java.lang.Object");   
-    SymbolData integerSD = symbolTable.get("java.lang.Integer");
+    SymbolData objectSD = _symbolTable.get("java.lang.Object");   
+    SymbolData integerSD = _symbolTable.get("java.lang.Integer");
     assert objectSD != null && integerSD != null;
     assert integerSD.isAssignableTo(objectSD, true);
     assert SymbolData.INT_TYPE.isAssignableTo(objectSD, true);
   }
   
-    /** We'll use this class loader to look up resources (*not* to load classes) */
-  private static final Thunk<ClassLoader> RESOURCES = new Thunk<ClassLoader>() {
+  /** We'll use this class loader to look up resources (*not* to load classes) on the class path of the given 
+    * options.  Boot class path resources are found in {@link #LIBRARY}.  The loader is shared by all converters and
+    * reused as long as the class path is unchanged, even if the options are replaced.  It is indexed, so looking up
+    * a class that is not on a long class path of jar files is a single hash lookup.
+    */
+  private static final Lambda<Options, ClassLoader> RESOURCES = new Lambda<Options, ClassLoader>() {
     private Options _cachedOptions = null;
+    private Iterable<File> _cachedPath = null;
     private ClassLoader _cachedResult = null;
-    public ClassLoader value() {
-      if (LanguageLevelConverter.OPT != _cachedOptions) {
-        _cachedOptions = LanguageLevelConverter.OPT;
-        Iterable<File> searchPath = IterUtil.<File>compose(LanguageLevelConverter.OPT.bootClassPath(),
-                                                     LanguageLevelConverter.OPT.classPath());
-        _cachedResult = new PathClassLoader(EmptyClassLoader.INSTANCE, searchPath);
+    public synchronized ClassLoader value(Options options) {
+      if (options != _cachedOptions) {
+        _cachedOptions = options;
+        Iterable<File> searchPath = IterUtil.<File>snapshot(options.classPath());
+        if (_cachedPath == null || ! IterUtil.isEqual(searchPath, _cachedPath)) {
+          _cachedPath = searchPath;
+          _cachedResult = new PathClassLoader(EmptyClassLoader.INSTANCE, searchPath, true);
+        }
+      }
+      return _cachedResult;
+    }
+  };
+  
+  /** The shared signature cache for the classes on the boot class path of the given options. */
+  private static final Lambda<Options, LibraryClassCache> LIBRARY = new Lambda<Options, LibraryClassCache>() {
+    private Options _cachedOptions = null;
+    private LibraryClassCache _cachedResult = null;
+    public synchronized LibraryClassCache value(Options options) {
+      if (options != _cachedOptions) {
+        _cachedOptions = options;
+        _cachedResult = LibraryClassCache.forBootClassPath(options.bootClassPath());
       }
       return _cachedResult;
     }
@@ -152,53 +213,56 @@ public class LanguageLevelConverter {
   }
   
   /** Defines library or already compiled classes assuming they are available to the PathClassLoader. */
-  public static SymbolData _classFile2SymbolData(String qualifiedClassName) { 
+  public SymbolData _classFile2SymbolData(String qualifiedClassName) { 
     return _classFile2SymbolData(qualifiedClassName, null);
   }
   
   /** Uses the ASM class reader to read the class file corresponding to the class in the specified directory, and uses
     * the information from ASM to build a SymbolData corresponding to the class.  Ensures that the returned SymbolData
-    * (if any) is inserted in the symbolTable.  Silently fails returning null instead of throwing an exception.
-    * Relies on fact that a static variable, namely LanguageLevelConverter.symbolTable holds the symbol table. UGHH!!
-    * There should be a symbol table object and this method should be an instance method of that object!!
+    * (if any) is inserted in the symbol table of this converter.  Silently fails returning null instead of throwing an
+    * exception.  Synchronized because files are augmented concurrently, and augmentation may read class files.
     * @param qualifiedClassName  The fully qualified class name of the class we are looking up
     * @param programRoot  The directory where the class is located.
     * @return The SymbolData for the class file if the class file was found; null otherwise.
     */
-  public static SymbolData _classFile2SymbolData(final String qualifiedClassName, final String programRoot) {
+  public synchronized SymbolData _classFile2SymbolData(final String qualifiedClassName, final String programRoot) {
     _log.log("***** _classFile2SymbolData(" + qualifiedClassName + ", " + programRoot + ") called");
     
-    ClassReader reader = null;
-    try {
-      String fileName = qualifiedClassName.replace('.', '/') + ".class";
-      _log.log("***** reading class file: " + fileName);
-      InputStream stream = RESOURCES.value().getResourceAsStream(fileName);
-      if (stream == null && programRoot != null) {
-        stream = PathClassLoader.getResourceInPathAsStream(fileName, new File(programRoot));
-      }
-      if (stream == null) { 
-        _log.log("***** class file was empty! *****");
-        return null; 
+    final LibraryClassCache.ClassInfo info;
+    LibraryClassCache.ClassInfo libraryInfo = LIBRARY.value(_options).get(qualifiedClassName);
+    if (libraryInfo != null) { info = libraryInfo; }
+    else {
+      try {
+        String fileName = qualifiedClassName.replace('.', '/') + ".class";
+        _log.log("***** reading class file: " + fileName);
+        InputStream stream = RESOURCES.value(_options).getResourceAsStream(fileName);
+        if (stream == null && programRoot != null) {
+          stream = PathClassLoader.getResourceInPathAsStream(fileName, new File(programRoot));
+        }
+        if (stream == null) { 
+          _log.log("***** class file was empty! *****");
+          return null; 
+        }
+        // Let IOUtil handle the stream here, because it closes it when it's done, unlike ASM.
+        info = LibraryClassCache.ClassInfo.read(IOUtil.toByteArray(stream));
       }
-      // Let IOUtil handle the stream here, because it closes it when it's done, unlike ASM.
-      reader = new ClassReader(IOUtil.toByteArray(stream));
+      catch (IOException e) { return null; }
     }
-    catch (IOException e) { return null; }
     
     // Class file found; create the symbol table entry
     final SymbolData sd;
 //    if (qualifiedClassName.equals("java.lang.Object")) { 
 //      System.err.println("***SHOUT*** java.lang.Object is being added to symbolTable from class file");
 //    }
-    SymbolData sdLookup = LanguageLevelConverter.symbolTable.get(qualifiedClassName); 
+    SymbolData sdLookup = _symbolTable.get(qualifiedClassName); 
     
     if (sdLookup == null)  { // create a continuation for sd
       sd = new SymbolData(qualifiedClassName); 
-      LanguageLevelConverter.symbolTable.put(qualifiedClassName, sd);
+      _symbolTable.put(qualifiedClassName, sd);
     }
     else { sd = sdLookup; }
     
-    assert LanguageLevelConverter.symbolTable.contains(sd);
+    assert _symbolTable.contains(sd);
     
 //    if (! sd.isContinuation()) { System.err.println("***NOTE*** Non-continuation " + sd + " resolved from class file"); }
     // make it be a non-continuation, since we are filling it in
@@ -209,99 +273,76 @@ public class LanguageLevelConverter {
     
     // TODO !!! Use classFile2SymbolData directly.  Should class files have their supertypes defined anywhere but in 
     // class files?
-    ClassVisitor extractData = new ClassVisitor(Opcodes.ASM4) {
-      
-      public void visit(int version, int access, String name, String sig, String sup, String[] interfaces) {
-        sd.setMav(_createMav(access));
-        sd.setInterface(Modifier.isInterface(access));
-        
-        int slash = name.lastIndexOf('/');
-        if (slash == -1) { sd.setPackage(""); }
-        else { sd.setPackage(name.substring(0, slash).replace('/', '.')); }
-        
-        if (sup == null) { sd.clearSuperClass(); }
-        else { 
-          String superClassName = sup.replace('/', '.');
-//          if (name.equals("Integer")) System.err.println("The superclass of Integer is " + superClassName);
-          SymbolData superSD = LanguageLevelConverter.symbolTable.get(superClassName);
-          if (superSD == null || superSD.isContinuation()) {
-            superSD = getSymbolDataForClassFile(superClassName, programRoot);
-            if (superSD != null) LanguageLevelConverter.symbolTable.put(superClassName, superSD);
-          }
-          sd.setSuperClass(superSD); 
-        }
-        
-        if (interfaces != null) {
-//          if (qualifiedClassName.equals("java.lang.RuntimeException"))
-//            System.err.println("interfaces for java.lang.RuntimeException: " + Arrays.toString(interfaces));
-          for (String iName : interfaces) {
-            String interfaceName = iName.replace('/', '.');
-            SymbolData superInterface = LanguageLevelConverter.symbolTable.get(interfaceName);
-            if (superInterface == null || superInterface.isContinuation()) {
-              superInterface = getSymbolDataForClassFile(interfaceName, programRoot);
-              if (superInterface != null) LanguageLevelConverter.symbolTable.put(interfaceName, superInterface);
-            }
-            if (superInterface != null) sd.addInterface(superInterface);
-          }
-//          if (qualifiedClassName.equals("java.lang.RuntimeException"))
-//            System.err.println("Recorded interfaces = " + sd.getInterfaces());
-        }
+    _log.log("***** Loading member signatures for file system class " + qualifiedClassName + " and all of its unloaded supertypes");
+    
+    // Class header
+    sd.setMav(_createMav(info.access));
+    sd.setInterface(Modifier.isInterface(info.access));
+    
+    int slash = info.name.lastIndexOf('/');
+    if (slash == -1) { sd.setPackage(""); }
+    else { sd.setPackage(info.name.substring(0, slash).replace('/', '.')); }
+    
+    if (info.superName == null) { sd.clearSuperClass(); }
+    else { 
+      String superClassName = info.superName;
+      SymbolData superSD = _symbolTable.get(superClassName);
+      if (superSD == null || superSD.isContinuation()) {
+        superSD = getSymbolDataForClassFile(superClassName, programRoot);
+        if (superSD != null) _symbolTable.put(superClassName, superSD);
       }
-      
-      public FieldVisitor visitField(int access, String name, String desc, String sig, Object value) {
-        /* Private fields cannot be ignored because they are used in code augmentation for generating constructors,
-         * equals, and hashCode. */
-        _log.log("visitField(" + access + ", " + name + ", " + desc + ", " + sig + ", " + value + ") called");
-        String typeString = org.objectweb.asm.Type.getType(desc).getClassName();
-        SymbolData type = getSymbolDataForClassFile(typeString, programRoot);
-        if (type != null) { sd.addVar(new VariableData(name, _createMav(access), type, true, sd)); }
-        return null;
+      sd.setSuperClass(superSD); 
+    }
+    
+    for (String interfaceName : info.interfaces()) {
+      SymbolData superInterface = _symbolTable.get(interfaceName);
+      if (superInterface == null || superInterface.isContinuation()) {
+        superInterface = getSymbolDataForClassFile(interfaceName, programRoot);
+        if (superInterface != null) _symbolTable.put(interfaceName, superInterface);
       }
-      
-      public MethodVisitor visitMethod(int access, String name, String desc, String sig, String[] exceptions) {
-        if (Modifier.isPrivate(access)) return null; // ignore private methods in class files; they are invisible
-        boolean valid = true;
-        String methodName;
-        SymbolData returnType;
-        if (name.equals("<init>")) {
-          methodName = unqualifiedClassName;
-          returnType = sd;
-        }
-        else {
-          methodName = name;
-          String returnString = org.objectweb.asm.Type.getReturnType(desc).getClassName();
-          returnType = getSymbolDataForClassFile(returnString, programRoot);
-          valid = valid && (returnType != null);
-        }
-        org.objectweb.asm.Type[] argTypes = org.objectweb.asm.Type.getArgumentTypes(desc);
-        VariableData[] args = new VariableData[argTypes.length]; 
-        for (int i = 0; i < argTypes.length; i++) {
-          SymbolData argType = getSymbolDataForClassFile(argTypes[i].getClassName(), programRoot);
-          if (argType == null) { valid = false; }
-          else { args[i] = new VariableData(argType); }
-        }
-        if (exceptions == null) { exceptions = new String[0]; }
-        for (int i = 0; i < exceptions.length; i++) { exceptions[i] = exceptions[i].replace('/', '.'); }
-        
-        if (valid) {
-          MethodData m = 
-            MethodData.make(methodName, _createMav(access), new TypeParameter[0], returnType, args, exceptions, sd, null);
-          for (VariableData arg : args) { arg.setEnclosingData(m); }
-          sd.addMethod(m, false, true);
-        }
-        return null;
+      if (superInterface != null) sd.addInterface(superInterface);
+    }
+    
+    /* Fields.  Private fields cannot be ignored because they are used in code augmentation for generating
+     * constructors, equals, and hashCode. */
+    for (LibraryClassCache.MemberInfo field : info.fields) {
+      _log.log("field(" + field.access + ", " + field.name + ", " + field.descriptor + ")");
+      String typeString = org.objectweb.asm.Type.getType(field.descriptor).getClassName();
+      SymbolData type = getSymbolDataForClassFile(typeString, programRoot);
+      if (type != null) { sd.addVar(new VariableData(field.name, _createMav(field.access), type, true, sd)); }
+    }
+    
+    // Methods
+    for (LibraryClassCache.MemberInfo method : info.methods) {
+      if (Modifier.isPrivate(method.access)) continue; // ignore private methods in class files; they are invisible
+      boolean valid = true;
+      String methodName;
+      SymbolData returnType;
+      if (method.name.equals("<init>")) {
+        methodName = unqualifiedClassName;
+        returnType = sd;
+      }
+      else {
+        methodName = method.name;
+        String returnString = org.objectweb.asm.Type.getReturnType(method.descriptor).getClassName();
+        returnType = getSymbolDataForClassFile(returnString, programRoot);
+        valid = valid && (returnType != null);
+      }
+      org.objectweb.asm.Type[] argTypes = org.objectweb.asm.Type.getArgumentTypes(method.descriptor);
+      VariableData[] args = new VariableData[argTypes.length]; 
+      for (int i = 0; i < argTypes.length; i++) {
+        SymbolData argType = getSymbolDataForClassFile(argTypes[i].getClassName(), programRoot);
+        if (argType == null) { valid = false; }
+        else { args[i] = new VariableData(argType); }
       }
       
-      public void visitSource(String source, String debug) {}
-      public void visitOuterClass(String owner, String name, String desc) {}
-      public AnnotationVisitor visitAnnotation(String desc, boolean visible) { return null; }
-      public void visitAttribute(Attribute attr) {}
-      public void visitInnerClass(String name, String outerName, String innerName, int access) {}
-      public void visitEnd() {}
-      
-    };
-    _log.log("***** Loading member signatures for file system class " + qualifiedClassName + " and all of its unloaded supertypes");
-    reader.accept(extractData, ClassReader.SKIP_CODE);
+      if (valid) {
+        MethodData m = MethodData.make(methodName, _createMav(method.access), new TypeParameter[0], returnType, args,
+                                       method.exceptions(), sd, null);
+        for (VariableData arg : args) { arg.setEnclosingData(m); }
+        sd.addMethod(m, false, true);
+      }
+    }
 //    System.err.println("####### Finished loading " + qualifiedClassName);
     
     // Remove the class from the list of continuations to resolve.
@@ -321,7 +362,7 @@ public class LanguageLevelConverter {
     * If the result is null, gives an error.  Removes the symbol data from the continuations list, and return it.
     * @return the result of trying to resolve className.
     */
-  public static SymbolData getSymbolDataForClassFile(String className, String programRoot) {
+  public synchronized SymbolData getSymbolDataForClassFile(String className, String programRoot) {
  
     _log.log("getSymbolDataForClassFile(" + className + ", " + programRoot + ") called");
     // Check for primitive types. 
@@ -329,7 +370,7 @@ public class LanguageLevelConverter {
     if (sd != null) { return sd; }
     
     // Check for already defined types
-    SymbolData existingSD = LanguageLevelConverter.symbolTable.get(className);
+    SymbolData existingSD = _symbolTable.get(className);
     if (existingSD != null && ! existingSD.isContinuation()) return existingSD;
      
     return _classFile2SymbolData(className, programRoot);  // resolve it by reading a class file
@@ -355,8 +396,9 @@ public class LanguageLevelConverter {
   
   /**** Static initialization block ***/
   static {
-    loadSymbolTable();
-    OBJECT = symbolTable.get("java.lang.Object");
+    LanguageLevelConverter initial = current();
+    initial.loadSymbolTable();
+    OBJECT = initial._symbolTable.get("java.lang.Object");
   }
   
   /***Add the parse exception to the list of parse exceptions*/
@@ -370,6 +412,119 @@ public class LanguageLevelConverter {
   /** Add the visitor error to the list of errors, */
   private void _addVisitorError(Pair<String, JExpressionIF> ve) { _visitorErrors.addLast(ve); }
   
+  /** The result of reading and parsing a file in the first pass. */
+  private static final class ParsedFile {
+    final File file;
+    boolean isEmpty = false;
+    SourceFile sourceFile = null;
+    Set<String> topLevelClasses = null;
+    ParseException parseException = null;
+    IOException ioException = null;
+    ParsedFile(File f) { file = f; }
+  }
+  
+  /** @return a factory of daemon threads to which this converter is bound */
+  private ThreadFactory _threadFactory() {
+    return new ThreadFactory() {
+      public Thread newThread(final Runnable r) {
+        Thread t = new Thread(new Runnable() {
+          public void run() {
+            CURRENT.set(LanguageLevelConverter.this);
+            r.run();
+          }
+        }, "LanguageLevelConverter");
+        t.setDaemon(true);
+        return t;
+      }
+    };
+  }
+  
+  /** Runs the given tasks, concurrently if _threads > 1.  Exceptions thrown by a task are rethrown.
+    * @return the results, in the order of tasks */
+  private <T> List<T> _runAll(List<Callable<T>> tasks) {
+    List<T> result = new ArrayList<T>(tasks.size());
+    int threads = Math.min(_threads, tasks.size());
+    if (threads <= 1) {
+      for (Callable<T> task : tasks) {
+        try { result.add(task.call()); }
+        catch (RuntimeException e) { throw e; }
+        catch (Exception e) { throw new UnexpectedException(e); }
+      }
+    }
+    else {
+      ExecutorService executor = Executors.newFixedThreadPool(threads, _threadFactory());
+      try {
+        List<Future<T>> futures = new ArrayList<Future<T>>(tasks.size());
+        for (Callable<T> task : tasks) { futures.add(executor.submit(task)); }
+        for (Future<T> future : futures) {
+          try { result.add(future.get()); }
+          catch (InterruptedException e) { throw new UnexpectedException(e); }
+          catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new UnexpectedException(cause);
+          }
+        }
+      }
+      finally { executor.shutdownNow(); }
+    }
+    return result;
+  }
+  
+  /** Reads and parses the given files, concurrently if _threads > 1.  Parsing does not touch the symbol table.
+    * @return the results, in the order of files */
+  private List<ParsedFile> _parseAll(File[] files) {
+    long start = System.currentTimeMillis();
+    List<Callable<ParsedFile>> tasks = new ArrayList<Callable<ParsedFile>>(files.length);
+    for (final File f : files) {
+      tasks.add(new Callable<ParsedFile>() { public ParsedFile call() { return _parse(f); } });
+    }
+    List<ParsedFile> result = _runAll(tasks);
+    _log.log("Parsed " + files.length + " files in " + (System.currentTimeMillis() - start) + " ms with up to " + 
+             Math.max(Math.min(_threads, files.length), 1) + " thread(s)");
+    return result;
+  }
+  
+  /** Reads and, if it is a Java or language level file, parses f. */
+  private static ParsedFile _parse(File f) {
+    ParsedFile result = new ParsedFile(f);
+    try {
+      // Check for a null file
+      BufferedReader tempBr = new BufferedReader(new FileReader(f));
+      String firstLine = tempBr.readLine();
+      tempBr.close();
+      if (firstLine == null) { result.isEmpty = true; return result; }
+      if (! isJavaFile(f)) return result;
+      
+      JExprParser jep = new JExprParser(f);
+      try { 
+        _log.log("Parsing " + f);
+        final SourceFile sf = jep.SourceFile();
+        // Parse the classes in sf
+        final Set<String> topLevelClasses = new HashSet<String>();
+        for (TypeDefBase t: sf.getTypes()) {
+          t.visit(new JExpressionIFAbstractVisitor<Void>() {
+            public Void forClassDef(ClassDef that) {
+              String className = that.getName().getText();
+              _log.log("Class '" + className + "' found in file " + sf);
+              topLevelClasses.add(className); 
+              return null; 
+            }
+            public Void defaultCase(JExpressionIF that) { return null; }
+          });
+        }
+        result.sourceFile = sf;
+        result.topLevelClasses = topLevelClasses;
+        _log.log("Completed parsing " + f);
+      } 
+      catch (ParseException pe) { result.parseException = pe; }
+      catch (Exception pe) { throw new UnexpectedException(pe); }  // catch any other Exceptions thrown in parsing
+    }
+    catch (IOException ioe) { result.ioException = ioe; }
+    return result;
+  }
+  
   
   /** Parse, Visit, Type Check, and Convert any language level files in the array of files. */
   public Pair<LinkedList<JExprParseException>, LinkedList<Pair<String, JExpressionIF>>>
@@ -385,13 +540,26 @@ public class LanguageLevelConverter {
   // "Visit" is an extremely vague notion; I presume it means construct a symbol table for the file.
   public Pair<LinkedList<JExprParseException>, LinkedList<Pair<String, JExpressionIF>>>
     convert(File[] files, Options options, Map<File,Set<String>> sourceToTopLevelClassMap) {
+    LanguageLevelConverter outer = CURRENT.get();
+    CURRENT.set(this);
+    try { return _convert(files, options, sourceToTopLevelClassMap); }
+    finally {
+      CURRENT.set(outer);
+      // Persist any newly-read library signatures so that the next session can skip scanning the boot class path
+      LibraryClassCache library = LIBRARY.value(_options);
+      _log.log(library.statistics());
+      library.saveIndex();
+    }
+  }
+  
+  private Pair<LinkedList<JExprParseException>, LinkedList<Pair<String, JExpressionIF>>>
+    _convert(File[] files, Options options, Map<File,Set<String>> sourceToTopLevelClassMap) {
     
 //    System.err.println("LanguageLevelConverter.convert called on files:  " + Arrays.toString(files));
     _log.log("LanguageLevelConverter.convert called on files:  " + Arrays.toString(files));
-    OPT = options;
+    _options = options;
 //    System.err.println("Options = " + options);
-    assert symbolTable != null;
-    symbolTable.clear();
+    _symbolTable.clear();
     _newSDs.clear();
     
     /**initialize so we don't get null pointer exception*/
@@ -445,91 +613,65 @@ public class LanguageLevelConverter {
     /* Maintains the list of Full Java files, which are parsed for symbols and checked for gross errors. */
     LinkedList<File> javaFiles = new LinkedList<File>();
     
-    /** First pass: classfication and conformance checking */
-    for (File f : files) {    
-      try {
-//        if (filesNotToCheck.contains(f)) continue;  // Detects equal File objects
-        
-        // Check for a null file
-        BufferedReader tempBr = new BufferedReader(new FileReader(f));
-        String firstLine = tempBr.readLine();
-        tempBr.close();
-        if (firstLine == null) continue;
+    /** First pass: parsing (concurrently, if _threads > 1), then classification and conformance checking, which
+      * update the shared symbol table and so run in the order of the files. */
+    for (ParsedFile parsed : _parseAll(files)) {
+      File f = parsed.file;
+      if (parsed.ioException != null) {
+        // The NullLiteral is a hack to get a JExpression with the correct SourceInfo inside.
+        _addVisitorError(new Pair<String, JExpressionIF>(parsed.ioException.getMessage(), 
+                                                         new NullLiteral(SourceInfo.NONE)));
+        continue;
+      }
+      if (parsed.isEmpty) continue;  // Skip an empty file
+      
+      if (isAdvancedFile(f))  advanced.addLast(f);
+      else if (isFullJavaFile(f)) javaFiles.addLast(f);
+      
+      if (isJavaFile(f)) {  /* a .dj0, .dj1, .dj2,, .dj, or .java file; all but .dj and .java are legacy */
+        if (parsed.parseException != null) {
+          // If there is a ParseException, go to next file.
+          _addParseException(parsed.parseException);
+          _log.log("GENERATED (non-Parse) exception in parsing file " + f);
+          continue;
+        }
+        SourceFile sf = parsed.sourceFile;
+        sourceToTopLevelClassMap.put(f, parsed.topLevelClasses);
         
-        if (isAdvancedFile(f))  advanced.addLast(f);
-        else if (isFullJavaFile(f)) javaFiles.addLast(f);
+        LinkedList<String> importedPackageBase = new LinkedList<String>();
+        importedPackageBase.add("java.lang");
         
-        if (isJavaFile(f)) {  /* a .dj0, .dj1, .dj2,, .dj, or .java file; all but .dj and .java are legacy */
-          System.out.flush();
-          SourceFile sf = null;
-          JExprParser jep = new JExprParser(f);
-          try { 
-            _log.log("Parsing " + f);
-            sf = jep.SourceFile();  // Does the SourceFile method parse the file f embedded in jep?  NO!
-            // Parse the classes in sf
-            final Set<String> topLevelClasses = new HashSet<String>();
-            final SourceFile fsf = sf;
-            for (TypeDefBase t: sf.getTypes()) {
-              t.visit(new JExpressionIFAbstractVisitor<Void>() {
-                public Void forClassDef(ClassDef that) {
-                  String className = that.getName().getText();
-                  _log.log("Class '" + className + "' found in file " + fsf);
-                  topLevelClasses.add(className); 
-                  return null; 
-                }
-                public Void defaultCase(JExpressionIF that) { return null; }
-              });
-            }
-            sourceToTopLevelClassMap.put(f, topLevelClasses);
-            _log.log("Completed parsing " + f);
-          } 
-          catch (ParseException pe) {
-            // If there is a ParseException, go to next file.
-            _addParseException(pe);
-            _log.log("GENERATED (non-Parse) exception in parsing file " + sf);
-            continue;
-          }
-          catch (Exception pe) { throw new UnexpectedException(pe); }  // catch any other Exceptions thrown in parsing
-          
-          LinkedList<String> importedPackageBase = new LinkedList<String>();
-          importedPackageBase.add("java.lang");
-            
-          // Now create a LanguageLevelVisitor to do the first pass over the file.
-          LanguageLevelVisitor llv;
-          if (isLanguageLevelFile(f)) { // Intermediate is the only language level other than full Java.
-            llv = new IntermediateVisitor(f,
-                                          importedPackageBase,
-                                          new LinkedList<Pair<String, JExpressionIF>>(),
-                                          new Hashtable<String, Triple<SourceInfo, LanguageLevelVisitor, SymbolData>>(),
-                                          new LinkedList<Command>(),
-                                          languageLevelVisitedFiles);
-          }
-          else {
-            assert isAdvancedFile(f) || isFullJavaFile(f);  // Advanced files are treated exactly like full Java.
-            llv = new FullJavaVisitor(f,
-                                      importedPackageBase,
-                                      new LinkedList<Pair<String, JExpressionIF>>(),
-                                      new Hashtable<String, Triple<SourceInfo, LanguageLevelVisitor, SymbolData>>(), 
-                                      new LinkedList<Command>(),
-                                      languageLevelVisitedFiles);
-          }
-          
-          // Conformance checking pass
-          sf.visit(llv);
-//          _log.log("\nDUMPING SYMBOLTABLE AFTER PHASE 1 PROCESSING OF " + f + "\n\n" + symbolTable + "\n");
-          visited.add(new Triple<LanguageLevelVisitor, SourceFile, File>(llv, sf, f));
-          _log.log("\nCONTINUATIONS AFTER PHASE 1 PROCESSING OF " + f + "\n\n" + llv.continuations + "\n");
-          _log.log("\nERRORS AFTER PHASE 1 PROCESSING OF " + f + "\n\n" + llv.errors + "\n");
-//          if (! llv.errors.isEmpty()) Utilities.show("errors after " + f + "\n" + llv.errors);
-          //add the continuations to the hash table.
-          continuations.putAll(llv.continuations);
-          fixUps.addAll(llv.fixUps);
-          languageLevelVisitorErrors.addAll(llv.errors);
+        // Now create a LanguageLevelVisitor to do the first pass over the file.
+        LanguageLevelVisitor llv;
+        if (isLanguageLevelFile(f)) { // Intermediate is the only language level other than full Java.
+          llv = new IntermediateVisitor(f,
+                                        importedPackageBase,
+                                        new LinkedList<Pair<String, JExpressionIF>>(),
+                                        new Hashtable<String, Triple<SourceInfo, LanguageLevelVisitor, SymbolData>>(),
+                                        new LinkedList<Command>(),
+                                        languageLevelVisitedFiles);
         }
-      }
-      catch (IOException ioe) {
-        // The NullLiteral is a hack to get a JExpression with the correct SourceInfo inside.
-        _addVisitorError(new Pair<String, JExpressionIF>(ioe.getMessage(), new NullLiteral(SourceInfo.NONE)));
+        else {
+          assert isAdvancedFile(f) || isFullJavaFile(f);  // Advanced files are treated exactly like full Java.
+          llv = new FullJavaVisitor(f,
+                                    importedPackageBase,
+                                    new LinkedList<Pair<String, JExpressionIF>>(),
+                                    new Hashtable<String, Triple<SourceInfo, LanguageLevelVisitor, SymbolData>>(), 
+                                    new LinkedList<Command>(),
+                                    languageLevelVisitedFiles);
+        }
+        
+        // Conformance checking pass
+        sf.visit(llv);
+//        _log.log("\nDUMPING SYMBOLTABLE AFTER PHASE 1 PROCESSING OF " + f + "\n\n" + symbolTable + "\n");
+        visited.add(new Triple<LanguageLevelVisitor, SourceFile, File>(llv, sf, f));
+        _log.log("\nCONTINUATIONS AFTER PHASE 1 PROCESSING OF " + f + "\n\n" + llv.continuations + "\n");
+        _log.log("\nERRORS AFTER PHASE 1 PROCESSING OF " + f + "\n\n" + llv.errors + "\n");
+//        if (! llv.errors.isEmpty()) Utilities.show("errors after " + f + "\n" + llv.errors);
+        //add the continuations to the hash table.
+        continuations.putAll(llv.continuations);
+        fixUps.addAll(llv.fixUps);
+        languageLevelVisitorErrors.addAll(llv.errors);
       }
     }
 
@@ -607,20 +749,21 @@ public class LanguageLevelConverter {
           
           //Before you type check, make sure that all boxed types of primitives are in the symbol table
           
-          if (symbolTable.get("java.lang.Integer") == null) llv.getSymbolData("java.lang.Integer", SourceInfo.NONE);
-          if (symbolTable.get("java.lang.Double") == null)  llv.getSymbolData("java.lang.Double", SourceInfo.NONE);
-          if (symbolTable.get("java.lang.Boolean") == null) llv.getSymbolData("java.lang.Boolean", SourceInfo.NONE);
-          if (symbolTable.get("java.lang.Long") == null)    llv.getSymbolData("java.lang.Long", SourceInfo.NONE);
-          if (symbolTable.get("java.lang.Byte") == null)    llv.getSymbolData("java.lang.Byte", SourceInfo.NONE);
-          if (symbolTable.get("java.lang.Short") == null)   llv.getSymbolData("java.lang.Short", SourceInfo.NONE);
-          if (symbolTable.get("java.lang.Float") == null)   llv.getSymbolData("java.lang.Float", SourceInfo.NONE);
-          if (symbolTable.get("java.lang.Character") == null) 
+          if (_symbolTable.get("java.lang.Integer") == null) llv.getSymbolData("java.lang.Integer", SourceInfo.NONE);
+          if (_symbolTable.get("java.lang.Double") == null)  llv.getSymbolData("java.lang.Double", SourceInfo.NONE);
+          if (_symbolTable.get("java.lang.Boolean") == null) llv.getSymbolData("java.lang.Boolean", SourceInfo.NONE);
+          if (_symbolTable.get("java.lang.Long") == null)    llv.getSymbolData("java.lang.Long", SourceInfo.NONE);
+          if (_symbolTable.get("java.lang.Byte") == null)    llv.getSymbolData("java.lang.Byte", SourceInfo.NONE);
+          if (_symbolTable.get("java.lang.Short") == null)   llv.getSymbolData("java.lang.Short", SourceInfo.NONE);
+          if (_symbolTable.get("java.lang.Float") == null)   llv.getSymbolData("java.lang.Float", SourceInfo.NONE);
+          if (_symbolTable.get("java.lang.Character") == null) 
             llv.getSymbolData("java.lang.Character", SourceInfo.NONE);
           
 //          System.err.println("**** Type checking " + f);
           // Type check.
           TypeChecker btc = 
-            new TypeChecker(llv._file, llv._package, llv.errors, symbolTable, llv._importedFiles, llv._importedPackages);
+            new TypeChecker(llv._file, llv._package, llv.errors, _symbolTable, llv._importedFiles, 
+                            llv._importedPackages);
 //        System.err.println("Visiting source file " + sf.getSourceInfo ());
           sf.visit(btc);
           toAugment.addLast(triple);
@@ -666,75 +809,90 @@ public class LanguageLevelConverter {
 //    Utilities.show("Processed LL files: " + Arrays.toString(files));
 //    Utilities.show("mediator is: " + mediator);
     
-    /* Perform code augmentation. */   
-    for (Triple<LanguageLevelVisitor, SourceFile, File> triple: toAugment)  {
-      try {
-        LanguageLevelVisitor llv = triple.getFirst();
-        SourceFile sf = triple.getSecond();
-        File f = triple.getThird();
-        
-        File augmentedFile = getJavaForLLFile(f);   // create  empty .java file for .dj? file
+    /* Perform code augmentation, concurrently if _threads > 1: the symbol table is complete, and each file is 
+     * augmented to a .java file of its own. */
+    List<Callable<Pair<String, JExpressionIF>>> augmentations = 
+      new ArrayList<Callable<Pair<String, JExpressionIF>>>(toAugment.size());
+    for (final Triple<LanguageLevelVisitor, SourceFile, File> triple: toAugment) {
+      augmentations.add(new Callable<Pair<String, JExpressionIF>>() {
+        public Pair<String, JExpressionIF> call() { return _augment(triple); }
+      });
+    }
+    for (Pair<String, JExpressionIF> error : _runAll(augmentations)) {
+      if (error != null) _addVisitorError(error);
+    }
+    return new Pair<LinkedList<JExprParseException>, 
+      LinkedList<Pair<String, JExpressionIF>>>(_parseExceptions, _visitorErrors);
+  }
+  
+  /** Augments a visited file, writing the result to the corresponding .java file.
+    * @return the error that prevented the augmentation, or null if there was none */
+  private static Pair<String, JExpressionIF> _augment(Triple<LanguageLevelVisitor, SourceFile, File> triple) {
+    try {
+      LanguageLevelVisitor llv = triple.getFirst();
+      SourceFile sf = triple.getSecond();
+      File f = triple.getThird();
+      
+      File augmentedFile = getJavaForLLFile(f);   // create  empty .java file for .dj? file
+      
+      if (isAdvancedFile(f)) { Utilities.copyFile(f, augmentedFile); }
+      else {
+        BufferedReader tempBr = new BufferedReader(new FileReader(f));
+        String firstLine = tempBr.readLine();
+        tempBr.close(); // Important to close the reader, otherwise Windows will not allow the renameTo call later.
+        if (firstLine == null) return null;
         
-        if (isAdvancedFile(f)) { Utilities.copyFile(f, augmentedFile); }
-        else {
-          BufferedReader tempBr = new BufferedReader(new FileReader(f));
-          String firstLine = tempBr.readLine();
-          tempBr.close(); // Important to close the reader, otherwise Windows will not allow the renameTo call later.
-          if (firstLine == null) continue;
-          
-          // If the file has an appropriate LL extension, then parse it.
-          if (isLanguageLevelFile(f)) {
-            if (triple != null) {  // if triple is null, we do not actually need to augment this file--it wasn't visited.
-              
-              // Do code augmentation
-              BufferedReader br = new BufferedReader(new FileReader(f), INPUT_BUFFER_SIZE);
-              StringWriter sw = new StringWriter();
-              BufferedWriter bw = new BufferedWriter(sw);
-              
-              // _log.log("Augmenting the source file " + sf);
+        // If the file has an appropriate LL extension, then parse it.
+        if (isLanguageLevelFile(f)) {
+          if (triple != null) {  // if triple is null, we do not actually need to augment this file--it wasn't visited.
+            
+            // Do code augmentation
+            BufferedReader br = new BufferedReader(new FileReader(f), INPUT_BUFFER_SIZE);
+            StringWriter sw = new StringWriter();
+            BufferedWriter bw = new BufferedWriter(sw);
+            
+            // _log.log("Augmenting the source file " + sf);
 //            Utilities.show("Augmenting the source file " + sf.getSourceInfo().getFile());
-              Augmentor a = new Augmentor(SAFE_SUPPORT_CODE, br, bw, llv);
-              sf.visit(a);
-              
-              br.close();
-              bw.close();
-              
-              // write out the line number map and the augmented java file
-              PrintWriter pw = new PrintWriter(new BufferedWriter(new FileWriter(augmentedFile)));
-              SortedMap<Integer,Integer> lineNumberMap = a.getLineNumberMap();
-              pw.println("// Language Level Converter line number map: dj*->java. Entries: " +lineNumberMap.size());
-              // We print out LINE_NUM_MAPPINGS_PER_LINE mappings per line, so we need numLines
-              // at the top of the file, and one more for a descriptive comment.
-              // That means we need to increase the line numbers in the generated java file by numLines+1
-              int numLines = (int)Math.ceil(((double)lineNumberMap.size()) / LINE_NUM_MAPPINGS_PER_LINE);
-              int mapCount = 0;
-              for(Map.Entry<Integer,Integer> e: lineNumberMap.entrySet()) {
-                // e.getKey(): dj* line number; e.getValue(): java line number (must be increased by numLines)
-                if (mapCount % LINE_NUM_MAPPINGS_PER_LINE == 0) pw.print("//");
-                pw.printf(" %5d->%-5d", e.getKey(), (e.getValue()+numLines+1));
-                if (mapCount % LINE_NUM_MAPPINGS_PER_LINE ==  LINE_NUM_MAPPINGS_PER_LINE - 1) pw.println();
-                ++mapCount;
-              }
-              if (mapCount % LINE_NUM_MAPPINGS_PER_LINE != 0) pw.println(); // print a newline unless we just printed one
-              
-              String augmented = sw.toString();
-              pw.write(augmented, 0, augmented.length());
-              pw.close();
+            Augmentor a = new Augmentor(SAFE_SUPPORT_CODE, br, bw, llv);
+            sf.visit(a);
+            
+            br.close();
+            bw.close();
+            
+            // write out the line number map and the augmented java file
+            PrintWriter pw = new PrintWriter(new BufferedWriter(new FileWriter(augmentedFile)));
+            SortedMap<Integer,Integer> lineNumberMap = a.getLineNumberMap();
+            pw.println("// Language Level Converter line number map: dj*->java. Entries: " +lineNumberMap.size());
+            // We print out LINE_NUM_MAPPINGS_PER_LINE mappings per line, so we need numLines
+            // at the top of the file, and one more for a descriptive comment.
+            // That means we need to increase the line numbers in the generated java file by numLines+1
+            int numLines = (int)Math.ceil(((double)lineNumberMap.size()) / LINE_NUM_MAPPINGS_PER_LINE);
+            int mapCount = 0;
+            for(Map.Entry<Integer,Integer> e: lineNumberMap.entrySet()) {
+              // e.getKey(): dj* line number; e.getValue(): java line number (must be increased by numLines)
+              if (mapCount % LINE_NUM_MAPPINGS_PER_LINE == 0) pw.print("//");
+              pw.printf(" %5d->%-5d", e.getKey(), (e.getValue()+numLines+1));
+              if (mapCount % LINE_NUM_MAPPINGS_PER_LINE ==  LINE_NUM_MAPPINGS_PER_LINE - 1) pw.println();
+              ++mapCount;
             }
+            if (mapCount % LINE_NUM_MAPPINGS_PER_LINE != 0) pw.println(); // print a newline unless we just printed one
+            
+            String augmented = sw.toString();
+            pw.write(augmented, 0, augmented.length());
+            pw.close();
           }
         }
       }
-      catch (Augmentor.Exception ae) {
-        // The NullLiteral is a hack to get a JExpression with the correct SourceInfo inside.
-        _addVisitorError(new Pair<String, JExpressionIF>(ae.getMessage(), new NullLiteral(SourceInfo.NONE)));
-      }
-      catch (IOException ioe) {
-        // The NullLiteral is a hack to get a JExpression with the correct SourceInfo inside.
-        _addVisitorError(new Pair<String, JExpressionIF>(ioe.getMessage(), new NullLiteral(SourceInfo.NONE)));
-      }
     }
-    return new Pair<LinkedList<JExprParseException>, 
-      LinkedList<Pair<String, JExpressionIF>>>(_parseExceptions, _visitorErrors);
+    catch (Augmentor.Exception ae) {
+      // The NullLiteral is a hack to get a JExpression with the correct SourceInfo inside.
+      return new Pair<String, JExpressionIF>(ae.getMessage(), new NullLiteral(SourceInfo.NONE));
+    }
+    catch (IOException ioe) {
+      // The NullLiteral is a hack to get a JExpression with the correct SourceInfo inside.
+      return new Pair<String, JExpressionIF>(ioe.getMessage(), new NullLiteral(SourceInfo.NONE));
+    }
+    return null;
   }
   
   /** If a file name ends with .dj0, it is an Elementary File*/
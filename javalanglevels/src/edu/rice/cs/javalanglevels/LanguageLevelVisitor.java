@@ -77,8 +77,8 @@ public class LanguageLevelVisitor extends JExpressionIFPrunableDepthFirstVisitor
     * the AST where the error occurs. */
   protected static LinkedList<Pair<String, JExpressionIF>> errors;
   
-  /** Stores the classes we have referenced, and all their information, once they are resolved.  Bound to static field
-    * LanguageLevelConverter.symboltable. UGHH!! WHY?? */
+  /** Stores the classes we have referenced, and all their information, once they are resolved.  Bound to the symbol
+    * table of the LanguageLevelConverter running in the thread that creates this visitor. */
   public final Symboltable symbolTable;
   
   /** A table of the names of symbols for which dummy symbol entries (continuations) have been created and resolution 
@@ -161,7 +161,7 @@ public class LanguageLevelVisitor extends JExpressionIFPrunableDepthFirstVisitor
     this.fixUps = fixUps;
     _genericTypes = genericTypes;
     
-    symbolTable = LanguageLevelConverter.symbolTable;
+    symbolTable = LanguageLevelConverter.symbolTable();
     
     assert fixUps != null;
     assert _genericTypes != null;
@@ -169,7 +169,7 @@ public class LanguageLevelVisitor extends JExpressionIFPrunableDepthFirstVisitor
     // Ensure that the imported packages include "java.lang" 
     if (! _importedPackages.contains("java.lang")) _importedPackages.addFirst("java.lang");
     // Ensure that the symbol table contains the essential types;  TODO: this is kludge; fix it !!!
-    LanguageLevelConverter.loadSymbolTable();
+    LanguageLevelConverter.current().loadSymbolTable();
   }
   
   /** This constructor is used only in testing.
@@ -479,7 +479,7 @@ public class LanguageLevelVisitor extends JExpressionIFPrunableDepthFirstVisitor
     if (classFile.exists()) {
       // read this classfile, create the SymbolData and return it
      LanguageLevelConverter._log.log("Reading classFile " + qualifiedClassName);
-      sd = LanguageLevelConverter._classFile2SymbolData(qualifiedClassName, programRoot);
+      sd = LanguageLevelConverter.current()._classFile2SymbolData(qualifiedClassName, programRoot);
       if (sd == null) {
         if (addError) {
           _addAndIgnoreError("File " + classFile + " is not a valid class file.",  new NullLiteral(si));
@@ -591,7 +591,7 @@ public class LanguageLevelVisitor extends JExpressionIFPrunableDepthFirstVisitor
     // Try loading the class from an already compiled class file in current package.
     File _fileParent = _file.getParentFile();
     String programRoot = (_fileParent == null) ? "" : _fileParent.getAbsolutePath();  
-    SymbolData compiledSD = LanguageLevelConverter.getSymbolDataForClassFile(qualClassName, programRoot);
+    SymbolData compiledSD = LanguageLevelConverter.current().getSymbolDataForClassFile(qualClassName, programRoot);
     if (compiledSD != null) return compiledSD;
     
     // Check for relative inner class reference
@@ -797,7 +797,7 @@ public class LanguageLevelVisitor extends JExpressionIFPrunableDepthFirstVisitor
     // If qualClassName is a library file, resolve it immediately by reading its class file.
     if (isJavaLibraryClass(qualClassName)) {
 //      _log.log("Calling  _classFile2SymbolData");
-      SymbolData cfSD = LanguageLevelConverter._classFile2SymbolData(qualClassName, null);
+      SymbolData cfSD = LanguageLevelConverter.current()._classFile2SymbolData(qualClassName, null);
       if (! qualClassName.startsWith("java.") && ! qualClassName.startsWith("sun."))
 //        _log.log("Defining class file symbol " + qualClassName);
       assert cfSD == null || symbolTable.contains(cfSD);
@@ -1020,7 +1020,7 @@ public class LanguageLevelVisitor extends JExpressionIFPrunableDepthFirstVisitor
     continuations.remove(qualifiedTypeName);
     
     // Add sd to the list of classes defined in program text; used to generate constructors. TODO: What about Full Java?
-    if (! sd.isInterface()) { LanguageLevelConverter._newSDs.put(sd, this); }
+    if (! sd.isInterface()) { LanguageLevelConverter.newSDs().put(sd, this); }
     
     _classesInThisFile.remove(qualifiedTypeName);  // a no-op if qualifiedClassName is an inner class
     return sd;
@@ -1926,7 +1926,7 @@ public class LanguageLevelVisitor extends JExpressionIFPrunableDepthFirstVisitor
       LinkedList<MethodData> superMethods = superSd.getMethods();
       String superUnqualifiedName = getUnqualifiedClassName(superSd.getName());
       
-      LanguageLevelVisitor sslv = LanguageLevelConverter._newSDs.remove(superSd);
+      LanguageLevelVisitor sslv = LanguageLevelConverter.newSDs().remove(superSd);
       
       // if sslv == null, the superclass constructor has already been generated or we are caught in a cyclic
       // inheritance hierarchy
@@ -2003,7 +2003,7 @@ public class LanguageLevelVisitor extends JExpressionIFPrunableDepthFirstVisitor
 //        _log.log("****** constructor visibility = " + md.getMav());
       addGeneratedMethod(sd, md);
     }
-    LanguageLevelConverter._newSDs.remove(sd); // this won't do anything if sd is not in _newSDs.
+    LanguageLevelConverter.newSDs().remove(sd); // this won't do anything if sd is not in _newSDs.
   }
   
   /** Create a method that is an accessor for each field in the class.
@@ -2244,8 +2244,8 @@ public class LanguageLevelVisitor extends JExpressionIFPrunableDepthFirstVisitor
     public void testClassFile2SymbolData() {
       
       //test a java.lang symbol data
-      SymbolData objectSD = LanguageLevelConverter._classFile2SymbolData("java.lang.Object", "");
-      SymbolData stringSD = LanguageLevelConverter._classFile2SymbolData("java.lang.String", "");
+      SymbolData objectSD = LanguageLevelConverter.current()._classFile2SymbolData("java.lang.Object", "");
+      SymbolData stringSD = LanguageLevelConverter.current()._classFile2SymbolData("java.lang.String", "");
       MethodData md = new MethodData("substring", PUBLIC_MAV, new TypeParameter[0], stringSD, 
                                      new VariableData[] {new VariableData(SymbolData.INT_TYPE)},
                                      new String[0], stringSD, null);
@@ -2276,14 +2276,14 @@ public class LanguageLevelVisitor extends JExpressionIFPrunableDepthFirstVisitor
                    testLLVisitor.getSymbolData("java.lang.String", SourceInfo.NONE).getPackage());
       
       //now, test that a second call to the same method won't replace the symbol data that is already there.
-      SymbolData newStringSD = LanguageLevelConverter._classFile2SymbolData("java.lang.String", "");
+      SymbolData newStringSD = LanguageLevelConverter.current()._classFile2SymbolData("java.lang.String", "");
       assertTrue("Second call to classFileToSymbolData should not change sd in hash table.", 
-                 stringSD == LanguageLevelConverter.symbolTable.get("java.lang.String"));
+                 stringSD == LanguageLevelConverter.symbolTable().get("java.lang.String"));
       assertTrue("Second call to classFileToSymbolData should return same SD.", 
-                 newStringSD == LanguageLevelConverter.symbolTable.get("java.lang.String"));      
+                 newStringSD == LanguageLevelConverter.symbolTable().get("java.lang.String"));      
       //now, test one of our own small class files.
       
-      SymbolData bartSD = LanguageLevelConverter._classFile2SymbolData("Bart", "testFiles");
+      SymbolData bartSD = LanguageLevelConverter.current()._classFile2SymbolData("Bart", "testFiles");
       assertFalse("bartSD should not be null", bartSD == null);
       assertFalse("bartSD should not be a continuation", bartSD.isContinuation());
       MethodData md1 = 
@@ -2356,12 +2356,13 @@ public class LanguageLevelVisitor extends JExpressionIFPrunableDepthFirstVisitor
     
     public void testGetSymbolDataForClassFile() {
       // Test that passing a legal class return a non-continuation.
+      LanguageLevelConverter llc = LanguageLevelConverter.current();
       assertFalse("Should return a non-continuation", 
-                  LanguageLevelConverter.getSymbolDataForClassFile("java.lang.String", null).isContinuation());
+                  llc.getSymbolDataForClassFile("java.lang.String", null).isContinuation());
       
       // Test that passing a userclass that can't be found returns null and adds an error.
       assertNull("Should return null with a user class that can't be found",
-                 LanguageLevelConverter.getSymbolDataForClassFile("Marge", null));
+                 llc.getSymbolDataForClassFile("Marge", null));
 //      assertEquals("There should be one error", 1, errors.size());
 //      assertEquals("The error message should be correct", "Class Marge not found.", errors.get(0).getFirst());
     }
@@ -2446,11 +2447,11 @@ public class LanguageLevelVisitor extends JExpressionIFPrunableDepthFirstVisitor
       
       /**Now, put a real SymbolData base in the table.*/
       SymbolData sd = new SymbolData("Iexist");
-      LanguageLevelConverter.symbolTable.put("Iexist", sd);
+      LanguageLevelConverter.symbolTable().put("Iexist", sd);
       testLLVisitor.getArraySymbolData("Iexist", SourceInfo.NONE, false, false).getName();
       assertTrue("Should have created an array data and add it to symbol table.", 
-                 LanguageLevelConverter.symbolTable.containsKey("Iexist[]"));
-      SymbolData ad = LanguageLevelConverter.symbolTable.get("Iexist[]");
+                 LanguageLevelConverter.symbolTable().containsKey("Iexist[]"));
+      SymbolData ad = LanguageLevelConverter.symbolTable().get("Iexist[]");
       
       //make sure that ad has the appropriate fields and super classes and interfaces and methods
       assertEquals("Should only have field 'length'", 1, ad.getVars().size());
@@ -2460,7 +2461,7 @@ public class LanguageLevelVisitor extends JExpressionIFPrunableDepthFirstVisitor
       assertTrue("Should contain method clone", ad.hasMethod("clone"));
       
       assertEquals("Should have Object as super class", 
-                   LanguageLevelConverter.symbolTable.get("java.lang.Object"), 
+                   LanguageLevelConverter.symbolTable().get("java.lang.Object"), 
                    ad.getSuperClass());
       assertEquals("Should have 2 interfaces", 2, ad.getInterfaces().size());
       assertEquals("Interface 1 should be java.lang.Cloneable", "java.lang.Cloneable", 
@@ -2476,22 +2477,22 @@ public class LanguageLevelVisitor extends JExpressionIFPrunableDepthFirstVisitor
       /**Now, try it with a multiple dimension array.*/
       testLLVisitor.getArraySymbolData("Iexist[]", SourceInfo.NONE, false, false);
       assertTrue("Should have added a multidimensional array to the table.", 
-                 LanguageLevelConverter.symbolTable.containsKey("Iexist[][]"));
+                 LanguageLevelConverter.symbolTable().containsKey("Iexist[][]"));
       
       SymbolData sd2 = new SymbolData("java.lang.String");
-      LanguageLevelConverter.symbolTable.put("java.lang.String", sd2);
+      LanguageLevelConverter.symbolTable().put("java.lang.String", sd2);
       testLLVisitor.getArraySymbolData("String[]", SourceInfo.NONE, false, true);
       assertTrue("Should have added java.lang.String[] to table", 
-                 LanguageLevelConverter.symbolTable.containsKey("java.lang.String[]"));
+                 LanguageLevelConverter.symbolTable().containsKey("java.lang.String[]"));
       assertTrue("Should have added java.lang.String[][] to table", 
-                 LanguageLevelConverter.symbolTable.containsKey("java.lang.String[][]"));
+                 LanguageLevelConverter.symbolTable().containsKey("java.lang.String[][]"));
     }
     /** Tests _getSymbolDataFromFileSystem and one case of getQualifiedSymbolData. */
     public void testGetSymbolDataFromFileSystem() {
       _sd4.setIsContinuation(false);
       _sd6.setIsContinuation(true);
-      LanguageLevelConverter.symbolTable.put("u.like.emu", _sd4);
-      LanguageLevelConverter.symbolTable.put("cebu", _sd6);
+      LanguageLevelConverter.symbolTable().put("u.like.emu", _sd4);
+      LanguageLevelConverter.symbolTable().put("cebu", _sd6);
       
       // Test if it's already in the symbol table and doesn't need to be resolved not stopping when it should.  
       // get error b/c not in classes to be parsed 
@@ -2694,7 +2695,7 @@ public class LanguageLevelVisitor extends JExpressionIFPrunableDepthFirstVisitor
       
       // Qualified types
       SymbolData sd = new SymbolData("java.lang.System");
-      LanguageLevelConverter.symbolTable.put("java.lang.System", sd);
+      LanguageLevelConverter.symbolTable().put("java.lang.System", sd);
       assertEquals("should return the same sd", sd, 
                    testLLVisitor.getQualifiedSymbolData("java.lang.System", SourceInfo.NONE, false, true, true));
       assertTrue("should be a continuation", sd.isContinuation());
@@ -2704,7 +2705,7 @@ public class LanguageLevelVisitor extends JExpressionIFPrunableDepthFirstVisitor
       
       // In this file
       sd = new SymbolData("fully.qualified.Qwerty");
-      LanguageLevelConverter.symbolTable.put("fully.qualified.Qwerty", sd);
+      LanguageLevelConverter.symbolTable().put("fully.qualified.Qwerty", sd);
       testLLVisitor._classesInThisFile.add("fully.qualified.Qwerty");
       // Use a ElementaryVisitor so lookupFromClassesToBeParsed will actually visit the ClassDef.
       IntermediateVisitor bv = new IntermediateVisitor(new File(""), 
@@ -2733,7 +2734,7 @@ public class LanguageLevelVisitor extends JExpressionIFPrunableDepthFirstVisitor
       testLLVisitor._importedFiles.addLast("a.b.c");
       sd = new SymbolData("a.b.c");
 //      _log.log("SymbolData for 'a.b.c' is " + sd);
-      LanguageLevelConverter.symbolTable.put("a.b.c", sd);
+      LanguageLevelConverter.symbolTable().put("a.b.c", sd);
 //      _log.log("SymbolTable entry for 'a.b.c' is " + LanguageLevelConverter.symbolTable.get("a.b.c"));
 //      LanguageLevelConverter.symbolTable.put("foobar", new SymbolData("This is strange"));
 //      _log.log("SymbolTable entry for 'foobar' is " + LanguageLevelConverter.symbolTable.get("foobar"));
@@ -2747,7 +2748,7 @@ public class LanguageLevelVisitor extends JExpressionIFPrunableDepthFirstVisitor
       testLLVisitor._importedFiles.addLast("fully.qualified.Woah");
       SymbolData sd2 = new SymbolData("fully.qualified.Woah");
       sd2.setIsContinuation(false);
-      LanguageLevelConverter.symbolTable.put("fully.qualified.Woah", sd2);
+      LanguageLevelConverter.symbolTable().put("fully.qualified.Woah", sd2);
       result = testLLVisitor.getQualifiedSymbolData("fully.qualified.Woah", SourceInfo.NONE, true, false, true);
 //      _log.log("result for 'fully.qualifed.Woah' is " + result);
       assertEquals("should find the resolved symbol data in the symbol table", sd2, result);
@@ -2756,9 +2757,9 @@ public class LanguageLevelVisitor extends JExpressionIFPrunableDepthFirstVisitor
       // File System
       testLLVisitor._importedFiles.clear();
       testLLVisitor.visitedFiles.clear();
-      LanguageLevelConverter.symbolTable.remove("fully.qualified.Woah");
+      LanguageLevelConverter.symbolTable().remove("fully.qualified.Woah");
       sd2 = new SymbolData("fully.qualified.Woah");
-      LanguageLevelConverter.symbolTable.put("fully.qualified.Woah", sd2);
+      LanguageLevelConverter.symbolTable().put("fully.qualified.Woah", sd2);
       
 //      _log.log("_llv.getSymbolData for fully.qualified.Woah = " +
 //                         _llv.getQualifiedSymbolData("fully.qualified.Woah", 
@@ -2780,13 +2781,13 @@ public class LanguageLevelVisitor extends JExpressionIFPrunableDepthFirstVisitor
       assertFalse("sd2 should now be resolved", sd2.isContinuation());
       
       // Imported Packages
-      LanguageLevelConverter.symbolTable.remove("fully.qualified.Woah");
+      LanguageLevelConverter.symbolTable().remove("fully.qualified.Woah");
       testLLVisitor.visitedFiles.clear();
       testLLVisitor._file = new File("testFiles/Fake.dj0");
       testLLVisitor._package = "";
       testLLVisitor._importedPackages.addLast("fully.qualified");
       sd2 = new SymbolData("fully.qualified.Woah");
-      LanguageLevelConverter.symbolTable.put("fully.qualified.Woah", sd2);
+      LanguageLevelConverter.symbolTable().put("fully.qualified.Woah", sd2);
       assertEquals("should find the unresolved symbol data in the symbol table", sd2, 
                    testLLVisitor.getQualifiedSymbolData("fully.qualified.Woah", SourceInfo.NONE, false, false, true));
       assertTrue("should not be a continuation", sd2.isContinuation());
@@ -2803,7 +2804,7 @@ public class LanguageLevelVisitor extends JExpressionIFPrunableDepthFirstVisitor
       assertFalse("should not be a continuation", newsd1.isContinuation());
       
       // Test ambiguous class name (i.e. it is unqualified, and matches unqualified names in 2 or more packages.
-      LanguageLevelConverter.symbolTable.put("random.package.String", new SymbolData("random.package.String"));
+      LanguageLevelConverter.symbolTable().put("random.package.String", new SymbolData("random.package.String"));
 //      LanguageLevelConverter.symbolTable.put("java.lang.Object", new SymbolData("java.lang.Object"));
       testLLVisitor._importedPackages.addLast("random.package");
       result = testLLVisitor.getSymbolData("String", SourceInfo.NONE);
@@ -2813,7 +2814,7 @@ public class LanguageLevelVisitor extends JExpressionIFPrunableDepthFirstVisitor
                    "  It could be java.lang.String or random.package.String", 
                    errors.get(0).getFirst());
       
-      LanguageLevelConverter.symbolTable.remove("random.package.String");
+      LanguageLevelConverter.symbolTable().remove("random.package.String");
       
     }
     
@@ -2887,7 +2888,7 @@ public class LanguageLevelVisitor extends JExpressionIFPrunableDepthFirstVisitor
     
     public void testAddSymbolData() {
       /**Put super class in symbol table.*/
-      SymbolData obj = LanguageLevelConverter.symbolTable.get("java.lang.Object");
+      SymbolData obj = LanguageLevelConverter.symbolTable().get("java.lang.Object");
 //      obj.setIsContinuation(false);
 //      LanguageLevelConverter.symbolTable.put("java.lang.Object", obj);
       
@@ -2899,8 +2900,8 @@ public class LanguageLevelVisitor extends JExpressionIFPrunableDepthFirstVisitor
                      new BracedBody(SourceInfo.NONE, new BodyItemI[0]));
       
       SymbolData sd = new SymbolData("Awesome"); /**Create a continuation and store it in table.*/
-      sd.setSuperClass(LanguageLevelConverter.symbolTable.get("java.lang.Object"));
-      LanguageLevelConverter.symbolTable.put("Awesome", sd);
+      sd.setSuperClass(LanguageLevelConverter.symbolTable().get("java.lang.Object"));
+      LanguageLevelConverter.symbolTable().put("Awesome", sd);
       SymbolData result = testLLVisitor.defineSymbolData(cd, "Awesome");
       assertFalse("result should not be a continuation.", result.isContinuation());
       assertFalse("sd should also no longer be a continuation.", sd.isContinuation());
@@ -3276,7 +3277,7 @@ public class LanguageLevelVisitor extends JExpressionIFPrunableDepthFirstVisitor
                                                                                               expList))});
       bb.visit(testLLVisitor);
       assertNotNull("The SymbolTable should have java.util.prefs.BackingStoreException", 
-                  LanguageLevelConverter.symbolTable.get("java.util.prefs.BackingStoreException"));
+                  LanguageLevelConverter.symbolTable().get("java.util.prefs.BackingStoreException"));
       
     }
     
@@ -0,0 +1,438 @@
+/*BEGIN_COPYRIGHT_BLOCK
+ *
+ * Copyright (c) 2001-2010, JavaPLT group at Rice University (drjava@rice.edu)
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    * Redistributions of source code must retain the above copyright
+ *      notice, this list of conditions and the following disclaimer.
+ *    * Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in the
+ *      documentation and/or other materials provided with the distribution.
+ *    * Neither the names of DrJava, the JavaPLT group, Rice University, nor the
+ *      names of its contributors may be used to endorse or promote products
+ *      derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This software is Open Source Initiative approved Open Source Software.
+ * Open Source Initative Approved is a trademark of the Open Source Initiative.
+ * 
+ * This file is part of DrJava.  Download the current version of this project
+ * from http://www.drjava.org/ or http://sourceforge.net/projects/drjava/
+ * 
+ * END_COPYRIGHT_BLOCK*/
+
+package edu.rice.cs.javalanglevels;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.objectweb.asm.*;
+
+import edu.rice.cs.plt.io.IOUtil;
+import edu.rice.cs.plt.iter.IterUtil;
+import edu.rice.cs.plt.reflect.EmptyClassLoader;
+import edu.rice.cs.plt.reflect.PathClassLoader;
+import edu.rice.cs.javalanglevels.util.Log;
+
+/** A thread-safe cache of the member signatures of the library classes on a boot class path.  Reading
+  * a class file means searching every jar on the path and parsing the file with ASM; since
+  * LanguageLevelConverter clears its symbol table at the start of every conversion, the same JDK classes
+  * were previously reread on every compile.  The cached {@link ClassInfo} objects are immutable, so a
+  * cache can be shared by all conversions (and threads); each conversion still builds its own
+  * SymbolDatas from them.  The files on a boot class path are assumed not to change unless their
+  * modification dates or sizes change, in which case a new cache is created.
+  * 
+  * <p>The signatures looked up in a cache (including the names of classes that were not found) are also
+  * saved to an index file by {@link #saveIndex}, so that later sessions need not scan the boot class path
+  * again.  The index is memory-mapped when the cache is created, and each class is decoded on its first
+  * lookup.  Index files are stored in the directory named by the system property {@value #INDEX_DIR_PROPERTY}
+  * (by default, {@code .drjava-ll-index} in the user's home directory, next to the {@code .drjava} configuration
+  * file); if the property is empty, no index is used.  The default directory is created readable and writable only
+  * by its owner, since a planted index would change the signatures the converter sees.</p>
+  */
+public final class LibraryClassCache {
+  
+  public static final Log _log = new Log("LibraryClassCache.txt", false);
+  
+  /** The system property naming the directory in which index files are stored. */
+  public static final String INDEX_DIR_PROPERTY = "edu.rice.cs.javalanglevels.indexdir";
+  
+  private static final int INDEX_MAGIC = 0x4c4c4958; // "LLIX"
+  private static final int INDEX_VERSION = 1;
+  
+  /** Caches indexed by a boot class path and the modification dates and sizes of its elements. */
+  private static final Map<String, LibraryClassCache> CACHES = new HashMap<String, LibraryClassCache>();
+  
+  /** Limit on the number of distinct boot class paths cached at once. */
+  private static final int MAX_CACHES = 4;
+  
+  /** Marks classes that do not appear on the boot class path. */
+  private static final ClassInfo MISSING = new ClassInfo(0, "", null, new String[0], 
+                                                         new ArrayList<MemberInfo>(0), new ArrayList<MemberInfo>(0));
+  
+  private final String _key;
+  private final PathClassLoader _loader;
+  private final ConcurrentHashMap<String, ClassInfo> _classes;
+  
+  /** The index file, or {@code null} if indices are disabled. */
+  private final File _indexFile;
+  /** The entries of the mapped index file (empty if there is none); missing classes are mapped to empty buffers. */
+  private final Map<String, ByteBuffer> _indexed;
+  /** Whether {@code _classes} contains classes that are not in {@code _indexed}. */
+  private volatile boolean _dirty;
+  
+  private final AtomicLong _scanCount = new AtomicLong(0);
+  private final AtomicLong _scanNanos = new AtomicLong(0);
+  private final AtomicLong _decodeCount = new AtomicLong(0);
+  private final AtomicLong _decodeNanos = new AtomicLong(0);
+  
+  /** Create an unshared cache; clients should use {@link #forBootClassPath}. */
+  LibraryClassCache(String key, Iterable<? extends File> bootClassPath) {
+    _key = key;
+    _loader = new PathClassLoader(EmptyClassLoader.INSTANCE, IterUtil.snapshot(bootClassPath), true);
+    _classes = new ConcurrentHashMap<String, ClassInfo>();
+    _indexFile = _indexFile(key);
+    _indexed = _mapIndex(_indexFile, key);
+    _dirty = false;
+  }
+  
+  /** Get the shared cache for the given boot class path. */
+  public static LibraryClassCache forBootClassPath(Iterable<? extends File> bootClassPath) {
+    String key = _key(bootClassPath);
+    synchronized (CACHES) {
+      LibraryClassCache result = CACHES.get(key);
+      if (result == null) {
+        if (CACHES.size() >= MAX_CACHES) { CACHES.clear(); }
+        result = new LibraryClassCache(key, bootClassPath);
+        CACHES.put(key, result);
+      }
+      return result;
+    }
+  }
+  
+  /** The key identifying a boot class path and the modification dates and sizes of its elements. */
+  static String _key(Iterable<? extends File> bootClassPath) {
+    StringBuilder key = new StringBuilder();
+    for (File f : bootClassPath) {
+      key.append(f.getAbsolutePath()).append('|').append(f.lastModified()).append('|').append(f.length());
+      key.append(File.pathSeparatorChar);
+    }
+    return key.toString();
+  }
+  
+  /** @return  The signature of the named class, or {@code null} if it does not appear on the boot class path */
+  public ClassInfo get(String qualifiedClassName) {
+    ClassInfo result = _classes.get(qualifiedClassName);
+    if (result == null) {
+      ByteBuffer indexed = _indexed.get(qualifiedClassName);
+      if (indexed != null) { result = _decode(qualifiedClassName, indexed); }
+      if (result == null) {
+        long start = System.nanoTime();
+        result = MISSING;
+        InputStream stream = _loader.getResourceAsStream(qualifiedClassName.replace('.', '/') + ".class");
+        if (stream != null) {
+          try { result = ClassInfo.read(IOUtil.toByteArray(stream)); }
+          catch (IOException e) { return null; /* don't cache the failure */ }
+        }
+        _scanCount.incrementAndGet();
+        _scanNanos.addAndGet(System.nanoTime() - start);
+        _dirty = true;
+      }
+      // another thread may have concurrently read the same class; the results are equivalent
+      _classes.put(qualifiedClassName, result);
+    }
+    return (result == MISSING) ? null : result;
+  }
+  
+  /** Decode an index entry; returns {@code null} if the entry is corrupt. */
+  private ClassInfo _decode(String name, ByteBuffer entry) {
+    long start = System.nanoTime();
+    try {
+      if (!entry.hasRemaining()) { return MISSING; }
+      else { return ClassInfo.decode(new DataInputStream(new ByteBufferInputStream(entry.duplicate()))); }
+    }
+    catch (IOException e) { _log.log("Corrupt index entry for " + name + ": " + e); return null; }
+    catch (RuntimeException e) { _log.log("Corrupt index entry for " + name + ": " + e); return null; }
+    finally {
+      _decodeCount.incrementAndGet();
+      _decodeNanos.addAndGet(System.nanoTime() - start);
+    }
+  }
+  
+  /** A summary of the time spent scanning the boot class path and decoding index entries. */
+  public String statistics() {
+    return "Library classes: " + _scanCount.get() + " read from the boot class path in " + 
+      (_scanNanos.get() / 1000000) + " ms; " + _decodeCount.get() + " decoded from the index (" + _indexed.size() + 
+      " entries) in " + (_decodeNanos.get() / 1000000) + " ms";
+  }
+  
+  /** The number of classes read from the boot class path. */
+  long scanCount() { return _scanCount.get(); }
+  
+  /** The number of index entries decoded. */
+  long decodeCount() { return _decodeCount.get(); }
+  
+  /** The number of entries in the mapped index file. */
+  int indexSize() { return _indexed.size(); }
+  
+  /** Write the signatures looked up in this cache, along with those already in the index file, to the index file.
+    * Does nothing if indices are disabled or there are no new signatures.  Failures are logged and ignored.
+    */
+  public synchronized void saveIndex() {
+    if (_indexFile == null || !_dirty) { return; }
+    _dirty = false;
+    long start = System.nanoTime();
+    
+    SortedMap<String, byte[]> entries = new TreeMap<String, byte[]>();
+    for (Map.Entry<String, ByteBuffer> e : _indexed.entrySet()) {
+      ByteBuffer buf = e.getValue().duplicate();
+      byte[] bytes = new byte[buf.remaining()];
+      buf.get(bytes);
+      entries.put(e.getKey(), bytes);
+    }
+    
+    File temp = null;
+    try {
+      for (Map.Entry<String, ClassInfo> e : _classes.entrySet()) {
+        entries.put(e.getKey(), (e.getValue() == MISSING) ? new byte[0] : e.getValue().encode());
+      }
+      
+      File dir = _indexFile.getParentFile();
+      if (!dir.isDirectory() && dir.mkdirs()) {
+        dir.setReadable(false, false); dir.setReadable(true, true);
+        dir.setWritable(false, false); dir.setWritable(true, true);
+        dir.setExecutable(false, false); dir.setExecutable(true, true);
+      }
+      temp = File.createTempFile(_indexFile.getName(), ".tmp", dir);
+      DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)));
+      try {
+        out.writeInt(INDEX_MAGIC);
+        out.writeInt(INDEX_VERSION);
+        out.writeUTF(_key);
+        out.writeInt(entries.size());
+        for (Map.Entry<String, byte[]> e : entries.entrySet()) {
+          out.writeUTF(e.getKey());
+          out.writeInt(e.getValue().length);
+        }
+        for (byte[] bytes : entries.values()) { out.write(bytes); }
+      }
+      finally { out.close(); }
+      
+      // the old index may be mapped (by this or another process); on some platforms, it can't be replaced
+      if (!temp.renameTo(_indexFile)) {
+        _indexFile.delete();
+        if (!temp.renameTo(_indexFile)) { _log.log("Unable to replace " + _indexFile); }
+      }
+      _log.log("Saved " + entries.size() + " entries to " + _indexFile + " in " + 
+               ((System.nanoTime() - start) / 1000000) + " ms");
+    }
+    catch (IOException e) { _log.log("Unable to save " + _indexFile + ": " + e); }
+    finally { if (temp != null && temp.exists()) { temp.delete(); } }
+  }
+  
+  /** The index file for the given key, or {@code null} if indices are disabled. */
+  static File _indexFile(String key) {
+    String dir = System.getProperty(INDEX_DIR_PROPERTY);
+    if (dir == null) { dir = new File(System.getProperty("user.home", "."), ".drjava-ll-index").getPath(); }
+    if (dir.length() == 0) { return null; }
+    return new File(dir, "boot-" + Integer.toHexString(key.hashCode()) + ".idx");
+  }
+  
+  /** Map the given index file and read its directory.  Returns an empty map if the file is missing, is for a
+    * different key, or can't be read.
+    */
+  private static Map<String, ByteBuffer> _mapIndex(File indexFile, String key) {
+    if (indexFile == null || !indexFile.isFile()) { return Collections.emptyMap(); }
+    long start = System.nanoTime();
+    try {
+      ByteBuffer mapped;
+      RandomAccessFile raf = new RandomAccessFile(indexFile, "r");
+      try { mapped = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, raf.length()); }
+      finally { raf.close(); } // the mapping remains valid
+      
+      DataInputStream in = new DataInputStream(new ByteBufferInputStream(mapped.duplicate()));
+      if (in.readInt() != INDEX_MAGIC || in.readInt() != INDEX_VERSION || !in.readUTF().equals(key)) {
+        return Collections.emptyMap();
+      }
+      int size = in.readInt();
+      String[] names = new String[size];
+      int[] lengths = new int[size];
+      for (int i = 0; i < size; i++) { names[i] = in.readUTF(); lengths[i] = in.readInt(); }
+      
+      int offset = mapped.capacity() - in.available();
+      Map<String, ByteBuffer> result = new HashMap<String, ByteBuffer>(size * 2);
+      for (int i = 0; i < size; i++) {
+        ByteBuffer entry = mapped.duplicate();
+        entry.position(offset);
+        entry.limit(offset + lengths[i]);
+        result.put(names[i], entry.slice());
+        offset += lengths[i];
+      }
+      _log.log("Mapped " + size + " entries from " + indexFile + " in " + ((System.nanoTime() - start) / 1000000) + " ms");
+      return result;
+    }
+    catch (IOException e) { _log.log("Unable to read " + indexFile + ": " + e); }
+    catch (RuntimeException e) { _log.log("Unable to read " + indexFile + ": " + e); } // bad offsets, etc.
+    return Collections.emptyMap();
+  }
+  
+  /** The parts of a class file used to build a SymbolData.  Except for {@code name}, which is an internal
+    * name (like {@code "java/lang/Object"}), class names are qualified with '.' separators.
+    */
+  public static final class ClassInfo {
+    public final int access;
+    public final String name;
+    public final String superName; // null for java.lang.Object
+    private final String[] _interfaces;
+    public final List<MemberInfo> fields;
+    public final List<MemberInfo> methods;
+    
+    private ClassInfo(int a, String n, String sup, String[] ifaces, List<MemberInfo> fs, List<MemberInfo> ms) {
+      access = a;
+      name = n;
+      superName = sup;
+      _interfaces = ifaces;
+      fields = Collections.unmodifiableList(fs);
+      methods = Collections.unmodifiableList(ms);
+    }
+    
+    public String[] interfaces() { return _interfaces.clone(); }
+    
+    /** Parse the given class file; the code of methods is skipped. */
+    public static ClassInfo read(byte[] classFile) {
+      final ClassInfo[] result = new ClassInfo[1];
+      final List<MemberInfo> fields = new ArrayList<MemberInfo>();
+      final List<MemberInfo> methods = new ArrayList<MemberInfo>();
+      new ClassReader(classFile).accept(new ClassVisitor(Opcodes.ASM4) {
+        private int _access;
+        private String _name;
+        private String _super;
+        private String[] _interfaces;
+        public void visit(int version, int access, String name, String sig, String sup, String[] interfaces) {
+          _access = access;
+          _name = name;
+          _super = (sup == null) ? null : sup.replace('/', '.');
+          _interfaces = dotted(interfaces);
+        }
+        public FieldVisitor visitField(int access, String name, String desc, String sig, Object value) {
+          fields.add(new MemberInfo(access, name, desc, null));
+          return null;
+        }
+        public MethodVisitor visitMethod(int access, String name, String desc, String sig, String[] exceptions) {
+          methods.add(new MemberInfo(access, name, desc, dotted(exceptions)));
+          return null;
+        }
+        public void visitEnd() {
+          result[0] = new ClassInfo(_access, _name, _super, _interfaces, fields, methods);
+        }
+      }, ClassReader.SKIP_CODE);
+      return result[0];
+    }
+    
+    /** Produce the index representation of this signature, as read by {@link #decode}. */
+    public byte[] encode() throws IOException {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      DataOutputStream out = new DataOutputStream(bytes);
+      out.writeInt(access);
+      out.writeUTF(name);
+      out.writeBoolean(superName != null);
+      if (superName != null) { out.writeUTF(superName); }
+      writeStrings(out, _interfaces);
+      out.writeInt(fields.size());
+      for (MemberInfo f : fields) { out.writeInt(f.access); out.writeUTF(f.name); out.writeUTF(f.descriptor); }
+      out.writeInt(methods.size());
+      for (MemberInfo m : methods) {
+        out.writeInt(m.access); out.writeUTF(m.name); out.writeUTF(m.descriptor); writeStrings(out, m._exceptions);
+      }
+      out.close();
+      return bytes.toByteArray();
+    }
+    
+    /** Read a signature written by {@link #encode}. */
+    public static ClassInfo decode(DataInput in) throws IOException {
+      int access = in.readInt();
+      String name = in.readUTF();
+      String superName = in.readBoolean() ? in.readUTF() : null;
+      String[] interfaces = readStrings(in);
+      int fieldCount = in.readInt();
+      List<MemberInfo> fields = new ArrayList<MemberInfo>(fieldCount);
+      for (int i = 0; i < fieldCount; i++) {
+        fields.add(new MemberInfo(in.readInt(), in.readUTF(), in.readUTF(), null));
+      }
+      int methodCount = in.readInt();
+      List<MemberInfo> methods = new ArrayList<MemberInfo>(methodCount);
+      for (int i = 0; i < methodCount; i++) {
+        methods.add(new MemberInfo(in.readInt(), in.readUTF(), in.readUTF(), readStrings(in)));
+      }
+      return new ClassInfo(access, name, superName, interfaces, fields, methods);
+    }
+    
+    private static String[] dotted(String[] names) {
+      if (names == null) { return new String[0]; }
+      String[] result = new String[names.length];
+      for (int i = 0; i < names.length; i++) { result[i] = names[i].replace('/', '.'); }
+      return result;
+    }
+    
+    private static void writeStrings(DataOutput out, String[] strings) throws IOException {
+      out.writeInt(strings.length);
+      for (String s : strings) { out.writeUTF(s); }
+    }
+    
+    private static String[] readStrings(DataInput in) throws IOException {
+      String[] result = new String[in.readInt()];
+      for (int i = 0; i < result.length; i++) { result[i] = in.readUTF(); }
+      return result;
+    }
+  }
+  
+  /** A field or method declared in a class file. */
+  public static final class MemberInfo {
+    public final int access;
+    public final String name;
+    public final String descriptor;
+    private final String[] _exceptions; // null for fields
+    
+    private MemberInfo(int a, String n, String desc, String[] exceptions) {
+      access = a;
+      name = n;
+      descriptor = desc;
+      _exceptions = exceptions;
+    }
+    
+    /** The qualified names of the exceptions thrown by a method (a fresh array). */
+    public String[] exceptions() { return _exceptions.clone(); }
+  }
+  
+  /** Reads the remaining bytes of a buffer. */
+  private static final class ByteBufferInputStream extends InputStream {
+    private final ByteBuffer _buf;
+    public ByteBufferInputStream(ByteBuffer buf) { _buf = buf; }
+    public int read() { return _buf.hasRemaining() ? (_buf.get() & 0xff) : -1; }
+    public int read(byte[] b, int off, int len) {
+      if (len == 0) { return 0; }
+      if (!_buf.hasRemaining()) { return -1; }
+      len = Math.min(len, _buf.remaining());
+      _buf.get(b, off, len);
+      return len;
+    }
+    public int available() { return _buf.remaining(); }
+  }
+}
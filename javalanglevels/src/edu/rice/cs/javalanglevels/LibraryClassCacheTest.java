@@ -0,0 +1,215 @@
+/*BEGIN_COPYRIGHT_BLOCK
+ *
+ * Copyright (c) 2001-2010, JavaPLT group at Rice University (drjava@rice.edu)
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    * Redistributions of source code must retain the above copyright
+ *      notice, this list of conditions and the following disclaimer.
+ *    * Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in the
+ *      documentation and/or other materials provided with the distribution.
+ *    * Neither the names of DrJava, the JavaPLT group, Rice University, nor the
+ *      names of its contributors may be used to endorse or promote products
+ *      derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This software is Open Source Initiative approved Open Source Software.
+ * Open Source Initative Approved is a trademark of the Open Source Initiative.
+ * 
+ * This file is part of DrJava.  Download the current version of this project
+ * from http://www.drjava.org/ or http://sourceforge.net/projects/drjava/
+ * 
+ * END_COPYRIGHT_BLOCK*/
+
+package edu.rice.cs.javalanglevels;
+
+import java.io.*;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+import edu.rice.cs.plt.io.IOUtil;
+
+/** Tests the signatures read by, and the sharing of, LibraryClassCache. */
+public class LibraryClassCacheTest extends TestCase {
+  
+  private static final Iterable<File> BOOT_PATH = IOUtil.parsePath(System.getProperty("sun.boot.class.path", ""));
+  
+  private File _indexDir;
+  private String _oldIndexDir;
+  
+  public void setUp() throws Exception {
+    super.setUp();
+    _indexDir = IOUtil.createAndMarkTempDirectory("llindex", "");
+    _oldIndexDir = System.getProperty(LibraryClassCache.INDEX_DIR_PROPERTY);
+    System.setProperty(LibraryClassCache.INDEX_DIR_PROPERTY, _indexDir.getPath());
+  }
+  
+  public void tearDown() throws Exception {
+    if (_oldIndexDir == null) { System.clearProperty(LibraryClassCache.INDEX_DIR_PROPERTY); }
+    else { System.setProperty(LibraryClassCache.INDEX_DIR_PROPERTY, _oldIndexDir); }
+    IOUtil.deleteRecursively(_indexDir);
+    super.tearDown();
+  }
+  
+  public void testSharing() {
+    LibraryClassCache cache = LibraryClassCache.forBootClassPath(BOOT_PATH);
+    assertSame(cache, LibraryClassCache.forBootClassPath(IOUtil.parsePath(System.getProperty("sun.boot.class.path"))));
+    assertSame(cache.get("java.lang.String"), cache.get("java.lang.String"));
+    assertNull(cache.get("edu.rice.cs.javalanglevels.LibraryClassCacheTest"));
+    assertNull(cache.get("no.such.Class"));
+    assertNotSame(cache, LibraryClassCache.forBootClassPath(Arrays.<File>asList()));
+  }
+  
+  public void testSignatures() {
+    LibraryClassCache.ClassInfo integer = LibraryClassCache.forBootClassPath(BOOT_PATH).get("java.lang.Integer");
+    assertEquals("java/lang/Integer", integer.name);
+    assertEquals("java.lang.Number", integer.superName);
+    assertTrue(Modifier.isFinal(integer.access));
+    assertTrue(Arrays.asList(integer.interfaces()).contains("java.lang.Comparable"));
+    
+    boolean foundField = false;
+    for (LibraryClassCache.MemberInfo f : integer.fields) {
+      if (f.name.equals("MAX_VALUE")) { foundField = true; assertEquals("I", f.descriptor); }
+    }
+    assertTrue(foundField);
+    
+    boolean foundMethod = false;
+    for (LibraryClassCache.MemberInfo m : integer.methods) {
+      if (m.name.equals("parseInt") && m.descriptor.equals("(Ljava/lang/String;)I")) {
+        foundMethod = true;
+        assertEquals(Arrays.asList("java.lang.NumberFormatException"), Arrays.asList(m.exceptions()));
+        m.exceptions()[0] = null; // callers get a fresh copy
+        assertEquals("java.lang.NumberFormatException", m.exceptions()[0]);
+      }
+    }
+    assertTrue(foundMethod);
+    
+    assertNull(LibraryClassCache.forBootClassPath(BOOT_PATH).get("java.lang.Object").superName);
+  }
+  
+  public void testEncoding() throws IOException {
+    LibraryClassCache cache = LibraryClassCache.forBootClassPath(BOOT_PATH);
+    for (String name : new String[]{ "java.lang.Object", "java.lang.String", "java.util.Map$Entry" }) {
+      LibraryClassCache.ClassInfo info = cache.get(name);
+      byte[] bytes = info.encode();
+      LibraryClassCache.ClassInfo decoded = LibraryClassCache.ClassInfo.decode(new DataInputStream(new ByteArrayInputStream(bytes)));
+      assertEquals(info.access, decoded.access);
+      assertEquals(info.name, decoded.name);
+      assertEquals(info.superName, decoded.superName);
+      assertEquals(Arrays.asList(info.interfaces()), Arrays.asList(decoded.interfaces()));
+      assertEquals(info.fields.size(), decoded.fields.size());
+      assertEquals(info.methods.size(), decoded.methods.size());
+      for (int i = 0; i < info.methods.size(); i++) {
+        LibraryClassCache.MemberInfo m1 = info.methods.get(i);
+        LibraryClassCache.MemberInfo m2 = decoded.methods.get(i);
+        assertEquals(m1.access, m2.access);
+        assertEquals(m1.name, m2.name);
+        assertEquals(m1.descriptor, m2.descriptor);
+        assertEquals(Arrays.asList(m1.exceptions()), Arrays.asList(m2.exceptions()));
+      }
+      assertTrue(Arrays.equals(bytes, decoded.encode()));
+    }
+  }
+  
+  /** Create a cache for the boot class path whose index holds java.lang.Runnable and a missing class. */
+  private File _saveIndex() {
+    String key = LibraryClassCache._key(BOOT_PATH);
+    LibraryClassCache cache = new LibraryClassCache(key, BOOT_PATH);
+    assertEquals(0, cache.indexSize());
+    assertNotNull(cache.get("java.lang.Runnable"));
+    assertNull(cache.get("no.such.Class"));
+    assertEquals(2, cache.scanCount());
+    cache.saveIndex();
+    File index = LibraryClassCache._indexFile(key);
+    assertEquals(_indexDir, index.getParentFile());
+    assertTrue(index.isFile());
+    return index;
+  }
+  
+  public void testIndexRoundTrip() {
+    _saveIndex();
+    LibraryClassCache cache = new LibraryClassCache(LibraryClassCache._key(BOOT_PATH), BOOT_PATH);
+    assertEquals(2, cache.indexSize());
+    assertEquals(0, cache.decodeCount()); // entries are decoded lazily
+    
+    LibraryClassCache.ClassInfo runnable = cache.get("java.lang.Runnable");
+    assertEquals("java/lang/Runnable", runnable.name);
+    assertEquals(1, runnable.methods.size());
+    assertEquals("run", runnable.methods.get(0).name);
+    assertNull(cache.get("no.such.Class"));
+    assertEquals(2, cache.decodeCount());
+    assertSame(runnable, cache.get("java.lang.Runnable"));
+    assertEquals(2, cache.decodeCount());
+    assertEquals(0, cache.scanCount());
+    
+    assertNotNull(cache.get("java.lang.Thread")); // not indexed
+    assertEquals(1, cache.scanCount());
+  }
+  
+  public void testIndexMismatch() throws IOException {
+    File index = _saveIndex();
+    
+    // an index saved for a different boot class path is ignored
+    String otherKey = LibraryClassCache._key(Arrays.<File>asList());
+    File otherIndex = LibraryClassCache._indexFile(otherKey);
+    IOUtil.copyFile(index, otherIndex);
+    assertEquals(0, new LibraryClassCache(otherKey, Arrays.<File>asList()).indexSize());
+    
+    // as is one with a different version
+    RandomAccessFile raf = new RandomAccessFile(index, "rw");
+    try { raf.seek(4); raf.writeInt(raf.readInt() + 1); }
+    finally { raf.close(); }
+    LibraryClassCache cache = new LibraryClassCache(LibraryClassCache._key(BOOT_PATH), BOOT_PATH);
+    assertEquals(0, cache.indexSize());
+    assertNotNull(cache.get("java.lang.Runnable"));
+    assertEquals(1, cache.scanCount());
+  }
+  
+  public void testTruncatedIndex() throws IOException {
+    File index = _saveIndex();
+    RandomAccessFile raf = new RandomAccessFile(index, "rw");
+    try { raf.setLength(raf.length() - 1); }
+    finally { raf.close(); }
+    
+    LibraryClassCache cache = new LibraryClassCache(LibraryClassCache._key(BOOT_PATH), BOOT_PATH);
+    assertEquals(0, cache.indexSize());
+    assertEquals("java/lang/Runnable", cache.get("java.lang.Runnable").name);
+    assertEquals(1, cache.scanCount());
+  }
+  
+  public void testCorruptIndexEntry() throws IOException {
+    File index = _saveIndex();
+    byte[] runnable = LibraryClassCache.forBootClassPath(BOOT_PATH).get("java.lang.Runnable").encode();
+    // the missing class has an empty entry, so Runnable's entry ends the file
+    RandomAccessFile raf = new RandomAccessFile(index, "rw");
+    try {
+      raf.seek(raf.length() - runnable.length);
+      byte[] garbage = new byte[runnable.length];
+      Arrays.fill(garbage, (byte) 0xff);
+      raf.write(garbage);
+    }
+    finally { raf.close(); }
+    
+    LibraryClassCache cache = new LibraryClassCache(LibraryClassCache._key(BOOT_PATH), BOOT_PATH);
+    assertEquals(2, cache.indexSize());
+    assertEquals("java/lang/Runnable", cache.get("java.lang.Runnable").name);
+    assertEquals(1, cache.decodeCount());
+    assertEquals(1, cache.scanCount());
+    assertNull(cache.get("no.such.Class"));
+    assertEquals(1, cache.scanCount());
+  }
+}
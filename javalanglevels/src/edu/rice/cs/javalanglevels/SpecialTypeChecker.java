@@ -44,6 +44,7 @@ import edu.rice.cs.plt.reflect.JavaVersion;
 import edu.rice.cs.plt.iter.*;
 
 import junit.framework.TestCase;
+import static edu.rice.cs.javalanglevels.LanguageLevelConverter.symbolTable;
 
 /** SpecialTypeChecker is a base class for specialized type checkers such as BodyTypeChecker, ClassBodyTypeChecker, 
   * ExpressionTypeChecker, etc. SpecialTypeChecker maintains the context.
@@ -578,10 +579,10 @@ public class SpecialTypeChecker extends TypeChecker {
     
     public void setUp() {
       errors = new LinkedList<Pair<String, JExpressionIF>>();
-      LanguageLevelConverter.symbolTable.clear();
+      symbolTable().clear();
       _stc = new SpecialTypeChecker(null, new File(""), "", new LinkedList<String>(), new LinkedList<String>(), 
                    new LinkedList<VariableData>(), new LinkedList<Pair<SymbolData, JExpression>>());
-      LanguageLevelConverter.OPT = new Options(JavaVersion.JAVA_8, EmptyIterable.<File>make());
+      LanguageLevelConverter.setOptions(new Options(JavaVersion.JAVA_8, EmptyIterable.<File>make()));
         _stc._importedPackages.addFirst("java.lang");
       _sd1 = new SymbolData("i.like.monkey");
       _sd2 = new SymbolData("i.like.giraffe");
@@ -617,8 +618,8 @@ public class SpecialTypeChecker extends TypeChecker {
       //make sure it works -- most testing done in testArrayInitializerHelper
       ArrayData intArray = new ArrayData(SymbolData.INT_TYPE, llv, si);
       intArray.setIsContinuation(false);
-      symbolTable.remove("int[]");
-      symbolTable.put("int[]", intArray);
+      symbolTable().remove("int[]");
+      symbolTable().put("int[]", intArray);
       
       _stc._data.addVar(new VariableData("foozle", _publicMav, intArray, false, _stc._data));
       InitializedVariableDeclarator ivd = 
@@ -717,8 +718,8 @@ public class SpecialTypeChecker extends TypeChecker {
       //it works for a one dimensional array
       ArrayData intArray = new ArrayData(SymbolData.INT_TYPE, llv, si);
       intArray.setIsContinuation(false);
-      symbolTable.remove("int[]");
-      symbolTable.put("int[]", intArray);
+      symbolTable().remove("int[]");
+      symbolTable().put("int[]", intArray);
       
       ArrayInitializer ia = new ArrayInitializer(si, new VariableInitializerI[] {e1, e2, e3, e4});
       assertEquals("Should return instance of int[]", intArray.getInstanceData(), 
@@ -728,7 +729,7 @@ public class SpecialTypeChecker extends TypeChecker {
       //it works for a 2 dimensional array
       ArrayData intArray2 = new ArrayData(intArray, llv, si);
       intArray2.setIsContinuation(false);
-      symbolTable.put("int[][]", intArray2);
+      symbolTable().put("int[][]", intArray2);
       
       ia = new ArrayInitializer(si, new VariableInitializerI[]{a1, a2});
       assertEquals("Should return instance of int[][]", intArray2.getInstanceData(), 
@@ -784,8 +785,8 @@ public class SpecialTypeChecker extends TypeChecker {
       SymbolData string = new SymbolData("java.lang.String");
       string.setIsContinuation(false);
       string.setPackage("java.lang");
-      symbolTable.remove("java.lang.String");
-      symbolTable.put("java.lang.String", string);
+      symbolTable().remove("java.lang.String");
+      symbolTable().put("java.lang.String", string);
       
       //if lhs is null, just look up SymbolData
       assertEquals("Should return string", string,
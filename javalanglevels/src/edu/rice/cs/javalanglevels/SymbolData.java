@@ -63,7 +63,7 @@ public class SymbolData extends TypeData {
     public boolean isAssignableTo(SymbolData toCheck, boolean allowAutoboxing) {
       if (toCheck == null) return false;
       if (allowAutoboxing && !toCheck.isPrimitiveType()) {
-        SymbolData autoBoxMe = LanguageLevelConverter.symbolTable.get("java.lang.Boolean");
+        SymbolData autoBoxMe = LanguageLevelConverter.symbolTable().get("java.lang.Boolean");
         return autoBoxMe.isAssignableTo(toCheck, allowAutoboxing);
       }
       return toCheck == BOOLEAN_TYPE;
@@ -82,7 +82,7 @@ public class SymbolData extends TypeData {
     public boolean isAssignableTo(SymbolData assignTo, boolean allowAutoboxing) {
       if (assignTo == null) return false;
       if (allowAutoboxing && ! assignTo.isPrimitiveType()) {
-        SymbolData autoBoxMe = LanguageLevelConverter.symbolTable.get("java.lang.Character");
+        SymbolData autoBoxMe = LanguageLevelConverter.symbolTable().get("java.lang.Character");
         return autoBoxMe.isAssignableTo(assignTo, allowAutoboxing);
       }
       
@@ -110,7 +110,7 @@ public class SymbolData extends TypeData {
       if (assignTo == null) return false;
 
       if (allowAutoboxing && !assignTo.isPrimitiveType()) {
-        SymbolData autoBoxMe = LanguageLevelConverter.symbolTable.get("java.lang.Byte");
+        SymbolData autoBoxMe = LanguageLevelConverter.symbolTable().get("java.lang.Byte");
         return autoBoxMe.isAssignableTo(assignTo, allowAutoboxing);
       }
 
@@ -137,7 +137,7 @@ public class SymbolData extends TypeData {
       if (assignTo == null) return false;
 
       if (allowAutoboxing && !assignTo.isPrimitiveType()) {
-        SymbolData autoBoxMe = LanguageLevelConverter.symbolTable.get("java.lang.Short");
+        SymbolData autoBoxMe = LanguageLevelConverter.symbolTable().get("java.lang.Short");
         return autoBoxMe != null && autoBoxMe.isAssignableTo(assignTo, allowAutoboxing);
       }
       
@@ -161,7 +161,7 @@ public class SymbolData extends TypeData {
       if (assignTo == null) return false;
 
       if (allowAutoboxing && ! assignTo.isPrimitiveType()) {
-        SymbolData autoBoxMe = LanguageLevelConverter.symbolTable.get("java.lang.Integer");
+        SymbolData autoBoxMe = LanguageLevelConverter.symbolTable().get("java.lang.Integer");
         return autoBoxMe.isAssignableTo(assignTo, allowAutoboxing);
       }
 
@@ -185,7 +185,7 @@ public class SymbolData extends TypeData {
       if (assignTo == null) return false;
 
       if (allowAutoboxing && !assignTo.isPrimitiveType()) {
-        SymbolData autoBoxMe = LanguageLevelConverter.symbolTable.get("java.lang.Long");
+        SymbolData autoBoxMe = LanguageLevelConverter.symbolTable().get("java.lang.Long");
         return autoBoxMe.isAssignableTo(assignTo, allowAutoboxing);
       }
 
@@ -210,7 +210,7 @@ public class SymbolData extends TypeData {
       if (assignTo == null) return false;
 
       if (allowAutoboxing && !assignTo.isPrimitiveType()) {
-        SymbolData autoBoxMe = LanguageLevelConverter.symbolTable.get("java.lang.Float");
+        SymbolData autoBoxMe = LanguageLevelConverter.symbolTable().get("java.lang.Float");
         return autoBoxMe != null && autoBoxMe.isAssignableTo(assignTo, allowAutoboxing);
       }
 
@@ -234,7 +234,7 @@ public class SymbolData extends TypeData {
       if (assignTo == null) return false; 
 
       if (allowAutoboxing && ! assignTo.isPrimitiveType()) {
-        SymbolData autoBoxMe = LanguageLevelConverter.symbolTable.get("java.lang.Double");
+        SymbolData autoBoxMe = LanguageLevelConverter.symbolTable().get("java.lang.Double");
         return autoBoxMe != null && autoBoxMe.isAssignableTo(assignTo, allowAutoboxing);
       }
       return assignTo == SymbolData.DOUBLE_TYPE; 
@@ -525,14 +525,14 @@ public class SymbolData extends TypeData {
    
    /** The inverse of unbox(). */
    public SymbolData box() {
-     if (this == INT_TYPE)     return LanguageLevelConverter.symbolTable.get("java.lang.Integer");
-     if (this == CHAR_TYPE)    return LanguageLevelConverter.symbolTable.get("java.lang.Character");
-     if (this == SHORT_TYPE)   return LanguageLevelConverter.symbolTable.get("java.lang.Short");
-     if (this == BYTE_TYPE)    return LanguageLevelConverter.symbolTable.get("java.lang.Byte");
-     if (this == FLOAT_TYPE)   return LanguageLevelConverter.symbolTable.get("java.lang.Float");
-     if (this == DOUBLE_TYPE)  return LanguageLevelConverter.symbolTable.get("java.lang.Double");
-     if (this == LONG_TYPE)    return LanguageLevelConverter.symbolTable.get("java.lang.Long");
-     if (this == BOOLEAN_TYPE) return LanguageLevelConverter.symbolTable.get("java.lang.Boolean");
+     if (this == INT_TYPE)     return LanguageLevelConverter.symbolTable().get("java.lang.Integer");
+     if (this == CHAR_TYPE)    return LanguageLevelConverter.symbolTable().get("java.lang.Character");
+     if (this == SHORT_TYPE)   return LanguageLevelConverter.symbolTable().get("java.lang.Short");
+     if (this == BYTE_TYPE)    return LanguageLevelConverter.symbolTable().get("java.lang.Byte");
+     if (this == FLOAT_TYPE)   return LanguageLevelConverter.symbolTable().get("java.lang.Float");
+     if (this == DOUBLE_TYPE)  return LanguageLevelConverter.symbolTable().get("java.lang.Double");
+     if (this == LONG_TYPE)    return LanguageLevelConverter.symbolTable().get("java.lang.Long");
+     if (this == BOOLEAN_TYPE) return LanguageLevelConverter.symbolTable().get("java.lang.Boolean");
      return this;
    }
    
@@ -1723,16 +1723,16 @@ public class SymbolData extends TypeData {
     }
     
      public void testBoxedTypes() {
-      assertEquals("INT_TYPE boxing", symbolTable.get("java.lang.Integer"), SymbolData.INT_TYPE.box());
-      assertEquals("DOUBLE_TYPE boxing", symbolTable.get("java.lang.Double"), SymbolData.DOUBLE_TYPE.box());
-      assertEquals("LONG_TYPE boxing", symbolTable.get("java.lang.Long"), SymbolData.LONG_TYPE.box());
-      assertEquals("LONG_TYPE boxing", symbolTable.get("java.lang.Long"), SymbolData.LONG_TYPE.box());
-      assertEquals("CHAR_TYPE boxing", symbolTable.get("java.lang.Character"), SymbolData.CHAR_TYPE.box());
-      assertEquals("FLOAT_TYPE boxing", symbolTable.get("java.lang.Float"), SymbolData.FLOAT_TYPE.box());
-      assertEquals("CHAR_TYPE boxing", symbolTable.get("java.lang.Character"), SymbolData.CHAR_TYPE.box());
-      assertEquals("SHORT_TYPE boxing", symbolTable.get("java.lang.Short"), SymbolData.SHORT_TYPE.box());
-      assertEquals("BYTE_TYPE boxing", symbolTable.get("java.lang.Byte"), SymbolData.BYTE_TYPE.box());
-      assertEquals("BOOLEAN_TYPE boxing", symbolTable.get("java.lang.Boolean"), SymbolData.BOOLEAN_TYPE.box());     
+      assertEquals("INT_TYPE boxing", symbolTable().get("java.lang.Integer"), SymbolData.INT_TYPE.box());
+      assertEquals("DOUBLE_TYPE boxing", symbolTable().get("java.lang.Double"), SymbolData.DOUBLE_TYPE.box());
+      assertEquals("LONG_TYPE boxing", symbolTable().get("java.lang.Long"), SymbolData.LONG_TYPE.box());
+      assertEquals("LONG_TYPE boxing", symbolTable().get("java.lang.Long"), SymbolData.LONG_TYPE.box());
+      assertEquals("CHAR_TYPE boxing", symbolTable().get("java.lang.Character"), SymbolData.CHAR_TYPE.box());
+      assertEquals("FLOAT_TYPE boxing", symbolTable().get("java.lang.Float"), SymbolData.FLOAT_TYPE.box());
+      assertEquals("CHAR_TYPE boxing", symbolTable().get("java.lang.Character"), SymbolData.CHAR_TYPE.box());
+      assertEquals("SHORT_TYPE boxing", symbolTable().get("java.lang.Short"), SymbolData.SHORT_TYPE.box());
+      assertEquals("BYTE_TYPE boxing", symbolTable().get("java.lang.Byte"), SymbolData.BYTE_TYPE.box());
+      assertEquals("BOOLEAN_TYPE boxing", symbolTable().get("java.lang.Boolean"), SymbolData.BOOLEAN_TYPE.box());     
     }
 
     public void testIsNumberTypeWithoutAutoboxing() {
@@ -44,6 +44,7 @@ import edu.rice.cs.plt.reflect.JavaVersion;
 import edu.rice.cs.plt.iter.*;
 
 import junit.framework.TestCase;
+import static edu.rice.cs.javalanglevels.LanguageLevelConverter.symbolTable;
 
 /**Does TypeChecking for the context of a Try-Catch body.  Common to all LanguageLevels.*/
 public class TryCatchBodyTypeChecker extends BodyTypeChecker {
@@ -153,11 +154,11 @@ public class TryCatchBodyTypeChecker extends BodyTypeChecker {
       ((MethodData) _bd1).getParams()[1].setEnclosingData(_bd1);
                             
       errors = new LinkedList<Pair<String, JExpressionIF>>();
-      LanguageLevelConverter.symbolTable.clear();
+      symbolTable().clear();
       _bd1.addEnclosingData(_sd1);
       _bd1.addFinalVars(((MethodData)_bd1).getParams());
       _tcbtc = new TryCatchBodyTypeChecker(_bd1, new File(""), "", new LinkedList<String>(), new LinkedList<String>(), new LinkedList<VariableData>(), new LinkedList<Pair<SymbolData, JExpression>>());
-      LanguageLevelConverter.OPT = new Options(JavaVersion.JAVA_8, EmptyIterable.<File>make());
+      LanguageLevelConverter.setOptions(new Options(JavaVersion.JAVA_8, EmptyIterable.<File>make()));
       _tcbtc._importedPackages.addFirst("java.lang");
     }
     
@@ -190,15 +191,15 @@ public class TryCatchBodyTypeChecker extends BodyTypeChecker {
                                  new LinkedList<Command>());
       llv.errors = new LinkedList<Pair<String, JExpressionIF>>();
       llv._errorAdded=false;
-      LanguageLevelConverter.symbolTable.clear();
-      LanguageLevelConverter._newSDs.clear();
-      LanguageLevelConverter.loadSymbolTable();
+      symbolTable().clear();
+      LanguageLevelConverter.newSDs().clear();
+      LanguageLevelConverter.current().loadSymbolTable();
       llv.continuations = new Hashtable<String, Triple<SourceInfo, LanguageLevelVisitor, SymbolData>>();
       llv.visitedFiles = new LinkedList<Pair<LanguageLevelVisitor, edu.rice.cs.javalanglevels.tree.SourceFile>>();      
 //      llv._hierarchy = new Hashtable<String, TypeDefBase>();
       llv._classesInThisFile = new HashSet<String>();
       
-      SymbolData o = symbolTable.get("java.lang.Object");
+      SymbolData o = symbolTable().get("java.lang.Object");
 //      o.setIsContinuation(false);
 //      o.setMav(_publicMav);
 //      symbolTable.put("java.lang.Object", o);
@@ -207,7 +208,7 @@ public class TryCatchBodyTypeChecker extends BodyTypeChecker {
       string.setIsContinuation(false);
       string.setMav(_publicMav);
       string.setSuperClass(o);   // a white lie for this test   
-      symbolTable.put("java.lang.String", string);
+      symbolTable().put("java.lang.String", string);
 
       SymbolData e = llv.getSymbolData("java.util.prefs.BackingStoreException", SourceInfo.NONE, true);
       
@@ -47,6 +47,7 @@ import edu.rice.cs.plt.reflect.JavaVersion;
 import edu.rice.cs.plt.iter.*;
 
 import junit.framework.TestCase;
+import static edu.rice.cs.javalanglevels.LanguageLevelConverter.symbolTable;
 
 /** Does Type Checking that is not dependent on the enclosing body.  Also does top level type checking.  Common
   * to all langauge levels. 
@@ -81,7 +82,7 @@ public class TypeChecker extends JExpressionIFDepthFirstVisitor<TypeData> implem
   static LinkedList<Pair<String, JExpressionIF>> errors;
   
   /** Holds the information about any classes/interfaces that have been resolved */
-  static final Symboltable symbolTable = LanguageLevelConverter.symbolTable;
+  final Symboltable symbolTable;
   
   /**True if we have an error we can't recover from*/
   static boolean _errorAdded;
@@ -111,7 +112,7 @@ public class TypeChecker extends JExpressionIFDepthFirstVisitor<TypeData> implem
     _file = file;
     _package = packageName;
     this.errors = errors;
-//    this.symbolTable = symbolTable;
+    this.symbolTable = symbolTable;
     this._importedFiles = importedFiles;
     this._importedPackages = importedPackages;
   }
@@ -126,6 +127,7 @@ public class TypeChecker extends JExpressionIFDepthFirstVisitor<TypeData> implem
                      LinkedList<String> importedPackages) {
     _file = file;
     _package = packageName;
+    symbolTable = LanguageLevelConverter.symbolTable();
     _importedFiles = importedFiles;
     _importedPackages = importedPackages;
   }
@@ -142,7 +144,7 @@ public class TypeChecker extends JExpressionIFDepthFirstVisitor<TypeData> implem
     testCase.setIsContinuation(false);
     testCase.setMav(_publicMav);
     testCase.setPackage("junit.framework");
-    LanguageLevelConverter.symbolTable.put("junit.framework.TestCase", testCase);
+    symbolTable().put("junit.framework.TestCase", testCase);
     return testCase;
   }
   
@@ -201,7 +203,7 @@ public class TypeChecker extends JExpressionIFDepthFirstVisitor<TypeData> implem
 
   /** Returns the SymbolData corresponding to the name className, assuming that className
     * does not refer to an unqualified or partially-qualified inner class.  What are the extra parameters for?  Should
-    * this be re-implemented as LanguageLevelConverter.symbolTable.get ??  It is UGLY but simple.
+    * this be re-implemented as symbolTable().get ??  It is UGLY but simple.
     * */
   public SymbolData getSymbolData(String className, JExpression jexpr, boolean giveException, boolean runnableNotOkay) {
     // Check qualified class name (which is no different at elementary level)
@@ -220,8 +222,8 @@ public class TypeChecker extends JExpressionIFDepthFirstVisitor<TypeData> implem
                                new LinkedList<Command>(),
                                new HashMap<String, SymbolData>());
 
-    LanguageLevelConverter._newSDs.clear();
-    assert LanguageLevelConverter.symbolTable.containsKey("java.lang.Object");
+    LanguageLevelConverter.newSDs().clear();
+    assert symbolTable().containsKey("java.lang.Object");
     SymbolData sd = llv.getSymbolData(className, si, false, true); // TODO: Is this right?
 //    if (sd == null) {
 //      System.err.println("***ALARM*** The following symbol was not found in symbolTable: " + className);
@@ -1371,11 +1373,11 @@ public class TypeChecker extends JExpressionIFDepthFirstVisitor<TypeData> implem
     
     public void setUp() {
       errors = new LinkedList<Pair<String, JExpressionIF>>();
-      LanguageLevelConverter.symbolTable.clear();
-      LanguageLevelConverter.loadSymbolTable();
+      symbolTable().clear();
+      LanguageLevelConverter.current().loadSymbolTable();
 
       _btc = new TypeChecker(new File(""), "", new LinkedList<String>(), new LinkedList<String>());
-      LanguageLevelConverter.OPT = new Options(JavaVersion.JAVA_8, EmptyIterable.<File>make());
+      LanguageLevelConverter.setOptions(new Options(JavaVersion.JAVA_8, EmptyIterable.<File>make()));
       _btc._importedPackages.addFirst("java.lang");
       _errorAdded = false;
       
@@ -1387,17 +1389,17 @@ public class TypeChecker extends JExpressionIFDepthFirstVisitor<TypeData> implem
       _sd5 = new SymbolData("");
       _sd6 = new SymbolData("cebu");
       
-      _object = symbolTable.get("java.lang.Object");
+      _object = symbolTable().get("java.lang.Object");
       assert _object != null;
-      assert symbolTable.get("java.lang.Double") != null;
-      assert symbolTable.get("java.lang.Float") != null;    
-      assert symbolTable.get("java.lang.Long") != null;          
-      assert symbolTable.get("java.lang.Integer") != null;          
-      assert symbolTable.get("java.lang.Short") != null;  
-      assert symbolTable.get("java.lang.Character") != null;
-      assert symbolTable.get("java.lang.Byte") != null;   
-      assert symbolTable.get("java.lang.Boolean") != null;    
-      assert symbolTable.get("java.lang.String") != null;
+      assert symbolTable().get("java.lang.Double") != null;
+      assert symbolTable().get("java.lang.Float") != null;    
+      assert symbolTable().get("java.lang.Long") != null;          
+      assert symbolTable().get("java.lang.Integer") != null;          
+      assert symbolTable().get("java.lang.Short") != null;  
+      assert symbolTable().get("java.lang.Character") != null;
+      assert symbolTable().get("java.lang.Byte") != null;   
+      assert symbolTable().get("java.lang.Boolean") != null;    
+      assert symbolTable().get("java.lang.String") != null;
     }
     
     public void test_getData() {
@@ -1410,9 +1412,9 @@ public class TypeChecker extends JExpressionIFDepthFirstVisitor<TypeData> implem
     }
     
     public void testGetSymbolData() {
-      symbolTable.put("zebra", _sd3);
+      symbolTable().put("zebra", _sd3);
       _sd3.setIsContinuation(false);
-      SymbolData sd = symbolTable.get("java.lang.Object");
+      SymbolData sd = symbolTable().get("java.lang.Object");
       sd.setPackage("java.lang");
       assertEquals("Should get _sd3 from the Symboltable.", _sd3, _btc.getSymbolData("zebra", NULL_LITERAL, true, true));
       assertEquals("Should get sd from the Symboltable.", sd, _btc.getSymbolData("java.lang.Object", NULL_LITERAL, true, true));
@@ -1434,7 +1436,7 @@ public class TypeChecker extends JExpressionIFDepthFirstVisitor<TypeData> implem
       SymbolData sdThread = new SymbolData("java.lang.Thread");
       sdThread.setIsContinuation(false);
       sdThread.setPackage("java.lang");
-      symbolTable.put("java.lang.Thread", sdThread);
+      symbolTable().put("java.lang.Thread", sdThread);
       assertEquals("Should return null", null, _btc.getSymbolData("Thread", NULL_LITERAL, true, 
                                                                   true));
       
@@ -1452,8 +1454,8 @@ public class TypeChecker extends JExpressionIFDepthFirstVisitor<TypeData> implem
       run.setPackage("java.lang");
       sdOther.addInterface(run);
       
-      symbolTable.put("myClass", sdOther);
-      symbolTable.put("java.lang.Runnable", run);
+      symbolTable().put("myClass", sdOther);
+      symbolTable().put("java.lang.Runnable", run);
       
       assertEquals("Should return sdOther", sdOther, _btc.getSymbolData("myClass", NULL_LITERAL, 
                                                                         true, true));
@@ -1816,7 +1818,7 @@ public class TypeChecker extends JExpressionIFDepthFirstVisitor<TypeData> implem
       _sd3.setMethods(new LinkedList<MethodData>());
       _sd3.addMethod(md7);
       _sd2.addEnclosingData(_sd3);
-      SymbolData sd = symbolTable.get("java.lang.Object");
+      SymbolData sd = symbolTable().get("java.lang.Object");
 //      sd.setIsContinuation(false);
       _sd2.setSuperClass(sd);
       _btc._checkAbstractMethodsHelper(_sd2, _sd3, mds, null);
@@ -1840,36 +1842,36 @@ public class TypeChecker extends JExpressionIFDepthFirstVisitor<TypeData> implem
   
     public void test_isAssignableFrom() {
       assertTrue("Should be assignable.", 
-                 _btc._isAssignableFrom(SymbolData.DOUBLE_TYPE, symbolTable.get("java.lang.Double")));
+                 _btc._isAssignableFrom(SymbolData.DOUBLE_TYPE, symbolTable().get("java.lang.Double")));
       assertFalse("Should not be assignable.", 
-                  _btc._isAssignableFrom(symbolTable.get("java.lang.Double"), SymbolData.FLOAT_TYPE));
+                  _btc._isAssignableFrom(symbolTable().get("java.lang.Double"), SymbolData.FLOAT_TYPE));
       assertTrue("Should be assignable.", 
-                 _btc._isAssignableFrom(SymbolData.DOUBLE_TYPE, symbolTable.get("java.lang.Long")));
+                 _btc._isAssignableFrom(SymbolData.DOUBLE_TYPE, symbolTable().get("java.lang.Long")));
       assertFalse("Should not be assignable.", 
-                  _btc._isAssignableFrom(symbolTable.get("java.lang.Double"), SymbolData.INT_TYPE));
+                  _btc._isAssignableFrom(symbolTable().get("java.lang.Double"), SymbolData.INT_TYPE));
       assertTrue("Should be assignable.", 
-                 _btc._isAssignableFrom(SymbolData.DOUBLE_TYPE, symbolTable.get("java.lang.Short")));
-      assertFalse("Should not be assignable.", _btc._isAssignableFrom(symbolTable.get("java.lang.Double"), symbolTable.get("java.lang.Character")));
+                 _btc._isAssignableFrom(SymbolData.DOUBLE_TYPE, symbolTable().get("java.lang.Short")));
+      assertFalse("Should not be assignable.", _btc._isAssignableFrom(symbolTable().get("java.lang.Double"), symbolTable().get("java.lang.Character")));
       assertTrue("Should be assignable.", _btc._isAssignableFrom(SymbolData.DOUBLE_TYPE, SymbolData.BYTE_TYPE));
-      assertTrue("Should be assignable.", _btc._isAssignableFrom(symbolTable.get("java.lang.Integer"), symbolTable.get("java.lang.Integer")));
-      assertFalse("Should not be assignable.", _btc._isAssignableFrom(symbolTable.get("java.lang.Integer"), symbolTable.get("java.lang.Character")));
-      assertTrue("Should be assignable.", _btc._isAssignableFrom(symbolTable.get("java.lang.Character"), SymbolData.CHAR_TYPE));
-      assertFalse("Should not be assignable.", _btc._isAssignableFrom(symbolTable.get("java.lang.Boolean"), SymbolData.INT_TYPE));
+      assertTrue("Should be assignable.", _btc._isAssignableFrom(symbolTable().get("java.lang.Integer"), symbolTable().get("java.lang.Integer")));
+      assertFalse("Should not be assignable.", _btc._isAssignableFrom(symbolTable().get("java.lang.Integer"), symbolTable().get("java.lang.Character")));
+      assertTrue("Should be assignable.", _btc._isAssignableFrom(symbolTable().get("java.lang.Character"), SymbolData.CHAR_TYPE));
+      assertFalse("Should not be assignable.", _btc._isAssignableFrom(symbolTable().get("java.lang.Boolean"), SymbolData.INT_TYPE));
       
-      assertTrue("Should be assignable", _btc._isAssignableFrom(symbolTable.get("java.lang.Object"), SymbolData.INT_TYPE));
+      assertTrue("Should be assignable", _btc._isAssignableFrom(symbolTable().get("java.lang.Object"), SymbolData.INT_TYPE));
       
       _sd2.setSuperClass(_sd1);
       assertTrue("Should be assignable.", _btc._isAssignableFrom(_sd1, _sd1));
       assertTrue("Should be assignable.", _btc._isAssignableFrom(_sd1, _sd2));
       
       //test 1.5/1.4 auto-boxing and unboxing
-      assertFalse("Should not be assignable.", _btc._isAssignableFrom(symbolTable.get("java.lang.Double"), SymbolData.INT_TYPE));
-      assertTrue("Should be assignable.", _btc._isAssignableFrom(SymbolData.DOUBLE_TYPE, symbolTable.get("java.lang.Short")));
-      assertFalse("Should not be assignable.", _btc._isAssignableFrom(symbolTable.get("java.lang.Double"), symbolTable.get("java.lang.Character")));
+      assertFalse("Should not be assignable.", _btc._isAssignableFrom(symbolTable().get("java.lang.Double"), SymbolData.INT_TYPE));
+      assertTrue("Should be assignable.", _btc._isAssignableFrom(SymbolData.DOUBLE_TYPE, symbolTable().get("java.lang.Short")));
+      assertFalse("Should not be assignable.", _btc._isAssignableFrom(symbolTable().get("java.lang.Double"), symbolTable().get("java.lang.Character")));
       assertTrue("Should be assignable.", _btc._isAssignableFrom(SymbolData.DOUBLE_TYPE, SymbolData.BYTE_TYPE));
-      assertTrue("Should be assignable.", _btc._isAssignableFrom(symbolTable.get("java.lang.Integer"), symbolTable.get("java.lang.Integer")));
-      assertFalse("Should not be assignable.", _btc._isAssignableFrom(symbolTable.get("java.lang.Integer"), symbolTable.get("java.lang.Character")));
-      assertTrue("Should be assignable.", _btc._isAssignableFrom(symbolTable.get("java.lang.Object"), SymbolData.INT_TYPE));
+      assertTrue("Should be assignable.", _btc._isAssignableFrom(symbolTable().get("java.lang.Integer"), symbolTable().get("java.lang.Integer")));
+      assertFalse("Should not be assignable.", _btc._isAssignableFrom(symbolTable().get("java.lang.Integer"), symbolTable().get("java.lang.Character")));
+      assertTrue("Should be assignable.", _btc._isAssignableFrom(symbolTable().get("java.lang.Object"), SymbolData.INT_TYPE));
       
       LanguageLevelVisitor llv = 
         new LanguageLevelVisitor(_btc._file, 
@@ -1882,45 +1884,45 @@ public class TypeChecker extends JExpressionIFDepthFirstVisitor<TypeData> implem
                                  new LinkedList<Command>());
       
 //      LanguageLevelConverter.symbolTable = llv.symbolTable = _btc.symbolTable;
-      LanguageLevelConverter._newSDs.clear();
+      LanguageLevelConverter.newSDs().clear();
       
       SourceInfo si = NONE;
       
       ArrayData intArray = new ArrayData(SymbolData.INT_TYPE, llv, si);
       assertTrue("Should be able to assign an array to Object", 
-                 _btc._isAssignableFrom(symbolTable.get("java.lang.Object"), intArray));
+                 _btc._isAssignableFrom(symbolTable().get("java.lang.Object"), intArray));
       
       ArrayData doubleArray = new ArrayData(SymbolData.DOUBLE_TYPE, llv, si);
       assertFalse("Should not be able to assign an int[] to a double[]", 
                   _btc._isAssignableFrom(doubleArray, intArray));
       
-      ArrayData integerArray = new ArrayData(symbolTable.get("java.lang.Integer"), llv, si);
+      ArrayData integerArray = new ArrayData(symbolTable().get("java.lang.Integer"), llv, si);
       assertFalse("Should not be able to assign an array of ints to an array of Integers", 
                   _btc._isAssignableFrom(integerArray, intArray));
       assertFalse("Should not be able to assign an array of Integers to an array of ints", 
                   _btc._isAssignableFrom(intArray, integerArray));
       
       assertTrue("Should be able to assign an array to an interface of java.io.Serializable", 
-                 _btc._isAssignableFrom(symbolTable.get("java.io.Serializable"), integerArray));
+                 _btc._isAssignableFrom(symbolTable().get("java.io.Serializable"), integerArray));
 
-      LanguageLevelConverter.OPT = new Options(JavaVersion.JAVA_8, EmptyIterable.<File>make());
+      LanguageLevelConverter.setOptions(new Options(JavaVersion.JAVA_8, EmptyIterable.<File>make()));
       assertFalse("Should not be assignable.", 
-                  _btc._isAssignableFrom(symbolTable.get("java.lang.Double"), SymbolData.INT_TYPE));
+                  _btc._isAssignableFrom(symbolTable().get("java.lang.Double"), SymbolData.INT_TYPE));
       assertFalse("Should not be assignable.", 
-                  _btc._isAssignableFrom(symbolTable.get("java.lang.Double"), symbolTable.get("java.lang.Character")));
+                  _btc._isAssignableFrom(symbolTable().get("java.lang.Double"), symbolTable().get("java.lang.Character")));
       assertTrue("Should be assignable.", _btc._isAssignableFrom(SymbolData.DOUBLE_TYPE, SymbolData.BYTE_TYPE));
       assertTrue("Should be assignable.", 
-                  _btc._isAssignableFrom(SymbolData.DOUBLE_TYPE, symbolTable.get("java.lang.Short")));
+                  _btc._isAssignableFrom(SymbolData.DOUBLE_TYPE, symbolTable().get("java.lang.Short")));
       assertTrue("Should be assignable.", 
-                 _btc._isAssignableFrom(symbolTable.get("java.lang.Integer"), symbolTable.get("java.lang.Integer")));
+                 _btc._isAssignableFrom(symbolTable().get("java.lang.Integer"), symbolTable().get("java.lang.Integer")));
       assertFalse("Should not be assignable.", 
-                  _btc._isAssignableFrom(symbolTable.get("java.lang.Integer"), symbolTable.get("java.lang.Character")));
+                  _btc._isAssignableFrom(symbolTable().get("java.lang.Integer"), symbolTable().get("java.lang.Character")));
       assertTrue("Should not assignable.", 
-                  _btc._isAssignableFrom(SymbolData.INT_TYPE, symbolTable.get("java.lang.Character")));
+                  _btc._isAssignableFrom(SymbolData.INT_TYPE, symbolTable().get("java.lang.Character")));
       assertTrue("Should be assignable.", 
-                  _btc._isAssignableFrom(symbolTable.get("java.lang.Object"), SymbolData.INT_TYPE));
+                  _btc._isAssignableFrom(symbolTable().get("java.lang.Object"), SymbolData.INT_TYPE));
       assertTrue("Should be able to assign an array to Object", 
-                 _btc._isAssignableFrom(symbolTable.get("java.lang.Object"), intArray));
+                 _btc._isAssignableFrom(symbolTable().get("java.lang.Object"), intArray));
 
       
       //check that classes are know to be subclasses of their interfaces.
@@ -1965,7 +1967,7 @@ public class TypeChecker extends JExpressionIFDepthFirstVisitor<TypeData> implem
       _sd1.setSuperClass(_sd2);
       _sd2.addInterface(_sd3);
       _sd2.setSuperClass(new SymbolData("java.lang.String"));
-      _sd3.addInterface(symbolTable.get("java.lang.Object"));
+      _sd3.addInterface(symbolTable().get("java.lang.Object"));
       _sd1.addInnerClass(_sd4);
       
       //no cyclic inheritance
@@ -1996,7 +1998,7 @@ public class TypeChecker extends JExpressionIFDepthFirstVisitor<TypeData> implem
       _sd3.setInterfaces(temp);
       _sd2.setSuperClass(_sd6);
       _sd6.setSuperClass(_sd4);
-      _sd4.setSuperClass(symbolTable.get("java.lang.Object"));
+      _sd4.setSuperClass(symbolTable().get("java.lang.Object"));
       assertTrue("Should be cyclic inheritance", _btc.checkForCyclicInheritance(_sd1, new LinkedList<SymbolData>(), nl));
       assertEquals("Should now be 2 errors", 2, errors.size());
       assertEquals("The error message should be correct", "Cyclic inheritance involving " + _sd4.getName(), 
@@ -2013,7 +2015,7 @@ public class TypeChecker extends JExpressionIFDepthFirstVisitor<TypeData> implem
 
      //Test that no cyclic inheritance goes okay
       SymbolData Lisa = new SymbolData("Lisa");
-      Lisa.setSuperClass(symbolTable.get("java.lang.Object"));
+      Lisa.setSuperClass(symbolTable().get("java.lang.Object"));
       
       Lisa.setIsContinuation(false);
       Lisa.setMav(_publicMav);
@@ -2038,7 +2040,7 @@ public class TypeChecker extends JExpressionIFDepthFirstVisitor<TypeData> implem
                      new BracedBody(NONE, new BodyItemI[0]));
       SymbolData parent = new SymbolData("Parent");
       parent.setMav(_finalMav);
-      parent.setSuperClass(symbolTable.get("java.lang.Object"));
+      parent.setSuperClass(symbolTable().get("java.lang.Object"));
       _btc.symbolTable.put("Parent", parent);
       
       SymbolData me = new SymbolData("Me");
@@ -2122,7 +2124,7 @@ public class TypeChecker extends JExpressionIFDepthFirstVisitor<TypeData> implem
       VariableData vData = new VariableData("i", _finalMav, SymbolData.INT_TYPE, false, sd);
       sd.setIsContinuation(false);
       sd.addVar(vData);
-      SymbolData sd2 = symbolTable.get("java.lang.Object");
+      SymbolData sd2 = symbolTable().get("java.lang.Object");
 //      sd2.setIsContinuation(false);
 //      sd2.setMav(_publicMav);
 //      sd2.setPackage("java.lang");
@@ -2132,7 +2134,7 @@ public class TypeChecker extends JExpressionIFDepthFirstVisitor<TypeData> implem
       sd2.addMethod(objMd);
       
       sd.setSuperClass(sd2);
-      symbolTable.put("Jimes", sd);
+      symbolTable().put("Jimes", sd);
       MethodData md = new MethodData("Jimes", _publicMav, new TypeParameter[0], sd, new VariableData[0], new String[0], 
                                      sd, cd);
       sd.addMethod(md);
@@ -2163,16 +2165,16 @@ public class TypeChecker extends JExpressionIFDepthFirstVisitor<TypeData> implem
       sd = new SymbolData("JimesH");
       sd.setIsContinuation(false);
       
-      symbolTable.clear();
+      symbolTable().clear();
       SymbolData runnableSd = new SymbolData("java.lang.Runnable");
       runnableSd.setMav(_publicMav);
       runnableSd.setIsContinuation(false);
       runnableSd.setPackage("java.lang");
       runnableSd.setInterface(true);
       sd.addInterface(runnableSd);
-      symbolTable.put("JimesH", sd);
-      symbolTable.remove("java.lang.Runnable");
-      symbolTable.put("java.lang.Runnable", runnableSd);
+      symbolTable().put("JimesH", sd);
+      symbolTable().remove("java.lang.Runnable");
+      symbolTable().put("java.lang.Runnable", runnableSd);
 
       cd6.visit(_btc);
       assertEquals("There should be 6 errors now", 6, errors.size());
@@ -2189,15 +2191,15 @@ public class TypeChecker extends JExpressionIFDepthFirstVisitor<TypeData> implem
       sd = new SymbolData("Hspia");
       sd.setIsContinuation(false);
       
-      symbolTable.clear();
+      symbolTable().clear();
       SymbolData stringSd = new SymbolData("java.lang.String");
       stringSd.setMav(_publicMav);
       stringSd.setIsContinuation(false);
       stringSd.setPackage("java.lang");
       stringSd.setInterface(false);
       sd.addInterface(stringSd);
-      symbolTable.put("Hspia", sd);
-      symbolTable.put("java.lang.String", stringSd);
+      symbolTable().put("Hspia", sd);
+      symbolTable().put("java.lang.String", stringSd);
 
       cd7.visit(_btc);
       assertEquals("There should be 7 errors now", 7, errors.size());
@@ -2214,7 +2216,7 @@ public class TypeChecker extends JExpressionIFDepthFirstVisitor<TypeData> implem
       superSD.setInterface(true);
       sd.setSuperClass(superSD);
       sd.setInterfaces(new ArrayList<SymbolData>());
-      symbolTable.put("superSD", superSD);
+      symbolTable().put("superSD", superSD);
       cd7.visit(_btc);
       assertEquals("There should be 8 errors now", 8, errors.size());
       assertEquals("The error message should be correct", 
@@ -2237,8 +2239,8 @@ public class TypeChecker extends JExpressionIFDepthFirstVisitor<TypeData> implem
       //Test that if a class that is not public extends test case, an error is thrown.
       //Also check that if a test class doesn't have any test methods, an error is thrown.
       sd.setMav(_privateMav);
-      symbolTable.remove("Hspia");
-      symbolTable.put("Hspia", sd);
+      symbolTable().remove("Hspia");
+      symbolTable().put("Hspia", sd);
       
       SymbolData testCase = defineTestCaseClass();
       sd.setSuperClass(testCase);
@@ -2258,8 +2260,8 @@ public class TypeChecker extends JExpressionIFDepthFirstVisitor<TypeData> implem
       //Also check that if a test class doesn't have any test methods, an error is thrown.
       _btc._file = new File("Hspia.dj0");
       sd.setMav(_publicMav);
-      symbolTable.remove("Hspia");
-      symbolTable.put("Hspia", sd);
+      symbolTable().remove("Hspia");
+      symbolTable().put("Hspia", sd);
       
 //      SymbolData testCase = defineTestCase();
 //      symbolTable.put("junit.framework.TestCase", testCase);
@@ -2409,7 +2411,7 @@ public class TypeChecker extends JExpressionIFDepthFirstVisitor<TypeData> implem
       sd.setPackage("alpha");
       sd.setIsContinuation(false);
       sd.setMav(_publicMav);
-      symbolTable.put("alpha.beta", sd);
+      symbolTable().put("alpha.beta", sd);
       
       cis.visit(_btc);
       assertEquals("There should be no errors", 0, errors.size());
@@ -2461,7 +2463,7 @@ public class TypeChecker extends JExpressionIFDepthFirstVisitor<TypeData> implem
       BodyItemI[] bii = new BodyItemI[] {new ExpressionStatement(NONE, e)};
       BracedBody b = new BracedBody(NONE, bii);
       
-      VariableData vd1 = new VariableData("i", _publicMav, symbolTable.get("java.lang.Integer"), true, _sd1);
+      VariableData vd1 = new VariableData("i", _publicMav, symbolTable().get("java.lang.Integer"), true, _sd1);
       VariableData vd2 = new VariableData("i", _publicMav, SymbolData.INT_TYPE, true, null);
       _sd1.addVar(vd1);
       MethodData md = 
@@ -2480,7 +2482,7 @@ public class TypeChecker extends JExpressionIFDepthFirstVisitor<TypeData> implem
       b = new BracedBody(NONE, bii);
       
       
-      vd1 = new VariableData("i", _publicMav, symbolTable.get("java.lang.Double"), true, null);
+      vd1 = new VariableData("i", _publicMav, symbolTable().get("java.lang.Double"), true, null);
       vd2 = new VariableData("i", _publicMav, SymbolData.DOUBLE_TYPE, true, _sd1);
       // change method definition embedded in _sd1
       _sd1.setVars(new LinkedList<VariableData>());
@@ -2517,7 +2519,7 @@ public class TypeChecker extends JExpressionIFDepthFirstVisitor<TypeData> implem
       
       //Test that autoboxing works for a constructor invocation
       _sd1.setIsContinuation(false);
-      symbolTable.put("i.like.monkey", _sd1);
+      symbolTable().put("i.like.monkey", _sd1);
       _sd1.setPackage("i.like");
       Expression[] expr1 = new Expression[] {new SimpleNameReference(NONE, new Word(NONE, "i"))};
       e = new SimpleNamedClassInstantiation(NONE,
@@ -2529,7 +2531,7 @@ public class TypeChecker extends JExpressionIFDepthFirstVisitor<TypeData> implem
       
       _sd1.setVars(new LinkedList<VariableData>());
       
-      vd1 = new VariableData("i", _publicMav, symbolTable.get("java.lang.Integer"), true, _sd1);
+      vd1 = new VariableData("i", _publicMav, symbolTable().get("java.lang.Integer"), true, _sd1);
       vd2 = new VariableData("j", _publicMav, SymbolData.INT_TYPE, true, null);
 
       _sd1.addVar(vd1);
@@ -2559,9 +2561,9 @@ public class TypeChecker extends JExpressionIFDepthFirstVisitor<TypeData> implem
       assertEquals("There should be no errors", 0, errors.size());
       
       //Test that an error is thrown when there is an ambiguous method.
-      VariableData vd1Obj = new VariableData("i", _publicMav, symbolTable.get("java.lang.Integer"), true, null);
+      VariableData vd1Obj = new VariableData("i", _publicMav, symbolTable().get("java.lang.Integer"), true, null);
       VariableData vd1Prim = new VariableData("i", _publicMav, SymbolData.INT_TYPE, true, null);
-      VariableData vd2Obj = new VariableData("j", _publicMav, symbolTable.get("java.lang.Short"), true, null);
+      VariableData vd2Obj = new VariableData("j", _publicMav, symbolTable().get("java.lang.Short"), true, null);
       VariableData vd2Prim = new VariableData("j", _publicMav, SymbolData.SHORT_TYPE, true, null);
       MethodData md1 = 
         new MethodData("myMethod2", _publicMav, new TypeParameter[0], SymbolData.BOOLEAN_TYPE, 
@@ -34,6 +34,8 @@ import java.io.*;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -44,14 +46,15 @@ import javax.tools.JavaFileObject;
 import javax.tools.JavaCompiler;
 import javax.tools.Diagnostic;
 import javax.tools.DiagnosticCollector;
+import javax.tools.DiagnosticListener;
 import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
 import javax.tools.ToolProvider;
 
 // DJError class is not in the same package as this
 import edu.rice.cs.drjava.model.DJError;
 
 import edu.rice.cs.plt.reflect.JavaVersion;
-import edu.rice.cs.plt.io.IOUtil;
 
 import static edu.rice.cs.plt.debug.DebugUtil.debug;
 import static edu.rice.cs.plt.debug.DebugUtil.error;
@@ -60,10 +63,28 @@ import static edu.rice.cs.plt.debug.DebugUtil.error;
   * using javac 7 or 8.
   * **TODO** Rename this class as Javac8Compiler.java; all Java version older than 8 are deprecated and unsupported.  
   * Java 9+ in incompatible at the JDK level.  Eliminate code that refers to Java versions older than 8.
+  * <p>The javac tool and its file manager are kept warm between compilations and only rebuilt when the class path, 
+  * source path, or boot class path (or one of the archives on them) changes.</p>
   * @version $Id$
   */
 public class Javac170Compiler extends JavacCompiler { // Javac170FilteringCompiler {
   
+  /** Guards the warm compiler state below; javac's file manager is not thread safe. */
+  private final Object _warmLock = new Object();
+  
+  /** The javac tool, created on first use and kept for the lifetime of this compiler. */
+  private JavaCompiler _compiler = null;
+  
+  /** The file manager shared by successive compilations, so that javac does not have to reopen and re-index the JDK
+    * and class path archives each time.  Replaced whenever the paths change; see {@link #_getFileManager}. */
+  private StandardJavaFileManager _fileManager = null;
+  
+  /** The paths _fileManager was set up with. */
+  private List<Object> _fileManagerKey = null;
+  
+  /** The diagnostics of the compilation in progress, if any; receives the file manager's diagnostics. */
+  private volatile DiagnosticCollector<JavaFileObject> _diagnostics = null;
+  
   public Javac170Compiler(JavaVersion.FullVersion version, String location, List<? extends File> defaultBootClassPath) {
     super(version, location, defaultBootClassPath);
   }
@@ -116,41 +137,44 @@ public class Javac170Compiler extends JavacCompiler { // Javac170FilteringCompil
       "sourceVersion", "showWarnings" },
                     this, files, classPath, sourcePath, destination, bootClassPath, sourceVersion, showWarnings);
 
-    Iterable<String> options = _createOptions(classPath, sourcePath, destination, bootClassPath, sourceVersion, showWarnings);
+    Iterable<String> options = _createOptions(destination, sourceVersion, showWarnings);
     LinkedList<DJError> errors = new LinkedList<DJError>();
-
-    // This is the class that javax.tools.ToolProvider.getSystemJavaCompiler() uses.
-    // We create an instance of that class directly, bypassing ToolProvider, because ToolProvider returns null
-    // if DrJava is started with just the JRE, instead of with the JDK, even if tools.jar is later made available
-    // to the class loader.
-    JavaCompiler compiler = null;
-    try {
-      compiler = (JavaCompiler)(Class.forName("com.sun.tools.javac.api.JavacTool").newInstance());
-    }
-    catch(ClassNotFoundException e) {
-      errors.addFirst(new DJError("Compile exception: " + e, false));
-      error.log(e);
-      return errors;
-    }
-    catch(InstantiationException e) {
-      errors.addFirst(new DJError("Compile exception: " + e, false));
-      error.log(e);
-      return errors;
-    }
-    catch(IllegalAccessException e) {
-      errors.addFirst(new DJError("Compile exception: " + e, false));
-      error.log(e);
-      return errors;
-    }
-    
-    /** Default FileManager provided by Context class */
-    DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<JavaFileObject>();
-    StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null, null);    
-    Iterable<? extends JavaFileObject> fileObjects = fileManager.getJavaFileObjectsFromFiles(files);
     
-    try {
-//      System.err.println("Calling '" + compiler + "' with options " + options);
-      compiler.getTask(null, fileManager, diagnostics, options, null, fileObjects).call();
+    synchronized(_warmLock) {
+      DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<JavaFileObject>();
+      try {
+        StandardJavaFileManager fileManager = _getFileManager(classPath, sourcePath, bootClassPath);
+        fileManager.setLocation(StandardLocation.CLASS_OUTPUT, 
+                                (destination == null) ? null : Arrays.asList(destination));
+        Iterable<? extends JavaFileObject> fileObjects = fileManager.getJavaFileObjectsFromFiles(files);
+        
+//      System.err.println("Calling '" + _compiler + "' with options " + options);
+        _diagnostics = diagnostics;
+        try { _compiler.getTask(null, fileManager, diagnostics, options, null, fileObjects).call(); }
+        finally { _diagnostics = null; }
+        fileManager.flush();
+      }
+      catch(ClassNotFoundException e) {
+        errors.addFirst(new DJError("Compile exception: " + e, false));
+        error.log(e);
+        return errors;
+      }
+      catch(InstantiationException e) {
+        errors.addFirst(new DJError("Compile exception: " + e, false));
+        error.log(e);
+        return errors;
+      }
+      catch(IllegalAccessException e) {
+        errors.addFirst(new DJError("Compile exception: " + e, false));
+        error.log(e);
+        return errors;
+      }
+      catch(Throwable t) {  // compiler threw an exception/error (typically out of memory error)
+        errors.addFirst(new DJError("Compile exception: " + t, false));
+        error.log(t);
+        _discardFileManager();  // its caches may be inconsistent now
+      }
+      
       for (Diagnostic<? extends JavaFileObject> d: diagnostics.getDiagnostics()) {
         Diagnostic.Kind dt = d.getKind();
         boolean isWarning = false;  // init required by javac
@@ -178,21 +202,77 @@ public class Javac170Compiler extends JavacCompiler { // Javac170FilteringCompil
           errors.add(new DJError(d.getMessage(null), isWarning));
         }
       }
-      fileManager.close();
-    }
-    catch(Throwable t) {  // compiler threw an exception/error (typically out of memory error)
-      errors.addFirst(new DJError("Compile exception: " + t, false));
-      error.log(t);
     }
     
     debug.logEnd("compile()");
     return errors;
   }
   
-  private Iterable<String> _createOptions(List<? extends File> classPath, List<? extends File> sourcePath, File destination, 
-                                          List<? extends File> bootClassPath, String sourceVersion, boolean showWarnings) {    
+  /** Returns the warm file manager, creating it if there is none yet or if the paths have changed since it was set 
+    * up.  The paths are part of the file manager rather than of each compilation task so that javac's indexes of 
+    * the JDK and class path archives survive from one compilation to the next.
+    * @param classPath the class path, or null for the default
+    * @param sourcePath the source path, or null for the default
+    * @param bootClassPath the boot class path, or null for the default
+    * @return a file manager configured with the given paths
+    */
+  private StandardJavaFileManager _getFileManager(List<? extends File> classPath, List<? extends File> sourcePath,
+                                                  List<? extends File> bootClassPath) 
+    throws ClassNotFoundException, InstantiationException, IllegalAccessException, IOException {
     if (bootClassPath == null) { bootClassPath = _defaultBootClassPath; }
-
+    List<Object> key = Arrays.<Object>asList(_pathKey(classPath), _pathKey(sourcePath), _pathKey(bootClassPath));
+    if (_fileManager != null && key.equals(_fileManagerKey)) { return _fileManager; }
+    
+    _discardFileManager();
+    // This is the class that javax.tools.ToolProvider.getSystemJavaCompiler() uses.
+    // We create an instance of that class directly, bypassing ToolProvider, because ToolProvider returns null
+    // if DrJava is started with just the JRE, instead of with the JDK, even if tools.jar is later made available
+    // to the class loader.
+    if (_compiler == null) { _compiler = (JavaCompiler)(Class.forName("com.sun.tools.javac.api.JavacTool").newInstance()); }
+    
+    /** Default FileManager provided by Context class; reports to the diagnostics of the running compilation */
+    StandardJavaFileManager fileManager = _compiler.getStandardFileManager(new DiagnosticListener<JavaFileObject>() {
+      public void report(Diagnostic<? extends JavaFileObject> d) {
+        DiagnosticCollector<JavaFileObject> diagnostics = _diagnostics;
+        if (diagnostics != null) { diagnostics.report(d); }
+      }
+    }, null, null);
+    if (classPath != null) { fileManager.setLocation(StandardLocation.CLASS_PATH, classPath); }
+    if (sourcePath != null) { fileManager.setLocation(StandardLocation.SOURCE_PATH, sourcePath); }
+    if (bootClassPath != null) { fileManager.setLocation(StandardLocation.PLATFORM_CLASS_PATH, bootClassPath); }
+    _fileManager = fileManager;
+    _fileManagerKey = key;
+    return fileManager;
+  }
+  
+  /** Closes the warm file manager, if any, releasing the archives it holds open. */
+  private void _discardFileManager() {
+    if (_fileManager != null) {
+      try { _fileManager.close(); }
+      catch (IOException e) { error.log(e); }
+    }
+    _fileManager = null;
+    _fileManagerKey = null;
+  }
+  
+  /** Describes a path for the purpose of detecting changes.  Archives are described by their size and time stamp
+    * as well, since javac caches their directories.
+    * @param path the path to describe, possibly null
+    * @return a description of the path that changes whenever the path or one of its archives changes
+    */
+  private static List<String> _pathKey(List<? extends File> path) {
+    if (path == null) { return null; }
+    List<String> key = new ArrayList<String>();
+    for (File f : path) {
+      key.add(f.isFile() ? f.getPath() + ":" + f.length() + ":" + f.lastModified() : f.getPath());
+    }
+    return key;
+  }
+  
+  /** Creates the per-compilation options.  The class path, source path, and boot class path are set on the file
+    * manager instead (see {@link #_getFileManager}), and the destination is set as its class output location.
+    */
+  private Iterable<String> _createOptions(File destination, String sourceVersion, boolean showWarnings) {    
     LinkedList<String> options = new LinkedList<String>();
     for (Map.Entry<String, String> e : CompilerOptions.getOptions(showWarnings).entrySet()) {
       options.add(e.getKey());
@@ -200,10 +280,6 @@ public class Javac170Compiler extends JavacCompiler { // Javac170FilteringCompil
     }
     options.add("-g");
 
-    if (classPath != null) { options.add("-classpath"); options.add(IOUtil.pathToString(classPath)); }
-    if (sourcePath != null) { options.add("-sourcepath"); options.add(IOUtil.pathToString(sourcePath)); }
-    if (destination != null) { options.add("-d"); options.add(destination.getPath()); }
-    if (bootClassPath != null) { options.add("-bootclasspath"); options.add(IOUtil.pathToString(bootClassPath)); }
     if (sourceVersion != null) { options.add("-source"); options.add(sourceVersion); }
     if (!showWarnings) { options.add("-nowarn"); }
     
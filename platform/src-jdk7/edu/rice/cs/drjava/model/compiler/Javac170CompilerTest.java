@@ -1,8 +1,11 @@
 package edu.rice.cs.drjava.model.compiler;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.LinkedList;
 import java.io.File;
+import java.io.IOException;
+import edu.rice.cs.plt.io.IOUtil;
 import edu.rice.cs.plt.reflect.JavaVersion;
 
 // DJError class is not in the same package as this
@@ -18,6 +21,37 @@ public class Javac170CompilerTest extends TestCase {
     assertTrue(doCompile(c, "testFiles/IterableTest.java").isEmpty());
   }
   
+  /** Successive compilations share a file manager; make sure errors and path changes are still picked up. */
+  public void testWarmRecompile() throws IOException {
+    Javac170Compiler c = new Javac170Compiler(JavaVersion.CURRENT_FULL, "", null);
+    File dir = IOUtil.createAndMarkTempDirectory("javac170", "");
+    try {
+      File out = new File(dir, "out");
+      assertTrue(out.mkdir());
+      File a = new File(dir, "A.java");
+      IOUtil.writeStringToFile(a, "public class A { public static int f() { return 1; } }");
+      for (int i = 0; i < 2; i++) {
+        assertTrue(c.compile(fileList(a.getPath()), null, null, out, null, null, true).isEmpty());
+        assertTrue(new File(out, "A.class").isFile());
+      }
+      
+      File b = new File(dir, "B.java");
+      IOUtil.writeStringToFile(b, "public class B { int g() { return A.f() + h(); } }");
+      List<? extends DJError> errors = c.compile(fileList(b.getPath()), Arrays.asList(out), null, dir, null, null, true);
+      assertEquals(1, errors.size());
+      assertEquals(b.getCanonicalFile(), errors.get(0).file().getCanonicalFile());
+      assertEquals(0, errors.get(0).lineNumber());
+      
+      IOUtil.writeStringToFile(b, "public class B { int g() { return A.f(); } }");
+      assertTrue(c.compile(fileList(b.getPath()), Arrays.asList(out), null, dir, null, null, true).isEmpty());
+      assertTrue(new File(dir, "B.class").isFile());
+      
+      errors = c.compile(fileList(b.getPath()), Arrays.asList(new File(dir, "empty")), null, dir, null, null, true);
+      assertEquals("A is no longer on the class path", 1, errors.size());
+    }
+    finally { IOUtil.deleteRecursively(dir); }
+  }
+  
   private static List<? extends DJError> doCompile(CompilerInterface c, String... files) {
     return c.compile(fileList(files), null, null, null, null, null, true);
   }
@@ -40,7 +40,9 @@ import java.net.MalformedURLException;
 import java.io.File;
 import java.io.InputStream;
 import java.io.IOException;
+import java.util.Collections;
 import java.util.Enumeration;
+import java.util.Iterator;
 import java.util.List;
 import java.util.LinkedList;
 
@@ -61,10 +63,13 @@ import static edu.rice.cs.plt.debug.DebugUtil.debug;
   * later transitively resolves the referenced classes, they may no longer exist, or may be
   * shadowed.  This is not a unique problem, however -- the standard system class loader is
   * based on an underlying file system that may also change in arbitrary ways at any time.
+  * <p>An <em>indexed</em> loader reads the entry names of the jar files in its path once and
+  * answers lookups from that index, reading class files directly from the indexed jar files;
+  * see {@link PathResourceIndex}.  This is much faster for long paths of jar files.</p>
   */
 public class PathClassLoader extends AbstractClassLoader {
   
-  private static final Log _log = new Log("PathClassLoader.txt", true);
+  private static final Log _log = new Log("PathClassLoader.txt", false);
   
   /** Locate a resource in the given path.  Returns {@code null} if the resource is not found.
     * If multiple queries will be performed on the same path, a PathClassLoader instance
@@ -99,8 +104,13 @@ public class PathClassLoader extends AbstractClassLoader {
   }
 
   private final Iterable<? extends File> _path;
+  /** Whether _path cannot change, so that it need not be compared to the path of the loader on each lookup. */
+  private final boolean _staticPath;
+  private final boolean _indexed;
   private URLClassLoader _urlLoader;
   private Iterable<File> _urlLoaderPath;
+  /** The index used by an indexed loader; created on the first lookup, and again when the path changes. */
+  private PathResourceIndex _index;
 
   /** Create a path class loader with the default parent ({@link ClassLoader#getSystemClassLoader})
     * and the specified path.
@@ -114,6 +124,8 @@ public class PathClassLoader extends AbstractClassLoader {
   public PathClassLoader(Iterable<? extends File> path) {
     super();
     _path = path;
+    _staticPath = IterUtil.isStatic(path);
+    _indexed = false;
     updateURLLoader();
   }
   
@@ -121,13 +133,42 @@ public class PathClassLoader extends AbstractClassLoader {
   public PathClassLoader(ClassLoader parent, File... path) { this(parent, IterUtil.asIterable(path)); }
   
   /** Create a path class loader with the given parent and path */
-  public PathClassLoader(ClassLoader parent, Iterable<? extends File> path) {
+  public PathClassLoader(ClassLoader parent, Iterable<? extends File> path) { this(parent, path, false); }
+  
+  /** Create a path class loader with the given parent and path.
+    * @param indexed whether lookups are answered from an index of the path, rather than by a URLClassLoader
+    */
+  public PathClassLoader(ClassLoader parent, Iterable<? extends File> path, boolean indexed) {
     super(parent);
     _path = path;
-    updateURLLoader();
-    _log.log("Constructing PathClassLoader with parent " + parent + " and path '" + path + "'");
+    _staticPath = IterUtil.isStatic(path);
+    _indexed = indexed;
+    if (! indexed) { updateURLLoader(); }
+    if (_log.isEnabled()) {
+      _log.log("Constructing PathClassLoader with parent " + parent + " and path '" + path + "'");
+    }
   }
 
+  /** @return the URL loader of the current path, rebuilt if the path has changed */
+  private synchronized URLClassLoader urlLoader() {
+    if (! _staticPath && ! samePath(_path, _urlLoaderPath)) { updateURLLoader(); }
+    return _urlLoader;
+  }
+  
+  /** Like IterUtil.isEqual, but compares identical files without comparing their names, which is much faster
+    * for long paths that have not changed.
+    */
+  private static boolean samePath(Iterable<? extends File> path, Iterable<File> snapshot) {
+    Iterator<? extends File> i1 = path.iterator();
+    Iterator<File> i2 = snapshot.iterator();
+    while (i1.hasNext() && i2.hasNext()) {
+      File f1 = i1.next();
+      File f2 = i2.next();
+      if (f1 != f2 && ! f1.equals(f2)) { return false; }
+    }
+    return ! i1.hasNext() && ! i2.hasNext();
+  }
+  
   private void updateURLLoader() {
     _urlLoaderPath = IterUtil.snapshot(_path);
     List<URL> urls = new LinkedList<URL>();
@@ -149,9 +190,26 @@ public class PathClassLoader extends AbstractClassLoader {
 //    return super.loadClass(name, resolve);
 //  }
   
+  /** @return the index of the current path, rebuilt if the path has changed.  Only used by indexed loaders. */
+  private synchronized PathResourceIndex index() {
+    if (_index == null || (! _staticPath && ! samePath(_path, _index.path()))) {
+      _index = new PathResourceIndex(_path);
+    }
+    return _index;
+  }
+  
   @Override 
   protected Class<?> findClass(String name) throws ClassNotFoundException {
-    _log.log("PathClassLoader.findClass(" + name + ") called");
+    if (_log.isEnabled()) { _log.log("PathClassLoader.findClass(" + name + ") called"); }
+    if (_indexed) {
+      byte[] bytes;
+      try { bytes = index().readResource(name.replace('.', '/') + ".class"); }
+      catch (IOException e) { throw new ClassNotFoundException("Can't access class file", e); }
+      if (bytes == null) { throw new ClassNotFoundException(); }
+      Class<?> result = defineClass(name, bytes, 0, bytes.length);
+      definePackageForClass(name);
+      return result;
+    }
     URL resource = findResource(name.replace('.', '/') + ".class");
     if (resource == null) { throw new ClassNotFoundException(); }
     else {
@@ -171,15 +229,15 @@ public class PathClassLoader extends AbstractClassLoader {
   
   @Override 
   protected URL findResource(String name) {
-    _log.log("findResource(" + name + ") called; _path is " + _path);
-    if (!IterUtil.isEqual(_path, _urlLoaderPath)) { updateURLLoader(); }
-    return _urlLoader.findResource(name);
+    if (_log.isEnabled()) { _log.log("findResource(" + name + ") called; _path is " + _path); }
+    if (_indexed) { return index().findResource(name); }
+    return urlLoader().findResource(name);
   }
   
   @Override 
   protected Enumeration<URL> findResources(String name) throws IOException {
-    _log.log("findResources(" + name + ") called _path is " + _path);
-    if (!IterUtil.isEqual(_path, _urlLoaderPath)) { updateURLLoader(); }
-    return _urlLoader.findResources(name);
+    if (_log.isEnabled()) { _log.log("findResources(" + name + ") called _path is " + _path); }
+    if (_indexed) { return Collections.enumeration(index().findResources(name)); }
+    return urlLoader().findResources(name);
   }
 }
@@ -35,6 +35,19 @@ OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 package edu.rice.cs.plt.reflect;
 
 import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+
+import edu.rice.cs.plt.debug.Stopwatch;
+import edu.rice.cs.plt.io.IOUtil;
+import edu.rice.cs.plt.iter.IterUtil;
 
 public class PathClassLoaderTest extends ClassLoaderTestCase {
   
@@ -121,6 +134,160 @@ public class PathClassLoaderTest extends ClassLoaderTestCase {
     assertCannotGet(lC, "D");
   }
   
+  public void testIndexedLoadsPath() throws Exception {
+    PathClassLoader l = 
+      new PathClassLoader(BASE_LOADER, IterUtil.make(D_DIR, INTBOX_DIR, B_DIR, C_DIR, A_DIR), true);
+    assertLoadsClassAsLoader(l, "pkg.IntBox");
+    assertLoadsClassAsLoader(l, "pkg.A");
+    assertLoadsClassAsLoader(l, "bpkg.B");
+    assertLoadsClassAsLoader(l, "pkg.C");
+    assertLoadsClassAsLoader(l, "D");
+    assertLoadsSameClass(BASE_LOADER, l, "edu.rice.cs.plt.reflect.PathClassLoaderTest");
+    assertDoesNotLoadClass(l, "pkg.Missing");
+    assertCanGet(l, "pkg.A", 1);
+    assertCanGet(l, "D", 4);
+  }
+  
+  public void testIndexedJars() throws Exception {
+    File dir = IOUtil.createAndMarkTempDirectory("plt-test", "");
+    try {
+      File intboxJar = _makeJar(new File(dir, "intbox.jar"), INTBOX_DIR, "pkg/IntBox.class");
+      File aJar = _makeJar(new File(dir, "a.jar"), A_DIR, "pkg/A.class");
+      File dJar = _makeJar(new File(dir, "d.jar"), D_DIR, "D.class");
+      PathClassLoader l = new PathClassLoader(BASE_LOADER, IterUtil.make(intboxJar, D_DIR, aJar, dJar), true);
+      assertLoadsClassAsLoader(l, "pkg.IntBox");
+      assertCanGet(l, "pkg.A", 1);
+      assertLoadsClassAsLoader(l, "D");
+      assertDoesNotLoadClass(l, "pkg.C");
+      assertNull(l.getResource("pkg/C.class"));
+      
+      // the directory shadows the later jar file
+      assertEquals(new File(D_DIR, "D.class").toURI().toURL(), l.getResource("D.class"));
+      assertEquals(new URL("jar:" + aJar.toURI().toURL() + "!/pkg/A.class"), l.getResource("pkg/A.class"));
+      assertEquals(Arrays.asList(new File(D_DIR, "D.class").toURI().toURL(), 
+                                 new URL("jar:" + dJar.toURI().toURL() + "!/D.class")),
+                   Collections.list(l.getResources("D.class")));
+      assertTrue(Arrays.equals(IOUtil.toByteArray(new File(A_DIR, "pkg/A.class")),
+                               IOUtil.toByteArray(l.getResourceAsStream("pkg/A.class"))));
+      
+      // a changed jar file is read again
+      assertNull(l.getResource("pkg/B.class"));
+      _makeJar(aJar, B_DIR, "bpkg/B.class");
+      assertTrue(aJar.setLastModified(aJar.lastModified() + 2000));
+      Thread.sleep(PathResourceIndex.CHECK_INTERVAL + 100);
+      assertNotNull(l.getResource("bpkg/B.class"));
+      assertNull(l.getResource("pkg/A.class"));
+    }
+    finally { IOUtil.deleteRecursively(dir); }
+  }
+  
+  public void testIndexedDynamicPath() throws Exception {
+    List<File> path = new ArrayList<File>();
+    path.add(INTBOX_DIR);
+    PathClassLoader l = new PathClassLoader(BASE_LOADER, path, true);
+    assertLoadsClassAsLoader(l, "pkg.IntBox");
+    assertDoesNotLoadClass(l, "D");
+    path.add(D_DIR);
+    assertLoadsClassAsLoader(l, "D");
+  }
+
+  /** Tests that a jar file that changes after it was opened is read again, and not through the old handle. */
+  public void testIndexedChangedJarReopened() throws Exception {
+    File dir = IOUtil.createAndMarkTempDirectory("plt-test", "");
+    try {
+      File jar = _makeJar(new File(dir, "a.jar"), A_DIR, "pkg/A.class");
+      PathResourceIndex index = new PathResourceIndex(IterUtil.make(jar));
+      PathResourceIndex other = new PathResourceIndex(IterUtil.make(jar));
+      assertTrue(Arrays.equals(IOUtil.toByteArray(new File(A_DIR, "pkg/A.class")), index.readResource("pkg/A.class")));
+      
+      _makeJar(jar, B_DIR, "bpkg/B.class");
+      assertTrue(jar.setLastModified(jar.lastModified() + 2000));
+      Thread.sleep(PathResourceIndex.CHECK_INTERVAL + 100);
+      assertNull(index.readResource("pkg/A.class"));
+      assertTrue(Arrays.equals(IOUtil.toByteArray(new File(B_DIR, "bpkg/B.class")), index.readResource("bpkg/B.class")));
+      assertTrue(Arrays.equals(IOUtil.toByteArray(new File(B_DIR, "bpkg/B.class")), other.readResource("bpkg/B.class")));
+    }
+    finally { IOUtil.deleteRecursively(dir); }
+  }
+  
+  /** Tests that loaders that are dropped do not leave more than MAX_OPEN_JARS jar files open. */
+  public void testIndexedOpenJarsBounded() throws Exception {
+    File dir = IOUtil.createAndMarkTempDirectory("plt-test", "");
+    try {
+      for (int i = 0; i < PathResourceIndex.MAX_OPEN_JARS + 4; i++) {
+        File jar = _makeJar(new File(dir, "intbox" + i + ".jar"), INTBOX_DIR, "pkg/IntBox.class");
+        assertLoadsClassAsLoader(new PathClassLoader(BASE_LOADER, IterUtil.make(jar), true), "pkg.IntBox");
+        assertTrue(PathResourceIndex.openJarCount() <= PathResourceIndex.MAX_OPEN_JARS);
+      }
+      assertEquals(PathResourceIndex.MAX_OPEN_JARS, PathResourceIndex.openJarCount());
+    }
+    finally { IOUtil.deleteRecursively(dir); }
+  }
+  
+  /** Writes the given files of a directory to a jar file. */
+  private static File _makeJar(File jar, File dir, String... names) throws IOException {
+    JarOutputStream out = new JarOutputStream(new FileOutputStream(jar));
+    try {
+      for (String name : names) {
+        out.putNextEntry(new ZipEntry(name));
+        out.write(IOUtil.toByteArray(new File(dir, name)));
+        out.closeEntry();
+      }
+    }
+    finally { out.close(); }
+    return jar;
+  }
+  
+  /** Run to compare the performance of indexed and unindexed loaders on a path of 200 jar files.
+    * Each jar file holds 50 resources; the last one also holds a class of testFiles/classLoading.  Each run
+    * either creates a loader and loads the class, or looks up 1000 resources that are found and 1000 that are not.
+    */
+  public static void main(String... args) throws Exception {
+    File dir = IOUtil.createAndMarkTempDirectory("plt-bench", "");
+    try {
+      List<File> path = new ArrayList<File>();
+      for (int i = 0; i < 199; i++) {
+        File jar = new File(dir, "lib" + i + ".jar");
+        JarOutputStream out = new JarOutputStream(new FileOutputStream(jar));
+        try {
+          for (int j = 0; j < 50; j++) {
+            out.putNextEntry(new ZipEntry("lib" + i + "/Resource" + j + ".txt"));
+            out.write(("resource " + j).getBytes("UTF-8"));
+            out.closeEntry();
+          }
+        }
+        finally { out.close(); }
+        path.add(jar);
+      }
+      File classes = new File(dir, "classes.jar");
+      _makeJar(classes, INTBOX_DIR, "pkg/IntBox.class");
+      path.add(classes);
+      path = Collections.unmodifiableList(path);
+      
+      int iterations = 20;
+      for (boolean indexed : new boolean[]{ false, true, false, true }) {
+        String mode = indexed ? "indexed" : "URLClassLoader";
+        Stopwatch s = new Stopwatch(true);
+        for (int i = 0; i < iterations; i++) {
+          new PathClassLoader(null, path, indexed).loadClass("pkg.IntBox");
+        }
+        System.out.println("Time for " + iterations + " runs of " + mode + " class loading: " + s.stop());
+        
+        // an empty parent, so that the time is not spent looking in the boot class path
+        PathClassLoader l = new PathClassLoader(EmptyClassLoader.INSTANCE, path, indexed);
+        s.start();
+        for (int i = 0; i < iterations; i++) {
+          for (int j = 0; j < 1000; j++) {
+            l.getResource("lib" + (j % 199) + "/Resource" + (j % 50) + ".txt");
+            l.getResource("missing/Resource" + j + ".txt");
+          }
+        }
+        System.out.println("Time for " + iterations + " runs of " + mode + " resource lookup: " + s.stop());
+      }
+    }
+    finally { IOUtil.deleteRecursively(dir); }
+  }
+  
   private void assertCanGet(ClassLoader l, String className, int value) throws Exception {
     Class<?> c = l.loadClass(className);
     Object instance = c.newInstance();
@@ -0,0 +1,353 @@
+/*BEGIN_COPYRIGHT_BLOCK*
+
+PLT Utilities BSD License
+
+Copyright (c) 2007-2010 JavaPLT group at Rice University
+All rights reserved.
+
+Developed by:   Java Programming Languages Team
+                Rice University
+                http://www.cs.rice.edu/~javaplt/
+
+Redistribution and use in source and binary forms, with or without modification, are permitted 
+provided that the following conditions are met:
+
+    - Redistributions of source code must retain the above copyright notice, this list of conditions 
+      and the following disclaimer.
+    - Redistributions in binary form must reproduce the above copyright notice, this list of 
+      conditions and the following disclaimer in the documentation and/or other materials provided 
+      with the distribution.
+    - Neither the name of the JavaPLT group, Rice University, nor the names of the library's 
+      contributors may be used to endorse or promote products derived from this software without 
+      specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS AND 
+CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+*END_COPYRIGHT_BLOCK*/
+
+
+package edu.rice.cs.plt.reflect;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import edu.rice.cs.plt.io.IOUtil;
+
+import static edu.rice.cs.plt.debug.DebugUtil.error;
+
+/** An index of the resources in a fixed path of directories and jar files, used by {@link PathClassLoader}.
+  * The entry names of each jar file are read once, and are shared by the indices of all paths that contain the
+  * jar file.  The index remembers the jar file in which each resource first occurs, so a lookup of a resource 
+  * that occurs in no jar file is a single hash lookup.  The modification time and length of each jar file are 
+  * checked at most once every {@link #CHECK_INTERVAL} milliseconds, and the entries of a jar file that changed 
+  * are read again.  Directories are not indexed: their contents change whenever classes are compiled, and 
+  * keeping an index of a directory tree valid would take as many file system queries as looking the resource up.
+  * Instead, each directory before the jar file that holds a resource is probed directly.  The jar files, with their
+  * entry names, are kept in a cache of bounded size shared by all indices, and at most {@link #MAX_OPEN_JARS} of
+  * them are kept open, so that an index holds no resources of its own and may simply be dropped.  Thread-safe.
+  */
+class PathResourceIndex {
+  
+  /** The number of milliseconds during which the jar files are assumed not to have changed. */
+  static final long CHECK_INTERVAL = 1000;
+  
+  /** The maximum number of jar files whose entry names are kept. */
+  static final int MAX_JAR_CONTENTS = 1000;
+  
+  /** The maximum number of jar files kept open to read resources. */
+  static final int MAX_OPEN_JARS = 16;
+  
+  /** The most recently used jar files, shared by all indices.  A jar file that is evicted, or that is replaced
+    * because it changed, is retired: its entry names are dropped and it is closed.  Guarded by itself.
+    */
+  private static final Map<File, Jar> JARS = new LinkedHashMap<File, Jar>(16, 0.75f, true) {
+    protected boolean removeEldestEntry(Map.Entry<File, Jar> eldest) {
+      if (size() <= MAX_JAR_CONTENTS) { return false; }
+      _retire(eldest.getValue());
+      return true;
+    }
+  };
+  
+  /** The jar files in JARS that are open, most recently read last.  Guarded by JARS. */
+  private static final Map<Jar, Jar> OPEN_JARS = new LinkedHashMap<Jar, Jar>(16, 0.75f, true) {
+    protected boolean removeEldestEntry(Map.Entry<Jar, Jar> eldest) {
+      if (size() <= MAX_OPEN_JARS) { return false; }
+      TO_CLOSE.add(eldest.getKey());
+      return true;
+    }
+  };
+  
+  /** Jar files removed from OPEN_JARS, to be closed once the lock on JARS is released.  Guarded by JARS. */
+  private static final List<Jar> TO_CLOSE = new ArrayList<Jar>();
+  
+  /** A jar file, with its entry names as of a modification time and length.  The jar file is opened on the first
+    * read and stays open until it is evicted from OPEN_JARS or retired.  Reads are guarded by the Jar itself, so 
+    * that reading one jar file does not block readers of the others, and a jar file is never closed while it is
+    * being read.  A retired Jar never keeps its file open again, so a changed jar file is not read through a 
+    * handle that outlives its entry names.
+    */
+  private static final class Jar {
+    final File file;
+    final long modified;
+    final long length;
+    /** The URL of the jar file, as a prefix of the URLs of its entries. */
+    final String url;
+    final Set<String> entries;
+    /** Set, while holding the lock on JARS, when this is no longer the Jar of its file in JARS. */
+    volatile boolean retired;
+    /** The open jar file, or null.  Guarded by this. */
+    private ZipFile _zip;
+    
+    Jar(File f) {
+      file = f;
+      modified = f.lastModified();
+      length = f.length();
+      String u = null;
+      Set<String> names = new HashSet<String>();
+      try {
+        u = "jar:" + f.toURI().toURL() + "!/";
+        ZipFile jar = new ZipFile(f);
+        try {
+          Enumeration<? extends ZipEntry> e = jar.entries();
+          while (e.hasMoreElements()) { names.add(e.nextElement().getName()); }
+        }
+        finally { jar.close(); }
+      }
+      // skip the element, like URLClassLoader
+      catch (IOException e) { error.log(e); names.clear(); }
+      catch (IllegalArgumentException e) { error.log(e); names.clear(); }
+      url = u;
+      entries = names;
+    }
+    
+    boolean isCurrent(File f) { return f.lastModified() == modified && f.length() == length; }
+    
+    /** Reads the named entry, opening the jar file if it is not open. */
+    byte[] read(String name) throws IOException {
+      boolean opened = false;
+      byte[] result;
+      synchronized (this) {
+        if (_zip == null) {
+          if (retired) {
+            ZipFile zip = new ZipFile(file);
+            try { return _read(zip, name); }
+            finally { zip.close(); }
+          }
+          _zip = new ZipFile(file);
+          opened = true;
+        }
+        result = _read(_zip, name);
+      }
+      _used(this, opened);
+      return result;
+    }
+    
+    private byte[] _read(ZipFile zip, String name) throws IOException {
+      ZipEntry entry = zip.getEntry(name);
+      if (entry == null) { throw new IOException("Entry " + name + " of " + file + " disappeared"); }
+      InputStream in = zip.getInputStream(entry);
+      try { return IOUtil.toByteArray(in); }
+      finally { in.close(); }
+    }
+    
+    synchronized void close() {
+      if (_zip != null) {
+        try { _zip.close(); }
+        catch (IOException e) { error.log(e); }
+        _zip = null;
+      }
+    }
+  }
+  
+  /** @return the jar file for the given file, read again if the file changed since it was last read */
+  private static Jar _jar(File f) {
+    Jar result;
+    synchronized (JARS) {
+      result = JARS.get(f);
+      if (result == null || ! result.isCurrent(f)) {
+        if (result != null) { _retire(result); }
+        result = new Jar(f);
+        JARS.put(f, result);
+      }
+    }
+    _closeRemoved();
+    return result;
+  }
+  
+  /** Records that a jar file was read, and whether it was opened to do so. */
+  private static void _used(Jar jar, boolean opened) {
+    synchronized (JARS) {
+      if (jar.retired) {
+        if (opened) { TO_CLOSE.add(jar); }
+      }
+      else if (opened) { OPEN_JARS.put(jar, jar); }
+      else { OPEN_JARS.get(jar); }  // mark as recently used
+    }
+    _closeRemoved();
+  }
+  
+  /** Retires a jar file that is being removed from JARS.  Must be called while holding the lock on JARS. */
+  private static void _retire(Jar jar) {
+    jar.retired = true;
+    OPEN_JARS.remove(jar);
+    TO_CLOSE.add(jar);
+  }
+  
+  /** Closes the jar files in TO_CLOSE.  Must be called without holding the lock on JARS, because closing a jar 
+    * file waits for it to be read.
+    */
+  private static void _closeRemoved() {
+    List<Jar> jars;
+    synchronized (JARS) {
+      if (TO_CLOSE.isEmpty()) { return; }
+      jars = new ArrayList<Jar>(TO_CLOSE);
+      TO_CLOSE.clear();
+    }
+    for (Jar jar : jars) { jar.close(); }
+  }
+  
+  /** @return the number of jar files currently open; used for testing */
+  static int openJarCount() {
+    synchronized (JARS) { return OPEN_JARS.size(); }
+  }
+  
+  private final List<File> _path;
+  
+  /** The jar file at each position in the path; null for directories and missing files. */
+  private final Jar[] _jars;
+  /** The position in the path of the first jar file that holds each resource. */
+  private final Map<String, Integer> _first;
+  /** Whether any element of the path is a directory, or is missing and may become one. */
+  private boolean _hasDirectories;
+  
+  private long _checked;
+  
+  /** Creates an index of the given path.  The jar files are read lazily, on the first lookup. */
+  PathResourceIndex(Iterable<? extends File> path) {
+    _path = new ArrayList<File>();
+    for (File f : path) { _path.add(f); }
+    _jars = new Jar[_path.size()];
+    _first = new HashMap<String, Integer>();
+    _checked = -1;
+  }
+  
+  /** @return the path of this index */
+  List<File> path() { return _path; }
+  
+  /** @return a URL for the first occurrence of the named resource in the path, or null if it is not found */
+  synchronized URL findResource(String name) {
+    int i = _find(name);
+    return (i < 0) ? null : _url(i, name);
+  }
+  
+  /** @return URLs for all occurrences of the named resource in the path, in path order */
+  synchronized List<URL> findResources(String name) {
+    _validate();
+    List<URL> result = new ArrayList<URL>();
+    for (int i = 0; i < _path.size(); i++) {
+      Jar jar = _jars[i];
+      if ((jar == null) ? new File(_path.get(i), name).isFile() : jar.entries.contains(name)) {
+        URL url = _url(i, name);
+        if (url != null) { result.add(url); }
+      }
+    }
+    return result;
+  }
+  
+  /** Reads the first occurrence of the named resource in the path, directly from its jar file or directory.
+    * @return the contents of the resource, or null if it is not found
+    * @throws IOException if the resource is found but cannot be read
+    */
+  byte[] readResource(String name) throws IOException {
+    Jar jar;
+    File dir;
+    synchronized (this) {
+      int i = _find(name);
+      if (i < 0) { return null; }
+      jar = _jars[i];
+      dir = _path.get(i);
+    }
+    if (jar != null) { return jar.read(name); }
+    InputStream in = new FileInputStream(new File(dir, name));
+    try { return IOUtil.toByteArray(in); }
+    finally { in.close(); }
+  }
+  
+  /** @return the position in the path of the first occurrence of the named resource, or -1 */
+  private int _find(String name) {
+    _validate();
+    Integer jar = _first.get(name);
+    int end = (jar == null) ? _path.size() : jar;
+    if (_hasDirectories) {
+      for (int i = 0; i < end; i++) {
+        if (_jars[i] == null && new File(_path.get(i), name).isFile()) { return i; }
+      }
+    }
+    return (jar == null) ? -1 : jar;
+  }
+  
+  private URL _url(int i, String name) {
+    try {
+      if (_jars[i] == null) { return new File(_path.get(i), name).toURI().toURL(); }
+      else { return new URL(_jars[i].url + name); }
+    }
+    catch (MalformedURLException e) { error.log(e); return null; }
+    catch (IllegalArgumentException e) { error.log(e); return null; }
+  }
+  
+  /** Rebuilds the index if any jar file changed since it was last read, unless the jar files were checked
+    * less than CHECK_INTERVAL milliseconds ago.
+    */
+  private void _validate() {
+    long now = System.currentTimeMillis();
+    if (_checked >= 0 && now - _checked < CHECK_INTERVAL) { return; }
+    boolean changed = (_checked < 0);
+    for (int i = 0; i < _path.size() && ! changed; i++) {
+      File f = _path.get(i);
+      if (_jars[i] == null) { changed = f.isFile(); }  // a missing element became a jar file
+      else { changed = ! _jars[i].isCurrent(f); }
+    }
+    if (changed) { _read(); }
+    _checked = now;
+  }
+  
+  /** Indexes the entries of all jar files in the path. */
+  private void _read() {
+    _first.clear();
+    _hasDirectories = false;
+    for (int i = 0; i < _path.size(); i++) {
+      File f = _path.get(i);
+      if (f.isFile()) {
+        _jars[i] = _jar(f);
+        for (String name : _jars[i].entries) {
+          if (! _first.containsKey(name)) { _first.put(name, i); }
+        }
+      }
+      else {
+        _jars[i] = null;
+        _hasDirectories = true;
+      }
+    }
+  }
+}